@@ -30,6 +30,7 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.RowN;
 import io.crate.execution.engine.aggregation.impl.AggregationImplModule;
 import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
 import io.crate.metadata.Functions;
@@ -68,8 +69,10 @@ public class GroupingBytesRefCollectorBenchmark {
         new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
 
     private GroupingCollector groupByMinCollector;
+    private PrimitiveGroupingCollector primitiveGroupByMinCollector;
     private BatchIterator<Row> rowsIterator;
     private List<Row> rows;
+    private List<Row> ordinalRows;
 
     @Setup
     public void createGroupingCollector() {
@@ -77,6 +80,7 @@ public class GroupingBytesRefCollectorBenchmark {
             .createInjector().getInstance(Functions.class);
 
         groupByMinCollector = createGroupByMinBytesRefCollector(functions);
+        primitiveGroupByMinCollector = createPrimitiveGroupByMinOrdinalCollector(functions);
 
         List<BytesRef> keys = new ArrayList<>(Locale.getISOCountries().length);
         for (String s : Locale.getISOCountries()) {
@@ -84,11 +88,37 @@ public class GroupingBytesRefCollectorBenchmark {
         }
 
         rows = new ArrayList<>(20_000_000);
+        ordinalRows = new ArrayList<>(20_000_000);
         for (int i = 0; i < 20_000_000; i++) {
-            rows.add(new Row1(keys.get(i % keys.size())));
+            int ordinal = i % keys.size();
+            rows.add(new Row1(keys.get(ordinal)));
+            ordinalRows.add(new RowN(new Object[] { ordinal, (long) i }));
         }
     }
 
+    /**
+     * Groups by the ordinal of the keys instead of the keys themselves (like a dictionary encoded column would),
+     * which allows to use the {@link PrimitiveGroupingCollector}
+     */
+    private PrimitiveGroupingCollector createPrimitiveGroupByMinOrdinalCollector(Functions functions) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+
+        AggregationFunction minAgg =
+            (AggregationFunction) functions.getBuiltin(MinimumAggregation.NAME, Collections.singletonList(DataTypes.LONG));
+
+        return new PrimitiveGroupingCollector(
+            new CollectExpression[] { keyInput, valueInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { minAgg },
+            new Input[][] { new Input[] { valueInput }},
+            RAM_ACCOUNTING_CONTEXT,
+            Collections.singletonList(keyInput),
+            Collections.singletonList(DataTypes.INTEGER),
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+    }
+
     private GroupingCollector createGroupByMinBytesRefCollector(Functions functions) {
         InputCollectExpression keyInput = new InputCollectExpression(0);
         List<Input<?>> keyInputs = Collections.singletonList(keyInput);
@@ -106,7 +136,8 @@ public class GroupingBytesRefCollectorBenchmark {
             keyInputs.get(0),
             DataTypes.STRING,
             Version.CURRENT,
-            BigArrays.NON_RECYCLING_INSTANCE
+            BigArrays.NON_RECYCLING_INSTANCE,
+            null
         );
     }
 
@@ -115,4 +146,11 @@ public class GroupingBytesRefCollectorBenchmark {
         rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL);
         blackhole.consume(BatchIterators.collect(rowsIterator, groupByMinCollector).get());
     }
+
+    @Benchmark
+    public void measurePrimitiveGroupByMinOrdinal(Blackhole blackhole) throws Exception {
+        rowsIterator = InMemoryBatchIterator.of(ordinalRows, SENTINEL);
+        blackhole.consume(BatchIterators.collect(rowsIterator, primitiveGroupByMinCollector).get());
+        primitiveGroupByMinCollector.releaseGroups();
+    }
 }
@@ -30,6 +30,7 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.RowN;
 import io.crate.execution.engine.aggregation.GroupingCollector;
 import io.crate.metadata.Functions;
 import io.crate.execution.engine.aggregation.AggregationFunction;
@@ -68,39 +69,96 @@ public class GroupingIntegerCollectorBenchmark {
         new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
 
     private GroupingCollector groupBySumCollector;
+    private PrimitiveGroupingCollector primitiveGroupBySumCollector;
+    private GroupingCollector groupByTwoKeysSumCollector;
+    private PrimitiveGroupingCollector primitiveGroupByTwoKeysSumCollector;
     private BatchIterator<Row> rowsIterator;
     private List<Row> rows;
+    private List<Row> twoKeyRows;
 
     @Setup
     public void createGroupingCollector() {
         Functions functions = new ModulesBuilder().add(new AggregationImplModule())
             .createInjector().getInstance(Functions.class);
         groupBySumCollector = createGroupBySumCollector(functions);
+        primitiveGroupBySumCollector = createPrimitiveGroupBySumCollector(functions);
+        groupByTwoKeysSumCollector = createGroupByTwoKeysSumCollector(functions);
+        primitiveGroupByTwoKeysSumCollector = createPrimitiveGroupByTwoKeysSumCollector(functions);
 
         rows = new ArrayList<>(20_000_000);
+        twoKeyRows = new ArrayList<>(20_000_000);
         for (int i = 0; i < 20_000_000; i++) {
             rows.add(new Row1(i % 200));
+            twoKeyRows.add(new RowN(new Object[] { i % 200, (long) (i % 7) }));
         }
     }
 
+    private static AggregationFunction sumAggregation(Functions functions) {
+        return (AggregationFunction) functions.getBuiltin(SumAggregation.NAME, Arrays.asList(DataTypes.INTEGER));
+    }
+
+    private PrimitiveGroupingCollector createPrimitiveGroupBySumCollector(Functions functions) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        return new PrimitiveGroupingCollector(
+            new CollectExpression[] { keyInput },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAggregation(functions) },
+            new Input[][] { new Input[] { keyInput }},
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.<Input<?>>asList(keyInput),
+            Arrays.asList(DataTypes.INTEGER),
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+    }
+
+    private GroupingCollector createGroupByTwoKeysSumCollector(Functions functions) {
+        InputCollectExpression firstKey = new InputCollectExpression(0);
+        InputCollectExpression secondKey = new InputCollectExpression(1);
+        return GroupingCollector.manyKeys(
+            new CollectExpression[] { firstKey, secondKey },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAggregation(functions) },
+            new Input[][] { new Input[] { firstKey }},
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.<Input<?>>asList(firstKey, secondKey),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.LONG),
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            null
+        );
+    }
+
+    private PrimitiveGroupingCollector createPrimitiveGroupByTwoKeysSumCollector(Functions functions) {
+        InputCollectExpression firstKey = new InputCollectExpression(0);
+        InputCollectExpression secondKey = new InputCollectExpression(1);
+        return new PrimitiveGroupingCollector(
+            new CollectExpression[] { firstKey, secondKey },
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAggregation(functions) },
+            new Input[][] { new Input[] { firstKey }},
+            RAM_ACCOUNTING_CONTEXT,
+            Arrays.<Input<?>>asList(firstKey, secondKey),
+            Arrays.asList(DataTypes.INTEGER, DataTypes.LONG),
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+    }
+
     private GroupingCollector createGroupBySumCollector(Functions functions) {
         InputCollectExpression keyInput = new InputCollectExpression(0);
         List<Input<?>> keyInputs = Arrays.<Input<?>>asList(keyInput);
         CollectExpression[] collectExpressions = new CollectExpression[]{keyInput};
 
-        AggregationFunction sumAgg =
-            (AggregationFunction) functions.getBuiltin(SumAggregation.NAME, Arrays.asList(DataTypes.INTEGER));
-
         return GroupingCollector.singleKey(
             collectExpressions,
             AggregateMode.ITER_FINAL,
-            new AggregationFunction[] { sumAgg },
+            new AggregationFunction[] { sumAggregation(functions) },
             new Input[][] { new Input[] { keyInput }},
             RAM_ACCOUNTING_CONTEXT,
             keyInputs.get(0),
             DataTypes.INTEGER,
             Version.CURRENT,
-            BigArrays.NON_RECYCLING_INSTANCE
+            BigArrays.NON_RECYCLING_INSTANCE,
+            null
         );
     }
 
@@ -109,4 +167,24 @@ public class GroupingIntegerCollectorBenchmark {
         rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL);
         blackhole.consume(BatchIterators.collect(rowsIterator, groupBySumCollector).get());
     }
+
+    @Benchmark
+    public void measurePrimitiveGroupBySumInteger(Blackhole blackhole) throws Exception {
+        rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL);
+        blackhole.consume(BatchIterators.collect(rowsIterator, primitiveGroupBySumCollector).get());
+        primitiveGroupBySumCollector.releaseGroups();
+    }
+
+    @Benchmark
+    public void measureGroupByTwoKeysSumInteger(Blackhole blackhole) throws Exception {
+        rowsIterator = InMemoryBatchIterator.of(twoKeyRows, SENTINEL);
+        blackhole.consume(BatchIterators.collect(rowsIterator, groupByTwoKeysSumCollector).get());
+    }
+
+    @Benchmark
+    public void measurePrimitiveGroupByTwoKeysSumInteger(Blackhole blackhole) throws Exception {
+        rowsIterator = InMemoryBatchIterator.of(twoKeyRows, SENTINEL);
+        blackhole.consume(BatchIterators.collect(rowsIterator, primitiveGroupByTwoKeysSumCollector).get());
+        primitiveGroupByTwoKeysSumCollector.releaseGroups();
+    }
 }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.InputColumn;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.expression.InputFactory;
+import io.crate.execution.expression.operator.AndOperator;
+import io.crate.execution.expression.operator.GtOperator;
+import io.crate.execution.expression.operator.LtOperator;
+import io.crate.execution.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.execution.expression.scalar.cast.CastFunctionResolver;
+import io.crate.metadata.FunctionIdent;
+import io.crate.metadata.FunctionInfo;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+
+/**
+ * Compares the evaluation of the interpreted {@link io.crate.execution.expression.FunctionExpression} trees
+ * with the classes generated by the {@link ExpressionCompiler} for:
+ *
+ * <pre>
+ * filter:     WHERE x + 1 > 10 AND a * 2 < 100
+ * projection: SELECT (x - 3) * 2 + a
+ * </pre>
+ *
+ * where x is a long and a an integer column.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ExpressionCompilerBenchmark {
+
+    private final List<Row> rows = IntStream.range(0, 10_000)
+        .mapToObj(i -> new RowN(new Object[] { (long) i, i % 100 }))
+        .collect(Collectors.toList());
+
+    private Evaluation interpretedFilter;
+    private Evaluation compiledFilter;
+    private Evaluation interpretedProjection;
+    private Evaluation compiledProjection;
+
+    @Setup
+    public void setup() {
+        InputColumn x = new InputColumn(0, DataTypes.LONG);
+        InputColumn a = new InputColumn(1, DataTypes.INTEGER);
+        Function filter = AndOperator.of(
+            cmp(GtOperator.NAME, arithmetic(ArithmeticFunctions.Names.ADD, x, Literal.of(1L)), Literal.of(10L)),
+            cmp(LtOperator.NAME, arithmetic(ArithmeticFunctions.Names.MULTIPLY, a, Literal.of(2)), Literal.of(100))
+        );
+        Function projection = arithmetic(
+            ArithmeticFunctions.Names.ADD,
+            arithmetic(ArithmeticFunctions.Names.MULTIPLY,
+                arithmetic(ArithmeticFunctions.Names.SUBTRACT, x, Literal.of(3L)),
+                Literal.of(2L)),
+            CastFunctionResolver.generateCastFunction(a, DataTypes.LONG, false));
+
+        interpretedFilter = new Evaluation(filter, false);
+        compiledFilter = new Evaluation(filter, true);
+        interpretedProjection = new Evaluation(projection, false);
+        compiledProjection = new Evaluation(projection, true);
+    }
+
+    private static Function arithmetic(String name, Symbol left, Symbol right) {
+        return ArithmeticFunctions.of(name, left, right, FunctionInfo.NO_FEATURES);
+    }
+
+    private static Function cmp(String name, Symbol left, Symbol right) {
+        DataType type = left.valueType();
+        return new Function(
+            new FunctionInfo(new FunctionIdent(name, Arrays.asList(type, type)), DataTypes.BOOLEAN),
+            Arrays.asList(left, right));
+    }
+
+    private static class Evaluation {
+
+        private final List<CollectExpression<Row, ?>> expressions;
+        private final Input<?> input;
+
+        Evaluation(Function function, boolean compile) {
+            InputFactory.Context<CollectExpression<Row, ?>> ctx = new InputFactory(getFunctions()).ctxForInputColumns();
+            input = compile ? ExpressionCompiler.compile(function, ctx::add) : ctx.add(function);
+            assert !compile || input instanceof CompiledExpression : "function must be compiled";
+            expressions = ctx.expressions();
+        }
+
+        Object evaluate(Row row) {
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+            return input.value();
+        }
+    }
+
+    private void evaluateAll(Evaluation evaluation, Blackhole blackhole) {
+        for (int i = 0; i < rows.size(); i++) {
+            blackhole.consume(evaluation.evaluate(rows.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void measureInterpretedFilter(Blackhole blackhole) {
+        evaluateAll(interpretedFilter, blackhole);
+    }
+
+    @Benchmark
+    public void measureCompiledFilter(Blackhole blackhole) {
+        evaluateAll(compiledFilter, blackhole);
+    }
+
+    @Benchmark
+    public void measureInterpretedProjection(Blackhole blackhole) {
+        evaluateAll(interpretedProjection, blackhole);
+    }
+
+    @Benchmark
+    public void measureCompiledProjection(Blackhole blackhole) {
+        evaluateAll(compiledProjection, blackhole);
+    }
+}
@@ -46,6 +46,7 @@ import org.elasticsearch.indices.recovery.RecoverySourceHandler;
 import org.elasticsearch.indices.recovery.RecoverySourceHandlerProvider;
 import org.elasticsearch.indices.recovery.RemoteRecoveryTargetHandler;
 import org.elasticsearch.indices.recovery.StartRecoveryRequest;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.function.Function;
@@ -61,6 +62,8 @@ public class BlobService extends AbstractLifecycleComponent {
     private final BlobTransferTarget blobTransferTarget;
     private final Client client;
     private final PipelineRegistry piplineRegistry;
+    private final ThreadPool threadPool;
+    private final int maxConcurrentRecoveryFileTransfers;
 
     @Inject
     public BlobService(Settings settings,
@@ -71,7 +74,8 @@ public class BlobService extends AbstractLifecycleComponent {
                        TransportService transportService,
                        BlobTransferTarget blobTransferTarget,
                        Client client,
-                       PipelineRegistry pipelineRegistry) {
+                       PipelineRegistry pipelineRegistry,
+                       ThreadPool threadPool) {
         super(settings);
         this.clusterService = clusterService;
         this.blobIndicesService = blobIndicesService;
@@ -81,6 +85,8 @@ public class BlobService extends AbstractLifecycleComponent {
         this.blobTransferTarget = blobTransferTarget;
         this.client = client;
         this.piplineRegistry = pipelineRegistry;
+        this.threadPool = threadPool;
+        this.maxConcurrentRecoveryFileTransfers = BlobRecoveryHandler.SETTING_MAX_CONCURRENT_FILE_TRANSFERS.get(settings);
     }
 
     public RemoteDigestBlob newBlob(String index, String digest) {
@@ -118,7 +124,9 @@ public class BlobService extends AbstractLifecycleComponent {
                     logger,
                     transportService,
                     blobTransferTarget,
-                    blobIndicesService
+                    blobIndicesService,
+                    maxConcurrentRecoveryFileTransfers,
+                    threadPool.generic()
                 );
             }
         });
@@ -29,38 +29,47 @@ import io.crate.blob.v2.BlobShard;
 import io.crate.common.Hex;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
-import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.util.CancellableThreads;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.indices.recovery.BlobFinalizeRecoveryRequest;
+import org.elasticsearch.indices.recovery.BlobManifestResponse;
 import org.elasticsearch.indices.recovery.BlobRecoveryChunkRequest;
 import org.elasticsearch.indices.recovery.BlobRecoveryDeleteRequest;
 import org.elasticsearch.indices.recovery.BlobRecoveryStartTransferRequest;
 import org.elasticsearch.indices.recovery.BlobRecoveryTarget;
+import org.elasticsearch.indices.recovery.BlobStartManifestRequest;
 import org.elasticsearch.indices.recovery.BlobStartPrefixResponse;
 import org.elasticsearch.indices.recovery.BlobStartPrefixSyncRequest;
 import org.elasticsearch.indices.recovery.BlobStartRecoveryRequest;
 import org.elasticsearch.indices.recovery.RecoverySourceHandler;
 import org.elasticsearch.indices.recovery.RecoveryTargetHandler;
 import org.elasticsearch.indices.recovery.StartRecoveryRequest;
+import org.elasticsearch.transport.ActionNotFoundTransportException;
 import org.elasticsearch.transport.EmptyTransportResponseHandler;
 import org.elasticsearch.transport.FutureTransportResponseHandler;
+import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportResponse;
 import org.elasticsearch.transport.TransportService;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.CountDownLatch;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -68,6 +77,9 @@ import java.util.function.Supplier;
 
 public class BlobRecoveryHandler extends RecoverySourceHandler {
 
+    public static final Setting<Integer> SETTING_MAX_CONCURRENT_FILE_TRANSFERS = Setting.intSetting(
+        "blobs.recovery.max_concurrent_file_transfers", 4, 1, Setting.Property.NodeScope);
+
     private static final Logger logger = Loggers.getLogger(BlobRecoveryHandler.class);
     private final StartRecoveryRequest request;
     private final TransportService transportService;
@@ -75,6 +87,9 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
     private final IndexShard shard;
     private final BlobTransferTarget blobTransferTarget;
     private final int GET_HEAD_TIMEOUT;
+    private final int fileChunkSizeInBytes;
+    private final int maxConcurrentFileTransfers;
+    private final Executor transferExecutor;
 
 
     public BlobRecoveryHandler(IndexShard shard,
@@ -86,7 +101,9 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
                                Logger logger,
                                final TransportService transportService,
                                BlobTransferTarget blobTransferTarget,
-                               BlobIndicesService blobIndicesService) {
+                               BlobIndicesService blobIndicesService,
+                               int maxConcurrentFileTransfers,
+                               Executor transferExecutor) {
         super(shard, recoveryTarget, request, currentClusterStateVersionSupplier, delayNewRecoveries, fileChunkSizeInBytes, logger);
         assert BlobIndex.isBlobIndex(shard.shardId().getIndexName()) : "Shard must belong to a blob index";
         this.blobShard = blobIndicesService.blobShardSafe(request.shardId());
@@ -94,6 +111,9 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
         this.transportService = transportService;
         this.blobTransferTarget = blobTransferTarget;
         this.shard = shard;
+        this.fileChunkSizeInBytes = fileChunkSizeInBytes;
+        this.maxConcurrentFileTransfers = maxConcurrentFileTransfers;
+        this.transferExecutor = transferExecutor;
         String property = System.getProperty("tests.short_timeouts");
         if (property == null) {
             GET_HEAD_TIMEOUT = 30;
@@ -102,7 +122,36 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
         }
     }
 
-    private Set<BytesArray> getExistingDigestsFromTarget(byte prefix) {
+    /**
+     * @return the manifest of all digests of the target or null if the target doesn't support manifests
+     */
+    @Nullable
+    private DigestManifest getDigestManifestFromTarget() {
+        try {
+            BlobManifestResponse response =
+                (BlobManifestResponse) transportService.submitRequest(
+                    request.targetNode(),
+                    BlobRecoveryTarget.Actions.START_MANIFEST,
+                    new BlobStartManifestRequest(request.recoveryId()),
+                    TransportRequestOptions.EMPTY,
+                    new FutureTransportResponseHandler<TransportResponse>() {
+                        @Override
+                        public TransportResponse newInstance() {
+                            return new BlobManifestResponse();
+                        }
+                    }
+                ).txGet();
+            return new DigestManifest(response.digests);
+        } catch (TransportException e) {
+            if (ExceptionsHelper.unwrapCause(e) instanceof ActionNotFoundTransportException) {
+                // target runs an older version
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private DigestManifest getExistingDigestsFromTarget(byte prefix) {
         BlobStartPrefixResponse response =
             (BlobStartPrefixResponse) transportService.submitRequest(
                 request.targetNode(),
@@ -117,11 +166,7 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
                 }
             ).txGet();
 
-        Set<BytesArray> result = new HashSet<>();
-        for (byte[] digests : response.existingDigests) {
-            result.add(new BytesArray(digests));
-        }
-        return result;
+        return DigestManifest.of(Arrays.asList(response.existingDigests));
     }
 
     @Override
@@ -175,36 +220,73 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
             stopWatch.totalTime());
     }
 
+    /**
+     * Transfers the blobs which are missing on the target and deletes the blobs which only exist on the target.
+     * Up to {@link #maxConcurrentFileTransfers} files are transferred in parallel, across prefixes.
+     */
     private void syncVarFiles(AtomicReference<Exception> lastException) throws InterruptedException, IOException {
-        for (byte prefix : BlobContainer.PREFIXES) {
-            // byte[1] and byte[1] have different hashCodes
-            // so setA.removeAll(setB) wouldn't work with byte[], that's why BytesArray is used here
-            Set<BytesArray> remoteDigests = getExistingDigestsFromTarget(prefix);
-            Set<BytesArray> localDigests = new HashSet<>();
-            for (byte[] digest : blobShard.currentDigests(prefix)) {
-                localDigests.add(new BytesArray(digest));
-            }
+        DigestManifest targetManifest = getDigestManifestFromTarget();
+        if (targetManifest == null) {
+            logger.debug("[{}][{}] {} doesn't support digest manifests, requesting the digests per prefix",
+                request.shardId().getIndexName(), request.shardId().id(), request.targetNode().getName());
+        }
+        Semaphore transferPermits = new Semaphore(maxConcurrentFileTransfers);
+        try {
+            for (byte prefix : BlobContainer.PREFIXES) {
+                if (lastException.get() != null) {
+                    break;
+                }
+                DigestManifest manifest = targetManifest == null ? getExistingDigestsFromTarget(prefix) : targetManifest;
+                List<byte[]> missingDigests = new ArrayList<>();
+                List<byte[]> deletableDigests = new ArrayList<>();
+                manifest.diff(prefix, blobShard.currentDigests(prefix), missingDigests, deletableDigests);
+
+                for (byte[] digestBytes : missingDigests) {
+                    cancellableThreads.execute(transferPermits::acquire);
+                    if (lastException.get() != null) {
+                        transferPermits.release();
+                        break;
+                    }
+                    final String digest = Hex.encodeHexString(digestBytes);
+                    logger.trace("[{}][{}] start to transfer file var/{} to {}",
+                        request.shardId().getIndexName(), request.shardId().id(), digest,
+                        request.targetNode().getName());
+                    transferFile(blobShard.blobContainer().getFile(digest), lastException, transferPermits);
+                }
 
-            Set<BytesArray> localButNotRemoteDigests = new HashSet<>(localDigests);
-            localButNotRemoteDigests.removeAll(remoteDigests);
-
-            final CountDownLatch latch = new CountDownLatch(localButNotRemoteDigests.size());
-            for (BytesArray digestBytes : localButNotRemoteDigests) {
-                final String digest = Hex.encodeHexString(BytesReference.toBytes(digestBytes));
-                logger.trace("[{}][{}] start to transfer file var/{} to {}",
-                    request.shardId().getIndexName(), request.shardId().id(), digest,
-                    request.targetNode().getName());
-                cancellableThreads.executeIO(
-                    new TransferFileRunnable(blobShard.blobContainer().getFile(digest),
-                        lastException, latch)
-                );
+                if (!deletableDigests.isEmpty()) {
+                    BytesArray[] digests = new BytesArray[deletableDigests.size()];
+                    for (int i = 0; i < digests.length; i++) {
+                        digests[i] = new BytesArray(deletableDigests.get(i));
+                    }
+                    deleteFilesRequest(digests);
+                }
             }
-            latch.await();
+        } finally {
+            // wait for the running transfers
+            cancellableThreads.execute(() -> transferPermits.acquire(maxConcurrentFileTransfers));
+        }
+    }
 
-            remoteDigests.removeAll(localDigests);
-            if (!remoteDigests.isEmpty()) {
-                deleteFilesRequest(remoteDigests.toArray(new BytesArray[remoteDigests.size()]));
-            }
+    /**
+     * Transfers the file on the transfer executor and releases the permit once done.
+     */
+    private void transferFile(File file, AtomicReference<Exception> lastException, Semaphore transferPermits) {
+        TransferFileRunnable transfer = new TransferFileRunnable(file, lastException);
+        try {
+            transferExecutor.execute(() -> {
+                try {
+                    cancellableThreads.executeIO(transfer);
+                } catch (Exception e) {
+                    logger.error("exception while file transfer", e);
+                    lastException.set(e);
+                } finally {
+                    transferPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            transferPermits.release();
+            throw e;
         }
     }
 
@@ -240,12 +322,10 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
         private final AtomicReference<Exception> lastException;
         private final String baseDir;
         private final File file;
-        private final CountDownLatch latch;
 
-        TransferFileRunnable(File filePath, AtomicReference<Exception> lastException, CountDownLatch latch) {
+        TransferFileRunnable(File filePath, AtomicReference<Exception> lastException) {
             this.file = filePath;
             this.lastException = lastException;
-            this.latch = latch;
             this.baseDir = blobShard.blobContainer().getBaseDirectory().toAbsolutePath().toString();
         }
 
@@ -253,9 +333,9 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
         public void run() {
 
             try {
-                final int BUFFER_SIZE = 4 * 4096;
-
                 long fileSize = file.length();
+                // small files are sent within the start request, larger files in chunks of the recovery chunk size
+                final int BUFFER_SIZE = (int) Math.max(1, Math.min(fileSize, fileChunkSizeInBytes));
 
                 if (fileSize == 0) {
                     logger.warn("[{}][{}] empty file: {}",
@@ -335,8 +415,6 @@ public class BlobRecoveryHandler extends RecoverySourceHandler {
             } catch (IOException ex) {
                 logger.error("exception while file transfer", ex);
                 lastException.set(ex);
-            } finally {
-                latch.countDown();
             }
         }
     }
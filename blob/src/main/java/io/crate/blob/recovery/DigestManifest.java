@@ -0,0 +1,135 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.blob.recovery;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The sorted digests of all blobs of a shard, stored as one byte array of consecutive 20 byte digests.
+ *
+ * <p>
+ * The recovery target sends its manifest once, instead of a list of digests per prefix, so that the
+ * source can compute which blobs are missing or deletable on the target without a round trip per prefix.
+ * As the prefix is the first byte of a digest, the digests of a prefix form a consecutive range.
+ * </p>
+ */
+public final class DigestManifest {
+
+    public static final int DIGEST_LENGTH = 20;
+
+    private static final Comparator<byte[]> DIGEST_COMPARATOR = (a, b) -> compare(a, 0, b, 0);
+
+    private final byte[] digests;
+    private final int size;
+
+    /**
+     * @param sortedDigests consecutive digests, sorted as unsigned bytes
+     */
+    public DigestManifest(byte[] sortedDigests) {
+        assert sortedDigests.length % DIGEST_LENGTH == 0 : "length must be a multiple of the digest length";
+        this.digests = sortedDigests;
+        this.size = sortedDigests.length / DIGEST_LENGTH;
+    }
+
+    public static DigestManifest of(List<byte[]> digests) {
+        byte[][] sorted = digests.toArray(new byte[digests.size()][]);
+        Arrays.sort(sorted, DIGEST_COMPARATOR);
+        byte[] bytes = new byte[sorted.length * DIGEST_LENGTH];
+        for (int i = 0; i < sorted.length; i++) {
+            System.arraycopy(sorted[i], 0, bytes, i * DIGEST_LENGTH, DIGEST_LENGTH);
+        }
+        return new DigestManifest(bytes);
+    }
+
+    public byte[] bytes() {
+        return digests;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Compares the local digests of a prefix with the digests of this manifest with the same prefix.
+     *
+     * @param missing   receives the local digests which aren't part of the manifest
+     * @param deletable receives the digests of the manifest which don't exist locally
+     */
+    public void diff(byte prefix, byte[][] localDigests, List<byte[]> missing, List<byte[]> deletable) {
+        byte[][] local = localDigests.clone();
+        Arrays.sort(local, DIGEST_COMPARATOR);
+
+        int unsignedPrefix = prefix & 0xFF;
+        int i = firstOfPrefix(unsignedPrefix);
+        int end = firstOfPrefix(unsignedPrefix + 1);
+        int l = 0;
+        while (l < local.length || i < end) {
+            int cmp;
+            if (i == end) {
+                cmp = -1;
+            } else if (l == local.length) {
+                cmp = 1;
+            } else {
+                cmp = compare(local[l], 0, digests, i * DIGEST_LENGTH);
+            }
+            if (cmp < 0) {
+                missing.add(local[l]);
+                l++;
+            } else if (cmp > 0) {
+                deletable.add(Arrays.copyOfRange(digests, i * DIGEST_LENGTH, (i + 1) * DIGEST_LENGTH));
+                i++;
+            } else {
+                l++;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first digest which starts with the prefix or a larger byte; size if there is none
+     */
+    private int firstOfPrefix(int unsignedPrefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((digests[mid * DIGEST_LENGTH] & 0xFF) < unsignedPrefix) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(byte[] a, int aOffset, byte[] b, int bOffset) {
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int cmp = Integer.compare(a[aOffset + i] & 0xFF, b[bOffset + i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+}
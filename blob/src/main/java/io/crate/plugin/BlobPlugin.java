@@ -30,6 +30,7 @@ import io.crate.blob.StartBlobAction;
 import io.crate.blob.TransportDeleteBlobAction;
 import io.crate.blob.TransportPutChunkAction;
 import io.crate.blob.TransportStartBlobAction;
+import io.crate.blob.recovery.BlobRecoveryHandler;
 import io.crate.blob.v2.BlobIndicesModule;
 import io.crate.blob.v2.BlobIndicesService;
 import org.elasticsearch.action.ActionRequest;
@@ -80,7 +81,8 @@ public class BlobPlugin extends Plugin implements ActionPlugin {
         return Arrays.asList(
             BlobIndicesService.SETTING_BLOBS_PATH,
             BlobIndicesService.SETTING_INDEX_BLOBS_ENABLED,
-            BlobIndicesService.SETTING_INDEX_BLOBS_PATH
+            BlobIndicesService.SETTING_INDEX_BLOBS_PATH,
+            BlobRecoveryHandler.SETTING_MAX_CONCURRENT_FILE_TRANSFERS
         );
     }
 
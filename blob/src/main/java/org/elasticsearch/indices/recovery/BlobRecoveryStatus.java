@@ -54,6 +54,13 @@ public class BlobRecoveryStatus {
         return recoveryTarget.shardId();
     }
 
+    /**
+     * The file statistics of the index recovery, which also count the transferred blobs
+     */
+    public RecoveryState.Index indexRecoveryState() {
+        return recoveryTarget.state().getIndex();
+    }
+
     public ConcurrentMapLong<BlobRecoveryTransferStatus> onGoingTransfers() {
         return onGoingTransfers;
     }
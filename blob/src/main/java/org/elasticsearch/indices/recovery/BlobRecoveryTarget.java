@@ -21,7 +21,9 @@
 
 package org.elasticsearch.indices.recovery;
 
+import io.crate.blob.BlobContainer;
 import io.crate.blob.exceptions.IllegalBlobRecoveryStateException;
+import io.crate.blob.recovery.DigestManifest;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.blob.v2.BlobShard;
 import io.crate.common.Hex;
@@ -42,6 +44,9 @@ import java.io.FileOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 
 public class BlobRecoveryTarget extends AbstractComponent {
@@ -52,12 +57,12 @@ public class BlobRecoveryTarget extends AbstractComponent {
     * actor SourceNode as s
     * actor TargetNode as t
     *
+    * s -> t:StartManifest
+    * t -> t:getDigests for all prefixes
+    * t --> s:sorted digests
     * group for every two char prefix
-    * s -> t:StartPrefixSync(prefix)
-    * t -> t:getDigests for prefix
-    * t --> s:found digests
     * s -> s: get missing digests
-    * group for every missing digest
+    * group for every missing digest, up to blobs.recovery.max_concurrent_file_transfers in parallel
     *  s -> t:BlobSyncStartRequest(transferId, digest, contents, totalsize)
     *  t -> s: ack
     *  s -> s: BlobSyncChunkRequest(transferid, contents, isLast)
@@ -83,6 +88,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
         public static final String DELETE_FILE = "crate/blob/shard/recovery/delete_file";
         public static final String START_RECOVERY = "crate/blob/shard/recovery/start";
         public static final String START_PREFIX = "crate/blob/shard/recovery/start_prefix";
+        public static final String START_MANIFEST = "crate/blob/shard/recovery/start_manifest";
         public static final String TRANSFER_CHUNK = "crate/blob/shard/recovery/transfer_chunk";
         public static final String START_TRANSFER = "crate/blob/shard/recovery/start_transfer";
     }
@@ -97,6 +103,7 @@ public class BlobRecoveryTarget extends AbstractComponent {
 
         transportService.registerRequestHandler(Actions.START_RECOVERY, BlobStartRecoveryRequest::new, ThreadPool.Names.GENERIC, new StartRecoveryRequestHandler());
         transportService.registerRequestHandler(Actions.START_PREFIX, BlobStartPrefixSyncRequest::new, ThreadPool.Names.GENERIC, new StartPrefixSyncRequestHandler());
+        transportService.registerRequestHandler(Actions.START_MANIFEST, BlobStartManifestRequest::new, ThreadPool.Names.GENERIC, new StartManifestRequestHandler());
         transportService.registerRequestHandler(Actions.TRANSFER_CHUNK, BlobRecoveryChunkRequest::new, ThreadPool.Names.GENERIC, new TransferChunkRequestHandler());
         transportService.registerRequestHandler(Actions.START_TRANSFER, BlobRecoveryStartTransferRequest::new, ThreadPool.Names.GENERIC, new StartTransferRequestHandler());
         transportService.registerRequestHandler(Actions.DELETE_FILE, BlobRecoveryDeleteRequest::new, ThreadPool.Names.GENERIC, new DeleteFileRequestHandler());
@@ -148,6 +155,8 @@ public class BlobRecoveryTarget extends AbstractComponent {
             }
 
             request.content().writeTo(transferStatus.outputStream());
+            onGoingRecovery.indexRecoveryState().addRecoveredBytesToFile(
+                transferStatus.targetPath(), request.content().length());
 
             if (request.isLast()) {
                 transferStatus.outputStream().close();
@@ -182,6 +191,28 @@ public class BlobRecoveryTarget extends AbstractComponent {
         }
     }
 
+    private class StartManifestRequestHandler implements TransportRequestHandler<BlobStartManifestRequest> {
+        @Override
+        public void messageReceived(BlobStartManifestRequest request, TransportChannel channel) throws Exception {
+            BlobRecoveryStatus status = onGoingBlobRecoveries.get(request.recoveryId());
+            if (status == null) {
+                throw new IllegalBlobRecoveryStateException(
+                    "could not retrieve BlobRecoveryStatus"
+                );
+            }
+            if (status.canceled()) {
+                throw new IndexShardClosedException(status.shardId());
+            }
+            List<byte[]> digests = new ArrayList<>();
+            for (byte prefix : BlobContainer.PREFIXES) {
+                Collections.addAll(digests, status.blobShard.currentDigests(prefix));
+            }
+            BlobManifestResponse response = new BlobManifestResponse();
+            response.digests = DigestManifest.of(digests).bytes();
+            channel.sendResponse(response);
+        }
+    }
+
 
     private class StartTransferRequestHandler implements TransportRequestHandler<BlobRecoveryStartTransferRequest> {
         @Override
@@ -202,6 +233,9 @@ public class BlobRecoveryTarget extends AbstractComponent {
             Path baseDirectory = shard.blobContainer().getBaseDirectory();
             FileOutputStream outputStream = new FileOutputStream(baseDirectory.resolve(tmpPath).toFile());
             request.content().writeTo(outputStream);
+            RecoveryState.Index indexRecoveryState = status.indexRecoveryState();
+            indexRecoveryState.addFileDetail(request.path(), request.size(), false);
+            indexRecoveryState.addRecoveredBytesToFile(request.path(), request.content().length());
 
             if (request.size() == request.content().length()) {  // start request contains the whole file.
                 outputStream.close();
@@ -0,0 +1,96 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.blob.recovery;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class DigestManifestTest {
+
+    private static byte[] digest(int prefix, int last) {
+        byte[] digest = new byte[DigestManifest.DIGEST_LENGTH];
+        digest[0] = (byte) prefix;
+        digest[DigestManifest.DIGEST_LENGTH - 1] = (byte) last;
+        return digest;
+    }
+
+    @Test
+    public void testDiffReturnsMissingAndDeletableDigestsOfPrefix() throws Exception {
+        DigestManifest manifest = DigestManifest.of(Arrays.asList(
+            digest(0x90, 3), digest(0x01, 1), digest(0x90, 1), digest(0x02, 1), digest(0x90, 2)));
+        assertThat(manifest.size(), is(5));
+
+        List<byte[]> missing = new ArrayList<>();
+        List<byte[]> deletable = new ArrayList<>();
+        manifest.diff((byte) 0x90, new byte[][]{digest(0x90, 4), digest(0x90, 2), digest(0x90, 0xF0)}, missing, deletable);
+
+        assertThat(missing, contains(digest(0x90, 4), digest(0x90, 0xF0)));
+        assertThat(deletable, contains(digest(0x90, 1), digest(0x90, 3)));
+    }
+
+    @Test
+    public void testDiffWithoutLocalDigests() throws Exception {
+        DigestManifest manifest = DigestManifest.of(Arrays.asList(digest(0x01, 1), digest(0x02, 1)));
+
+        List<byte[]> missing = new ArrayList<>();
+        List<byte[]> deletable = new ArrayList<>();
+        manifest.diff((byte) 0x01, new byte[0][], missing, deletable);
+
+        assertThat(missing, empty());
+        assertThat(deletable, contains(digest(0x01, 1)));
+    }
+
+    @Test
+    public void testDiffWithEmptyManifest() throws Exception {
+        DigestManifest manifest = DigestManifest.of(Collections.emptyList());
+
+        List<byte[]> missing = new ArrayList<>();
+        List<byte[]> deletable = new ArrayList<>();
+        manifest.diff((byte) 0xFF, new byte[][]{digest(0xFF, 2), digest(0xFF, 1)}, missing, deletable);
+
+        assertThat(missing, contains(digest(0xFF, 1), digest(0xFF, 2)));
+        assertThat(deletable, empty());
+    }
+
+    @Test
+    public void testManifestFromBytes() throws Exception {
+        DigestManifest manifest = DigestManifest.of(Arrays.asList(digest(0xA0, 1), digest(0x10, 1)));
+        DigestManifest copy = new DigestManifest(manifest.bytes());
+        assertThat(copy.size(), is(2));
+
+        List<byte[]> missing = new ArrayList<>();
+        List<byte[]> deletable = new ArrayList<>();
+        copy.diff((byte) 0xA0, new byte[][]{digest(0xA0, 1)}, missing, deletable);
+        assertThat(missing, empty());
+        assertThat(deletable, empty());
+    }
+}
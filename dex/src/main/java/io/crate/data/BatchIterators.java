@@ -22,8 +22,14 @@
 
 package io.crate.data;
 
+import io.crate.concurrent.CompletableFutures;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -59,7 +65,74 @@ public class BatchIterators {
                                                          A state,
                                                          Collector<T, A, R> collector,
                                                          CompletableFuture<R> resultFuture) {
-        BiConsumer<A, T> accumulator = collector.accumulator();
+        accumulate(it, state, collector.accumulator(), new CompletableFuture<>()).whenComplete((r, t) -> {
+            if (t == null) {
+                try {
+                    resultFuture.complete(collector.finisher().apply(r));
+                } catch (Throwable e) {
+                    resultFuture.completeExceptionally(e);
+                }
+            } else {
+                resultFuture.completeExceptionally(t);
+            }
+        });
+        return resultFuture;
+    }
+
+    /**
+     * Use {@code collectors} to consume all elements from {@code iterators} concurrently.
+     * <p>
+     * Each iterator is consumed on {@code executor} into a state of the collector at the same position.
+     * Once all iterators are consumed, the states are merged using the {@link Collector#combiner()} of the first
+     * collector, which is then also used to finish the result.
+     * The collectors must be instances of the same kind, so that their states can be combined;
+     * Using separate collectors allows them to use inputs which are bound to a single iterator.
+     * </p>
+     *
+     * This does *not* automatically close the BatchIterators when the end is reached.
+     *
+     * @param <T> element type
+     * @param <A> state type
+     * @param <R> result type
+     * @return future containing the result, completed once all iterators have been consumed
+     */
+    public static <T, A, R> CompletableFuture<R> collect(List<? extends BatchIterator<T>> iterators,
+                                                         List<? extends Collector<T, A, R>> collectors,
+                                                         Executor executor) {
+        assert iterators.size() == collectors.size() : "Must have one collector per iterator";
+        List<CompletableFuture<A>> stateFutures = new ArrayList<>(iterators.size());
+        for (int i = 0; i < iterators.size(); i++) {
+            BatchIterator<T> it = iterators.get(i);
+            Collector<T, A, R> collector = collectors.get(i);
+            CompletableFuture<A> stateFuture = new CompletableFuture<>();
+            stateFutures.add(stateFuture);
+            try {
+                executor.execute(() -> {
+                    try {
+                        accumulate(it, collector.supplier().get(), collector.accumulator(), stateFuture);
+                    } catch (Throwable t) {
+                        stateFuture.completeExceptionally(t);
+                    }
+                });
+            } catch (Throwable t) {
+                stateFuture.completeExceptionally(t);
+            }
+        }
+        Collector<T, A, R> collector = collectors.get(0);
+        return CompletableFutures.allAsList(stateFutures).thenApply(states -> {
+            BinaryOperator<A> combiner = collector.combiner();
+            A state = states.get(0);
+            for (int i = 1; i < states.size(); i++) {
+                state = combiner.apply(state, states.get(i));
+            }
+            return collector.finisher().apply(state);
+        });
+    }
+
+    private static <T, A> CompletableFuture<A> accumulate(BatchIterator<T> it,
+                                                          A state,
+                                                          BiConsumer<A, T> accumulator,
+                                                          CompletableFuture<A> stateFuture) {
         boolean allLoaded;
         try {
             while (it.moveNext()) {
@@ -67,22 +140,22 @@ public class BatchIterators {
             }
             allLoaded = it.allLoaded();
         } catch (Throwable t) {
-            resultFuture.completeExceptionally(t);
-            return resultFuture;
+            stateFuture.completeExceptionally(t);
+            return stateFuture;
         }
 
         if (allLoaded) {
-            resultFuture.complete(collector.finisher().apply(state));
+            stateFuture.complete(state);
         } else {
             it.loadNextBatch().whenComplete((r, t) -> {
                 if (t == null) {
-                    collect(it, state, collector, resultFuture);
+                    accumulate(it, state, accumulator, stateFuture);
                 } else {
-                    resultFuture.completeExceptionally(t);
+                    stateFuture.completeExceptionally(t);
                 }
             });
         }
-        return resultFuture;
+        return stateFuture;
     }
 
     /**
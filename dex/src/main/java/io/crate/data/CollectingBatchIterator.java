@@ -27,8 +27,10 @@ import io.crate.concurrent.CompletableFutures;
 import javax.annotation.Nonnull;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
@@ -83,6 +85,23 @@ public class CollectingBatchIterator<T> implements BatchIterator<T> {
         );
     }
 
+    /**
+     * Create a BatchIterator which consumes all {@code sources} concurrently, each using the collector at the same
+     * position, see {@link BatchIterators#collect(List, List, Executor)}
+     */
+    public static <T, A, R extends Iterable<? extends T>> BatchIterator<T> newInstance(List<? extends BatchIterator<T>> sources,
+                                                                                       List<? extends Collector<T, A, R>> collectors,
+                                                                                       Executor executor) {
+        @SuppressWarnings("unchecked")
+        BatchIterator<T>[] iterators = sources.toArray(new BatchIterator[0]);
+        return new CloseAssertingBatchIterator<>(
+            new CollectingBatchIterator<>(
+                new CompositeBatchIterator<>(iterators),
+                bi -> BatchIterators.collect(sources, collectors, executor)
+            )
+        );
+    }
+
     public static <T> BatchIterator<T> newInstance(BatchIterator<T> source,
                                                    Function<BatchIterator<T>, CompletableFuture<? extends Iterable<? extends T>>> consumer) {
         return new CloseAssertingBatchIterator<>(new CollectingBatchIterator<>(source, consumer));
@@ -0,0 +1,257 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.data.BatchIterator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Hash join BatchIterator implementations
+ *
+ * - {@link #innerJoin(BatchIterator, BatchIterator, ElementCombiner, Predicate, ToIntFunction, ToIntFunction, Function)}
+ * - {@link #leftJoin(BatchIterator, BatchIterator, ElementCombiner, Predicate, ToIntFunction, ToIntFunction, Function)}
+ * - {@link #semiJoin(BatchIterator, BatchIterator, ElementCombiner, Predicate, ToIntFunction, ToIntFunction, Function)}
+ * - {@link #antiJoin(BatchIterator, BatchIterator, ElementCombiner, Predicate, ToIntFunction, ToIntFunction, Function)}
+ *
+ * <pre>
+ *     for (rightRow in right) {
+ *         hashTable[hash(rightRow)].add(copy(rightRow))
+ *     }
+ *     for (leftRow in left) {
+ *         for (rightRow in hashTable[hash(leftRow)]) {
+ *             match?
+ *                 onRow
+ *         }
+ *     }
+ * </pre>
+ *
+ * The right side is the build side and is fully loaded into memory before the first row is emitted.
+ * Because different keys can result in the same hash, every candidate is verified using the joinCondition.
+ * The {@code copyRight} function must return an element which is safe to keep around after
+ * {@code right} has been moved to the next element. It can be used to account for the memory of the hash table.
+ */
+public abstract class HashJoinBatchIterator<L, R, C, E> implements BatchIterator<E> {
+
+    /**
+     * Create a BatchIterator that creates the inner-join result of {@code left} and {@code right}.
+     */
+    public static <L, R, C> BatchIterator<C> innerJoin(BatchIterator<L> left,
+                                                       BatchIterator<R> right,
+                                                       ElementCombiner<L, R, C> combiner,
+                                                       Predicate<C> joinCondition,
+                                                       ToIntFunction<? super L> hashLeft,
+                                                       ToIntFunction<? super R> hashRight,
+                                                       Function<? super R, ? extends R> copyRight) {
+        return new HashInnerJoinBatchIterator<>(left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+    }
+
+    /**
+     * Create a BatchIterator that creates the left-outer-join result of {@code left} and {@code right}.
+     */
+    public static <L, R, C> BatchIterator<C> leftJoin(BatchIterator<L> left,
+                                                      BatchIterator<R> right,
+                                                      ElementCombiner<L, R, C> combiner,
+                                                      Predicate<C> joinCondition,
+                                                      ToIntFunction<? super L> hashLeft,
+                                                      ToIntFunction<? super R> hashRight,
+                                                      Function<? super R, ? extends R> copyRight) {
+        return new HashLeftJoinBatchIterator<>(left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+    }
+
+    /**
+     * Create a BatchIterator that creates the semi-join result of {@code left} and {@code right}.
+     */
+    public static <L, R, C> BatchIterator<L> semiJoin(BatchIterator<L> left,
+                                                      BatchIterator<R> right,
+                                                      ElementCombiner<L, R, C> combiner,
+                                                      Predicate<C> joinCondition,
+                                                      ToIntFunction<? super L> hashLeft,
+                                                      ToIntFunction<? super R> hashRight,
+                                                      Function<? super R, ? extends R> copyRight) {
+        return new HashSemiJoinBatchIterator<>(left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+    }
+
+    /**
+     * Create a BatchIterator that creates the anti-join result of {@code left} and {@code right}.
+     */
+    public static <L, R, C> BatchIterator<L> antiJoin(BatchIterator<L> left,
+                                                      BatchIterator<R> right,
+                                                      ElementCombiner<L, R, C> combiner,
+                                                      Predicate<C> joinCondition,
+                                                      ToIntFunction<? super L> hashLeft,
+                                                      ToIntFunction<? super R> hashRight,
+                                                      Function<? super R, ? extends R> copyRight) {
+        return new HashAntiJoinBatchIterator<>(left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+    }
+
+    final BatchIterator<L> left;
+    final BatchIterator<R> right;
+    final ElementCombiner<L, R, C> combiner;
+    private final Predicate<C> joinCondition;
+    private final ToIntFunction<? super L> hashLeft;
+    private final ToIntFunction<? super R> hashRight;
+    private final Function<? super R, ? extends R> copyRight;
+
+    private final Map<Integer, List<R>> buildTable = new HashMap<>();
+
+    /**
+     * points to the batchIterator which will be used on the next {@link #moveNext()} call.
+     * This is {@code right} until the hash table is complete.
+     */
+    private BatchIterator<?> activeIt;
+
+    @Nullable
+    private List<R> candidates;
+    private int candidateIdx;
+
+    HashJoinBatchIterator(BatchIterator<L> left,
+                          BatchIterator<R> right,
+                          ElementCombiner<L, R, C> combiner,
+                          Predicate<C> joinCondition,
+                          ToIntFunction<? super L> hashLeft,
+                          ToIntFunction<? super R> hashRight,
+                          Function<? super R, ? extends R> copyRight) {
+        this.left = left;
+        this.right = right;
+        this.combiner = combiner;
+        this.joinCondition = joinCondition;
+        this.hashLeft = hashLeft;
+        this.hashRight = hashRight;
+        this.copyRight = copyRight;
+        this.activeIt = right;
+    }
+
+    @Override
+    public void moveToStart() {
+        left.moveToStart();
+        if (activeIt == right) {
+            right.moveToStart();
+            buildTable.clear();
+        }
+        candidates = null;
+        resetProbeState();
+    }
+
+    @Override
+    public boolean moveNext() {
+        if (activeIt == right && tryBuildHashTable() == false) {
+            return false;
+        }
+        return probe();
+    }
+
+    /**
+     * Move to the next element using the rows of {@code left} to probe the hash table.
+     * Only called once the hash table is complete.
+     */
+    abstract boolean probe();
+
+    /**
+     * Reset any state the implementation keeps about the current left row
+     */
+    void resetProbeState() {
+    }
+
+    /**
+     * @return true if the hash table is complete, false if more data of the right side needs to be loaded.
+     */
+    private boolean tryBuildHashTable() {
+        while (right.moveNext()) {
+            R copy = copyRight.apply(right.currentElement());
+            buildTable.computeIfAbsent(hashRight.applyAsInt(copy), k -> new ArrayList<>()).add(copy);
+        }
+        if (right.allLoaded() == false) {
+            return false;
+        }
+        activeIt = left;
+        return true;
+    }
+
+    /**
+     * Moves left to the next row and looks up the rows of the hash table which have the same hash.
+     */
+    boolean tryMoveLeft() {
+        if (left.moveNext()) {
+            L leftElement = left.currentElement();
+            combiner.setLeft(leftElement);
+            candidates = buildTable.get(hashLeft.applyAsInt(leftElement));
+            candidateIdx = 0;
+            return true;
+        }
+        candidates = null;
+        return false;
+    }
+
+    /**
+     * Advances to the next row of the right side matching the current left row.
+     * @return true if a matching row was found, false if there are no more candidates for the current left row.
+     */
+    boolean tryMoveToNextMatch() {
+        if (candidates == null) {
+            return false;
+        }
+        while (candidateIdx < candidates.size()) {
+            combiner.setRight(candidates.get(candidateIdx));
+            candidateIdx++;
+            if (joinCondition.test(combiner.currentElement())) {
+                return true;
+            }
+        }
+        candidates = null;
+        return false;
+    }
+
+    @Override
+    public void close() {
+        candidates = null;
+        buildTable.clear();
+        left.close();
+        right.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        return activeIt.loadNextBatch();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return activeIt.allLoaded();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        left.kill(throwable);
+        right.kill(throwable);
+    }
+}
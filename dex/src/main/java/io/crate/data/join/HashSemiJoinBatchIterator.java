@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data.join;
+
+import io.crate.data.BatchIterator;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * <pre>
+ *     for (leftRow in left) {
+ *         for (rightRow in hashTable[hash(leftRow)]) {
+ *             match?
+ *                  onRow;
+ *                  break;
+ *         }
+ *     }
+ * </pre>
+ */
+class HashSemiJoinBatchIterator<L, R, C> extends HashJoinBatchIterator<L, R, C, L> {
+
+    HashSemiJoinBatchIterator(BatchIterator<L> left,
+                              BatchIterator<R> right,
+                              ElementCombiner<L, R, C> combiner,
+                              Predicate<C> joinCondition,
+                              ToIntFunction<? super L> hashLeft,
+                              ToIntFunction<? super R> hashRight,
+                              Function<? super R, ? extends R> copyRight) {
+        super(left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+    }
+
+    @Override
+    public L currentElement() {
+        return left.currentElement();
+    }
+
+    @Override
+    boolean probe() {
+        while (tryMoveLeft()) {
+            if (tryMoveToNextMatch()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -31,13 +31,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class BatchIteratorsTest {
 
@@ -94,4 +99,58 @@ public class BatchIteratorsTest {
         assertThat(batchedIt.moveNext(), is(true));
         assertThat(batchedIt.currentElement(), is(Arrays.asList(3, 4)));
     }
+
+    private static Collector<Integer, long[], Long> summingCollector() {
+        return Collector.of(
+            () -> new long[1],
+            (state, i) -> state[0] += i,
+            (state1, state2) -> {
+                state1[0] += state2[0];
+                return state1;
+            },
+            state -> state[0]
+        );
+    }
+
+    @Test
+    public void testCollectIteratorsConcurrentlyCombinesStates() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<BatchIterator<Integer>> iterators = Arrays.asList(
+                InMemoryBatchIterator.of(() -> IntStream.range(0, 10).iterator(), null),
+                new BatchSimulatingIterator<>(
+                    InMemoryBatchIterator.of(() -> IntStream.range(10, 20).iterator(), null), 3, 4, null),
+                InMemoryBatchIterator.of(() -> IntStream.range(20, 30).iterator(), null)
+            );
+            List<Collector<Integer, long[], Long>> collectors =
+                Arrays.asList(summingCollector(), summingCollector(), summingCollector());
+
+            CompletableFuture<Long> future = BatchIterators.collect(iterators, collectors, executor);
+            assertThat(future.get(10, TimeUnit.SECONDS), is(435L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCollectIteratorsConcurrentlyFailsIfOneIteratorFails() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<BatchIterator<Integer>> iterators = Arrays.asList(
+                InMemoryBatchIterator.of(() -> IntStream.range(0, 10).iterator(), null),
+                FailingBatchIterator.failOnAllLoaded()
+            );
+            List<Collector<Integer, long[], Long>> collectors = Arrays.asList(summingCollector(), summingCollector());
+
+            CompletableFuture<Long> future = BatchIterators.collect(iterators, collectors, executor);
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("collect must fail if one of the iterators fails");
+            } catch (ExecutionException e) {
+                assertThat(future.isCompletedExceptionally(), is(true));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,253 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.data;
+
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.testing.BatchIteratorTester;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+public class HashJoinBatchIteratorTest {
+
+    private static final Predicate<Row> COL0_EQ_COL1 = row -> Objects.equals(row.get(0), row.get(1));
+
+    /**
+     * Uses a modulo hash so that different values end up in the same bucket and the join condition
+     * must be used to filter out the false positives.
+     */
+    private static final ToIntFunction<Row> HASH_COL0 = row -> ((Integer) row.get(0)) % 3;
+
+    private static final Function<Row, Row> COPY = row -> new RowN(row.materialize());
+
+    private static BatchIterator<Row> batched(BatchIterator<Row> it) {
+        return new BatchSimulatingIterator<>(it, 2, 2, null);
+    }
+
+    @Test
+    public void testInnerJoin() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 6),
+            TestingBatchIterators.range(3, 9),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 },
+            new Object[] { 5, 5 }));
+    }
+
+    @Test
+    public void testInnerJoinBatchedSource() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.innerJoin(
+            batched(TestingBatchIterators.range(0, 6)),
+            batched(TestingBatchIterators.range(3, 9)),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 3, 3 },
+            new Object[] { 4, 4 },
+            new Object[] { 5, 5 }));
+    }
+
+    @Test
+    public void testInnerJoinWithDuplicatesOnBothSides() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.innerJoin(
+            batched(InMemoryBatchIterator.of(rows(1, 2, 2), SENTINEL)),
+            batched(InMemoryBatchIterator.of(rows(2, 2, 3), SENTINEL)),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2, 2 },
+            new Object[] { 2, 2 },
+            new Object[] { 2, 2 },
+            new Object[] { 2, 2 }));
+    }
+
+    @Test
+    public void testInnerJoinRightEmpty() throws Exception {
+        BatchIterator<Row> iterator = HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 5),
+            InMemoryBatchIterator.empty(SENTINEL),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        assertThat(consumer.getResult(), Matchers.empty());
+    }
+
+    @Test
+    public void testLeftJoin() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.leftJoin(
+            TestingBatchIterators.range(0, 4),
+            TestingBatchIterators.range(2, 6),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 0, null },
+            new Object[] { 1, null },
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 }));
+    }
+
+    @Test
+    public void testLeftJoinBatchedSource() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.leftJoin(
+            batched(TestingBatchIterators.range(0, 4)),
+            batched(TestingBatchIterators.range(2, 6)),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 0, null },
+            new Object[] { 1, null },
+            new Object[] { 2, 2 },
+            new Object[] { 3, 3 }));
+    }
+
+    @Test
+    public void testSemiJoin() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.semiJoin(
+            batched(TestingBatchIterators.range(0, 5)),
+            batched(InMemoryBatchIterator.of(rows(2, 3, 3, 4, 5), SENTINEL)),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 2 },
+            new Object[] { 3 },
+            new Object[] { 4 }));
+    }
+
+    @Test
+    public void testAntiJoin() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.antiJoin(
+            batched(TestingBatchIterators.range(0, 5)),
+            batched(TestingBatchIterators.range(2, 4)),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 0 },
+            new Object[] { 1 },
+            new Object[] { 4 }));
+    }
+
+    @Test
+    public void testAntiJoinRightEmpty() throws Exception {
+        Supplier<BatchIterator<Row>> batchIteratorSupplier = () -> HashJoinBatchIterator.antiJoin(
+            batched(TestingBatchIterators.range(0, 3)),
+            InMemoryBatchIterator.empty(SENTINEL),
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        BatchIteratorTester tester = new BatchIteratorTester(batchIteratorSupplier);
+        tester.verifyResultAndEdgeCaseBehaviour(Arrays.asList(
+            new Object[] { 0 },
+            new Object[] { 1 },
+            new Object[] { 2 }));
+    }
+
+    @Test
+    public void testMoveToStartAfterHashTableIsBuiltDoesNotConsumeRightAgain() throws Exception {
+        BatchIterator<Row> right = TestingBatchIterators.range(0, 3);
+        BatchIterator<Row> batchIterator = HashJoinBatchIterator.innerJoin(
+            TestingBatchIterators.range(0, 3),
+            right,
+            new CombinedRow(1, 1),
+            COL0_EQ_COL1,
+            HASH_COL0,
+            HASH_COL0,
+            COPY
+        );
+        assertThat(batchIterator.moveNext(), is(true));
+        assertThat(right.moveNext(), is(false));
+
+        batchIterator.moveToStart();
+        assertThat(batchIterator.moveNext(), is(true));
+        assertThat(batchIterator.currentElement().get(0), is(0));
+        assertThat(batchIterator.currentElement().get(1), is(0));
+    }
+
+    private static List<Row> rows(Integer... values) {
+        Row[] rows = new Row[values.length];
+        for (int i = 0; i < values.length; i++) {
+            rows[i] = new Row1(values[i]);
+        }
+        return Arrays.asList(rows);
+    }
+}
@@ -21,84 +21,76 @@ package io.crate.beans;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import io.crate.execution.engine.collect.stats.JobsLogs;
-import io.crate.execution.expression.reference.sys.job.JobContextLog;
+import io.crate.execution.engine.collect.stats.LatencyHistogram;
+import io.crate.execution.engine.collect.stats.StatementStats;
+import io.crate.execution.engine.collect.stats.StatementType;
 
 import java.util.HashMap;
-import java.util.Locale;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 
+/**
+ * Exposes the statement statistics recorded by {@link JobsLogs#statementStats()}.
+ *
+ * Frequencies, durations and percentiles refer to the statements which finished since the previous update,
+ * the failure counts are the totals since the node started.
+ */
 public class QueryStats implements QueryStatsMBean {
 
-    static class Commands {
-        static final String TOTAL = "total";
-        static final String UNCLASSIFIED = "unclassified";
-
-        static final String SELECT = "select";
-        static final String INSERT = "insert";
-        static final String UPDATE = "update";
-        static final String DELETE = "delete";
-    }
+    static final String TOTAL = "total";
 
     static class Metric {
 
+        private final LatencyHistogram.Snapshot latencies;
+        private final long failedCount;
         private final long elapsedSinceUpdateInMs;
 
-        private long count;
-        private long sumOfDurations;
-
-        Metric(long duration, long elapsedSinceUpdateInMs) {
+        Metric(LatencyHistogram.Snapshot latencies, long failedCount, long elapsedSinceUpdateInMs) {
+            this.latencies = latencies;
+            this.failedCount = failedCount;
             this.elapsedSinceUpdateInMs = elapsedSinceUpdateInMs;
-            sumOfDurations = duration;
-            count = 1;
-        }
-
-        void inc(long duration) {
-            sumOfDurations += duration;
-            count++;
         }
 
         double statementsPerSec() {
-            return count / (elapsedSinceUpdateInMs / 1000.0);
+            if (elapsedSinceUpdateInMs == 0) {
+                return 0.0;
+            }
+            return latencies.count() / (elapsedSinceUpdateInMs / 1000.0);
         }
 
         double avgDurationInMs() {
-            return sumOfDurations / count;
+            return latencies.mean() / 1000.0;
         }
-    }
 
-    public static final String NAME = "io.crate.monitoring:type=QueryStats";
-    private static final Pattern COMMAND_PATTERN = Pattern.compile("^\\s*(select|insert|update|delete).*");
-    private static final Metric DEFAULT_METRIC = new Metric(0, 0) {
-
-        @Override
-        void inc(long duration) {
-            throw new AssertionError("inc must not be called on default metric - it's immutable");
+        double durationAtPercentileInMs(double percentile) {
+            return latencies.valueAtPercentile(percentile) / 1000.0;
         }
 
-        @Override
-        double statementsPerSec() {
-            return 0.0;
+        double maxDurationInMs() {
+            return latencies.max() / 1000.0;
         }
 
-        @Override
-        double avgDurationInMs() {
-            return 0.0;
+        long failedCount() {
+            return failedCount;
         }
-    };
+    }
+
+    public static final String NAME = "io.crate.monitoring:type=QueryStats";
+    private static final Metric DEFAULT_METRIC = new Metric(LatencyHistogram.Snapshot.EMPTY, 0L, 0L);
 
     private final Supplier<Map<String, Metric>> metricByCommand;
+    private final Map<String, LatencyHistogram.Snapshot> previousLatencies = new HashMap<>();
 
     private volatile long lastUpdateTsInMillis = System.currentTimeMillis();
 
     public QueryStats(JobsLogs jobsLogs) {
+        StatementStats statementStats = jobsLogs.statementStats();
         metricByCommand = Suppliers.memoizeWithExpiration(
             () -> {
                 long currentTs = System.currentTimeMillis();
-                Map<String, Metric> metricByCommand = createMetricsMap(jobsLogs.jobsLog(), currentTs, lastUpdateTsInMillis);
+                Map<String, Metric> metricByCommand = createMetricsMap(
+                    statementStats.entries(), previousLatencies, currentTs - lastUpdateTsInMillis);
                 lastUpdateTsInMillis = currentTs;
                 return metricByCommand;
             },
@@ -107,86 +99,216 @@ public class QueryStats implements QueryStatsMBean {
         );
     }
 
-    static Map<String, Metric> createMetricsMap(Iterable<JobContextLog> logEntries, long currentTs, long lastUpdateTs) {
+    /**
+     * @param previousLatencies the latencies of the previous update by command;
+     *                          updated to the latencies of the given entries.
+     */
+    static Map<String, Metric> createMetricsMap(List<StatementStats.Entry> entries,
+                                                Map<String, LatencyHistogram.Snapshot> previousLatencies,
+                                                long elapsedSinceLastUpdateInMs) {
         Map<String, Metric> metricsByCommand = new HashMap<>();
-        long elapsedSinceLastUpdateInMs = currentTs - lastUpdateTs;
-
-        Metric total = new Metric(0, elapsedSinceLastUpdateInMs);
-        for (JobContextLog logEntry : logEntries) {
-            if (logEntry.started() < lastUpdateTs || logEntry.started() > currentTs) {
-                continue;
-            }
-            String command = getCommand(logEntry.statement());
-            long duration = logEntry.ended() - logEntry.started();
-            total.inc(duration);
-            metricsByCommand.compute(command, (key, oldMetric) -> {
-                if (oldMetric == null) {
-                    return new Metric(duration, elapsedSinceLastUpdateInMs);
-                }
-                oldMetric.inc(duration);
-                return oldMetric;
-            });
+        LatencyHistogram.Snapshot totalLatencies = LatencyHistogram.Snapshot.EMPTY;
+        long totalFailed = 0L;
+        for (StatementStats.Entry entry : entries) {
+            String command = entry.type().value();
+            metricsByCommand.put(command, newMetric(
+                command, entry.latencies(), entry.failedCount(), previousLatencies, elapsedSinceLastUpdateInMs));
+            totalLatencies = totalLatencies.merge(entry.latencies());
+            totalFailed += entry.failedCount();
         }
-        metricsByCommand.put(Commands.TOTAL, total);
+        metricsByCommand.put(TOTAL, newMetric(
+            TOTAL, totalLatencies, totalFailed, previousLatencies, elapsedSinceLastUpdateInMs));
         return metricsByCommand;
     }
 
-    private static String getCommand(String statement) {
-        Matcher matcher = COMMAND_PATTERN.matcher(statement.toLowerCase(Locale.ENGLISH));
-        if (matcher.find()) {
-            return matcher.group(1);
-        } else {
-            return Commands.UNCLASSIFIED;
+    private static Metric newMetric(String command,
+                                    LatencyHistogram.Snapshot latencies,
+                                    long failedCount,
+                                    Map<String, LatencyHistogram.Snapshot> previousLatencies,
+                                    long elapsedSinceLastUpdateInMs) {
+        LatencyHistogram.Snapshot previous = previousLatencies.put(command, latencies);
+        if (previous != null) {
+            latencies = latencies.since(previous);
         }
+        return new Metric(latencies, failedCount, elapsedSinceLastUpdateInMs);
+    }
+
+    private Metric metric(String command) {
+        return metricByCommand.get().getOrDefault(command, DEFAULT_METRIC);
     }
 
     @Override
     public double getSelectQueryFrequency() {
-        return metricByCommand.get().getOrDefault(Commands.SELECT, DEFAULT_METRIC).statementsPerSec();
+        return metric(StatementType.SELECT.value()).statementsPerSec();
     }
 
     @Override
     public double getInsertQueryFrequency() {
-        return metricByCommand.get().getOrDefault(Commands.INSERT, DEFAULT_METRIC).statementsPerSec();
+        return metric(StatementType.INSERT.value()).statementsPerSec();
     }
 
     @Override
     public double getUpdateQueryFrequency() {
-        return metricByCommand.get().getOrDefault(Commands.UPDATE, DEFAULT_METRIC).statementsPerSec();
+        return metric(StatementType.UPDATE.value()).statementsPerSec();
     }
 
     @Override
     public double getDeleteQueryFrequency() {
-        return metricByCommand.get().getOrDefault(Commands.DELETE, DEFAULT_METRIC).statementsPerSec();
+        return metric(StatementType.DELETE.value()).statementsPerSec();
+    }
+
+    @Override
+    public double getOverallQueryFrequency() {
+        return metric(TOTAL).statementsPerSec();
     }
 
     @Override
     public double getSelectQueryAverageDuration() {
-        return metricByCommand.get().getOrDefault(Commands.SELECT, DEFAULT_METRIC).avgDurationInMs();
+        return metric(StatementType.SELECT.value()).avgDurationInMs();
     }
 
     @Override
     public double getInsertQueryAverageDuration() {
-        return metricByCommand.get().getOrDefault(Commands.INSERT, DEFAULT_METRIC).avgDurationInMs();
+        return metric(StatementType.INSERT.value()).avgDurationInMs();
     }
 
     @Override
     public double getUpdateQueryAverageDuration() {
-        return metricByCommand.get().getOrDefault(Commands.UPDATE, DEFAULT_METRIC).avgDurationInMs();
+        return metric(StatementType.UPDATE.value()).avgDurationInMs();
     }
 
     @Override
     public double getDeleteQueryAverageDuration() {
-        return metricByCommand.get().getOrDefault(Commands.DELETE, DEFAULT_METRIC).avgDurationInMs();
+        return metric(StatementType.DELETE.value()).avgDurationInMs();
     }
 
     @Override
-    public double getOverallQueryFrequency() {
-        return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).statementsPerSec();
+    public double getOverallQueryAverageDuration() {
+        return metric(TOTAL).avgDurationInMs();
     }
 
     @Override
-    public double getOverallQueryAverageDuration() {
-        return metricByCommand.get().getOrDefault(Commands.TOTAL, DEFAULT_METRIC).avgDurationInMs();
+    public double getSelectQueryP50Duration() {
+        return metric(StatementType.SELECT.value()).durationAtPercentileInMs(50.0);
+    }
+
+    @Override
+    public double getInsertQueryP50Duration() {
+        return metric(StatementType.INSERT.value()).durationAtPercentileInMs(50.0);
+    }
+
+    @Override
+    public double getUpdateQueryP50Duration() {
+        return metric(StatementType.UPDATE.value()).durationAtPercentileInMs(50.0);
+    }
+
+    @Override
+    public double getDeleteQueryP50Duration() {
+        return metric(StatementType.DELETE.value()).durationAtPercentileInMs(50.0);
+    }
+
+    @Override
+    public double getOverallQueryP50Duration() {
+        return metric(TOTAL).durationAtPercentileInMs(50.0);
+    }
+
+    @Override
+    public double getSelectQueryP95Duration() {
+        return metric(StatementType.SELECT.value()).durationAtPercentileInMs(95.0);
+    }
+
+    @Override
+    public double getInsertQueryP95Duration() {
+        return metric(StatementType.INSERT.value()).durationAtPercentileInMs(95.0);
+    }
+
+    @Override
+    public double getUpdateQueryP95Duration() {
+        return metric(StatementType.UPDATE.value()).durationAtPercentileInMs(95.0);
+    }
+
+    @Override
+    public double getDeleteQueryP95Duration() {
+        return metric(StatementType.DELETE.value()).durationAtPercentileInMs(95.0);
+    }
+
+    @Override
+    public double getOverallQueryP95Duration() {
+        return metric(TOTAL).durationAtPercentileInMs(95.0);
+    }
+
+    @Override
+    public double getSelectQueryP99Duration() {
+        return metric(StatementType.SELECT.value()).durationAtPercentileInMs(99.0);
+    }
+
+    @Override
+    public double getInsertQueryP99Duration() {
+        return metric(StatementType.INSERT.value()).durationAtPercentileInMs(99.0);
+    }
+
+    @Override
+    public double getUpdateQueryP99Duration() {
+        return metric(StatementType.UPDATE.value()).durationAtPercentileInMs(99.0);
+    }
+
+    @Override
+    public double getDeleteQueryP99Duration() {
+        return metric(StatementType.DELETE.value()).durationAtPercentileInMs(99.0);
+    }
+
+    @Override
+    public double getOverallQueryP99Duration() {
+        return metric(TOTAL).durationAtPercentileInMs(99.0);
+    }
+
+    @Override
+    public double getSelectQueryMaxDuration() {
+        return metric(StatementType.SELECT.value()).maxDurationInMs();
+    }
+
+    @Override
+    public double getInsertQueryMaxDuration() {
+        return metric(StatementType.INSERT.value()).maxDurationInMs();
+    }
+
+    @Override
+    public double getUpdateQueryMaxDuration() {
+        return metric(StatementType.UPDATE.value()).maxDurationInMs();
+    }
+
+    @Override
+    public double getDeleteQueryMaxDuration() {
+        return metric(StatementType.DELETE.value()).maxDurationInMs();
+    }
+
+    @Override
+    public double getOverallQueryMaxDuration() {
+        return metric(TOTAL).maxDurationInMs();
+    }
+
+    @Override
+    public long getSelectQueryFailedCount() {
+        return metric(StatementType.SELECT.value()).failedCount();
+    }
+
+    @Override
+    public long getInsertQueryFailedCount() {
+        return metric(StatementType.INSERT.value()).failedCount();
+    }
+
+    @Override
+    public long getUpdateQueryFailedCount() {
+        return metric(StatementType.UPDATE.value()).failedCount();
+    }
+
+    @Override
+    public long getDeleteQueryFailedCount() {
+        return metric(StatementType.DELETE.value()).failedCount();
+    }
+
+    @Override
+    public long getOverallQueryFailedCount() {
+        return metric(TOTAL).failedCount();
     }
 }
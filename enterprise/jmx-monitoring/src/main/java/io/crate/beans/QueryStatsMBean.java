@@ -48,4 +48,54 @@ public interface QueryStatsMBean {
     double getDeleteQueryAverageDuration();
 
     double getOverallQueryAverageDuration();
+
+    double getSelectQueryP50Duration();
+
+    double getInsertQueryP50Duration();
+
+    double getUpdateQueryP50Duration();
+
+    double getDeleteQueryP50Duration();
+
+    double getOverallQueryP50Duration();
+
+    double getSelectQueryP95Duration();
+
+    double getInsertQueryP95Duration();
+
+    double getUpdateQueryP95Duration();
+
+    double getDeleteQueryP95Duration();
+
+    double getOverallQueryP95Duration();
+
+    double getSelectQueryP99Duration();
+
+    double getInsertQueryP99Duration();
+
+    double getUpdateQueryP99Duration();
+
+    double getDeleteQueryP99Duration();
+
+    double getOverallQueryP99Duration();
+
+    double getSelectQueryMaxDuration();
+
+    double getInsertQueryMaxDuration();
+
+    double getUpdateQueryMaxDuration();
+
+    double getDeleteQueryMaxDuration();
+
+    double getOverallQueryMaxDuration();
+
+    long getSelectQueryFailedCount();
+
+    long getInsertQueryFailedCount();
+
+    long getUpdateQueryFailedCount();
+
+    long getDeleteQueryFailedCount();
+
+    long getOverallQueryFailedCount();
 }
@@ -18,13 +18,13 @@
 
 package io.crate.beans;
 
-import com.google.common.collect.ImmutableList;
 import io.crate.execution.engine.collect.stats.JobsLogs;
-import io.crate.execution.expression.reference.sys.job.JobContext;
-import io.crate.execution.expression.reference.sys.job.JobContextLog;
+import io.crate.execution.engine.collect.stats.LatencyHistogram;
+import io.crate.execution.engine.collect.stats.StatementType;
 import org.junit.Test;
 
-import java.util.List;
+import javax.annotation.Nullable;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -33,38 +33,43 @@ import static org.junit.Assert.assertThat;
 
 public class QueryStatsTest {
 
-    private final List<JobContextLog> log = ImmutableList.of(
-        new JobContextLog(new JobContext(UUID.randomUUID(), "select name", 100L, null), null, 150L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "select name", 300L, null), null, 320L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "update t1 set x = 10", 400L, null), null, 420L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "insert into t1 (x) values (20)", 111L, null), null, 130L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "delete from t1", 410L, null), null, 415L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "delete from t1", 110L, null), null, 120L),
-        new JobContextLog(new JobContext(UUID.randomUUID(), "create table t1 (x int)", 105L, null), null, 106L)
-    );
+    private static void execute(JobsLogs jobsLogs, StatementType type, @Nullable String error) {
+        UUID jobId = UUID.randomUUID();
+        jobsLogs.logExecutionStart(jobId, "stmt", null, type);
+        jobsLogs.logExecutionEnd(jobId, error);
+    }
 
     @Test
     public void testCreateMetricsMap() throws Exception {
-        Map<String, QueryStats.Metric> metricsByCommand = QueryStats.createMetricsMap(log, 2000, 0L);
-        assertThat(metricsByCommand.size(), is(6));
-
-        assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).avgDurationInMs(), is(35.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.SELECT).statementsPerSec(), is(1.0));
-
-        assertThat(metricsByCommand.get(QueryStats.Commands.INSERT).avgDurationInMs(), is(19.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.INSERT).statementsPerSec(), is(0.5));
-
-        assertThat(metricsByCommand.get(QueryStats.Commands.UPDATE).avgDurationInMs(), is(20.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.UPDATE).statementsPerSec(), is(0.5));
+        JobsLogs jobsLogs = new JobsLogs(() -> false);
+        execute(jobsLogs, StatementType.SELECT, null);
+        execute(jobsLogs, StatementType.SELECT, null);
+        execute(jobsLogs, StatementType.INSERT, null);
+        execute(jobsLogs, StatementType.UPDATE, "failed");
+        execute(jobsLogs, StatementType.DDL, null);
+        jobsLogs.logPreExecutionFailure(UUID.randomUUID(), "select foo", "error", null, StatementType.SELECT);
 
-        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).avgDurationInMs(), is(7.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.DELETE).statementsPerSec(), is(1.0));
+        Map<String, LatencyHistogram.Snapshot> previousLatencies = new HashMap<>();
+        Map<String, QueryStats.Metric> metricsByCommand = QueryStats.createMetricsMap(
+            jobsLogs.statementStats().entries(), previousLatencies, 2000L);
+        assertThat(metricsByCommand.size(), is(StatementType.values().length + 1));
 
-        assertThat(metricsByCommand.get(QueryStats.Commands.UNCLASSIFIED).avgDurationInMs(), is(1.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.UNCLASSIFIED).statementsPerSec(), is(0.5));
+        assertThat(metricsByCommand.get(StatementType.SELECT.value()).statementsPerSec(), is(1.0));
+        assertThat(metricsByCommand.get(StatementType.SELECT.value()).failedCount(), is(1L));
+        assertThat(metricsByCommand.get(StatementType.INSERT.value()).statementsPerSec(), is(0.5));
+        assertThat(metricsByCommand.get(StatementType.UPDATE.value()).statementsPerSec(), is(0.5));
+        assertThat(metricsByCommand.get(StatementType.UPDATE.value()).failedCount(), is(1L));
+        assertThat(metricsByCommand.get(StatementType.DELETE.value()).statementsPerSec(), is(0.0));
+        assertThat(metricsByCommand.get(QueryStats.TOTAL).statementsPerSec(), is(2.5));
+        assertThat(metricsByCommand.get(QueryStats.TOTAL).failedCount(), is(2L));
 
-        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).avgDurationInMs(), is(15.0));
-        assertThat(metricsByCommand.get(QueryStats.Commands.TOTAL).statementsPerSec(), is(4.0));
+        // the next update only considers the statements which finished since the previous update
+        execute(jobsLogs, StatementType.DELETE, null);
+        metricsByCommand = QueryStats.createMetricsMap(jobsLogs.statementStats().entries(), previousLatencies, 1000L);
+        assertThat(metricsByCommand.get(StatementType.SELECT.value()).statementsPerSec(), is(0.0));
+        assertThat(metricsByCommand.get(StatementType.SELECT.value()).failedCount(), is(1L));
+        assertThat(metricsByCommand.get(StatementType.DELETE.value()).statementsPerSec(), is(1.0));
+        assertThat(metricsByCommand.get(QueryStats.TOTAL).statementsPerSec(), is(1.0));
     }
 
     @Test
@@ -72,5 +77,7 @@ public class QueryStatsTest {
         QueryStats queryStats = new QueryStats(new JobsLogs(() -> true));
         assertThat(queryStats.getSelectQueryFrequency(), is(0.0));
         assertThat(queryStats.getSelectQueryAverageDuration(), is(0.0));
+        assertThat(queryStats.getSelectQueryP99Duration(), is(0.0));
+        assertThat(queryStats.getOverallQueryFailedCount(), is(0L));
     }
 }
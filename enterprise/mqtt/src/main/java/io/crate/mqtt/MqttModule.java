@@ -29,6 +29,8 @@ import org.elasticsearch.common.settings.Setting;
 import java.util.Collection;
 import java.util.Collections;
 
+import static io.crate.mqtt.netty.Netty4MqttServerTransport.MQTT_BATCH_FLUSH_INTERVAL_SETTING;
+import static io.crate.mqtt.netty.Netty4MqttServerTransport.MQTT_BATCH_SIZE_SETTING;
 import static io.crate.mqtt.netty.Netty4MqttServerTransport.MQTT_ENABLED_SETTING;
 import static io.crate.mqtt.netty.Netty4MqttServerTransport.MQTT_PORT_SETTING;
 import static io.crate.mqtt.netty.Netty4MqttServerTransport.MQTT_TIMEOUT_SETTING;
@@ -56,6 +58,8 @@ public class MqttModule extends AbstractModule implements IngestionModules {
         return ImmutableList.of(MQTT_ENABLED_SETTING.setting(),
             SSL_MQTT_ENABLED.setting(),
             MQTT_PORT_SETTING.setting(),
-            MQTT_TIMEOUT_SETTING.setting());
+            MQTT_TIMEOUT_SETTING.setting(),
+            MQTT_BATCH_SIZE_SETTING.setting(),
+            MQTT_BATCH_FLUSH_INTERVAL_SETTING.setting());
     }
 }
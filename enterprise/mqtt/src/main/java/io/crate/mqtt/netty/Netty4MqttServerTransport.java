@@ -57,6 +57,7 @@ import org.elasticsearch.common.transport.PortsRange;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.http.BindHttpException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.BindTransportException;
 
 import java.io.IOException;
@@ -88,6 +89,13 @@ public class Netty4MqttServerTransport extends AbstractLifecycleComponent {
         "ingestion.mqtt.timeout", TimeValue.timeValueSeconds(10L), TimeValue.timeValueSeconds(1L),
         Setting.Property.NodeScope), DataTypes.STRING);
 
+    public static final CrateSetting<Integer> MQTT_BATCH_SIZE_SETTING = CrateSetting.of(Setting.intSetting(
+        "ingestion.mqtt.batch_size", 1000, 1, Setting.Property.NodeScope), DataTypes.INTEGER);
+
+    public static final CrateSetting<TimeValue> MQTT_BATCH_FLUSH_INTERVAL_SETTING = CrateSetting.of(Setting.timeSetting(
+        "ingestion.mqtt.batch_flush_interval", TimeValue.timeValueMillis(10L), TimeValue.timeValueMillis(1L),
+        Setting.Property.NodeScope), DataTypes.STRING);
+
     static boolean isMQTTSslEnabled(Settings settings) {
         return SharedSettings.ENTERPRISE_LICENSE_SETTING.setting().get(settings) &&
                SSL_MQTT_ENABLED.setting().get(settings);
@@ -115,7 +123,8 @@ public class Netty4MqttServerTransport extends AbstractLifecycleComponent {
                                      SQLOperations sqlOperations,
                                      UserManager userManager,
                                      IngestionService ingestionService,
-                                     SslContextProvider sslContextProvider) {
+                                     SslContextProvider sslContextProvider,
+                                     ThreadPool threadPool) {
         super(settings);
         this.networkService = networkService;
         logger = Loggers.getLogger("mqtt", settings);
@@ -124,7 +133,14 @@ public class Netty4MqttServerTransport extends AbstractLifecycleComponent {
         port = MQTT_PORT_SETTING.setting().get(settings);
         defaultIdleTimeout = MQTT_TIMEOUT_SETTING.setting().get(settings);
         mqttMessageLogger = new MqttMessageLogger(settings);
-        mqttIngestService = new MqttIngestService(functions, sqlOperations, userManager, ingestionService);
+        mqttIngestService = new MqttIngestService(
+            functions,
+            sqlOperations,
+            userManager,
+            ingestionService,
+            threadPool,
+            MQTT_BATCH_SIZE_SETTING.setting().get(settings),
+            MQTT_BATCH_FLUSH_INTERVAL_SETTING.setting().get(settings));
         this.sslContextProvider = sslContextProvider;
     }
 
@@ -255,6 +271,7 @@ public class Netty4MqttServerTransport extends AbstractLifecycleComponent {
 
     @Override
     protected void doStop() {
+        mqttIngestService.close();
         for (Channel channel : serverChannels) {
             channel.close().awaitUninterruptibly();
         }
@@ -0,0 +1,136 @@
+/*
+ * This file is part of a module with proprietary Enterprise Features.
+ *
+ * Licensed to Crate.io Inc. ("Crate.io") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.
+ *
+ * Unauthorized copying of this file, via any medium is strictly prohibited.
+ *
+ * To use this file, Crate.io must have given you permission to enable and
+ * use such Enterprise Features and you must have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  If you enable or use the Enterprise
+ * Features, you represent and warrant that you have a valid Enterprise or
+ * Subscription Agreement with Crate.io.  Your use of the Enterprise Features
+ * if governed by the terms and conditions of your Enterprise or Subscription
+ * Agreement with Crate.io.
+ */
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.Session;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.metadata.rule.ingest.IngestRule;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Buffers the messages matching an {@link IngestRule} and inserts them into the rule's target table as a single
+ * bulk operation once {@code maxBatchSize} messages are buffered or {@link #flush()} is called.
+ *
+ * The insert statement is parsed once per session and bound with the arguments of all buffered messages, so the
+ * analysis and planning is done once per batch instead of once per message.
+ */
+final class IngestRuleBatch {
+
+    private final IngestRule rule;
+    private final String statement;
+    private final Supplier<Session> sessionSupplier;
+    private final int maxBatchSize;
+
+    private List<PendingInsert> pendingInserts = new ArrayList<>();
+    private Session session;
+
+    IngestRuleBatch(IngestRule rule, String statement, Supplier<Session> sessionSupplier, int maxBatchSize) {
+        this.rule = rule;
+        this.statement = statement;
+        this.sessionSupplier = sessionSupplier;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    IngestRule rule() {
+        return rule;
+    }
+
+    /**
+     * Adds the arguments of a message to the batch.
+     *
+     * @return a future which completes with the number of inserted rows once the batch containing the message has
+     *         been executed. The row count is {@link Row1#ERROR} if the message couldn't be inserted as part of a
+     *         bulk operation.
+     */
+    synchronized CompletableFuture<Long> add(List<Object> args) {
+        PendingInsert pendingInsert = new PendingInsert(args);
+        pendingInserts.add(pendingInsert);
+        if (pendingInserts.size() >= maxBatchSize) {
+            flush();
+        }
+        return pendingInsert.result;
+    }
+
+    synchronized void flush() {
+        if (pendingInserts.isEmpty()) {
+            return;
+        }
+        List<PendingInsert> inserts = pendingInserts;
+        pendingInserts = new ArrayList<>(inserts.size());
+        try {
+            if (session == null) {
+                session = sessionSupplier.get();
+                session.parse(rule.getName(), statement, MqttIngestService.FIELD_TYPES);
+            }
+            for (PendingInsert insert : inserts) {
+                session.bind(Session.UNNAMED, rule.getName(), insert.args, null);
+                session.execute(Session.UNNAMED, 0, insert);
+            }
+            session.sync();
+        } catch (Throwable t) {
+            // the session state is unknown after a failure, start with a new session on the next flush
+            close();
+            for (PendingInsert insert : inserts) {
+                insert.result.completeExceptionally(t);
+            }
+        }
+    }
+
+    synchronized void close() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+    }
+
+    private static class PendingInsert extends BaseResultReceiver {
+
+        private final List<Object> args;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private long rowCount = Row1.ERROR;
+
+        PendingInsert(List<Object> args) {
+            this.args = args;
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            rowCount = (long) row.get(0);
+        }
+
+        @Override
+        public void allFinished(boolean interrupted) {
+            result.complete(rowCount);
+            super.allFinished(interrupted);
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            result.completeExceptionally(t);
+            super.fail(t);
+        }
+    }
+}
@@ -29,7 +29,9 @@ import io.crate.analyze.expressions.ExpressionAnalyzer;
 import io.crate.analyze.relations.FieldProvider;
 import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.concurrent.CompletableFutures;
 import io.crate.data.Row;
+import io.crate.data.Row1;
 import io.crate.data.RowN;
 import io.crate.exceptions.Exceptions;
 import io.crate.exceptions.SQLExceptions;
@@ -54,16 +56,19 @@ import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.netty4.Netty4Utils;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -87,7 +92,7 @@ public class MqttIngestService implements IngestRuleListener {
         new QualifiedName("topic"), 2,
         new QualifiedName("ts"), 3,
         new QualifiedName("payload"), 4);
-    private static final List<DataType> FIELD_TYPES = Arrays.asList(DataTypes.STRING, DataTypes.INTEGER, DataTypes.STRING, DataTypes.OBJECT);
+    static final List<DataType> FIELD_TYPES = Arrays.asList(DataTypes.STRING, DataTypes.INTEGER, DataTypes.STRING, DataTypes.OBJECT);
     private static final Predicate<Row> ALWAYS_TRUE = (r) -> true;
 
     private final ExpressionAnalyzer expressionAnalyzer;
@@ -95,16 +100,30 @@ public class MqttIngestService implements IngestRuleListener {
     private final SQLOperations sqlOperations;
     private final IngestionService ingestionService;
     private final User crateUser;
-    private final AtomicReference<Set<Tuple<Predicate<Row>, IngestRule>>> predicateAndIngestRulesReference =
-        new AtomicReference<>(new HashSet<>());
+    private final ThreadPool threadPool;
+    private final int maxBatchSize;
+    private final TimeValue flushInterval;
+    private final AtomicReference<List<Tuple<Predicate<Row>, IngestRuleBatch>>> predicateAndBatchesReference =
+        new AtomicReference<>(Collections.emptyList());
     private final ExpressionAnalysisContext expressionAnalysisContext;
     private boolean isInitialized;
+    private ThreadPool.Cancellable flushTask;
 
+    /**
+     * @param maxBatchSize maximum number of messages per rule which are inserted using a single bulk operation
+     * @param flushInterval interval in which buffered messages are inserted even if the batch isn't full
+     */
     public MqttIngestService(Functions functions,
                              SQLOperations sqlOperations,
                              UserLookup userLookup,
-                             IngestionService ingestionService) {
+                             IngestionService ingestionService,
+                             ThreadPool threadPool,
+                             int maxBatchSize,
+                             TimeValue flushInterval) {
         this.sqlOperations = sqlOperations;
+        this.threadPool = threadPool;
+        this.maxBatchSize = maxBatchSize;
+        this.flushInterval = flushInterval;
         this.inputFactory = new InputFactory(functions);
         this.expressionAnalysisContext = new ExpressionAnalysisContext();
         FieldProvider<Symbol> mqttSourceFieldsProvider = new FieldProvider<Symbol>() {
@@ -138,6 +157,9 @@ public class MqttIngestService implements IngestRuleListener {
             throw new IllegalStateException("Service already initialized");
         }
         ingestionService.registerIngestRuleListener(SOURCE_IDENT, this);
+        if (maxBatchSize > 1 && flushInterval.millis() > 0) {
+            flushTask = threadPool.scheduleWithFixedDelay(this::flush, flushInterval, ThreadPool.Names.GENERIC);
+        }
         isInitialized = true;
     }
 
@@ -155,7 +177,9 @@ public class MqttIngestService implements IngestRuleListener {
 
     /**
      * Parse the payload of the provided mqtt message and find which {@link IngestRule}s match the message properties.
-     * For every matched rule, execute the insert into the rule's target table.
+     * For every matched rule, the message is added to the {@link IngestRuleBatch} of the rule which inserts the
+     * buffered messages into the rule's target table using a bulk operation once it is full or the flush interval
+     * elapsed. The message is acknowledged once the batches containing it have been inserted.
      * If we encounter exceptions whilst executing the rules we try to send the ackCallback that failure that's not a
      * "row already exists" (because, in case of messages with the isDup flag set to true, we will send the PUBACK reply
      * to the message).
@@ -173,7 +197,7 @@ public class MqttIngestService implements IngestRuleListener {
             return;
         }
 
-        Set<Tuple<Predicate<Row>, IngestRule>> predicateAndIngestRules = predicateAndIngestRulesReference.get();
+        List<Tuple<Predicate<Row>, IngestRuleBatch>> predicateAndBatches = predicateAndBatchesReference.get();
         int packetId = msg.variableHeader().packetId();
         Object[] args = new Object[]{clientId,
             packetId,
@@ -182,56 +206,46 @@ public class MqttIngestService implements IngestRuleListener {
         List<Object> argsAsList = Arrays.asList(args);
 
         boolean messageMatchedRule = false;
-        boolean callbackNotified = false;
-        Session session = sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
-        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndIngestRules.size());
-        for (Tuple<Predicate<Row>, IngestRule> entry : predicateAndIngestRules) {
+        List<CompletableFuture<?>> insertOperationsFuture = new ArrayList<>(predicateAndBatches.size());
+        for (Tuple<Predicate<Row>, IngestRuleBatch> entry : predicateAndBatches) {
             if (entry.v1().test(new RowN(args))) {
                 messageMatchedRule = true;
-                IngestRule ingestRule = entry.v2();
-
-                try {
-                    session.parse(ingestRule.getName(), "insert into " + TableIdent.fromIndexName(ingestRule.getTargetTable()).fqn() +
-                                                  " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
-                                                  "values (?, ?, ?, CURRENT_TIMESTAMP, ?)", FIELD_TYPES);
-                    session.bind(Session.UNNAMED, ingestRule.getName(), argsAsList, null);
-                    BaseResultReceiver resultReceiver = new BaseResultReceiver();
-                    insertOperationsFuture.add(resultReceiver.completionFuture().exceptionally(t -> {
-                        if (SQLExceptions.isDocumentAlreadyExistsException(t)) {
-                            if (msg.fixedHeader().isDup()) {
-                                // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
-                                // normal in case of a duplicate message - indicated by the isDup flag
-                                return null;
-                            }
+                IngestRuleBatch batch = entry.v2();
+                CompletableFuture<Long> insertFuture = batch.add(argsAsList).thenCompose(rowCount -> {
+                    if (rowCount == Row1.ERROR) {
+                        // bulk operations don't expose the failure of an individual row,
+                        // retry the insert of this message on its own to find out why it failed
+                        return insertSingle(batch.rule(), argsAsList);
+                    }
+                    return CompletableFuture.completedFuture(rowCount);
+                });
+                insertOperationsFuture.add(insertFuture.exceptionally(t -> {
+                    Throwable cause = SQLExceptions.unwrap(t);
+                    if (SQLExceptions.isDocumentAlreadyExistsException(cause)) {
+                        if (msg.fixedHeader().isDup()) {
+                            // we are dealing with QoS1, so redeliveries and duplicate insert exceptions are
+                            // normal in case of a duplicate message - indicated by the isDup flag
+                            return null;
                         }
+                    }
 
-                        Exceptions.rethrowUnchecked(t);
-                        return null;
-                    }));
-                    session.execute(Session.UNNAMED, 0, resultReceiver);
-                    session.sync();
-                } catch (SQLActionException e) {
-                    ackCallback.accept(null, e);
-                    callbackNotified = true;
-                    break;
-                }
+                    Exceptions.rethrowUnchecked(cause);
+                    return null;
+                }));
             }
         }
-        session.close();
 
-        if (callbackNotified == false) {
-            CompletableFuture<Void> allResultsComplete =
-                CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
+        CompletableFuture<Void> allResultsComplete =
+            CompletableFuture.allOf(insertOperationsFuture.toArray(new CompletableFuture[0]));
 
-            allResultsComplete.whenComplete((r, t) -> {
-                if (t != null) {
-                    // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
-                    ackCallback.accept(null, t.getCause());
-                } else {
-                    ackCallback.accept(r, null);
-                }
-            });
-        }
+        allResultsComplete.whenComplete((r, t) -> {
+            if (t != null) {
+                // the actual cause is wrapped in a CompletionException by CompletableFuture#allOf
+                ackCallback.accept(null, t.getCause());
+            } else {
+                ackCallback.accept(r, null);
+            }
+        });
 
         if (messageMatchedRule == false) {
             LOGGER.warn("Message with client_id {} and packet_id {} did not match any rule. The message will not be " +
@@ -242,19 +256,82 @@ public class MqttIngestService implements IngestRuleListener {
         }
     }
 
+    private CompletableFuture<Long> insertSingle(IngestRule ingestRule, List<Object> args) {
+        Session session = createSession();
+        try {
+            session.parse(Session.UNNAMED, insertStatement(ingestRule), FIELD_TYPES);
+            session.bind(Session.UNNAMED, Session.UNNAMED, args, null);
+            BaseResultReceiver resultReceiver = new BaseResultReceiver();
+            session.execute(Session.UNNAMED, 0, resultReceiver);
+            session.sync();
+            return resultReceiver.completionFuture().thenApply(ignored -> 1L);
+        } catch (SQLActionException e) {
+            return CompletableFutures.failedFuture(e);
+        } finally {
+            session.close();
+        }
+    }
+
+    private Session createSession() {
+        return sqlOperations.createSession(Schemas.DOC_SCHEMA_NAME, crateUser, Option.NONE, 1);
+    }
+
+    private static String insertStatement(IngestRule ingestRule) {
+        return "insert into " + TableIdent.fromIndexName(ingestRule.getTargetTable()).fqn() +
+               " (\"client_id\", \"packet_id\", \"topic\", \"ts\", \"payload\") " +
+               "values (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+    }
+
+    /**
+     * Inserts all buffered messages.
+     */
+    void flush() {
+        for (Tuple<Predicate<Row>, IngestRuleBatch> entry : predicateAndBatchesReference.get()) {
+            entry.v2().flush();
+        }
+    }
+
+    /**
+     * Stops the periodic flush, inserts the buffered messages and releases the resources of the service.
+     */
+    public void close() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        List<Tuple<Predicate<Row>, IngestRuleBatch>> batches = predicateAndBatchesReference.getAndSet(Collections.emptyList());
+        for (Tuple<Predicate<Row>, IngestRuleBatch> entry : batches) {
+            entry.v2().flush();
+            entry.v2().close();
+        }
+    }
+
     @Override
     public void applyRules(Set<IngestRule> rules) {
-        Set<Tuple<Predicate<Row>, IngestRule>> newRules = new HashSet<>(rules.size());
+        Map<IngestRule, IngestRuleBatch> existingBatches = new HashMap<>();
+        for (Tuple<Predicate<Row>, IngestRuleBatch> entry : predicateAndBatchesReference.get()) {
+            existingBatches.put(entry.v2().rule(), entry.v2());
+        }
+        List<Tuple<Predicate<Row>, IngestRuleBatch>> newRules = new ArrayList<>(rules.size());
         for (IngestRule rule : rules) {
+            IngestRuleBatch batch = existingBatches.remove(rule);
+            if (batch == null) {
+                batch = new IngestRuleBatch(rule, insertStatement(rule), this::createSession, maxBatchSize);
+            }
             if (rule.getCondition().trim().isEmpty() == false) {
                 Symbol conditionSymbol = expressionAnalyzer.convert(SqlParser.createExpression(rule.getCondition()),
                     expressionAnalysisContext);
                 Predicate<Row> conditionPredicate = RowFilter.create(inputFactory, conditionSymbol);
-                newRules.add(new Tuple<>(conditionPredicate, rule));
+                newRules.add(new Tuple<>(conditionPredicate, batch));
             } else {
-                newRules.add(new Tuple<>(ALWAYS_TRUE, rule));
+                newRules.add(new Tuple<>(ALWAYS_TRUE, batch));
             }
         }
-        predicateAndIngestRulesReference.set(newRules);
+        predicateAndBatchesReference.set(newRules);
+        // insert the messages which have been buffered for removed rules
+        for (IngestRuleBatch removedBatch : existingBatches.values()) {
+            removedBatch.flush();
+            removedBatch.close();
+        }
     }
 }
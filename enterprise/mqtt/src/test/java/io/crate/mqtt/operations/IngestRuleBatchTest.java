@@ -0,0 +1,144 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.mqtt.operations;
+
+import io.crate.action.sql.ResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.action.sql.Session;
+import io.crate.data.Row1;
+import io.crate.metadata.rule.ingest.IngestRule;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class IngestRuleBatchTest extends CrateUnitTest {
+
+    private static final String STMT = "insert into t (client_id, packet_id, topic, ts, payload) values (?, ?, ?, CURRENT_TIMESTAMP, ?)";
+
+    private IngestRule rule = new IngestRule("rule", "t", "");
+    private Session session;
+    private List<ResultReceiver> resultReceivers;
+    private int numSessions;
+
+    @Before
+    public void setUpSession() {
+        session = mock(Session.class);
+        resultReceivers = new ArrayList<>();
+        numSessions = 0;
+        doAnswer(invocation -> {
+            resultReceivers.add((ResultReceiver) invocation.getArguments()[2]);
+            return null;
+        }).when(session).execute(anyString(), anyInt(), any(ResultReceiver.class));
+    }
+
+    private IngestRuleBatch newBatch(int maxBatchSize) {
+        return new IngestRuleBatch(rule, STMT, () -> {
+            numSessions++;
+            return session;
+        }, maxBatchSize);
+    }
+
+    private static List<Object> args(int packetId) {
+        return Arrays.asList("client", packetId, "topic", null);
+    }
+
+    @Test
+    public void testMessagesAreInsertedOnceBatchIsFull() throws Exception {
+        IngestRuleBatch batch = newBatch(3);
+        CompletableFuture<Long> first = batch.add(args(1));
+        batch.add(args(2));
+        verify(session, never()).sync();
+
+        batch.add(args(3));
+        verify(session, times(1)).parse(eq("rule"), eq(STMT), anyListOf(DataType.class));
+        verify(session, times(3)).bind(eq(Session.UNNAMED), eq("rule"), anyListOf(Object.class), any());
+        verify(session, times(1)).sync();
+
+        resultReceivers.get(0).setNextRow(new Row1(1L));
+        resultReceivers.get(0).allFinished(false);
+        assertThat(first.get(), is(1L));
+    }
+
+    @Test
+    public void testStatementIsParsedOncePerSession() throws Exception {
+        IngestRuleBatch batch = newBatch(10);
+        batch.add(args(1));
+        batch.flush();
+        batch.add(args(2));
+        batch.flush();
+        // nothing buffered, must not sync
+        batch.flush();
+
+        verify(session, times(1)).parse(eq("rule"), eq(STMT), anyListOf(DataType.class));
+        verify(session, times(2)).sync();
+        assertThat(numSessions, is(1));
+    }
+
+    @Test
+    public void testFailureFailsAllMessagesOfBatchAndCreatesNewSession() throws Exception {
+        doThrow(new SQLActionException("bind failed", 4000, null))
+            .when(session).bind(anyString(), anyString(), anyListOf(Object.class), any());
+        IngestRuleBatch batch = newBatch(2);
+        CompletableFuture<Long> first = batch.add(args(1));
+        CompletableFuture<Long> second = batch.add(args(2));
+
+        assertThat(first.isCompletedExceptionally(), is(true));
+        assertThat(second.isCompletedExceptionally(), is(true));
+        verify(session, times(1)).close();
+
+        batch.add(args(3));
+        batch.add(args(4));
+        assertThat(numSessions, is(2));
+    }
+
+    @Test
+    public void testBulkRowCountErrorIsPassedOn() throws Exception {
+        IngestRuleBatch batch = newBatch(2);
+        batch.add(args(1));
+        CompletableFuture<Long> second = batch.add(args(2));
+
+        resultReceivers.get(1).setNextRow(new Row1(Row1.ERROR));
+        resultReceivers.get(1).allFinished(false);
+        assertThat(second.get(), is(Row1.ERROR));
+    }
+}
@@ -25,8 +25,12 @@ import io.crate.analyze.AlterTableAnalyzedStatement;
 import io.crate.analyze.AlterTableOpenCloseAnalyzedStatement;
 import io.crate.analyze.AlterTableRenameAnalyzedStatement;
 import io.crate.analyze.AlterUserAnalyzedStatement;
+import io.crate.analyze.AnalyzeTableAnalyzedStatement;
 import io.crate.analyze.AnalyzedBegin;
+import io.crate.analyze.AnalyzedCloseCursor;
+import io.crate.analyze.AnalyzedDeclareCursor;
 import io.crate.analyze.AnalyzedDeleteStatement;
+import io.crate.analyze.AnalyzedFetchFromCursor;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.AnalyzedUpdateStatement;
@@ -74,6 +78,7 @@ import io.crate.exceptions.UnauthorizedException;
 import io.crate.metadata.IndexParts;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
 import io.crate.sql.tree.SetStatement;
 
 import java.util.Locale;
@@ -326,6 +331,18 @@ class StatementPrivilegeValidator implements StatementAuthorizedValidator {
             return null;
         }
 
+        @Override
+        public Void visitAnalyzeTableStatement(AnalyzeTableAnalyzedStatement analysis, User user) {
+            for (DocTableInfo table : analysis.tables()) {
+                Privileges.ensureUserHasPrivilege(
+                    Privilege.Type.DQL,
+                    Privilege.Clazz.TABLE,
+                    table.ident().toString(),
+                    user);
+            }
+            return null;
+        }
+
         @Override
         public Void visitAlterTableRenameStatement(AlterTableRenameAnalyzedStatement analysis, User user) {
             Privileges.ensureUserHasPrivilege(
@@ -456,6 +473,22 @@ class StatementPrivilegeValidator implements StatementAuthorizedValidator {
                 user);
             return null;
         }
+
+        @Override
+        public Void visitDeclareCursor(AnalyzedDeclareCursor declareCursor, User user) {
+            return process(declareCursor.query(), user);
+        }
+
+        @Override
+        public Void visitFetchFromCursor(AnalyzedFetchFromCursor fetchFromCursor, User user) {
+            // privileges are checked on DECLARE; cursors are only visible within the session which declared them
+            return null;
+        }
+
+        @Override
+        public Void visitCloseCursor(AnalyzedCloseCursor closeCursor, User user) {
+            return null;
+        }
     }
 
     private static class RelationContext {
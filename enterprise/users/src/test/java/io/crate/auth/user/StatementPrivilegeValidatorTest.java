@@ -346,6 +346,12 @@ public class StatementPrivilegeValidatorTest extends CrateDummyClusterServiceUni
         assertAskedForTable(Privilege.Type.DQL, "doc.parted");
     }
 
+    @Test
+    public void testAnalyze() throws Exception {
+        analyze("analyze users");
+        assertAskedForTable(Privilege.Type.DQL, "doc.users");
+    }
+
     @Test
     public void testRenameTable() throws Exception {
         analyze("alter table users rename to users_new");
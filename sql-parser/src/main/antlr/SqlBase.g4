@@ -33,9 +33,10 @@ singleExpression
 statement
     : query                                                                          #default
     | BEGIN                                                                          #begin
-    | EXPLAIN statement                                                              #explain
+    | EXPLAIN ANALYZE? statement                                                     #explain
     | OPTIMIZE TABLE tableWithPartitions withProperties?                             #optimize
     | REFRESH TABLE tableWithPartitions                                              #refreshTable
+    | ANALYZE table?                                                                 #analyze
     | UPDATE aliasedRelation SET assignment (',' assignment)* where?                 #update
     | DELETE FROM aliasedRelation where?                                             #delete
     | SHOW TRANSACTION ISOLATION LEVEL                                               #showTransaction
@@ -64,9 +65,16 @@ statement
     | INSERT INTO table ('(' ident (',' ident)* ')')? insertSource
         (ON DUPLICATE KEY UPDATE assignment (',' assignment)*)?                      #insert
     | RESTORE SNAPSHOT qname (ALL | TABLE tableWithPartitions) withProperties?       #restore
+    | COPY tableWithPartition
+        ('(' ident (',' ident)* ')')? FROM STDIN withProperties?                     #copyFromStdin
     | COPY tableWithPartition FROM path=expr withProperties?                         #copyFrom
+    | COPY '(' query ')' TO STDOUT withProperties?                                   #copyQueryToStdout
+    | COPY table columns? where? TO STDOUT withProperties?                           #copyTableToStdout
     | COPY tableWithPartition columns? where?
         TO DIRECTORY? path=expr withProperties?                                      #copyTo
+    | DECLARE name=ident CURSOR FOR query                                            #declareCursor
+    | FETCH FORWARD? (ALL | count=parameterOrInteger)? (FROM | IN) name=ident        #fetchFromCursor
+    | CLOSE (ALL | name=ident)                                                       #closeCursor
     | DROP BLOB TABLE (IF EXISTS)? table                                             #dropBlobTable
     | DROP TABLE (IF EXISTS)? table                                                  #dropTable
     | DROP ALIAS qname                                                               #dropAlias
@@ -578,7 +586,7 @@ clazz
     ;
 
 nonReserved
-    : ALIAS | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
+    : ALIAS | ANALYZE | ANALYZER | BERNOULLI | BLOB | CATALOGS | CHAR_FILTERS | CLUSTERED
     | COLUMNS | COPY | CURRENT | DATE | DAY | DISTRIBUTED | DUPLICATE | DYNAMIC | EXPLAIN
     | EXTENDS | FOLLOWING | FORMAT | FULLTEXT | FUNCTIONS | GEO_POINT | GEO_SHAPE | GLOBAL
     | GRAPHVIZ | HOUR | IGNORED | KEY | KILL | LOGICAL | LOCAL | MATERIALIZED | MINUTE
@@ -588,7 +596,7 @@ nonReserved
     | TIMESTAMP | TO | TOKENIZER | TOKEN_FILTERS | TYPE | VALUES | VIEW | YEAR
     | REPOSITORY | SNAPSHOT | RESTORE | GENERATED | ALWAYS | BEGIN
     | ISOLATION | TRANSACTION | CHARACTERISTICS | LEVEL | LANGUAGE | OPEN | CLOSE | RENAME
-    | PRIVILEGES | SCHEMA | INGEST | RULE
+    | PRIVILEGES | SCHEMA | INGEST | RULE | STDIN | STDOUT | DECLARE | CURSOR | FETCH | FORWARD
     | REROUTE | MOVE | SHARD | ALLOCATE | REPLICA | CANCEL | CLUSTER | RETRY | FAILED
     ;
 
@@ -769,6 +777,12 @@ SET: 'SET';
 RESET: 'RESET';
 DEFAULT: 'DEFAULT';
 COPY: 'COPY';
+STDIN: 'STDIN';
+STDOUT: 'STDOUT';
+DECLARE: 'DECLARE';
+CURSOR: 'CURSOR';
+FETCH: 'FETCH';
+FORWARD: 'FORWARD';
 CLUSTERED: 'CLUSTERED';
 SHARDS: 'SHARDS';
 PRIMARY_KEY: 'PRIMARY KEY';
@@ -784,6 +798,7 @@ IGNORED: 'IGNORED';
 
 ARRAY: 'ARRAY';
 
+ANALYZE: 'ANALYZE';
 ANALYZER: 'ANALYZER';
 EXTENDS: 'EXTENDS';
 TOKENIZER: 'TOKENIZER';
@@ -27,6 +27,7 @@ import io.crate.sql.tree.AliasedRelation;
 import io.crate.sql.tree.AllColumns;
 import io.crate.sql.tree.Assignment;
 import io.crate.sql.tree.AstVisitor;
+import io.crate.sql.tree.CloseCursor;
 import io.crate.sql.tree.ClusteredBy;
 import io.crate.sql.tree.CollectionColumnType;
 import io.crate.sql.tree.ColumnConstraint;
@@ -34,18 +35,21 @@ import io.crate.sql.tree.ColumnDefinition;
 import io.crate.sql.tree.ColumnStorageDefinition;
 import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CrateTableOption;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreateIngestRule;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
+import io.crate.sql.tree.DeclareCursor;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DropIngestRule;
 import io.crate.sql.tree.DropRepository;
 import io.crate.sql.tree.DropUser;
 import io.crate.sql.tree.Explain;
 import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.FetchFromCursor;
 import io.crate.sql.tree.FunctionArgument;
 import io.crate.sql.tree.GenericProperties;
 import io.crate.sql.tree.GrantPrivilege;
@@ -124,8 +128,17 @@ public final class SqlFormatter {
         public Void visitCopyFrom(CopyFrom node, Integer indent) {
             append(indent, "COPY ");
             process(node.table(), indent);
+            if (!node.columns().isEmpty()) {
+                builder.append(" (")
+                    .append(node.columns().stream().map(this::quoteIdentifierIfNeeded).collect(COMMA_JOINER))
+                    .append(")");
+            }
             append(indent, " FROM ");
-            process(node.path(), indent);
+            if (node.isStdin()) {
+                append(indent, "STDIN");
+            } else {
+                process(node.path(), indent);
+            }
             if (!node.genericProperties().isEmpty()) {
                 append(indent, " ");
                 process(node.genericProperties(), indent);
@@ -133,6 +146,47 @@ public final class SqlFormatter {
             return null;
         }
 
+        @Override
+        public Void visitCopyToStdout(CopyToStdout node, Integer indent) {
+            append(indent, "COPY (");
+            process(node.query(), indent);
+            append(indent, ") TO STDOUT");
+            if (!node.genericProperties().isEmpty()) {
+                append(indent, " ");
+                process(node.genericProperties(), indent);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitDeclareCursor(DeclareCursor node, Integer indent) {
+            append(indent, "DECLARE ");
+            builder.append(quoteIdentifierIfNeeded(node.name()));
+            builder.append(" CURSOR FOR ");
+            process(node.query(), indent);
+            return null;
+        }
+
+        @Override
+        public Void visitFetchFromCursor(FetchFromCursor node, Integer indent) {
+            append(indent, "FETCH ");
+            if (node.count().isPresent()) {
+                builder.append(formatStandaloneExpression(node.count().get()));
+            } else {
+                builder.append("ALL");
+            }
+            builder.append(" FROM ");
+            builder.append(quoteIdentifierIfNeeded(node.name()));
+            return null;
+        }
+
+        @Override
+        public Void visitCloseCursor(CloseCursor node, Integer indent) {
+            append(indent, "CLOSE ");
+            builder.append(node.name().map(this::quoteIdentifierIfNeeded).orElse("ALL"));
+            return null;
+        }
+
         @Override
         public Void visitRefreshStatement(RefreshStatement node, Integer indent) {
             append(indent, "REFRESH TABLE ");
@@ -143,6 +197,9 @@ public final class SqlFormatter {
         @Override
         protected Void visitExplain(Explain node, Integer indent) {
             append(indent, "EXPLAIN ");
+            if (node.isAnalyze()) {
+                builder.append("ANALYZE ");
+            }
             process(node.getStatement(), indent);
             return null;
         }
@@ -39,6 +39,7 @@ import io.crate.sql.tree.AlterTableOpenClose;
 import io.crate.sql.tree.AlterTableRename;
 import io.crate.sql.tree.AlterTableReroute;
 import io.crate.sql.tree.AlterUser;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.AnalyzerElement;
 import io.crate.sql.tree.ArithmeticExpression;
 import io.crate.sql.tree.ArrayComparisonExpression;
@@ -50,6 +51,7 @@ import io.crate.sql.tree.BetweenPredicate;
 import io.crate.sql.tree.BooleanLiteral;
 import io.crate.sql.tree.Cast;
 import io.crate.sql.tree.CharFilters;
+import io.crate.sql.tree.CloseCursor;
 import io.crate.sql.tree.ClusteredBy;
 import io.crate.sql.tree.CollectionColumnType;
 import io.crate.sql.tree.ColumnConstraint;
@@ -59,6 +61,7 @@ import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CrateTableOption;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
@@ -70,6 +73,7 @@ import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
 import io.crate.sql.tree.CurrentTime;
 import io.crate.sql.tree.DateLiteral;
+import io.crate.sql.tree.DeclareCursor;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DoubleLiteral;
@@ -85,6 +89,7 @@ import io.crate.sql.tree.ExistsPredicate;
 import io.crate.sql.tree.Explain;
 import io.crate.sql.tree.Expression;
 import io.crate.sql.tree.Extract;
+import io.crate.sql.tree.FetchFromCursor;
 import io.crate.sql.tree.FunctionArgument;
 import io.crate.sql.tree.FunctionCall;
 import io.crate.sql.tree.GenericProperties;
@@ -383,6 +388,72 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
             extractGenericProperties(context.withProperties()));
     }
 
+    @Override
+    public Node visitCopyFromStdin(SqlBaseParser.CopyFromStdinContext context) {
+        return new CopyFrom(
+            (Table) visit(context.tableWithPartition()),
+            identsToStrings(context.ident()),
+            null,
+            extractGenericProperties(context.withProperties()));
+    }
+
+    @Override
+    public Node visitDeclareCursor(SqlBaseParser.DeclareCursorContext context) {
+        return new DeclareCursor(getIdentText(context.name), (Query) visit(context.query()));
+    }
+
+    @Override
+    public Node visitFetchFromCursor(SqlBaseParser.FetchFromCursorContext context) {
+        String name = getIdentText(context.name);
+        if (context.ALL() != null) {
+            return new FetchFromCursor(name);
+        }
+        if (context.count == null) {
+            // FETCH FROM name is equivalent to FETCH NEXT FROM name
+            return new FetchFromCursor(name, new LongLiteral("1"));
+        }
+        return new FetchFromCursor(name, (Expression) visit(context.count));
+    }
+
+    @Override
+    public Node visitCloseCursor(SqlBaseParser.CloseCursorContext context) {
+        if (context.ALL() != null) {
+            return new CloseCursor();
+        }
+        return new CloseCursor(getIdentText(context.name));
+    }
+
+    @Override
+    public Node visitCopyQueryToStdout(SqlBaseParser.CopyQueryToStdoutContext context) {
+        return new CopyToStdout(
+            (Query) visit(context.query()),
+            extractGenericProperties(context.withProperties()));
+    }
+
+    @Override
+    public Node visitCopyTableToStdout(SqlBaseParser.CopyTableToStdoutContext context) {
+        List<SelectItem> selectItems;
+        if (context.columns() == null) {
+            selectItems = ImmutableList.of(new AllColumns());
+        } else {
+            selectItems = visitCollection(context.columns().primaryExpression(), Expression.class).stream()
+                .map(SingleColumn::new)
+                .collect(toList());
+        }
+        QuerySpecification querySpec = new QuerySpecification(
+            new Select(false, selectItems),
+            ImmutableList.of((Relation) visit(context.table())),
+            visitIfPresent(context.where(), Expression.class),
+            ImmutableList.of(),
+            Optional.empty(),
+            ImmutableList.of(),
+            Optional.empty(),
+            Optional.empty());
+        return new CopyToStdout(
+            new Query(querySpec, ImmutableList.of(), Optional.empty(), Optional.empty()),
+            extractGenericProperties(context.withProperties()));
+    }
+
     @Override
     public Node visitCopyTo(SqlBaseParser.CopyToContext context) {
         return new CopyTo(
@@ -496,7 +567,7 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
 
     @Override
     public Node visitExplain(SqlBaseParser.ExplainContext context) {
-        return new Explain((Statement) visit(context.statement()));
+        return new Explain((Statement) visit(context.statement()), context.ANALYZE() != null);
     }
 
     @Override
@@ -528,6 +599,14 @@ class AstBuilder extends SqlBaseBaseVisitor<Node> {
         return new RefreshStatement(visitCollection(context.tableWithPartitions().tableWithPartition(), Table.class));
     }
 
+    @Override
+    public Node visitAnalyze(SqlBaseParser.AnalyzeContext context) {
+        if (context.table() == null) {
+            return new AnalyzeStatement();
+        }
+        return new AnalyzeStatement((Table) visit(context.table()));
+    }
+
     @Override
     public Node visitTableOnly(SqlBaseParser.TableOnlyContext context) {
         return new Table(getQualifiedName(context.qname()));
@@ -23,17 +23,36 @@ package io.crate.sql.tree;
 
 import com.google.common.base.MoreObjects;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
 public class CopyFrom extends Statement {
 
     private final Table table;
+    private final List<String> columns;
+    @Nullable
     private final Expression path;
     private final GenericProperties genericProperties;
 
     public CopyFrom(Table table,
                     Expression path,
                     GenericProperties genericProperties) {
+        this(table, Collections.emptyList(), path, genericProperties);
+    }
+
+    /**
+     * @param columns the target columns, only used if the data is read from STDIN
+     * @param path the path or URI to read from, null to read from STDIN
+     */
+    public CopyFrom(Table table,
+                    List<String> columns,
+                    @Nullable Expression path,
+                    GenericProperties genericProperties) {
 
         this.table = table;
+        this.columns = columns;
         this.path = path;
         this.genericProperties = genericProperties;
     }
@@ -42,10 +61,22 @@ public class CopyFrom extends Statement {
         return table;
     }
 
+    public List<String> columns() {
+        return columns;
+    }
+
+    /**
+     * @return the path to read from or null if the data is read from STDIN
+     */
+    @Nullable
     public Expression path() {
         return path;
     }
 
+    public boolean isStdin() {
+        return path == null;
+    }
+
     public GenericProperties genericProperties() {
         return genericProperties;
     }
@@ -58,7 +89,8 @@ public class CopyFrom extends Statement {
         CopyFrom that = (CopyFrom) o;
 
         if (!genericProperties.equals(that.genericProperties)) return false;
-        if (!path.equals(that.path)) return false;
+        if (!Objects.equals(path, that.path)) return false;
+        if (!columns.equals(that.columns)) return false;
         if (!table.equals(that.table)) return false;
 
         return true;
@@ -67,7 +99,8 @@ public class CopyFrom extends Statement {
     @Override
     public int hashCode() {
         int result = table.hashCode();
-        result = 31 * result + path.hashCode();
+        result = 31 * result + columns.hashCode();
+        result = 31 * result + Objects.hashCode(path);
         result = 31 * result + genericProperties.hashCode();
         return result;
     }
@@ -76,7 +109,8 @@ public class CopyFrom extends Statement {
     public String toString() {
         return MoreObjects.toStringHelper(this)
             .add("table", table)
-            .add("path", path)
+            .add("columns", columns)
+            .add("path", path == null ? "STDIN" : path)
             .add("properties", genericProperties)
             .toString();
     }
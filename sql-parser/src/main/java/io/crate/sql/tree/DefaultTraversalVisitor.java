@@ -322,6 +322,18 @@ public abstract class DefaultTraversalVisitor<R, C>
         return null;
     }
 
+    @Override
+    public R visitCopyToStdout(CopyToStdout node, C context) {
+        process(node.query(), context);
+        return null;
+    }
+
+    @Override
+    public R visitDeclareCursor(DeclareCursor node, C context) {
+        process(node.query(), context);
+        return null;
+    }
+
     @Override
     public R visitAlterTable(AlterTable node, C context) {
         process(node.table(), context);
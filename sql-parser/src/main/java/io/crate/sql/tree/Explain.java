@@ -29,15 +29,24 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class Explain
     extends Statement {
     private final Statement statement;
+    private final boolean analyze;
 
-    public Explain(Statement statement) {
+    public Explain(Statement statement, boolean analyze) {
         this.statement = checkNotNull(statement, "statement is null");
+        this.analyze = analyze;
     }
 
     public Statement getStatement() {
         return statement;
     }
 
+    /**
+     * @return true if the statement is executed and the plan is annotated with runtime statistics.
+     */
+    public boolean isAnalyze() {
+        return analyze;
+    }
+
     @Override
     public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
         return visitor.visitExplain(this, context);
@@ -45,7 +54,7 @@ public class Explain
 
     @Override
     public int hashCode() {
-        return statement.hashCode();
+        return Objects.hashCode(statement, analyze);
     }
 
     @Override
@@ -57,13 +66,14 @@ public class Explain
             return false;
         }
         Explain o = (Explain) obj;
-        return Objects.equal(statement, o.statement);
+        return analyze == o.analyze && Objects.equal(statement, o.statement);
     }
 
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
             .add("statement", statement)
+            .add("analyze", analyze)
             .toString();
     }
 }
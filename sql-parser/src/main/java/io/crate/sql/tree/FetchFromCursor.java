@@ -0,0 +1,83 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.sql.tree;
+
+import java.util.Optional;
+
+/**
+ * FETCH [ count | ALL ] FROM name
+ */
+public class FetchFromCursor extends Statement {
+
+    private final String name;
+    private final Optional<Expression> count;
+
+    /**
+     * FETCH ALL FROM name
+     */
+    public FetchFromCursor(String name) {
+        this.name = name;
+        this.count = Optional.empty();
+    }
+
+    public FetchFromCursor(String name, Expression count) {
+        this.name = name;
+        this.count = Optional.of(count);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of rows to fetch; empty if all remaining rows should be fetched.
+     */
+    public Optional<Expression> count() {
+        return count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FetchFromCursor that = (FetchFromCursor) o;
+        return name.equals(that.name) && count.equals(that.count);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + count.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "FETCH " + (count.isPresent() ? count.get() : "ALL") + " FROM " + name;
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitFetchFromCursor(this, context);
+    }
+}
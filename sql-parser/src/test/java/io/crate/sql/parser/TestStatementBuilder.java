@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Strings.repeat;
@@ -139,6 +140,7 @@ public class TestStatementBuilder {
     @Test
     public void testExplainStmtBuilder() {
         printStatement("explain drop table foo");
+        printStatement("explain analyze select * from foo");
     }
 
     @Test
@@ -185,6 +187,21 @@ public class TestStatementBuilder {
         printStatement("kill $1");
     }
 
+    @Test
+    public void testAnalyzeStmtBuilder() {
+        printStatement("analyze");
+        printStatement("analyze t1");
+        printStatement("analyze doc.t1");
+    }
+
+    @Test
+    public void testAnalyzeTable() {
+        AnalyzeStatement stmt = (AnalyzeStatement) SqlParser.createStatement("ANALYZE my_schema.t1");
+        assertThat(stmt.table().isPresent(), is(true));
+        assertThat(stmt.table().get().getName().toString(), is("my_schema.t1"));
+        assertThat(SqlParser.createStatement("ANALYZE"), is(new AnalyzeStatement()));
+    }
+
     @Test
     public void testKillJob() {
         KillStatement stmt = (KillStatement) SqlParser.createStatement("KILL $1");
@@ -703,6 +720,52 @@ public class TestStatementBuilder {
         printStatement("copy foo partition (a=?) to DIRECTORY '/folder' with (some_param=4)");
 
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
+
+        printStatement("copy foo from stdin");
+        printStatement("copy foo (a, \"B\") from stdin with (format='csv', header=true)");
+        printStatement("copy foo partition (a='x') from stdin");
+        printStatement("copy (select a, b from foo where a > 10) to stdout");
+        printStatement("copy (select * from foo) to stdout with (format='csv')");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a, b) where a = 'x' to stdout");
+    }
+
+    @Test
+    public void testCopyFromStdin() {
+        CopyFrom copyFrom = (CopyFrom) SqlParser.createStatement("copy foo (a, b) from stdin");
+        assertThat(copyFrom.isStdin(), is(true));
+        assertThat(copyFrom.columns(), is(Arrays.asList("a", "b")));
+
+        copyFrom = (CopyFrom) SqlParser.createStatement("copy foo from stdin_files");
+        assertThat(copyFrom.isStdin(), is(false));
+    }
+
+    @Test
+    public void testCopyTableToStdoutIsRewrittenToQuery() {
+        CopyToStdout copyTo = (CopyToStdout) SqlParser.createStatement("copy foo (a) where a = 1 to stdout");
+        assertThat(SqlFormatter.formatSql(copyTo.query()), is(SqlFormatter.formatSql(
+            SqlParser.createStatement("select a from foo where a = 1"))));
+    }
+
+    @Test
+    public void testCursorStmtBuilder() {
+        printStatement("declare c cursor for select a, b from foo order by a");
+        printStatement("fetch 10 from c");
+        printStatement("fetch ? in c");
+        printStatement("fetch all from c");
+        printStatement("fetch forward 100 from c");
+        printStatement("close c");
+        printStatement("close all");
+    }
+
+    @Test
+    public void testFetchWithoutCountFetchesOneRow() {
+        FetchFromCursor fetch = (FetchFromCursor) SqlParser.createStatement("fetch from c");
+        assertThat(fetch.name(), is("c"));
+        assertThat(fetch.count().get(), is(new LongLiteral("1")));
+
+        fetch = (FetchFromCursor) SqlParser.createStatement("fetch all from c");
+        assertThat(fetch.count().isPresent(), is(false));
     }
 
     @Test
@@ -1201,6 +1264,10 @@ public class TestStatementBuilder {
         if (statement instanceof Query ||
             statement instanceof CreateTable ||
             statement instanceof CopyFrom ||
+            statement instanceof CopyToStdout ||
+            statement instanceof DeclareCursor ||
+            statement instanceof FetchFromCursor ||
+            statement instanceof CloseCursor ||
             statement instanceof CreateFunction ||
             statement instanceof CreateUser ||
             statement instanceof DropUser ||
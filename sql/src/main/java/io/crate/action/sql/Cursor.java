@@ -0,0 +1,204 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.symbol.Field;
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+import io.crate.data.LimitingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A cursor declared with {@code DECLARE name CURSOR FOR query}.
+ * <p>
+ * The cursor is the {@link RowConsumer} of the job which executes the query. Instead of consuming the
+ * {@link BatchIterator} it keeps it - and with it the job and all its contexts - alive until the cursor is closed.
+ * Each {@code FETCH} consumes the next rows of the iterator, so paging through the result doesn't re-execute the
+ * query, unlike paging with {@code LIMIT} and {@code OFFSET}.
+ * </p>
+ * <p>
+ * Only one {@code FETCH} can consume the iterator at a time.
+ * </p>
+ */
+public class Cursor implements RowConsumer {
+
+    private final String name;
+    private final UUID jobId;
+    private final List<Field> fields;
+    private final CompletableFuture<BatchIterator<Row>> iterator = new CompletableFuture<>();
+
+    private boolean fetching = false;
+    private boolean closed = false;
+    private long lastAccessNanos = System.nanoTime();
+
+    public Cursor(String name, UUID jobId, List<Field> fields) {
+        this.name = name;
+        this.jobId = jobId;
+        this.fields = fields;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the id of the job which produces the rows of the cursor
+     */
+    public UUID jobId() {
+        return jobId;
+    }
+
+    /**
+     * @return the output fields of the query the cursor has been declared for
+     */
+    public List<Field> fields() {
+        return fields;
+    }
+
+    @Override
+    public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+        if (failure == null) {
+            if (!this.iterator.complete(iterator)) {
+                // cursor has been closed before the job started
+                iterator.close();
+            }
+        } else {
+            if (iterator != null) {
+                iterator.close();
+            }
+            this.iterator.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Returns a BatchIterator which moves the cursor forward by at most {@code count} rows.
+     * Closing the returned iterator doesn't close the cursor; the next fetch continues after the last row
+     * consumed from it.
+     */
+    public CompletableFuture<BatchIterator<Row>> fetch(int count) {
+        synchronized (this) {
+            ensureOpen();
+            if (fetching) {
+                throw new IllegalStateException(String.format(Locale.ENGLISH,
+                    "Cursor '%s' is already in use by another FETCH", name));
+            }
+            fetching = true;
+        }
+        return iterator
+            .thenApply(it -> LimitingBatchIterator.newInstance(new FetchBatchIterator(it), count))
+            .whenComplete((it, failure) -> {
+                if (failure != null) {
+                    fetchFinished();
+                }
+            });
+    }
+
+    private synchronized void fetchFinished() {
+        fetching = false;
+        lastAccessNanos = System.nanoTime();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException(String.format(Locale.ENGLISH, "Cursor '%s' is closed", name));
+        }
+    }
+
+    /**
+     * Closes the cursor which finishes the job of the query.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (!iterator.completeExceptionally(new IllegalStateException(String.format(Locale.ENGLISH,
+            "Cursor '%s' has been closed", name)))) {
+            iterator.thenAccept(BatchIterator::close);
+        }
+    }
+
+    /**
+     * Closes the cursor if it hasn't been used for at least {@code timeoutNanos}.
+     *
+     * @return 0 if the cursor is closed, otherwise the nanoseconds after which the cursor would time out
+     */
+    synchronized long closeIfIdle(long timeoutNanos) {
+        if (closed) {
+            return 0L;
+        }
+        if (fetching) {
+            return timeoutNanos;
+        }
+        long remainingNanos = timeoutNanos - (System.nanoTime() - lastAccessNanos);
+        if (remainingNanos > 0) {
+            return remainingNanos;
+        }
+        close();
+        return 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "Cursor{" +
+               "name=" + name +
+               ", jobId=" + jobId +
+               '}';
+    }
+
+    /**
+     * The iterator handed out by {@link #fetch(int)}: Forwards to the iterator of the cursor without closing it.
+     */
+    private class FetchBatchIterator extends ForwardingBatchIterator<Row> {
+
+        private final BatchIterator<Row> delegate;
+
+        FetchBatchIterator(BatchIterator<Row> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected BatchIterator<Row> delegate() {
+            return delegate;
+        }
+
+        @Override
+        public void moveToStart() {
+            throw new UnsupportedOperationException("Cursors can only be moved forward");
+        }
+
+        @Override
+        public void close() {
+            fetchFinished();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cursors declared within a session.
+ * <p>
+ * An open cursor keeps the job of its query alive, including the memory accounted by the job's contexts.
+ * To bound the resources held by idle clients the number of cursors per session is limited and cursors which
+ * haven't been used for {@link #IDLE_TIMEOUT_SETTING} are closed.
+ * </p>
+ */
+public class Cursors {
+
+    private static final Logger LOGGER = Loggers.getLogger(Cursors.class);
+
+    public static final Setting<TimeValue> IDLE_TIMEOUT_SETTING = Setting.positiveTimeSetting(
+        "node.sql.cursor.idle_timeout", TimeValue.timeValueMinutes(10), Setting.Property.NodeScope);
+
+    public static final Setting<Integer> MAX_PER_SESSION_SETTING = Setting.intSetting(
+        "node.sql.cursor.max_per_session", 50, 1, Setting.Property.NodeScope);
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a new cursor
+     *
+     * @throws IllegalArgumentException if a cursor with the same name exists or if the session has too many cursors
+     */
+    public void add(Cursor cursor, int maxCursors) {
+        if (cursors.size() >= maxCursors) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cannot declare cursor '%s', the session already has the maximum number of %d open cursors",
+                cursor.name(), maxCursors));
+        }
+        if (cursors.putIfAbsent(cursor.name(), cursor) != null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Cursor '%s' already exists", cursor.name()));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if no cursor with the given name exists
+     */
+    public Cursor get(String name) {
+        Cursor cursor = cursors.get(name);
+        if (cursor == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Cursor '%s' does not exist", name));
+        }
+        return cursor;
+    }
+
+    /**
+     * Closes and removes the cursor with the given name
+     *
+     * @throws IllegalArgumentException if no cursor with the given name exists
+     */
+    public void close(String name) {
+        Cursor cursor = cursors.remove(name);
+        if (cursor == null) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH, "Cursor '%s' does not exist", name));
+        }
+        cursor.close();
+    }
+
+    public void closeAll() {
+        List<Cursor> toClose = new ArrayList<>(cursors.values());
+        cursors.clear();
+        for (Cursor cursor : toClose) {
+            cursor.close();
+        }
+    }
+
+    public int size() {
+        return cursors.size();
+    }
+
+    /**
+     * Closes the cursor once it hasn't been used for the given timeout.
+     */
+    public void scheduleIdleCheck(ScheduledExecutorService scheduler, Cursor cursor, TimeValue idleTimeout) {
+        scheduleIdleCheck(scheduler, cursor, idleTimeout.nanos(), idleTimeout.nanos());
+    }
+
+    private void scheduleIdleCheck(ScheduledExecutorService scheduler,
+                                   Cursor cursor,
+                                   long timeoutNanos,
+                                   long delayNanos) {
+        scheduler.schedule(() -> {
+            long remainingNanos = cursor.closeIfIdle(timeoutNanos);
+            if (remainingNanos > 0) {
+                scheduleIdleCheck(scheduler, cursor, timeoutNanos, remainingNanos);
+            } else if (cursors.remove(cursor.name(), cursor)) {
+                LOGGER.debug("Closed idle cursor {}", cursor);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
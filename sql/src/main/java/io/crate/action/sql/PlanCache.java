@@ -0,0 +1,417 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.crate.analyze.AnalyzedDeleteStatement;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.AnalyzedUpdateStatement;
+import io.crate.collections.Lists2;
+import io.crate.metadata.TableIdent;
+import io.crate.planner.MultiPhasePlan;
+import io.crate.planner.Plan;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Assignment;
+import io.crate.sql.tree.CurrentTime;
+import io.crate.sql.tree.DefaultTraversalVisitor;
+import io.crate.sql.tree.Delete;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.FunctionCall;
+import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.SubqueryExpression;
+import io.crate.sql.tree.Update;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.Index;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide cache for parsed statements and, where it is safe, analyzed statements and their plans.
+ *
+ * <ul>
+ *     <li>
+ *         Parsed statements are cached by the statement text. They don't depend on the cluster state.
+ *         They are weighed by their length, so that statements with large literals, like multi-row inserts,
+ *         can't fill the memory.
+ *     </li>
+ *     <li>
+ *         Analyzed statements and plans are cached by the parsed statement, the default schema of the session
+ *         and the types of the parameters, as the analysis casts the parameters to their types.
+ *         This is only done for {@code UPDATE} and {@code DELETE} statements without sub-queries and functions:
+ *         They're analyzed without binding parameter values, and their plans bind the parameters on execution.
+ *         Other statements get their parameter values embedded during analysis.
+ *     </li>
+ * </ul>
+ *
+ * Cached plans are invalidated if the metadata of a table they reference changes.
+ * Changes to templates or custom metadata (users, privileges, functions, ...) invalidate all cached plans.
+ * Plans of statements whose analysis started before a metadata change are not cached at all,
+ * as they may have been analyzed against the metadata which was just invalidated.
+ */
+@Singleton
+public class PlanCache implements ClusterStateListener {
+
+    public static final Setting<Integer> PLAN_CACHE_SIZE_SETTING = Setting.intSetting(
+        "node.sql.plan_cache.size", 1000, 0, Setting.Property.NodeScope);
+
+    public static final String STATEMENTS = "statements";
+    public static final String PLANS = "plans";
+
+    /**
+     * The statement cache may hold {@link #PLAN_CACHE_SIZE_SETTING} statements of this length.
+     */
+    private static final long AVG_STATEMENT_LENGTH = 1024;
+
+    /**
+     * A single statement may use at most this fraction of the statement cache.
+     */
+    private static final int MAX_ENTRY_FRACTION = 10;
+
+    private final Cache<String, Statement> statements;
+    private final long maxStatementLength;
+    private final Cache<Key, CachedPlan> plans;
+    private final AtomicLong planInvalidations = new AtomicLong(0);
+    private long metaDataVersion = 0L;
+
+    @Inject
+    public PlanCache(Settings settings, ClusterService clusterService) {
+        this(PLAN_CACHE_SIZE_SETTING.get(settings));
+        clusterService.addListener(this);
+    }
+
+    @VisibleForTesting
+    PlanCache(int maxSize) {
+        long maxStatementsWeight = maxSize * AVG_STATEMENT_LENGTH;
+        maxStatementLength = maxStatementsWeight / MAX_ENTRY_FRACTION;
+        statements = CacheBuilder.newBuilder()
+            .maximumWeight(maxStatementsWeight)
+            .weigher((String query, Statement statement) -> query.length())
+            .recordStats()
+            .build();
+        plans = CacheBuilder.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Parses the statement or returns the cached statement.
+     * Parse errors are thrown as if {@link SqlParser#createStatement(String)} was used.
+     */
+    public Statement parse(String query) {
+        Statement statement = statements.getIfPresent(query);
+        if (statement == null) {
+            statement = SqlParser.createStatement(query);
+            if (query.length() <= maxStatementLength) {
+                statements.put(query, statement);
+            }
+        }
+        return statement;
+    }
+
+    @Nullable
+    public CachedPlan getPlan(Statement statement, SessionContext sessionContext, List<Object> params) {
+        if (!isCacheable(statement)) {
+            return null;
+        }
+        return plans.getIfPresent(new Key(statement, sessionContext.defaultSchema(), params));
+    }
+
+    /**
+     * The version of the metadata the cached plans are valid for.
+     * It must be retrieved before the analysis of a statement whose plan is passed to {@link #putPlan}.
+     */
+    public synchronized long metaDataVersion() {
+        return metaDataVersion;
+    }
+
+    /**
+     * Adds the plan to the cache if the statement and the plan are parameter-independent
+     * and the metadata didn't change since the analysis of the statement started.
+     *
+     * @param metaDataVersion the {@link #metaDataVersion()} before the statement was analyzed
+     */
+    public void putPlan(Statement statement,
+                        SessionContext sessionContext,
+                        List<Object> params,
+                        long metaDataVersion,
+                        AnalyzedStatement analyzedStatement,
+                        Plan plan) {
+        if (!isCacheable(statement) || plan instanceof MultiPhasePlan) {
+            return;
+        }
+        TableIdent table;
+        if (analyzedStatement instanceof AnalyzedUpdateStatement) {
+            table = ((AnalyzedUpdateStatement) analyzedStatement).table().tableInfo().ident();
+        } else if (analyzedStatement instanceof AnalyzedDeleteStatement) {
+            table = ((AnalyzedDeleteStatement) analyzedStatement).relation().tableInfo().ident();
+        } else {
+            return;
+        }
+        Key key = new Key(statement, sessionContext.defaultSchema(), params);
+        CachedPlan cachedPlan = new CachedPlan(analyzedStatement, plan, table);
+        synchronized (this) {
+            if (metaDataVersion == this.metaDataVersion) {
+                plans.put(key, cachedPlan);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clusterChanged(ClusterChangedEvent event) {
+        if (!event.metaDataChanged()) {
+            return;
+        }
+        metaDataVersion = event.state().metaData().version();
+        if (plans.size() == 0) {
+            return;
+        }
+        MetaData prevMetaData = event.previousState().metaData();
+        MetaData newMetaData = event.state().metaData();
+        if (!prevMetaData.templates().equals(newMetaData.templates())
+            || !prevMetaData.customs().equals(newMetaData.customs())) {
+            planInvalidations.addAndGet(plans.size());
+            plans.invalidateAll();
+            return;
+        }
+        Set<TableIdent> changedTables = new HashSet<>();
+        for (Index index : event.indicesDeleted()) {
+            addTables(changedTables, prevMetaData.index(index));
+        }
+        for (ObjectCursor<IndexMetaData> cursor : newMetaData.indices().values()) {
+            IndexMetaData indexMetaData = cursor.value;
+            IndexMetaData prevIndexMetaData = prevMetaData.index(indexMetaData.getIndex());
+            if (prevIndexMetaData != indexMetaData) {
+                addTables(changedTables, prevIndexMetaData);
+                addTables(changedTables, indexMetaData);
+            }
+        }
+        invalidate(changedTables);
+    }
+
+    private void invalidate(Set<TableIdent> tables) {
+        if (tables.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<Key, CachedPlan>> it = plans.asMap().entrySet().iterator();
+        while (it.hasNext()) {
+            if (tables.contains(it.next().getValue().table)) {
+                it.remove();
+                planInvalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Adds the table of the index (or partition) and all tables referring to it using an alias
+     */
+    private static void addTables(Set<TableIdent> tables, @Nullable IndexMetaData indexMetaData) {
+        if (indexMetaData == null) {
+            return;
+        }
+        tables.add(TableIdent.fromIndexName(indexMetaData.getIndex().getName()));
+        for (ObjectCursor<String> alias : indexMetaData.getAliases().keys()) {
+            tables.add(TableIdent.fromIndexName(alias.value));
+        }
+    }
+
+    public List<Stats> stats() {
+        return Arrays.asList(
+            new Stats(STATEMENTS, statements.size(), statements.stats(), 0L),
+            new Stats(PLANS, plans.size(), plans.stats(), planInvalidations.get())
+        );
+    }
+
+    @VisibleForTesting
+    static boolean isCacheable(Statement statement) {
+        if (!(statement instanceof Update) && !(statement instanceof Delete)) {
+            return false;
+        }
+        ParameterIndependenceVisitor visitor = new ParameterIndependenceVisitor();
+        visitor.process(statement, null);
+        return visitor.isCacheable;
+    }
+
+    /**
+     * Detects functions and sub-queries. Their results may depend on the time, the session
+     * or other tables and are evaluated during analysis.
+     */
+    private static class ParameterIndependenceVisitor extends DefaultTraversalVisitor<Void, Void> {
+
+        private boolean isCacheable = true;
+
+        @Override
+        public Void visitDelete(Delete node, Void context) {
+            process(node.getRelation(), context);
+            if (node.getWhere().isPresent()) {
+                process(node.getWhere().get(), context);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitAssignment(Assignment node, Void context) {
+            process(node.columnName(), context);
+            for (Expression expression : node.expressions()) {
+                process(expression, context);
+            }
+            return null;
+        }
+
+        @Override
+        protected Void visitFunctionCall(FunctionCall node, Void context) {
+            isCacheable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitCurrentTime(CurrentTime node, Void context) {
+            isCacheable = false;
+            return null;
+        }
+
+        @Override
+        protected Void visitSubqueryExpression(SubqueryExpression node, Void context) {
+            isCacheable = false;
+            return null;
+        }
+    }
+
+    public static class CachedPlan {
+
+        private final AnalyzedStatement analyzedStatement;
+        private final Plan plan;
+        private final TableIdent table;
+
+        CachedPlan(AnalyzedStatement analyzedStatement, Plan plan, TableIdent table) {
+            this.analyzedStatement = analyzedStatement;
+            this.plan = plan;
+            this.table = table;
+        }
+
+        public AnalyzedStatement analyzedStatement() {
+            return analyzedStatement;
+        }
+
+        public Plan plan() {
+            return plan;
+        }
+    }
+
+    public static class Stats {
+
+        private final String cache;
+        private final long entries;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+
+        Stats(String cache, long entries, CacheStats stats, long invalidations) {
+            this.cache = cache;
+            this.entries = entries;
+            this.hits = stats.hitCount();
+            this.misses = stats.missCount();
+            this.evictions = stats.evictionCount();
+            this.invalidations = invalidations;
+        }
+
+        public String cache() {
+            return cache;
+        }
+
+        public long entries() {
+            return entries;
+        }
+
+        public long hits() {
+            return hits;
+        }
+
+        public long misses() {
+            return misses;
+        }
+
+        public long evictions() {
+            return evictions;
+        }
+
+        public long invalidations() {
+            return invalidations;
+        }
+    }
+
+    private static class Key {
+
+        private final Statement statement;
+        private final String defaultSchema;
+        private final List<DataType> paramTypes;
+
+        Key(Statement statement, String defaultSchema, List<Object> params) {
+            this.statement = statement;
+            this.defaultSchema = defaultSchema;
+            this.paramTypes = Lists2.copyAndReplace(params, DataTypes::guessType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return statement.equals(key.statement)
+                   && defaultSchema.equals(key.defaultSchema)
+                   && paramTypes.equals(key.paramTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(statement, defaultSchema, paramTypes);
+        }
+    }
+}
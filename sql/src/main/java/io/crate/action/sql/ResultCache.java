@@ -0,0 +1,577 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.MultiSourceSelect;
+import io.crate.analyze.QueriedRelation;
+import io.crate.analyze.QueriedSelectRelation;
+import io.crate.analyze.QuerySpec;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.relations.AnalyzedRelationVisitor;
+import io.crate.analyze.relations.JoinPair;
+import io.crate.analyze.relations.OrderedLimitedRelation;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.UnionSelect;
+import io.crate.analyze.symbol.DefaultTraversalSymbolVisitor;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.auth.user.User;
+import io.crate.breaker.SizeEstimator;
+import io.crate.breaker.SizeEstimatorFactory;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectionBucket;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.SentinelRow;
+import io.crate.execution.engine.collect.TransportShardGenerationsAction;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.sql.tree.CurrentTime;
+import io.crate.sql.tree.DefaultTraversalVisitor;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-wide, memory bounded cache for the results of read-only statements.
+ *
+ * <p>
+ * Only {@code SELECT} statements on user tables which consist of deterministic functions are cached.
+ * Results are cached by the statement, its parameters and the session properties which affect analysis.
+ * </p>
+ *
+ * <p>
+ * Each cached result is stored together with the generations of the primary shards of all tables it was computed
+ * from (see {@link TransportShardGenerationsAction}) and the metadata versions of their indices.
+ * A cached result is only served if all of them are unchanged. Any refresh which makes writes visible,
+ * a schema change or a relocated primary shard therefore invalidates it.
+ * The generations are retrieved before the statement is executed, so a change during execution also
+ * causes the result to be discarded on the next lookup.
+ * </p>
+ *
+ * <p>
+ * Statements with a {@link Key} must therefore read from the primary shards
+ * (see {@link io.crate.metadata.RoutingProvider#primariesOnly(int, String[])}). A replica which hasn't been
+ * refreshed yet would otherwise return older data which is then cached under the newer primary generation.
+ * </p>
+ *
+ * The cache is disabled if {@link #RESULT_CACHE_SIZE_SETTING} is 0.
+ */
+@Singleton
+public class ResultCache {
+
+    public static final Setting<ByteSizeValue> RESULT_CACHE_SIZE_SETTING = Setting.memorySizeSetting(
+        "node.sql.result_cache.size", "0b", Setting.Property.NodeScope);
+
+    public static final String RESULTS = "results";
+
+    /**
+     * A single result may use at most this fraction of the cache size.
+     */
+    private static final int MAX_ENTRY_FRACTION = 10;
+
+    private static final long ENTRY_OVERHEAD = RamUsageEstimator.NUM_BYTES_OBJECT_HEADER * 4;
+
+    private final ClusterService clusterService;
+    private final TransportShardGenerationsAction shardGenerationsAction;
+    private final long maxEntrySize;
+
+    @Nullable
+    private final Cache<Key, Entry> results;
+    private final AtomicLong invalidations = new AtomicLong(0);
+
+    @Inject
+    public ResultCache(Settings settings,
+                       ClusterService clusterService,
+                       TransportShardGenerationsAction shardGenerationsAction) {
+        this(RESULT_CACHE_SIZE_SETTING.get(settings).getBytes(), clusterService, shardGenerationsAction);
+    }
+
+    @VisibleForTesting
+    ResultCache(long maxSize, ClusterService clusterService, TransportShardGenerationsAction shardGenerationsAction) {
+        this.clusterService = clusterService;
+        this.shardGenerationsAction = shardGenerationsAction;
+        this.maxEntrySize = Math.min(maxSize / MAX_ENTRY_FRACTION, Integer.MAX_VALUE);
+        if (maxSize > 0) {
+            results = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher((Key key, Entry entry) -> entry.sizeInBytes)
+                .recordStats()
+                .build();
+        } else {
+            results = null;
+        }
+    }
+
+    /**
+     * Creates the key to lookup the result of the statement.
+     *
+     * @return the key or null if the cache is disabled or the result of the statement must not be cached.
+     */
+    @Nullable
+    public Key key(Statement statement,
+                   AnalyzedStatement analyzedStatement,
+                   List<Object> params,
+                   SessionContext sessionContext,
+                   List<? extends DataType> outputTypes) {
+        if (results == null || !(analyzedStatement instanceof QueriedRelation) || !isCacheable(statement)) {
+            return null;
+        }
+        CacheableRelationVisitor visitor = new CacheableRelationVisitor();
+        visitor.process((QueriedRelation) analyzedStatement, null);
+        if (!visitor.isCacheable) {
+            return null;
+        }
+        User user = sessionContext.user();
+        return new Key(
+            statement,
+            params.toArray(),
+            sessionContext.defaultSchema(),
+            user == null ? null : user.name(),
+            sessionContext.defaultLimit(),
+            outputTypes,
+            visitor.tables
+        );
+    }
+
+    /**
+     * Looks up the result for the key.
+     * The future fails if the generations of the shards couldn't be retrieved.
+     */
+    public CompletableFuture<Lookup> lookup(Key key) {
+        assert results != null : "Keys are only created if the cache is enabled";
+        return generations(key.tables).thenApply(generations -> {
+            if (generations == null) {
+                return new Lookup(key, null, null);
+            }
+            Entry entry = results.getIfPresent(key);
+            if (entry != null) {
+                if (entry.generations.equals(generations)) {
+                    return new Lookup(key, generations, entry.rows);
+                }
+                if (results.asMap().remove(key, entry)) {
+                    invalidations.incrementAndGet();
+                }
+            }
+            return new Lookup(key, generations, null);
+        });
+    }
+
+    /**
+     * @return the generations of the tables or null if any primary shard is not available.
+     */
+    private CompletableFuture<Generations> generations(Collection<DocTableInfo> tables) {
+        ClusterState state = clusterService.state();
+        Map<String, Long> indexVersions = new HashMap<>();
+        Map<String, List<ShardId>> shardIdsByNodeId = new HashMap<>();
+        for (DocTableInfo table : tables) {
+            for (String indexName : table.concreteIndices()) {
+                IndexMetaData indexMetaData = state.metaData().index(indexName);
+                IndexRoutingTable indexRoutingTable = state.routingTable().index(indexName);
+                if (indexMetaData == null || indexRoutingTable == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                indexVersions.put(indexName, indexMetaData.getVersion());
+                for (IndexShardRoutingTable shardRoutingTable : indexRoutingTable) {
+                    ShardRouting primary = shardRoutingTable.primaryShard();
+                    if (!primary.assignedToNode()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    shardIdsByNodeId.computeIfAbsent(primary.currentNodeId(), k -> new ArrayList<>())
+                        .add(primary.shardId());
+                }
+            }
+        }
+        return shardGenerationsAction.generations(shardIdsByNodeId).thenApply(shardGenerations -> {
+            if (shardGenerations.containsValue(TransportShardGenerationsAction.UNKNOWN_GENERATION)) {
+                return null;
+            }
+            return new Generations(indexVersions, shardGenerations);
+        });
+    }
+
+    public PlanCache.Stats stats() {
+        if (results == null) {
+            return new PlanCache.Stats(RESULTS, 0L, new CacheStats(0, 0, 0, 0, 0, 0), 0L);
+        }
+        // lookups of invalidated results are counted as hits by the cache itself
+        CacheStats stats = results.stats();
+        long invalidations = this.invalidations.get();
+        return new PlanCache.Stats(
+            RESULTS,
+            results.size(),
+            new CacheStats(
+                stats.hitCount() - invalidations,
+                stats.missCount() + invalidations,
+                0,
+                0,
+                0,
+                stats.evictionCount()),
+            invalidations
+        );
+    }
+
+    @VisibleForTesting
+    static boolean isCacheable(Statement statement) {
+        DeterministicStatementVisitor visitor = new DeterministicStatementVisitor();
+        visitor.process(statement, null);
+        return visitor.isDeterministic;
+    }
+
+    /**
+     * {@code CURRENT_TIMESTAMP} is evaluated during analysis, so it must be detected in the parsed statement.
+     */
+    private static class DeterministicStatementVisitor extends DefaultTraversalVisitor<Void, Void> {
+
+        private boolean isDeterministic = true;
+
+        @Override
+        protected Void visitCurrentTime(CurrentTime node, Void context) {
+            isDeterministic = false;
+            return null;
+        }
+    }
+
+    /**
+     * Collects the tables of the relation including those of sub-queries.
+     * A relation is only cacheable if it solely queries user tables and all functions are deterministic.
+     */
+    private static class CacheableRelationVisitor extends AnalyzedRelationVisitor<Void, Void> {
+
+        private final Set<DocTableInfo> tables = new HashSet<>();
+        private final DeterministicSymbolVisitor symbolVisitor = new DeterministicSymbolVisitor();
+        private boolean isCacheable = true;
+
+        @Override
+        protected Void visitAnalyzedRelation(AnalyzedRelation relation, Void context) {
+            isCacheable = false;
+            return null;
+        }
+
+        @Override
+        public Void visitQueriedDocTable(QueriedDocTable table, Void context) {
+            tables.add(table.tableRelation().tableInfo());
+            visitQuerySpec(table.querySpec());
+            return null;
+        }
+
+        @Override
+        public Void visitMultiSourceSelect(MultiSourceSelect multiSourceSelect, Void context) {
+            for (AnalyzedRelation relation : multiSourceSelect.sources().values()) {
+                process(relation, context);
+            }
+            for (JoinPair joinPair : multiSourceSelect.joinPairs()) {
+                if (joinPair.condition() != null) {
+                    symbolVisitor.process(joinPair.condition(), this);
+                }
+            }
+            visitQuerySpec(multiSourceSelect.querySpec());
+            return null;
+        }
+
+        @Override
+        public Void visitUnionSelect(UnionSelect unionSelect, Void context) {
+            process(unionSelect.left(), context);
+            process(unionSelect.right(), context);
+            visitQuerySpec(unionSelect.querySpec());
+            return null;
+        }
+
+        @Override
+        public Void visitQueriedSelectRelation(QueriedSelectRelation relation, Void context) {
+            process(relation.subRelation(), context);
+            visitQuerySpec(relation.querySpec());
+            return null;
+        }
+
+        @Override
+        public Void visitOrderedLimitedRelation(OrderedLimitedRelation relation, Void context) {
+            process(relation.childRelation(), context);
+            visitQuerySpec(relation.querySpec());
+            return null;
+        }
+
+        private void visitQuerySpec(QuerySpec querySpec) {
+            querySpec.visitSymbols(symbol -> symbolVisitor.process(symbol, this));
+        }
+    }
+
+    private static class DeterministicSymbolVisitor extends DefaultTraversalSymbolVisitor<CacheableRelationVisitor, Void> {
+
+        @Override
+        public Void visitFunction(Function symbol, CacheableRelationVisitor relationVisitor) {
+            if (!symbol.info().isDeterministic()) {
+                relationVisitor.isCacheable = false;
+            }
+            return super.visitFunction(symbol, relationVisitor);
+        }
+
+        @Override
+        public Void visitSelectSymbol(SelectSymbol selectSymbol, CacheableRelationVisitor relationVisitor) {
+            relationVisitor.process(selectSymbol.relation(), null);
+            return null;
+        }
+
+        @Override
+        protected Void visitSymbol(Symbol symbol, CacheableRelationVisitor relationVisitor) {
+            return null;
+        }
+    }
+
+    /**
+     * The result of a lookup. Either contains the cached result or can be used to cache the result once the
+     * statement has been executed.
+     */
+    public class Lookup {
+
+        private final Key key;
+        @Nullable
+        private final Generations generations;
+        @Nullable
+        private final List<Object[]> rows;
+
+        private Lookup(Key key, @Nullable Generations generations, @Nullable List<Object[]> rows) {
+            this.key = key;
+            this.generations = generations;
+            this.rows = rows;
+        }
+
+        public boolean isHit() {
+            return rows != null;
+        }
+
+        public BatchIterator<Row> cachedResult() {
+            assert rows != null : "cachedResult must only be called on a hit";
+            return InMemoryBatchIterator.of(new CollectionBucket(rows), SentinelRow.SENTINEL);
+        }
+
+        /**
+         * @return a receiver which forwards the result to the given receiver and adds it to the cache
+         *         if the statement completes successfully.
+         */
+        public ResultReceiver cacheResult(ResultReceiver delegate) {
+            if (generations == null) {
+                // some shards are not available; the result can't be validated later on
+                return delegate;
+            }
+            return new CachingResultReceiver(delegate, key, generations);
+        }
+    }
+
+    private class CachingResultReceiver implements ResultReceiver {
+
+        private final ResultReceiver delegate;
+        private final Key key;
+        private final Generations generations;
+        private final List<SizeEstimator<Object>> estimators;
+
+        @Nullable
+        private List<Object[]> rows = new ArrayList<>();
+        private long sizeInBytes = ENTRY_OVERHEAD;
+
+        CachingResultReceiver(ResultReceiver delegate, Key key, Generations generations) {
+            this.delegate = delegate;
+            this.key = key;
+            this.generations = generations;
+            this.estimators = new ArrayList<>(key.outputTypes.size());
+            for (DataType type : key.outputTypes) {
+                estimators.add(SizeEstimatorFactory.create(type));
+            }
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            if (rows != null) {
+                sizeInBytes += RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                               + row.numColumns() * RamUsageEstimator.NUM_BYTES_OBJECT_REF;
+                for (int i = 0; i < row.numColumns(); i++) {
+                    sizeInBytes += estimators.get(i).estimateSize(row.get(i));
+                }
+                if (sizeInBytes > maxEntrySize) {
+                    rows = null;
+                } else {
+                    rows.add(row.materialize());
+                }
+            }
+            delegate.setNextRow(row);
+        }
+
+        @Nullable
+        @Override
+        public CompletableFuture<?> readyForNextRow() {
+            return delegate.readyForNextRow();
+        }
+
+        @Override
+        public void batchFinished() {
+            delegate.batchFinished();
+        }
+
+        @Override
+        public void allFinished(boolean interrupted) {
+            if (!interrupted && rows != null) {
+                assert results != null : "Results are only cached if the cache is enabled";
+                results.put(key, new Entry(generations, rows, (int) sizeInBytes));
+            }
+            delegate.allFinished(interrupted);
+        }
+
+        @Override
+        public void fail(@Nonnull Throwable t) {
+            rows = null;
+            delegate.fail(t);
+        }
+
+        @Override
+        public CompletableFuture<?> completionFuture() {
+            return delegate.completionFuture();
+        }
+    }
+
+    private static class Entry {
+
+        private final Generations generations;
+        private final List<Object[]> rows;
+        private final int sizeInBytes;
+
+        Entry(Generations generations, List<Object[]> rows, int sizeInBytes) {
+            this.generations = generations;
+            this.rows = rows;
+            this.sizeInBytes = sizeInBytes;
+        }
+    }
+
+    private static class Generations {
+
+        private final Map<String, Long> indexVersions;
+        private final Map<ShardId, Long> shardGenerations;
+
+        Generations(Map<String, Long> indexVersions, Map<ShardId, Long> shardGenerations) {
+            this.indexVersions = indexVersions;
+            this.shardGenerations = shardGenerations;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Generations that = (Generations) o;
+            return indexVersions.equals(that.indexVersions) && shardGenerations.equals(that.shardGenerations);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(indexVersions, shardGenerations);
+        }
+    }
+
+    public static class Key {
+
+        private final Statement statement;
+        private final Object[] params;
+        private final String defaultSchema;
+        @Nullable
+        private final String user;
+        private final int defaultLimit;
+        private final List<? extends DataType> outputTypes;
+
+        /**
+         * The tables the result is computed from; derived from the other properties.
+         */
+        private final Collection<DocTableInfo> tables;
+
+        Key(Statement statement,
+            Object[] params,
+            String defaultSchema,
+            @Nullable String user,
+            int defaultLimit,
+            List<? extends DataType> outputTypes,
+            Collection<DocTableInfo> tables) {
+            this.statement = statement;
+            this.params = params;
+            this.defaultSchema = defaultSchema;
+            this.user = user;
+            this.defaultLimit = defaultLimit;
+            this.outputTypes = outputTypes;
+            this.tables = tables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return defaultLimit == key.defaultLimit &&
+                   statement.equals(key.statement) &&
+                   Arrays.deepEquals(params, key.params) &&
+                   defaultSchema.equals(key.defaultSchema) &&
+                   Objects.equals(user, key.user) &&
+                   outputTypes.equals(key.outputTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(statement, defaultSchema, user, defaultLimit, outputTypes);
+            return 31 * result + Arrays.deepHashCode(params);
+        }
+    }
+}
@@ -26,6 +26,8 @@ import io.crate.concurrent.CompletionListenable;
 import io.crate.data.Row;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Used via {@link RowConsumerToResultReceiver} to receive results from the execution of a plan
@@ -34,6 +36,17 @@ public interface ResultReceiver extends CompletionListenable {
 
     void setNextRow(Row row);
 
+    /**
+     * Can be used by receivers which write the rows to a network channel to apply backpressure.
+     *
+     * @return null if the receiver can take more rows right away, otherwise a future which completes
+     *         once the receiver is ready to take more rows.
+     */
+    @Nullable
+    default CompletableFuture<?> readyForNextRow() {
+        return null;
+    }
+
     void batchFinished();
 
     /**
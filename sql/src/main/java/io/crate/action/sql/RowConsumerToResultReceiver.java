@@ -28,6 +28,7 @@ import io.crate.data.Row;
 import io.crate.exceptions.SQLExceptions;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
 
 public class RowConsumerToResultReceiver implements RowConsumer {
 
@@ -65,6 +66,18 @@ public class RowConsumerToResultReceiver implements RowConsumer {
                     resultReceiver.batchFinished();
                     return; // resumed via postgres protocol, close is done later
                 }
+                CompletableFuture<?> ready = resultReceiver.readyForNextRow();
+                if (ready != null) {
+                    ready.whenComplete((r, f) -> {
+                        if (f == null) {
+                            consumeIt(iterator);
+                        } else {
+                            iterator.close();
+                            resultReceiver.fail(SQLExceptions.unwrap(f));
+                        }
+                    });
+                    return;
+                }
             }
             allLoaded = iterator.allLoaded();
         } catch (Throwable t) {
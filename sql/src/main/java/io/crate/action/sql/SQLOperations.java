@@ -24,6 +24,7 @@ package io.crate.action.sql;
 
 import io.crate.analyze.Analyzer;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.AdmissionController;
 import io.crate.auth.user.User;
 import io.crate.auth.user.UserManager;
 import io.crate.planner.DependencyCarrier;
@@ -52,6 +53,9 @@ public class SQLOperations {
 
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
+    private final ResultCache resultCache;
+    private final AdmissionController admissionController;
     private final Provider<DependencyCarrier> executorProvider;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
@@ -62,6 +66,9 @@ public class SQLOperations {
     @Inject
     public SQLOperations(Analyzer analyzer,
                          Planner planner,
+                         PlanCache planCache,
+                         ResultCache resultCache,
+                         AdmissionController admissionController,
                          Provider<DependencyCarrier> executorProvider,
                          JobsLogs jobsLogs,
                          Settings settings,
@@ -69,6 +76,9 @@ public class SQLOperations {
                          Provider<UserManager> userManagerProvider) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
+        this.resultCache = resultCache;
+        this.admissionController = admissionController;
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
@@ -83,6 +93,9 @@ public class SQLOperations {
         return new Session(
             analyzer,
             planner,
+            planCache,
+            resultCache,
+            admissionController,
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
@@ -32,6 +32,8 @@ import io.crate.analyze.symbol.ParameterSymbol;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.StatementType;
+import io.crate.execution.jobs.AdmissionController;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Planner;
 import io.crate.protocols.postgres.FormatCodes;
@@ -104,18 +106,27 @@ public class Session {
 
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
+    private final ResultCache resultCache;
+    private final AdmissionController admissionController;
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final ParameterTypeExtractor parameterTypeExtractor;
 
     public Session(Analyzer analyzer,
                    Planner planner,
+                   PlanCache planCache,
+                   ResultCache resultCache,
+                   AdmissionController admissionController,
                    JobsLogs jobsLogs,
                    boolean isReadOnly,
                    DependencyCarrier executor,
                    SessionContext sessionContext) {
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
+        this.resultCache = resultCache;
+        this.admissionController = admissionController;
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
@@ -126,7 +137,8 @@ public class Session {
     private Portal getOrCreatePortal(String portalName) {
         Portal portal = portals.get(portalName);
         if (portal == null) {
-            portal = new SimplePortal(portalName, analyzer, executor, isReadOnly, sessionContext);
+            portal = new SimplePortal(
+                portalName, analyzer, planCache, resultCache, admissionController, executor, isReadOnly, sessionContext);
             portals.put(portalName, portal);
         }
         return portal;
@@ -149,12 +161,13 @@ public class Session {
 
         Statement statement;
         try {
-            statement = SqlParser.createStatement(query);
+            statement = planCache.parse(query);
         } catch (Throwable t) {
             if ("".equals(query)) {
                 statement = EMPTY_STMT;
             } else {
-                jobsLogs.logPreExecutionFailure(UUID.randomUUID(), query, SQLExceptions.messageOf(t), sessionContext.user());
+                jobsLogs.logPreExecutionFailure(
+                    UUID.randomUUID(), query, SQLExceptions.messageOf(t), sessionContext.user(), StatementType.UNDEFINED);
                 throw SQLExceptions.createSQLActionException(t, sessionContext);
             }
         }
@@ -180,7 +193,8 @@ public class Session {
                 portal.close();
             }
         } catch (Throwable t) {
-            jobsLogs.logPreExecutionFailure(UUID.randomUUID(), portal.getLastQuery(), SQLExceptions.messageOf(t), sessionContext.user());
+            jobsLogs.logPreExecutionFailure(
+                UUID.randomUUID(), portal.getLastQuery(), SQLExceptions.messageOf(t), sessionContext.user(), StatementType.UNDEFINED);
             throw SQLExceptions.createSQLActionException(t, sessionContext);
         }
     }
@@ -294,6 +308,10 @@ public class Session {
         return getSafePortal(portalName).getLastQuery();
     }
 
+    public Statement getStatement(String statementName) {
+        return getSafeStmt(statementName).statement();
+    }
+
     public DataType getParamType(String statementName, int idx) {
         PreparedStmt stmt = getSafeStmt(statementName);
         return stmt.getEffectiveParameterType(idx);
@@ -346,6 +364,7 @@ public class Session {
         for (Portal portal : portals.values()) {
             portal.close();
         }
+        sessionContext.cursors().closeAll();
     }
 
     static class ParameterTypeExtractor extends DefaultTraversalSymbolVisitor<Void, Void> implements Consumer<Symbol> {
@@ -24,10 +24,12 @@ package io.crate.action.sql;
 
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.exceptions.MissingPrivilegeException;
+import io.crate.execution.engine.collect.files.CopyInSource;
 import io.crate.metadata.Schemas;
 import io.crate.auth.user.ExceptionAuthorizedValidator;
 import io.crate.auth.user.StatementAuthorizedValidator;
 import io.crate.auth.user.User;
+import org.elasticsearch.common.unit.TimeValue;
 
 import javax.annotation.Nullable;
 import java.util.Objects;
@@ -35,15 +37,25 @@ import java.util.Set;
 
 public class SessionContext implements StatementAuthorizedValidator, ExceptionAuthorizedValidator {
 
+    public static final TimeValue NO_STATEMENT_TIMEOUT = TimeValue.timeValueMillis(0);
+
     private final int defaultLimit;
     private final Set<Option> options;
     @Nullable
     private final User user;
     private final StatementAuthorizedValidator statementAuthorizedValidator;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final Cursors cursors = new Cursors();
 
     private String defaultSchema;
     private boolean semiJoinsRewriteEnabled;
+    private boolean hashJoinEnabled;
+    private boolean spillToDiskEnabled;
+    @Nullable
+    private String resourceGroup;
+    private TimeValue statementTimeout = NO_STATEMENT_TIMEOUT;
+    @Nullable
+    private CopyInSource copyInSource;
 
     public SessionContext(@Nullable String defaultSchema,
                           @Nullable User user,
@@ -97,6 +109,70 @@ public class SessionContext implements StatementAuthorizedValidator, ExceptionAu
         return semiJoinsRewriteEnabled;
     }
 
+    public void setHashJoinEnabled(boolean flag) {
+        this.hashJoinEnabled = flag;
+    }
+
+    public boolean isHashJoinEnabled() {
+        return hashJoinEnabled;
+    }
+
+    public void setSpillToDiskEnabled(boolean flag) {
+        this.spillToDiskEnabled = flag;
+    }
+
+    public boolean isSpillToDiskEnabled() {
+        return spillToDiskEnabled;
+    }
+
+    public void setResourceGroup(@Nullable String resourceGroup) {
+        this.resourceGroup = resourceGroup;
+    }
+
+    /**
+     * @return the resource group selected within the session or null if the default group should be used
+     */
+    @Nullable
+    public String resourceGroup() {
+        return resourceGroup;
+    }
+
+    public void setStatementTimeout(TimeValue statementTimeout) {
+        this.statementTimeout = Objects.requireNonNull(statementTimeout, "statementTimeout must not be null");
+    }
+
+    /**
+     * @return the time after which the jobs of a statement are killed; {@link #NO_STATEMENT_TIMEOUT} if disabled
+     */
+    public TimeValue statementTimeout() {
+        return statementTimeout;
+    }
+
+    /**
+     * Sets the source of the data the client is going to send for the {@code COPY ... FROM STDIN}
+     * statement which is about to be executed.
+     */
+    public void copyInSource(@Nullable CopyInSource copyInSource) {
+        this.copyInSource = copyInSource;
+    }
+
+    /**
+     * @return the source set with {@link #copyInSource(CopyInSource)} or null; the source is reset.
+     */
+    @Nullable
+    public CopyInSource takeCopyInSource() {
+        CopyInSource source = copyInSource;
+        copyInSource = null;
+        return source;
+    }
+
+    /**
+     * @return the cursors declared within the session
+     */
+    public Cursors cursors() {
+        return cursors;
+    }
+
     @Nullable
     public User user() {
         return user;
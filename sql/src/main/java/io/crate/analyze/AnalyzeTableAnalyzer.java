@@ -0,0 +1,70 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.metadata.Schemas;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocSchemaInfo;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.Operation;
+import io.crate.metadata.table.SchemaInfo;
+import io.crate.metadata.table.TableInfo;
+import io.crate.sql.tree.AnalyzeStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class AnalyzeTableAnalyzer {
+
+    private final Schemas schemas;
+
+    AnalyzeTableAnalyzer(Schemas schemas) {
+        this.schemas = schemas;
+    }
+
+    public AnalyzeTableAnalyzedStatement analyze(AnalyzeStatement analyzeStatement, Analysis analysis) {
+        if (analyzeStatement.table().isPresent()) {
+            TableIdent tableIdent = TableIdent.of(
+                analyzeStatement.table().get(), analysis.sessionContext().defaultSchema());
+            TableInfo tableInfo = schemas.getTableInfo(tableIdent, Operation.READ);
+            if (!(tableInfo instanceof DocTableInfo)) {
+                throw new UnsupportedFeatureException("ANALYZE is only supported on user tables, not on " + tableIdent);
+            }
+            return new AnalyzeTableAnalyzedStatement(Collections.singletonList((DocTableInfo) tableInfo));
+        }
+        List<DocTableInfo> tables = new ArrayList<>();
+        for (SchemaInfo schemaInfo : schemas) {
+            if (schemaInfo instanceof DocSchemaInfo) {
+                for (TableInfo tableInfo : schemaInfo) {
+                    DocTableInfo docTableInfo = (DocTableInfo) tableInfo;
+                    if (!docTableInfo.isClosed()) {
+                        tables.add(docTableInfo);
+                    }
+                }
+            }
+        }
+        return new AnalyzeTableAnalyzedStatement(tables);
+    }
+}
@@ -107,6 +107,10 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitDDLStatement(analysis, context);
     }
 
+    public R visitAnalyzeTableStatement(AnalyzeTableAnalyzedStatement analysis, C context) {
+        return visitDDLStatement(analysis, context);
+    }
+
     public R visitAlterTableStatement(AlterTableAnalyzedStatement analysis, C context) {
         return visitDDLStatement(analysis, context);
     }
@@ -175,6 +179,18 @@ public class AnalyzedStatementVisitor<C, R> {
         return visitAnalyzedStatement(analyzedBegin, context);
     }
 
+    public R visitDeclareCursor(AnalyzedDeclareCursor declareCursor, C context) {
+        return visitAnalyzedStatement(declareCursor, context);
+    }
+
+    public R visitFetchFromCursor(AnalyzedFetchFromCursor fetchFromCursor, C context) {
+        return visitAnalyzedStatement(fetchFromCursor, context);
+    }
+
+    public R visitCloseCursor(AnalyzedCloseCursor closeCursor, C context) {
+        return visitAnalyzedStatement(closeCursor, context);
+    }
+
     public R visitPrivilegesStatement(PrivilegesAnalyzedStatement analysis, C context) {
         return visitDCLStatement(analysis, context);
     }
@@ -38,10 +38,13 @@ import io.crate.sql.tree.AlterTableOpenClose;
 import io.crate.sql.tree.AlterTableRename;
 import io.crate.sql.tree.AlterTableReroute;
 import io.crate.sql.tree.AlterUser;
+import io.crate.sql.tree.AnalyzeStatement;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.BeginStatement;
+import io.crate.sql.tree.CloseCursor;
 import io.crate.sql.tree.CopyFrom;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateFunction;
@@ -50,6 +53,7 @@ import io.crate.sql.tree.CreateRepository;
 import io.crate.sql.tree.CreateSnapshot;
 import io.crate.sql.tree.CreateTable;
 import io.crate.sql.tree.CreateUser;
+import io.crate.sql.tree.DeclareCursor;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.DenyPrivilege;
 import io.crate.sql.tree.DropBlobTable;
@@ -60,6 +64,7 @@ import io.crate.sql.tree.DropSnapshot;
 import io.crate.sql.tree.DropTable;
 import io.crate.sql.tree.DropUser;
 import io.crate.sql.tree.Explain;
+import io.crate.sql.tree.FetchFromCursor;
 import io.crate.sql.tree.GrantPrivilege;
 import io.crate.sql.tree.InsertFromSubquery;
 import io.crate.sql.tree.InsertFromValues;
@@ -101,6 +106,7 @@ public class Analyzer {
     private final CreateAnalyzerStatementAnalyzer createAnalyzerStatementAnalyzer;
     private final DropBlobTableAnalyzer dropBlobTableAnalyzer;
     private final RefreshTableAnalyzer refreshTableAnalyzer;
+    private final AnalyzeTableAnalyzer analyzeTableAnalyzer;
     private final OptimizeTableAnalyzer optimizeTableAnalyzer;
     private final AlterTableAnalyzer alterTableAnalyzer;
     private final AlterBlobTableAnalyzer alterBlobTableAnalyzer;
@@ -124,6 +130,7 @@ public class Analyzer {
     private final AlterTableRerouteAnalyzer alterTableRerouteAnalyzer;
     private final CreateUserAnalyzer createUserAnalyzer;
     private final AlterUserAnalyzer alterUserAnalyzer;
+    private final CursorAnalyzer cursorAnalyzer;
 
     @Inject
     public Analyzer(Schemas schemas,
@@ -163,6 +170,7 @@ public class Analyzer {
         this.createBlobTableAnalyzer = new CreateBlobTableAnalyzer(schemas, numberOfShards);
         this.createAnalyzerStatementAnalyzer = new CreateAnalyzerStatementAnalyzer(fulltextAnalyzerResolver);
         this.refreshTableAnalyzer = new RefreshTableAnalyzer(schemas);
+        this.analyzeTableAnalyzer = new AnalyzeTableAnalyzer(schemas);
         this.optimizeTableAnalyzer = new OptimizeTableAnalyzer(schemas);
         this.alterTableAnalyzer = new AlterTableAnalyzer(schemas);
         this.alterBlobTableAnalyzer = new AlterBlobTableAnalyzer(schemas);
@@ -181,6 +189,7 @@ public class Analyzer {
         this.createIngestionRuleAnalyzer = new CreateIngestionRuleAnalyzer(schemas);
         this.createUserAnalyzer = new CreateUserAnalyzer(functions);
         this.alterUserAnalyzer = new AlterUserAnalyzer(functions);
+        this.cursorAnalyzer = new CursorAnalyzer(relationAnalyzer);
     }
 
     public Analysis boundAnalyze(Statement statement, TransactionContext transactionContext, ParameterContext parameterContext) {
@@ -240,6 +249,13 @@ public class Analyzer {
             return copyAnalyzer.convertCopyTo(node, context);
         }
 
+        @Override
+        public AnalyzedStatement visitCopyToStdout(CopyToStdout node, Analysis context) {
+            // the rows are streamed to the client like a regular result set;
+            // the transport (PostgreSQL COPY protocol) is chosen by the session
+            return process(node.query(), context);
+        }
+
         @Override
         public AnalyzedStatement visitDropTable(DropTable node, Analysis context) {
             return dropTableAnalyzer.analyze(node, context.sessionContext());
@@ -300,6 +316,11 @@ public class Analyzer {
             return refreshTableAnalyzer.analyze(node, context);
         }
 
+        @Override
+        public AnalyzedStatement visitAnalyzeStatement(AnalyzeStatement node, Analysis context) {
+            return analyzeTableAnalyzer.analyze(node, context);
+        }
+
         @Override
         public AnalyzedStatement visitOptimizeStatement(OptimizeStatement node, Analysis context) {
             return optimizeTableAnalyzer.analyze(node, context);
@@ -435,6 +456,21 @@ public class Analyzer {
             return new AnalyzedBegin();
         }
 
+        @Override
+        public AnalyzedStatement visitDeclareCursor(DeclareCursor node, Analysis context) {
+            return cursorAnalyzer.analyze(node, context);
+        }
+
+        @Override
+        public AnalyzedStatement visitFetchFromCursor(FetchFromCursor node, Analysis context) {
+            return CursorAnalyzer.analyze(node, context);
+        }
+
+        @Override
+        public AnalyzedStatement visitCloseCursor(CloseCursor node, Analysis context) {
+            return CursorAnalyzer.analyze(node, context);
+        }
+
         @Override
         protected AnalyzedStatement visitNode(Node node, Analysis context) {
             throw new UnsupportedOperationException(String.format(Locale.ENGLISH, "cannot analyze statement: '%s'", node));
@@ -31,6 +31,7 @@ import io.crate.analyze.expressions.ExpressionToObjectVisitor;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.NameFieldProvider;
 import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
 import io.crate.analyze.symbol.format.SymbolPrinter;
@@ -126,6 +127,12 @@ class CopyAnalyzer {
             nodeFilters = discoveryNodePredicate(analysis.parameterContext().parameters(), properties.remove(NodeFilters.NAME));
             settings = settingsFromProperties(properties, expressionAnalyzer, expressionAnalysisContext);
         }
+        if (node.isStdin()) {
+            List<Reference> targetColumns = new ArrayList<>(
+                InsertFromSubQueryAnalyzer.resolveTargetColumns(node.columns(), tableInfo, tableInfo.columns().size()));
+            return new CopyFromAnalyzedStatement(
+                tableInfo, settings, Literal.of(CopyFromAnalyzedStatement.STDIN_URI), partitionIdent, nodeFilters, targetColumns);
+        }
         Symbol uri = expressionAnalyzer.convert(node.path(), expressionAnalysisContext);
         uri = normalizer.normalize(uri, analysis.transactionContext());
 
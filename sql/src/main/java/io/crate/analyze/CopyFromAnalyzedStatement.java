@@ -23,30 +23,77 @@
 package io.crate.analyze;
 
 import io.crate.analyze.symbol.Symbol;
+import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.types.DataType;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.settings.Settings;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
 import java.util.function.Predicate;
 
 public class CopyFromAnalyzedStatement extends AbstractCopyAnalyzedStatement {
 
+    /**
+     * URI used for {@code COPY ... FROM STDIN}; the rows are streamed by the client
+     * over the PostgreSQL COPY sub-protocol instead of being read from a file.
+     */
+    public static final String STDIN_URI = "stdin:///";
+
     private final DocTableInfo table;
     @Nullable
     private final String partitionIdent;
     private final Predicate<DiscoveryNode> nodePredicate;
+    private final List<Reference> targetColumns;
+    private final boolean isStdin;
 
     public CopyFromAnalyzedStatement(DocTableInfo table,
                                      Settings settings,
                                      Symbol uri,
                                      @Nullable String partitionIdent,
                                      Predicate<DiscoveryNode> nodePredicate) {
+        this(table, settings, uri, partitionIdent, nodePredicate, Collections.emptyList(), false);
+    }
+
+    public CopyFromAnalyzedStatement(DocTableInfo table,
+                                     Settings settings,
+                                     Symbol uri,
+                                     @Nullable String partitionIdent,
+                                     Predicate<DiscoveryNode> nodePredicate,
+                                     List<Reference> targetColumns) {
+        this(table, settings, uri, partitionIdent, nodePredicate, targetColumns, true);
+    }
+
+    private CopyFromAnalyzedStatement(DocTableInfo table,
+                                      Settings settings,
+                                      Symbol uri,
+                                      @Nullable String partitionIdent,
+                                      Predicate<DiscoveryNode> nodePredicate,
+                                      List<Reference> targetColumns,
+                                      boolean isStdin) {
         super(settings, uri);
         this.table = table;
         this.partitionIdent = partitionIdent;
         this.nodePredicate = nodePredicate;
+        this.targetColumns = targetColumns;
+        this.isStdin = isStdin;
+    }
+
+    /**
+     * @return true if the rows are sent by the client using {@code COPY ... FROM STDIN}
+     */
+    public boolean isStdin() {
+        return isStdin;
+    }
+
+    /**
+     * Columns the values of a delimited (csv or text) {@code COPY FROM STDIN} input are mapped to, in order.
+     * Empty if the source is not stdin.
+     */
+    public List<Reference> targetColumns() {
+        return targetColumns;
     }
 
     public DocTableInfo table() {
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.action.sql.Cursor;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.expressions.ExpressionToNumberVisitor;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.analyze.relations.RelationAnalyzer;
+import io.crate.sql.tree.CloseCursor;
+import io.crate.sql.tree.DeclareCursor;
+import io.crate.sql.tree.FetchFromCursor;
+
+import java.util.Optional;
+
+class CursorAnalyzer {
+
+    private final RelationAnalyzer relationAnalyzer;
+
+    CursorAnalyzer(RelationAnalyzer relationAnalyzer) {
+        this.relationAnalyzer = relationAnalyzer;
+    }
+
+    AnalyzedDeclareCursor analyze(DeclareCursor node, Analysis analysis) {
+        // not the root relation: DECLARE itself doesn't return a result set
+        QueriedRelation query = (QueriedRelation) relationAnalyzer.analyze(node.query(), analysis);
+        return new AnalyzedDeclareCursor(node.name(), query);
+    }
+
+    static AnalyzedFetchFromCursor analyze(FetchFromCursor node, Analysis analysis) {
+        Cursor cursor = analysis.sessionContext().cursors().get(node.name());
+        int count = Integer.MAX_VALUE;
+        if (node.count().isPresent()) {
+            long value = ExpressionToNumberVisitor
+                .convert(node.count().get(), analysis.parameterContext().parameters())
+                .longValue();
+            if (value < 1) {
+                throw new IllegalArgumentException(
+                    "The number of rows to FETCH must be greater than 0, cursors can only be moved forward");
+            }
+            count = (int) Math.min(value, Integer.MAX_VALUE);
+        }
+        AnalyzedFetchFromCursor fetch = new AnalyzedFetchFromCursor(cursor, count);
+        analysis.rootRelation(fetch);
+        return fetch;
+    }
+
+    /**
+     * Analyzes a FETCH statement without parameters; the result can only be used to describe the output fields.
+     */
+    static AnalyzedFetchFromCursor analyzeUnbound(FetchFromCursor node, SessionContext sessionContext) {
+        return new AnalyzedFetchFromCursor(sessionContext.cursors().get(node.name()), 0);
+    }
+
+    static AnalyzedCloseCursor analyze(CloseCursor node, Analysis analysis) {
+        Optional<String> name = node.name();
+        if (name.isPresent()) {
+            // fail early if the cursor doesn't exist
+            analysis.sessionContext().cursors().get(name.get());
+            return new AnalyzedCloseCursor(name.get());
+        }
+        return new AnalyzedCloseCursor(null);
+    }
+}
@@ -40,9 +40,13 @@ public class ExplainStatementAnalyzer {
 
     public ExplainAnalyzedStatement analyze(Explain node, Analysis analysis) {
         CHECK_VISITOR.process(node.getStatement(), null);
+        if (node.isAnalyze() && !(node.getStatement() instanceof Query)) {
+            throw new UnsupportedFeatureException("EXPLAIN ANALYZE is only supported for SELECT statements");
+        }
         AnalyzedStatement subStatement = analyzer.analyzedStatement(node.getStatement(), analysis);
         String columnName = SqlFormatter.formatSql(node);
-        ExplainAnalyzedStatement explainAnalyzedStatement = new ExplainAnalyzedStatement(columnName, subStatement);
+        ExplainAnalyzedStatement explainAnalyzedStatement =
+            new ExplainAnalyzedStatement(columnName, subStatement, node.isAnalyze());
         analysis.rootRelation(explainAnalyzedStatement);
         return explainAnalyzedStatement;
     }
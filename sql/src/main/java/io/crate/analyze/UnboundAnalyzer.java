@@ -30,6 +30,7 @@ import io.crate.sql.SqlFormatter;
 import io.crate.sql.tree.AstVisitor;
 import io.crate.sql.tree.Delete;
 import io.crate.sql.tree.Explain;
+import io.crate.sql.tree.FetchFromCursor;
 import io.crate.sql.tree.InsertFromSubquery;
 import io.crate.sql.tree.InsertFromValues;
 import io.crate.sql.tree.Query;
@@ -173,5 +174,10 @@ class UnboundAnalyzer {
             // Once this analysis is used for more this has to be extended
             return new ExplainAnalyzedStatement(SqlFormatter.formatSql(node), null);
         }
+
+        @Override
+        public AnalyzedStatement visitFetchFromCursor(FetchFromCursor node, Analysis context) {
+            return CursorAnalyzer.analyzeUnbound(node, context.sessionContext());
+        }
     }
 }
@@ -21,6 +21,7 @@
 
 package io.crate.analyze.relations;
 
+import io.crate.analyze.AnalyzedFetchFromCursor;
 import io.crate.analyze.ExplainAnalyzedStatement;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.QueriedSelectRelation;
@@ -67,6 +68,10 @@ public abstract class AnalyzedRelationVisitor<C, R> {
         return visitAnalyzedRelation(explainAnalyzedStatement, context);
     }
 
+    public R visitFetchFromCursor(AnalyzedFetchFromCursor fetchFromCursor, C context) {
+        return visitAnalyzedRelation(fetchFromCursor, context);
+    }
+
     public R visitTableFunctionRelation(TableFunctionRelation tableFunctionRelation, C context) {
         return visitAnalyzedRelation(tableFunctionRelation, context);
     }
@@ -0,0 +1,199 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.analyze.where;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.execution.expression.operator.AndOperator;
+import io.crate.execution.expression.operator.EqOperator;
+import io.crate.execution.expression.operator.GtOperator;
+import io.crate.execution.expression.operator.GteOperator;
+import io.crate.execution.expression.operator.LtOperator;
+import io.crate.execution.expression.operator.LteOperator;
+import io.crate.execution.expression.operator.OrOperator;
+import io.crate.execution.expression.operator.any.AnyEqOperator;
+import io.crate.execution.expression.operator.any.AnyOperator;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.PartitionValueIndex;
+import io.crate.types.CollectionType;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uses the {@link PartitionValueIndex} of a table to narrow down the partitions which can match a query.
+ *
+ * <p>
+ * Supported are comparisons ({@code =, >, >=, <, <=}) and {@code = ANY} / {@code IN} of a partitioned by column with
+ * a literal, combined with {@code AND} and {@code OR}. Other parts of the query are ignored, so the result is a
+ * superset of the partitions which match; the query still has to be evaluated for each of them.
+ * </p>
+ */
+final class PartitionPruner {
+
+    private PartitionPruner() {
+    }
+
+    /**
+     * @return the positions in {@link DocTableInfo#partitions()} of the partitions which can match the query or
+     *         null if the query contains no condition which can be looked up in the index.
+     */
+    @Nullable
+    static BitSet candidates(Symbol query, DocTableInfo table) {
+        return match(query, table, table.partitionValueIndex());
+    }
+
+    @Nullable
+    private static BitSet match(Symbol symbol, DocTableInfo table, PartitionValueIndex index) {
+        if (!(symbol instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) symbol;
+        List<Symbol> args = function.arguments();
+        String name = function.info().ident().name();
+        if (name.equals(AnyEqOperator.NAME)) {
+            return matchAny(args, table, index);
+        }
+        switch (name) {
+            case AndOperator.NAME: {
+                BitSet left = match(args.get(0), table, index);
+                BitSet right = match(args.get(1), table, index);
+                if (left == null) {
+                    return right;
+                }
+                if (right != null) {
+                    left.and(right);
+                }
+                return left;
+            }
+            case OrOperator.NAME: {
+                BitSet left = match(args.get(0), table, index);
+                if (left == null) {
+                    return null;
+                }
+                BitSet right = match(args.get(1), table, index);
+                if (right == null) {
+                    return null;
+                }
+                left.or(right);
+                return left;
+            }
+            case EqOperator.NAME:
+            case GtOperator.NAME:
+            case GteOperator.NAME:
+            case LtOperator.NAME:
+            case LteOperator.NAME:
+                return matchComparison(name, args, table, index);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static BitSet matchComparison(String name, List<Symbol> args, DocTableInfo table, PartitionValueIndex index) {
+        Symbol left = args.get(0);
+        Symbol right = args.get(1);
+        if (left instanceof Literal && right instanceof Reference) {
+            left = args.get(1);
+            right = args.get(0);
+            name = swapOperands(name);
+        }
+        int columnIdx = indexedColumn(left, table, index);
+        if (columnIdx < 0 || !(right instanceof Literal) || !right.valueType().equals(index.indexedType(columnIdx))) {
+            return null;
+        }
+        Object value = ((Literal) right).value();
+        if (value == null) {
+            return new BitSet();
+        }
+        switch (name) {
+            case EqOperator.NAME:
+                return index.matchAny(columnIdx, Collections.singletonList(value));
+            case GtOperator.NAME:
+                return index.matchRange(columnIdx, value, false, null, false);
+            case GteOperator.NAME:
+                return index.matchRange(columnIdx, value, true, null, false);
+            case LtOperator.NAME:
+                return index.matchRange(columnIdx, null, false, value, false);
+            case LteOperator.NAME:
+                return index.matchRange(columnIdx, null, false, value, true);
+            default:
+                throw new AssertionError("Unexpected operator: " + name);
+        }
+    }
+
+    @Nullable
+    private static BitSet matchAny(List<Symbol> args, DocTableInfo table, PartitionValueIndex index) {
+        int columnIdx = indexedColumn(args.get(0), table, index);
+        Symbol right = args.get(1);
+        if (columnIdx < 0
+            || !(right instanceof Literal)
+            || !(right.valueType() instanceof CollectionType)
+            || !((CollectionType) right.valueType()).innerType().equals(index.indexedType(columnIdx))) {
+            return null;
+        }
+        Object values = ((Literal) right).value();
+        if (values == null) {
+            return new BitSet();
+        }
+        return index.matchAny(columnIdx, AnyOperator.collectionValueToIterable(values));
+    }
+
+    /**
+     * @return the position of the column within the partitioned by columns if the symbol is a reference to an
+     *         indexed partitioned by column, otherwise -1
+     */
+    private static int indexedColumn(Symbol symbol, DocTableInfo table, PartitionValueIndex index) {
+        if (!(symbol instanceof Reference)) {
+            return -1;
+        }
+        Reference ref = (Reference) symbol;
+        if (!ref.ident().tableIdent().equals(table.ident())) {
+            return -1;
+        }
+        int columnIdx = table.partitionedBy().indexOf(ref.ident().columnIdent());
+        if (columnIdx < 0 || !ref.valueType().equals(index.indexedType(columnIdx))) {
+            return -1;
+        }
+        return columnIdx;
+    }
+
+    private static String swapOperands(String name) {
+        switch (name) {
+            case GtOperator.NAME:
+                return LtOperator.NAME;
+            case GteOperator.NAME:
+                return LteOperator.NAME;
+            case LtOperator.NAME:
+                return GtOperator.NAME;
+            case LteOperator.NAME:
+                return GteOperator.NAME;
+            default:
+                return name;
+        }
+    }
+}
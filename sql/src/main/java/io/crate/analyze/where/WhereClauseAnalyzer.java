@@ -48,6 +48,7 @@ import org.elasticsearch.common.collect.Tuple;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -171,6 +172,16 @@ public class WhereClauseAnalyzer {
         assert tableInfo.isPartitioned() : "table must be partitioned in order to resolve partitions";
         assert !tableInfo.partitions().isEmpty() : "table must have at least one partition";
 
+        List<PartitionName> candidates = tableInfo.partitions();
+        BitSet candidatePositions = PartitionPruner.candidates(query, tableInfo);
+        if (candidatePositions != null) {
+            // only the partitions which pass the index lookup need to be evaluated
+            candidates = tableInfo.partitionValueIndex().partitions(candidatePositions);
+            if (candidates.isEmpty()) {
+                return new PartitionResult(Literal.BOOLEAN_FALSE, Collections.emptyList());
+            }
+        }
+
         PartitionReferenceResolver partitionReferenceResolver = preparePartitionResolver(
             tableInfo.partitionedByColumns());
         EvaluatingNormalizer normalizer = new EvaluatingNormalizer(
@@ -179,7 +190,7 @@ public class WhereClauseAnalyzer {
         Symbol normalized;
         Map<Symbol, List<Literal>> queryPartitionMap = new HashMap<>();
 
-        for (PartitionName partitionName : tableInfo.partitions()) {
+        for (PartitionName partitionName : candidates) {
             for (PartitionExpression partitionExpression : partitionReferenceResolver.expressions()) {
                 partitionExpression.setNextRow(partitionName);
             }
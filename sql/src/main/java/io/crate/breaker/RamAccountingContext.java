@@ -43,6 +43,7 @@ public class RamAccountingContext {
 
     private final AtomicLong totalBytes = new AtomicLong(0);
     private final AtomicLong flushBuffer = new AtomicLong(0);
+    private final AtomicLong peakBytes = new AtomicLong(0);
     private volatile boolean closed = false;
     private volatile boolean tripped = false;
 
@@ -83,6 +84,10 @@ public class RamAccountingContext {
             return;
         }
         long currentFlushBuffer = flushBuffer.addAndGet(bytes);
+        long currentBytes = currentFlushBuffer + totalBytes.get();
+        if (currentBytes > peakBytes.get()) {
+            peakBytes.accumulateAndGet(currentBytes, Math::max);
+        }
         if (currentFlushBuffer >= FLUSH_BUFFER_SIZE) {
             if (shouldBreak) {
                 flush(currentFlushBuffer);
@@ -136,6 +141,24 @@ public class RamAccountingContext {
         flushBuffer.addAndGet(-bytes);
     }
 
+    /**
+     * Release bytes which have been added before, e.g. because the data structure they were accounted for
+     * has been cleared.
+     * The bytes are returned to the breaker immediately, even if they're still part of the flush buffer.
+     *
+     * @param bytes bytes to be released
+     */
+    public void release(long bytes) {
+        if (closed || bytes == 0) {
+            return;
+        }
+        breaker.addWithoutBreaking(-bytes);
+        totalBytes.addAndGet(-bytes);
+        if (tripped && !exceededBreaker()) {
+            tripped = false;
+        }
+    }
+
     /**
      * Returns bytes from the buffer + bytes that have already been flushed to the breaker.
      * @return the total number of bytes that have been aggregated
@@ -144,6 +167,13 @@ public class RamAccountingContext {
         return flushBuffer.get() + totalBytes.get();
     }
 
+    /**
+     * @return the highest number of bytes which have been accounted at the same time
+     */
+    public long peakBytes() {
+        return peakBytes.get();
+    }
+
     /**
      * Close the context and adjust the breaker.
      * A remaining flush buffer will not be flushed to avoid breaking on close.
@@ -178,6 +208,16 @@ public class RamAccountingContext {
         return breaker.getUsed() >= breaker.getLimit();
     }
 
+    /**
+     * Returns true if the bytes used by the breaker, including the not yet flushed bytes of this context,
+     * reached the given ratio of the breaker limit.
+     * Can be used to react before the breaker trips. Always false if the breaker has no limit.
+     */
+    public boolean exceedsLimitRatio(double ratio) {
+        long limit = breaker.getLimit();
+        return limit > 0 && breaker.getUsed() + flushBuffer.get() >= limit * ratio;
+    }
+
     /**
      * Returns the configured bytes limit of the breaker
      */
@@ -45,8 +45,10 @@ public class RowAccounting {
      * Account for the size of the values of the row.
      *
      * This should only be used if the values are stored/buffered in another in-memory data structure.
+     *
+     * @return the number of bytes that have been accounted for
      */
-    public void accountForAndMaybeBreak(Row row) {
+    public long accountForAndMaybeBreak(Row row) {
         assert row.numColumns() == estimators.size() : "Size of row must match the number of estimators";
 
         // Container size of the row is excluded because here it's unknown where the values will be saved to.
@@ -56,6 +58,21 @@ public class RowAccounting {
             size += estimators.get(i).estimateSize(row.get(i));
         }
         ramAccountingContext.addBytes(size);
+        return size;
+    }
+
+    /**
+     * Release bytes which have been accounted for before, e.g. because the rows have been spilled to disk.
+     */
+    public void release(long bytes) {
+        ramAccountingContext.release(bytes);
+    }
+
+    /**
+     * See {@link RamAccountingContext#exceedsLimitRatio(double)}
+     */
+    public boolean exceedsLimitRatio(double ratio) {
+        return ramAccountingContext.exceedsLimitRatio(ratio);
     }
 
     public void close() {
@@ -24,14 +24,17 @@ package io.crate.execution;
 
 import io.crate.execution.dml.delete.TransportShardDeleteAction;
 import io.crate.execution.dml.upsert.TransportShardUpsertAction;
+import io.crate.execution.engine.collect.TransportShardGenerationsAction;
 import io.crate.execution.engine.collect.stats.TransportNodeStatsAction;
 import io.crate.execution.jobs.ContextPreparer;
 import io.crate.execution.jobs.transport.TransportJobAction;
 import io.crate.execution.engine.fetch.TransportFetchNodeAction;
+import io.crate.execution.ddl.TransportColumnStatsAction;
 import io.crate.execution.ddl.TransportDropTableAction;
 import io.crate.execution.ddl.TransportOpenCloseTableOrPartitionAction;
 import io.crate.execution.ddl.TransportRenameTableAction;
 import io.crate.execution.engine.distribution.TransportDistributedResultAction;
+import io.crate.execution.engine.profile.TransportCollectProfileNodeAction;
 import io.crate.execution.jobs.kill.TransportKillAllNodeAction;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.lucene.LuceneQueryBuilder;
@@ -52,9 +55,12 @@ public class TransportExecutorModule extends AbstractModule {
         bind(TransportFetchNodeAction.class).asEagerSingleton();
         bind(TransportKillAllNodeAction.class).asEagerSingleton();
         bind(TransportKillJobsNodeAction.class).asEagerSingleton();
+        bind(TransportCollectProfileNodeAction.class).asEagerSingleton();
+        bind(TransportShardGenerationsAction.class).asEagerSingleton();
         bind(TransportNodeStatsAction.class).asEagerSingleton();
         bind(TransportRenameTableAction.class).asEagerSingleton();
         bind(TransportOpenCloseTableOrPartitionAction.class).asEagerSingleton();
         bind(TransportDropTableAction.class).asEagerSingleton();
+        bind(TransportColumnStatsAction.class).asEagerSingleton();
     }
 }
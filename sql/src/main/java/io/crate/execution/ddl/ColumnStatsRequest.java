@@ -0,0 +1,83 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.TableIdent;
+import io.crate.planner.ColumnStats;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.transport.TransportRequest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ColumnStatsRequest extends TransportRequest {
+
+    private TableIdent tableIdent;
+    private Map<ColumnIdent, ColumnStats> columnStats;
+
+    ColumnStatsRequest() {
+    }
+
+    public ColumnStatsRequest(TableIdent tableIdent, Map<ColumnIdent, ColumnStats> columnStats) {
+        this.tableIdent = tableIdent;
+        this.columnStats = columnStats;
+    }
+
+    TableIdent tableIdent() {
+        return tableIdent;
+    }
+
+    Map<ColumnIdent, ColumnStats> columnStats() {
+        return columnStats;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        tableIdent = new TableIdent(in);
+        int numColumns = in.readVInt();
+        columnStats = new HashMap<>(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            columnStats.put(new ColumnIdent(in), new ColumnStats(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        tableIdent.writeTo(out);
+        out.writeVInt(columnStats.size());
+        for (Map.Entry<ColumnIdent, ColumnStats> entry : columnStats.entrySet()) {
+            entry.getKey().writeTo(out);
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStatsRequest{" + tableIdent + ", columns=" + columnStats.keySet() + '}';
+    }
+}
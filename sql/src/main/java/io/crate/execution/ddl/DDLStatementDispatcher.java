@@ -29,6 +29,7 @@ import io.crate.analyze.AlterTableAnalyzedStatement;
 import io.crate.analyze.AlterTableOpenCloseAnalyzedStatement;
 import io.crate.analyze.AlterTableRenameAnalyzedStatement;
 import io.crate.analyze.AlterUserAnalyzedStatement;
+import io.crate.analyze.AnalyzeTableAnalyzedStatement;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.CreateBlobTableAnalyzedStatement;
@@ -53,6 +54,7 @@ import io.crate.analyze.RestoreSnapshotAnalyzedStatement;
 import io.crate.blob.v2.BlobAdminClient;
 import io.crate.data.Row;
 import io.crate.metadata.Functions;
+import io.crate.planner.TableStatsService;
 import io.crate.execution.expression.udf.UserDefinedFunctionDDLClient;
 import io.crate.auth.user.UserManager;
 import io.crate.user.SecureHash;
@@ -97,6 +99,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
     private final Provider<TransportUpgradeAction> transportUpgradeActionProvider;
     private final Provider<TransportForceMergeAction> transportForceMergeActionProvider;
     private final Provider<TransportRefreshAction> transportRefreshActionProvider;
+    private final Provider<TableStatsService> tableStatsServiceProvider;
     private final UserManager userManager;
 
     private final InnerVisitor innerVisitor = new InnerVisitor();
@@ -116,6 +119,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
                                   Provider<TransportUpgradeAction> transportUpgradeActionProvider,
                                   Provider<TransportForceMergeAction> transportForceMergeActionProvider,
                                   Provider<TransportRefreshAction> transportRefreshActionProvider,
+                                  Provider<TableStatsService> tableStatsServiceProvider,
                                   Functions functions) {
         this.blobAdminClient = blobAdminClient;
         this.tableCreator = tableCreator;
@@ -126,6 +130,7 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
         this.transportUpgradeActionProvider = transportUpgradeActionProvider;
         this.transportForceMergeActionProvider = transportForceMergeActionProvider;
         this.transportRefreshActionProvider = transportRefreshActionProvider;
+        this.tableStatsServiceProvider = tableStatsServiceProvider;
         this.userManager = userManagerProvider.get();
         this.rerouteAction = rerouteAction;
         this.functions = functions;
@@ -198,6 +203,11 @@ public class DDLStatementDispatcher implements BiFunction<AnalyzedStatement, Row
             return listener;
         }
 
+        @Override
+        public CompletableFuture<Long> visitAnalyzeTableStatement(AnalyzeTableAnalyzedStatement analysis, Row parameters) {
+            return tableStatsServiceProvider.get().analyze(analysis.tables());
+        }
+
         @Override
         public CompletableFuture<Long> visitCreateBlobTableStatement(CreateBlobTableAnalyzedStatement analysis,
                                                                      Row parameters) {
@@ -0,0 +1,89 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.ddl;
+
+import io.crate.execution.support.MultiActionListener;
+import io.crate.execution.support.NodeAction;
+import io.crate.execution.support.NodeActionRequestHandler;
+import io.crate.planner.TableStats;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the column statistics gathered by {@code ANALYZE} to the {@link TableStats} of all nodes.
+ */
+@Singleton
+public class TransportColumnStatsAction implements NodeAction<ColumnStatsRequest, ColumnStatsResponse> {
+
+    private static final String NAME = "crate/sql/table/column_stats";
+
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final TableStats tableStats;
+
+    @Inject
+    public TransportColumnStatsAction(ClusterService clusterService,
+                                      TransportService transportService,
+                                      TableStats tableStats) {
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.tableStats = tableStats;
+        transportService.registerRequestHandler(
+            NAME,
+            ColumnStatsRequest::new,
+            ThreadPool.Names.GENERIC,
+            new NodeActionRequestHandler<>(this));
+    }
+
+    @Override
+    public CompletableFuture<ColumnStatsResponse> nodeOperation(ColumnStatsRequest request) {
+        tableStats.updateColumnStats(request.tableIdent(), request.columnStats());
+        return CompletableFuture.completedFuture(new ColumnStatsResponse());
+    }
+
+    /**
+     * Sends the column statistics to all nodes in the cluster
+     */
+    public void broadcast(ColumnStatsRequest request, ActionListener<Long> listener) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        MultiActionListener<ColumnStatsResponse, ?, Long> multiListener =
+            new MultiActionListener<>(nodes.getSize(), Collectors.counting(), listener);
+
+        TransportResponseHandler<ColumnStatsResponse> responseHandler =
+            new ActionListenerResponseHandler<>(multiListener, ColumnStatsResponse::new);
+        for (DiscoveryNode node : nodes) {
+            transportService.sendRequest(node, NAME, request, responseHandler);
+        }
+    }
+}
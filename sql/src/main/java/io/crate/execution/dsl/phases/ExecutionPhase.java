@@ -49,7 +49,8 @@ public interface ExecutionPhase extends Writeable {
         NESTED_LOOP(NestedLoopPhase::new),
         TABLE_FUNCTION_COLLECT(in -> {
             throw new UnsupportedOperationException("TableFunctionCollectPhase is not streamable"); }),
-        PKLookup(PKLookupPhase::new);
+        PKLookup(PKLookupPhase::new),
+        HASH_JOIN(HashJoinPhase::new);
 
         public static final List<Type> VALUES = ImmutableList.copyOf(values());
 
@@ -56,6 +56,10 @@ public class ExecutionPhaseVisitor<C, R> {
         return visitExecutionPhase(phase, context);
     }
 
+    public R visitHashJoinPhase(HashJoinPhase phase, C context) {
+        return visitExecutionPhase(phase, context);
+    }
+
     public R visitFileUriCollectPhase(FileUriCollectPhase phase, C context) {
         return visitCollectPhase(phase, context);
     }
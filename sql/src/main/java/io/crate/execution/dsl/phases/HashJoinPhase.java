@@ -0,0 +1,182 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.dsl.phases;
+
+import com.google.common.base.MoreObjects;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.Symbols;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * A join phase which builds a hash table out of the rows of the right side and probes it with the rows of the
+ * left side.
+ *
+ * The hash of a row is computed from the {@code leftJoinConditionInputs} / {@code rightJoinConditionInputs},
+ * which are the operands of the equality operators of the join condition.
+ * Rows with a matching hash are verified by evaluating the full {@link #joinCondition()}.
+ *
+ * If {@link #spillToDisk()} is true, the rows of both sides are partitioned to disk if the hash table would
+ * exceed the circuit breaker limit and the partitions are joined one after another.
+ */
+public class HashJoinPhase extends JoinPhase {
+
+    private final List<Symbol> leftJoinConditionInputs;
+    private final List<Symbol> rightJoinConditionInputs;
+    private final List<DataType> leftOutputTypes;
+    private final List<DataType> rightOutputTypes;
+    private final boolean spillToDisk;
+
+    public HashJoinPhase(UUID jobId,
+                         int executionNodeId,
+                         String name,
+                         List<Projection> projections,
+                         @Nullable MergePhase leftMergePhase,
+                         @Nullable MergePhase rightMergePhase,
+                         Collection<String> executionNodes,
+                         JoinType joinType,
+                         Symbol joinCondition,
+                         List<Symbol> leftJoinConditionInputs,
+                         List<Symbol> rightJoinConditionInputs,
+                         List<DataType> leftOutputTypes,
+                         List<DataType> rightOutputTypes,
+                         boolean spillToDisk) {
+        super(jobId,
+            executionNodeId,
+            name,
+            projections,
+            leftMergePhase,
+            rightMergePhase,
+            executionNodes,
+            joinType,
+            joinCondition,
+            leftOutputTypes.size(),
+            rightOutputTypes.size());
+        assert leftJoinConditionInputs.size() == rightJoinConditionInputs.size()
+            : "Number of left and right join condition inputs must match";
+        this.leftJoinConditionInputs = leftJoinConditionInputs;
+        this.rightJoinConditionInputs = rightJoinConditionInputs;
+        this.leftOutputTypes = leftOutputTypes;
+        this.rightOutputTypes = rightOutputTypes;
+        this.spillToDisk = spillToDisk;
+    }
+
+    public HashJoinPhase(StreamInput in) throws IOException {
+        super(in);
+        leftJoinConditionInputs = Symbols.listFromStream(in);
+        rightJoinConditionInputs = Symbols.listFromStream(in);
+        leftOutputTypes = typesFromStream(in);
+        rightOutputTypes = typesFromStream(in);
+        spillToDisk = in.readBoolean();
+    }
+
+    private static List<DataType> typesFromStream(StreamInput in) throws IOException {
+        int numTypes = in.readVInt();
+        List<DataType> types = new ArrayList<>(numTypes);
+        for (int i = 0; i < numTypes; i++) {
+            types.add(DataTypes.fromStream(in));
+        }
+        return types;
+    }
+
+    private static void typesToStream(List<DataType> types, StreamOutput out) throws IOException {
+        out.writeVInt(types.size());
+        for (DataType type : types) {
+            DataTypes.toStream(type, out);
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        Symbols.toStream(leftJoinConditionInputs, out);
+        Symbols.toStream(rightJoinConditionInputs, out);
+        typesToStream(leftOutputTypes, out);
+        typesToStream(rightOutputTypes, out);
+        out.writeBoolean(spillToDisk);
+    }
+
+    public List<Symbol> leftJoinConditionInputs() {
+        return leftJoinConditionInputs;
+    }
+
+    public List<Symbol> rightJoinConditionInputs() {
+        return rightJoinConditionInputs;
+    }
+
+    public List<DataType> leftOutputTypes() {
+        return leftOutputTypes;
+    }
+
+    public List<DataType> rightOutputTypes() {
+        return rightOutputTypes;
+    }
+
+    public boolean spillToDisk() {
+        return spillToDisk;
+    }
+
+    @Override
+    public void replaceSymbols(Function<? super Symbol, ? extends Symbol> replaceFunction) {
+        super.replaceSymbols(replaceFunction);
+        leftJoinConditionInputs.replaceAll(replaceFunction::apply);
+        rightJoinConditionInputs.replaceAll(replaceFunction::apply);
+    }
+
+    @Override
+    public Type type() {
+        return Type.HASH_JOIN;
+    }
+
+    @Override
+    public <C, R> R accept(ExecutionPhaseVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoinPhase(this, context);
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this)
+            .add("executionPhaseId", phaseId())
+            .add("name", name())
+            .add("joinType", joinType())
+            .add("joinCondition", joinCondition())
+            .add("leftJoinConditionInputs", leftJoinConditionInputs)
+            .add("rightJoinConditionInputs", rightJoinConditionInputs)
+            .add("outputTypes", outputTypes)
+            .add("jobId", jobId())
+            .add("executionNodes", nodeIds());
+        return helper.toString();
+    }
+}
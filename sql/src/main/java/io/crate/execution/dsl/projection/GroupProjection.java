@@ -46,15 +46,28 @@ public class GroupProjection extends Projection {
 
     private AggregateMode mode;
     private RowGranularity requiredGranularity = RowGranularity.CLUSTER;
+    private boolean spillToDisk = false;
 
     public GroupProjection(List<Symbol> keys,
                            List<Aggregation> values,
                            AggregateMode mode,
                            RowGranularity requiredGranularity) {
+        this(keys, values, mode, requiredGranularity, false);
+    }
+
+    /**
+     * @param spillToDisk if true, groups are spilled to disk instead of tripping the circuit breaker.
+     */
+    public GroupProjection(List<Symbol> keys,
+                           List<Aggregation> values,
+                           AggregateMode mode,
+                           RowGranularity requiredGranularity,
+                           boolean spillToDisk) {
         this.keys = keys;
         this.values = values;
         this.mode = mode;
         this.requiredGranularity = requiredGranularity;
+        this.spillToDisk = spillToDisk;
     }
 
     public GroupProjection(StreamInput in) throws IOException {
@@ -66,6 +79,7 @@ public class GroupProjection extends Projection {
             values.add((Aggregation) Symbols.fromStream(in));
         }
         requiredGranularity = RowGranularity.fromStream(in);
+        spillToDisk = in.readBoolean();
     }
 
     @Override
@@ -112,6 +126,7 @@ public class GroupProjection extends Projection {
         Symbols.toStream(keys, out);
         Symbols.toStream(values, out);
         RowGranularity.toStream(requiredGranularity, out);
+        out.writeBoolean(spillToDisk);
     }
 
     @Override
@@ -136,6 +151,10 @@ public class GroupProjection extends Projection {
         return mode;
     }
 
+    public boolean spillToDisk() {
+        return spillToDisk;
+    }
+
     @Override
     public Map<String, Object> mapRepresentation() {
         return ImmutableMap.of(
@@ -72,11 +72,13 @@ public class ProjectionBuilder {
         Collection<? extends Symbol> keys,
         Collection<Function> values,
         AggregateMode mode,
-        RowGranularity requiredGranularity) {
+        RowGranularity requiredGranularity,
+        boolean spillToDisk) {
 
         InputColumns.SourceSymbols sourceSymbols = new InputColumns.SourceSymbols(inputs);
         ArrayList<Aggregation> aggregations = getAggregations(values, mode, sourceSymbols);
-        return new GroupProjection(InputColumns.create(keys, sourceSymbols), aggregations, mode, requiredGranularity);
+        return new GroupProjection(
+            InputColumns.create(keys, sourceSymbols), aggregations, mode, requiredGranularity, spillToDisk);
     }
 
     private ArrayList<Aggregation> getAggregations(Collection<Function> functions,
@@ -28,6 +28,7 @@ import io.crate.concurrent.CompletableFutures;
 import io.crate.data.Bucket;
 import io.crate.data.CollectingRowConsumer;
 import io.crate.data.RowConsumer;
+import io.crate.exceptions.StatementTimeoutException;
 import io.crate.execution.dsl.phases.ExecutionPhase;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.NodeOperation;
@@ -47,6 +48,7 @@ import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.indices.IndicesService;
 
 import javax.annotation.Nullable;
@@ -108,6 +110,9 @@ public class ExecutionPhasesTask {
     private ContextPreparer contextPreparer;
     private final JobContextService jobContextService;
     private final IndicesService indicesService;
+    private final boolean profile;
+    @Nullable
+    private final TimeValue timeout;
 
     private boolean hasDirectResponse;
 
@@ -118,8 +123,12 @@ public class ExecutionPhasesTask {
                                IndicesService indicesService,
                                TransportJobAction transportJobAction,
                                TransportKillJobsNodeAction transportKillJobsNodeAction,
-                               List<NodeOperationTree> nodeOperationTrees) {
+                               List<NodeOperationTree> nodeOperationTrees,
+                               boolean profile,
+                               @Nullable TimeValue timeout) {
         this.jobId = jobId;
+        this.profile = profile;
+        this.timeout = timeout;
         this.clusterService = clusterService;
         this.contextPreparer = contextPreparer;
         this.jobContextService = jobContextService;
@@ -185,6 +194,9 @@ public class ExecutionPhasesTask {
                               List<ExecutionPhase> handlerPhases,
                               List<RowConsumer> handlerConsumers) throws Throwable {
         assert handlerPhases.size() == handlerConsumers.size() : "handlerPhases size must match handlerConsumers size";
+        if (timeout != null && timeout.nanos() <= 0) {
+            throw new StatementTimeoutException();
+        }
 
         String localNodeId = clusterService.localNode().getId();
         Collection<NodeOperation> localNodeOperations = operationByServer.remove(localNodeId);
@@ -198,6 +210,10 @@ public class ExecutionPhasesTask {
             handlerPhases, handlerConsumers, initializationTracker);
 
         JobExecutionContext.Builder builder = jobContextService.newBuilder(jobId, localNodeId, operationByServer.keySet());
+        if (profile) {
+            builder.enableProfiling();
+        }
+        builder.timeout(timeout);
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnHandler(
             localNodeOperations, builder, handlerPhaseAndReceiver, new SharedShardContexts(indicesService));
         JobExecutionContext localJobContext = jobContextService.createContext(builder);
@@ -273,7 +289,7 @@ public class ExecutionPhasesTask {
                                  InitializationTracker initializationTracker) {
         for (Map.Entry<String, Collection<NodeOperation>> entry : operationByServer.entrySet()) {
             String serverNodeId = entry.getKey();
-            JobRequest request = new JobRequest(jobId, localNodeId, entry.getValue());
+            JobRequest request = new JobRequest(jobId, localNodeId, entry.getValue(), profile, timeout);
             if (hasDirectResponse) {
                 transportJobAction.execute(serverNodeId, request,
                     BucketForwarder.asActionListener(pageBucketReceivers, bucketIdx, initializationTracker));
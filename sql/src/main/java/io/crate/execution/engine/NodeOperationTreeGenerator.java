@@ -37,6 +37,7 @@ import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.join.HashJoin;
 import io.crate.planner.node.dql.join.NestedLoop;
 
 import javax.annotation.Nullable;
@@ -275,6 +276,21 @@ public final class NodeOperationTreeGenerator extends ExecutionPlanVisitor<NodeO
         return null;
     }
 
+    @Override
+    public Void visitHashJoin(HashJoin plan, NodeOperationTreeContext context) {
+        context.addPhase(plan.hashJoinPhase());
+
+        context.branch((byte) 0);
+        process(plan.left(), context);
+        context.leaveBranch();
+
+        context.branch((byte) 1);
+        process(plan.right(), context);
+        context.leaveBranch();
+
+        return null;
+    }
+
     @Override
     protected Void visitPlan(ExecutionPlan executionPlan, NodeOperationTreeContext context) {
         throw new UnsupportedOperationException(String.format(Locale.ENGLISH, "Can't create NodeOperationTree from plan %s", executionPlan));
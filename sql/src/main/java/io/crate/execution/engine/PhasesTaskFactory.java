@@ -27,13 +27,13 @@ import io.crate.execution.jobs.transport.TransportJobAction;
 import io.crate.execution.jobs.kill.TransportKillJobsNodeAction;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.dsl.phases.NodeOperationTree;
+import io.crate.planner.PlannerContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.indices.IndicesService;
 
 import java.util.List;
-import java.util.UUID;
 
 @Singleton
 public final class PhasesTaskFactory {
@@ -60,16 +60,28 @@ public final class PhasesTaskFactory {
         this.killJobsNodeAction = killJobsNodeAction;
     }
 
-    public ExecutionPhasesTask create(UUID jobId, List<NodeOperationTree> nodeOperationTreeList) {
+    public ExecutionPhasesTask create(PlannerContext plannerContext, List<NodeOperationTree> nodeOperationTreeList) {
+        return create(plannerContext, nodeOperationTreeList, false);
+    }
+
+    /**
+     * @param profile if true, runtime statistics of all phases are collected on all involved nodes.
+     *                They can be retrieved using {@link io.crate.execution.engine.profile.TransportCollectProfileNodeAction}
+     */
+    public ExecutionPhasesTask create(PlannerContext plannerContext,
+                                      List<NodeOperationTree> nodeOperationTreeList,
+                                      boolean profile) {
         return new ExecutionPhasesTask(
-            jobId,
+            plannerContext.jobId(),
             clusterService,
             contextPreparer,
             jobContextService,
             indicesService,
             jobAction,
             killJobsNodeAction,
-            nodeOperationTreeList
+            nodeOperationTreeList,
+            profile,
+            plannerContext.remainingTimeout()
         );
     }
 }
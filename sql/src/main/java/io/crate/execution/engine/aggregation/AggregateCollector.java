@@ -100,9 +100,7 @@ public class AggregateCollector implements Collector<Row, Object[], Object[]> {
 
     @Override
     public BinaryOperator<Object[]> combiner() {
-        return (state1, state2) -> {
-            throw new UnsupportedOperationException("combine not supported");
-        };
+        return this::combine;
     }
 
     @Override
@@ -137,6 +135,17 @@ public class AggregateCollector implements Collector<Row, Object[], Object[]> {
         }
     }
 
+    /**
+     * Merges the states of {@code state2} into {@code state1}.
+     * The states may originate from a different AggregateCollector instance with the same aggregations.
+     */
+    private Object[] combine(Object[] state1, Object[] state2) {
+        for (int i = 0; i < aggregations.length; i++) {
+            state1[i] = aggregations[i].reduce(ramAccounting, state1[i], state2[i]);
+        }
+        return state1;
+    }
+
     private Object[] finishCollect(Object[] state) {
         for (int i = 0; i < aggregations.length; i++) {
             state[i] = aggregations[i].terminatePartial(ramAccounting, state[i]);
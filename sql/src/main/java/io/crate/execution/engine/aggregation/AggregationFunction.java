@@ -82,4 +82,15 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
     public abstract TFinal terminatePartial(RamAccountingContext ramAccountingContext, TPartial state);
 
     public abstract DataType partialType();
+
+    /**
+     * Creates states which store the aggregation states of many groups in primitive arrays.
+     *
+     * @param bigArrays the BigArrays singleton instance of the current node, used to allocate the arrays
+     * @return the states or null if this aggregation doesn't support a columnar representation of its states
+     */
+    @Nullable
+    public ColumnarStates newColumnarStates(BigArrays bigArrays) {
+        return null;
+    }
 }
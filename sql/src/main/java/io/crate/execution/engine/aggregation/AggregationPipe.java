@@ -27,7 +27,6 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
-import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
@@ -39,7 +38,7 @@ import java.util.List;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
-public class AggregationPipe implements Projector {
+public class AggregationPipe implements AggregationProjector {
 
     private final AggregateCollector collector;
 
@@ -69,13 +68,17 @@ public class AggregationPipe implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        Collector<Row, ?, Iterable<Row>> collectAndConvertToRows = Collectors.collectingAndThen(
+        return CollectingBatchIterator.newInstance(batchIterator, collector());
+    }
+
+    @Override
+    public Collector<Row, ?, Iterable<Row>> collector() {
+        return Collectors.collectingAndThen(
             collector,
             cells -> {
                 Row row = new RowN(cells);
                 return Collections.singletonList(row);
             });
-        return CollectingBatchIterator.newInstance(batchIterator, collectAndConvertToRows);
     }
 
     @Override
@@ -0,0 +1,51 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Projector;
+import io.crate.data.Row;
+
+import java.util.stream.Collector;
+
+/**
+ * A {@link Projector} which aggregates all rows of its source using a {@link Collector}.
+ * <p>
+ * The states of the collectors of projectors which have been created for the same projection can be merged using
+ * {@link Collector#combiner()}. This allows to aggregate several sources concurrently, each using its own projector,
+ * see {@link CollectingBatchIterator#newInstance(java.util.List, java.util.List, java.util.concurrent.Executor)}
+ * </p>
+ */
+public interface AggregationProjector extends Projector {
+
+    Collector<Row, ?, Iterable<Row>> collector();
+
+    /**
+     * Releases the resources held by the states of {@link #collector()}.
+     * Must be called once the result of the collector has been consumed if the collector is used directly instead of
+     * via {@link #apply(BatchIterator)}.
+     */
+    default void release() {
+    }
+}
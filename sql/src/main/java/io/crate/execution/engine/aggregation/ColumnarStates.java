@@ -0,0 +1,72 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.data.Input;
+import org.elasticsearch.common.lease.Releasable;
+
+/**
+ * The states of an {@link AggregationFunction} for many groups, stored in primitive arrays which are indexed by the
+ * id of the group.
+ * <p>
+ * Compared to having a state object per group this avoids most of the allocations and keeps the states of
+ * consecutive groups close together in memory.
+ * </p>
+ * The partial and final results must be compatible with the values produced by
+ * {@link AggregationFunction#terminatePartial(io.crate.breaker.RamAccountingContext, Object)} and
+ * {@link AggregationFunction#partialType()}, so that grouping implementations can be mixed within a query.
+ */
+public abstract class ColumnarStates implements Releasable {
+
+    /**
+     * Makes sure that there are (initial) states for all groups with an id lower than {@code numGroups}.
+     */
+    public abstract void grow(long numGroups);
+
+    /**
+     * Adds the input values of the current row to the state of the group, see
+     * {@link AggregationFunction#iterate(io.crate.breaker.RamAccountingContext, Object, Input[])}
+     */
+    public abstract void iterate(long groupId, Input... args);
+
+    /**
+     * Merges a partial state into the state of the group, see
+     * {@link AggregationFunction#reduce(io.crate.breaker.RamAccountingContext, Object, Object)}
+     */
+    public abstract void reduce(long groupId, Object partialState);
+
+    /**
+     * @return the state of the group in the representation of {@link AggregationFunction#partialType()}
+     */
+    public abstract Object partialResult(long groupId);
+
+    /**
+     * @return the final value of the group
+     */
+    public abstract Object finalResult(long groupId);
+
+    /**
+     * @return the number of bytes which are required per group, used for the memory accounting.
+     */
+    public abstract int bytesPerGroup();
+}
@@ -23,6 +23,7 @@
 package io.crate.execution.engine.aggregation;
 
 import com.google.common.collect.Iterables;
+import io.crate.Streamer;
 import io.crate.analyze.symbol.AggregateMode;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.breaker.SizeEstimator;
@@ -31,12 +32,15 @@ import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.spill.PartitionedSpill;
 import io.crate.types.DataType;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.util.BigArrays;
 
 import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -52,9 +56,16 @@ import java.util.stream.Collector;
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
+ * <p>
+ * If a {@code spillDirectory} is provided, the groups are spilled to disk once the circuit breaker is about to trip.
+ * The spilled groups are partitioned by the hash of their key; On finish each partition is loaded separately and its
+ * states are merged using {@link AggregationFunction#reduce(RamAccountingContext, Object, Object)}.
+ * Spilled data must be removed using {@link #removeSpilledGroups()} once the result has been consumed.
+ * </p>
+ *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, GroupingCollector.Groups<K>, Iterable<Row>> {
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -65,8 +76,13 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final int numKeyColumns;
     private final SizeEstimator<K> keySizeEstimator;
     private final Function<Row, K> keyExtractor;
+    private final Function<Object[], K> keyFromCells;
     private final Version indexVersionCreated;
     private final BigArrays bigArrays;
+    @Nullable
+    private final Path spillDirectory;
+    private final Streamer<?>[] spillStreamers;
+    private final List<PartitionedSpill> spills = new ArrayList<>();
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -76,7 +92,8 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                Input<?> keyInput,
                                                DataType keyType,
                                                Version indexVersionCreated,
-                                               BigArrays bigArrays) {
+                                               BigArrays bigArrays,
+                                               @Nullable Path spillDirectory) {
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -87,8 +104,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             1,
             SizeEstimatorFactory.create(keyType),
             row -> keyInput.value(),
+            cells -> cells[0],
+            Collections.singletonList(keyType),
             indexVersionCreated,
-            bigArrays
+            bigArrays,
+            spillDirectory
         );
     }
 
@@ -100,7 +120,8 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     List<Input<?>> keyInputs,
                                                     List<? extends DataType> keyTypes,
                                                     Version indexVersionCreated,
-                                                    BigArrays bigArrays) {
+                                                    BigArrays bigArrays,
+                                                    @Nullable Path spillDirectory) {
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -111,8 +132,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             keyInputs.size(),
             new MultiSizeEstimator(keyTypes),
             row -> evalKeyInputs(keyInputs),
+            cells -> new ArrayList<>(Arrays.asList(cells).subList(0, keyInputs.size())),
+            keyTypes,
             indexVersionCreated,
-            bigArrays
+            bigArrays,
+            spillDirectory
         );
     }
 
@@ -139,8 +163,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               int numKeyColumns,
                               SizeEstimator<K> keySizeEstimator,
                               Function<Row, K> keyExtractor,
+                              Function<Object[], K> keyFromCells,
+                              List<? extends DataType> keyTypes,
                               Version indexVersionCreated,
-                              BigArrays bigArrays) {
+                              BigArrays bigArrays,
+                              @Nullable Path spillDirectory) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -150,30 +177,37 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.numKeyColumns = numKeyColumns;
         this.keySizeEstimator = keySizeEstimator;
         this.keyExtractor = keyExtractor;
+        this.keyFromCells = keyFromCells;
         this.indexVersionCreated = indexVersionCreated;
         this.bigArrays = bigArrays;
+        this.spillDirectory = spillDirectory;
+        this.spillStreamers = new Streamer[numKeyColumns + aggregations.length];
+        for (int i = 0; i < numKeyColumns; i++) {
+            spillStreamers[i] = keyTypes.get(i).streamer();
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            spillStreamers[numKeyColumns + i] = aggregations[i].partialType().streamer();
+        }
     }
 
     @Override
-    public Supplier<Map<K, Object[]>> supplier() {
-        return HashMap::new;
+    public Supplier<Groups<K>> supplier() {
+        return Groups::new;
     }
 
     @Override
-    public BiConsumer<Map<K, Object[]>, Row> accumulator() {
+    public BiConsumer<Groups<K>, Row> accumulator() {
         return this::onNextRow;
     }
 
     @Override
-    public BinaryOperator<Map<K, Object[]>> combiner() {
-        return (state1, state2) -> {
-            throw new UnsupportedOperationException("combine not supported");
-        };
+    public BinaryOperator<Groups<K>> combiner() {
+        return this::combine;
     }
 
     @Override
-    public Function<Map<K, Object[]>, Iterable<Row>> finisher() {
-        return this::mapToRows;
+    public Function<Groups<K>, Iterable<Row>> finisher() {
+        return this::groupsToRows;
     }
 
     @Override
@@ -181,6 +215,17 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         return Collections.emptySet();
     }
 
+    private void onNextRow(Groups<K> groups, Row row) {
+        if (spillDirectory != null) {
+            maybeSpill(groups);
+            long bytesBefore = ramAccountingContext.totalBytes();
+            onNextRow(groups.statesByKey, row);
+            groups.accountedBytes += ramAccountingContext.totalBytes() - bytesBefore;
+        } else {
+            onNextRow(groups.statesByKey, row);
+        }
+    }
+
     private void onNextRow(Map<K, Object[]> statesByKey, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
@@ -196,6 +241,67 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         }
     }
 
+    /**
+     * Merges the groups of {@code groups2} into {@code groups1}.
+     * The groups may originate from a different GroupingCollector instance with the same aggregations.
+     */
+    private Groups<K> combine(Groups<K> groups1, Groups<K> groups2) {
+        if (groups1.spill != null || groups2.spill != null) {
+            throw new UnsupportedOperationException("Cannot combine groups which have been spilled to disk");
+        }
+        for (Map.Entry<K, Object[]> entry : groups2.statesByKey.entrySet()) {
+            Object[] states = groups1.statesByKey.putIfAbsent(entry.getKey(), entry.getValue());
+            if (states != null) {
+                Object[] otherStates = entry.getValue();
+                for (int i = 0; i < aggregations.length; i++) {
+                    //noinspection unchecked
+                    states[i] = aggregations[i].reduce(ramAccountingContext, states[i], otherStates[i]);
+                }
+            }
+        }
+        groups2.statesByKey.clear();
+        return groups1;
+    }
+
+    private void maybeSpill(Groups<K> groups) {
+        // spilling only a few groups wouldn't free enough memory to be worth the I/O
+        if (groups.accountedBytes >= RamAccountingContext.FLUSH_BUFFER_SIZE
+            && ramAccountingContext.exceedsLimitRatio(PartitionedSpill.SPILL_LIMIT_RATIO)) {
+            spill(groups);
+        }
+    }
+
+    /**
+     * Writes the key and the partial states of all in-memory groups to disk and releases their memory.
+     */
+    private void spill(Groups<K> groups) {
+        if (groups.spill == null) {
+            groups.spill = new PartitionedSpill(spillDirectory, PartitionedSpill.DEFAULT_NUM_PARTITIONS, spillStreamers);
+            spills.add(groups.spill);
+        }
+        Object[] cells = new Object[numKeyColumns + aggregations.length];
+        for (Map.Entry<K, Object[]> entry : groups.statesByKey.entrySet()) {
+            K key = entry.getKey();
+            applyKeyToCells.accept(key, cells);
+            System.arraycopy(entry.getValue(), 0, cells, numKeyColumns, aggregations.length);
+            groups.spill.write(key == null ? 0 : key.hashCode(), cells);
+        }
+        groups.statesByKey.clear();
+        ramAccountingContext.release(groups.accountedBytes);
+        groups.accountedBytes = 0;
+    }
+
+    /**
+     * Removes the files of groups which have been spilled to disk.
+     * The result of the collector must not be used afterwards.
+     */
+    public void removeSpilledGroups() {
+        for (PartitionedSpill spill : spills) {
+            spill.close();
+        }
+        spills.clear();
+    }
+
     private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
         Object[] states;
         states = new Object[aggregations.length];
@@ -211,6 +317,46 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         statesByKey.put(key, states);
     }
 
+    private Iterable<Row> groupsToRows(Groups<K> groups) {
+        if (groups.spill == null) {
+            return mapToRows(groups.statesByKey);
+        }
+        spill(groups);
+        PartitionedSpill spill = groups.spill;
+        spill.finishWriting();
+        List<Integer> partitions = new ArrayList<>(spill.numPartitions());
+        for (int i = 0; i < spill.numPartitions(); i++) {
+            partitions.add(i);
+        }
+        // partitions are loaded lazily, only one at a time is kept in memory
+        return Iterables.concat(Iterables.transform(partitions, p -> mapToRows(loadPartition(groups, p))));
+    }
+
+    private Map<K, Object[]> loadPartition(Groups<K> groups, int partition) {
+        // release the memory of the previously loaded partition
+        groups.statesByKey.clear();
+        ramAccountingContext.release(groups.accountedBytes);
+        long bytesBefore = ramAccountingContext.totalBytes();
+
+        for (Object[] cells : groups.spill.partition(partition)) {
+            K key = keyFromCells.apply(cells);
+            Object[] states = groups.statesByKey.get(key);
+            if (states == null) {
+                states = Arrays.copyOfRange(cells, numKeyColumns, cells.length);
+                ramAccountingContext.addBytes(
+                    RamAccountingContext.roundUp(keySizeEstimator.estimateSize(key) + 36L));
+                groups.statesByKey.put(key, states);
+            } else {
+                for (int i = 0; i < aggregations.length; i++) {
+                    //noinspection unchecked
+                    states[i] = aggregations[i].reduce(ramAccountingContext, states[i], cells[numKeyColumns + i]);
+                }
+            }
+        }
+        groups.accountedBytes = ramAccountingContext.totalBytes() - bytesBefore;
+        return groups.statesByKey;
+    }
+
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
         return Iterables.transform(statesByKey.entrySet(), new com.google.common.base.Function<Map.Entry<K, Object[]>, Row>() {
 
@@ -239,6 +385,22 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
 
+    /**
+     * The state of the collector: The in-memory groups and, if spilling happened, the groups spilled to disk.
+     */
+    static final class Groups<K> {
+
+        private final Map<K, Object[]> statesByKey = new HashMap<>();
+
+        @Nullable
+        private PartitionedSpill spill;
+
+        /**
+         * Bytes accounted for the in-memory groups, only tracked if spilling is enabled.
+         */
+        private long accountedBytes = 0;
+    }
+
     private static class MultiSizeEstimator extends SizeEstimator<List<Object>> {
 
         private final List<SizeEstimator<Object>> subEstimators;
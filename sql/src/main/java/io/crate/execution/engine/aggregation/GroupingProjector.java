@@ -27,7 +27,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
-import io.crate.data.Projector;
+import io.crate.data.ListenableBatchIterator;
 import io.crate.data.Row;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.types.DataType;
@@ -35,12 +35,17 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.util.BigArrays;
 
+import javax.annotation.Nullable;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collector;
 
-public class GroupingProjector implements Projector {
-
-    private final GroupingCollector<Object> collector;
+public class GroupingProjector implements AggregationProjector {
 
+    private final Collector<Row, ?, Iterable<Row>> collector;
+    @Nullable
+    private final Runnable releaseResources;
 
     public GroupingProjector(List<? extends DataType> keyTypes,
                              List<Input<?>> keyInputs,
@@ -49,11 +54,11 @@ public class GroupingProjector implements Projector {
                              AggregationContext[] aggregations,
                              RamAccountingContext ramAccountingContext,
                              Version indexVersionCreated,
-                             BigArrays bigArrays) {
+                             BigArrays bigArrays,
+                             @Nullable Path spillDirectory) {
         assert keyTypes.size() == keyInputs.size() : "number of key types must match with number of key inputs";
         assert allTypesKnown(keyTypes) : "must have a known type for each key input";
 
-
         AggregationFunction[] functions = new AggregationFunction[aggregations.length];
         Input[][] inputs = new Input[aggregations.length][];
         for (int i = 0; i < aggregations.length; i++) {
@@ -61,8 +66,21 @@ public class GroupingProjector implements Projector {
             functions[i] = aggregation.function();
             inputs[i] = aggregation.inputs();
         }
-        if (keyInputs.size() == 1) {
-            collector = GroupingCollector.singleKey(
+        if (spillDirectory == null && PrimitiveGroupingCollector.supports(keyTypes, functions)) {
+            PrimitiveGroupingCollector primitiveCollector = new PrimitiveGroupingCollector(
+                collectExpressions,
+                mode,
+                functions,
+                inputs,
+                ramAccountingContext,
+                keyInputs,
+                keyTypes,
+                bigArrays
+            );
+            collector = primitiveCollector;
+            releaseResources = primitiveCollector::releaseGroups;
+        } else if (keyInputs.size() == 1) {
+            GroupingCollector<Object> groupingCollector = GroupingCollector.singleKey(
                 collectExpressions,
                 mode,
                 functions,
@@ -71,11 +89,13 @@ public class GroupingProjector implements Projector {
                 keyInputs.get(0),
                 keyTypes.get(0),
                 indexVersionCreated,
-                bigArrays
+                bigArrays,
+                spillDirectory
             );
+            collector = groupingCollector;
+            releaseResources = spillDirectory == null ? null : groupingCollector::removeSpilledGroups;
         } else {
-            //noinspection unchecked
-            collector = (GroupingCollector<Object>) (GroupingCollector) GroupingCollector.manyKeys(
+            GroupingCollector<List<Object>> groupingCollector = GroupingCollector.manyKeys(
                 collectExpressions,
                 mode,
                 functions,
@@ -84,8 +104,11 @@ public class GroupingProjector implements Projector {
                 keyInputs,
                 keyTypes,
                 indexVersionCreated,
-                bigArrays
+                bigArrays,
+                spillDirectory
             );
+            collector = groupingCollector;
+            releaseResources = spillDirectory == null ? null : groupingCollector::removeSpilledGroups;
         }
     }
 
@@ -95,7 +118,25 @@ public class GroupingProjector implements Projector {
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
-        return CollectingBatchIterator.newInstance(batchIterator, collector);
+        BatchIterator<Row> groupingIterator = CollectingBatchIterator.newInstance(batchIterator, collector);
+        if (releaseResources != null) {
+            CompletableFuture<Void> closed = new CompletableFuture<>();
+            closed.whenComplete((result, failure) -> release());
+            return new ListenableBatchIterator<>(groupingIterator, closed);
+        }
+        return groupingIterator;
+    }
+
+    @Override
+    public Collector<Row, ?, Iterable<Row>> collector() {
+        return collector;
+    }
+
+    @Override
+    public void release() {
+        if (releaseResources != null) {
+            releaseResources.run();
+        }
     }
 
     @Override
@@ -0,0 +1,494 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.BytesRefHash;
+import org.elasticsearch.common.util.LongHash;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Collector implementation which groups rows by keys of fixed-width numeric types.
+ *
+ * <p>
+ * The keys are mapped to dense group ids using open-addressing hash tables backed by {@link BigArrays}:
+ * A {@link LongHash} for a single key, a {@link BytesRefHash} over the packed key values for multiple keys.
+ * The aggregation states are stored in {@link ColumnarStates}, indexed by the group id.
+ * This avoids the per-group boxing and object allocations of {@link GroupingCollector}.
+ * </p>
+ *
+ * Only usable if all aggregations support {@link AggregationFunction#newColumnarStates(BigArrays)}, see
+ * {@link #supports(List, AggregationFunction[])}.
+ * The arrays must be released using {@link #releaseGroups()} once the result has been consumed.
+ */
+final class PrimitiveGroupingCollector implements Collector<Row, PrimitiveGroupingCollector.Groups, Iterable<Row>> {
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final RamAccountingContext ramAccountingContext;
+    private final List<Input<?>> keyInputs;
+    private final List<? extends DataType> keyTypes;
+    private final BigArrays bigArrays;
+    private final List<Groups> groupsToRelease = new ArrayList<>();
+
+    static boolean supports(List<? extends DataType> keyTypes, AggregationFunction[] aggregations) {
+        for (DataType keyType : keyTypes) {
+            if (!isSupportedKeyType(keyType)) {
+                return false;
+            }
+        }
+        for (AggregationFunction aggregation : aggregations) {
+            ColumnarStates states = aggregation.newColumnarStates(BigArrays.NON_RECYCLING_INSTANCE);
+            if (states == null) {
+                return false;
+            }
+            states.close();
+        }
+        return true;
+    }
+
+    private static boolean isSupportedKeyType(DataType keyType) {
+        return DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(keyType) || keyType.equals(DataTypes.TIMESTAMP);
+    }
+
+    PrimitiveGroupingCollector(CollectExpression<Row, ?>[] expressions,
+                               AggregateMode mode,
+                               AggregationFunction[] aggregations,
+                               Input[][] inputs,
+                               RamAccountingContext ramAccountingContext,
+                               List<Input<?>> keyInputs,
+                               List<? extends DataType> keyTypes,
+                               BigArrays bigArrays) {
+        assert supports(keyTypes, aggregations) : "key types and aggregations must be supported";
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.ramAccountingContext = ramAccountingContext;
+        this.keyInputs = keyInputs;
+        this.keyTypes = keyTypes;
+        this.bigArrays = bigArrays;
+    }
+
+    @Override
+    public Supplier<Groups> supplier() {
+        return this::newGroups;
+    }
+
+    @Override
+    public BiConsumer<Groups, Row> accumulator() {
+        return this::onNextRow;
+    }
+
+    @Override
+    public BinaryOperator<Groups> combiner() {
+        return this::combine;
+    }
+
+    @Override
+    public Function<Groups, Iterable<Row>> finisher() {
+        return this::groupsToRows;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private Groups newGroups() {
+        GroupIds groupIds = keyInputs.size() == 1
+            ? new SingleKeyGroupIds(keyInputs.get(0), keyTypes.get(0), bigArrays)
+            : new ManyKeysGroupIds(keyInputs, keyTypes, bigArrays);
+        ColumnarStates[] states = new ColumnarStates[aggregations.length];
+        for (int i = 0; i < aggregations.length; i++) {
+            states[i] = aggregations[i].newColumnarStates(bigArrays);
+        }
+        Groups groups = new Groups(groupIds, states);
+        groupsToRelease.add(groups);
+        return groups;
+    }
+
+    private void onNextRow(Groups groups, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        long groupId = toGroupId(groups, groups.groupIds.addCurrentKey());
+        if (mode == AggregateMode.PARTIAL_FINAL) {
+            for (int i = 0; i < groups.states.length; i++) {
+                groups.states[i].reduce(groupId, inputs[i][0].value());
+            }
+        } else {
+            for (int i = 0; i < groups.states.length; i++) {
+                groups.states[i].iterate(groupId, inputs[i]);
+            }
+        }
+    }
+
+    /**
+     * @param addResult the result of adding a key to {@link GroupIds}; If the group is new its states are created.
+     */
+    private long toGroupId(Groups groups, long addResult) {
+        if (addResult < 0) {
+            return -1 - addResult;
+        }
+        for (ColumnarStates states : groups.states) {
+            states.grow(addResult + 1);
+        }
+        ramAccountingContext.addBytes(groups.bytesPerGroup);
+        return addResult;
+    }
+
+    /**
+     * Merges the groups of {@code groups2} into {@code groups1} and releases {@code groups2}.
+     * The groups may originate from a different PrimitiveGroupingCollector instance with the same aggregations.
+     */
+    private Groups combine(Groups groups1, Groups groups2) {
+        Object[] keyCells = new Object[keyInputs.size()];
+        long maxGroupId = groups2.groupIds.maxGroupId();
+        for (long groupId2 = 0; groupId2 < maxGroupId; groupId2++) {
+            if (groups2.groupIds.keyToCells(groupId2, keyCells) == false) {
+                continue;
+            }
+            long groupId1 = toGroupId(groups1, groups1.groupIds.addKey(keyCells));
+            for (int i = 0; i < groups1.states.length; i++) {
+                groups1.states[i].reduce(groupId1, groups2.states[i].partialResult(groupId2));
+            }
+        }
+        groups2.close();
+        return groups1;
+    }
+
+    private Iterable<Row> groupsToRows(Groups groups) {
+        int numKeyColumns = keyInputs.size();
+        boolean partialResult = mode == AggregateMode.ITER_PARTIAL;
+        return () -> new Iterator<Row>() {
+
+            final long maxGroupId = groups.groupIds.maxGroupId();
+            final Object[] cells = new Object[numKeyColumns + aggregations.length];
+            final RowN row = new RowN(cells);
+            long groupId = -1;
+            boolean advanced = false;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    // keyToCells writes the key of the group into the cells of the row
+                    do {
+                        groupId++;
+                    } while (groupId < maxGroupId && groups.groupIds.keyToCells(groupId, cells) == false);
+                    advanced = true;
+                }
+                return groupId < maxGroupId;
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("Iterator is exhausted");
+                }
+                advanced = false;
+                for (int i = 0; i < groups.states.length; i++) {
+                    ColumnarStates states = groups.states[i];
+                    cells[numKeyColumns + i] = partialResult ? states.partialResult(groupId) : states.finalResult(groupId);
+                }
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Releases the arrays of all groups created by this collector.
+     * The result of the collector must not be used afterwards.
+     */
+    public void releaseGroups() {
+        Releasables.close(groupsToRelease);
+        groupsToRelease.clear();
+    }
+
+    static final class Groups implements Releasable {
+
+        private final GroupIds groupIds;
+        private final ColumnarStates[] states;
+        private final long bytesPerGroup;
+        private boolean closed = false;
+
+        private Groups(GroupIds groupIds, ColumnarStates[] states) {
+            this.groupIds = groupIds;
+            this.states = states;
+            long bytes = groupIds.bytesPerGroup();
+            for (ColumnarStates columnarStates : states) {
+                bytes += columnarStates.bytesPerGroup();
+            }
+            this.bytesPerGroup = bytes;
+        }
+
+        @Override
+        public void close() {
+            if (closed == false) {
+                closed = true;
+                Releasables.close(groupIds, Releasables.wrap(states));
+            }
+        }
+    }
+
+    /**
+     * Maps the keys of the current row to dense group ids.
+     */
+    private abstract static class GroupIds implements Releasable {
+
+        /**
+         * @return the id of the group of the current key if the group is new, otherwise {@code -1 - id}
+         */
+        abstract long addCurrentKey();
+
+        /**
+         * Like {@link #addCurrentKey()} but the key is taken from the first cells
+         */
+        abstract long addKey(Object[] keyCells);
+
+        /**
+         * @return an upper bound (exclusive) of the ids of all groups
+         */
+        abstract long maxGroupId();
+
+        /**
+         * Writes the key of the group into the first cells
+         *
+         * @return false if there is no group with the given id
+         */
+        abstract boolean keyToCells(long groupId, Object[] cells);
+
+        abstract int bytesPerGroup();
+    }
+
+    /**
+     * GroupIds for a single key; The null key is mapped to group 0, the ids of the hash are shifted by one.
+     */
+    private static final class SingleKeyGroupIds extends GroupIds {
+
+        private static final long NULL_KEY_GROUP_ID = 0L;
+
+        private final Input<?> keyInput;
+        private final DataType keyType;
+        private final LongHash hash;
+        private boolean hasNullKey = false;
+
+        SingleKeyGroupIds(Input<?> keyInput, DataType keyType, BigArrays bigArrays) {
+            this.keyInput = keyInput;
+            this.keyType = keyType;
+            this.hash = new LongHash(1, bigArrays);
+        }
+
+        @Override
+        long addCurrentKey() {
+            return add(keyInput.value());
+        }
+
+        @Override
+        long addKey(Object[] keyCells) {
+            return add(keyCells[0]);
+        }
+
+        private long add(Object key) {
+            if (key == null) {
+                if (hasNullKey) {
+                    return -1 - NULL_KEY_GROUP_ID;
+                }
+                hasNullKey = true;
+                return NULL_KEY_GROUP_ID;
+            }
+            long id = hash.add(toLongBits(keyType, key));
+            return id < 0 ? id - 1 : id + 1;
+        }
+
+        @Override
+        long maxGroupId() {
+            return hash.size() + 1;
+        }
+
+        @Override
+        boolean keyToCells(long groupId, Object[] cells) {
+            if (groupId == NULL_KEY_GROUP_ID) {
+                cells[0] = null;
+                return hasNullKey;
+            }
+            cells[0] = fromLongBits(keyType, hash.get(groupId - 1));
+            return true;
+        }
+
+        @Override
+        int bytesPerGroup() {
+            // key and id + the free slots of the table
+            return 32;
+        }
+
+        @Override
+        public void close() {
+            hash.close();
+        }
+    }
+
+    /**
+     * GroupIds for multiple keys. The keys are packed into a fixed width byte sequence:
+     * A marker byte for null values followed by the 8 bytes of the key value for each key.
+     */
+    private static final class ManyKeysGroupIds extends GroupIds {
+
+        private static final int BYTES_PER_KEY = 1 + Long.BYTES;
+
+        private final List<Input<?>> keyInputs;
+        private final List<? extends DataType> keyTypes;
+        private final BytesRefHash hash;
+        private final BytesRef packedKeys;
+        private final BytesRef spare = new BytesRef();
+
+        ManyKeysGroupIds(List<Input<?>> keyInputs, List<? extends DataType> keyTypes, BigArrays bigArrays) {
+            this.keyInputs = keyInputs;
+            this.keyTypes = keyTypes;
+            this.hash = new BytesRefHash(1, bigArrays);
+            this.packedKeys = new BytesRef(new byte[keyInputs.size() * BYTES_PER_KEY]);
+        }
+
+        @Override
+        long addCurrentKey() {
+            for (int i = 0; i < keyInputs.size(); i++) {
+                pack(i, keyInputs.get(i).value());
+            }
+            return hash.add(packedKeys);
+        }
+
+        @Override
+        long addKey(Object[] keyCells) {
+            for (int i = 0; i < keyTypes.size(); i++) {
+                pack(i, keyCells[i]);
+            }
+            return hash.add(packedKeys);
+        }
+
+        private void pack(int keyIdx, Object key) {
+            byte[] bytes = packedKeys.bytes;
+            int offset = keyIdx * BYTES_PER_KEY;
+            if (key == null) {
+                bytes[offset] = 1;
+                writeLong(bytes, offset + 1, 0L);
+            } else {
+                bytes[offset] = 0;
+                writeLong(bytes, offset + 1, toLongBits(keyTypes.get(keyIdx), key));
+            }
+        }
+
+        @Override
+        long maxGroupId() {
+            return hash.size();
+        }
+
+        @Override
+        boolean keyToCells(long groupId, Object[] cells) {
+            BytesRef key = hash.get(groupId, spare);
+            for (int i = 0; i < keyTypes.size(); i++) {
+                int offset = key.offset + i * BYTES_PER_KEY;
+                if (key.bytes[offset] == 1) {
+                    cells[i] = null;
+                } else {
+                    cells[i] = fromLongBits(keyTypes.get(i), readLong(key.bytes, offset + 1));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        int bytesPerGroup() {
+            // packed key + start offset, hash and id + the free slots of the table
+            return packedKeys.length + 32;
+        }
+
+        @Override
+        public void close() {
+            hash.close();
+        }
+
+        private static void writeLong(byte[] bytes, int offset, long value) {
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                bytes[offset + i] = (byte) value;
+                value >>>= 8;
+            }
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            long value = 0L;
+            for (int i = 0; i < Long.BYTES; i++) {
+                value = (value << 8) | (bytes[offset + i] & 0xFFL);
+            }
+            return value;
+        }
+    }
+
+    private static long toLongBits(DataType keyType, Object key) {
+        Number number = (Number) key;
+        switch (keyType.id()) {
+            case DoubleType.ID:
+                return Double.doubleToLongBits(number.doubleValue());
+            case FloatType.ID:
+                return Float.floatToIntBits(number.floatValue());
+            default:
+                return number.longValue();
+        }
+    }
+
+    private static Object fromLongBits(DataType keyType, long bits) {
+        switch (keyType.id()) {
+            case DoubleType.ID:
+                return Double.longBitsToDouble(bits);
+            case FloatType.ID:
+                return Float.intBitsToFloat((int) bits);
+            default:
+                return keyType.value(bits);
+        }
+    }
+}
@@ -28,13 +28,17 @@ import io.crate.data.Input;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.common.util.LongArray;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -203,6 +207,75 @@ public class AverageAggregation extends AggregationFunction<AverageAggregation.A
         return AverageStateType.INSTANCE;
     }
 
+    @Override
+    public ColumnarStates newColumnarStates(BigArrays bigArrays) {
+        return new AverageStates(bigArrays);
+    }
+
+    private static class AverageStates extends ColumnarStates {
+
+        private final BigArrays bigArrays;
+        private DoubleArray sums;
+        private LongArray counts;
+
+        AverageStates(BigArrays bigArrays) {
+            this.bigArrays = bigArrays;
+            this.sums = bigArrays.newDoubleArray(0, true);
+            this.counts = bigArrays.newLongArray(0, true);
+        }
+
+        @Override
+        public void grow(long numGroups) {
+            sums = bigArrays.grow(sums, numGroups);
+            counts = bigArrays.grow(counts, numGroups);
+        }
+
+        @Override
+        public void iterate(long groupId, Input... args) {
+            Number value = (Number) args[0].value();
+            if (value != null) {
+                counts.increment(groupId, 1L);
+                sums.increment(groupId, value.doubleValue());
+            }
+        }
+
+        @Override
+        public void reduce(long groupId, Object partialState) {
+            AverageState state = (AverageState) partialState;
+            if (state != null) {
+                counts.increment(groupId, state.count);
+                sums.increment(groupId, state.sum);
+            }
+        }
+
+        @Override
+        public Object partialResult(long groupId) {
+            AverageState state = new AverageState();
+            state.sum = sums.get(groupId);
+            state.count = counts.get(groupId);
+            return state;
+        }
+
+        @Override
+        public Object finalResult(long groupId) {
+            long count = counts.get(groupId);
+            if (count > 0) {
+                return sums.get(groupId) / count;
+            }
+            return null;
+        }
+
+        @Override
+        public int bytesPerGroup() {
+            return AverageStateType.INSTANCE.fixedSize();
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(sums, counts);
+        }
+    }
+
     @Override
     public FunctionInfo info() {
         return info;
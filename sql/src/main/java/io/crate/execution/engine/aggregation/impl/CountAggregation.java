@@ -36,6 +36,7 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.functions.params.FuncParams;
 import io.crate.metadata.functions.params.Param;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
@@ -43,6 +44,7 @@ import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.LongArray;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
@@ -144,6 +146,63 @@ public class CountAggregation extends AggregationFunction<CountAggregation.LongS
         return state.value;
     }
 
+    @Override
+    public ColumnarStates newColumnarStates(BigArrays bigArrays) {
+        return new CountStates(bigArrays, hasArgs);
+    }
+
+    private static class CountStates extends ColumnarStates {
+
+        private final BigArrays bigArrays;
+        private final boolean hasArgs;
+        private LongArray counts;
+
+        CountStates(BigArrays bigArrays, boolean hasArgs) {
+            this.bigArrays = bigArrays;
+            this.hasArgs = hasArgs;
+            this.counts = bigArrays.newLongArray(0, true);
+        }
+
+        @Override
+        public void grow(long numGroups) {
+            counts = bigArrays.grow(counts, numGroups);
+        }
+
+        @Override
+        public void iterate(long groupId, Input... args) {
+            if (!hasArgs || args[0].value() != null) {
+                counts.increment(groupId, 1L);
+            }
+        }
+
+        @Override
+        public void reduce(long groupId, Object partialState) {
+            if (partialState != null) {
+                counts.increment(groupId, ((LongState) partialState).value);
+            }
+        }
+
+        @Override
+        public Object partialResult(long groupId) {
+            return new LongState(counts.get(groupId));
+        }
+
+        @Override
+        public Object finalResult(long groupId) {
+            return counts.get(groupId);
+        }
+
+        @Override
+        public int bytesPerGroup() {
+            return DataTypes.LONG.fixedSize();
+        }
+
+        @Override
+        public void close() {
+            counts.close();
+        }
+    }
+
     public static class LongState implements Comparable<CountAggregation.LongState> {
 
         long value = 0L;
@@ -30,6 +30,7 @@ import io.crate.exceptions.CircuitBreakingException;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import io.crate.types.FixedWidthType;
@@ -111,6 +112,17 @@ public abstract class MinimumAggregation extends AggregationFunction<Comparable,
             return null;
         }
 
+        @Nullable
+        @Override
+        public ColumnarStates newColumnarStates(BigArrays bigArrays) {
+            return NumericColumnarStates.forType(
+                bigArrays,
+                partialType(),
+                Math::min,
+                (d1, d2) -> Double.compare(d1, d2) <= 0 ? d1 : d2
+            );
+        }
+
         @Override
         public Comparable reduce(RamAccountingContext ramAccountingContext, Comparable state1, Comparable state2) {
             if (state1 == null) {
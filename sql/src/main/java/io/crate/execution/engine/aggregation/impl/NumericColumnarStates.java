@@ -0,0 +1,204 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation.impl;
+
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.ColumnarStates;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.ByteArray;
+import org.elasticsearch.common.util.DoubleArray;
+import org.elasticsearch.common.util.LongArray;
+
+import javax.annotation.Nullable;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Columnar states for aggregations which keep a single numeric value per group and whose partial state is that value.
+ * <p>
+ * Integral values are stored in a {@link LongArray}, floating point values in a {@link DoubleArray}.
+ * The state of a group is null until it received its first value, this is tracked in a separate {@link ByteArray}.
+ * </p>
+ */
+abstract class NumericColumnarStates extends ColumnarStates {
+
+    final BigArrays bigArrays;
+    private final DataType<?> returnType;
+    private ByteArray hasValue;
+
+    /**
+     * @return columnar states for values of the given type or null if the type isn't a fixed width numeric type
+     */
+    @Nullable
+    static NumericColumnarStates forType(BigArrays bigArrays,
+                                         DataType<?> returnType,
+                                         LongBinaryOperator longOperator,
+                                         DoubleBinaryOperator doubleOperator) {
+        if (returnType.equals(DataTypes.DOUBLE) || returnType.equals(DataTypes.FLOAT)) {
+            return new DoubleStates(bigArrays, returnType, doubleOperator);
+        }
+        if (DataTypes.NUMERIC_PRIMITIVE_TYPES.contains(returnType) || returnType.equals(DataTypes.TIMESTAMP)) {
+            return new LongStates(bigArrays, returnType, longOperator);
+        }
+        return null;
+    }
+
+    private NumericColumnarStates(BigArrays bigArrays, DataType<?> returnType) {
+        this.bigArrays = bigArrays;
+        this.returnType = returnType;
+        this.hasValue = bigArrays.newByteArray(0, true);
+    }
+
+    @Override
+    public void grow(long numGroups) {
+        hasValue = bigArrays.grow(hasValue, numGroups);
+        growValues(numGroups);
+    }
+
+    @Override
+    public void iterate(long groupId, Input... args) {
+        reduce(groupId, args[0].value());
+    }
+
+    @Override
+    public void reduce(long groupId, Object partialState) {
+        if (partialState == null) {
+            return;
+        }
+        Number value = (Number) partialState;
+        if (hasValue.get(groupId) == 0) {
+            hasValue.set(groupId, (byte) 1);
+            setValue(groupId, value);
+        } else {
+            applyValue(groupId, value);
+        }
+    }
+
+    @Override
+    public Object partialResult(long groupId) {
+        return finalResult(groupId);
+    }
+
+    @Override
+    public Object finalResult(long groupId) {
+        if (hasValue.get(groupId) == 0) {
+            return null;
+        }
+        return returnType.value(getValue(groupId));
+    }
+
+    @Override
+    public int bytesPerGroup() {
+        return 1 + DataTypes.LONG.fixedSize();
+    }
+
+    abstract void growValues(long numGroups);
+
+    abstract void setValue(long groupId, Number value);
+
+    abstract void applyValue(long groupId, Number value);
+
+    abstract Number getValue(long groupId);
+
+    private static class LongStates extends NumericColumnarStates {
+
+        private final LongBinaryOperator operator;
+        private LongArray values;
+
+        LongStates(BigArrays bigArrays, DataType<?> returnType, LongBinaryOperator operator) {
+            super(bigArrays, returnType);
+            this.operator = operator;
+            this.values = bigArrays.newLongArray(0, false);
+        }
+
+        @Override
+        void growValues(long numGroups) {
+            values = bigArrays.grow(values, numGroups);
+        }
+
+        @Override
+        void setValue(long groupId, Number value) {
+            values.set(groupId, value.longValue());
+        }
+
+        @Override
+        void applyValue(long groupId, Number value) {
+            values.set(groupId, operator.applyAsLong(values.get(groupId), value.longValue()));
+        }
+
+        @Override
+        Number getValue(long groupId) {
+            return values.get(groupId);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(values, super::close);
+        }
+    }
+
+    private static class DoubleStates extends NumericColumnarStates {
+
+        private final DoubleBinaryOperator operator;
+        private DoubleArray values;
+
+        DoubleStates(BigArrays bigArrays, DataType<?> returnType, DoubleBinaryOperator operator) {
+            super(bigArrays, returnType);
+            this.operator = operator;
+            this.values = bigArrays.newDoubleArray(0, false);
+        }
+
+        @Override
+        void growValues(long numGroups) {
+            values = bigArrays.grow(values, numGroups);
+        }
+
+        @Override
+        void setValue(long groupId, Number value) {
+            values.set(groupId, value.doubleValue());
+        }
+
+        @Override
+        void applyValue(long groupId, Number value) {
+            values.set(groupId, operator.applyAsDouble(values.get(groupId), value.doubleValue()));
+        }
+
+        @Override
+        Number getValue(long groupId) {
+            return values.get(groupId);
+        }
+
+        @Override
+        public void close() {
+            Releasables.close(values, super::close);
+        }
+    }
+
+    @Override
+    public void close() {
+        hasValue.close();
+    }
+}
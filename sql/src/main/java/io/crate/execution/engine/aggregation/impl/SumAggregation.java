@@ -27,6 +27,7 @@ import io.crate.data.Input;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionInfo;
 import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.ColumnarStates;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
@@ -36,6 +37,7 @@ import org.elasticsearch.common.util.BigArrays;
 import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
 
 public class SumAggregation<T extends Number> extends AggregationFunction<T, T> {
 
@@ -117,6 +119,15 @@ public class SumAggregation<T extends Number> extends AggregationFunction<T, T>
         return state;
     }
 
+    @Nullable
+    @Override
+    public ColumnarStates newColumnarStates(BigArrays bigArrays) {
+        DoubleBinaryOperator doubleAddition = returnType == DataTypes.FLOAT
+            ? (d1, d2) -> (float) d1 + (float) d2
+            : Double::sum;
+        return NumericColumnarStates.forType(bigArrays, returnType, Math::addExact, doubleAddition);
+    }
+
     @Override
     public DataType partialType() {
         return info.returnType();
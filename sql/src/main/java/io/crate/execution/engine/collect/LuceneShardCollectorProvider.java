@@ -21,12 +21,16 @@
 
 package io.crate.execution.engine.collect;
 
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.execution.engine.aggregation.AggregationProjector;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.execution.engine.sort.LuceneSortGenerator;
 import io.crate.analyze.symbol.Symbols;
 import io.crate.execution.TransportActionProvider;
 import io.crate.lucene.FieldTypeLookup;
 import io.crate.lucene.LuceneQueryBuilder;
+import io.crate.lucene.ZoneMap;
 import io.crate.metadata.Functions;
 import io.crate.metadata.Schemas;
 import io.crate.metadata.doc.DocSysColumns;
@@ -35,16 +39,20 @@ import io.crate.execution.expression.InputFactory;
 import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.engine.collect.collectors.CollectorFieldsVisitor;
 import io.crate.execution.engine.collect.collectors.CrateDocCollectorBuilder;
+import io.crate.execution.engine.collect.collectors.LuceneBatchIterator;
 import io.crate.execution.engine.collect.collectors.LuceneOrderedDocCollector;
 import io.crate.execution.engine.collect.collectors.OptimizeQueryForSearchAfter;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
+import io.crate.execution.engine.collect.collectors.ParallelAggregationCollectorBuilder;
 import io.crate.execution.expression.reference.doc.lucene.CollectorContext;
 import io.crate.execution.expression.reference.doc.lucene.LuceneCollectorExpression;
 import io.crate.execution.expression.reference.doc.lucene.LuceneReferenceResolver;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.index.IndexService;
@@ -53,17 +61,36 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 
 public class LuceneShardCollectorProvider extends ShardCollectorProvider {
 
     private static final Logger LOGGER = Loggers.getLogger(LuceneShardCollectorProvider.class);
 
+    public static final Setting<Integer> PARALLEL_AGGREGATION_MAX_SLICES_SETTING = Setting.intSetting(
+        "node.sql.parallel_aggregation.max_slices",
+        4,
+        1,
+        Setting.Property.NodeScope);
+
+    /**
+     * Minimum number of documents per slice of a parallel aggregation;
+     * Smaller slices are not worth the overhead of using another thread.
+     */
+    private static final long MIN_DOCS_PER_SLICE = 100_000L;
+
     private final Supplier<String> localNodeId;
     private final LuceneQueryBuilder luceneQueryBuilder;
     private final IndexShard indexShard;
     private final DocInputFactory docInputFactory;
     private final FieldTypeLookup fieldTypeLookup;
+    private final int maxParallelAggregationSlices;
+    private final Executor searchExecutor;
 
     public LuceneShardCollectorProvider(Schemas schemas,
                                         LuceneQueryBuilder luceneQueryBuilder,
@@ -81,6 +108,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         this.indexShard = indexShard;
         this.localNodeId = () -> clusterService.localNode().getId();
         fieldTypeLookup = indexShard.mapperService()::fullName;
+        this.maxParallelAggregationSlices = PARALLEL_AGGREGATION_MAX_SLICES_SETTING.get(settings);
+        this.searchExecutor = threadPool.executor(ThreadPool.Names.SEARCH);
         this.docInputFactory = new DocInputFactory(functions,
             fieldTypeLookup,
             new LuceneReferenceResolver(fieldTypeLookup, indexShard.indexSettings()));
@@ -102,6 +131,16 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                 indexShard.indexFieldDataService(),
                 sharedShardContext.indexService().cache()
             );
+            List<LeafReaderContext> leaves = ZoneMap.of(queryContext.query())
+                .matchingLeaves(searcher.searcher().getTopReaderContext().leaves());
+            if (leaves.isEmpty()) {
+                if (LOGGER.isTraceEnabled()) {
+                    LOGGER.trace("[{}][{}] skipping shard, no segment can match the query",
+                        indexShard.routingEntry().currentNodeId(), shardId);
+                }
+                searcher.close();
+                return RowsCollector.emptyBuilder();
+            }
             jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
             InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
                 docInputFactory.extractImplementations(collectPhase);
@@ -114,8 +153,89 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
                 getCollectorContext(sharedShardContext.readerId(), docCtx),
                 jobCollectContext.queryPhaseRamAccountingContext(),
                 docCtx.topLevelInputs(),
-                docCtx.expressions()
+                docCtx.expressions(),
+                leaves
             );
+        } catch (IOException e) {
+            searcher.close();
+            throw new RuntimeException(e);
+        } catch (Throwable t) {
+            searcher.close();
+            throw t;
+        }
+    }
+
+    @Nullable
+    @Override
+    protected CrateCollector.Builder getParallelAggregationBuilder(RoutedCollectPhase collectPhase,
+                                                                   JobCollectContext jobCollectContext,
+                                                                   Supplier<AggregationProjector> aggregationProjectorFactory) {
+        if (maxParallelAggregationSlices < 2) {
+            return null;
+        }
+        ShardId shardId = indexShard.shardId();
+        SharedShardContext sharedShardContext = jobCollectContext.sharedShardContexts().getOrCreateContext(shardId);
+        Engine.Searcher searcher = sharedShardContext.acquireSearcher();
+        IndexShard indexShard = sharedShardContext.indexShard();
+        try {
+            LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
+                collectPhase.whereClause(),
+                indexShard.mapperService(),
+                sharedShardContext.indexService().newQueryShardContext(shardId.getId(), searcher.reader(), System::currentTimeMillis),
+                indexShard.indexFieldDataService(),
+                sharedShardContext.indexService().cache()
+            );
+            List<List<LeafReaderContext>> slices = ParallelAggregationCollectorBuilder.slices(
+                ZoneMap.of(queryContext.query()).matchingLeaves(searcher.searcher().getTopReaderContext().leaves()),
+                leaf -> leaf.reader().maxDoc(),
+                maxParallelAggregationSlices,
+                MIN_DOCS_PER_SLICE
+            );
+            if (slices.size() < 2) {
+                searcher.close();
+                return null;
+            }
+            jobCollectContext.addSearcher(sharedShardContext.readerId(), searcher);
+            boolean doScores = Symbols.containsColumn(collectPhase.toCollect(), DocSysColumns.SCORE);
+
+            List<BatchIterator<Row>> sources = new ArrayList<>(slices.size());
+            List<AggregationProjector> projectors = new ArrayList<>(slices.size());
+            for (int i = 0; i < slices.size(); i++) {
+                // each slice is consumed by another thread, so it requires its own expressions and projector.
+                // The query is converted per slice as well: a GenericFunctionQuery holds expressions which are
+                // positioned on the current document and must not be shared between threads.
+                LuceneQueryBuilder.Context sliceQueryContext = i == 0
+                    ? queryContext
+                    : luceneQueryBuilder.convert(
+                        collectPhase.whereClause(),
+                        indexShard.mapperService(),
+                        sharedShardContext.indexService().newQueryShardContext(shardId.getId(), searcher.reader(), System::currentTimeMillis),
+                        indexShard.indexFieldDataService(),
+                        sharedShardContext.indexService().cache()
+                    );
+                InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                    docInputFactory.extractImplementations(collectPhase);
+                sources.add(new LuceneBatchIterator(
+                    searcher.searcher(),
+                    sliceQueryContext.query(),
+                    sliceQueryContext.minScore(),
+                    doScores,
+                    getCollectorContext(sharedShardContext.readerId(), docCtx),
+                    jobCollectContext.queryPhaseRamAccountingContext(),
+                    docCtx.topLevelInputs(),
+                    docCtx.expressions(),
+                    slices.get(i)
+                ));
+                projectors.add(aggregationProjectorFactory.get());
+            }
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("[{}][{}] aggregating {} segments in {} parallel slices",
+                    indexShard.routingEntry().currentNodeId(), shardId, searcher.reader().leaves().size(), slices.size());
+            }
+            return new ParallelAggregationCollectorBuilder(sources, projectors, searchExecutor);
+        } catch (IOException e) {
+            searcher.close();
+            throw new RuntimeException(e);
         } catch (Throwable t) {
             searcher.close();
             throw t;
@@ -22,6 +22,7 @@
 
 package io.crate.execution.engine.collect;
 
+import com.google.common.collect.Iterables;
 import io.crate.execution.jobs.SharedShardContext;
 import io.crate.analyze.EvaluatingNormalizer;
 import io.crate.data.Input;
@@ -33,12 +34,15 @@ import io.crate.metadata.ReferenceImplementation;
 import io.crate.metadata.RowGranularity;
 import io.crate.execution.expression.InputFactory;
 import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.engine.aggregation.AggregationProjector;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
 import io.crate.execution.expression.reference.ReferenceResolver;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -48,8 +52,10 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
 public abstract class ShardCollectorProvider {
 
@@ -125,30 +131,50 @@ public abstract class ShardCollectorProvider {
         assert collectPhase.orderBy() ==
                null : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
         RoutedCollectPhase normalizedCollectNode = collectPhase.normalize(shardNormalizer, null);
+        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
 
-        final CrateCollector.Builder builder;
+        CrateCollector.Builder builder = null;
         if (normalizedCollectNode.whereClause().noMatch()) {
             builder = RowsCollector.emptyBuilder();
         } else {
             assert normalizedCollectNode.maxRowGranularity() == RowGranularity.DOC : "granularity must be DOC";
-            builder = getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext);
+            Projection firstProjection = Iterables.getFirst(shardProjections, null);
+            if (firstProjection != null && supportsParallelAggregation(firstProjection)) {
+                builder = getParallelAggregationBuilder(
+                    normalizedCollectNode,
+                    jobCollectContext,
+                    () -> (AggregationProjector) projectorFactory.create(
+                        firstProjection,
+                        jobCollectContext.queryPhaseRamAccountingContext(),
+                        normalizedCollectNode.jobId()
+                    )
+                );
+                if (builder != null) {
+                    // the aggregation is done by the builder
+                    shardProjections = new ArrayList<>(shardProjections).subList(1, shardProjections.size());
+                }
+            }
+            if (builder == null) {
+                builder = getBuilder(normalizedCollectNode, requiresScroll, jobCollectContext);
+            }
         }
 
-        Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
         if (shardProjections.isEmpty()) {
             return builder;
         } else {
+            final CrateCollector.Builder collectorBuilder = builder;
+            final Collection<? extends Projection> projectionsToApply = shardProjections;
             return new CrateCollector.Builder() {
                 @Override
                 public CrateCollector build(RowConsumer rowConsumer) {
-                    return builder.build(rowConsumer);
+                    return collectorBuilder.build(rowConsumer);
                 }
 
                 @Override
                 public RowConsumer applyProjections(RowConsumer consumer) {
                     return ProjectingRowConsumer.create(
                         consumer,
-                        shardProjections,
+                        projectionsToApply,
                         normalizedCollectNode.jobId(),
                         jobCollectContext.queryPhaseRamAccountingContext(),
                         projectorFactory
@@ -162,6 +188,27 @@ public abstract class ShardCollectorProvider {
                                                          boolean requiresScroll,
                                                          JobCollectContext jobCollectContext);
 
+    private static boolean supportsParallelAggregation(Projection projection) {
+        if (projection instanceof GroupProjection) {
+            // spilled groups cannot be combined
+            return ((GroupProjection) projection).spillToDisk() == false;
+        }
+        return projection instanceof AggregationProjection;
+    }
+
+    /**
+     * Create a CrateCollector.Builder which collects the rows of a shard in multiple parallel slices and aggregates
+     * them using the projectors created by {@code aggregationProjectorFactory}.
+     *
+     * @return the builder or null if the shard shouldn't be collected in parallel
+     */
+    @Nullable
+    protected CrateCollector.Builder getParallelAggregationBuilder(RoutedCollectPhase collectPhase,
+                                                                   JobCollectContext jobCollectContext,
+                                                                   Supplier<AggregationProjector> aggregationProjectorFactory) {
+        return null;
+    }
+
 
     public abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                             SharedShardContext sharedShardContext,
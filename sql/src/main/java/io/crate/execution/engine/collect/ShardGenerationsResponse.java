@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.transport.TransportResponse;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ShardGenerationsResponse extends TransportResponse {
+
+    private Map<ShardId, Long> generations;
+
+    ShardGenerationsResponse() {
+    }
+
+    ShardGenerationsResponse(Map<ShardId, Long> generations) {
+        this.generations = generations;
+    }
+
+    Map<ShardId, Long> generations() {
+        return generations;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        int numShards = in.readVInt();
+        generations = new HashMap<>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            generations.put(ShardId.readShardId(in), in.readLong());
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeVInt(generations.size());
+        for (Map.Entry<ShardId, Long> entry : generations.entrySet()) {
+            entry.getKey().writeTo(out);
+            out.writeLong(entry.getValue());
+        }
+    }
+}
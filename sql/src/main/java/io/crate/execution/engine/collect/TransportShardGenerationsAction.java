@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import io.crate.action.FutureActionListener;
+import io.crate.execution.support.MultiActionListener;
+import io.crate.execution.support.NodeAction;
+import io.crate.execution.support.NodeActionRequestHandler;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IllegalIndexShardStateException;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Retrieves the generation of the searchable data of shards.
+ *
+ * The generation is the version of the index reader which is currently used to search a shard.
+ * It changes whenever a refresh makes changes visible, so two equal generations of a shard copy imply that
+ * a query returns the same result.
+ */
+@Singleton
+public class TransportShardGenerationsAction implements NodeAction<ShardGenerationsRequest, ShardGenerationsResponse> {
+
+    /**
+     * Generation of a shard which isn't available on the node or whose reader doesn't have a version
+     */
+    public static final long UNKNOWN_GENERATION = -1L;
+
+    private static final String ACTION_NAME = "crate/sql/shard_generations";
+
+    private final TransportService transportService;
+    private final ClusterService clusterService;
+    private final IndicesService indicesService;
+
+    @Inject
+    public TransportShardGenerationsAction(TransportService transportService,
+                                           ClusterService clusterService,
+                                           IndicesService indicesService) {
+        this.transportService = transportService;
+        this.clusterService = clusterService;
+        this.indicesService = indicesService;
+        transportService.registerRequestHandler(
+            ACTION_NAME,
+            ShardGenerationsRequest::new,
+            ThreadPool.Names.GENERIC,
+            new NodeActionRequestHandler<>(this));
+    }
+
+    @Override
+    public CompletableFuture<ShardGenerationsResponse> nodeOperation(ShardGenerationsRequest request) {
+        Map<ShardId, Long> generations = new HashMap<>(request.shardIds().size());
+        for (ShardId shardId : request.shardIds()) {
+            generations.put(shardId, generation(shardId));
+        }
+        return CompletableFuture.completedFuture(new ShardGenerationsResponse(generations));
+    }
+
+    private long generation(ShardId shardId) {
+        IndexService indexService = indicesService.indexService(shardId.getIndex());
+        if (indexService == null) {
+            return UNKNOWN_GENERATION;
+        }
+        IndexShard shard = indexService.getShardOrNull(shardId.id());
+        if (shard == null) {
+            return UNKNOWN_GENERATION;
+        }
+        try (Engine.Searcher searcher = shard.acquireSearcher("shard-generations")) {
+            IndexReader reader = searcher.reader();
+            if (reader instanceof DirectoryReader) {
+                return ((DirectoryReader) reader).getVersion();
+            }
+            return UNKNOWN_GENERATION;
+        } catch (IllegalIndexShardStateException | AlreadyClosedException e) {
+            return UNKNOWN_GENERATION;
+        }
+    }
+
+    /**
+     * Retrieves the generations of the given shards from the nodes holding them.
+     *
+     * @param shardIdsByNodeId the shards to retrieve the generation of, grouped by the id of the node holding the copy
+     *                         whose generation should be retrieved.
+     * @return the generations by shard.
+     *         Shards which aren't available on the given node have the generation {@link #UNKNOWN_GENERATION}
+     */
+    public CompletableFuture<Map<ShardId, Long>> generations(Map<String, List<ShardId>> shardIdsByNodeId) {
+        FutureActionListener<Map<ShardId, Long>, Map<ShardId, Long>> future = FutureActionListener.newInstance();
+        MultiActionListener<ShardGenerationsResponse, Map<ShardId, Long>, Map<ShardId, Long>> multiListener =
+            new MultiActionListener<>(
+                shardIdsByNodeId.size(),
+                HashMap::new,
+                (generations, response) -> generations.putAll(response.generations()),
+                Function.identity(),
+                future
+            );
+        TransportResponseHandler<ShardGenerationsResponse> responseHandler =
+            new ActionListenerResponseHandler<>(multiListener, ShardGenerationsResponse::new);
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        for (Map.Entry<String, List<ShardId>> entry : shardIdsByNodeId.entrySet()) {
+            DiscoveryNode node = nodes.get(entry.getKey());
+            if (node == null) {
+                Map<ShardId, Long> unknownGenerations = new HashMap<>(entry.getValue().size());
+                for (ShardId shardId : entry.getValue()) {
+                    unknownGenerations.put(shardId, UNKNOWN_GENERATION);
+                }
+                multiListener.onResponse(new ShardGenerationsResponse(unknownGenerations));
+                continue;
+            }
+            transportService.sendRequest(node, ACTION_NAME, new ShardGenerationsRequest(entry.getValue()), responseHandler);
+        }
+        return future;
+    }
+}
@@ -85,6 +85,32 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
                         RamAccountingContext ramAccountingContext,
                         List<? extends Input<?>> inputs,
                         Collection<? extends LuceneCollectorExpression<?>> expressions) {
+        this(
+            indexSearcher,
+            query,
+            minScore,
+            doScores,
+            collectorContext,
+            ramAccountingContext,
+            inputs,
+            expressions,
+            indexSearcher.getTopReaderContext().leaves()
+        );
+    }
+
+    /**
+     * Creates a LuceneBatchIterator which only exposes the documents of the given {@code leaves}.
+     * Multiple such iterators can be consumed concurrently as long as each uses its own inputs and expressions.
+     */
+    public LuceneBatchIterator(IndexSearcher indexSearcher,
+                               Query query,
+                               @Nullable Float minScore,
+                               boolean doScores,
+                               CollectorContext collectorContext,
+                               RamAccountingContext ramAccountingContext,
+                               List<? extends Input<?>> inputs,
+                               Collection<? extends LuceneCollectorExpression<?>> expressions,
+                               List<LeafReaderContext> leaves) {
         this.indexSearcher = indexSearcher;
         this.query = query;
         this.doScores = doScores || minScore != null;
@@ -94,7 +120,7 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
         this.ramAccountingContext = ramAccountingContext;
         this.row = new InputRow(inputs);
         this.expressions = expressions.toArray(new LuceneCollectorExpression[0]);
-        leaves = indexSearcher.getTopReaderContext().leaves();
+        this.leaves = leaves;
         leavesIt = leaves.iterator();
     }
 
@@ -134,6 +160,8 @@ public class LuceneBatchIterator implements BatchIterator<Row> {
             int doc;
             while ((doc = currentDocIdSetIt.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
                 if (docDeleted(liveDocs, doc) || belowMinScore(currentScorer)) {
+                    // a single moveNext call may skip a lot of documents, stop early if the job got killed
+                    raiseIfClosedOrKilled();
                     continue;
                 }
                 onDoc(doc, reader);
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.ListenableBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.execution.engine.aggregation.AggregationProjector;
+import io.crate.execution.engine.collect.BatchIteratorCollectorBridge;
+import io.crate.execution.engine.collect.CrateCollector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Builds a collector which aggregates several sources (e.g. slices of the segments of a shard) concurrently.
+ * <p>
+ * Each source is aggregated by its own projector into partial states on the {@code executor}; the states are then
+ * merged and the merged result is passed to the consumer.
+ * </p>
+ * The projectors must have been created for the same aggregation projection.
+ */
+public class ParallelAggregationCollectorBuilder implements CrateCollector.Builder {
+
+    private final List<? extends BatchIterator<Row>> sources;
+    private final List<? extends AggregationProjector> projectors;
+    private final Executor executor;
+
+    public ParallelAggregationCollectorBuilder(List<? extends BatchIterator<Row>> sources,
+                                               List<? extends AggregationProjector> projectors,
+                                               Executor executor) {
+        assert sources.size() == projectors.size() : "Must have one projector per source";
+        this.sources = sources;
+        this.projectors = projectors;
+        this.executor = executor;
+    }
+
+    @Override
+    public CrateCollector build(RowConsumer consumer) {
+        List<Collector<Row, Object, Iterable<Row>>> collectors = new ArrayList<>(projectors.size());
+        for (AggregationProjector projector : projectors) {
+            //noinspection unchecked
+            collectors.add((Collector<Row, Object, Iterable<Row>>) projector.collector());
+        }
+        CompletableFuture<Void> closed = new CompletableFuture<>();
+        closed.whenComplete((result, failure) -> {
+            for (AggregationProjector projector : projectors) {
+                projector.release();
+            }
+        });
+        BatchIterator<Row> aggregatingIterator = new ListenableBatchIterator<>(
+            CollectingBatchIterator.newInstance(sources, collectors, executor),
+            closed
+        );
+        return BatchIteratorCollectorBridge.newInstance(aggregatingIterator, consumer);
+    }
+
+    /**
+     * Partitions {@code items} into at most {@code maxSlices} slices of a similar size.
+     * <p>
+     * Slices are only created if they contain at least {@code minSliceSize}, so small inputs result in a single slice.
+     * The items are assigned greedily, largest first, to the slice with the smallest size.
+     * </p>
+     */
+    public static <T> List<List<T>> slices(List<T> items, ToLongFunction<T> size, int maxSlices, long minSliceSize) {
+        long totalSize = 0;
+        for (T item : items) {
+            totalSize += size.applyAsLong(item);
+        }
+        int numSlices = (int) Math.min(Math.min(maxSlices, items.size()), Math.max(1L, totalSize / minSliceSize));
+        List<List<T>> slices = new ArrayList<>(numSlices);
+        long[] sliceSizes = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<>());
+        }
+        List<T> sortedItems = new ArrayList<>(items);
+        sortedItems.sort(Comparator.comparingLong(size).reversed());
+        for (T item : sortedItems) {
+            int smallestSlice = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (sliceSizes[i] < sliceSizes[smallestSlice]) {
+                    smallestSlice = i;
+                }
+            }
+            slices.get(smallestSlice).add(item);
+            sliceSizes[smallestSlice] += size.applyAsLong(item);
+        }
+        slices.removeIf(List::isEmpty);
+        return slices;
+    }
+}
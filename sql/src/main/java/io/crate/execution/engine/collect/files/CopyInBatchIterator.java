@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.concurrent.CompletableFutures;
+import io.crate.data.BatchIterator;
+import io.crate.data.CloseAssertingBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.execution.expression.InputRow;
+import io.crate.execution.expression.reference.file.LineContext;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * BatchIterator over the lines a client streams using {@code COPY ... FROM STDIN}.
+ *
+ * A batch consists of the lines which are buffered in the {@link CopyInSource};
+ * {@link #loadNextBatch()} waits for the client to send more data.
+ */
+public class CopyInBatchIterator implements BatchIterator<Row> {
+
+    private final CopyInSource source;
+    private final UnaryOperator<byte[]> lineParser;
+    private final Iterable<LineCollectorExpression<?>> collectorExpressions;
+    private final Row row;
+    private LineContext lineContext;
+
+    private CopyInBatchIterator(CopyInSource source,
+                                UnaryOperator<byte[]> lineParser,
+                                List<? extends Input<?>> inputs,
+                                Iterable<LineCollectorExpression<?>> collectorExpressions) {
+        this.source = source;
+        this.lineParser = lineParser;
+        this.collectorExpressions = collectorExpressions;
+        this.row = new InputRow(inputs);
+        initCollectorState();
+    }
+
+    /**
+     * @param lineParser converts a received line into a JSON object; may return null to skip a line.
+     */
+    public static BatchIterator<Row> newInstance(CopyInSource source,
+                                                 UnaryOperator<byte[]> lineParser,
+                                                 List<? extends Input<?>> inputs,
+                                                 Iterable<LineCollectorExpression<?>> collectorExpressions) {
+        return new CloseAssertingBatchIterator<>(
+            new CopyInBatchIterator(source, lineParser, inputs, collectorExpressions));
+    }
+
+    private void initCollectorState() {
+        lineContext = new LineContext();
+        for (LineCollectorExpression<?> collectorExpression : collectorExpressions) {
+            collectorExpression.startCollect(lineContext);
+        }
+    }
+
+    @Override
+    public Row currentElement() {
+        return row;
+    }
+
+    @Override
+    public void moveToStart() {
+        throw new UnsupportedOperationException("COPY FROM STDIN cannot be read twice");
+    }
+
+    @Override
+    public boolean moveNext() {
+        byte[] line;
+        while ((line = source.poll()) != null) {
+            byte[] json = lineParser.apply(line);
+            if (json != null && json.length > 0) {
+                lineContext.rawSource(json);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CompletableFuture<?> loadNextBatch() {
+        try {
+            if (source.isExhausted()) {
+                return CompletableFutures.failedFuture(new IllegalStateException("All batches already loaded"));
+            }
+        } catch (Throwable t) {
+            return CompletableFutures.failedFuture(t);
+        }
+        return source.dataAvailable();
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return source.isExhausted();
+    }
+
+    @Override
+    public void kill(@Nonnull Throwable throwable) {
+        source.fail(throwable);
+    }
+}
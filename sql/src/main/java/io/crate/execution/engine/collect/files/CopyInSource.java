@@ -0,0 +1,215 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Buffer between the PostgreSQL {@code COPY ... FROM STDIN} sub-protocol and the collect phase
+ * that indexes the received rows.
+ *
+ * The protocol handler {@link #write(byte[], int, int)}s the payloads of the CopyData messages as they arrive.
+ * They're split into lines here, regardless of the message boundaries, and polled by a {@link CopyInBatchIterator}.
+ * In the {@code csv} format a line ends at the first newline outside of a quoted value, so a record
+ * may span several physical lines; the quote state is carried across the messages.
+ *
+ * If more than {@code maxBufferedBytes} are queued {@code pauseReads} is called with {@code true} so
+ * that the handler can stop reading from the client; it's called with {@code false} once the consumer drained
+ * the queue below half of the limit.
+ */
+public class CopyInSource {
+
+    private final ArrayDeque<byte[]> lines = new ArrayDeque<>();
+    private final ByteArrayOutputStream remainder = new ByteArrayOutputStream();
+    private final Consumer<Boolean> pauseReads;
+    private final long maxBufferedBytes;
+    private final boolean csv;
+
+    private long bufferedBytes = 0;
+    private boolean paused = false;
+    private boolean finished = false;
+    private boolean inQuotes = false;
+    @Nullable
+    private Throwable failure;
+    private CompletableFuture<Void> dataAvailable = new CompletableFuture<>();
+
+    public CopyInSource(long maxBufferedBytes, boolean csv, Consumer<Boolean> pauseReads) {
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.csv = csv;
+        this.pauseReads = pauseReads;
+    }
+
+    public void write(byte[] data, int offset, int length) {
+        boolean pause = false;
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            int start = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                // an escaped quote ("") toggles the state twice; '"' is never part of a multi-byte UTF-8 sequence
+                if (csv && data[i] == '"') {
+                    inQuotes = !inQuotes;
+                } else if (data[i] == '\n' && !inQuotes) {
+                    addLine(data, start, i);
+                    start = i + 1;
+                }
+            }
+            remainder.write(data, start, end - start);
+            if (!paused && bufferedBytes > maxBufferedBytes) {
+                paused = true;
+                pause = true;
+            }
+            toComplete = lines.isEmpty() ? null : dataAvailable;
+        }
+        if (pause) {
+            pauseReads.accept(true);
+        }
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+
+    private void addLine(byte[] data, int start, int end) {
+        byte[] line;
+        if (remainder.size() > 0) {
+            remainder.write(data, start, end - start);
+            line = remainder.toByteArray();
+            remainder.reset();
+        } else {
+            line = Arrays.copyOfRange(data, start, end);
+        }
+        int length = line.length;
+        if (length > 0 && line[length - 1] == '\r') {
+            line = Arrays.copyOf(line, length - 1);
+        }
+        // PostgreSQL clients may terminate the text format with an end-of-data marker
+        if (line.length == 2 && line[0] == '\\' && line[1] == '.') {
+            return;
+        }
+        lines.add(line);
+        bufferedBytes += line.length;
+    }
+
+    /**
+     * Marks the end of the input; called once the client sent CopyDone.
+     */
+    public void finish() {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            if (remainder.size() > 0) {
+                byte[] last = remainder.toByteArray();
+                remainder.reset();
+                addLine(last, 0, last.length);
+            }
+            finished = true;
+            toComplete = dataAvailable;
+        }
+        toComplete.complete(null);
+    }
+
+    /**
+     * Aborts the input; called if the client sent CopyFail or disconnected.
+     */
+    public void fail(Throwable t) {
+        CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            failure = t;
+            finished = true;
+            lines.clear();
+            remainder.reset();
+            bufferedBytes = 0;
+            toComplete = dataAvailable;
+        }
+        toComplete.complete(null);
+        pauseReads.accept(false);
+    }
+
+    /**
+     * @return the next line or null if no line is buffered at the moment.
+     * @throws RuntimeException if the input was aborted
+     */
+    @Nullable
+    byte[] poll() {
+        boolean resume = false;
+        byte[] line;
+        synchronized (this) {
+            raiseIfFailed();
+            line = lines.poll();
+            if (line != null) {
+                bufferedBytes -= line.length;
+                if (paused && bufferedBytes < maxBufferedBytes / 2) {
+                    paused = false;
+                    resume = true;
+                }
+            }
+        }
+        if (resume) {
+            pauseReads.accept(false);
+        }
+        return line;
+    }
+
+    /**
+     * @return true if the input is complete and all lines have been consumed
+     */
+    synchronized boolean isExhausted() {
+        raiseIfFailed();
+        return finished && lines.isEmpty();
+    }
+
+    /**
+     * @return a future which completes as soon as new lines are available or the input is complete.
+     */
+    synchronized CompletableFuture<Void> dataAvailable() {
+        if (!lines.isEmpty() || finished) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (dataAvailable.isDone()) {
+            dataAvailable = new CompletableFuture<>();
+        }
+        return dataAvailable;
+    }
+
+    private void raiseIfFailed() {
+        if (failure != null) {
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw new RuntimeException(failure);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import org.elasticsearch.common.inject.Singleton;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hands the {@link CopyInSource} of a {@code COPY ... FROM STDIN} statement from the session which
+ * receives the data to the collect phase of the job which indexes it.
+ * Both run on the handler node.
+ */
+@Singleton
+public class CopyInSources {
+
+    private final Map<UUID, Entry> sources = new ConcurrentHashMap<>();
+
+    public void register(UUID jobId, CopyInSource source, UnaryOperator<byte[]> lineParser) {
+        sources.put(jobId, new Entry(source, lineParser));
+    }
+
+    public void unregister(UUID jobId) {
+        sources.remove(jobId);
+    }
+
+    /**
+     * Creates the iterator for the source registered for the job and removes the registration.
+     *
+     * @return the iterator or null if there is no source registered for the job
+     */
+    @Nullable
+    public BatchIterator<Row> createIterator(UUID jobId,
+                                             List<? extends Input<?>> inputs,
+                                             Iterable<LineCollectorExpression<?>> collectorExpressions) {
+        Entry entry = sources.remove(jobId);
+        if (entry == null) {
+            return null;
+        }
+        return CopyInBatchIterator.newInstance(entry.source, entry.lineParser, inputs, collectorExpressions);
+    }
+
+    private static class Entry {
+
+        private final CopyInSource source;
+        private final UnaryOperator<byte[]> lineParser;
+
+        Entry(CopyInSource source, UnaryOperator<byte[]> lineParser) {
+            this.source = source;
+            this.lineParser = lineParser;
+        }
+    }
+}
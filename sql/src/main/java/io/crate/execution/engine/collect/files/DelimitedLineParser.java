@@ -0,0 +1,304 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.types.CollectionType;
+import io.crate.types.DataType;
+import io.crate.types.ObjectType;
+import io.crate.types.StringType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Converts the lines of a delimited {@code COPY ... FROM STDIN} input into JSON objects,
+ * the format the rest of the COPY FROM machinery works with.
+ *
+ * Supported are the {@code text} format of PostgreSQL (tab separated, backslash escapes, {@code \N} as null)
+ * and {@code csv} (comma separated, double quotes, empty unquoted value as null).
+ * The values are mapped to the given columns by position.
+ */
+public final class DelimitedLineParser implements UnaryOperator<byte[]> {
+
+    public static final String FORMAT_JSON = "json";
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_TEXT = "text";
+
+    private final List<Reference> columns;
+    private final boolean csv;
+    private final char delimiter;
+    private final String nullString;
+    private boolean skipLine;
+
+    DelimitedLineParser(List<Reference> columns, boolean csv, char delimiter, String nullString, boolean header) {
+        this.columns = columns;
+        this.csv = csv;
+        this.delimiter = delimiter;
+        this.nullString = nullString;
+        this.skipLine = header;
+    }
+
+    /**
+     * Creates the line parser for the {@code format}, {@code delimiter}, {@code null_string} and {@code header}
+     * options of a {@code COPY ... FROM STDIN} statement.
+     */
+    public static UnaryOperator<byte[]> fromSettings(Settings settings, List<Reference> columns) {
+        String format = settings.get("format", FORMAT_JSON).toLowerCase(Locale.ENGLISH);
+        switch (format) {
+            case FORMAT_JSON:
+                return UnaryOperator.identity();
+
+            case FORMAT_CSV:
+            case FORMAT_TEXT:
+                boolean csv = format.equals(FORMAT_CSV);
+                String delimiter = settings.get("delimiter", csv ? "," : "\t");
+                if (delimiter.length() != 1) {
+                    throw new IllegalArgumentException("COPY delimiter must be a single character, got: '" + delimiter + "'");
+                }
+                return new DelimitedLineParser(
+                    columns,
+                    csv,
+                    delimiter.charAt(0),
+                    settings.get("null_string", csv ? "" : "\\N"),
+                    settings.getAsBoolean("header", false)
+                );
+
+            default:
+                throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                    "Invalid COPY format '%s', supported formats are: %s, %s, %s",
+                    format, FORMAT_JSON, FORMAT_CSV, FORMAT_TEXT));
+        }
+    }
+
+    @Nullable
+    @Override
+    public byte[] apply(byte[] line) {
+        if (skipLine) {
+            skipLine = false;
+            return null;
+        }
+        String str = new String(line, StandardCharsets.UTF_8);
+        if (str.isEmpty()) {
+            return null;
+        }
+        List<String> values = csv ? splitCsv(str) : splitText(str);
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Expected %d values but got %d in line: %s", columns.size(), values.size(), str));
+        }
+        Map<String, Object> source = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Reference column = columns.get(i);
+            put(source, column.column(), convert(column.valueType(), values.get(i)));
+        }
+        try {
+            XContentBuilder builder = XContentFactory.jsonBuilder().map(source);
+            return BytesReference.toBytes(builder.bytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> source, ColumnIdent column, @Nullable Object value) {
+        if (column.isTopLevel()) {
+            source.put(column.name(), value);
+            return;
+        }
+        Map<String, Object> parent = (Map<String, Object>) source.computeIfAbsent(column.name(), k -> new LinkedHashMap<>());
+        List<String> path = column.path();
+        for (int i = 0; i < path.size() - 1; i++) {
+            parent = (Map<String, Object>) parent.computeIfAbsent(path.get(i), k -> new LinkedHashMap<>());
+        }
+        parent.put(path.get(path.size() - 1), value);
+    }
+
+    @Nullable
+    private static Object convert(DataType type, @Nullable String value) {
+        if (value == null || type instanceof StringType) {
+            return value;
+        }
+        if (type instanceof ObjectType || type instanceof CollectionType) {
+            try (XContentParser parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY, value)) {
+                parser.nextToken();
+                return type instanceof ObjectType ? parser.map() : parser.list();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Cannot parse value '" + value + "' as " + type.getName(), e);
+            }
+        }
+        Object converted = type.value(value);
+        if (converted instanceof BytesRef) {
+            return ((BytesRef) converted).utf8ToString();
+        }
+        return converted;
+    }
+
+    /**
+     * Splits the line into its values and unescapes them in one pass,
+     * so that an escaped delimiter doesn't end a value.
+     * The null string is matched against the value as it was received, before unescaping it.
+     */
+    private List<String> splitText(String line) {
+        List<String> values = new ArrayList<>(columns.size());
+        StringBuilder current = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            if (i == line.length() || line.charAt(i) == delimiter) {
+                boolean isNull = i - start == nullString.length() && line.startsWith(nullString, start);
+                values.add(isNull ? null : current.toString());
+                current.setLength(0);
+                start = i + 1;
+                continue;
+            }
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                i = unescape(line, i + 1, current);
+            } else {
+                current.append(c);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Appends the character of the escape sequence which starts at {@code pos}, after the backslash.
+     * Supported are the escapes of the PostgreSQL text format: {@code \b \f \n \r \t \v},
+     * one to three octal digits ({@code \NNN}) and one or two hex digits ({@code \xHH}).
+     * Any other escaped character is taken literally.
+     *
+     * @return the position of the last character of the escape sequence
+     */
+    private static int unescape(String line, int pos, StringBuilder sb) {
+        char c = line.charAt(pos);
+        switch (c) {
+            case 'b':
+                sb.append('\b');
+                return pos;
+            case 'f':
+                sb.append('\f');
+                return pos;
+            case 'n':
+                sb.append('\n');
+                return pos;
+            case 'r':
+                sb.append('\r');
+                return pos;
+            case 't':
+                sb.append('\t');
+                return pos;
+            case 'v':
+                sb.append('\u000B');
+                return pos;
+            case 'x':
+                if (pos + 1 < line.length() && Character.digit(line.charAt(pos + 1), 16) >= 0) {
+                    return appendCode(line, pos + 1, 2, 16, sb);
+                }
+                sb.append(c);
+                return pos;
+            default:
+                if (c >= '0' && c <= '7') {
+                    return appendCode(line, pos, 3, 8, sb);
+                }
+                sb.append(c);
+                return pos;
+        }
+    }
+
+    private static int appendCode(String line, int pos, int maxDigits, int radix, StringBuilder sb) {
+        int code = 0;
+        int end = Math.min(pos + maxDigits, line.length());
+        int i = pos;
+        for (; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), radix);
+            if (digit < 0) {
+                break;
+            }
+            code = code * radix + digit;
+        }
+        sb.append((char) (code & 0xFF));
+        return i - 1;
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>(columns.size());
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(csvValue(current.toString(), quoted));
+                current.setLength(0);
+                quoted = false;
+            } else {
+                current.append(c);
+            }
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted CSV value in line: " + line);
+        }
+        values.add(csvValue(current.toString(), quoted));
+        return values;
+    }
+
+    @Nullable
+    private String csvValue(String value, boolean quoted) {
+        // like in PostgreSQL a quoted value never matches the null string
+        if (!quoted && value.equals(nullString)) {
+            return null;
+        }
+        return value;
+    }
+}
@@ -43,5 +43,21 @@ public interface FileInput {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * @return the size of the file in bytes, or -1 if the size is unknown or the input
+     *         doesn't support reading byte ranges using {@link #getStream(URI, long, long)}
+     */
+    default long size(URI uri) throws IOException {
+        return -1L;
+    }
+
+    /**
+     * Returns a stream which reads the bytes of the file from start (inclusive) to end (exclusive).
+     * This is only used if {@link #size(URI)} returns a size >= 0.
+     */
+    default InputStream getStream(URI uri, long start, long end) throws IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " doesn't support reading byte ranges");
+    }
+
     boolean sharedStorageDefault();
 }
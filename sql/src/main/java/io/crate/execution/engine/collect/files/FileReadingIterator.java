@@ -54,6 +54,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -70,6 +71,9 @@ public class FileReadingIterator implements BatchIterator<Row> {
     private final int numReaders;
     private final int readerNumber;
     private final boolean compressed;
+    @Nullable
+    private final Executor splitReaderExecutor;
+    private final int maxSplitReaders;
 
     private static final Pattern HAS_GLOBS_PATTERN = Pattern.compile("(.*)[^\\\\]\\*.*");
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI input) -> true;
@@ -81,6 +85,7 @@ public class FileReadingIterator implements BatchIterator<Row> {
     private Iterator<URI> currentInputIterator = null;
     private URI currentUri;
     private BufferedReader currentReader = null;
+    private ParallelLineReader currentSplitReader = null;
     private long currentLineNumber;
     private LineContext lineContext;
     private final Row row;
@@ -92,7 +97,9 @@ public class FileReadingIterator implements BatchIterator<Row> {
                                 Map<String, FileInputFactory> fileInputFactories,
                                 Boolean shared,
                                 int numReaders,
-                                int readerNumber) {
+                                int readerNumber,
+                                @Nullable Executor splitReaderExecutor,
+                                int maxSplitReaders) {
         this.compressed = compression != null && compression.equalsIgnoreCase("gzip");
         this.row = new InputRow(inputs) {
             @Override
@@ -100,6 +107,12 @@ public class FileReadingIterator implements BatchIterator<Row> {
                 try {
                     return inputs.get(index).value();
                 } catch (ElasticsearchParseException e) {
+                    if (currentSplitReader != null) {
+                        // lines are read out of order, so the line number is unknown
+                        throw new ElasticsearchParseException(String.format(Locale.ENGLISH,
+                            "Failed to parse JSON in file: \"%s\"%n" +
+                            "Original error message: %s", currentUri, e.getMessage()), e);
+                    }
                     throw new ElasticsearchParseException(String.format(Locale.ENGLISH,
                         "Failed to parse JSON in line: %d in file: \"%s\"%n" +
                         "Original error message: %s", currentLineNumber, currentUri, e.getMessage()), e);
@@ -110,6 +123,8 @@ public class FileReadingIterator implements BatchIterator<Row> {
         this.shared = shared;
         this.numReaders = numReaders;
         this.readerNumber = readerNumber;
+        this.splitReaderExecutor = splitReaderExecutor;
+        this.maxSplitReaders = maxSplitReaders;
         this.urisWithGlob = getUrisWithGlob(fileUris);
         this.collectorExpressions = collectorExpressions;
         initCollectorState();
@@ -133,8 +148,26 @@ public class FileReadingIterator implements BatchIterator<Row> {
                                                  Boolean shared,
                                                  int numReaders,
                                                  int readerNumber) {
+        return newInstance(fileUris, inputs, collectorExpressions, compression, fileInputFactories,
+            shared, numReaders, readerNumber, null, 1);
+    }
+
+    /**
+     * @param splitReaderExecutor executor used to read large uncompressed files using multiple threads.
+     * @param maxSplitReaders the maximum number of threads used to read a single file. 1 disables parallel reading.
+     */
+    public static BatchIterator<Row> newInstance(Collection<String> fileUris,
+                                                 List<Input<?>> inputs,
+                                                 Iterable<LineCollectorExpression<?>> collectorExpressions,
+                                                 String compression,
+                                                 Map<String, FileInputFactory> fileInputFactories,
+                                                 Boolean shared,
+                                                 int numReaders,
+                                                 int readerNumber,
+                                                 @Nullable Executor splitReaderExecutor,
+                                                 int maxSplitReaders) {
         return new CloseAssertingBatchIterator<>(new FileReadingIterator(fileUris, inputs, collectorExpressions,
-            compression, fileInputFactories, shared, numReaders, readerNumber));
+            compression, fileInputFactories, shared, numReaders, readerNumber, splitReaderExecutor, maxSplitReaders));
     }
 
     private void initCollectorState() {
@@ -156,13 +189,23 @@ public class FileReadingIterator implements BatchIterator<Row> {
 
     @Override
     public void moveToStart() {
+        closeCurrentReader();
         initCollectorState();
     }
 
     @Override
     public boolean moveNext() {
         try {
-            if (currentReader != null) {
+            if (currentSplitReader != null) {
+                byte[] line = currentSplitReader.nextLine();
+                if (line == null) {
+                    closeCurrentReader();
+                    return moveNext();
+                } else {
+                    lineContext.rawSource(line);
+                    return true;
+                }
+            } else if (currentReader != null) {
                 String line = getLine(currentReader, currentLineNumber, 0);
                 if (line == null) {
                     closeCurrentReader();
@@ -205,6 +248,15 @@ public class FileReadingIterator implements BatchIterator<Row> {
     }
 
     private void initCurrentReader(FileInput fileInput, URI uri) throws IOException {
+        if (compressed == false && splitReaderExecutor != null && maxSplitReaders > 1) {
+            long size = fileInput.size(uri);
+            int numSplits = ParallelLineReader.numSplits(size, maxSplitReaders);
+            if (numSplits > 1) {
+                currentSplitReader = new ParallelLineReader(fileInput, uri, size, numSplits, splitReaderExecutor);
+                currentSplitReader.start();
+                return;
+            }
+        }
         InputStream stream = fileInput.getStream(uri);
         if (stream != null) {
             currentReader = createBufferedReader(stream);
@@ -213,6 +265,10 @@ public class FileReadingIterator implements BatchIterator<Row> {
     }
 
     private void closeCurrentReader() {
+        if (currentSplitReader != null) {
+            currentSplitReader.close();
+            currentSplitReader = null;
+        }
         if (currentReader != null) {
             try {
                 currentReader.close();
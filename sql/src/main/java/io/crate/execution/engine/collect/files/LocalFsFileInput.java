@@ -22,6 +22,7 @@
 package io.crate.execution.engine.collect.files;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -29,12 +30,15 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
@@ -90,6 +94,22 @@ public class LocalFsFileInput implements FileInput {
         }
     }
 
+    @Override
+    public long size(URI uri) throws IOException {
+        Path path = Paths.get(uri);
+        if (Files.isRegularFile(path)) {
+            return Files.size(path);
+        }
+        return -1L;
+    }
+
+    @Override
+    public InputStream getStream(URI uri, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ);
+        channel.position(start);
+        return ByteStreams.limit(Channels.newInputStream(channel), end - start);
+    }
+
     @Override
     public boolean sharedStorageDefault() {
         return false;
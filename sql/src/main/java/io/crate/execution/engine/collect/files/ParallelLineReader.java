@@ -0,0 +1,328 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.exceptions.Exceptions;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.logging.Loggers;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the lines of an uncompressed file using multiple threads.
+ *
+ * The file is split into byte ranges of roughly the same size which are read concurrently.
+ * A line belongs to the range in which it starts: The reader of a range skips everything up to and
+ * including the first line separator (unless the range starts at the beginning of the file)
+ * and continues past the end of its range to finish the last line which started within it.
+ * To finish that line only {@link #LINE_OVERRUN} bytes past the end are requested at a time,
+ * instead of the rest of the file, so that inputs like S3 don't transfer data which is discarded.
+ *
+ * The lines are handed to the consumer in batches, they're not returned in the order of the file.
+ */
+final class ParallelLineReader implements Closeable {
+
+    private static final Logger LOGGER = Loggers.getLogger(ParallelLineReader.class);
+
+    /**
+     * Files are split into ranges of at least this size; Smaller files are not worth the overhead.
+     */
+    static final long MIN_SPLIT_SIZE = 8L * 1024 * 1024;
+
+    /**
+     * Number of bytes requested past the end of a range to finish its last line.
+     * If the line is longer, the next bytes are requested in ranges of this size until it ends.
+     */
+    static final long LINE_OVERRUN = 64L * 1024;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int LINES_PER_BATCH = 1000;
+    private static final int QUEUED_BATCHES_PER_SPLIT = 4;
+    private static final Object SPLIT_DONE = new Object();
+
+    private final FileInput fileInput;
+    private final URI uri;
+    private final long size;
+    private final int numSplits;
+    private final Executor executor;
+    private final BlockingQueue<Object> queue;
+
+    private volatile boolean closed = false;
+    private Iterator<byte[]> currentBatch = Collections.emptyIterator();
+    private int finishedSplits = 0;
+
+    /**
+     * @return the number of ranges a file of the given size should be split into;
+     *         1 if it should be read sequentially.
+     */
+    static int numSplits(long size, int maxSplits) {
+        if (size < 0) {
+            return 1;
+        }
+        return (int) Math.max(1L, Math.min(maxSplits, size / MIN_SPLIT_SIZE));
+    }
+
+    ParallelLineReader(FileInput fileInput, URI uri, long size, int numSplits, Executor executor) {
+        assert numSplits > 0 : "numSplits must be greater than 0";
+        this.fileInput = fileInput;
+        this.uri = uri;
+        this.size = size;
+        this.numSplits = numSplits;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(numSplits * QUEUED_BATCHES_PER_SPLIT);
+    }
+
+    void start() {
+        long splitSize = size / numSplits;
+        for (int i = 0; i < numSplits; i++) {
+            long start = i * splitSize;
+            long end = i == numSplits - 1 ? size : start + splitSize;
+            executor.execute(new SplitReader(start, end));
+        }
+    }
+
+    /**
+     * @return the next line or null if all lines have been read.
+     *         Blocks until one of the readers provides more lines.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    byte[] nextLine() throws IOException {
+        while (currentBatch.hasNext() == false) {
+            if (finishedSplits == numSplits) {
+                return null;
+            }
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading " + uri);
+            }
+            if (item == SPLIT_DONE) {
+                finishedSplits++;
+            } else if (item instanceof Throwable) {
+                Exceptions.rethrowUnchecked((Throwable) item);
+            } else {
+                currentBatch = ((List<byte[]>) item).iterator();
+            }
+        }
+        return currentBatch.next();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * @return false if the reader has been closed before the item could be handed over
+     */
+    private boolean publish(Object item) {
+        try {
+            while (closed == false) {
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private class SplitReader implements Runnable {
+
+        private final long end;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        private byte[] line = new byte[1024];
+        private int lineLength = 0;
+        private List<byte[]> batch = new ArrayList<>(LINES_PER_BATCH);
+
+        /**
+         * position within the file at which the current line starts
+         */
+        private long lineStart;
+        private boolean skipToNextLine;
+
+        SplitReader(long start, long end) {
+            this.end = end;
+            this.skipToNextLine = start > 0;
+            // start at the preceding byte; If it is a line separator the line at start belongs to this split
+            this.lineStart = skipToNextLine ? start - 1 : start;
+        }
+
+        @Override
+        public void run() {
+            Object result = SPLIT_DONE;
+            try {
+                readWithRetries();
+                if (batch.isEmpty() == false && publish(batch) == false) {
+                    return;
+                }
+            } catch (Throwable t) {
+                LOGGER.info("Error during COPY FROM '{}'", t, uri);
+                result = t;
+            }
+            publish(result);
+        }
+
+        private void readWithRetries() throws IOException {
+            int retry = 0;
+            while (lineStart < end) {
+                try {
+                    readRanges();
+                    return;
+                } catch (SocketTimeoutException e) {
+                    if (retry >= FileReadingIterator.MAX_SOCKET_TIMEOUT_RETRIES) {
+                        throw e;
+                    }
+                    retry++;
+                    // continue with the current line; everything before has already been handed over
+                    lineLength = 0;
+                }
+            }
+        }
+
+        /**
+         * Reads from the start of the current line up to the end of the split plus {@link #LINE_OVERRUN}
+         * bytes and continues with further ranges of that size until the last line of the split is complete.
+         */
+        private void readRanges() throws IOException {
+            long position = lineStart;
+            long rangeEnd = Math.min(size, end + LINE_OVERRUN);
+            while (true) {
+                long rangeStart = position;
+                try (InputStream stream = fileInput.getStream(uri, rangeStart, rangeEnd)) {
+                    if (stream == null) {
+                        return;
+                    }
+                    position = readLines(stream, rangeStart);
+                }
+                if (position < 0) {
+                    return;
+                }
+                // an empty range means that the file is shorter than expected; treat it like the end of the file
+                if (position >= size || position == rangeStart) {
+                    if (skipToNextLine == false) {
+                        // last line of the file without trailing line separator
+                        emitLine();
+                    }
+                    return;
+                }
+                rangeEnd = Math.min(size, position + LINE_OVERRUN);
+            }
+        }
+
+        /**
+         * @return the position at which the stream ended or -1 if the split is complete
+         */
+        private long readLines(InputStream stream, long position) throws IOException {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                if (closed) {
+                    return -1;
+                }
+                int offset = 0;
+                while (offset < read) {
+                    int lineEnd = indexOf(buffer, offset, read, (byte) '\n');
+                    if (lineEnd == -1) {
+                        appendToLine(offset, read - offset);
+                        position += read - offset;
+                        break;
+                    }
+                    appendToLine(offset, lineEnd - offset);
+                    position += lineEnd - offset + 1;
+                    offset = lineEnd + 1;
+                    if (skipToNextLine) {
+                        skipToNextLine = false;
+                    } else if (emitLine() == false) {
+                        return -1;
+                    }
+                    lineStart = position;
+                    if (lineStart >= end) {
+                        // the next line belongs to the next split
+                        return -1;
+                    }
+                }
+            }
+            return position;
+        }
+
+        private void appendToLine(int offset, int length) {
+            if (skipToNextLine) {
+                return;
+            }
+            if (lineLength + length > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length << 1, lineLength + length));
+            }
+            System.arraycopy(buffer, offset, line, lineLength, length);
+            lineLength += length;
+        }
+
+        private boolean emitLine() {
+            int length = lineLength;
+            lineLength = 0;
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0) {
+                // empty lines are skipped, like in the sequential reader
+                return true;
+            }
+            batch.add(Arrays.copyOf(line, length));
+            if (batch.size() == LINES_PER_BATCH) {
+                List<byte[]> fullBatch = batch;
+                batch = new ArrayList<>(LINES_PER_BATCH);
+                return publish(fullBatch);
+            }
+            return true;
+        }
+    }
+}
@@ -24,6 +24,7 @@ package io.crate.execution.engine.collect.sources;
 import io.crate.analyze.CopyFromAnalyzedStatement;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.analyze.symbol.ValueSymbolVisitor;
+import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.data.BatchIterator;
 import io.crate.metadata.Functions;
@@ -31,6 +32,7 @@ import io.crate.execution.expression.InputFactory;
 import io.crate.execution.engine.collect.BatchIteratorCollectorBridge;
 import io.crate.execution.engine.collect.CrateCollector;
 import io.crate.execution.engine.collect.JobCollectContext;
+import io.crate.execution.engine.collect.files.CopyInSources;
 import io.crate.execution.engine.collect.files.FileInputFactory;
 import io.crate.execution.engine.collect.files.FileReadingIterator;
 import io.crate.execution.engine.collect.files.LineCollectorExpression;
@@ -42,24 +44,45 @@ import io.crate.types.DataTypes;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Singleton
 public class FileCollectSource implements CollectSource {
 
+    public static final Setting<Integer> COPY_FROM_MAX_SPLIT_READERS_SETTING = Setting.intSetting(
+        "node.sql.copy_from.max_split_readers",
+        4,
+        1,
+        Setting.Property.NodeScope);
+
     private final ClusterService clusterService;
     private final Map<String, FileInputFactory> fileInputFactoryMap;
     private final InputFactory inputFactory;
+    private final Executor splitReaderExecutor;
+    private final int maxSplitReaders;
+    private final CopyInSources copyInSources;
 
     @Inject
-    public FileCollectSource(Functions functions, ClusterService clusterService, Map<String, FileInputFactory> fileInputFactoryMap) {
+    public FileCollectSource(Settings settings,
+                             Functions functions,
+                             ClusterService clusterService,
+                             ThreadPool threadPool,
+                             Map<String, FileInputFactory> fileInputFactoryMap,
+                             CopyInSources copyInSources) {
         this.fileInputFactoryMap = fileInputFactoryMap;
+        this.copyInSources = copyInSources;
         inputFactory = new InputFactory(functions);
         this.clusterService = clusterService;
+        this.splitReaderExecutor = threadPool.executor(ThreadPool.Names.GENERIC);
+        this.maxSplitReaders = COPY_FROM_MAX_SPLIT_READERS_SETTING.get(settings);
     }
 
     @Override
@@ -75,6 +98,15 @@ public class FileCollectSource implements CollectSource {
 
         List<String> fileUris;
         fileUris = targetUriToStringList(fileUriCollectPhase.targetUri());
+        if (fileUris.size() == 1 && CopyFromAnalyzedStatement.STDIN_URI.equals(fileUris.get(0))) {
+            BatchIterator<Row> copyInIterator =
+                copyInSources.createIterator(collectPhase.jobId(), ctx.topLevelInputs(), ctx.expressions());
+            if (copyInIterator == null) {
+                throw new UnsupportedOperationException(
+                    "COPY FROM STDIN is only supported using the PostgreSQL wire protocol");
+            }
+            return BatchIteratorCollectorBridge.newInstance(copyInIterator, consumer);
+        }
         BatchIterator fileReadingIterator = FileReadingIterator.newInstance(
             fileUris,
             ctx.topLevelInputs(),
@@ -83,7 +115,9 @@ public class FileCollectSource implements CollectSource {
             fileInputFactoryMap,
             fileUriCollectPhase.sharedStorage(),
             readers.length,
-            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId())
+            Arrays.binarySearch(readers, clusterService.state().nodes().getLocalNodeId()),
+            splitReaderExecutor,
+            maxSplitReaders
         );
 
         return BatchIteratorCollectorBridge.newInstance(fileReadingIterator, consumer);
@@ -34,6 +34,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BooleanSupplier;
@@ -50,6 +51,8 @@ import java.util.function.BooleanSupplier;
  *   - {@link #activeOperations()} ()}
  *   - {@link #operationsLog()} ()}
  *
+ * Independent of the settings it records latency histograms per statement type, exposed via {@link #statementStats()}.
+ *
  * Note that on configuration updates (E.g.: resizing of jobs-log size, etc.) the Iterable instances previously returned
  * from the properties may become obsolete.
  * So the Iterable instances shouldn't be hold onto.
@@ -60,6 +63,8 @@ public class JobsLogs {
 
     private final Map<UUID, JobContext> jobsTable = new ConcurrentHashMap<>();
     private final Map<Tuple<Integer, UUID>, OperationContext> operationsTable = new ConcurrentHashMap<>();
+    private final Map<UUID, Execution> executions = new ConcurrentHashMap<>();
+    private final StatementStats statementStats = new StatementStats();
 
     final AtomicReference<LogSink<JobContextLog>> jobsLog = new AtomicReference<>(NoopLogSink.instance());
     final AtomicReference<LogSink<OperationContextLog>> operationsLog = new AtomicReference<>(NoopLogSink.instance());
@@ -90,16 +95,35 @@ public class JobsLogs {
      * Track a job. If the job has finished {@link #logExecutionEnd(java.util.UUID, String)}
      * must be called.
      * <p>
-     * If {@link #isEnabled()} is false this method won't do anything.
+     * If {@link #isEnabled()} is false only the statement statistics are updated.
      */
-    public void logExecutionStart(UUID jobId, String statement, @Nullable User user) {
+    public void logExecutionStart(UUID jobId, String statement, @Nullable User user, StatementType statementType) {
         activeRequests.increment();
+        executions.put(jobId, new Execution(statementType, System.nanoTime()));
         if (!isEnabled()) {
             return;
         }
         jobsTable.put(jobId, new JobContext(jobId, statement, System.currentTimeMillis(), user));
     }
 
+    /**
+     * Mark a job as waiting in the queue of the given resource group until it is admitted.
+     * <p>
+     * If {@link #isEnabled()} is false this method won't do anything.
+     */
+    public void jobQueued(UUID jobId, String resourceGroup) {
+        jobsTable.computeIfPresent(jobId, (id, ctx) -> ctx.withResourceGroup(resourceGroup, JobContext.State.QUEUED));
+    }
+
+    /**
+     * Mark a job as admitted to run within the given resource group.
+     * <p>
+     * If {@link #isEnabled()} is false this method won't do anything.
+     */
+    public void jobAdmitted(UUID jobId, String resourceGroup) {
+        jobsTable.computeIfPresent(jobId, (id, ctx) -> ctx.withResourceGroup(resourceGroup, JobContext.State.RUNNING));
+    }
+
     /**
      * mark a job as finished.
      * <p>
@@ -107,6 +131,13 @@ public class JobsLogs {
      */
     public void logExecutionEnd(UUID jobId, @Nullable String errorMessage) {
         activeRequests.decrement();
+        Execution execution = executions.remove(jobId);
+        if (execution != null) {
+            statementStats.recordExecution(
+                execution.type,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - execution.startedNanos),
+                errorMessage != null);
+        }
         JobContext jobContext = jobsTable.remove(jobId);
         if (!isEnabled() || jobContext == null) {
             return;
@@ -117,12 +148,19 @@ public class JobsLogs {
 
     /**
      * Create a entry into `sys.jobs_log`
-     * This method can be used instead of {@link #logExecutionEnd(UUID, String)} if there was no {@link #logExecutionStart(UUID, String, User)}
+     * This method can be used instead of {@link #logExecutionEnd(UUID, String)} if there was no {@link #logExecutionStart(UUID, String, User, StatementType)}
      * Call because an error happened during parse, analysis or plan.
      * <p>
-     * {@link #logExecutionStart(UUID, String, User)} is only called after a Plan has been created and execution starts.
+     * {@link #logExecutionStart(UUID, String, User, StatementType)} is only called after a Plan has been created and execution starts.
+     *
+     * @param statementType the type of the statement or {@link StatementType#UNDEFINED} if it failed before the analysis.
      */
-    public void logPreExecutionFailure(UUID jobId, String stmt, String errorMessage, @Nullable User user) {
+    public void logPreExecutionFailure(UUID jobId,
+                                       String stmt,
+                                       String errorMessage,
+                                       @Nullable User user,
+                                       StatementType statementType) {
+        statementStats.recordFailure(statementType);
         LogSink<JobContextLog> jobContextLogs = jobsLog.get();
         JobContext jobContext = new JobContext(jobId, stmt, System.currentTimeMillis(), user);
         jobContextLogs.add(new JobContextLog(jobContext, errorMessage));
@@ -171,6 +209,10 @@ public class JobsLogs {
         return activeRequests.longValue();
     }
 
+    public StatementStats statementStats() {
+        return statementStats;
+    }
+
     void updateOperationsLog(LogSink<OperationContextLog> sink) {
         operationsLog.set(sink);
     }
@@ -179,4 +221,14 @@ public class JobsLogs {
         jobsLog.set(sink);
     }
 
+    private static class Execution {
+
+        private final StatementType type;
+        private final long startedNanos;
+
+        Execution(StatementType type, long startedNanos) {
+            this.type = type;
+            this.startedNanos = startedNanos;
+        }
+    }
 }
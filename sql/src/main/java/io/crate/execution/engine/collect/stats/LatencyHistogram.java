@@ -0,0 +1,214 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram for latencies with log-linear buckets.
+ *
+ * <p>
+ * Values below {@code 2 * SUB_BUCKET_COUNT} have a bucket of their own, larger values are grouped in buckets
+ * which double in width with each power of two, with {@code SUB_BUCKET_COUNT} buckets per power of two.
+ * This bounds the relative error of a percentile to {@code 1 / SUB_BUCKET_COUNT} (~3%) using a fixed
+ * amount of memory.
+ * </p>
+ *
+ * <p>
+ * To avoid contention the counters are striped by thread; {@link #snapshot()} sums up the stripes.
+ * </p>
+ */
+@ThreadSafe
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * Values larger than this (~19 hours if recorded in microseconds) are recorded as MAX_VALUE.
+     */
+    static final long MAX_VALUE = (1L << 36) - 1;
+    static final int NUM_BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private static final int SUM_IDX = NUM_BUCKETS;
+    private static final int MAX_IDX = NUM_BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int stripeMask;
+
+    public LatencyHistogram() {
+        this(Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors()));
+    }
+
+    LatencyHistogram(int numStripes) {
+        int size = numStripes <= 1 ? 1 : Integer.highestOneBit(numStripes - 1) << 1;
+        stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            // one array per stripe (and not a single large one) so that the stripes don't share cache lines
+            stripes[i] = new AtomicLongArray(NUM_BUCKETS + 2);
+        }
+        stripeMask = size - 1;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the highest value which is recorded in the bucket with the given index.
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(long value) {
+        long v = Math.min(Math.max(value, 0L), MAX_VALUE);
+        AtomicLongArray stripe = stripes[(int) mix(Thread.currentThread().getId()) & stripeMask];
+        stripe.incrementAndGet(bucketIndex(v));
+        stripe.addAndGet(SUM_IDX, v);
+        long max;
+        while ((max = stripe.get(MAX_IDX)) < v) {
+            if (stripe.compareAndSet(MAX_IDX, max, v)) {
+                break;
+            }
+        }
+    }
+
+    private static long mix(long threadId) {
+        long h = threadId * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[NUM_BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM_IDX);
+            max = Math.max(max, stripe.get(MAX_IDX));
+        }
+        return new Snapshot(counts, sum, max);
+    }
+
+    /**
+     * An immutable point in time copy of the histogram.
+     */
+    public static final class Snapshot {
+
+        public static final Snapshot EMPTY = new Snapshot(new long[NUM_BUCKETS], 0L, 0L);
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long sum, long max) {
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        public double mean() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        /**
+         * @param percentile a value between 0 and 100
+         * @return the highest value of the bucket which contains the value at the given percentile,
+         *         but not more than {@link #max()}; 0 if no values are recorded.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * @return a snapshot containing the values of both snapshots.
+         */
+        public Snapshot merge(Snapshot other) {
+            long[] merged = new long[NUM_BUCKETS];
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, sum + other.sum, Math.max(max, other.max));
+        }
+
+        /**
+         * @param previous an earlier snapshot of the same histogram
+         * @return a snapshot containing the values which have been recorded after {@code previous}.
+         *         The maximum is estimated from the highest bucket with values.
+         */
+        public Snapshot since(Snapshot previous) {
+            long[] delta = new long[NUM_BUCKETS];
+            long deltaMax = 0L;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                delta[i] = counts[i] - previous.counts[i];
+                if (delta[i] > 0) {
+                    deltaMax = Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return new Snapshot(delta, sum - previous.sum, deltaMax);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and failure counts of the statements executed on this node, grouped by {@link StatementType}.
+ *
+ * Other than the jobs log these are always recorded and don't depend on any settings.
+ * Latencies are recorded in microseconds.
+ */
+@ThreadSafe
+public class StatementStats {
+
+    private final Map<StatementType, LatencyHistogram> latencies = new EnumMap<>(StatementType.class);
+    private final Map<StatementType, LongAdder> failures = new EnumMap<>(StatementType.class);
+
+    public StatementStats() {
+        for (StatementType type : StatementType.values()) {
+            latencies.put(type, new LatencyHistogram());
+            failures.put(type, new LongAdder());
+        }
+    }
+
+    void recordExecution(StatementType type, long durationInMicros, boolean failed) {
+        latencies.get(type).record(durationInMicros);
+        if (failed) {
+            failures.get(type).increment();
+        }
+    }
+
+    /**
+     * Record a statement which failed before its execution started, e.g. during analysis or planning.
+     */
+    void recordFailure(StatementType type) {
+        failures.get(type).increment();
+    }
+
+    public Entry get(StatementType type) {
+        return new Entry(type, latencies.get(type).snapshot(), failures.get(type).sum());
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(StatementType.values().length);
+        for (StatementType type : StatementType.values()) {
+            entries.add(get(type));
+        }
+        return entries;
+    }
+
+    /**
+     * A point in time view on the statistics of one statement type.
+     */
+    public static class Entry {
+
+        private final StatementType type;
+        private final LatencyHistogram.Snapshot latencies;
+        private final long failedCount;
+
+        public Entry(StatementType type, LatencyHistogram.Snapshot latencies, long failedCount) {
+            this.type = type;
+            this.latencies = latencies;
+            this.failedCount = failedCount;
+        }
+
+        public StatementType type() {
+            return type;
+        }
+
+        public LatencyHistogram.Snapshot latencies() {
+            return latencies;
+        }
+
+        public long count() {
+            return latencies.count();
+        }
+
+        /**
+         * @return the number of failed statements, including statements which failed before their execution
+         *         started and therefore aren't part of {@link #count()}.
+         */
+        public long failedCount() {
+            return failedCount;
+        }
+
+        public double avgDurationInMs() {
+            return latencies.mean() / 1000.0;
+        }
+
+        public double durationAtPercentileInMs(double percentile) {
+            return latencies.valueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double maxDurationInMs() {
+            return latencies.max() / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import io.crate.analyze.AnalyzedDeleteStatement;
+import io.crate.analyze.AnalyzedFetchFromCursor;
+import io.crate.analyze.AnalyzedInsertStatement;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.AnalyzedStatementVisitor;
+import io.crate.analyze.AnalyzedUpdateStatement;
+import io.crate.analyze.CopyFromAnalyzedStatement;
+import io.crate.analyze.CopyToAnalyzedStatement;
+import io.crate.analyze.DDLStatement;
+import io.crate.analyze.InsertFromSubQueryAnalyzedStatement;
+import io.crate.analyze.InsertFromValuesAnalyzedStatement;
+import io.crate.analyze.relations.QueriedRelation;
+
+import java.util.Locale;
+
+/**
+ * The kind of a statement, used to group statement statistics.
+ */
+public enum StatementType {
+
+    SELECT,
+    INSERT,
+    UPDATE,
+    DELETE,
+    COPY,
+    DDL,
+    MANAGEMENT,
+    UNDEFINED;
+
+    private final String value = name().toLowerCase(Locale.ENGLISH);
+
+    public String value() {
+        return value;
+    }
+
+    public static StatementType of(AnalyzedStatement statement) {
+        return Classifier.INSTANCE.process(statement, null);
+    }
+
+    private static class Classifier extends AnalyzedStatementVisitor<Void, StatementType> {
+
+        private static final Classifier INSTANCE = new Classifier();
+
+        @Override
+        protected StatementType visitAnalyzedStatement(AnalyzedStatement analyzedStatement, Void context) {
+            return MANAGEMENT;
+        }
+
+        @Override
+        public StatementType visitSelectStatement(QueriedRelation relation, Void context) {
+            return SELECT;
+        }
+
+        @Override
+        public StatementType visitFetchFromCursor(AnalyzedFetchFromCursor fetchFromCursor, Void context) {
+            return SELECT;
+        }
+
+        @Override
+        protected StatementType visitInsertFromValuesStatement(InsertFromValuesAnalyzedStatement analysis, Void context) {
+            return INSERT;
+        }
+
+        @Override
+        protected StatementType visitInsertFromSubQueryStatement(InsertFromSubQueryAnalyzedStatement analysis, Void context) {
+            return INSERT;
+        }
+
+        @Override
+        public StatementType visitInsert(AnalyzedInsertStatement insert, Void context) {
+            return INSERT;
+        }
+
+        @Override
+        public StatementType visitAnalyzedUpdateStatement(AnalyzedUpdateStatement statement, Void context) {
+            return UPDATE;
+        }
+
+        @Override
+        protected StatementType visitAnalyzedDeleteStatement(AnalyzedDeleteStatement statement, Void context) {
+            return DELETE;
+        }
+
+        @Override
+        protected StatementType visitCopyFromStatement(CopyFromAnalyzedStatement analysis, Void context) {
+            return COPY;
+        }
+
+        @Override
+        protected StatementType visitCopyToStatement(CopyToAnalyzedStatement analysis, Void context) {
+            return COPY;
+        }
+
+        @Override
+        protected StatementType visitDDLStatement(DDLStatement analysis, Void context) {
+            return DDL;
+        }
+    }
+}
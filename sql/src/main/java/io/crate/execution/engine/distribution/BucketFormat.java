@@ -0,0 +1,121 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+
+import javax.annotation.Nullable;
+
+/**
+ * Wire format used to send {@link StreamBucket}s to other nodes.
+ *
+ * All nodes of a cluster share the same elasticsearch stream version, so the format can't be derived from it.
+ * Instead each node advertises the latest bucket format version it can read as node attribute
+ * ({@link #NODE_ATTRIBUTE}) and senders fall back to {@link #ROW_MAJOR} for nodes which don't advertise
+ * {@link #COLUMNAR_VERSION} - this keeps mixed clusters working during a rolling upgrade.
+ */
+public enum BucketFormat {
+
+    /**
+     * rows are written cell by cell using the column streamers
+     */
+    ROW_MAJOR,
+
+    /**
+     * values are grouped by column and encoded per column, see {@link ColumnarBuckets}
+     */
+    COLUMNAR,
+
+    /**
+     * like {@link #COLUMNAR} but additionally LZ4 compressed
+     */
+    COLUMNAR_COMPRESSED;
+
+    public static final String NODE_ATTRIBUTE = "sql_bucket_format";
+
+    static final int ROW_MAJOR_VERSION = 1;
+    static final int COLUMNAR_VERSION = 2;
+    public static final int CURRENT_VERSION = COLUMNAR_VERSION;
+
+    public static final Setting<Boolean> COLUMNAR_SETTING = Setting.boolSetting(
+        "node.sql.bucket.columnar", true, Setting.Property.NodeScope);
+
+    public static final Setting<Boolean> COMPRESSION_SETTING = Setting.boolSetting(
+        "node.sql.bucket.compress", true, Setting.Property.NodeScope);
+
+    /**
+     * @return the format this node would like to send, if the receiving node supports it.
+     */
+    public static BucketFormat preferred(Settings settings) {
+        if (COLUMNAR_SETTING.get(settings)) {
+            return COMPRESSION_SETTING.get(settings) ? COLUMNAR_COMPRESSED : COLUMNAR;
+        }
+        return ROW_MAJOR;
+    }
+
+    /**
+     * @return this format if it can be read by the given node, otherwise {@link #ROW_MAJOR}
+     */
+    public BucketFormat supportedBy(@Nullable DiscoveryNode node) {
+        if (this == ROW_MAJOR || formatVersion(node) < COLUMNAR_VERSION) {
+            return ROW_MAJOR;
+        }
+        return this;
+    }
+
+    /**
+     * @return this format if it can be read by all given nodes, otherwise {@link #ROW_MAJOR}
+     */
+    public BucketFormat supportedBy(Iterable<DiscoveryNode> nodes) {
+        if (this == ROW_MAJOR) {
+            return ROW_MAJOR;
+        }
+        for (DiscoveryNode node : nodes) {
+            if (supportedBy(node) == ROW_MAJOR) {
+                return ROW_MAJOR;
+            }
+        }
+        return this;
+    }
+
+    public boolean isColumnar() {
+        return this != ROW_MAJOR;
+    }
+
+    private static int formatVersion(@Nullable DiscoveryNode node) {
+        if (node == null) {
+            return ROW_MAJOR_VERSION;
+        }
+        String version = node.getAttributes().get(NODE_ATTRIBUTE);
+        if (version == null) {
+            return ROW_MAJOR_VERSION;
+        }
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return ROW_MAJOR_VERSION;
+        }
+    }
+}
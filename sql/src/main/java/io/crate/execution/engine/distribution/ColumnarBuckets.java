@@ -0,0 +1,426 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.StringType;
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoder/Decoder for the {@link BucketFormat#COLUMNAR} bucket format.
+ *
+ * <pre>
+ * page:    flags (byte) | [uncompressedLength (vInt)] | column 0 | column 1 | ...
+ *          if the {@link #LZ4} flag is set, the columns are LZ4 compressed
+ *
+ * column:  encoding (byte) | encoding specific payload
+ * </pre>
+ *
+ * Encodings:
+ * <ul>
+ *     <li>long/timestamp and integer columns: null bitmap followed by either frame-of-reference or
+ *     delta encoded values, bit-packed using as few bits as the value range requires.</li>
+ *     <li>string columns: null bitmap followed by a dictionary and bit-packed ordinals if the column has
+ *     a low cardinality, otherwise the plain values.</li>
+ *     <li>all other columns are written using their {@link Streamer}.</li>
+ * </ul>
+ */
+final class ColumnarBuckets {
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte LZ4 = 1;
+
+    private static final byte GENERIC = 0;
+    private static final byte LONG = 1;
+    private static final byte INTEGER = 2;
+    private static final byte STRING = 3;
+    private static final byte STRING_DICTIONARY = 4;
+
+    private static final byte FRAME_OF_REFERENCE = 0;
+    private static final byte DELTA = 1;
+
+    private ColumnarBuckets() {
+    }
+
+    static BytesReference encode(Streamer<?>[] streamers, Iterable<Row> rows, int numRows, boolean compress) throws IOException {
+        Object[][] columns = new Object[streamers.length][numRows];
+        int rowIdx = 0;
+        for (Row row : rows) {
+            for (int c = 0; c < columns.length; c++) {
+                columns[c][rowIdx] = row.get(c);
+            }
+            rowIdx++;
+        }
+        assert rowIdx == numRows : "numRows must match the number of rows";
+
+        BytesStreamOutput body = new BytesStreamOutput();
+        for (int c = 0; c < columns.length; c++) {
+            writeColumn(body, streamers[c], columns[c]);
+        }
+        BytesStreamOutput out = new BytesStreamOutput(body.size() + 8);
+        if (compress) {
+            BytesRef uncompressed = body.bytes().toBytesRef();
+            BytesStreamOutput compressed = new BytesStreamOutput(uncompressed.length / 2);
+            CompressionMode.FAST.newCompressor().compress(
+                uncompressed.bytes, uncompressed.offset, uncompressed.length, new OutputStreamDataOutput(compressed));
+            if (compressed.size() < uncompressed.length) {
+                out.writeByte(LZ4);
+                out.writeVInt(uncompressed.length);
+                compressed.bytes().writeTo(out);
+                return out.bytes();
+            }
+        }
+        out.writeByte(UNCOMPRESSED);
+        body.bytes().writeTo(out);
+        return out.bytes();
+    }
+
+    static Object[][] decode(Streamer<?>[] streamers, BytesReference bytes, int numRows) throws IOException {
+        StreamInput in = bytes.streamInput();
+        byte flags = in.readByte();
+        if (flags == LZ4) {
+            int uncompressedLength = in.readVInt();
+            BytesRef uncompressed = new BytesRef(uncompressedLength);
+            CompressionMode.FAST.newDecompressor().decompress(
+                new InputStreamDataInput(in), uncompressedLength, 0, uncompressedLength, uncompressed);
+            in = StreamInput.wrap(uncompressed.bytes, uncompressed.offset, uncompressed.length);
+        } else if (flags != UNCOMPRESSED) {
+            throw new IllegalStateException("Invalid columnar bucket flags: " + flags);
+        }
+        Object[][] columns = new Object[streamers.length][];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = readColumn(in, streamers[c], numRows);
+        }
+        return columns;
+    }
+
+    private static void writeColumn(StreamOutput out, Streamer<?> streamer, Object[] values) throws IOException {
+        if (streamer instanceof LongType) {
+            out.writeByte(LONG);
+            writeLongs(out, values);
+        } else if (streamer instanceof IntegerType) {
+            out.writeByte(INTEGER);
+            writeLongs(out, values);
+        } else if (streamer instanceof StringType) {
+            writeStrings(out, values);
+        } else {
+            out.writeByte(GENERIC);
+            for (Object value : values) {
+                streamer.writeValueTo(out, value);
+            }
+        }
+    }
+
+    private static Object[] readColumn(StreamInput in, Streamer<?> streamer, int numRows) throws IOException {
+        byte encoding = in.readByte();
+        Object[] values = new Object[numRows];
+        switch (encoding) {
+            case LONG:
+            case INTEGER: {
+                boolean[] nulls = readNullBitmap(in, numRows);
+                long[] longs = readLongs(in, numNonNulls(nulls, numRows));
+                for (int i = 0, j = 0; i < numRows; i++) {
+                    if (nulls == null || !nulls[i]) {
+                        long value = longs[j++];
+                        values[i] = encoding == LONG ? (Object) value : (Object) (int) value;
+                    }
+                }
+                return values;
+            }
+
+            case STRING: {
+                boolean[] nulls = readNullBitmap(in, numRows);
+                for (int i = 0; i < numRows; i++) {
+                    if (nulls == null || !nulls[i]) {
+                        values[i] = in.readBytesRef();
+                    }
+                }
+                return values;
+            }
+
+            case STRING_DICTIONARY: {
+                boolean[] nulls = readNullBitmap(in, numRows);
+                BytesRef[] dictionary = new BytesRef[in.readVInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = in.readBytesRef();
+                }
+                int bitsPerValue = in.readByte();
+                long[] ordinals = readPacked(in, numNonNulls(nulls, numRows), bitsPerValue);
+                for (int i = 0, j = 0; i < numRows; i++) {
+                    if (nulls == null || !nulls[i]) {
+                        values[i] = dictionary[(int) ordinals[j++]];
+                    }
+                }
+                return values;
+            }
+
+            case GENERIC:
+                for (int i = 0; i < numRows; i++) {
+                    values[i] = streamer.readValueFrom(in);
+                }
+                return values;
+
+            default:
+                throw new IllegalStateException("Invalid column encoding: " + encoding);
+        }
+    }
+
+    /**
+     * Writes the null bitmap, only a marker is written if there are no nulls
+     *
+     * @return the number of non-null values
+     */
+    private static int writeNullBitmap(StreamOutput out, Object[] values) throws IOException {
+        long[] nulls = new long[values.length];
+        int numNonNulls = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                nulls[i] = 1L;
+            } else {
+                numNonNulls++;
+            }
+        }
+        if (numNonNulls == values.length) {
+            out.writeBoolean(false);
+        } else {
+            out.writeBoolean(true);
+            writePacked(out, nulls, nulls.length, 1);
+        }
+        return numNonNulls;
+    }
+
+    private static boolean[] readNullBitmap(StreamInput in, int numRows) throws IOException {
+        if (in.readBoolean() == false) {
+            return null;
+        }
+        long[] bits = readPacked(in, numRows, 1);
+        boolean[] nulls = new boolean[numRows];
+        for (int i = 0; i < numRows; i++) {
+            nulls[i] = bits[i] == 1L;
+        }
+        return nulls;
+    }
+
+    private static int numNonNulls(boolean[] nulls, int numRows) {
+        if (nulls == null) {
+            return numRows;
+        }
+        int numNonNulls = 0;
+        for (boolean isNull : nulls) {
+            if (!isNull) {
+                numNonNulls++;
+            }
+        }
+        return numNonNulls;
+    }
+
+    private static void writeLongs(StreamOutput out, Object[] column) throws IOException {
+        int numValues = writeNullBitmap(out, column);
+        if (numValues == 0) {
+            return;
+        }
+        long[] values = new long[numValues];
+        int idx = 0;
+        for (Object value : column) {
+            if (value != null) {
+                values[idx++] = ((Number) value).longValue();
+            }
+        }
+        long min = values[0];
+        long max = values[0];
+        long minDelta = Long.MAX_VALUE;
+        long maxDelta = Long.MIN_VALUE;
+        for (int i = 1; i < numValues; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+            long delta = values[i] - values[i - 1];
+            minDelta = Math.min(minDelta, delta);
+            maxDelta = Math.max(maxDelta, delta);
+        }
+        // differences may overflow; they're treated as unsigned values which is fine as long as encoding
+        // and decoding wrap around the same way
+        int forBits = bitsRequired(max - min);
+        int deltaBits = numValues > 1 ? bitsRequired(maxDelta - minDelta) : Long.SIZE;
+        if (deltaBits < forBits) {
+            out.writeByte(DELTA);
+            out.writeLong(values[0]);
+            out.writeLong(minDelta);
+            out.writeByte((byte) deltaBits);
+            long[] deltas = new long[numValues - 1];
+            for (int i = 1; i < numValues; i++) {
+                deltas[i - 1] = values[i] - values[i - 1] - minDelta;
+            }
+            writePacked(out, deltas, deltas.length, deltaBits);
+        } else {
+            out.writeByte(FRAME_OF_REFERENCE);
+            out.writeLong(min);
+            out.writeByte((byte) forBits);
+            for (int i = 0; i < numValues; i++) {
+                values[i] -= min;
+            }
+            writePacked(out, values, numValues, forBits);
+        }
+    }
+
+    private static long[] readLongs(StreamInput in, int numValues) throws IOException {
+        if (numValues == 0) {
+            return new long[0];
+        }
+        byte encoding = in.readByte();
+        switch (encoding) {
+            case DELTA: {
+                long first = in.readLong();
+                long minDelta = in.readLong();
+                int bitsPerValue = in.readByte();
+                long[] deltas = readPacked(in, numValues - 1, bitsPerValue);
+                long[] values = new long[numValues];
+                values[0] = first;
+                for (int i = 1; i < numValues; i++) {
+                    values[i] = values[i - 1] + deltas[i - 1] + minDelta;
+                }
+                return values;
+            }
+
+            case FRAME_OF_REFERENCE: {
+                long min = in.readLong();
+                int bitsPerValue = in.readByte();
+                long[] values = readPacked(in, numValues, bitsPerValue);
+                for (int i = 0; i < numValues; i++) {
+                    values[i] += min;
+                }
+                return values;
+            }
+
+            default:
+                throw new IllegalStateException("Invalid long encoding: " + encoding);
+        }
+    }
+
+    private static void writeStrings(StreamOutput out, Object[] column) throws IOException {
+        Map<BytesRef, Integer> ordinals = new HashMap<>();
+        List<BytesRef> dictionary = new ArrayList<>();
+        int numValues = 0;
+        for (Object value : column) {
+            if (value != null) {
+                numValues++;
+                if (!ordinals.containsKey(value)) {
+                    BytesRef term = BytesRef.deepCopyOf((BytesRef) value);
+                    ordinals.put(term, dictionary.size());
+                    dictionary.add(term);
+                }
+            }
+        }
+        if (numValues > 0 && dictionary.size() * 2 <= numValues) {
+            out.writeByte(STRING_DICTIONARY);
+            writeNullBitmap(out, column);
+            out.writeVInt(dictionary.size());
+            for (BytesRef term : dictionary) {
+                out.writeBytesRef(term);
+            }
+            long[] values = new long[numValues];
+            int idx = 0;
+            for (Object value : column) {
+                if (value != null) {
+                    values[idx++] = ordinals.get(value);
+                }
+            }
+            int bitsPerValue = bitsRequired(dictionary.size() - 1);
+            out.writeByte((byte) bitsPerValue);
+            writePacked(out, values, numValues, bitsPerValue);
+        } else {
+            out.writeByte(STRING);
+            writeNullBitmap(out, column);
+            for (Object value : column) {
+                if (value != null) {
+                    out.writeBytesRef((BytesRef) value);
+                }
+            }
+        }
+    }
+
+    static int bitsRequired(long unsignedMaxValue) {
+        return Long.SIZE - Long.numberOfLeadingZeros(unsignedMaxValue);
+    }
+
+    /**
+     * Writes the lower {@code bitsPerValue} bits of each value, least significant bits first.
+     */
+    static void writePacked(StreamOutput out, long[] values, int numValues, int bitsPerValue) throws IOException {
+        int current = 0;
+        int bitPos = 0;
+        for (int i = 0; i < numValues; i++) {
+            long value = values[i];
+            for (int bit = 0; bit < bitsPerValue; ) {
+                int numBits = Math.min(8 - bitPos, bitsPerValue - bit);
+                current |= ((int) (value >>> bit) & ((1 << numBits) - 1)) << bitPos;
+                bitPos += numBits;
+                bit += numBits;
+                if (bitPos == 8) {
+                    out.writeByte((byte) current);
+                    current = 0;
+                    bitPos = 0;
+                }
+            }
+        }
+        if (bitPos > 0) {
+            out.writeByte((byte) current);
+        }
+    }
+
+    static long[] readPacked(StreamInput in, int numValues, int bitsPerValue) throws IOException {
+        long[] values = new long[numValues];
+        int current = 0;
+        int bitPos = 8;
+        for (int i = 0; i < numValues; i++) {
+            long value = 0;
+            for (int bit = 0; bit < bitsPerValue; ) {
+                if (bitPos == 8) {
+                    current = in.readByte() & 0xFF;
+                    bitPos = 0;
+                }
+                int numBits = Math.min(8 - bitPos, bitsPerValue - bit);
+                value |= ((long) ((current >>> bitPos) & ((1 << numBits) - 1))) << bit;
+                bitPos += numBits;
+                bit += numBits;
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+}
@@ -42,6 +42,7 @@ public class DistributedResultRequest extends TransportRequest {
     private Bucket rows;
     private UUID jobId;
     private boolean isLast = true;
+    private BucketFormat bucketFormat = BucketFormat.ROW_MAJOR;
 
     private Throwable throwable = null;
     private boolean isKilled = false;
@@ -63,10 +64,25 @@ public class DistributedResultRequest extends TransportRequest {
                                     Streamer<?>[] streamers,
                                     Bucket rows,
                                     boolean isLast) {
+        this(jobId, executionPhaseId, inputId, bucketIdx, streamers, rows, isLast, BucketFormat.ROW_MAJOR);
+    }
+
+    /**
+     * @param bucketFormat format used to write the rows, must be supported by the receiving node
+     */
+    public DistributedResultRequest(UUID jobId,
+                                    int executionPhaseId,
+                                    byte inputId,
+                                    int bucketIdx,
+                                    Streamer<?>[] streamers,
+                                    Bucket rows,
+                                    boolean isLast,
+                                    BucketFormat bucketFormat) {
         this(jobId, inputId, executionPhaseId, bucketIdx);
         this.streamers = streamers;
         this.rows = rows;
         this.isLast = isLast;
+        this.bucketFormat = bucketFormat;
     }
 
     public DistributedResultRequest(UUID jobId,
@@ -165,7 +181,7 @@ public class DistributedResultRequest extends TransportRequest {
             out.writeBoolean(isKilled);
         } else {
             // TODO: we should not rely on another bucket in this class and instead write to the stream directly
-            StreamBucket.writeBucket(out, streamers, rows);
+            StreamBucket.writeBucket(out, streamers, rows, bucketFormat);
         }
     }
 }
@@ -29,6 +29,7 @@ import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.execution.engine.profile.PhaseProfile;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
@@ -40,6 +41,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 /**
  * Consumer which sends requests to downstream nodes every {@link #pageSize} rows.
@@ -65,6 +67,9 @@ public class DistributingConsumer implements RowConsumer {
     private final List<Downstream> downstreams;
     private final boolean traceEnabled;
 
+    @Nullable
+    private final PhaseProfile phaseProfile;
+
     @VisibleForTesting
     final MultiBucketBuilder multiBucketBuilder;
 
@@ -81,6 +86,40 @@ public class DistributingConsumer implements RowConsumer {
                                 TransportDistributedResultAction distributedResultAction,
                                 Streamer<?>[] streamers,
                                 int pageSize) {
+        this(logger, responseExecutor, jobId, multiBucketBuilder, targetPhaseId, inputId, bucketIdx, downstreamNodeIds,
+            distributedResultAction, streamers, pageSize, nodeId -> BucketFormat.ROW_MAJOR);
+    }
+
+    public DistributingConsumer(Logger logger,
+                                Executor responseExecutor,
+                                UUID jobId,
+                                MultiBucketBuilder multiBucketBuilder,
+                                int targetPhaseId,
+                                byte inputId,
+                                int bucketIdx,
+                                Collection<String> downstreamNodeIds,
+                                TransportDistributedResultAction distributedResultAction,
+                                Streamer<?>[] streamers,
+                                int pageSize,
+                                Function<String, BucketFormat> bucketFormatForNode) {
+        this(logger, responseExecutor, jobId, multiBucketBuilder, targetPhaseId, inputId, bucketIdx, downstreamNodeIds,
+            distributedResultAction, streamers, pageSize, bucketFormatForNode, null);
+    }
+
+    public DistributingConsumer(Logger logger,
+                                Executor responseExecutor,
+                                UUID jobId,
+                                MultiBucketBuilder multiBucketBuilder,
+                                int targetPhaseId,
+                                byte inputId,
+                                int bucketIdx,
+                                Collection<String> downstreamNodeIds,
+                                TransportDistributedResultAction distributedResultAction,
+                                Streamer<?>[] streamers,
+                                int pageSize,
+                                Function<String, BucketFormat> bucketFormatForNode,
+                                @Nullable PhaseProfile phaseProfile) {
+        this.phaseProfile = phaseProfile;
         this.traceEnabled = logger.isTraceEnabled();
         this.logger = logger;
         this.responseExecutor = responseExecutor;
@@ -95,7 +134,7 @@ public class DistributingConsumer implements RowConsumer {
         this.buckets = new Bucket[downstreamNodeIds.size()];
         downstreams = new ArrayList<>(downstreamNodeIds.size());
         for (String downstreamNodeId : downstreamNodeIds) {
-            downstreams.add(new Downstream(downstreamNodeId));
+            downstreams.add(new Downstream(downstreamNodeId, bucketFormatForNode.apply(downstreamNodeId)));
         }
     }
 
@@ -192,9 +231,13 @@ public class DistributingConsumer implements RowConsumer {
                 logger.trace("forwardResults targetNode={} targetPhase={}/{} bucket={} isLast={}",
                     downstream.nodeId, targetPhaseId, inputId, bucketIdx, isLast);
             }
+            if (phaseProfile != null && buckets[i] instanceof StreamBucket) {
+                phaseProfile.addBytesSent(((StreamBucket) buckets[i]).sizeInBytes());
+            }
             distributedResultAction.pushResult(
                 downstream.nodeId,
-                new DistributedResultRequest(jobId, targetPhaseId, inputId, bucketIdx, streamers, buckets[i], isLast),
+                new DistributedResultRequest(
+                    jobId, targetPhaseId, inputId, bucketIdx, streamers, buckets[i], isLast, downstream.bucketFormat),
                 new ActionListener<DistributedResultResponse>() {
                     @Override
                     public void onResponse(DistributedResultResponse response) {
@@ -241,10 +284,12 @@ public class DistributingConsumer implements RowConsumer {
     private static class Downstream {
 
         private final String nodeId;
+        private final BucketFormat bucketFormat;
         private boolean needsMoreData = true;
 
-        Downstream(String nodeId) {
+        Downstream(String nodeId, BucketFormat bucketFormat) {
             this.nodeId = nodeId;
+            this.bucketFormat = bucketFormat;
         }
 
         boolean needsMoreData() {
@@ -26,6 +26,7 @@ import io.crate.Streamer;
 import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.phases.ExecutionPhases;
 import io.crate.execution.dsl.phases.NodeOperation;
+import io.crate.execution.engine.profile.PhaseProfile;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.node.StreamerVisitor;
 import org.apache.logging.log4j.Logger;
@@ -37,6 +38,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.UUID;
@@ -51,6 +53,7 @@ public class DistributingConsumerFactory extends AbstractComponent {
     private final Executor responseExecutor;
     private final TransportDistributedResultAction transportDistributedResultAction;
     private final Logger distributingDownstreamLogger;
+    private final BucketFormat preferredBucketFormat;
 
     @Inject
     public DistributingConsumerFactory(Settings settings,
@@ -62,12 +65,24 @@ public class DistributingConsumerFactory extends AbstractComponent {
         this.responseExecutor = threadPool.executor(RESPONSE_EXECUTOR_NAME);
         this.transportDistributedResultAction = transportDistributedResultAction;
         distributingDownstreamLogger = Loggers.getLogger(DistributingConsumer.class, settings);
+        preferredBucketFormat = BucketFormat.preferred(settings);
     }
 
     public RowConsumer create(NodeOperation nodeOperation,
                               DistributionInfo distributionInfo,
                               UUID jobId,
                               int pageSize) {
+        return create(nodeOperation, distributionInfo, jobId, pageSize, null);
+    }
+
+    /**
+     * @param phaseProfile if not null, the bytes sent to the downstream nodes are recorded in it
+     */
+    public RowConsumer create(NodeOperation nodeOperation,
+                              DistributionInfo distributionInfo,
+                              UUID jobId,
+                              int pageSize,
+                              @Nullable PhaseProfile phaseProfile) {
         Streamer<?>[] streamers = StreamerVisitor.streamersFromOutputs(nodeOperation.executionPhase());
         assert !ExecutionPhases.hasDirectResponseDownstream(nodeOperation.downstreamNodes())
             : "trying to build a DistributingDownstream but nodeOperation has a directResponse downstream";
@@ -104,7 +119,9 @@ public class DistributingConsumerFactory extends AbstractComponent {
             nodeOperation.downstreamNodes(),
             transportDistributedResultAction,
             streamers,
-            pageSize
+            pageSize,
+            nodeId -> preferredBucketFormat.supportedBy(clusterService.state().nodes().get(nodeId)),
+            phaseProfile
         );
     }
 
@@ -27,6 +27,7 @@ import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Bucket;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -44,6 +45,15 @@ public class StreamBucket implements Bucket, Streamable {
     private int size = -1;
     private BytesReference bytes;
 
+    /**
+     * true if {@link #bytes} are encoded using {@link BucketFormat#COLUMNAR}
+     */
+    private boolean columnar = false;
+    private Object[][] decodedColumns;
+
+    private BytesReference encodedBytes;
+    private BucketFormat encodedFormat;
+
     public static class Builder {
 
 
@@ -105,6 +115,14 @@ public class StreamBucket implements Bucket, Streamable {
         return size;
     }
 
+    /**
+     * @return the size of the encoded rows in bytes.
+     *         A bucket which is sent using a columnar {@link BucketFormat} may be smaller on the wire.
+     */
+    public long sizeInBytes() {
+        return bytes == null ? 0 : bytes.length();
+    }
+
     public void streamers(Streamer<?>[] streamers) {
         assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
         this.streamers = streamers;
@@ -123,8 +141,21 @@ public class StreamBucket implements Bucket, Streamable {
     }
 
     public static void writeBucket(StreamOutput out, @Nullable Streamer<?>[] streamers, @Nullable Bucket bucket) throws IOException {
+        writeBucket(out, streamers, bucket, BucketFormat.ROW_MAJOR);
+    }
+
+    /**
+     * Writes the bucket using the given format.
+     * The format must be readable by the receiving node, see {@link BucketFormat#supportedBy(DiscoveryNode)}
+     */
+    public static void writeBucket(StreamOutput out,
+                                   @Nullable Streamer<?>[] streamers,
+                                   @Nullable Bucket bucket,
+                                   BucketFormat format) throws IOException {
         if (bucket == null || bucket.size() == 0) {
             out.writeVInt(0);
+        } else if (bucket instanceof StreamBucket) {
+            ((StreamBucket) bucket).writeTo(out, format);
         } else if (bucket instanceof Streamable) {
             ((Streamable) bucket).writeTo(out);
         } else {
@@ -133,7 +164,11 @@ public class StreamBucket implements Bucket, Streamable {
             for (Row row : bucket) {
                 builder.add(row);
             }
-            builder.writeToStream(out);
+            if (format.isColumnar()) {
+                builder.build().writeTo(out, format);
+            } else {
+                builder.writeToStream(out);
+            }
         }
     }
 
@@ -177,6 +212,40 @@ public class StreamBucket implements Bucket, Streamable {
         }
     }
 
+    private static class ColumnarRowIterator implements Iterator<Row> {
+
+        private final Object[][] columns;
+        private final int size;
+        private final Object[] current;
+        private final RowN row;
+        private int pos = 0;
+
+        private ColumnarRowIterator(Object[][] columns, int size) {
+            this.columns = columns;
+            this.size = size;
+            current = new Object[columns.length];
+            row = new RowN(current);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < size;
+        }
+
+        @Override
+        public Row next() {
+            for (int c = 0; c < columns.length; c++) {
+                current[c] = columns[c][pos];
+            }
+            pos++;
+            return row;
+        }
+
+        @Override
+        public void remove() {
+        }
+    }
+
     @Override
     public Iterator<Row> iterator() {
         if (size < 1) {
@@ -184,6 +253,12 @@ public class StreamBucket implements Bucket, Streamable {
         }
         assert streamers != null : "streamers must not be null";
         try {
+            if (columnar) {
+                if (decodedColumns == null) {
+                    decodedColumns = ColumnarBuckets.decode(streamers, bytes, size);
+                }
+                return new ColumnarRowIterator(decodedColumns, size);
+            }
             return new RowIterator(bytes.streamInput(), streamers, size);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -192,7 +267,10 @@ public class StreamBucket implements Bucket, Streamable {
 
     @Override
     public void readFrom(StreamInput in) throws IOException {
-        size = in.readVInt();
+        // columnar buckets are written with a negative size, see writeTo(out, format)
+        int sizeOrMarker = in.readVInt();
+        columnar = sizeOrMarker < 0;
+        size = Math.abs(sizeOrMarker);
         if (size > 0) {
             bytes = in.readBytesReference();
         }
@@ -200,10 +278,40 @@ public class StreamBucket implements Bucket, Streamable {
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        writeTo(out, BucketFormat.ROW_MAJOR);
+    }
+
+    public void writeTo(StreamOutput out, BucketFormat format) throws IOException {
         assert size > -1 : "size must be > -1";
-        out.writeVInt(size);
-        if (size > 0) {
-            out.writeBytesReference(bytes);
+        if (size > 0 && format.isColumnar() && (columnar || streamers != null)) {
+            out.writeVInt(-size);
+            out.writeBytesReference(columnarBytes(format));
+        } else if (columnar) {
+            assert streamers != null : "streamers are required to convert a columnar bucket";
+            StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null);
+            for (Row row : this) {
+                builder.add(row);
+            }
+            builder.writeToStream(out);
+        } else {
+            out.writeVInt(size);
+            if (size > 0) {
+                out.writeBytesReference(bytes);
+            }
+        }
+    }
+
+    /**
+     * The encoded bytes are cached because the same bucket is sent to several nodes if it's broadcast.
+     */
+    private synchronized BytesReference columnarBytes(BucketFormat format) throws IOException {
+        if (columnar) {
+            return bytes;
+        }
+        if (encodedBytes == null || encodedFormat != format) {
+            encodedBytes = ColumnarBuckets.encode(streamers, this, size, format == BucketFormat.COLUMNAR_COMPRESSED);
+            encodedFormat = format;
         }
+        return encodedBytes;
     }
 }
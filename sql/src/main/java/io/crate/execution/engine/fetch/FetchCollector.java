@@ -26,6 +26,7 @@ import com.carrotsearch.hppc.IntContainer;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
+import io.crate.exceptions.JobKilledException;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.expression.InputRow;
 import io.crate.execution.engine.collect.collectors.CollectorFieldsVisitor;
@@ -38,6 +39,7 @@ import org.elasticsearch.index.fielddata.IndexFieldDataService;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 class FetchCollector {
 
@@ -48,13 +50,16 @@ class FetchCollector {
     private final Streamer<?>[] streamers;
     private final List<LeafReaderContext> readerContexts;
     private final RamAccountingContext ramAccountingContext;
+    private final AtomicBoolean killed;
 
     FetchCollector(List<LuceneCollectorExpression<?>> collectorExpressions,
                    Streamer<?>[] streamers,
                    Engine.Searcher searcher,
                    IndexFieldDataService indexFieldDataService,
                    RamAccountingContext ramAccountingContext,
-                   int readerId) {
+                   int readerId,
+                   AtomicBoolean killed) {
+        this.killed = killed;
         // use toArray to avoid iterator allocations in docIds loop
         this.collectorExpressions = collectorExpressions.toArray(new LuceneCollectorExpression[0]);
         this.streamers = streamers;
@@ -84,6 +89,9 @@ class FetchCollector {
     public StreamBucket collect(IntContainer docIds) throws IOException {
         StreamBucket.Builder builder = new StreamBucket.Builder(streamers, ramAccountingContext);
         for (IntCursor cursor : docIds) {
+            if (killed.get()) {
+                throw new JobKilledException();
+            }
             int docId = cursor.value;
             int readerIndex = ReaderUtil.subIndex(docId, readerContexts);
             LeafReaderContext subReaderContext = readerContexts.get(readerIndex);
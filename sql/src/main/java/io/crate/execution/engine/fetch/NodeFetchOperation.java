@@ -87,7 +87,8 @@ public class NodeFetchOperation {
                 fetchContext.searcher(readerId),
                 indexService.fieldData(),
                 ramAccountingContext,
-                readerId
+                readerId,
+                fetchContext.isKilled()
             );
         }
     }
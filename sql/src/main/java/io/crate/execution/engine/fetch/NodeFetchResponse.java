@@ -28,6 +28,7 @@ import com.carrotsearch.hppc.cursors.IntObjectCursor;
 import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Bucket;
+import io.crate.execution.engine.distribution.BucketFormat;
 import io.crate.execution.engine.distribution.StreamBucket;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -40,25 +41,35 @@ public class NodeFetchResponse extends TransportResponse {
 
     private final IntObjectMap<Streamer[]> streamers;
     private final RamAccountingContext ramAccountingContext;
+    private final BucketFormat bucketFormat;
 
     @Nullable
     private IntObjectMap<StreamBucket> fetched;
 
     public static NodeFetchResponse forSending(IntObjectMap<StreamBucket> fetched) {
-        return new NodeFetchResponse(null, fetched, null);
+        return forSending(fetched, BucketFormat.ROW_MAJOR);
+    }
+
+    /**
+     * @param bucketFormat format used to write the buckets, must be supported by the receiving node
+     */
+    public static NodeFetchResponse forSending(IntObjectMap<StreamBucket> fetched, BucketFormat bucketFormat) {
+        return new NodeFetchResponse(null, fetched, null, bucketFormat);
     }
 
     public static NodeFetchResponse forReceiveing(@Nullable IntObjectMap<Streamer[]> streamers,
                                                   RamAccountingContext ramAccountingContext) {
-        return new NodeFetchResponse(streamers, null, ramAccountingContext);
+        return new NodeFetchResponse(streamers, null, ramAccountingContext, BucketFormat.ROW_MAJOR);
     }
 
     private NodeFetchResponse(@Nullable IntObjectMap<Streamer[]> streamers,
                               @Nullable IntObjectMap<StreamBucket> fetched,
-                              @Nullable RamAccountingContext ramAccountingContext) {
+                              @Nullable RamAccountingContext ramAccountingContext,
+                              BucketFormat bucketFormat) {
         this.streamers = streamers;
         this.fetched = fetched;
         this.ramAccountingContext = ramAccountingContext;
+        this.bucketFormat = bucketFormat;
     }
 
     @Nullable
@@ -94,7 +105,7 @@ public class NodeFetchResponse extends TransportResponse {
             out.writeVInt(fetched.size());
             for (IntObjectCursor<StreamBucket> cursor : fetched) {
                 out.writeVInt(cursor.key);
-                cursor.value.writeTo(out);
+                cursor.value.writeTo(out, bucketFormat);
             }
         }
     }
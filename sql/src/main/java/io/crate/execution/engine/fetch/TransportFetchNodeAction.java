@@ -28,14 +28,17 @@ import io.crate.breaker.CrateCircuitBreakerService;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.execution.support.NodeAction;
 import io.crate.execution.support.NodeActionRequestHandler;
+import io.crate.execution.engine.distribution.BucketFormat;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.execution.support.Transports;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
@@ -49,15 +52,21 @@ public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, No
 
     private final Transports transports;
     private final NodeFetchOperation nodeFetchOperation;
+    private final ClusterService clusterService;
+    private final BucketFormat preferredBucketFormat;
 
     @Inject
-    public TransportFetchNodeAction(TransportService transportService,
+    public TransportFetchNodeAction(Settings settings,
+                                    ClusterService clusterService,
+                                    TransportService transportService,
                                     Transports transports,
                                     ThreadPool threadPool,
                                     JobsLogs jobsLogs,
                                     JobContextService jobContextService,
                                     CrateCircuitBreakerService circuitBreakerService) {
         this.transports = transports;
+        this.clusterService = clusterService;
+        this.preferredBucketFormat = BucketFormat.preferred(settings);
         this.nodeFetchOperation = new NodeFetchOperation(
             threadPool.executor(ThreadPool.Names.SEARCH),
             jobsLogs,
@@ -96,6 +105,8 @@ public class TransportFetchNodeAction implements NodeAction<NodeFetchRequest, No
             request.toFetch(),
             request.isCloseContext()
         );
-        return resultFuture.thenApply(NodeFetchResponse::forSending);
+        // the requesting node isn't known here, so a columnar format is only used if all nodes can read it
+        BucketFormat bucketFormat = preferredBucketFormat.supportedBy(clusterService.state().nodes());
+        return resultFuture.thenApply(fetched -> NodeFetchResponse.forSending(fetched, bucketFormat));
     }
 }
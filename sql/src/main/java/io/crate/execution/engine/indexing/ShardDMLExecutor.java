@@ -52,8 +52,6 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
-import static io.crate.execution.jobs.NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
-
 public class ShardDMLExecutor<TReq extends ShardRequest<TReq, TItem>, TItem extends ShardRequest.Item>
     implements Function<BatchIterator<Row>, CompletableFuture<? extends Iterable<? extends Row>>> {
 
@@ -95,7 +93,7 @@ public class ShardDMLExecutor<TReq extends ShardRequest<TReq, TItem>, TItem exte
         this.localNodeId = getLocalNodeId(clusterService);
 
         this.shouldPause = ignored ->
-            nodeJobsCounter.getInProgressJobsForNode(localNodeId) >= MAX_NODE_CONCURRENT_OPERATIONS;
+            nodeJobsCounter.getInProgressJobsForNode(localNodeId) >= nodeJobsCounter.maxConcurrentOperations(localNodeId);
     }
 
     private void addRowToRequest(TReq req, Row row) {
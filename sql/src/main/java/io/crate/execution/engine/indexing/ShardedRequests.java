@@ -40,6 +40,12 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
 
     private int location = -1;
 
+    /**
+     * location and request of the most recently added item; null if no item has been added to itemsByShard.
+     */
+    ShardLocation lastShardLocation = null;
+    TReq lastRequest = null;
+
     /**
      * @param requestFactory function to create a request, will receive the indexName and routing
      */
@@ -60,6 +66,8 @@ public final class ShardedRequests<TReq extends ShardRequest<TReq, TItem>, TItem
         }
         location++;
         req.add(location, item);
+        lastShardLocation = shardLocation;
+        lastRequest = req;
     }
 
     static class ItemAndRouting<TItem> {
@@ -28,9 +28,11 @@ import io.crate.data.BatchIterator;
 import io.crate.data.BatchIterators;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.exceptions.SQLExceptions;
 import io.crate.execution.dml.ShardRequest;
 import io.crate.execution.dml.ShardResponse;
 import io.crate.execution.jobs.NodeJobsCounter;
+import io.crate.execution.jobs.NodeLimit;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.collect.RowShardResolver;
 import io.crate.execution.support.RetryListener;
@@ -48,6 +50,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.shard.ShardId;
 
 import javax.annotation.Nullable;
@@ -65,10 +68,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
-import static io.crate.execution.jobs.NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
-
 public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TItem extends ShardRequest.Item>
     implements Function<BatchIterator<Row>, CompletableFuture<? extends Iterable<? extends Row>>> {
 
@@ -152,6 +154,7 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
 
             String nodeId = entry.getKey().nodeId;
             nodeJobsCounter.increment(nodeId);
+            NodeLimit nodeLimit = nodeJobsCounter.limitForNode(nodeId);
             ActionListener<ShardResponse> listener =
                 new ShardResponseActionListener(nodeId, rowCount, numRequests, interrupt, rowCountFuture);
 
@@ -159,17 +162,44 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
                 scheduler,
                 l -> {
                     LOGGER.debug("Executing retry Listener for nodeId: {} request: {}", nodeId, request);
-                    requestExecutor.execute(request, l);
+                    requestExecutor.execute(request, withLimitUpdates(nodeLimit, l));
                 },
                 listener,
                 BACKOFF_POLICY
             );
-            requestExecutor.execute(request, listener);
+            requestExecutor.execute(request, withLimitUpdates(nodeLimit, listener));
         }
         return rowCountFuture;
     }
 
 
+    /**
+     * Wraps the listener to feed the latency of responses and rejections into the adaptive limit of the node.
+     * Rejections have to be observed here, before they're handled by the {@link RetryListener}.
+     */
+    private static ActionListener<ShardResponse> withLimitUpdates(@Nullable NodeLimit nodeLimit,
+                                                                  ActionListener<ShardResponse> listener) {
+        if (nodeLimit == null) {
+            return listener;
+        }
+        long startTime = System.nanoTime();
+        return new ActionListener<ShardResponse>() {
+            @Override
+            public void onResponse(ShardResponse shardResponse) {
+                nodeLimit.onResponse(System.nanoTime() - startTime);
+                listener.onResponse(shardResponse);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (SQLExceptions.unwrap(e) instanceof EsRejectedExecutionException) {
+                    nodeLimit.onRejection();
+                }
+                listener.onFailure(e);
+            }
+        };
+    }
+
     private CompletableFuture<CreatePartitionsResponse> createPartitions(Map<String, List<ShardedRequests.ItemAndRouting<TItem>>> itemsByMissingIndex) {
         FutureActionListener<CreatePartitionsResponse, CreatePartitionsResponse> listener = FutureActionListener.newInstance();
         createPartitionsAction.execute(
@@ -185,7 +215,7 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
 
         for (ShardLocation shardLocation : requests.itemsByShard.keySet()) {
             String requestNodeId = shardLocation.nodeId;
-            if (nodeJobsCounter.getInProgressJobsForNode(requestNodeId) >= MAX_NODE_CONCURRENT_OPERATIONS) {
+            if (nodeJobsCounter.getInProgressJobsForNode(requestNodeId) >= nodeJobsCounter.maxConcurrentOperations(requestNodeId)) {
                 LOGGER.debug("reached maximum concurrent operations for node {}", requestNodeId);
                 return true;
             }
@@ -193,11 +223,25 @@ public class ShardingUpsertExecutor<TReq extends ShardRequest<TReq, TItem>, TIte
         return false;
     }
 
+    /**
+     * @return true if the shard request to which the last item was added reached the adaptive bulk size of its node.
+     */
+    private boolean nodeBulkSizeReached(ShardedRequests<TReq, TItem> requests) {
+        if (requests.lastShardLocation == null) {
+            return false;
+        }
+        NodeLimit nodeLimit = nodeJobsCounter.limitForNode(requests.lastShardLocation.nodeId);
+        return nodeLimit != null && requests.lastRequest.items().size() >= nodeLimit.bulkSize();
+    }
+
     @Override
     public CompletableFuture<? extends Iterable<Row>> apply(BatchIterator<Row> batchIterator) {
+        Predicate<ShardedRequests<TReq, TItem>> limiter = nodeJobsCounter.adaptiveLimits()
+            ? bulkShardCreationLimiter.or(this::nodeBulkSizeReached)
+            : bulkShardCreationLimiter;
         BatchIterator<ShardedRequests<TReq, TItem>> reqBatchIterator =
             BatchIterators.partition(batchIterator, bulkSize, () -> new ShardedRequests<>(requestFactory), grouper,
-                bulkShardCreationLimiter);
+                limiter);
 
         BatchIteratorBackpressureExecutor<ShardedRequests<TReq, TItem>, Long> executor = new BatchIteratorBackpressureExecutor<>(
             scheduler,
@@ -0,0 +1,212 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.RowAccounting;
+import io.crate.concurrent.CompletionListenable;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.ListenableBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.data.RowN;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.expression.InputFactory;
+import io.crate.planner.node.dql.join.JoinType;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+
+public class HashJoinOperation implements CompletionListenable {
+
+    private final CompletableFuture<BatchIterator<Row>> leftBatchIterator = new CompletableFuture<>();
+    private final CompletableFuture<BatchIterator<Row>> rightBatchIterator = new CompletableFuture<>();
+    private final CompletableFuture<Void> completionFuture = new CompletableFuture<>();
+
+    /**
+     * @param spillDirectory if not null, the rows of both sides are spilled to disk instead of tripping the
+     *                       circuit breaker. See {@link SpillingHashJoin}
+     */
+    public HashJoinOperation(List<DataType> leftTypes,
+                             List<DataType> rightTypes,
+                             RowConsumer hashJoinResultConsumer,
+                             Predicate<Row> joinPredicate,
+                             JoinType joinType,
+                             ToIntFunction<Row> hashLeft,
+                             ToIntFunction<Row> hashRight,
+                             RowAccounting rightRowAccounting,
+                             @Nullable Path spillDirectory) {
+        int numLeftCols = leftTypes.size();
+        int numRightCols = rightTypes.size();
+
+        // the memory of the hash table is released as soon as the join has been consumed
+        completionFuture.whenComplete((result, failure) -> rightRowAccounting.close());
+        CompletableFuture.allOf(leftBatchIterator, rightBatchIterator)
+            .whenComplete((result, failure) -> {
+                if (failure == null && spillDirectory != null) {
+                    SpillingHashJoin spillingHashJoin = new SpillingHashJoin(
+                        leftTypes,
+                        rightTypes,
+                        hashLeft,
+                        hashRight,
+                        rightRowAccounting,
+                        spillDirectory,
+                        (left, right) -> createHashJoinIterator(
+                            left, numLeftCols, right, numRightCols, joinType, joinPredicate, hashLeft, hashRight, row -> row)
+                    );
+                    spillingHashJoin.join(leftBatchIterator.join(), rightBatchIterator.join())
+                        .whenComplete((joinIterator, joinFailure) -> {
+                            if (joinFailure == null) {
+                                hashJoinResultConsumer.accept(
+                                    new ListenableBatchIterator<>(joinIterator, completionFuture), null);
+                            } else {
+                                rightRowAccounting.close();
+                                hashJoinResultConsumer.accept(null, joinFailure);
+                            }
+                        });
+                } else if (failure == null) {
+                    BatchIterator<Row> joinIterator = new ListenableBatchIterator<>(createHashJoinIterator(
+                        leftBatchIterator.join(),
+                        numLeftCols,
+                        rightBatchIterator.join(),
+                        numRightCols,
+                        joinType,
+                        joinPredicate,
+                        hashLeft,
+                        hashRight,
+                        row -> {
+                            rightRowAccounting.accountForAndMaybeBreak(row);
+                            return new RowN(row.materialize());
+                        }
+                    ), completionFuture);
+                    hashJoinResultConsumer.accept(joinIterator, null);
+                } else {
+                    rightRowAccounting.close();
+                    hashJoinResultConsumer.accept(null, failure);
+                }
+            });
+    }
+
+    private static BatchIterator<Row> createHashJoinIterator(BatchIterator<Row> left,
+                                                             int leftNumCols,
+                                                             BatchIterator<Row> right,
+                                                             int rightNumCols,
+                                                             JoinType joinType,
+                                                             Predicate<Row> joinCondition,
+                                                             ToIntFunction<Row> hashLeft,
+                                                             ToIntFunction<Row> hashRight,
+                                                             Function<Row, Row> copyRight) {
+        CombinedRow combiner = new CombinedRow(leftNumCols, rightNumCols);
+        switch (joinType) {
+            case INNER:
+                return HashJoinBatchIterator.innerJoin(
+                    left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+
+            case LEFT:
+                return HashJoinBatchIterator.leftJoin(
+                    left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+
+            case SEMI:
+                return HashJoinBatchIterator.semiJoin(
+                    left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+
+            case ANTI:
+                return HashJoinBatchIterator.antiJoin(
+                    left, right, combiner, joinCondition, hashLeft, hashRight, copyRight);
+
+            default:
+                throw new AssertionError("Invalid joinType for hash join: " + joinType);
+        }
+    }
+
+    /**
+     * Creates a function which computes the hash of a row out of the values of the given join condition inputs.
+     * Both sides of the join must use the same hashing so that equal values result in equal hashes.
+     */
+    public static ToIntFunction<Row> hashFunction(InputFactory inputFactory, List<Symbol> joinConditionInputs) {
+        InputFactory.Context<CollectExpression<Row, ?>> ctx = inputFactory.ctxForInputColumns(joinConditionInputs);
+        List<Input<?>> inputs = ctx.topLevelInputs();
+        List<CollectExpression<Row, ?>> expressions = ctx.expressions();
+        return row -> {
+            //noinspection ForLoopReplaceableByForEach // avoids iterator allocation - invoked per row
+            for (int i = 0; i < expressions.size(); i++) {
+                expressions.get(i).setNextRow(row);
+            }
+            int hash = 0;
+            for (int i = 0; i < inputs.size(); i++) {
+                hash = 31 * hash + hashCode(inputs.get(i).value());
+            }
+            return hash;
+        };
+    }
+
+    private static int hashCode(@Nullable Object value) {
+        if (value instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) value);
+        }
+        return Objects.hashCode(value);
+    }
+
+    public RowConsumer leftConsumer() {
+        return getBatchConsumer(leftBatchIterator);
+    }
+
+    public RowConsumer rightConsumer() {
+        return getBatchConsumer(rightBatchIterator);
+    }
+
+    private static RowConsumer getBatchConsumer(CompletableFuture<BatchIterator<Row>> future) {
+        return new RowConsumer() {
+            @Override
+            public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+                if (failure == null) {
+                    future.complete(iterator);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            }
+
+            @Override
+            public boolean requiresScroll() {
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<?> completionFuture() {
+        return completionFuture;
+    }
+}
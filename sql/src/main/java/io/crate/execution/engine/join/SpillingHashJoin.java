@@ -0,0 +1,281 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.ListenableBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.execution.engine.spill.PartitionedSpill;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * A hash join which partitions the rows of both sides to disk if the rows of the right side (which are used to build
+ * the hash table) don't fit into memory.
+ *
+ * <ul>
+ *     <li>The right side is consumed into memory. If the circuit breaker is about to trip, the rows are moved
+ *     into partitions on disk, as are all remaining rows of the right side.</li>
+ *     <li>If nothing has been spilled, the join is done in memory.</li>
+ *     <li>Otherwise the left side is also partitioned to disk, using the same hashing.
+ *     Matching rows are guaranteed to be in the same partition, so the partitions are joined one after another,
+ *     keeping only the rows of a single right partition in memory.</li>
+ * </ul>
+ */
+final class SpillingHashJoin {
+
+    private final List<DataType> leftTypes;
+    private final List<DataType> rightTypes;
+    private final ToIntFunction<Row> hashLeft;
+    private final ToIntFunction<Row> hashRight;
+    private final RowAccounting rightRowAccounting;
+    private final Path spillDirectory;
+    private final BiFunction<BatchIterator<Row>, BatchIterator<Row>, BatchIterator<Row>> inMemoryJoin;
+
+    /**
+     * @param inMemoryJoin creates the join iterator for a left and right iterator.
+     *                     The rows of the right iterator are already copied, they don't need to be copied again.
+     */
+    SpillingHashJoin(List<DataType> leftTypes,
+                     List<DataType> rightTypes,
+                     ToIntFunction<Row> hashLeft,
+                     ToIntFunction<Row> hashRight,
+                     RowAccounting rightRowAccounting,
+                     Path spillDirectory,
+                     BiFunction<BatchIterator<Row>, BatchIterator<Row>, BatchIterator<Row>> inMemoryJoin) {
+        this.leftTypes = leftTypes;
+        this.rightTypes = rightTypes;
+        this.hashLeft = hashLeft;
+        this.hashRight = hashRight;
+        this.rightRowAccounting = rightRowAccounting;
+        this.spillDirectory = spillDirectory;
+        this.inMemoryJoin = inMemoryJoin;
+    }
+
+    /**
+     * Consumes the right side (and the left side if spilling was necessary) and returns the join iterator.
+     * The source iterators are closed if the returned future fails.
+     */
+    CompletableFuture<BatchIterator<Row>> join(BatchIterator<Row> left, BatchIterator<Row> right) {
+        return BatchIterators.collect(right, Collector.of(RightRows::new, this::onRightRow, (a, b) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        })).handle((rightRows, failure) -> {
+            right.close();
+            if (failure != null) {
+                left.close();
+                throw propagate(failure);
+            }
+            return rightRows;
+        }).thenCompose(rightRows -> {
+            if (rightRows.spill == null) {
+                return CompletableFuture.completedFuture(
+                    inMemoryJoin.apply(left, InMemoryBatchIterator.of(rightRows.rows, SentinelRow.SENTINEL)));
+            }
+            rightRows.spill.finishWriting();
+            return joinPartitions(left, rightRows.spill);
+        });
+    }
+
+    private void onRightRow(RightRows rightRows, Row row) {
+        if (rightRows.spill == null) {
+            // spilling only a few rows wouldn't free enough memory to be worth the I/O
+            if (rightRows.accountedBytes >= RamAccountingContext.FLUSH_BUFFER_SIZE
+                && rightRowAccounting.exceedsLimitRatio(PartitionedSpill.SPILL_LIMIT_RATIO)) {
+                rightRows.spill = new PartitionedSpill(
+                    spillDirectory, PartitionedSpill.DEFAULT_NUM_PARTITIONS, DataTypes.getStreamers(rightTypes));
+                for (Row bufferedRow : rightRows.rows) {
+                    rightRows.spill.write(hashRight.applyAsInt(bufferedRow), bufferedRow.materialize());
+                }
+                rightRows.rows.clear();
+                rightRowAccounting.release(rightRows.accountedBytes);
+                rightRows.accountedBytes = 0;
+            } else {
+                rightRows.accountedBytes += rightRowAccounting.accountForAndMaybeBreak(row);
+                rightRows.rows.add(new RowN(row.materialize()));
+                return;
+            }
+        }
+        rightRows.spill.write(hashRight.applyAsInt(row), row.materialize());
+    }
+
+    private CompletableFuture<BatchIterator<Row>> joinPartitions(BatchIterator<Row> left, PartitionedSpill rightSpill) {
+        PartitionedSpill leftSpill;
+        try {
+            leftSpill = new PartitionedSpill(
+                spillDirectory, rightSpill.numPartitions(), DataTypes.getStreamers(leftTypes));
+        } catch (Throwable t) {
+            left.close();
+            rightSpill.close();
+            throw t;
+        }
+        return BatchIterators.collect(left, Collector.<Row, PartitionedSpill, PartitionedSpill>of(
+            () -> leftSpill,
+            (spill, row) -> spill.write(hashLeft.applyAsInt(row), row.materialize()),
+            (a, b) -> {
+                throw new UnsupportedOperationException("combine not supported");
+            },
+            spill -> {
+                spill.finishWriting();
+                return spill;
+            }
+        )).<BatchIterator<Row>>handle((result, failure) -> {
+            left.close();
+            if (failure != null) {
+                leftSpill.close();
+                rightSpill.close();
+                throw propagate(failure);
+            }
+            CompletableFuture<Void> closed = new CompletableFuture<>();
+            closed.whenComplete((r, f) -> {
+                leftSpill.close();
+                rightSpill.close();
+            });
+            Iterable<Row> joinedRows = () -> new PartitionJoinIterator(leftSpill, rightSpill);
+            return new ListenableBatchIterator<>(InMemoryBatchIterator.of(joinedRows, SentinelRow.SENTINEL), closed);
+        });
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        return new RuntimeException(t);
+    }
+
+    private static Iterable<Row> toRows(Iterable<Object[]> cells, int numColumns) {
+        return () -> {
+            Iterator<Object[]> it = cells.iterator();
+            RowN row = new RowN(numColumns);
+            return new Iterator<Row>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Row next() {
+                    Object[] next = it.next();
+                    row.cells(next);
+                    return row;
+                }
+            };
+        };
+    }
+
+    /**
+     * Joins one partition after another using the in-memory join.
+     */
+    private class PartitionJoinIterator implements Iterator<Row> {
+
+        private final PartitionedSpill leftSpill;
+        private final PartitionedSpill rightSpill;
+        private int partition = -1;
+        private long partitionBytes = 0;
+
+        @Nullable
+        private BatchIterator<Row> partitionJoin;
+        private boolean positioned = false;
+
+        PartitionJoinIterator(PartitionedSpill leftSpill, PartitionedSpill rightSpill) {
+            this.leftSpill = leftSpill;
+            this.rightSpill = rightSpill;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!positioned) {
+                if (partitionJoin != null && partitionJoin.moveNext()) {
+                    positioned = true;
+                    break;
+                }
+                if (!nextPartition()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("All partitions have been joined");
+            }
+            positioned = false;
+            return partitionJoin.currentElement();
+        }
+
+        private boolean nextPartition() {
+            closePartition();
+            partition++;
+            if (partition >= rightSpill.numPartitions()) {
+                return false;
+            }
+            List<Row> rightRows = new ArrayList<>();
+            for (Object[] cells : rightSpill.partition(partition)) {
+                RowN row = new RowN(cells);
+                partitionBytes += rightRowAccounting.accountForAndMaybeBreak(row);
+                rightRows.add(row);
+            }
+            partitionJoin = inMemoryJoin.apply(
+                InMemoryBatchIterator.of(toRows(leftSpill.partition(partition), leftTypes.size()), SentinelRow.SENTINEL),
+                InMemoryBatchIterator.of(rightRows, SentinelRow.SENTINEL)
+            );
+            return true;
+        }
+
+        private void closePartition() {
+            if (partitionJoin != null) {
+                partitionJoin.close();
+                partitionJoin = null;
+            }
+            rightRowAccounting.release(partitionBytes);
+            partitionBytes = 0;
+        }
+    }
+
+    private static class RightRows {
+
+        private final List<Row> rows = new ArrayList<>();
+        private long accountedBytes = 0;
+
+        @Nullable
+        private PartitionedSpill spill;
+    }
+}
@@ -28,11 +28,15 @@ import io.crate.data.Projector;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.dsl.projection.Projection;
+import io.crate.execution.engine.profile.OperatorProfile;
+import io.crate.execution.engine.profile.PhaseProfile;
+import io.crate.execution.engine.profile.ProfilingBatchIterator;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 /**
@@ -49,6 +53,10 @@ import java.util.UUID;
  *
  *  finalConsumer receives limitingBI
  * </pre>
+ * <p>
+ * If a {@link PhaseProfile} is given, the incoming BatchIterator and the output of each projector
+ * are wrapped into a {@link ProfilingBatchIterator}.
+ * </p>
  */
 public class ProjectingRowConsumer implements RowConsumer {
 
@@ -56,29 +64,53 @@ public class ProjectingRowConsumer implements RowConsumer {
     private final List<Projector> projectors;
     private boolean requiresScroll;
 
+    @Nullable
+    private final PhaseProfile phaseProfile;
+    @Nullable
+    private final OperatorProfile sourceProfile;
+    private final List<OperatorProfile> projectorProfiles;
+
     public static RowConsumer create(RowConsumer lastConsumer,
                                      Collection<? extends Projection> projections,
                                      UUID jobId,
                                      RamAccountingContext ramAccountingContext,
                                      ProjectorFactory projectorFactory) {
-        if (projections.isEmpty()) {
+        return create(lastConsumer, projections, jobId, ramAccountingContext, projectorFactory, null);
+    }
+
+    public static RowConsumer create(RowConsumer lastConsumer,
+                                     Collection<? extends Projection> projections,
+                                     UUID jobId,
+                                     RamAccountingContext ramAccountingContext,
+                                     ProjectorFactory projectorFactory,
+                                     @Nullable PhaseProfile phaseProfile) {
+        if (projections.isEmpty() && phaseProfile == null) {
             return lastConsumer;
         }
-        return new ProjectingRowConsumer(lastConsumer, projections, jobId, ramAccountingContext, projectorFactory);
+        return new ProjectingRowConsumer(
+            lastConsumer, projections, jobId, ramAccountingContext, projectorFactory, phaseProfile);
     }
 
     private ProjectingRowConsumer(RowConsumer consumer,
                                   Collection<? extends Projection> projections,
                                   UUID jobId,
                                   RamAccountingContext ramAccountingContext,
-                                  ProjectorFactory projectorFactory) {
+                                  ProjectorFactory projectorFactory,
+                                  @Nullable PhaseProfile phaseProfile) {
         this.consumer = consumer;
+        this.phaseProfile = phaseProfile;
         projectors = new ArrayList<>(projections.size());
+        projectorProfiles = new ArrayList<>(phaseProfile == null ? 0 : projections.size());
+        sourceProfile = phaseProfile == null ? null : phaseProfile.addOperator("source");
 
         boolean projectorsSupportIndependentScrolling = false;
         for (Projection projection : projections) {
             Projector projector = projectorFactory.create(projection, ramAccountingContext, jobId);
             projectors.add(projector);
+            if (phaseProfile != null) {
+                projectorProfiles.add(
+                    phaseProfile.addOperator(projection.projectionType().name().toLowerCase(Locale.ENGLISH)));
+            }
 
             if (projector.providesIndependentScroll()) {
                 projectorsSupportIndependentScrolling = true;
@@ -94,9 +126,16 @@ public class ProjectingRowConsumer implements RowConsumer {
     @Override
     public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
         if (failure == null) {
-            for (Projector projector : projectors) {
+            if (phaseProfile != null) {
+                phaseProfile.started();
+                iterator = new ProfilingBatchIterator<>(iterator, phaseProfile, sourceProfile);
+            }
+            for (int i = 0; i < projectors.size(); i++) {
                 try {
-                    iterator = projector.apply(iterator);
+                    iterator = projectors.get(i).apply(iterator);
+                    if (phaseProfile != null) {
+                        iterator = new ProfilingBatchIterator<>(iterator, phaseProfile, projectorProfiles.get(i));
+                    }
                 } catch (Throwable t) {
                     consumer.accept(null, t);
                     return;
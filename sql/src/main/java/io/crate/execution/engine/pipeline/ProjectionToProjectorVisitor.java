@@ -67,6 +67,7 @@ import io.crate.execution.engine.indexing.IndexWriterProjector;
 import io.crate.execution.engine.indexing.ShardDMLExecutor;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.engine.sort.OrderingByPosition;
+import io.crate.execution.engine.spill.PartitionedSpill;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.SortingTopNProjector;
 import io.crate.execution.expression.InputFactory;
@@ -242,7 +243,8 @@ public class ProjectionToProjectorVisitor
             ctx.aggregations().toArray(new AggregationContext[0]),
             context.ramAccountingContext,
             indexVersionCreated,
-            bigArrays
+            bigArrays,
+            projection.spillToDisk() ? PartitionedSpill.spillDirectory(settings) : null
         );
     }
 
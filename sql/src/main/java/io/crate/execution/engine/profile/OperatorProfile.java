@@ -0,0 +1,122 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runtime statistics of a single operator (the source of a phase or one of its projectors).
+ * <p>
+ * The times are inclusive: They contain the time spent in the upstream operators of the same phase.
+ * </p>
+ */
+public final class OperatorProfile implements Writeable {
+
+    private final String name;
+    private long rows;
+    private long nanos;
+    private long blockedNanos;
+
+    OperatorProfile(String name) {
+        this.name = name;
+    }
+
+    OperatorProfile(StreamInput in) throws IOException {
+        name = in.readString();
+        rows = in.readVLong();
+        nanos = in.readVLong();
+        blockedNanos = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(name);
+        out.writeVLong(rows);
+        out.writeVLong(nanos);
+        out.writeVLong(blockedNanos);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of rows emitted by this operator
+     */
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return the time spent in {@code moveNext} in nanoseconds
+     */
+    public long nanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the time spent waiting for the futures returned by {@code loadNextBatch} in nanoseconds
+     */
+    public long blockedNanos() {
+        return blockedNanos;
+    }
+
+    void addRow() {
+        rows++;
+    }
+
+    void addNanos(long nanos) {
+        this.nanos += nanos;
+    }
+
+    void addBlockedNanos(long nanos) {
+        blockedNanos += nanos;
+    }
+
+    void merge(OperatorProfile other) {
+        rows += other.rows;
+        nanos += other.nanos;
+        blockedNanos += other.blockedNanos;
+    }
+
+    Map<String, Object> toMap(long rowsIn) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", name);
+        map.put("rows_in", rowsIn);
+        map.put("rows_out", rows);
+        map.put("time_ms", toMillis(nanos));
+        map.put("blocked_time_ms", toMillis(blockedNanos));
+        return map;
+    }
+
+    static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.breaker.RamAccountingContext;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runtime statistics of an execution phase on one node, or - after {@link #merge(PhaseProfile)} - on all nodes.
+ *
+ * <ul>
+ *     <li>operators: the source of the phase followed by its projectors</li>
+ *     <li>wall time: time between the phase receiving its input and the input being closed</li>
+ *     <li>bytes sent: size of the rows sent to downstream nodes via {@code DistributedResultRequest}</li>
+ *     <li>peak memory: highest usage of the {@link RamAccountingContext}s of the phase</li>
+ * </ul>
+ */
+public final class PhaseProfile implements Writeable {
+
+    private final int phaseId;
+    private final String name;
+    private final List<OperatorProfile> operators;
+    private final AtomicLong bytesSent;
+    private final List<RamAccountingContext> ramAccountingContexts = new CopyOnWriteArrayList<>();
+    private volatile long startNanos = -1;
+    private volatile long wallNanos;
+    private long peakMemoryBytes;
+    private int numNodes = 1;
+
+    public PhaseProfile(int phaseId, String name) {
+        this.phaseId = phaseId;
+        this.name = name;
+        this.operators = new CopyOnWriteArrayList<>();
+        this.bytesSent = new AtomicLong();
+    }
+
+    public PhaseProfile(StreamInput in) throws IOException {
+        phaseId = in.readVInt();
+        name = in.readString();
+        int numOperators = in.readVInt();
+        operators = new ArrayList<>(numOperators);
+        for (int i = 0; i < numOperators; i++) {
+            operators.add(new OperatorProfile(in));
+        }
+        wallNanos = in.readVLong();
+        bytesSent = new AtomicLong(in.readVLong());
+        peakMemoryBytes = in.readVLong();
+        numNodes = in.readVInt();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVInt(phaseId);
+        out.writeString(name);
+        out.writeVInt(operators.size());
+        for (OperatorProfile operator : operators) {
+            operator.writeTo(out);
+        }
+        out.writeVLong(wallNanos);
+        out.writeVLong(bytesSent.get());
+        out.writeVLong(peakMemoryBytes());
+        out.writeVInt(numNodes);
+    }
+
+    public int phaseId() {
+        return phaseId;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<OperatorProfile> operators() {
+        return operators;
+    }
+
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    public long peakMemoryBytes() {
+        long peak = 0;
+        for (RamAccountingContext ramAccountingContext : ramAccountingContexts) {
+            peak += ramAccountingContext.peakBytes();
+        }
+        return Math.max(peakMemoryBytes, peak);
+    }
+
+    public int numNodes() {
+        return numNodes;
+    }
+
+    public OperatorProfile addOperator(String name) {
+        OperatorProfile operator = new OperatorProfile(name);
+        operators.add(operator);
+        return operator;
+    }
+
+    /**
+     * Marks the start of the phase; only the first call has an effect.
+     */
+    public void started() {
+        if (startNanos == -1) {
+            startNanos = System.nanoTime();
+        }
+    }
+
+    void finished() {
+        if (startNanos != -1) {
+            wallNanos = Math.max(wallNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void addBytesSent(long bytes) {
+        bytesSent.addAndGet(bytes);
+    }
+
+    public void trackMemory(RamAccountingContext ramAccountingContext) {
+        ramAccountingContexts.add(ramAccountingContext);
+    }
+
+    /**
+     * Merge the profile of the same phase from another node into this one.
+     * Rows, times and bytes are summed up, wall time and peak memory are the maximum of all nodes.
+     */
+    public void merge(PhaseProfile other) {
+        assert phaseId == other.phaseId : "can only merge profiles of the same phase";
+        for (int i = 0; i < other.operators.size(); i++) {
+            if (i < operators.size()) {
+                operators.get(i).merge(other.operators.get(i));
+            } else {
+                operators.add(other.operators.get(i));
+            }
+        }
+        wallNanos = Math.max(wallNanos, other.wallNanos);
+        bytesSent.addAndGet(other.bytesSent.get());
+        peakMemoryBytes = Math.max(peakMemoryBytes(), other.peakMemoryBytes());
+        numNodes += other.numNodes;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", phaseId);
+        map.put("name", name);
+        map.put("nodes", numNodes);
+        map.put("wall_time_ms", OperatorProfile.toMillis(wallNanos));
+        map.put("bytes_sent", bytesSent.get());
+        map.put("peak_memory_bytes", peakMemoryBytes());
+        List<Map<String, Object>> operatorMaps = new ArrayList<>(operators.size());
+        long rowsIn = operators.isEmpty() ? 0 : operators.get(0).rows();
+        for (OperatorProfile operator : operators) {
+            operatorMaps.add(operator.toMap(rowsIn));
+            rowsIn = operator.rows();
+        }
+        map.put("operators", operatorMaps);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "PhaseProfile{" + phaseId + "-" + name + ", operators=" + operators.size() + ", nodes=" + numNodes + '}';
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ForwardingBatchIterator;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * BatchIterator which records the rows emitted by the delegate, the time spent in {@link #moveNext()} and
+ * the time spent waiting for {@link #loadNextBatch()} into an {@link OperatorProfile}.
+ *
+ * Closing the iterator marks the end of the phase, see {@link PhaseProfile#finished()}.
+ */
+public final class ProfilingBatchIterator<T> extends ForwardingBatchIterator<T> {
+
+    private final BatchIterator<T> delegate;
+    private final PhaseProfile phaseProfile;
+    private final OperatorProfile operatorProfile;
+
+    public ProfilingBatchIterator(BatchIterator<T> delegate, PhaseProfile phaseProfile, OperatorProfile operatorProfile) {
+        this.delegate = delegate;
+        this.phaseProfile = phaseProfile;
+        this.operatorProfile = operatorProfile;
+    }
+
+    @Override
+    protected BatchIterator<T> delegate() {
+        return delegate;
+    }
+
+    @Override
+    public boolean moveNext() {
+        long startNanos = System.nanoTime();
+        boolean moved = delegate.moveNext();
+        operatorProfile.addNanos(System.nanoTime() - startNanos);
+        if (moved) {
+            operatorProfile.addRow();
+        }
+        return moved;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() {
+        long startNanos = System.nanoTime();
+        return delegate.loadNextBatch().whenComplete(
+            (r, t) -> operatorProfile.addBlockedNanos(System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        phaseProfile.finished();
+    }
+}
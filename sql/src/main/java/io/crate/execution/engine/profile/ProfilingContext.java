@@ -0,0 +1,54 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.execution.dsl.phases.ExecutionPhase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the {@link PhaseProfile}s of all phases of a job which are executed on the local node.
+ * Only created if a job is executed with profiling enabled (EXPLAIN ANALYZE).
+ */
+public final class ProfilingContext {
+
+    private final ConcurrentMap<Integer, PhaseProfile> profileByPhaseId = new ConcurrentHashMap<>();
+
+    public PhaseProfile phaseProfile(ExecutionPhase phase) {
+        return profileByPhaseId.computeIfAbsent(phase.phaseId(), id -> new PhaseProfile(id, phase.name()));
+    }
+
+    public PhaseProfile phaseProfile(ExecutionPhase phase, RamAccountingContext ramAccountingContext) {
+        PhaseProfile profile = phaseProfile(phase);
+        profile.trackMemory(ramAccountingContext);
+        return profile;
+    }
+
+    public List<PhaseProfile> phaseProfiles() {
+        return new ArrayList<>(profileByPhaseId.values());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.execution.jobs.JobContextService;
+import io.crate.execution.support.MultiActionListener;
+import io.crate.execution.support.NodeAction;
+import io.crate.execution.support.NodeActionRequestHandler;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Retrieves the {@link PhaseProfile}s of a job which has been executed with profiling enabled from all nodes.
+ */
+@Singleton
+public class TransportCollectProfileNodeAction implements NodeAction<CollectProfileRequest, CollectProfileResponse> {
+
+    private static final String ACTION_NAME = "crate/sql/collect_profile";
+
+    private final TransportService transportService;
+    private final ClusterService clusterService;
+    private final JobContextService jobContextService;
+
+    @Inject
+    public TransportCollectProfileNodeAction(TransportService transportService,
+                                             ClusterService clusterService,
+                                             JobContextService jobContextService) {
+        this.transportService = transportService;
+        this.clusterService = clusterService;
+        this.jobContextService = jobContextService;
+        transportService.registerRequestHandler(
+            ACTION_NAME,
+            CollectProfileRequest::new,
+            ThreadPool.Names.GENERIC,
+            new NodeActionRequestHandler<>(this));
+    }
+
+    @Override
+    public CompletableFuture<CollectProfileResponse> nodeOperation(CollectProfileRequest request) {
+        return jobContextService.getProfiles(request.jobId()).thenApply(CollectProfileResponse::new);
+    }
+
+    /**
+     * Collects the profiles of the job from all nodes and merges the profiles of the same phase.
+     * The listener receives the merged profiles ordered by phaseId.
+     */
+    public void collectProfiles(UUID jobId, ActionListener<List<PhaseProfile>> listener) {
+        DiscoveryNodes nodes = clusterService.state().nodes();
+        MultiActionListener<CollectProfileResponse, Map<Integer, PhaseProfile>, List<PhaseProfile>> multiListener =
+            new MultiActionListener<>(
+                nodes.getSize(),
+                TreeMap::new,
+                TransportCollectProfileNodeAction::mergeProfiles,
+                profileByPhaseId -> new ArrayList<>(profileByPhaseId.values()),
+                listener
+            );
+        TransportResponseHandler<CollectProfileResponse> responseHandler =
+            new ActionListenerResponseHandler<>(multiListener, CollectProfileResponse::new);
+        CollectProfileRequest request = new CollectProfileRequest(jobId);
+        for (DiscoveryNode node : nodes) {
+            transportService.sendRequest(node, ACTION_NAME, request, responseHandler);
+        }
+    }
+
+    private static void mergeProfiles(Map<Integer, PhaseProfile> profileByPhaseId, CollectProfileResponse response) {
+        for (PhaseProfile phaseProfile : response.phaseProfiles()) {
+            profileByPhaseId.merge(phaseProfile.phaseId(), phaseProfile, (p1, p2) -> {
+                p1.merge(p2);
+                return p1;
+            });
+        }
+    }
+}
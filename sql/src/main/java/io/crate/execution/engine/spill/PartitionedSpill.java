@@ -0,0 +1,245 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.Streamer;
+import org.apache.lucene.util.IOUtils;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Spills rows to disk, distributing them into a fixed number of partitions by a hash.
+ * <p>
+ * Rows with the same hash always end up in the same partition. This allows operations like a grouping or a hash join
+ * to process one partition after another, keeping only the state of a single partition in memory
+ * (also known as grace hash partitioning).
+ * </p>
+ * <pre>
+ *     write(hash, cells) ... write(hash, cells)
+ *     finishWriting()
+ *     partition(0), partition(1), ...
+ *     close()  // removes the files
+ * </pre>
+ * Not thread-safe.
+ */
+public final class PartitionedSpill implements AutoCloseable {
+
+    public static final int DEFAULT_NUM_PARTITIONS = 16;
+
+    /**
+     * Ratio of the breaker limit at which operations which support spilling write their state to disk
+     */
+    public static final double SPILL_LIMIT_RATIO = 0.8;
+
+    private static final String SPILL_FOLDER = "spill";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final Streamer<?>[] streamers;
+    private final StreamOutput[] outputs;
+    private final long[] numRows;
+    private final Set<StreamInput> openInputs = new HashSet<>();
+    private boolean writing = true;
+
+    /**
+     * Returns the directory spill files are written to, which is located inside the first data path of the node.
+     */
+    public static Path spillDirectory(Settings settings) {
+        List<String> dataPaths = Environment.PATH_DATA_SETTING.get(settings);
+        if (dataPaths.isEmpty()) {
+            return Paths.get(Environment.PATH_HOME_SETTING.get(settings), "data", SPILL_FOLDER);
+        }
+        return Paths.get(dataPaths.get(0), SPILL_FOLDER);
+    }
+
+    /**
+     * @param parentDirectory directory in which a temporary directory for the partition files is created
+     * @param streamers streamers for the columns of the rows which will be written
+     */
+    public PartitionedSpill(Path parentDirectory, int numPartitions, Streamer<?>[] streamers) {
+        assert numPartitions > 0 : "numPartitions must be greater than 0";
+        try {
+            Files.createDirectories(parentDirectory);
+            this.directory = Files.createTempDirectory(parentDirectory, "spill-");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't create spill directory in " + parentDirectory, e);
+        }
+        this.streamers = streamers;
+        this.outputs = new StreamOutput[numPartitions];
+        this.numRows = new long[numPartitions];
+    }
+
+    public static int partition(int hash, int numPartitions) {
+        // spread the higher bits as the hashCode of small numbers only varies in the lower bits
+        return Math.floorMod(hash ^ (hash >>> 16), numPartitions);
+    }
+
+    public int numPartitions() {
+        return outputs.length;
+    }
+
+    public long numRows(int partition) {
+        return numRows[partition];
+    }
+
+    public void write(int hash, Object[] cells) {
+        assert writing : "write must not be called after finishWriting";
+        assert cells.length == streamers.length : "number of cells must match the number of streamers";
+        int partition = partition(hash, outputs.length);
+        try {
+            StreamOutput out = outputs[partition];
+            if (out == null) {
+                out = new OutputStreamStreamOutput(
+                    new BufferedOutputStream(Files.newOutputStream(partitionFile(partition)), BUFFER_SIZE));
+                outputs[partition] = out;
+            }
+            for (int i = 0; i < cells.length; i++) {
+                streamers[i].writeValueTo(out, cells[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows[partition]++;
+    }
+
+    /**
+     * Flushes and closes the partition files. Must be called before any partition is read.
+     */
+    public void finishWriting() {
+        if (!writing) {
+            return;
+        }
+        writing = false;
+        try {
+            IOUtils.close(outputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the rows of a partition. The rows are read lazily from disk each time the iterable is iterated.
+     * The returned arrays must not be retained by the caller, a new array is created for each row.
+     */
+    public Iterable<Object[]> partition(int partition) {
+        assert !writing : "finishWriting must be called before reading a partition";
+        long rows = numRows[partition];
+        if (rows == 0) {
+            return Collections.emptyList();
+        }
+        Path file = partitionFile(partition);
+        return () -> new PartitionIterator(file, rows);
+    }
+
+    private Path partitionFile(int partition) {
+        return directory.resolve("partition-" + partition);
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (writing) {
+                writing = false;
+                IOUtils.closeWhileHandlingException(outputs);
+            }
+            IOUtils.closeWhileHandlingException(openInputs);
+            openInputs.clear();
+            IOUtils.rm(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private class PartitionIterator implements Iterator<Object[]> {
+
+        private final Path file;
+        private final long numRows;
+        private long rowsRead = 0;
+
+        @Nullable
+        private StreamInput in;
+
+        PartitionIterator(Path file, long numRows) {
+            this.file = file;
+            this.numRows = numRows;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (rowsRead < numRows) {
+                return true;
+            }
+            closeInput();
+            return false;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Partition " + file + " has no more rows");
+            }
+            try {
+                if (in == null) {
+                    in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+                    openInputs.add(in);
+                }
+                Object[] cells = new Object[streamers.length];
+                for (int i = 0; i < cells.length; i++) {
+                    cells[i] = streamers[i].readValueFrom(in);
+                }
+                rowsRead++;
+                return cells;
+            } catch (IOException e) {
+                closeInput();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void closeInput() {
+            if (in != null) {
+                openInputs.remove(in);
+                IOUtils.closeWhileHandlingException(in);
+                in = null;
+            }
+        }
+    }
+}
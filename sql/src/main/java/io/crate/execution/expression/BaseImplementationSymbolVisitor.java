@@ -31,6 +31,7 @@ import io.crate.analyze.symbol.SymbolVisitor;
 import io.crate.analyze.symbol.format.SymbolFormatter;
 import io.crate.data.Input;
 import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.expression.codegen.ExpressionCompiler;
 import io.crate.metadata.FunctionIdent;
 import io.crate.metadata.FunctionImplementation;
 import io.crate.metadata.Functions;
@@ -50,6 +51,12 @@ public class BaseImplementationSymbolVisitor<C> extends SymbolVisitor<C, Input<?
 
     @Override
     public Input<?> visitFunction(Function function, C context) {
+        if (ExpressionCompiler.ENABLED) {
+            Input<?> compiled = ExpressionCompiler.compile(function, arg -> process(arg, context));
+            if (compiled != null) {
+                return compiled;
+            }
+        }
         FunctionIdent ident = function.info().ident();
         final FunctionImplementation functionImplementation = functions.getQualified(ident);
         if (functionImplementation instanceof Scalar<?, ?>) {
@@ -0,0 +1,89 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.data.Input;
+import io.crate.types.DataTypes;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the classes generated by the {@link ExpressionCompiler}.
+ *
+ * <p>
+ * A generated class evaluates the whole expression tree within its {@link #value()} method using primitive values.
+ * Only the leaves of the tree, which are kept in {@link #inputs}, are evaluated as regular {@link Input}s.
+ * </p>
+ *
+ * The static methods are used by the generated code to unbox the values of the inputs; they must not be called
+ * with null.
+ */
+public abstract class CompiledExpression implements Input<Object> {
+
+    protected final Input<?>[] inputs;
+
+    protected CompiledExpression(Input<?>[] inputs) {
+        this.inputs = inputs;
+    }
+
+    public static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return DataTypes.INTEGER.value(value);
+    }
+
+    public static long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return DataTypes.LONG.value(value);
+    }
+
+    public static float toFloat(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        return DataTypes.FLOAT.value(value);
+    }
+
+    public static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return DataTypes.DOUBLE.value(value);
+    }
+
+    public static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return DataTypes.BOOLEAN.value(value);
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledExpr{" + getClass().getSimpleName() + ", args=" + Arrays.toString(inputs) + '}';
+    }
+}
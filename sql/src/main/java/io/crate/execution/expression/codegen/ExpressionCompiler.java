@@ -0,0 +1,269 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.execution.expression.operator.AndOperator;
+import io.crate.execution.expression.operator.EqOperator;
+import io.crate.execution.expression.operator.GtOperator;
+import io.crate.execution.expression.operator.GteOperator;
+import io.crate.execution.expression.operator.LtOperator;
+import io.crate.execution.expression.operator.LteOperator;
+import io.crate.execution.expression.operator.OrOperator;
+import io.crate.execution.expression.predicate.NotPredicate;
+import io.crate.execution.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.metadata.FunctionIdent;
+import io.crate.types.DataType;
+import org.objectweb.asm.Opcodes;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles a function tree into a generated class which evaluates it using primitive values.
+ *
+ * <p>
+ * Evaluating a tree of {@link io.crate.execution.expression.FunctionExpression}s boxes every intermediate result
+ * and calls {@code Scalar.evaluate} through a megamorphic call site at every node, which prevents the JIT from
+ * inlining the tree. The generated class contains the whole tree in a single method instead.
+ * </p>
+ *
+ * <p>
+ * Supported are arithmetic ({@code + - * / %}) on numeric and timestamp values,
+ * comparisons ({@code = < <= > >=}) of numeric and timestamp values and {@code AND}, {@code OR} and {@code NOT}.
+ * Any other symbol becomes a leaf of the compiled tree and is evaluated as regular {@link Input};
+ * functions within such leaves may be compiled on their own.
+ * </p>
+ *
+ * <p>
+ * Generated classes are cached by the shape of the tree, which contains the functions and the types of the leaves,
+ * so {@code x + 1 > 10} and {@code y + 5 > 20} share the same class.
+ * </p>
+ *
+ * The compiler is disabled by default and can be enabled with the {@code crate.expression_compiler.enabled}
+ * system property.
+ */
+public final class ExpressionCompiler {
+
+    public static final boolean ENABLED =
+        "true".equalsIgnoreCase(System.getProperty("crate.expression_compiler.enabled", "false"));
+
+    /**
+     * Limits the number of generated classes; expressions with new shapes aren't compiled anymore once reached.
+     */
+    private static final int MAX_CLASSES = 2000;
+
+    /**
+     * Limits the size of a compiled tree to stay well below the maximum size of a method.
+     */
+    private static final int MAX_LEAVES = 200;
+
+    private static final String CLASS_NAME_PREFIX =
+        ExpressionCompiler.class.getPackage().getName().replace('.', '/') + "/GeneratedExpression";
+
+    private static final ConcurrentMap<String, Constructor<? extends CompiledExpression>> CLASSES =
+        new ConcurrentHashMap<>();
+    private static final AtomicInteger CLASS_ID = new AtomicInteger();
+    private static final GeneratedClassLoader CLASS_LOADER = new GeneratedClassLoader();
+
+    private ExpressionCompiler() {
+    }
+
+    /**
+     * @param leafInputs creates the inputs of the symbols which become leaves of the compiled tree
+     * @return the compiled expression or null if the function can't be compiled
+     */
+    @Nullable
+    public static Input<?> compile(Function function,
+                                   java.util.function.Function<? super Symbol, ? extends Input<?>> leafInputs) {
+        List<Symbol> leaves = new ArrayList<>();
+        Node root = toFunctionNode(function, leaves);
+        if (root == null || leaves.size() > MAX_LEAVES) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        root.appendShape(sb);
+        String shape = sb.toString();
+        Constructor<? extends CompiledExpression> constructor = CLASSES.get(shape);
+        if (constructor == null) {
+            if (CLASSES.size() >= MAX_CLASSES) {
+                return null;
+            }
+            constructor = CLASSES.computeIfAbsent(shape, s -> generate(root));
+        }
+        Input<?>[] inputs = new Input[leaves.size()];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = leafInputs.apply(leaves.get(i));
+        }
+        try {
+            return constructor.newInstance((Object) inputs);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Constructor<? extends CompiledExpression> generate(Node root) {
+        String name = CLASS_NAME_PREFIX + CLASS_ID.incrementAndGet();
+        byte[] bytes = MethodGenerator.generateClass(name, root);
+        Class<? extends CompiledExpression> clazz =
+            CLASS_LOADER.define(name.replace('/', '.'), bytes).asSubclass(CompiledExpression.class);
+        try {
+            return clazz.getConstructor(Input[].class);
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the node of the symbol in the given lane; either a compiled function or a leaf
+     */
+    private static Node toNode(Symbol symbol, Lane lane, List<Symbol> leaves) {
+        if (symbol instanceof Function) {
+            int numLeaves = leaves.size();
+            Node node = toFunctionNode((Function) symbol, leaves);
+            if (node != null && node.lane == lane) {
+                return node;
+            }
+            // evaluated in a different lane than the parent expects, the whole function becomes a leaf
+            leaves.subList(numLeaves, leaves.size()).clear();
+        }
+        leaves.add(symbol);
+        return new Node.Leaf(lane, leaves.size() - 1);
+    }
+
+    @Nullable
+    private static Node toFunctionNode(Function function, List<Symbol> leaves) {
+        FunctionIdent ident = function.info().ident();
+        if (ident.schema() != null) {
+            // user defined function
+            return null;
+        }
+        List<Symbol> args = function.arguments();
+        List<DataType> argTypes = ident.argumentTypes();
+        int numLeaves = leaves.size();
+        Node node = null;
+        if (args.size() == 1 && ident.name().equals(NotPredicate.NAME)) {
+            node = new Node.Not(toNode(args.get(0), Lane.BOOLEAN, leaves));
+        } else if (args.size() == 2 && argTypes.size() == 2 && argTypes.get(0).equals(argTypes.get(1))) {
+            Lane argLane = Lane.of(argTypes.get(0));
+            if (argLane != null) {
+                node = toBinaryNode(ident.name(), argLane, args, leaves);
+            }
+        }
+        if (node == null) {
+            leaves.subList(numLeaves, leaves.size()).clear();
+        }
+        return node;
+    }
+
+    @Nullable
+    private static Node toBinaryNode(String name, Lane argLane, List<Symbol> args, List<Symbol> leaves) {
+        int arithmeticOpcode;
+        switch (name) {
+            case AndOperator.NAME:
+            case OrOperator.NAME:
+                if (argLane != Lane.BOOLEAN) {
+                    return null;
+                }
+                return new Node.Logical(
+                    name.equals(AndOperator.NAME),
+                    toNode(args.get(0), argLane, leaves),
+                    toNode(args.get(1), argLane, leaves));
+
+            case ArithmeticFunctions.Names.ADD:
+                arithmeticOpcode = Opcodes.IADD;
+                break;
+            case ArithmeticFunctions.Names.SUBTRACT:
+                arithmeticOpcode = Opcodes.ISUB;
+                break;
+            case ArithmeticFunctions.Names.MULTIPLY:
+                arithmeticOpcode = Opcodes.IMUL;
+                break;
+            case ArithmeticFunctions.Names.DIVIDE:
+                arithmeticOpcode = Opcodes.IDIV;
+                break;
+            case ArithmeticFunctions.Names.MODULUS:
+                arithmeticOpcode = Opcodes.IREM;
+                break;
+
+            // the opcodes jump if the result of compare(left, right) doesn't match
+            case EqOperator.NAME:
+                return toCompareNode(name, Opcodes.IFNE, argLane, args, leaves);
+            case GtOperator.NAME:
+                return toCompareNode(name, Opcodes.IFLE, argLane, args, leaves);
+            case GteOperator.NAME:
+                return toCompareNode(name, Opcodes.IFLT, argLane, args, leaves);
+            case LtOperator.NAME:
+                return toCompareNode(name, Opcodes.IFGE, argLane, args, leaves);
+            case LteOperator.NAME:
+                return toCompareNode(name, Opcodes.IFGT, argLane, args, leaves);
+
+            default:
+                return null;
+        }
+        if (!argLane.isNumeric()) {
+            return null;
+        }
+        return new Node.Arithmetic(
+            name,
+            arithmeticOpcode,
+            argLane,
+            toNode(args.get(0), argLane, leaves),
+            toNode(args.get(1), argLane, leaves));
+    }
+
+    @Nullable
+    private static Node toCompareNode(String name,
+                                      int noMatchOpcode,
+                                      Lane argLane,
+                                      List<Symbol> args,
+                                      List<Symbol> leaves) {
+        if (!argLane.isNumeric()) {
+            return null;
+        }
+        return new Node.Compare(
+            name,
+            noMatchOpcode,
+            toNode(args.get(0), argLane, leaves),
+            toNode(args.get(1), argLane, leaves));
+    }
+
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader() {
+            super(ExpressionCompiler.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+
+/**
+ * The primitive type an expression node is evaluated with.
+ *
+ * BYTE, SHORT and INTEGER values are evaluated as int, like the arithmetic scalar functions do,
+ * booleans are kept as int 0 or 1.
+ */
+enum Lane {
+
+    INT(Type.INT_TYPE, Opcodes.ICONST_0, 'i', "java/lang/Integer"),
+    LONG(Type.LONG_TYPE, Opcodes.LCONST_0, 'l', "java/lang/Long"),
+    FLOAT(Type.FLOAT_TYPE, Opcodes.FCONST_0, 'f', "java/lang/Float"),
+    DOUBLE(Type.DOUBLE_TYPE, Opcodes.DCONST_0, 'd', "java/lang/Double"),
+    BOOLEAN(Type.BOOLEAN_TYPE, Opcodes.ICONST_0, 'z', "java/lang/Boolean");
+
+    final Type type;
+    final int zeroOpcode;
+    final char shapeChar;
+    final String boxClass;
+
+    Lane(Type type, int zeroOpcode, char shapeChar, String boxClass) {
+        this.type = type;
+        this.zeroOpcode = zeroOpcode;
+        this.shapeChar = shapeChar;
+        this.boxClass = boxClass;
+    }
+
+    boolean isNumeric() {
+        return this != BOOLEAN;
+    }
+
+    /**
+     * @return the opcode variant of this lane, e.g. LADD for IADD on the LONG lane
+     */
+    int opcode(int intOpcode) {
+        return type.getOpcode(intOpcode);
+    }
+
+    /**
+     * Descriptor of the {@code valueOf} method of the box class
+     */
+    String boxDescriptor() {
+        return "(" + type.getDescriptor() + ")L" + boxClass + ";";
+    }
+
+    /**
+     * Descriptor of the static {@code compare} method of the box class
+     */
+    String compareDescriptor() {
+        return "(" + type.getDescriptor() + type.getDescriptor() + ")I";
+    }
+
+    /**
+     * Name of the method of {@link CompiledExpression} which unboxes a value into this lane
+     */
+    String unboxMethod() {
+        switch (this) {
+            case INT:
+                return "toInt";
+            case LONG:
+                return "toLong";
+            case FLOAT:
+                return "toFloat";
+            case DOUBLE:
+                return "toDouble";
+            default:
+                return "toBoolean";
+        }
+    }
+
+    @Nullable
+    static Lane of(DataType type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+                return INT;
+            case LongType.ID:
+            case TimestampType.ID:
+                return LONG;
+            case FloatType.ID:
+                return FLOAT;
+            case DoubleType.ID:
+                return DOUBLE;
+            case BooleanType.ID:
+                return BOOLEAN;
+            default:
+                return null;
+        }
+    }
+}
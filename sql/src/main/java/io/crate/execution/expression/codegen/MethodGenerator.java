@@ -0,0 +1,110 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.data.Input;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.BIPUSH;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.SIPUSH;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+/**
+ * Generates the bytecode of a {@link CompiledExpression} subclass for an expression tree
+ * and keeps track of the local variables of its {@code value()} method.
+ */
+final class MethodGenerator {
+
+    static final String SUPER_NAME = Type.getInternalName(CompiledExpression.class);
+    static final String INPUT_NAME = Type.getInternalName(Input.class);
+    static final String INPUTS_DESCRIPTOR = "[L" + INPUT_NAME + ";";
+
+    private static final String CONSTRUCTOR_DESCRIPTOR = "(" + INPUTS_DESCRIPTOR + ")V";
+
+    final MethodVisitor mv;
+    private int nextLocal = 1; // 0 is this
+
+    private MethodGenerator(MethodVisitor mv) {
+        this.mv = mv;
+    }
+
+    static byte[] generateClass(String internalName, Node root) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // the generated code never merges different reference types; avoid loading the generated class
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, internalName, null, SUPER_NAME, null);
+
+        MethodVisitor constructor = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ALOAD, 1);
+        constructor.visitMethodInsn(INVOKESPECIAL, SUPER_NAME, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor value = cw.visitMethod(ACC_PUBLIC, "value", "()Ljava/lang/Object;", null, null);
+        value.visitCode();
+        MethodGenerator gen = new MethodGenerator(value);
+        root.emit(gen);
+        root.emitReturn(gen);
+        value.visitMaxs(0, 0);
+        value.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    int newLocal(Type type) {
+        int local = nextLocal;
+        nextLocal += type.getSize();
+        return local;
+    }
+
+    void pushInt(int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.data.Input;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACONST_NULL;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ICONST_0;
+import static org.objectweb.asm.Opcodes.ICONST_1;
+import static org.objectweb.asm.Opcodes.IFEQ;
+import static org.objectweb.asm.Opcodes.IFNE;
+import static org.objectweb.asm.Opcodes.IFNONNULL;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.IOR;
+import static org.objectweb.asm.Opcodes.ISTORE;
+import static org.objectweb.asm.Opcodes.IXOR;
+
+/**
+ * A node of an expression tree which can be compiled.
+ *
+ * <p>
+ * The code generated by {@link #emit(MethodGenerator)} evaluates the node and stores the result in two local
+ * variables: {@link #valueLocal} of the type of the {@link #lane} and {@link #nullLocal}, an int which is 1 if the
+ * result is null. The value local is always assigned, but must be ignored if the result is null.
+ * </p>
+ */
+abstract class Node {
+
+    final Lane lane;
+    int valueLocal;
+    int nullLocal;
+
+    Node(Lane lane) {
+        this.lane = lane;
+    }
+
+    /**
+     * Appends a description of the node to the shape of the expression.
+     * Expressions with the same shape share the same generated class.
+     */
+    abstract void appendShape(StringBuilder sb);
+
+    abstract void emit(MethodGenerator gen);
+
+    final void allocateLocals(MethodGenerator gen) {
+        valueLocal = gen.newLocal(lane.type);
+        nullLocal = gen.newLocal(Type.INT_TYPE);
+    }
+
+    /**
+     * Emits the code to box the result and return it
+     */
+    final void emitReturn(MethodGenerator gen) {
+        MethodVisitor mv = gen.mv;
+        Label notNull = new Label();
+        mv.visitVarInsn(ILOAD, nullLocal);
+        mv.visitJumpInsn(IFEQ, notNull);
+        mv.visitInsn(ACONST_NULL);
+        mv.visitInsn(ARETURN);
+        mv.visitLabel(notNull);
+        mv.visitVarInsn(lane.opcode(ILOAD), valueLocal);
+        mv.visitMethodInsn(INVOKESTATIC, lane.boxClass, "valueOf", lane.boxDescriptor(), false);
+        mv.visitInsn(ARETURN);
+    }
+
+    /**
+     * Stores the given value into {@link #valueLocal} and {@link #nullLocal}
+     */
+    final void emitStoreConstant(MethodVisitor mv, int valueOpcode, boolean isNull) {
+        mv.visitInsn(valueOpcode);
+        mv.visitVarInsn(lane.opcode(ISTORE), valueLocal);
+        mv.visitInsn(isNull ? ICONST_1 : ICONST_0);
+        mv.visitVarInsn(ISTORE, nullLocal);
+    }
+
+    /**
+     * Emits {@code nullLocal = left.nullLocal | right.nullLocal} and a jump to {@code ifNull} if it is set.
+     */
+    final void emitPropagateNull(MethodVisitor mv, Node left, Node right, Label ifNull) {
+        mv.visitVarInsn(ILOAD, left.nullLocal);
+        mv.visitVarInsn(ILOAD, right.nullLocal);
+        mv.visitInsn(IOR);
+        mv.visitVarInsn(ISTORE, nullLocal);
+        mv.visitVarInsn(ILOAD, nullLocal);
+        mv.visitJumpInsn(IFNE, ifNull);
+    }
+
+    /**
+     * A leaf of the tree, evaluated by calling {@link Input#value()} on the input at {@link #index}.
+     */
+    static final class Leaf extends Node {
+
+        private final int index;
+
+        Leaf(Lane lane, int index) {
+            super(lane);
+            this.index = index;
+        }
+
+        @Override
+        void appendShape(StringBuilder sb) {
+            sb.append('$').append(lane.shapeChar);
+        }
+
+        @Override
+        void emit(MethodGenerator gen) {
+            allocateLocals(gen);
+            MethodVisitor mv = gen.mv;
+            int valueObject = gen.newLocal(Type.getType(Object.class));
+            Label notNull = new Label();
+            Label end = new Label();
+
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, MethodGenerator.SUPER_NAME, "inputs", MethodGenerator.INPUTS_DESCRIPTOR);
+            gen.pushInt(index);
+            mv.visitInsn(AALOAD);
+            mv.visitMethodInsn(INVOKEINTERFACE, MethodGenerator.INPUT_NAME, "value", "()Ljava/lang/Object;", true);
+            mv.visitVarInsn(ASTORE, valueObject);
+            mv.visitVarInsn(ALOAD, valueObject);
+            mv.visitJumpInsn(IFNONNULL, notNull);
+            emitStoreConstant(mv, lane.zeroOpcode, true);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(notNull);
+            mv.visitVarInsn(ALOAD, valueObject);
+            mv.visitMethodInsn(INVOKESTATIC, MethodGenerator.SUPER_NAME, lane.unboxMethod(),
+                "(Ljava/lang/Object;)" + lane.type.getDescriptor(), false);
+            mv.visitVarInsn(lane.opcode(ISTORE), valueLocal);
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ISTORE, nullLocal);
+            mv.visitLabel(end);
+        }
+    }
+
+    /**
+     * A binary arithmetic operation; the result is null if any of the arguments is null.
+     */
+    static final class Arithmetic extends Node {
+
+        private final String name;
+        private final int intOpcode;
+        private final Node left;
+        private final Node right;
+
+        /**
+         * @param intOpcode the int variant of the operation, e.g. IADD
+         */
+        Arithmetic(String name, int intOpcode, Lane lane, Node left, Node right) {
+            super(lane);
+            this.name = name;
+            this.intOpcode = intOpcode;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void appendShape(StringBuilder sb) {
+            sb.append(name).append(':').append(lane.shapeChar).append('(');
+            left.appendShape(sb);
+            sb.append(',');
+            right.appendShape(sb);
+            sb.append(')');
+        }
+
+        @Override
+        void emit(MethodGenerator gen) {
+            left.emit(gen);
+            right.emit(gen);
+            allocateLocals(gen);
+            MethodVisitor mv = gen.mv;
+            Label isNull = new Label();
+            Label end = new Label();
+
+            emitPropagateNull(mv, left, right, isNull);
+            mv.visitVarInsn(lane.opcode(ILOAD), left.valueLocal);
+            mv.visitVarInsn(lane.opcode(ILOAD), right.valueLocal);
+            mv.visitInsn(lane.opcode(intOpcode));
+            mv.visitVarInsn(lane.opcode(ISTORE), valueLocal);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(isNull);
+            mv.visitInsn(lane.zeroOpcode);
+            mv.visitVarInsn(lane.opcode(ISTORE), valueLocal);
+            mv.visitLabel(end);
+        }
+    }
+
+    /**
+     * A comparison of two numeric values, with the semantics of {@code compareTo} of their boxed types.
+     */
+    static final class Compare extends Node {
+
+        private final String name;
+        private final int noMatchOpcode;
+        private final Node left;
+        private final Node right;
+
+        /**
+         * @param noMatchOpcode the jump instruction which jumps if the result of {@code compare} is no match,
+         *                      e.g. IFNE for equality
+         */
+        Compare(String name, int noMatchOpcode, Node left, Node right) {
+            super(Lane.BOOLEAN);
+            assert left.lane == right.lane && left.lane.isNumeric() : "arguments must be numeric and of the same lane";
+            this.name = name;
+            this.noMatchOpcode = noMatchOpcode;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void appendShape(StringBuilder sb) {
+            sb.append(name).append('(');
+            left.appendShape(sb);
+            sb.append(',');
+            right.appendShape(sb);
+            sb.append(')');
+        }
+
+        @Override
+        void emit(MethodGenerator gen) {
+            left.emit(gen);
+            right.emit(gen);
+            allocateLocals(gen);
+            MethodVisitor mv = gen.mv;
+            Label isNull = new Label();
+            Label noMatch = new Label();
+            Label end = new Label();
+            Lane argLane = left.lane;
+
+            emitPropagateNull(mv, left, right, isNull);
+            mv.visitVarInsn(argLane.opcode(ILOAD), left.valueLocal);
+            mv.visitVarInsn(argLane.opcode(ILOAD), right.valueLocal);
+            mv.visitMethodInsn(INVOKESTATIC, argLane.boxClass, "compare", argLane.compareDescriptor(), false);
+            mv.visitJumpInsn(noMatchOpcode, noMatch);
+            mv.visitInsn(ICONST_1);
+            mv.visitVarInsn(ISTORE, valueLocal);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(noMatch);
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ISTORE, valueLocal);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(isNull);
+            mv.visitInsn(ICONST_0);
+            mv.visitVarInsn(ISTORE, valueLocal);
+            mv.visitLabel(end);
+        }
+    }
+
+    /**
+     * AND or OR using three-valued logic.
+     *
+     * <pre>
+     * AND: false if any argument is false, otherwise null if any argument is null, otherwise true
+     * OR:  true if any argument is true, otherwise null if any argument is null, otherwise false
+     * </pre>
+     */
+    static final class Logical extends Node {
+
+        private final boolean isAnd;
+        private final Node left;
+        private final Node right;
+
+        Logical(boolean isAnd, Node left, Node right) {
+            super(Lane.BOOLEAN);
+            this.isAnd = isAnd;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void appendShape(StringBuilder sb) {
+            sb.append(isAnd ? "and(" : "or(");
+            left.appendShape(sb);
+            sb.append(',');
+            right.appendShape(sb);
+            sb.append(')');
+        }
+
+        @Override
+        void emit(MethodGenerator gen) {
+            left.emit(gen);
+            right.emit(gen);
+            allocateLocals(gen);
+            MethodVisitor mv = gen.mv;
+            // the value which decides the result on its own: false for AND, true for OR
+            int dominantValueJump = isAnd ? IFNE : IFEQ;
+            Label dominant = new Label();
+            Label isNull = new Label();
+            Label end = new Label();
+
+            for (Node arg : new Node[] { left, right }) {
+                Label next = new Label();
+                mv.visitVarInsn(ILOAD, arg.nullLocal);
+                mv.visitJumpInsn(IFNE, next);
+                mv.visitVarInsn(ILOAD, arg.valueLocal);
+                mv.visitJumpInsn(dominantValueJump, next);
+                mv.visitJumpInsn(GOTO, dominant);
+                mv.visitLabel(next);
+            }
+            mv.visitVarInsn(ILOAD, left.nullLocal);
+            mv.visitVarInsn(ILOAD, right.nullLocal);
+            mv.visitInsn(IOR);
+            mv.visitJumpInsn(IFNE, isNull);
+            emitStoreConstant(mv, isAnd ? ICONST_1 : ICONST_0, false);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(dominant);
+            emitStoreConstant(mv, isAnd ? ICONST_0 : ICONST_1, false);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(isNull);
+            emitStoreConstant(mv, ICONST_0, true);
+            mv.visitLabel(end);
+        }
+    }
+
+    /**
+     * NOT; null stays null.
+     */
+    static final class Not extends Node {
+
+        private final Node arg;
+
+        Not(Node arg) {
+            super(Lane.BOOLEAN);
+            this.arg = arg;
+        }
+
+        @Override
+        void appendShape(StringBuilder sb) {
+            sb.append("not(");
+            arg.appendShape(sb);
+            sb.append(')');
+        }
+
+        @Override
+        void emit(MethodGenerator gen) {
+            arg.emit(gen);
+            allocateLocals(gen);
+            MethodVisitor mv = gen.mv;
+            mv.visitVarInsn(ILOAD, arg.valueLocal);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(IXOR);
+            mv.visitVarInsn(ISTORE, valueLocal);
+            mv.visitVarInsn(ILOAD, arg.nullLocal);
+            mv.visitVarInsn(ISTORE, nullLocal);
+        }
+    }
+}
@@ -29,8 +29,10 @@ import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.TransactionContext;
 import io.crate.types.DataTypes;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 public class AndOperator extends Operator<Boolean> {
 
@@ -138,4 +140,27 @@ public class AndOperator extends Operator<Boolean> {
         }
         return first;
     }
+
+    /**
+     * Split a symbol by AND functions.
+     * <pre>
+     * x = 1 AND y = 2 AND z = 3 -> [(x = 1), (y = 2), (z = 3)]
+     * x = 1                     -> [(x = 1)]
+     * </pre>
+     */
+    public static List<Symbol> split(Symbol symbol) {
+        List<Symbol> parts = new ArrayList<>();
+        split(symbol, parts);
+        return parts;
+    }
+
+    private static void split(Symbol symbol, List<Symbol> parts) {
+        if (symbol instanceof Function && ((Function) symbol).info().ident().name().equals(NAME)) {
+            for (Symbol arg : ((Function) symbol).arguments()) {
+                split(arg, parts);
+            }
+        } else {
+            parts.add(symbol);
+        }
+    }
 }
@@ -24,26 +24,54 @@ package io.crate.execution.expression.reference.sys.job;
 import io.crate.auth.user.User;
 
 import javax.annotation.Nullable;
+import java.util.Locale;
 import java.util.UUID;
 
 public class JobContext {
 
+    public enum State {
+        QUEUED,
+        RUNNING;
+
+        private final String value = name().toLowerCase(Locale.ENGLISH);
+
+        public String value() {
+            return value;
+        }
+    }
+
     public final UUID id;
     @Nullable
     public final String username;
     public final String stmt;
     public final long started;
+    @Nullable
+    private final String resourceGroup;
+    private final State state;
 
     public JobContext(UUID id, String stmt, long started, @Nullable User user) {
+        this(id, stmt, started, user == null ? null : user.name(), null, State.RUNNING);
+    }
+
+    private JobContext(UUID id,
+                       String stmt,
+                       long started,
+                       @Nullable String username,
+                       @Nullable String resourceGroup,
+                       State state) {
         this.id = id;
         this.stmt = stmt;
         this.started = started;
+        this.username = username;
+        this.resourceGroup = resourceGroup;
+        this.state = state;
+    }
 
-        if (user != null) {
-            this.username = user.name();
-        } else {
-            this.username = null;
-        }
+    /**
+     * @return a copy of this context which belongs to the given resource group and is in the given state
+     */
+    public JobContext withResourceGroup(String resourceGroup, State state) {
+        return new JobContext(id, stmt, started, username, resourceGroup, state);
     }
 
     public UUID id() {
@@ -62,4 +90,13 @@ public class JobContext {
     public long started() {
         return started;
     }
+
+    @Nullable
+    public String resourceGroup() {
+        return resourceGroup;
+    }
+
+    public State state() {
+        return state;
+    }
 }
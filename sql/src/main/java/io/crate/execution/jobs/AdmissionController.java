@@ -0,0 +1,312 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.relations.QueriedDocTable;
+import io.crate.analyze.relations.QueriedRelation;
+import io.crate.auth.user.User;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.exceptions.JobKilledException;
+import io.crate.execution.engine.collect.stats.StatementType;
+import io.crate.execution.jobs.kill.KillAllListener;
+import io.crate.planner.Plan;
+import io.crate.planner.node.dml.DeleteById;
+import io.crate.planner.node.dml.LegacyUpsertById;
+import io.crate.planner.node.dml.UpdateById;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decides whether a job may start executing or has to wait until other jobs have finished.
+ *
+ * Every job is assigned to a {@link ResourceGroup}: the group the user is mapped to, otherwise the group
+ * selected with the {@code resource_group} session setting, otherwise the {@code default} group.
+ * A job is admitted if neither the limits of its group nor the node wide {@link #MAX_CONCURRENT_JOBS_SETTING}
+ * are exceeded, otherwise it is queued. Once a job finishes, the queued jobs of the group with the highest
+ * priority are admitted first; jobs of the same priority are admitted in the order they were queued.
+ *
+ * Point lookups and writes by primary key as well as DDL and management statements bypass the admission,
+ * so they aren't starved by long running queries.
+ *
+ * The limits are enforced per coordinating node.
+ * Queued jobs are removed from the queue if they're killed, or cancelled with {@link #cancel(UUID, Throwable)}
+ * because the client went away before they were admitted.
+ */
+@Singleton
+public class AdmissionController implements KillAllListener {
+
+    public static final Setting<Settings> RESOURCE_GROUPS_SETTING = Setting.groupSetting(
+        "node.sql.resource_groups.", Setting.Property.NodeScope);
+
+    public static final Setting<Integer> MAX_CONCURRENT_JOBS_SETTING = Setting.intSetting(
+        "node.sql.workload.max_concurrent_jobs", 0, 0, Setting.Property.NodeScope);
+
+    private final CircuitBreaker queryBreaker;
+    private final int maxConcurrentJobs;
+    private final Map<String, ResourceGroup> groups = new HashMap<>();
+    private final Map<String, ResourceGroup> groupsByUser = new HashMap<>();
+    private final ResourceGroup defaultGroup;
+
+    private int runningJobs = 0;
+    private long sequence = 0;
+
+    @Inject
+    public AdmissionController(Settings settings,
+                               CrateCircuitBreakerService breakerService,
+                               JobContextService jobContextService) {
+        this(settings, breakerService.getBreaker(CrateCircuitBreakerService.QUERY));
+        jobContextService.addListener(this);
+    }
+
+    @VisibleForTesting
+    public AdmissionController(Settings settings, CircuitBreaker queryBreaker) {
+        this.queryBreaker = queryBreaker;
+        this.maxConcurrentJobs = MAX_CONCURRENT_JOBS_SETTING.get(settings);
+        for (Map.Entry<String, Settings> entry : RESOURCE_GROUPS_SETTING.get(settings).getAsGroups().entrySet()) {
+            ResourceGroup group = ResourceGroup.fromSettings(entry.getKey(), entry.getValue());
+            groups.put(group.name(), group);
+            for (String user : group.users()) {
+                ResourceGroup existing = groupsByUser.put(user, group);
+                if (existing != null) {
+                    throw new IllegalArgumentException(
+                        "User '" + user + "' is assigned to the resource groups '" +
+                        existing.name() + "' and '" + group.name() + "'");
+                }
+            }
+        }
+        defaultGroup = groups.computeIfAbsent(ResourceGroup.DEFAULT, name -> new ResourceGroup(
+            name, Collections.emptySet(), 0, ResourceGroup.DEFAULT_MAX_QUEUED_JOBS, 1.0, 0));
+    }
+
+    /**
+     * @return false if the statement is executed immediately without being subject to the limits of a resource group
+     */
+    public static boolean requiresAdmission(AnalyzedStatement statement, Plan plan) {
+        switch (StatementType.of(statement)) {
+            case SELECT:
+                if (!(statement instanceof QueriedRelation)) {
+                    // e.g. FETCH of a declared cursor
+                    return false;
+                }
+                return !(statement instanceof QueriedDocTable
+                         && ((QueriedDocTable) statement).where().docKeys().isPresent());
+
+            case INSERT:
+            case UPDATE:
+            case DELETE:
+            case COPY:
+                return !(plan instanceof UpdateById || plan instanceof DeleteById || plan instanceof LegacyUpsertById);
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the resource group selected within the session doesn't exist
+     */
+    public ResourceGroup resourceGroup(SessionContext sessionContext) {
+        User user = sessionContext.user();
+        if (user != null) {
+            ResourceGroup group = groupsByUser.get(user.name());
+            if (group != null) {
+                return group;
+            }
+        }
+        String name = sessionContext.resourceGroup();
+        if (name == null) {
+            return defaultGroup;
+        }
+        ResourceGroup group = groups.get(name);
+        if (group == null) {
+            throw new IllegalArgumentException("Resource group '" + name + "' does not exist");
+        }
+        return group;
+    }
+
+    /**
+     * Admits a job of the given group.
+     * A queued job stays queued until it's admitted, cancelled or killed.
+     * Every successfully admitted job must be followed by a {@link #release(ResourceGroup)} call once it finished.
+     *
+     * @return a future which completes once the job may start. It completes immediately if the job didn't have
+     *         to be queued and fails with a {@link EsRejectedExecutionException} if the queue of the group is full.
+     */
+    public CompletableFuture<Void> admit(ResourceGroup group, UUID jobId) {
+        synchronized (this) {
+            if (group.queue.isEmpty() && canRun(group)) {
+                group.runningJobs++;
+                runningJobs++;
+                return CompletableFuture.completedFuture(null);
+            }
+            if (group.queue.size() < group.maxQueuedJobs()) {
+                ResourceGroup.QueuedJob job = new ResourceGroup.QueuedJob(jobId, sequence++);
+                group.queue.add(job);
+                return job.admitted;
+            }
+        }
+        CompletableFuture<Void> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new EsRejectedExecutionException(
+            "Resource group '" + group.name() + "' has reached its maximum of " + group.maxQueuedJobs() + " queued jobs"));
+        return rejected;
+    }
+
+    /**
+     * Releases a job admitted by {@link #admit(ResourceGroup)} and admits the queued jobs which are now allowed to run.
+     */
+    public void release(ResourceGroup group) {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+        synchronized (this) {
+            group.runningJobs--;
+            runningJobs--;
+            assert group.runningJobs >= 0 && runningJobs >= 0 : "release must only be called for admitted jobs";
+
+            ResourceGroup next;
+            while ((next = nextGroupToAdmit()) != null) {
+                ResourceGroup.QueuedJob job = next.queue.poll();
+                next.runningJobs++;
+                runningJobs++;
+                admitted.add(job.admitted);
+            }
+        }
+        // the admitted jobs start executing within the listeners of the futures, which must not hold the lock
+        for (CompletableFuture<Void> future : admitted) {
+            future.complete(null);
+        }
+    }
+
+    /**
+     * Removes the job from the queue of its group and fails the future returned by {@link #admit(ResourceGroup, UUID)}.
+     *
+     * @return false if the job isn't queued (anymore), e.g. because it has already been admitted
+     */
+    public boolean cancel(UUID jobId, Throwable reason) {
+        ResourceGroup.QueuedJob cancelled = null;
+        synchronized (this) {
+            for (ResourceGroup group : groups.values()) {
+                cancelled = removeQueuedJob(group, jobId);
+                if (cancelled != null) {
+                    break;
+                }
+            }
+        }
+        if (cancelled == null) {
+            return false;
+        }
+        cancelled.admitted.completeExceptionally(reason);
+        return true;
+    }
+
+    @Nullable
+    private static ResourceGroup.QueuedJob removeQueuedJob(ResourceGroup group, UUID jobId) {
+        Iterator<ResourceGroup.QueuedJob> it = group.queue.iterator();
+        while (it.hasNext()) {
+            ResourceGroup.QueuedJob job = it.next();
+            if (job.jobId.equals(jobId)) {
+                it.remove();
+                return job;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void killAllJobs() {
+        List<ResourceGroup.QueuedJob> cancelled = new ArrayList<>();
+        synchronized (this) {
+            for (ResourceGroup group : groups.values()) {
+                cancelled.addAll(group.queue);
+                group.queue.clear();
+            }
+        }
+        for (ResourceGroup.QueuedJob job : cancelled) {
+            job.admitted.completeExceptionally(new JobKilledException());
+        }
+    }
+
+    @Override
+    public void killJob(UUID jobId) {
+        cancel(jobId, new JobKilledException());
+    }
+
+    /**
+     * @return the number of jobs of the group which are waiting to be admitted
+     */
+    public synchronized int queuedJobs(ResourceGroup group) {
+        return group.queue.size();
+    }
+
+    public synchronized int runningJobs(ResourceGroup group) {
+        return group.runningJobs;
+    }
+
+    @Nullable
+    private ResourceGroup nextGroupToAdmit() {
+        ResourceGroup next = null;
+        for (ResourceGroup group : groups.values()) {
+            ResourceGroup.QueuedJob head = group.queue.peek();
+            if (head == null || !canRun(group)) {
+                continue;
+            }
+            if (next == null
+                || group.priority() > next.priority()
+                || group.priority() == next.priority() && head.sequence < next.queue.peek().sequence) {
+                next = group;
+            }
+        }
+        return next;
+    }
+
+    private boolean canRun(ResourceGroup group) {
+        if (maxConcurrentJobs > 0 && runningJobs >= maxConcurrentJobs) {
+            return false;
+        }
+        if (group.maxConcurrentJobs() > 0 && group.runningJobs >= group.maxConcurrentJobs()) {
+            return false;
+        }
+        // A group without running jobs is always admitted so that it makes progress;
+        // otherwise the queue is re-evaluated once one of its running jobs finishes.
+        long breakerLimit = queryBreaker.getLimit();
+        return group.runningJobs == 0
+               || group.maxBreakerUsage() >= 1.0
+               || breakerLimit <= 0
+               || queryBreaker.getUsed() <= group.maxBreakerUsage() * breakerLimit;
+    }
+}
@@ -56,12 +56,16 @@ import io.crate.execution.engine.collect.MapSideDataCollectOperation;
 import io.crate.execution.engine.collect.sources.SystemCollectSource;
 import io.crate.execution.engine.collect.count.CountOperation;
 import io.crate.execution.engine.fetch.FetchContext;
+import io.crate.execution.engine.join.HashJoinOperation;
 import io.crate.execution.engine.join.NestedLoopOperation;
 import io.crate.execution.engine.distribution.merge.PagingIterator;
 import io.crate.execution.engine.distribution.DistributingConsumerFactory;
 import io.crate.execution.engine.pipeline.ProjectingRowConsumer;
+import io.crate.execution.engine.profile.PhaseProfile;
+import io.crate.execution.engine.profile.ProfilingContext;
 import io.crate.execution.engine.pipeline.ProjectionToProjectorVisitor;
 import io.crate.execution.engine.pipeline.ProjectorFactory;
+import io.crate.execution.engine.spill.PartitionedSpill;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.execution.dsl.phases.UpstreamPhase;
 import io.crate.execution.dsl.phases.ExecutionPhase;
@@ -73,6 +77,7 @@ import io.crate.execution.dsl.phases.CountPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.PKLookupPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.FetchPhase;
 import io.crate.types.DataTypes;
@@ -93,6 +98,7 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -105,7 +111,7 @@ public class ContextPreparer extends AbstractComponent {
 
     private final MapSideDataCollectOperation collectOperation;
     private final Logger pageDownstreamContextLogger;
-    private final Logger nlContextLogger;
+    private final Logger joinContextLogger;
     private final ClusterService clusterService;
     private final CountOperation countOperation;
     private final CircuitBreaker circuitBreaker;
@@ -130,7 +136,7 @@ public class ContextPreparer extends AbstractComponent {
                            SystemCollectSource systemCollectSource,
                            BigArrays bigArrays) {
         super(settings);
-        nlContextLogger = Loggers.getLogger(NestedLoopContext.class, settings);
+        joinContextLogger = Loggers.getLogger(JoinContext.class, settings);
         pageDownstreamContextLogger = Loggers.getLogger(PageDownstreamContext.class, settings);
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
@@ -412,6 +418,8 @@ public class ContextPreparer extends AbstractComponent {
         private final JobExecutionContext.Builder contextBuilder;
         private final Logger logger;
         private final List<ExecutionPhase> leafs = new ArrayList<>();
+        @Nullable
+        private final ProfilingContext profilingContext;
 
         PreparerContext(String localNodeId,
                         JobExecutionContext.Builder contextBuilder,
@@ -424,12 +432,27 @@ public class ContextPreparer extends AbstractComponent {
             this.opCtx = new NodeOperationCtx(localNodeId, nodeOperations);
             this.distributingConsumerFactory = distributingConsumerFactory;
             this.sharedShardContexts = sharedShardContexts;
+            this.profilingContext = contextBuilder.profilingContext();
         }
 
         public UUID jobId() {
             return contextBuilder.jobId();
         }
 
+        /**
+         * @return the profile of the phase if the job is profiled, otherwise null.
+         */
+        @Nullable
+        PhaseProfile phaseProfile(ExecutionPhase phase, @Nullable RamAccountingContext ramAccountingContext) {
+            if (profilingContext == null) {
+                return null;
+            }
+            if (ramAccountingContext == null) {
+                return profilingContext.phaseProfile(phase);
+            }
+            return profilingContext.phaseProfile(phase, ramAccountingContext);
+        }
+
         /**
          * Retrieve the rowReceiver of the downstream of phase
          */
@@ -451,7 +474,7 @@ public class ContextPreparer extends AbstractComponent {
                 case BROADCAST:
                 case MODULO:
                     RowConsumer consumer = distributingConsumerFactory.create(
-                        nodeOperation, phase.distributionInfo(), jobId(), pageSize);
+                        nodeOperation, phase.distributionInfo(), jobId(), pageSize, phaseProfile(phase, null));
                     traceGetBatchConsumer(phase, distributionType.toString(), nodeOperation, consumer);
                     return consumer;
 
@@ -543,12 +566,14 @@ public class ContextPreparer extends AbstractComponent {
 
         @Override
         public Boolean visitPKLookup(PKLookupPhase pkLookupPhase, PreparerContext context) {
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, pkLookupPhase);
             RowConsumer rowConsumer = ProjectingRowConsumer.create(
                 context.getRowConsumer(pkLookupPhase, 0),
                 pkLookupPhase.projections(),
                 pkLookupPhase.jobId(),
-                RamAccountingContext.forExecutionPhase(circuitBreaker, pkLookupPhase),
-                projectorFactory
+                ramAccountingContext,
+                projectorFactory,
+                context.phaseProfile(pkLookupPhase, ramAccountingContext)
             );
             context.registerSubContext(new PKLookupContext(
                 pkLookupPhase.phaseId(),
@@ -575,7 +600,8 @@ public class ContextPreparer extends AbstractComponent {
                 phase.projections(),
                 phase.jobId(),
                 ramAccountingContext,
-                projectorFactory
+                projectorFactory,
+                context.phaseProfile(phase, ramAccountingContext)
             );
 
             if (upstreamOnSameNode && phase.numInputs() == 1) {
@@ -614,6 +640,7 @@ public class ContextPreparer extends AbstractComponent {
             if (ramAccountingContext == null) {
                 ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
             }
+            consumer = profileCollect(phase, consumer, ramAccountingContext, context);
 
             context.registerSubContext(new JobCollectContext(
                 phase,
@@ -628,7 +655,8 @@ public class ContextPreparer extends AbstractComponent {
         @Override
         public Boolean visitCollectPhase(CollectPhase phase, PreparerContext context) {
             RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
-            RowConsumer consumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
+            RowConsumer consumer = profileCollect(
+                phase, context.getRowConsumer(phase, Paging.PAGE_SIZE), ramAccountingContext, context);
             context.registerSubContext(new JobCollectContext(
                 phase,
                 collectOperation,
@@ -673,7 +701,12 @@ public class ContextPreparer extends AbstractComponent {
             RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
 
             RowConsumer firstConsumer = ProjectingRowConsumer.create(
-                lastConsumer, phase.projections(), phase.jobId(), ramAccountingContext, projectorFactory);
+                lastConsumer,
+                phase.projections(),
+                phase.jobId(),
+                ramAccountingContext,
+                projectorFactory,
+                context.phaseProfile(phase, ramAccountingContext));
             Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
 
             NestedLoopOperation nestedLoopOperation = new NestedLoopOperation(
@@ -683,7 +716,7 @@ public class ContextPreparer extends AbstractComponent {
                 joinCondition,
                 phase.joinType()
             );
-            PageDownstreamContext left = pageDownstreamContextForNestedLoop(
+            PageDownstreamContext left = pageDownstreamContextForJoin(
                 phase.phaseId(),
                 context,
                 (byte) 0,
@@ -693,7 +726,7 @@ public class ContextPreparer extends AbstractComponent {
             if (left != null) {
                 context.registerSubContext(left);
             }
-            PageDownstreamContext right = pageDownstreamContextForNestedLoop(
+            PageDownstreamContext right = pageDownstreamContextForJoin(
                 phase.phaseId(),
                 context,
                 (byte) 1,
@@ -704,8 +737,8 @@ public class ContextPreparer extends AbstractComponent {
             if (right != null) {
                 context.registerSubContext(right);
             }
-            context.registerSubContext(new NestedLoopContext(
-                nlContextLogger,
+            context.registerSubContext(new JoinContext(
+                joinContextLogger,
                 phase,
                 nestedLoopOperation,
                 left,
@@ -714,26 +747,102 @@ public class ContextPreparer extends AbstractComponent {
             return true;
         }
 
+        @Override
+        public Boolean visitHashJoinPhase(HashJoinPhase phase, PreparerContext context) {
+            RamAccountingContext ramAccountingContext = RamAccountingContext.forExecutionPhase(circuitBreaker, phase);
+            RowConsumer lastConsumer = context.getRowConsumer(phase, Paging.PAGE_SIZE);
+
+            RowConsumer firstConsumer = ProjectingRowConsumer.create(
+                lastConsumer,
+                phase.projections(),
+                phase.jobId(),
+                ramAccountingContext,
+                projectorFactory,
+                context.phaseProfile(phase, ramAccountingContext));
+            Predicate<Row> joinCondition = RowFilter.create(inputFactory, phase.joinCondition());
+
+            HashJoinOperation hashJoinOperation = new HashJoinOperation(
+                phase.leftOutputTypes(),
+                phase.rightOutputTypes(),
+                firstConsumer,
+                joinCondition,
+                phase.joinType(),
+                HashJoinOperation.hashFunction(inputFactory, phase.leftJoinConditionInputs()),
+                HashJoinOperation.hashFunction(inputFactory, phase.rightJoinConditionInputs()),
+                new RowAccounting(
+                    phase.rightOutputTypes(),
+                    RamAccountingContext.forExecutionPhase(circuitBreaker, phase)),
+                phase.spillToDisk() ? PartitionedSpill.spillDirectory(settings) : null
+            );
+            PageDownstreamContext left = pageDownstreamContextForJoin(
+                phase.phaseId(),
+                context,
+                (byte) 0,
+                phase.leftMergePhase(),
+                hashJoinOperation.leftConsumer(),
+                ramAccountingContext);
+            if (left != null) {
+                context.registerSubContext(left);
+            }
+            PageDownstreamContext right = pageDownstreamContextForJoin(
+                phase.phaseId(),
+                context,
+                (byte) 1,
+                phase.rightMergePhase(),
+                hashJoinOperation.rightConsumer(),
+                ramAccountingContext
+            );
+            if (right != null) {
+                context.registerSubContext(right);
+            }
+            context.registerSubContext(new JoinContext(
+                joinContextLogger,
+                phase,
+                hashJoinOperation,
+                left,
+                right
+            ));
+            return true;
+        }
+
+        /**
+         * Projections of collect phases are applied by the collect sources,
+         * so if profiled, the collect phase is recorded as a single operator.
+         */
+        private RowConsumer profileCollect(ExecutionPhase phase,
+                                           RowConsumer consumer,
+                                           RamAccountingContext ramAccountingContext,
+                                           PreparerContext context) {
+            PhaseProfile phaseProfile = context.phaseProfile(phase, ramAccountingContext);
+            if (phaseProfile == null) {
+                return consumer;
+            }
+            return ProjectingRowConsumer.create(
+                consumer, Collections.emptyList(), context.jobId(), ramAccountingContext, projectorFactory, phaseProfile);
+        }
+
         @Nullable
-        private PageDownstreamContext pageDownstreamContextForNestedLoop(int nlPhaseId,
+        private PageDownstreamContext pageDownstreamContextForJoin(int joinPhaseId,
                                                                          PreparerContext ctx,
                                                                          byte inputId,
                                                                          @Nullable MergePhase mergePhase,
                                                                          RowConsumer rowConsumer,
                                                                          RamAccountingContext ramAccountingContext) {
             if (mergePhase == null) {
-                ctx.consumersByPhaseInputId.put(toKey(nlPhaseId, inputId), rowConsumer);
+                ctx.consumersByPhaseInputId.put(toKey(joinPhaseId, inputId), rowConsumer);
                 return null;
             }
 
-            // In case of join on virtual table the left or right merge phase of the nl might have projections (TopN)
-            if (mergePhase.hasProjections()) {
+            // In case of join on virtual table the left or right merge phase of the join might have projections (TopN)
+            PhaseProfile phaseProfile = ctx.phaseProfile(mergePhase, null);
+            if (mergePhase.hasProjections() || phaseProfile != null) {
                 rowConsumer = ProjectingRowConsumer.create(
                     rowConsumer,
                     mergePhase.projections(),
                     mergePhase.jobId(),
                     ramAccountingContext,
-                    projectorFactory
+                    projectorFactory,
+                    phaseProfile
                 );
             }
             return new PageDownstreamContext(
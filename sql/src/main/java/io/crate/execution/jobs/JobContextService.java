@@ -21,18 +21,25 @@
 
 package io.crate.execution.jobs;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import io.crate.concurrent.CountdownFutureCallback;
 import io.crate.exceptions.ContextMissingException;
+import io.crate.exceptions.StatementTimeoutException;
 import io.crate.execution.jobs.kill.KillAllListener;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.profile.PhaseProfile;
+import io.crate.execution.engine.profile.ProfilingContext;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
@@ -43,6 +50,8 @@ import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.stream.Stream;
 
@@ -50,16 +59,26 @@ import java.util.stream.Stream;
 public class JobContextService extends AbstractLifecycleComponent {
 
     private final ClusterService clusterService;
+    private final ThreadPool threadPool;
     private final JobsLogs jobsLogs;
     private final ConcurrentMap<UUID, JobExecutionContext> activeContexts =
         ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
 
+    /**
+     * Profiles of finished jobs which have been executed with profiling enabled.
+     * They're kept for a short time so that the coordinator can fetch them once the whole job has finished.
+     */
+    private final Cache<UUID, List<PhaseProfile>> finishedProfiles = CacheBuilder.newBuilder()
+        .expireAfterWrite(1, TimeUnit.MINUTES)
+        .build();
+
     private final List<KillAllListener> killAllListeners = Collections.synchronizedList(new ArrayList<KillAllListener>());
 
     @Inject
-    public JobContextService(Settings settings, ClusterService clusterService, JobsLogs jobsLogs) {
+    public JobContextService(Settings settings, ClusterService clusterService, ThreadPool threadPool, JobsLogs jobsLogs) {
         super(settings);
         this.clusterService = clusterService;
+        this.threadPool = threadPool;
         this.jobsLogs = jobsLogs;
     }
 
@@ -108,6 +127,28 @@ public class JobContextService extends AbstractLifecycleComponent {
         return activeContexts.get(jobId);
     }
 
+    /**
+     * Returns the profiles of the phases of a job which have been executed on this node.
+     * If the job is still running the future completes once the job has finished.
+     * The profiles of a finished job can only be retrieved once.
+     */
+    public CompletableFuture<List<PhaseProfile>> getProfiles(UUID jobId) {
+        JobExecutionContext context = activeContexts.get(jobId);
+        if (context != null) {
+            ProfilingContext profilingContext = context.profilingContext();
+            if (profilingContext == null) {
+                return CompletableFuture.completedFuture(Collections.emptyList());
+            }
+            return context.completionFuture().handle((r, f) -> profilingContext.phaseProfiles());
+        }
+        List<PhaseProfile> profiles = finishedProfiles.getIfPresent(jobId);
+        if (profiles == null) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        finishedProfiles.invalidate(jobId);
+        return CompletableFuture.completedFuture(profiles);
+    }
+
     public JobExecutionContext.Builder newBuilder(UUID jobId) {
         return new JobExecutionContext.Builder(jobId, clusterService.localNode().getId(), Collections.emptyList(), jobsLogs);
     }
@@ -127,7 +168,7 @@ public class JobContextService extends AbstractLifecycleComponent {
         final UUID jobId = contextBuilder.jobId();
         JobExecutionContext newContext = contextBuilder.build();
 
-        JobContextCallback jobContextCallback = new JobContextCallback(jobId);
+        JobContextCallback jobContextCallback = new JobContextCallback(jobId, newContext.profilingContext());
         newContext.completionFuture().whenComplete(jobContextCallback);
 
         JobExecutionContext existing = activeContexts.putIfAbsent(jobId, newContext);
@@ -135,6 +176,12 @@ public class JobContextService extends AbstractLifecycleComponent {
             throw new IllegalArgumentException(
                 String.format(Locale.ENGLISH, "context for job %s already exists:%n%s", jobId, existing));
         }
+        TimeValue timeout = contextBuilder.timeout();
+        if (timeout != null) {
+            ScheduledFuture<?> timeoutTask = threadPool.schedule(
+                timeout, ThreadPool.Names.GENERIC, () -> newContext.kill(new StatementTimeoutException()));
+            newContext.completionFuture().whenComplete((r, f) -> timeoutTask.cancel(false));
+        }
         if (logger.isTraceEnabled()) {
             logger.trace("JobExecutionContext created for job {},  activeContexts: {}",
                 jobId, activeContexts.size());
@@ -199,13 +246,20 @@ public class JobContextService extends AbstractLifecycleComponent {
     private class JobContextCallback implements BiConsumer<Void, Throwable> {
 
         private final UUID jobId;
+        @Nullable
+        private final ProfilingContext profilingContext;
 
-        JobContextCallback(UUID jobId) {
+        JobContextCallback(UUID jobId, @Nullable ProfilingContext profilingContext) {
             this.jobId = jobId;
+            this.profilingContext = profilingContext;
         }
 
         @Override
         public void accept(Void aVoid, Throwable throwable) {
+            if (profilingContext != null) {
+                // before removing the context so that the profiles are always available to getProfiles
+                finishedProfiles.put(jobId, profilingContext.phaseProfiles());
+            }
             activeContexts.remove(jobId);
             if (logger.isTraceEnabled()) {
                 logger.trace("JobExecutionContext closed for job {} removed it -" +
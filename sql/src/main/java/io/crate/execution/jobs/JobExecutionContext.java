@@ -25,10 +25,14 @@ import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.cursors.IntCursor;
 import io.crate.concurrent.CompletionListenable;
 import io.crate.exceptions.ContextMissingException;
+import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.SQLExceptions;
+import io.crate.exceptions.StatementTimeoutException;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.profile.ProfilingContext;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.TimeValue;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -57,6 +61,8 @@ public class JobExecutionContext implements CompletionListenable {
     private final CompletableFuture<Void> finishedFuture = new CompletableFuture<>();
     private final AtomicBoolean killSubContextsOngoing = new AtomicBoolean(false);
     private final Collection<String> participatedNodes;
+    @Nullable
+    private final ProfilingContext profilingContext;
     private volatile Throwable failure;
 
 
@@ -67,6 +73,10 @@ public class JobExecutionContext implements CompletionListenable {
         private final JobsLogs jobsLogs;
         private final List<ExecutionSubContext> subContexts = new ArrayList<>();
         private final Collection<String> participatingNodes;
+        @Nullable
+        private ProfilingContext profilingContext;
+        @Nullable
+        private TimeValue timeout;
 
         Builder(UUID jobId, String coordinatorNode, Collection<String> participatingNodes, JobsLogs jobsLogs) {
             this.jobId = jobId;
@@ -87,8 +97,33 @@ public class JobExecutionContext implements CompletionListenable {
             return jobId;
         }
 
+        /**
+         * Collect runtime statistics of the phases of this job, see {@link ProfilingContext}
+         */
+        public void enableProfiling() {
+            profilingContext = new ProfilingContext();
+        }
+
+        @Nullable
+        public ProfilingContext profilingContext() {
+            return profilingContext;
+        }
+
+        /**
+         * Kill the context with a {@link StatementTimeoutException} if it is still running after the given timeout
+         */
+        public void timeout(@Nullable TimeValue timeout) {
+            this.timeout = timeout;
+        }
+
+        @Nullable
+        TimeValue timeout() {
+            return timeout;
+        }
+
         JobExecutionContext build() throws Exception {
-            return new JobExecutionContext(jobId, coordinatorNode, participatingNodes, jobsLogs, subContexts);
+            return new JobExecutionContext(
+                jobId, coordinatorNode, participatingNodes, jobsLogs, subContexts, profilingContext);
         }
     }
 
@@ -97,8 +132,10 @@ public class JobExecutionContext implements CompletionListenable {
                                 String coordinatorNodeId,
                                 Collection<String> participatingNodes,
                                 JobsLogs jobsLogs,
-                                List<ExecutionSubContext> orderedContexts) throws Exception {
+                                List<ExecutionSubContext> orderedContexts,
+                                @Nullable ProfilingContext profilingContext) throws Exception {
         this.coordinatorNodeId = coordinatorNodeId;
+        this.profilingContext = profilingContext;
         this.participatedNodes = participatingNodes;
         orderedContextIds = new IntArrayList(orderedContexts.size());
         this.jobId = jobId;
@@ -137,6 +174,11 @@ public class JobExecutionContext implements CompletionListenable {
         return participatedNodes;
     }
 
+    @Nullable
+    ProfilingContext profilingContext() {
+        return profilingContext;
+    }
+
     private void prepare(List<ExecutionSubContext> orderedContexts) throws Exception {
         for (int i = 0; i < orderedContextIds.size(); i++) {
             int id = orderedContextIds.get(i);
@@ -190,6 +232,13 @@ public class JobExecutionContext implements CompletionListenable {
      * @return the number of contexts on which kill was called
      */
     public long kill() {
+        return kill(null);
+    }
+
+    /**
+     * Like {@link #kill()} but the sub-contexts fail with the given reason instead of a {@link JobKilledException}
+     */
+    public long kill(@Nullable Throwable reason) {
         int numKilled = 0;
         if (!closed.getAndSet(true)) {
             LOGGER.trace("kill called on JobExecutionContext {}", jobId);
@@ -199,7 +248,7 @@ public class JobExecutionContext implements CompletionListenable {
                 for (ExecutionSubContext executionSubContext : subContexts.values()) {
                     // kill will trigger the ContextCallback onClose too
                     // so it is not necessary to remove the executionSubContext from the map here as it will be done in the callback
-                    executionSubContext.kill(null);
+                    executionSubContext.kill(reason);
                     numKilled++;
                 }
             }
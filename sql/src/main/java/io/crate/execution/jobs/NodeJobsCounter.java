@@ -22,7 +22,15 @@
 
 package io.crate.execution.jobs;
 
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 
 import javax.annotation.Nullable;
 import java.util.Map;
@@ -33,15 +41,29 @@ import java.util.function.BiFunction;
  * Counts how many operations issued from the current node are in progress across the cluster.
  * If the destination node cannot be determined, it counts the in progress operations towards the unknown node.
  * Note: one job can span multiple nodes.
+ *
+ * If adaptive bulk limits are enabled it also keeps a {@link NodeLimit} per node, which replaces the fixed
+ * {@link #MAX_NODE_CONCURRENT_OPERATIONS} and is used to size the bulk requests sent to the node.
+ * The limits of nodes which left the cluster are dropped.
  */
 @Singleton
-public class NodeJobsCounter {
+public class NodeJobsCounter implements ClusterStateListener {
 
     /**
      * Represents the maximum number of concurrent operations that can be issued towards a node.
      */
     public static final long MAX_NODE_CONCURRENT_OPERATIONS = 5;
 
+    public static final Setting<Boolean> ADAPTIVE_BULK_LIMITS_SETTING = Setting.boolSetting(
+        "node.sql.bulk.adaptive.enabled", false, Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> ADAPTIVE_BULK_TARGET_LATENCY_SETTING = Setting.positiveTimeSetting(
+        "node.sql.bulk.adaptive.target_latency", TimeValue.timeValueMillis(500), Setting.Property.NodeScope);
+
+    private final boolean adaptiveLimits;
+    private final long targetLatencyNanos;
+    private final Map<String, NodeLimit> limitPerNode = new ConcurrentHashMap<>();
+
     private long unknownNodeCount = 0L;
     // Using single element long[] to avoid autoboxing
     private final Map<String, long[]> operationsCountPerNode = new ConcurrentHashMap<>();
@@ -67,6 +89,21 @@ public class NodeJobsCounter {
     };
 
 
+    public NodeJobsCounter() {
+        this(Settings.EMPTY);
+    }
+
+    public NodeJobsCounter(Settings settings) {
+        adaptiveLimits = ADAPTIVE_BULK_LIMITS_SETTING.get(settings);
+        targetLatencyNanos = ADAPTIVE_BULK_TARGET_LATENCY_SETTING.get(settings).nanos();
+    }
+
+    @Inject
+    public NodeJobsCounter(Settings settings, ClusterService clusterService) {
+        this(settings);
+        clusterService.addListener(this);
+    }
+
     public void increment(@Nullable String nodeId) {
         if (nodeId == null) {
             unknownNodeCount++;
@@ -93,4 +130,40 @@ public class NodeJobsCounter {
         }
         return count;
     }
+
+    public boolean adaptiveLimits() {
+        return adaptiveLimits;
+    }
+
+    /**
+     * @return the adaptive limit for the node or null if adaptive limits are disabled or the node is unknown.
+     */
+    @Nullable
+    public NodeLimit limitForNode(@Nullable String nodeId) {
+        if (adaptiveLimits == false || nodeId == null) {
+            return null;
+        }
+        return limitPerNode.computeIfAbsent(nodeId, id -> new NodeLimit(id, targetLatencyNanos));
+    }
+
+    public long maxConcurrentOperations(@Nullable String nodeId) {
+        NodeLimit limit = limitForNode(nodeId);
+        return limit == null ? MAX_NODE_CONCURRENT_OPERATIONS : limit.maxConcurrentRequests();
+    }
+
+    public Iterable<NodeLimit> nodeLimits() {
+        return limitPerNode.values();
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (!event.nodesRemoved()) {
+            return;
+        }
+        for (DiscoveryNode node : event.nodesDelta().removedNodes()) {
+            limitPerNode.remove(node.getId());
+            // operations which are still in progress decrement their count later on
+            operationsCountPerNode.computeIfPresent(node.getId(), (id, count) -> count[0] == 0 ? null : count);
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive limits for the bulk requests which are sent from the current node to another node.
+ *
+ * Both limits are adjusted using additive increase / multiplicative decrease:
+ *
+ *  - The number of concurrent requests is halved if the target node rejects a request,
+ *    otherwise it grows by roughly one per round-trip.
+ *  - The number of items per shard request (bulk size) is halved if a response takes longer
+ *    than the target latency, otherwise it grows by {@link #BULK_SIZE_STEP} per response.
+ *
+ * A limit is decreased at most once within the target latency, so that a burst of slow or rejected
+ * responses of requests which were sent at the same time only count once.
+ */
+public final class NodeLimit {
+
+    static final int MIN_CONCURRENCY = 1;
+    static final int MAX_CONCURRENCY = 50;
+    static final int MIN_BULK_SIZE = 100;
+    static final int MAX_BULK_SIZE = 10_000;
+    static final int INITIAL_BULK_SIZE = 1_000;
+    static final int BULK_SIZE_STEP = 100;
+
+    /**
+     * weight of a new latency sample in the exponentially weighted moving average
+     */
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private final String nodeId;
+    private final long targetLatencyNanos;
+
+    private volatile double concurrency = NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS;
+    private volatile int bulkSize = INITIAL_BULK_SIZE;
+    private volatile long avgLatencyNanos = -1L;
+    private volatile long numRejections = 0L;
+    private long lastConcurrencyDecrease;
+    private long lastBulkSizeDecrease;
+    private boolean concurrencyDecreased = false;
+    private boolean bulkSizeDecreased = false;
+
+    NodeLimit(String nodeId, long targetLatencyNanos) {
+        this.nodeId = nodeId;
+        this.targetLatencyNanos = targetLatencyNanos;
+    }
+
+    public synchronized void onResponse(long latencyNanos) {
+        onResponse(latencyNanos, System.nanoTime());
+    }
+
+    synchronized void onResponse(long latencyNanos, long now) {
+        avgLatencyNanos = avgLatencyNanos < 0
+            ? latencyNanos
+            : (long) (LATENCY_WEIGHT * latencyNanos + (1 - LATENCY_WEIGHT) * avgLatencyNanos);
+        if (latencyNanos > targetLatencyNanos) {
+            if (bulkSizeDecreased == false || now - lastBulkSizeDecrease > targetLatencyNanos) {
+                bulkSizeDecreased = true;
+                lastBulkSizeDecrease = now;
+                bulkSize = Math.max(MIN_BULK_SIZE, bulkSize / 2);
+            }
+        } else {
+            bulkSize = Math.min(MAX_BULK_SIZE, bulkSize + BULK_SIZE_STEP);
+            concurrency = Math.min(MAX_CONCURRENCY, concurrency + 1.0 / concurrency);
+        }
+    }
+
+    public synchronized void onRejection() {
+        onRejection(System.nanoTime());
+    }
+
+    synchronized void onRejection(long now) {
+        numRejections++;
+        if (concurrencyDecreased == false || now - lastConcurrencyDecrease > targetLatencyNanos) {
+            concurrencyDecreased = true;
+            lastConcurrencyDecrease = now;
+            concurrency = Math.max(MIN_CONCURRENCY, concurrency / 2);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public int maxConcurrentRequests() {
+        return (int) concurrency;
+    }
+
+    public int bulkSize() {
+        return bulkSize;
+    }
+
+    /**
+     * @return the average latency in milliseconds or -1 if no response has been received yet
+     */
+    public long avgLatency() {
+        long avg = avgLatencyNanos;
+        return avg < 0 ? -1L : TimeUnit.NANOSECONDS.toMillis(avg);
+    }
+
+    public long numRejections() {
+        return numRejections;
+    }
+}
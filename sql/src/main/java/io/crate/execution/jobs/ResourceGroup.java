@@ -0,0 +1,138 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.RatioValue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A group of jobs which share the limits configured with {@code node.sql.resource_groups.<name>.*}.
+ *
+ * The running jobs and the queue of a group are guarded by the {@link AdmissionController}.
+ */
+public class ResourceGroup {
+
+    public static final String DEFAULT = "default";
+
+    static final int DEFAULT_MAX_QUEUED_JOBS = 100;
+
+    private final String name;
+    private final Set<String> users;
+    private final int maxConcurrentJobs;
+    private final int maxQueuedJobs;
+    private final double maxBreakerUsage;
+    private final int priority;
+
+    int runningJobs = 0;
+    final ArrayDeque<QueuedJob> queue = new ArrayDeque<>();
+
+    static ResourceGroup fromSettings(String name, Settings settings) {
+        int maxConcurrentJobs = settings.getAsInt("max_concurrent_jobs", 0);
+        int maxQueuedJobs = settings.getAsInt("max_queued_jobs", DEFAULT_MAX_QUEUED_JOBS);
+        if (maxConcurrentJobs < 0 || maxQueuedJobs < 0) {
+            throw new IllegalArgumentException(
+                "Limits of resource group '" + name + "' must not be negative");
+        }
+        double maxBreakerUsage = RatioValue.parseRatioValue(settings.get("max_breaker_usage", "100%")).getAsRatio();
+        return new ResourceGroup(
+            name,
+            new HashSet<>(Arrays.asList(settings.getAsArray("users"))),
+            maxConcurrentJobs,
+            maxQueuedJobs,
+            maxBreakerUsage,
+            settings.getAsInt("priority", 0)
+        );
+    }
+
+    ResourceGroup(String name,
+                  Set<String> users,
+                  int maxConcurrentJobs,
+                  int maxQueuedJobs,
+                  double maxBreakerUsage,
+                  int priority) {
+        this.name = name;
+        this.users = users;
+        this.maxConcurrentJobs = maxConcurrentJobs;
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.maxBreakerUsage = maxBreakerUsage;
+        this.priority = priority;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the users whose jobs are always assigned to this group
+     */
+    Set<String> users() {
+        return users;
+    }
+
+    /**
+     * @return the maximum number of jobs of this group which may run at the same time; 0 means unlimited
+     */
+    int maxConcurrentJobs() {
+        return maxConcurrentJobs;
+    }
+
+    int maxQueuedJobs() {
+        return maxQueuedJobs;
+    }
+
+    /**
+     * @return the fraction of the query circuit breaker limit above which no further jobs of this
+     *         group are admitted while one of its jobs is still running
+     */
+    double maxBreakerUsage() {
+        return maxBreakerUsage;
+    }
+
+    int priority() {
+        return priority;
+    }
+
+    static class QueuedJob {
+
+        final UUID jobId;
+        final long sequence;
+        final CompletableFuture<Void> admitted = new CompletableFuture<>();
+
+        QueuedJob(UUID jobId, long sequence) {
+            this.jobId = jobId;
+            this.sequence = sequence;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceGroup{" + name + '}';
+    }
+}
@@ -25,8 +25,10 @@ package io.crate.execution.jobs.transport;
 import io.crate.execution.dsl.phases.NodeOperation;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.transport.TransportRequest;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -37,14 +39,34 @@ public class JobRequest extends TransportRequest {
     private UUID jobId;
     private String coordinatorNodeId;
     private Collection<? extends NodeOperation> nodeOperations;
+    private boolean profile;
+    @Nullable
+    private TimeValue timeout;
 
     public JobRequest() {
     }
 
     public JobRequest(UUID jobId, String coordinatorNodeId, Collection<? extends NodeOperation> nodeOperations) {
+        this(jobId, coordinatorNodeId, nodeOperations, false);
+    }
+
+    public JobRequest(UUID jobId,
+                      String coordinatorNodeId,
+                      Collection<? extends NodeOperation> nodeOperations,
+                      boolean profile) {
+        this(jobId, coordinatorNodeId, nodeOperations, profile, null);
+    }
+
+    public JobRequest(UUID jobId,
+                      String coordinatorNodeId,
+                      Collection<? extends NodeOperation> nodeOperations,
+                      boolean profile,
+                      @Nullable TimeValue timeout) {
         this.jobId = jobId;
         this.coordinatorNodeId = coordinatorNodeId;
         this.nodeOperations = nodeOperations;
+        this.profile = profile;
+        this.timeout = timeout;
     }
 
     public UUID jobId() {
@@ -59,6 +81,21 @@ public class JobRequest extends TransportRequest {
         return coordinatorNodeId;
     }
 
+    /**
+     * @return true if runtime statistics of the phases should be collected (EXPLAIN ANALYZE)
+     */
+    public boolean profile() {
+        return profile;
+    }
+
+    /**
+     * @return the time after which the job is killed because the statement_timeout elapsed; null if there is no timeout
+     */
+    @Nullable
+    public TimeValue timeout() {
+        return timeout;
+    }
+
     @Override
     public void readFrom(StreamInput in) throws IOException {
         super.readFrom(in);
@@ -72,6 +109,9 @@ public class JobRequest extends TransportRequest {
             nodeOperations.add(new NodeOperation(in));
         }
         this.nodeOperations = nodeOperations;
+        profile = in.readBoolean();
+        long timeoutNanos = in.readVLong();
+        timeout = timeoutNanos == 0 ? null : TimeValue.timeValueNanos(timeoutNanos);
     }
 
     @Override
@@ -86,5 +126,8 @@ public class JobRequest extends TransportRequest {
         for (NodeOperation nodeOperation : nodeOperations) {
             nodeOperation.writeTo(out);
         }
+        out.writeBoolean(profile);
+        // the timeout of a job which is sent to other nodes is always positive, 0 means no timeout
+        out.writeVLong(timeout == null ? 0 : Math.max(1, timeout.nanos()));
     }
 }
@@ -78,6 +78,10 @@ public class TransportJobAction implements NodeAction<JobRequest, JobResponse> {
     @Override
     public CompletableFuture<JobResponse> nodeOperation(final JobRequest request) {
         JobExecutionContext.Builder contextBuilder = jobContextService.newBuilder(request.jobId(), request.coordinatorNodeId());
+        if (request.profile()) {
+            contextBuilder.enableProfiling();
+        }
+        contextBuilder.timeout(request.timeout());
 
         SharedShardContexts sharedShardContexts = new SharedShardContexts(indicesService);
         List<CompletableFuture<Bucket>> directResponseFutures = contextPreparer.prepareOnRemote(
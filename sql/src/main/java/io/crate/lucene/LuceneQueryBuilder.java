@@ -47,6 +47,8 @@ import io.crate.geo.GeoJSONUtils;
 import io.crate.lucene.match.CrateRegexCapabilities;
 import io.crate.lucene.match.CrateRegexQuery;
 import io.crate.lucene.match.MatchQueries;
+import io.crate.lucene.vector.VectorFilter;
+import io.crate.lucene.vector.VectorFilterCompiler;
 import io.crate.metadata.DocReferences;
 import io.crate.metadata.FunctionInfo;
 import io.crate.metadata.Functions;
@@ -1399,6 +1401,12 @@ public class LuceneQueryBuilder {
                 r -> r.columnPolicy() == ColumnPolicy.IGNORED
                      || r.valueType() == DataTypes.GEO_POINT);
 
+            VectorFilter vectorFilter = new VectorFilterCompiler(context::getFieldTypeOrNull, context.fieldDataService)
+                .compile(function);
+            if (vectorFilter != null) {
+                return new VectorizedFunctionQuery(function, vectorFilter);
+            }
+
             final InputFactory.Context<? extends LuceneCollectorExpression<?>> ctx = context.docInputFactory.getCtx();
             @SuppressWarnings("unchecked")
             final Input<Boolean> condition = (Input<Boolean>) ctx.add(function);
@@ -0,0 +1,160 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.lucene.vector.DocBlock;
+import io.crate.lucene.vector.VectorFilter;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+
+import java.io.IOException;
+
+/**
+ * Query implementation which filters docIds by evaluating the vector form of a condition.
+ *
+ * <p>
+ * Like the {@link GenericFunctionQuery} every document has to be checked, but the condition is evaluated on blocks
+ * of documents: the doc values of a block are read into primitive vectors and the operators work on those vectors.
+ * This avoids evaluating the expression tree with boxed values per document.
+ * </p>
+ *
+ * <p>
+ * If the query is combined with other queries only some documents of a block may be checked. In that case the
+ * block size is reduced so that not too many documents are evaluated in vain.
+ * </p>
+ */
+class VectorizedFunctionQuery extends Query {
+
+    private final Function function;
+    private final VectorFilter filter;
+
+    VectorizedFunctionQuery(Function function, VectorFilter filter) {
+        this.function = function;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        VectorizedFunctionQuery that = (VectorizedFunctionQuery) o;
+
+        return function.equals(that.function);
+    }
+
+    @Override
+    public int hashCode() {
+        return function.hashCode();
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
+        return new ConstantScoreWeight(this) {
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                return new ConstantScoreScorer(this, 0f, new BlockTwoPhaseIterator(
+                    context.reader().maxDoc(),
+                    filter.newEvaluator(context)
+                ));
+            }
+        };
+    }
+
+    @Override
+    public String toString(String field) {
+        return function.toString();
+    }
+
+    private static class BlockTwoPhaseIterator extends TwoPhaseIterator {
+
+        private static final int MIN_BLOCK_SIZE = 16;
+
+        private final int maxDoc;
+        private final VectorFilter.Evaluator evaluator;
+        private final DocBlock block = new DocBlock();
+        private final boolean[] matchesInBlock = new boolean[DocBlock.MAX_SIZE];
+
+        private int blockSize = DocBlock.MAX_SIZE;
+        private int blockStart = 0;
+        private int blockEnd = 0;
+        private int checksInBlock = 0;
+
+        BlockTwoPhaseIterator(int maxDoc, VectorFilter.Evaluator evaluator) {
+            super(DocIdSetIterator.all(maxDoc));
+            this.maxDoc = maxDoc;
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public boolean matches() throws IOException {
+            int doc = approximation.docID();
+            if (doc >= blockEnd) {
+                if (blockEnd > 0) {
+                    adaptBlockSize();
+                }
+                evaluateBlock(doc);
+            }
+            checksInBlock++;
+            return matchesInBlock[doc - blockStart];
+        }
+
+        private void adaptBlockSize() {
+            int evaluated = blockEnd - blockStart;
+            if (checksInBlock * 4 < evaluated) {
+                blockSize = Math.max(MIN_BLOCK_SIZE, blockSize >> 1);
+            } else if (checksInBlock * 2 >= evaluated) {
+                blockSize = Math.min(DocBlock.MAX_SIZE, blockSize << 1);
+            }
+        }
+
+        private void evaluateBlock(int firstDoc) throws IOException {
+            int size = Math.min(blockSize, maxDoc - firstDoc);
+            block.reset(firstDoc, size);
+            evaluator.filter(block);
+            for (int i = 0; i < size; i++) {
+                matchesInBlock[i] = false;
+            }
+            for (int i = 0; i < block.selectionSize(); i++) {
+                matchesInBlock[block.selected(i)] = true;
+            }
+            blockStart = firstDoc;
+            blockEnd = firstDoc + size;
+            checksInBlock = 0;
+        }
+
+        @Override
+        public float matchCost() {
+            // Arbitrary number, same as for the GenericFunctionQuery
+            return 10;
+        }
+    }
+}
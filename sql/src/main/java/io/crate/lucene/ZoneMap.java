@@ -0,0 +1,148 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.StringHelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Uses the minimum and maximum point values Lucene keeps per segment to skip segments which can't match a query.
+ *
+ * <p>
+ * The ranges are the {@link PointRangeQuery}s a document is required to match; those are created for comparisons
+ * on numeric and timestamp columns. A segment is skipped if its values of a field lie outside of the range
+ * or if none of its documents has a value for the field. Queries without such a range never skip a segment.
+ * </p>
+ *
+ * <p>
+ * For append-only tables where the values of a column grow over time, like a timestamp,
+ * this allows to skip most segments - or whole shards - for a query on a small window of time.
+ * </p>
+ */
+public final class ZoneMap {
+
+    private final List<PointRangeQuery> ranges;
+
+    private ZoneMap(List<PointRangeQuery> ranges) {
+        this.ranges = ranges;
+    }
+
+    public static ZoneMap of(Query query) {
+        List<PointRangeQuery> ranges = new ArrayList<>();
+        addRequiredRanges(query, ranges);
+        return new ZoneMap(ranges.isEmpty() ? Collections.emptyList() : ranges);
+    }
+
+    private static void addRequiredRanges(Query query, List<PointRangeQuery> ranges) {
+        if (query instanceof PointRangeQuery) {
+            ranges.add((PointRangeQuery) query);
+        } else if (query instanceof ConstantScoreQuery) {
+            addRequiredRanges(((ConstantScoreQuery) query).getQuery(), ranges);
+        } else if (query instanceof BoostQuery) {
+            addRequiredRanges(((BoostQuery) query).getQuery(), ranges);
+        } else if (query instanceof BooleanQuery) {
+            for (BooleanClause clause : ((BooleanQuery) query).clauses()) {
+                if (clause.isRequired()) {
+                    addRequiredRanges(clause.getQuery(), ranges);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the leaves which may contain documents matching the query
+     */
+    public List<LeafReaderContext> matchingLeaves(List<LeafReaderContext> leaves) throws IOException {
+        if (ranges.isEmpty()) {
+            return leaves;
+        }
+        List<LeafReaderContext> matchingLeaves = new ArrayList<>(leaves.size());
+        for (LeafReaderContext leaf : leaves) {
+            if (canMatch(leaf.reader())) {
+                matchingLeaves.add(leaf);
+            }
+        }
+        return matchingLeaves;
+    }
+
+    /**
+     * @return false if no document of the segment can match the query
+     */
+    public boolean canMatch(LeafReader reader) throws IOException {
+        for (PointRangeQuery range : ranges) {
+            if (!canMatch(reader, range)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean canMatch(LeafReader reader, PointRangeQuery range) throws IOException {
+        PointValues values = reader.getPointValues();
+        if (values == null) {
+            // no document of the segment has point values
+            return false;
+        }
+        String field = range.getField();
+        FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+        if (fieldInfo == null) {
+            // no document of the segment has a value for the field
+            return false;
+        }
+        int numDims = range.getNumDims();
+        int bytesPerDim = range.getBytesPerDim();
+        if (fieldInfo.getPointDimensionCount() != numDims || fieldInfo.getPointNumBytes() != bytesPerDim) {
+            // let the query itself deal with mismatching points
+            return true;
+        }
+        byte[] minPackedValue = values.getMinPackedValue(field);
+        byte[] maxPackedValue = values.getMaxPackedValue(field);
+        if (minPackedValue == null || maxPackedValue == null) {
+            return true;
+        }
+        byte[] lowerPoint = range.getLowerPoint();
+        byte[] upperPoint = range.getUpperPoint();
+        for (int dim = 0; dim < numDims; dim++) {
+            int offset = dim * bytesPerDim;
+            if (StringHelper.compare(bytesPerDim, upperPoint, offset, minPackedValue, offset) < 0
+                || StringHelper.compare(bytesPerDim, lowerPoint, offset, maxPackedValue, offset) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
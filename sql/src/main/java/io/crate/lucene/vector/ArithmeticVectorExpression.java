@@ -0,0 +1,124 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import io.crate.execution.expression.scalar.arithmetic.ArithmeticFunctions;
+import org.apache.lucene.index.LeafReaderContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * Vector form of the {@code +}, {@code -} and {@code *} operators of {@link ArithmeticFunctions}.
+ *
+ * <p>
+ * Integer and float operands are computed in the long or double vectors and narrowed afterwards, which yields the
+ * same overflow and rounding behaviour as computing with int or float values.
+ * </p>
+ */
+final class ArithmeticVectorExpression implements NumericVectorExpression {
+
+    private final NumericVectorExpression left;
+    private final NumericVectorExpression right;
+    private final boolean narrow;
+    private final LongBinaryOperator longOperator;
+    private final DoubleBinaryOperator doubleOperator;
+
+    private ArithmeticVectorExpression(NumericVectorExpression left,
+                                       NumericVectorExpression right,
+                                       boolean narrow,
+                                       LongBinaryOperator longOperator,
+                                       DoubleBinaryOperator doubleOperator) {
+        assert left.isFloatingPoint() == right.isFloatingPoint() : "operands must have the same type";
+        this.left = left;
+        this.right = right;
+        this.narrow = narrow;
+        this.longOperator = longOperator;
+        this.doubleOperator = doubleOperator;
+    }
+
+    /**
+     * @param narrow true if the result must be narrowed to an int or a float
+     * @return the expression or null if there is no vector form of the function
+     */
+    @Nullable
+    static ArithmeticVectorExpression of(String functionName,
+                                         NumericVectorExpression left,
+                                         NumericVectorExpression right,
+                                         boolean narrow) {
+        switch (functionName) {
+            case ArithmeticFunctions.Names.ADD:
+                return new ArithmeticVectorExpression(left, right, narrow, (a, b) -> a + b, (a, b) -> a + b);
+            case ArithmeticFunctions.Names.SUBTRACT:
+                return new ArithmeticVectorExpression(left, right, narrow, (a, b) -> a - b, (a, b) -> a - b);
+            case ArithmeticFunctions.Names.MULTIPLY:
+                return new ArithmeticVectorExpression(left, right, narrow, (a, b) -> a * b, (a, b) -> a * b);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return left.isFloatingPoint();
+    }
+
+    @Override
+    public Evaluator newEvaluator(LeafReaderContext context) throws IOException {
+        Evaluator leftEvaluator = left.newEvaluator(context);
+        Evaluator rightEvaluator = right.newEvaluator(context);
+        NumericVector result = new NumericVector(isFloatingPoint());
+        if (isFloatingPoint()) {
+            return block -> {
+                NumericVector l = leftEvaluator.evaluate(block);
+                NumericVector r = rightEvaluator.evaluate(block);
+                for (int i = 0; i < block.selectionSize; i++) {
+                    int pos = block.selection[i];
+                    boolean isNull = l.nulls[pos] || r.nulls[pos];
+                    result.nulls[pos] = isNull;
+                    if (!isNull) {
+                        double value = doubleOperator.applyAsDouble(l.doubles[pos], r.doubles[pos]);
+                        result.doubles[pos] = narrow ? (float) value : value;
+                    }
+                }
+                return result;
+            };
+        }
+        return block -> {
+            NumericVector l = leftEvaluator.evaluate(block);
+            NumericVector r = rightEvaluator.evaluate(block);
+            for (int i = 0; i < block.selectionSize; i++) {
+                int pos = block.selection[i];
+                boolean isNull = l.nulls[pos] || r.nulls[pos];
+                result.nulls[pos] = isNull;
+                if (!isNull) {
+                    long value = longOperator.applyAsLong(l.longs[pos], r.longs[pos]);
+                    result.longs[pos] = narrow ? (int) value : value;
+                }
+            }
+            return result;
+        };
+    }
+}
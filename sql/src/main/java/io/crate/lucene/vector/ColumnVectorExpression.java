@@ -0,0 +1,158 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Reads the doc values of a numeric column into a vector.
+ *
+ * Integral columns are read from the doc values directly,
+ * floating point columns through the field data like the {@code DoubleColumnReference}.
+ */
+final class ColumnVectorExpression implements NumericVectorExpression {
+
+    private final String columnName;
+    private final boolean floatingPoint;
+    private final boolean isFloat;
+
+    @Nullable
+    private final IndexNumericFieldData fieldData;
+
+    /**
+     * Creates an expression for an integral column.
+     */
+    ColumnVectorExpression(String columnName) {
+        this.columnName = columnName;
+        this.fieldData = null;
+        this.floatingPoint = false;
+        this.isFloat = false;
+    }
+
+    /**
+     * Creates an expression for a floating point column, {@code fieldData} is null if the column isn't mapped yet.
+     */
+    ColumnVectorExpression(String columnName, @Nullable IndexNumericFieldData fieldData, boolean isFloat) {
+        this.columnName = columnName;
+        this.fieldData = fieldData;
+        this.floatingPoint = true;
+        this.isFloat = isFloat;
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    @Override
+    public Evaluator newEvaluator(LeafReaderContext context) {
+        if (!floatingPoint) {
+            return new LongEvaluator(DocValues.getSortedNumeric(context.reader(), columnName));
+        }
+        if (fieldData == null) {
+            NumericVector vector = new NumericVector(true);
+            Arrays.fill(vector.nulls, true);
+            return block -> vector;
+        }
+        return new DoubleEvaluator(fieldData.load(context).getDoubleValues());
+    }
+
+    /**
+     * Only columns with a single value per document are compiled, this guards against values written otherwise.
+     */
+    private UnsupportedFeatureException multipleValues() {
+        return new UnsupportedFeatureException(
+            "Column \"" + columnName + "\" has multiple values in a row and cannot be compared to a single value");
+    }
+
+    private final class LongEvaluator implements Evaluator {
+
+        private final SortedNumericDocValues values;
+        private final NumericVector vector = new NumericVector(false);
+
+        LongEvaluator(SortedNumericDocValues values) {
+            this.values = values;
+        }
+
+        @Override
+        public NumericVector evaluate(DocBlock block) {
+            int firstDoc = block.firstDoc();
+            for (int i = 0; i < block.selectionSize; i++) {
+                int pos = block.selection[i];
+                values.setDocument(firstDoc + pos);
+                switch (values.count()) {
+                    case 0:
+                        vector.nulls[pos] = true;
+                        break;
+                    case 1:
+                        vector.nulls[pos] = false;
+                        vector.longs[pos] = values.valueAt(0);
+                        break;
+                    default:
+                        throw multipleValues();
+                }
+            }
+            return vector;
+        }
+    }
+
+    private final class DoubleEvaluator implements Evaluator {
+
+        private final SortedNumericDoubleValues values;
+        private final NumericVector vector = new NumericVector(true);
+
+        DoubleEvaluator(SortedNumericDoubleValues values) {
+            this.values = values;
+        }
+
+        @Override
+        public NumericVector evaluate(DocBlock block) {
+            int firstDoc = block.firstDoc();
+            for (int i = 0; i < block.selectionSize; i++) {
+                int pos = block.selection[i];
+                values.setDocument(firstDoc + pos);
+                switch (values.count()) {
+                    case 0:
+                        vector.nulls[pos] = true;
+                        break;
+                    case 1:
+                        double value = values.valueAt(0);
+                        vector.nulls[pos] = false;
+                        vector.doubles[pos] = isFloat ? (float) value : value;
+                        break;
+                    default:
+                        throw multipleValues();
+                }
+            }
+            return vector;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import io.crate.execution.expression.operator.CmpOperator;
+import io.crate.execution.expression.operator.EqOperator;
+import io.crate.execution.expression.operator.GtOperator;
+import io.crate.execution.expression.operator.GteOperator;
+import io.crate.execution.expression.operator.LtOperator;
+import io.crate.execution.expression.operator.LteOperator;
+import org.apache.lucene.index.LeafReaderContext;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.function.IntPredicate;
+
+/**
+ * Vector form of the {@link CmpOperator}s on numeric values.
+ *
+ * Values are compared like {@link Long#compareTo(Long)} and {@link Double#compareTo(Double)};
+ * a comparison with null never matches.
+ */
+final class CompareVectorFilter implements VectorFilter {
+
+    private final NumericVectorExpression left;
+    private final NumericVectorExpression right;
+    private final IntPredicate comparisonResultMatches;
+
+    private CompareVectorFilter(NumericVectorExpression left,
+                                NumericVectorExpression right,
+                                IntPredicate comparisonResultMatches) {
+        assert left.isFloatingPoint() == right.isFloatingPoint() : "operands must have the same type";
+        this.left = left;
+        this.right = right;
+        this.comparisonResultMatches = comparisonResultMatches;
+    }
+
+    /**
+     * @return the filter or null if there is no vector form of the operator
+     */
+    @Nullable
+    static CompareVectorFilter of(String operatorName, NumericVectorExpression left, NumericVectorExpression right) {
+        switch (operatorName) {
+            case EqOperator.NAME:
+                return new CompareVectorFilter(left, right, c -> c == 0);
+            case GtOperator.NAME:
+                return new CompareVectorFilter(left, right, c -> c > 0);
+            case GteOperator.NAME:
+                return new CompareVectorFilter(left, right, c -> c >= 0);
+            case LtOperator.NAME:
+                return new CompareVectorFilter(left, right, c -> c < 0);
+            case LteOperator.NAME:
+                return new CompareVectorFilter(left, right, c -> c <= 0);
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public Evaluator newEvaluator(LeafReaderContext context) throws IOException {
+        NumericVectorExpression.Evaluator leftEvaluator = left.newEvaluator(context);
+        NumericVectorExpression.Evaluator rightEvaluator = right.newEvaluator(context);
+        boolean floatingPoint = left.isFloatingPoint();
+        return block -> {
+            NumericVector l = leftEvaluator.evaluate(block);
+            NumericVector r = rightEvaluator.evaluate(block);
+            int selected = 0;
+            for (int i = 0; i < block.selectionSize; i++) {
+                int pos = block.selection[i];
+                if (l.nulls[pos] || r.nulls[pos]) {
+                    continue;
+                }
+                int cmp = floatingPoint
+                    ? Double.compare(l.doubles[pos], r.doubles[pos])
+                    : Long.compare(l.longs[pos], r.longs[pos]);
+                if (comparisonResultMatches.test(cmp)) {
+                    block.selection[selected++] = pos;
+                }
+            }
+            block.selectionSize = selected;
+        };
+    }
+}
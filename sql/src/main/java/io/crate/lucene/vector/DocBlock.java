@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+/**
+ * A block of consecutive documents of a segment which is evaluated at once.
+ *
+ * <p>
+ * Positions within the block are relative to {@link #firstDoc()}. The selection vector contains the positions of
+ * the documents which still can match, in ascending order; filters narrow it down.
+ * Vectors are only computed for the selected positions.
+ * </p>
+ */
+public final class DocBlock {
+
+    public static final int MAX_SIZE = 1024;
+
+    final int[] selection = new int[MAX_SIZE];
+    int selectionSize;
+
+    private int firstDoc;
+    private int size;
+
+    /**
+     * Resets the block to the documents {@code firstDoc} to {@code firstDoc + size - 1}, all selected.
+     */
+    public void reset(int firstDoc, int size) {
+        assert size > 0 && size <= MAX_SIZE : "size must be between 1 and " + MAX_SIZE;
+        this.firstDoc = firstDoc;
+        this.size = size;
+        for (int i = 0; i < size; i++) {
+            selection[i] = i;
+        }
+        selectionSize = size;
+    }
+
+    public int firstDoc() {
+        return firstDoc;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int selectionSize() {
+        return selectionSize;
+    }
+
+    /**
+     * @return the position of the i-th selected document
+     */
+    public int selected(int i) {
+        return selection[i];
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+final class LiteralVectorExpression implements NumericVectorExpression {
+
+    private final boolean floatingPoint;
+
+    @Nullable
+    private final Number value;
+
+    LiteralVectorExpression(boolean floatingPoint, @Nullable Number value) {
+        this.floatingPoint = floatingPoint;
+        this.value = value;
+    }
+
+    @Override
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    @Override
+    public Evaluator newEvaluator(LeafReaderContext context) {
+        // the values of all positions are the same, so the vector is filled once
+        NumericVector vector = new NumericVector(floatingPoint);
+        if (value == null) {
+            Arrays.fill(vector.nulls, true);
+        } else if (floatingPoint) {
+            Arrays.fill(vector.doubles, value.doubleValue());
+        } else {
+            Arrays.fill(vector.longs, value.longValue());
+        }
+        return block -> vector;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import java.io.IOException;
+
+final class OrVectorFilter implements VectorFilter {
+
+    private final VectorFilter left;
+    private final VectorFilter right;
+
+    OrVectorFilter(VectorFilter left, VectorFilter right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    @Override
+    public Evaluator newEvaluator(LeafReaderContext context) throws IOException {
+        Evaluator leftEvaluator = left.newEvaluator(context);
+        Evaluator rightEvaluator = right.newEvaluator(context);
+        int[] candidates = new int[DocBlock.MAX_SIZE];
+        int[] leftMatches = new int[DocBlock.MAX_SIZE];
+        return block -> {
+            int numCandidates = block.selectionSize;
+            System.arraycopy(block.selection, 0, candidates, 0, numCandidates);
+
+            leftEvaluator.filter(block);
+            int numLeftMatches = block.selectionSize;
+            System.arraycopy(block.selection, 0, leftMatches, 0, numLeftMatches);
+
+            System.arraycopy(candidates, 0, block.selection, 0, numCandidates);
+            block.selectionSize = numCandidates;
+            rightEvaluator.filter(block);
+            int numRightMatches = block.selectionSize;
+            System.arraycopy(block.selection, 0, candidates, 0, numRightMatches);
+
+            // both selections are in ascending order, merge them into the selection of the block
+            int l = 0;
+            int r = 0;
+            int selected = 0;
+            while (l < numLeftMatches || r < numRightMatches) {
+                int pos;
+                if (r == numRightMatches || (l < numLeftMatches && leftMatches[l] < candidates[r])) {
+                    pos = leftMatches[l++];
+                } else if (l == numLeftMatches || candidates[r] < leftMatches[l]) {
+                    pos = candidates[r++];
+                } else {
+                    pos = leftMatches[l++];
+                    r++;
+                }
+                block.selection[selected++] = pos;
+            }
+            block.selectionSize = selected;
+        };
+    }
+}
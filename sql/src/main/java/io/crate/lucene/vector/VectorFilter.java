@@ -0,0 +1,46 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import java.io.IOException;
+
+/**
+ * A boolean condition which is evaluated for a whole {@link DocBlock} at once.
+ *
+ * The filter itself is stateless; the state needed to evaluate it on a segment is kept in an {@link Evaluator}.
+ */
+public interface VectorFilter {
+
+    Evaluator newEvaluator(LeafReaderContext context) throws IOException;
+
+    interface Evaluator {
+
+        /**
+         * Removes the positions of the documents for which the condition isn't {@code true} from the selection
+         * of the block; the order of the remaining positions is kept.
+         */
+        void filter(DocBlock block) throws IOException;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene.vector;
+
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Literal;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.execution.expression.operator.AndOperator;
+import io.crate.execution.expression.operator.OrOperator;
+import io.crate.lucene.FieldTypeLookup;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RowGranularity;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.elasticsearch.index.fielddata.IndexNumericFieldData;
+import org.elasticsearch.index.mapper.MappedFieldType;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Converts a boolean function into a {@link VectorFilter}.
+ *
+ * <p>
+ * Supported are comparisons ({@code =, <, <=, >, >=}), {@code AND} and {@code OR} of numeric or timestamp columns,
+ * literals and the arithmetic operators {@code +, -, *}.
+ * For anything else there is no vector form and the function has to be evaluated row by row.
+ * </p>
+ */
+public final class VectorFilterCompiler {
+
+    private final FieldTypeLookup fieldTypeLookup;
+    private final IndexFieldDataService fieldDataService;
+
+    public VectorFilterCompiler(FieldTypeLookup fieldTypeLookup, IndexFieldDataService fieldDataService) {
+        this.fieldTypeLookup = fieldTypeLookup;
+        this.fieldDataService = fieldDataService;
+    }
+
+    /**
+     * @return the vector form of the condition or null if it has none
+     */
+    @Nullable
+    public VectorFilter compile(Symbol condition) {
+        if (!(condition instanceof Function)) {
+            return null;
+        }
+        Function function = (Function) condition;
+        String name = function.info().ident().name();
+        List<Symbol> args = function.arguments();
+        if (args.size() != 2) {
+            return null;
+        }
+        if (name.equals(AndOperator.NAME) || name.equals(OrOperator.NAME)) {
+            VectorFilter left = compile(args.get(0));
+            if (left == null) {
+                return null;
+            }
+            VectorFilter right = compile(args.get(1));
+            if (right == null) {
+                return null;
+            }
+            return name.equals(AndOperator.NAME) ? new AndVectorFilter(left, right) : new OrVectorFilter(left, right);
+        }
+        if (!args.get(0).valueType().equals(args.get(1).valueType())) {
+            return null;
+        }
+        NumericVectorExpression left = compileNumeric(args.get(0));
+        if (left == null) {
+            return null;
+        }
+        NumericVectorExpression right = compileNumeric(args.get(1));
+        if (right == null) {
+            return null;
+        }
+        return CompareVectorFilter.of(name, left, right);
+    }
+
+    @Nullable
+    private NumericVectorExpression compileNumeric(Symbol symbol) {
+        DataType type = symbol.valueType();
+        if (!isIntegral(type) && !isFloatingPoint(type)) {
+            return null;
+        }
+        if (symbol instanceof Literal) {
+            return new LiteralVectorExpression(isFloatingPoint(type), (Number) ((Literal) symbol).value());
+        }
+        if (symbol instanceof Reference) {
+            return compileColumn((Reference) symbol);
+        }
+        if (symbol instanceof Function) {
+            Function function = (Function) symbol;
+            List<Symbol> args = function.arguments();
+            if (args.size() != 2
+                || !args.get(0).valueType().equals(args.get(1).valueType())
+                || isFloatingPoint(args.get(0).valueType()) != isFloatingPoint(type)) {
+                return null;
+            }
+            NumericVectorExpression left = compileNumeric(args.get(0));
+            if (left == null) {
+                return null;
+            }
+            NumericVectorExpression right = compileNumeric(args.get(1));
+            if (right == null) {
+                return null;
+            }
+            boolean narrow = type.id() == IntegerType.ID || type.id() == FloatType.ID;
+            return ArithmeticVectorExpression.of(function.info().ident().name(), left, right, narrow);
+        }
+        return null;
+    }
+
+    @Nullable
+    private NumericVectorExpression compileColumn(Reference ref) {
+        if (ref.granularity() != RowGranularity.DOC || ref.ident().columnIdent().isSystemColumn()) {
+            // system columns and source lookups have no doc values
+            return null;
+        }
+        DataType type = ref.valueType();
+        if (DataTypes.isCollectionType(type)) {
+            // arrays, including children of object arrays, have multiple values per document;
+            // the vector form only supports a single value
+            return null;
+        }
+        String columnName = ref.ident().columnIdent().fqn();
+        if (isIntegral(type)) {
+            return new ColumnVectorExpression(columnName);
+        }
+        MappedFieldType fieldType = fieldTypeLookup.get(columnName);
+        IndexNumericFieldData fieldData = fieldType == null ? null : fieldDataService.getForField(fieldType);
+        return new ColumnVectorExpression(columnName, fieldData, type.id() == FloatType.ID);
+    }
+
+    private static boolean isIntegral(DataType type) {
+        switch (type.id()) {
+            case ByteType.ID:
+            case ShortType.ID:
+            case IntegerType.ID:
+            case LongType.ID:
+            case TimestampType.ID:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isFloatingPoint(DataType type) {
+        return type.id() == DoubleType.ID || type.id() == FloatType.ID;
+    }
+}
@@ -65,6 +65,7 @@ public final class RoutingProvider {
 
     private final int seed;
     private final String[] awarenessAttributes;
+    private final boolean primariesOnly;
 
     public enum ShardSelection {
         ANY,
@@ -79,8 +80,22 @@ public final class RoutingProvider {
      *                   across different (replica) shards
      */
     public RoutingProvider(int randomSeed, String[] awarenessAttributes) {
+        this(randomSeed, awarenessAttributes, false);
+    }
+
+    private RoutingProvider(int randomSeed, String[] awarenessAttributes, boolean primariesOnly) {
         this.awarenessAttributes = awarenessAttributes;
         this.seed = randomSeed;
+        this.primariesOnly = primariesOnly;
+    }
+
+    /**
+     * Creates a RoutingProvider which always selects the primary shards, even if {@link ShardSelection#ANY} is used.
+     * Used for statements whose result must correspond to the state of the primaries, see
+     * {@link io.crate.action.sql.ResultCache}.
+     */
+    public static RoutingProvider primariesOnly(int randomSeed, String[] awarenessAttributes) {
+        return new RoutingProvider(randomSeed, awarenessAttributes, true);
     }
 
     public Routing forRandomMasterOrDataNode(TableIdent tableIdent, DiscoveryNodes nodes) {
@@ -121,6 +136,9 @@ public final class RoutingProvider {
         }
         Map<String, Map<String, List<Integer>>> locations = new TreeMap<>();
 
+        if (primariesOnly) {
+            shardSelection = ShardSelection.PRIMARIES;
+        }
         for (IndexShardRoutingTable shard : shards) {
             final ShardIterator shardIt;
             switch (shardSelection) {
@@ -135,6 +135,9 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
 
     private final List<PartitionName> partitions;
 
+    @Nullable
+    private volatile PartitionValueIndex partitionValueIndex;
+
     private final boolean isAlias;
     private final boolean hasAutoGeneratedPrimaryKey;
     private final boolean isPartitioned;
@@ -320,6 +323,19 @@ public class DocTableInfo implements TableInfo, ShardedTable, StoredTable {
         return partitions;
     }
 
+    /**
+     * Index over the values of the {@linkplain #partitions()}, built on first use.
+     * A new DocTableInfo is created if the partitions change, so the index is never outdated.
+     */
+    public PartitionValueIndex partitionValueIndex() {
+        PartitionValueIndex index = partitionValueIndex;
+        if (index == null) {
+            index = new PartitionValueIndex(partitionedByColumns, partitions);
+            partitionValueIndex = index;
+        }
+        return index;
+    }
+
     /**
      * returns <code>true</code> if this table is a partitioned table,
      * <code>false</code> otherwise
@@ -0,0 +1,183 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over the values of the partitioned by columns of a partitioned table.
+ *
+ * <p>
+ * Used to look up the partitions which can match a predicate on a partitioned by column without evaluating the
+ * predicate for every partition. Per column the partitions are hashed by value for equality lookups and sorted by
+ * value for range lookups. Partitions with a {@code null} value never match a lookup.
+ * </p>
+ *
+ * Matches are returned as {@link BitSet} of positions in {@link DocTableInfo#partitions()}.
+ */
+public final class PartitionValueIndex {
+
+    private final List<PartitionName> partitions;
+    private final List<ColumnIndex> columns;
+
+    PartitionValueIndex(List<Reference> partitionedByColumns, List<PartitionName> partitions) {
+        this.partitions = partitions;
+        this.columns = new ArrayList<>(partitionedByColumns.size());
+        for (int i = 0; i < partitionedByColumns.size(); i++) {
+            DataType type = partitionedByColumns.get(i).valueType();
+            columns.add(DataTypes.isPrimitive(type) ? new ColumnIndex(type, i, partitions) : null);
+        }
+    }
+
+    /**
+     * @return the type of the values in the index of the given column or null if the column isn't indexed
+     */
+    @Nullable
+    public DataType indexedType(int columnIdx) {
+        ColumnIndex columnIndex = columns.get(columnIdx);
+        return columnIndex == null ? null : columnIndex.type;
+    }
+
+    /**
+     * Returns the partitions where the value of the column is equal to any of the given values.
+     * The values must be of the {@link #indexedType(int)} of the column.
+     */
+    public BitSet matchAny(int columnIdx, Iterable<?> values) {
+        ColumnIndex columnIndex = indexedColumn(columnIdx);
+        BitSet matches = new BitSet(partitions.size());
+        for (Object value : values) {
+            if (value != null) {
+                BitSet positions = columnIndex.positionsByValue.get(value);
+                if (positions != null) {
+                    matches.or(positions);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the partitions where the value of the column is within the given range.
+     * A null bound means that the range is unbounded on that side.
+     * The bounds must be of the {@link #indexedType(int)} of the column.
+     */
+    public BitSet matchRange(int columnIdx,
+                             @Nullable Object lower,
+                             boolean lowerInclusive,
+                             @Nullable Object upper,
+                             boolean upperInclusive) {
+        ColumnIndex columnIndex = indexedColumn(columnIdx);
+        int start = lower == null ? 0 : columnIndex.firstIndexAfter(lower, !lowerInclusive);
+        int end = upper == null ? columnIndex.sortedValues.length : columnIndex.firstIndexAfter(upper, upperInclusive);
+        BitSet matches = new BitSet(partitions.size());
+        for (int i = start; i < end; i++) {
+            matches.set(columnIndex.sortedPositions[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * @return the partitions of the given positions, in the order of {@link DocTableInfo#partitions()}
+     */
+    public List<PartitionName> partitions(BitSet positions) {
+        List<PartitionName> result = new ArrayList<>(positions.cardinality());
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            result.add(partitions.get(i));
+        }
+        return result;
+    }
+
+    private ColumnIndex indexedColumn(int columnIdx) {
+        ColumnIndex columnIndex = columns.get(columnIdx);
+        if (columnIndex == null) {
+            throw new IllegalArgumentException("Partitioned by column at position " + columnIdx + " is not indexed");
+        }
+        return columnIndex;
+    }
+
+    private static final class ColumnIndex {
+
+        private final DataType type;
+        private final Map<Object, BitSet> positionsByValue = new HashMap<>();
+        private final Object[] sortedValues;
+        private final int[] sortedPositions;
+
+        @SuppressWarnings("unchecked")
+        ColumnIndex(DataType type, int columnIdx, List<PartitionName> partitions) {
+            this.type = type;
+            List<Object> values = new ArrayList<>(partitions.size());
+            List<Integer> positions = new ArrayList<>(partitions.size());
+            for (int i = 0; i < partitions.size(); i++) {
+                Object value = type.value(partitions.get(i).values().get(columnIdx));
+                if (value != null) {
+                    positionsByValue.computeIfAbsent(value, k -> new BitSet(partitions.size())).set(i);
+                    values.add(value);
+                    positions.add(i);
+                }
+            }
+            // uses the same ordering as the comparison operators
+            Integer[] order = new Integer[values.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(i -> (Comparable) values.get(i)));
+            sortedValues = new Object[order.length];
+            sortedPositions = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedValues[i] = values.get(order[i]);
+                sortedPositions[i] = positions.get(order[i]);
+            }
+        }
+
+        /**
+         * @return the index of the first sorted value which is greater than the key, or greater than or equal to
+         *         the key if {@code strict} is false.
+         */
+        @SuppressWarnings("unchecked")
+        int firstIndexAfter(Object key, boolean strict) {
+            int low = 0;
+            int high = sortedValues.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = ((Comparable) sortedValues[mid]).compareTo(key);
+                if (cmp < 0 || (strict && cmp == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -40,6 +40,7 @@ public class PgCatalogSchemaInfo implements SchemaInfo {
     public PgCatalogSchemaInfo() {
         this.tableInfoMap = ImmutableSortedMap.<String, TableInfo>naturalOrder()
             .put(PgTypeTable.IDENT.name(), new PgTypeTable())
+            .put(PgStatsTable.IDENT.name(), new PgStatsTable())
             .build();
     }
 
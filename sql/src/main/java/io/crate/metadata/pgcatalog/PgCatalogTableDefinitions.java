@@ -22,9 +22,12 @@
 
 package io.crate.metadata.pgcatalog;
 
+import io.crate.analyze.user.Privilege;
 import io.crate.metadata.TableIdent;
 import io.crate.execution.expression.reference.StaticTableDefinition;
+import io.crate.planner.TableStats;
 import io.crate.protocols.postgres.types.PGTypes;
+import org.elasticsearch.common.inject.Inject;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,13 +38,19 @@ public class PgCatalogTableDefinitions {
 
     private final Map<TableIdent, StaticTableDefinition<?>> tableDefinitions;
 
-    public PgCatalogTableDefinitions() {
-        tableDefinitions = new HashMap<>(1);
+    @Inject
+    public PgCatalogTableDefinitions(TableStats tableStats) {
+        tableDefinitions = new HashMap<>(2);
 
         tableDefinitions.put(PgTypeTable.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(PGTypes.pgTypes()),
             PgTypeTable.expressions()
         ));
+        tableDefinitions.put(PgStatsTable.IDENT, new StaticTableDefinition<>(
+            () -> PgStatsTable.entries(tableStats),
+            (user, e) -> user.hasAnyPrivilege(Privilege.Clazz.TABLE, e.tableIdent().fqn()),
+            PgStatsTable.expressions()
+        ));
     }
 
     public StaticTableDefinition<?> get(TableIdent tableIdent) {
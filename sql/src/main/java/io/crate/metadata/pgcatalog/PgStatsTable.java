@@ -0,0 +1,158 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.pgcatalog;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.planner.ColumnStats;
+import io.crate.planner.TableStats;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.common.lucene.BytesRefs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exposes the column statistics gathered by {@code ANALYZE}, similar to the {@code pg_stats} view of PostgreSQL.
+ */
+public class PgStatsTable extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(PgCatalogSchemaInfo.NAME, "pg_stats");
+
+    static class Columns {
+        static final ColumnIdent SCHEMANAME = new ColumnIdent("schemaname");
+        static final ColumnIdent TABLENAME = new ColumnIdent("tablename");
+        static final ColumnIdent ATTNAME = new ColumnIdent("attname");
+        static final ColumnIdent NULL_FRAC = new ColumnIdent("null_frac");
+        static final ColumnIdent N_DISTINCT = new ColumnIdent("n_distinct");
+        static final ColumnIdent MOST_COMMON_VALS = new ColumnIdent("most_common_vals");
+        static final ColumnIdent MOST_COMMON_FREQS = new ColumnIdent("most_common_freqs");
+        static final ColumnIdent HISTOGRAM_BOUNDS = new ColumnIdent("histogram_bounds");
+    }
+
+    static class Entry {
+
+        private final TableIdent tableIdent;
+        private final ColumnIdent column;
+        private final ColumnStats stats;
+
+        Entry(TableIdent tableIdent, ColumnIdent column, ColumnStats stats) {
+            this.tableIdent = tableIdent;
+            this.column = column;
+            this.stats = stats;
+        }
+
+        TableIdent tableIdent() {
+            return tableIdent;
+        }
+    }
+
+    static Iterable<Entry> entries(TableStats tableStats) {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<TableIdent, Map<ColumnIdent, ColumnStats>> table : tableStats.columnStats().entrySet()) {
+            for (Map.Entry<ColumnIdent, ColumnStats> column : table.getValue().entrySet()) {
+                entries.add(new Entry(table.getKey(), column.getKey(), column.getValue()));
+            }
+        }
+        return entries;
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<Entry>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<Entry>>builder()
+            .put(Columns.SCHEMANAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.tableIdent.schema()))
+            .put(Columns.TABLENAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.tableIdent.name()))
+            .put(Columns.ATTNAME,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.column.sqlFqn()))
+            .put(Columns.NULL_FRAC,
+                () -> RowContextCollectorExpression.forFunction(e -> (float) e.stats.nullFraction()))
+            .put(Columns.N_DISTINCT,
+                () -> RowContextCollectorExpression.forFunction(e -> (float) e.stats.approxDistinct()))
+            .put(Columns.MOST_COMMON_VALS,
+                () -> RowContextCollectorExpression.forFunction(e -> toBytesRefArray(e.stats.mostCommonValues())))
+            .put(Columns.MOST_COMMON_FREQS,
+                () -> RowContextCollectorExpression.forFunction(e -> toFloatArray(e.stats.mostCommonFrequencies())))
+            .put(Columns.HISTOGRAM_BOUNDS,
+                () -> RowContextCollectorExpression.forFunction(e -> toBytesRefArray(e.stats.histogramBounds())))
+            .build();
+    }
+
+    private static BytesRef[] toBytesRefArray(List<Object> values) {
+        BytesRef[] result = new BytesRef[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            result[i] = BytesRefs.toBytesRef(values.get(i));
+        }
+        return result;
+    }
+
+    private static Float[] toFloatArray(double[] values) {
+        Float[] result = new Float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = (float) values[i];
+        }
+        return result;
+    }
+
+    PgStatsTable() {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.SCHEMANAME.name(), DataTypes.STRING, null)
+                .register(Columns.TABLENAME.name(), DataTypes.STRING, null)
+                .register(Columns.ATTNAME.name(), DataTypes.STRING, null)
+                .register(Columns.NULL_FRAC.name(), DataTypes.FLOAT, null)
+                .register(Columns.N_DISTINCT.name(), DataTypes.FLOAT, null)
+                .register(Columns.MOST_COMMON_VALS.name(), DataTypes.STRING_ARRAY, null)
+                .register(Columns.MOST_COMMON_FREQS.name(), new ArrayType(DataTypes.FLOAT), null)
+                .register(Columns.HISTOGRAM_BOUNDS.name(), DataTypes.STRING_ARRAY, null),
+            Collections.emptyList());
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(ClusterState clusterState,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnSingleNode(IDENT, clusterState.getNodes().getLocalNodeId());
+    }
+}
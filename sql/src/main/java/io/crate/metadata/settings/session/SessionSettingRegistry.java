@@ -23,9 +23,12 @@
 package io.crate.metadata.settings.session;
 
 import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
 import io.crate.analyze.expressions.ExpressionToObjectVisitor;
 import io.crate.analyze.expressions.ExpressionToStringVisitor;
 import io.crate.types.BooleanType;
+import org.elasticsearch.common.lucene.BytesRefs;
+import org.elasticsearch.common.unit.TimeValue;
 
 import java.util.Map;
 
@@ -33,6 +36,10 @@ public class SessionSettingRegistry {
 
     public static final String SEARCH_PATH_KEY = "search_path";
     public static final String SEMI_JOIN_KEY = "semi_joins";
+    public static final String HASH_JOIN_KEY = "enable_hashjoin";
+    public static final String SPILL_TO_DISK_KEY = "enable_spill_to_disk";
+    public static final String RESOURCE_GROUP_KEY = "resource_group";
+    public static final String STATEMENT_TIMEOUT_KEY = "statement_timeout";
 
     private static final Map<String, SessionSettingApplier> SESSION_SETTINGS =
         ImmutableMap.<String, SessionSettingApplier>builder()
@@ -57,9 +64,63 @@ public class SessionSettingRegistry {
                     throw new IllegalArgumentException(SEMI_JOIN_KEY + " should have only one argument.");
                 }
             })
+            .put(HASH_JOIN_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    Object value = ExpressionToObjectVisitor.convert(expressions.get(0), parameters);
+                    context.setHashJoinEnabled(BooleanType.INSTANCE.value(value));
+                } else {
+                    throw new IllegalArgumentException(HASH_JOIN_KEY + " should have only one argument.");
+                }
+            })
+            .put(SPILL_TO_DISK_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    Object value = ExpressionToObjectVisitor.convert(expressions.get(0), parameters);
+                    context.setSpillToDiskEnabled(BooleanType.INSTANCE.value(value));
+                } else {
+                    throw new IllegalArgumentException(SPILL_TO_DISK_KEY + " should have only one argument.");
+                }
+            })
+            .put(RESOURCE_GROUP_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    String group = ExpressionToStringVisitor.convert(expressions.get(0), parameters);
+                    context.setResourceGroup(group.trim());
+                } else if (expressions.isEmpty()) {
+                    // set resource_group to default
+                    context.setResourceGroup(null);
+                } else {
+                    throw new IllegalArgumentException(RESOURCE_GROUP_KEY + " should have only one argument.");
+                }
+            })
+            .put(STATEMENT_TIMEOUT_KEY, (parameters, expressions, context) -> {
+                if (expressions.size() == 1) {
+                    Object value = ExpressionToObjectVisitor.convert(expressions.get(0), parameters);
+                    context.setStatementTimeout(parseStatementTimeout(value));
+                } else if (expressions.isEmpty()) {
+                    // set statement_timeout to default
+                    context.setStatementTimeout(SessionContext.NO_STATEMENT_TIMEOUT);
+                } else {
+                    throw new IllegalArgumentException(STATEMENT_TIMEOUT_KEY + " should have only one argument.");
+                }
+            })
             .build();
 
 
+    /**
+     * Parses the statement_timeout, either a number of milliseconds or a time value like {@code '10s'}
+     */
+    private static TimeValue parseStatementTimeout(Object value) {
+        TimeValue timeout;
+        if (value instanceof Number) {
+            timeout = TimeValue.timeValueMillis(((Number) value).longValue());
+        } else {
+            timeout = TimeValue.parseTimeValue(BytesRefs.toString(value), null, STATEMENT_TIMEOUT_KEY);
+        }
+        if (timeout.nanos() < 0) {
+            throw new IllegalArgumentException(STATEMENT_TIMEOUT_KEY + " must not be negative");
+        }
+        return timeout;
+    }
+
     public static SessionSettingApplier getApplier(String setting) {
         return SESSION_SETTINGS.get(setting);
     }
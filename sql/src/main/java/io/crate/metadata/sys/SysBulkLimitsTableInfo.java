@@ -0,0 +1,118 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.execution.jobs.NodeLimit;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterState;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Exposes the adaptive limits each node uses for the bulk requests it sends to the other nodes.
+ */
+public class SysBulkLimitsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "bulk_limits");
+
+    static class Columns {
+        static final ColumnIdent TARGET_NODE_ID = new ColumnIdent("target_node_id");
+        static final ColumnIdent BULK_SIZE = new ColumnIdent("bulk_size");
+        static final ColumnIdent MAX_CONCURRENT_REQUESTS = new ColumnIdent("max_concurrent_requests");
+        static final ColumnIdent AVG_LATENCY = new ColumnIdent("avg_latency");
+        static final ColumnIdent REJECTIONS = new ColumnIdent("rejections");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<NodeLimit>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<NodeLimit>>builder()
+            .put(Columns.TARGET_NODE_ID,
+                () -> RowContextCollectorExpression.objToBytesRef(NodeLimit::nodeId))
+            .put(Columns.BULK_SIZE,
+                () -> RowContextCollectorExpression.forFunction(NodeLimit::bulkSize))
+            .put(Columns.MAX_CONCURRENT_REQUESTS,
+                () -> RowContextCollectorExpression.forFunction(NodeLimit::maxConcurrentRequests))
+            .put(Columns.AVG_LATENCY, () -> RowContextCollectorExpression.forFunction(r -> {
+                long avgLatency = r.avgLatency();
+                if (avgLatency < 0) {
+                    return null;
+                }
+                return avgLatency;
+            }))
+            .put(Columns.REJECTIONS,
+                () -> RowContextCollectorExpression.forFunction(NodeLimit::numRejections))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysBulkLimitsTableInfo(SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.AVG_LATENCY, DataTypes.LONG)
+                .register(Columns.BULK_SIZE, DataTypes.INTEGER)
+                .register(Columns.MAX_CONCURRENT_REQUESTS, DataTypes.INTEGER)
+                .register(Columns.REJECTIONS, DataTypes.LONG)
+                .register(Columns.TARGET_NODE_ID, DataTypes.STRING)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.emptyList());
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(ClusterState clusterState,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterState.getNodes());
+    }
+}
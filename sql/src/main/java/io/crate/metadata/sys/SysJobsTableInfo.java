@@ -48,6 +48,8 @@ public class SysJobsTableInfo extends StaticTableInfo {
         static final ColumnIdent USERNAME = new ColumnIdent("username");
         static final ColumnIdent STMT = new ColumnIdent("stmt");
         public static final ColumnIdent STARTED = new ColumnIdent("started");
+        static final ColumnIdent RESOURCE_GROUP = new ColumnIdent("resource_group");
+        static final ColumnIdent STATE = new ColumnIdent("state");
     }
 
     public static ImmutableMap<ColumnIdent, RowCollectExpressionFactory<JobContext>> expressions() {
@@ -60,6 +62,10 @@ public class SysJobsTableInfo extends StaticTableInfo {
                 () -> RowContextCollectorExpression.objToBytesRef(JobContext::stmt))
             .put(SysJobsTableInfo.Columns.STARTED,
                 () -> RowContextCollectorExpression.forFunction(JobContext::started))
+            .put(SysJobsTableInfo.Columns.RESOURCE_GROUP,
+                () -> RowContextCollectorExpression.objToBytesRef(JobContext::resourceGroup))
+            .put(SysJobsTableInfo.Columns.STATE,
+                () -> RowContextCollectorExpression.objToBytesRef((JobContext c) -> c.state().value()))
             .build();
     }
 
@@ -68,7 +74,9 @@ public class SysJobsTableInfo extends StaticTableInfo {
             .register(Columns.ID, DataTypes.STRING)
             .register(Columns.USERNAME, DataTypes.STRING)
             .register(Columns.STMT, DataTypes.STRING)
-            .register(Columns.STARTED, DataTypes.TIMESTAMP), PRIMARY_KEY);
+            .register(Columns.STARTED, DataTypes.TIMESTAMP)
+            .register(Columns.RESOURCE_GROUP, DataTypes.STRING)
+            .register(Columns.STATE, DataTypes.STRING), PRIMARY_KEY);
     }
 
     @Override
@@ -0,0 +1,117 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.PlanCache;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterState;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Exposes the statistics of the statement and plan cache of each node.
+ */
+public class SysPlanCacheTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "plan_cache");
+
+    static class Columns {
+        static final ColumnIdent CACHE = new ColumnIdent("cache");
+        static final ColumnIdent ENTRIES = new ColumnIdent("entries");
+        static final ColumnIdent HITS = new ColumnIdent("hits");
+        static final ColumnIdent MISSES = new ColumnIdent("misses");
+        static final ColumnIdent EVICTIONS = new ColumnIdent("evictions");
+        static final ColumnIdent INVALIDATIONS = new ColumnIdent("invalidations");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<PlanCache.Stats>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<PlanCache.Stats>>builder()
+            .put(Columns.CACHE,
+                () -> RowContextCollectorExpression.objToBytesRef(PlanCache.Stats::cache))
+            .put(Columns.ENTRIES,
+                () -> RowContextCollectorExpression.forFunction(PlanCache.Stats::entries))
+            .put(Columns.HITS,
+                () -> RowContextCollectorExpression.forFunction(PlanCache.Stats::hits))
+            .put(Columns.MISSES,
+                () -> RowContextCollectorExpression.forFunction(PlanCache.Stats::misses))
+            .put(Columns.EVICTIONS,
+                () -> RowContextCollectorExpression.forFunction(PlanCache.Stats::evictions))
+            .put(Columns.INVALIDATIONS,
+                () -> RowContextCollectorExpression.forFunction(PlanCache.Stats::invalidations))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysPlanCacheTableInfo(SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.CACHE, DataTypes.STRING)
+                .register(Columns.ENTRIES, DataTypes.LONG)
+                .register(Columns.EVICTIONS, DataTypes.LONG)
+                .register(Columns.HITS, DataTypes.LONG)
+                .register(Columns.INVALIDATIONS, DataTypes.LONG)
+                .register(Columns.MISSES, DataTypes.LONG)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.emptyList());
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(ClusterState clusterState,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterState.getNodes());
+    }
+}
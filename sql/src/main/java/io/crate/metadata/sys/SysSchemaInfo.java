@@ -56,6 +56,9 @@ public class SysSchemaInfo implements SchemaInfo {
         tableInfos.put(SysSnapshotsTableInfo.IDENT.name(), new SysSnapshotsTableInfo());
         tableInfos.put(SysSummitsTableInfo.IDENT.name(), new SysSummitsTableInfo());
         tableInfos.put(SysAllocationsTableInfo.IDENT.name(), new SysAllocationsTableInfo());
+        tableInfos.put(SysBulkLimitsTableInfo.IDENT.name(), new SysBulkLimitsTableInfo(sysNodesTableInfo));
+        tableInfos.put(SysPlanCacheTableInfo.IDENT.name(), new SysPlanCacheTableInfo(sysNodesTableInfo));
+        tableInfos.put(SysStatementStatsTableInfo.IDENT.name(), new SysStatementStatsTableInfo(sysNodesTableInfo));
     }
 
     @Override
@@ -0,0 +1,124 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.sys;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.WhereClause;
+import io.crate.execution.engine.collect.stats.StatementStats;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Routing;
+import io.crate.metadata.RoutingProvider;
+import io.crate.metadata.RowContextCollectorExpression;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.metadata.table.ColumnRegistrar;
+import io.crate.metadata.table.StaticTableInfo;
+import io.crate.types.DataTypes;
+import org.elasticsearch.cluster.ClusterState;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Exposes the latency percentiles and failure counts per statement type of each node.
+ */
+public class SysStatementStatsTableInfo extends StaticTableInfo {
+
+    public static final TableIdent IDENT = new TableIdent(SysSchemaInfo.NAME, "statement_stats");
+
+    static class Columns {
+        static final ColumnIdent STATEMENT_TYPE = new ColumnIdent("statement_type");
+        static final ColumnIdent TOTAL_COUNT = new ColumnIdent("total_count");
+        static final ColumnIdent FAILED_COUNT = new ColumnIdent("failed_count");
+        static final ColumnIdent AVG_DURATION = new ColumnIdent("avg_duration");
+        static final ColumnIdent P50_DURATION = new ColumnIdent("p50_duration");
+        static final ColumnIdent P95_DURATION = new ColumnIdent("p95_duration");
+        static final ColumnIdent P99_DURATION = new ColumnIdent("p99_duration");
+        static final ColumnIdent MAX_DURATION = new ColumnIdent("max_duration");
+    }
+
+    public static Map<ColumnIdent, RowCollectExpressionFactory<StatementStats.Entry>> expressions() {
+        return ImmutableMap.<ColumnIdent, RowCollectExpressionFactory<StatementStats.Entry>>builder()
+            .put(Columns.STATEMENT_TYPE,
+                () -> RowContextCollectorExpression.objToBytesRef(e -> e.type().value()))
+            .put(Columns.TOTAL_COUNT,
+                () -> RowContextCollectorExpression.forFunction(StatementStats.Entry::count))
+            .put(Columns.FAILED_COUNT,
+                () -> RowContextCollectorExpression.forFunction(StatementStats.Entry::failedCount))
+            .put(Columns.AVG_DURATION,
+                () -> RowContextCollectorExpression.forFunction(StatementStats.Entry::avgDurationInMs))
+            .put(Columns.P50_DURATION,
+                () -> RowContextCollectorExpression.forFunction(e -> e.durationAtPercentileInMs(50.0)))
+            .put(Columns.P95_DURATION,
+                () -> RowContextCollectorExpression.forFunction(e -> e.durationAtPercentileInMs(95.0)))
+            .put(Columns.P99_DURATION,
+                () -> RowContextCollectorExpression.forFunction(e -> e.durationAtPercentileInMs(99.0)))
+            .put(Columns.MAX_DURATION,
+                () -> RowContextCollectorExpression.forFunction(StatementStats.Entry::maxDurationInMs))
+            .build();
+    }
+
+    private final TableColumn nodesTableColumn;
+
+    SysStatementStatsTableInfo(SysNodesTableInfo sysNodesTableInfo) {
+        super(IDENT, new ColumnRegistrar(IDENT, RowGranularity.DOC)
+                .register(Columns.STATEMENT_TYPE, DataTypes.STRING)
+                .register(Columns.TOTAL_COUNT, DataTypes.LONG)
+                .register(Columns.FAILED_COUNT, DataTypes.LONG)
+                .register(Columns.AVG_DURATION, DataTypes.DOUBLE)
+                .register(Columns.P50_DURATION, DataTypes.DOUBLE)
+                .register(Columns.P95_DURATION, DataTypes.DOUBLE)
+                .register(Columns.P99_DURATION, DataTypes.DOUBLE)
+                .register(Columns.MAX_DURATION, DataTypes.DOUBLE)
+                .putInfoOnly(SysNodesTableInfo.SYS_COL_IDENT, SysNodesTableInfo.tableColumnInfo(IDENT)),
+            Collections.emptyList());
+        nodesTableColumn = sysNodesTableInfo.tableColumn();
+    }
+
+    @Nullable
+    @Override
+    public Reference getReference(ColumnIdent columnIdent) {
+        Reference info = super.getReference(columnIdent);
+        if (info == null) {
+            return nodesTableColumn.getReference(this.ident(), columnIdent);
+        }
+        return info;
+    }
+
+    @Override
+    public RowGranularity rowGranularity() {
+        return RowGranularity.DOC;
+    }
+
+    @Override
+    public Routing getRouting(ClusterState clusterState,
+                              RoutingProvider routingProvider,
+                              WhereClause whereClause,
+                              RoutingProvider.ShardSelection shardSelection,
+                              SessionContext sessionContext) {
+        return Routing.forTableOnAllNodes(IDENT, clusterState.getNodes());
+    }
+}
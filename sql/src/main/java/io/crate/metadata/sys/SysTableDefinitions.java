@@ -23,7 +23,10 @@
 package io.crate.metadata.sys;
 
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.action.sql.PlanCache;
+import io.crate.action.sql.ResultCache;
 import io.crate.analyze.user.Privilege;
+import io.crate.collections.Lists2;
 import io.crate.metadata.TableIdent;
 import io.crate.execution.engine.collect.files.SummitsIterable;
 import io.crate.execution.engine.collect.stats.JobsLogs;
@@ -34,9 +37,11 @@ import io.crate.execution.expression.reference.sys.check.node.SysNodeChecks;
 import io.crate.execution.expression.reference.sys.shard.SysAllocations;
 import io.crate.execution.expression.reference.sys.snapshot.SysSnapshot;
 import io.crate.execution.expression.reference.sys.snapshot.SysSnapshots;
+import io.crate.execution.jobs.NodeJobsCounter;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.repositories.RepositoriesService;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -55,7 +60,10 @@ public class SysTableDefinitions {
                                SysNodeChecks sysNodeChecks,
                                RepositoriesService repositoriesService,
                                SysSnapshots sysSnapshots,
-                               SysAllocations sysAllocations) {
+                               SysAllocations sysAllocations,
+                               NodeJobsCounter nodeJobsCounter,
+                               PlanCache planCache,
+                               ResultCache resultCache) {
         tableDefinitions.put(SysJobsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(jobsLogs.activeJobs()),
             SysJobsTableInfo.expressions()
@@ -98,6 +106,19 @@ public class SysTableDefinitions {
             SysAllocationsTableInfo.expressions()
         ));
 
+        tableDefinitions.put(SysBulkLimitsTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(nodeJobsCounter.nodeLimits()),
+            SysBulkLimitsTableInfo.expressions()
+        ));
+        tableDefinitions.put(SysPlanCacheTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(Lists2.concat(planCache.stats(), Collections.singletonList(resultCache.stats()))),
+            SysPlanCacheTableInfo.expressions()
+        ));
+        tableDefinitions.put(SysStatementStatsTableInfo.IDENT, new StaticTableDefinition<>(
+            () -> completedFuture(jobsLogs.statementStats().entries()),
+            SysStatementStatsTableInfo.expressions()
+        ));
+
         SummitsIterable summits = new SummitsIterable();
         tableDefinitions.put(SysSummitsTableInfo.IDENT, new StaticTableDefinition<>(
             () -> completedFuture(summits),
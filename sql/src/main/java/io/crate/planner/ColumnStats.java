@@ -0,0 +1,244 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import io.crate.Streamer;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Statistics of a single column, gathered by {@code ANALYZE}.
+ *
+ * <ul>
+ *     <li>nullFraction: fraction of rows where the column is null</li>
+ *     <li>approxDistinct: estimated number of distinct non-null values</li>
+ *     <li>mostCommonValues: the most common values with their frequency as fraction of all rows</li>
+ *     <li>histogramBounds: equi-depth histogram over the values which are not part of the most common values</li>
+ * </ul>
+ */
+public final class ColumnStats implements Writeable {
+
+    private final DataType type;
+    private final double nullFraction;
+    private final double approxDistinct;
+    private final List<Object> mostCommonValues;
+    private final double[] mostCommonFrequencies;
+    private final List<Object> histogramBounds;
+
+    public ColumnStats(DataType type,
+                       double nullFraction,
+                       double approxDistinct,
+                       List<Object> mostCommonValues,
+                       double[] mostCommonFrequencies,
+                       List<Object> histogramBounds) {
+        assert mostCommonValues.size() == mostCommonFrequencies.length
+            : "there must be a frequency for each most common value";
+        this.type = type;
+        this.nullFraction = nullFraction;
+        this.approxDistinct = approxDistinct;
+        this.mostCommonValues = mostCommonValues;
+        this.mostCommonFrequencies = mostCommonFrequencies;
+        this.histogramBounds = histogramBounds;
+    }
+
+    public ColumnStats(StreamInput in) throws IOException {
+        type = DataTypes.fromStream(in);
+        nullFraction = in.readDouble();
+        approxDistinct = in.readDouble();
+        Streamer<?> streamer = type.streamer();
+        int numMostCommonValues = in.readVInt();
+        mostCommonValues = new ArrayList<>(numMostCommonValues);
+        mostCommonFrequencies = new double[numMostCommonValues];
+        for (int i = 0; i < numMostCommonValues; i++) {
+            mostCommonValues.add(streamer.readValueFrom(in));
+            mostCommonFrequencies[i] = in.readDouble();
+        }
+        int numBounds = in.readVInt();
+        histogramBounds = new ArrayList<>(numBounds);
+        for (int i = 0; i < numBounds; i++) {
+            histogramBounds.add(streamer.readValueFrom(in));
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        DataTypes.toStream(type, out);
+        out.writeDouble(nullFraction);
+        out.writeDouble(approxDistinct);
+        Streamer<?> streamer = type.streamer();
+        out.writeVInt(mostCommonValues.size());
+        for (int i = 0; i < mostCommonValues.size(); i++) {
+            streamer.writeValueTo(out, mostCommonValues.get(i));
+            out.writeDouble(mostCommonFrequencies[i]);
+        }
+        out.writeVInt(histogramBounds.size());
+        for (Object bound : histogramBounds) {
+            streamer.writeValueTo(out, bound);
+        }
+    }
+
+    public DataType type() {
+        return type;
+    }
+
+    public double nullFraction() {
+        return nullFraction;
+    }
+
+    public double approxDistinct() {
+        return approxDistinct;
+    }
+
+    public List<Object> mostCommonValues() {
+        return mostCommonValues;
+    }
+
+    public double[] mostCommonFrequencies() {
+        return mostCommonFrequencies;
+    }
+
+    public List<Object> histogramBounds() {
+        return histogramBounds;
+    }
+
+    /**
+     * Estimated fraction of rows matching {@code column = value}.
+     * A null value estimates the fraction of {@code column IS NULL}.
+     */
+    @SuppressWarnings("unchecked")
+    public double eqSelectivity(@Nullable Object value) {
+        if (value == null) {
+            return nullFraction;
+        }
+        Object val = type.value(value);
+        double mcvFrequencySum = 0.0;
+        for (int i = 0; i < mostCommonValues.size(); i++) {
+            if (type.compareValueTo(val, mostCommonValues.get(i)) == 0) {
+                return mostCommonFrequencies[i];
+            }
+            mcvFrequencySum += mostCommonFrequencies[i];
+        }
+        double remainingDistinct = Math.max(1.0, approxDistinct - mostCommonValues.size());
+        return clamp((1.0 - nullFraction - mcvFrequencySum) / remainingDistinct);
+    }
+
+    /**
+     * Estimated fraction of rows matching {@code column < value} (or {@code column <= value} if inclusive).
+     * The estimation combines the most common values with a linear position lookup in the histogram.
+     */
+    @SuppressWarnings("unchecked")
+    public double ltSelectivity(Object value, boolean inclusive) {
+        Object val = type.value(value);
+        double mcvFrequencySum = 0.0;
+        double mcvMatching = 0.0;
+        for (int i = 0; i < mostCommonValues.size(); i++) {
+            mcvFrequencySum += mostCommonFrequencies[i];
+            int cmp = type.compareValueTo(mostCommonValues.get(i), val);
+            if (cmp < 0 || (inclusive && cmp == 0)) {
+                mcvMatching += mostCommonFrequencies[i];
+            }
+        }
+        double histogramFraction;
+        int numBounds = histogramBounds.size();
+        if (numBounds < 2) {
+            histogramFraction = 0.5;
+        } else if (type.compareValueTo(val, histogramBounds.get(0)) < 0) {
+            histogramFraction = 0.0;
+        } else if (type.compareValueTo(val, histogramBounds.get(numBounds - 1)) >= 0) {
+            histogramFraction = 1.0;
+        } else {
+            int bucket = 0;
+            while (bucket < numBounds - 2 && type.compareValueTo(val, histogramBounds.get(bucket + 1)) >= 0) {
+                bucket++;
+            }
+            double inBucket = 0.5;
+            Object lower = histogramBounds.get(bucket);
+            Object upper = histogramBounds.get(bucket + 1);
+            if (lower instanceof Number && upper instanceof Number) {
+                double low = ((Number) lower).doubleValue();
+                double high = ((Number) upper).doubleValue();
+                if (high > low) {
+                    inBucket = (((Number) val).doubleValue() - low) / (high - low);
+                }
+            }
+            histogramFraction = (bucket + inBucket) / (numBounds - 1);
+        }
+        return clamp(mcvMatching + histogramFraction * (1.0 - nullFraction - mcvFrequencySum));
+    }
+
+    /**
+     * Estimated selectivity of an equi-join condition between two columns:
+     * {@code (1 - nullFraction1) * (1 - nullFraction2) / max(distinct1, distinct2)}
+     */
+    public static double joinSelectivity(ColumnStats lhs, ColumnStats rhs) {
+        double maxDistinct = Math.max(1.0, Math.max(lhs.approxDistinct, rhs.approxDistinct));
+        return clamp((1.0 - lhs.nullFraction) * (1.0 - rhs.nullFraction) / maxDistinct);
+    }
+
+    private static double clamp(double selectivity) {
+        return Math.max(0.0, Math.min(1.0, selectivity));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnStats that = (ColumnStats) o;
+        return Double.compare(that.nullFraction, nullFraction) == 0 &&
+               Double.compare(that.approxDistinct, approxDistinct) == 0 &&
+               Objects.equals(type, that.type) &&
+               Objects.equals(mostCommonValues, that.mostCommonValues) &&
+               Arrays.equals(mostCommonFrequencies, that.mostCommonFrequencies) &&
+               Objects.equals(histogramBounds, that.histogramBounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, nullFraction, approxDistinct, mostCommonValues, histogramBounds);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStats{" +
+               "type=" + type +
+               ", nullFraction=" + nullFraction +
+               ", approxDistinct=" + approxDistinct +
+               ", mostCommonValues=" + mostCommonValues +
+               ", histogramBounds=" + histogramBounds +
+               '}';
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.carrotsearch.hppc.cursors.ObjectIntCursor;
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.types.DataType;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Builds {@link ColumnStats} out of a sample of column values.
+ *
+ * The number of distinct values is estimated using the Duj1 estimator of Haas and Stokes
+ * <pre>
+ *     n * d / (n - f1 + f1 * n / N)
+ * </pre>
+ * where n is the number of sampled values, N the number of non-null values of the table,
+ * d the number of distinct values within the sample and f1 the number of values which occur exactly once.
+ */
+public final class ColumnStatsCollector {
+
+    @VisibleForTesting
+    static final int MAX_MOST_COMMON_VALUES = 10;
+
+    @VisibleForTesting
+    static final int NUM_HISTOGRAM_BUCKETS = 100;
+
+    private final DataType type;
+    private final ObjectIntHashMap<Object> valueCounts = new ObjectIntHashMap<>();
+    private long numSampled = 0;
+
+    public ColumnStatsCollector(DataType type) {
+        this.type = type;
+    }
+
+    public void add(Object value) {
+        if (value == null) {
+            return;
+        }
+        Object val = type.value(value);
+        if (val instanceof BytesRef) {
+            // the row values may be backed by a re-used buffer
+            val = BytesRef.deepCopyOf((BytesRef) val);
+        }
+        valueCounts.addTo(val, 1);
+        numSampled++;
+    }
+
+    /**
+     * @param numRows number of rows of the table
+     * @param numNonNullValues number of rows of the table where the column isn't null
+     */
+    @SuppressWarnings("unchecked")
+    public ColumnStats build(long numRows, long numNonNullValues) {
+        double nullFraction = numRows > 0 ? (double) (numRows - numNonNullValues) / numRows : 0.0;
+        int numDistinctInSample = valueCounts.size();
+        int numSingletons = 0;
+        List<Object> distinctValues = new ArrayList<>(numDistinctInSample);
+        for (ObjectIntCursor<Object> cursor : valueCounts) {
+            if (cursor.value == 1) {
+                numSingletons++;
+            }
+            distinctValues.add(cursor.key);
+        }
+        double approxDistinct = approxDistinct(numSampled, numNonNullValues, numDistinctInSample, numSingletons);
+
+        Comparator<Object> valueComparator = (o1, o2) -> type.compareValueTo(o1, o2);
+        distinctValues.sort(Comparator.<Object>comparingInt(valueCounts::get).reversed().thenComparing(valueComparator));
+
+        List<Object> mostCommonValues = new ArrayList<>();
+        int numMostCommon = 0;
+        while (numMostCommon < distinctValues.size()
+               && numMostCommon < MAX_MOST_COMMON_VALUES
+               && valueCounts.get(distinctValues.get(numMostCommon)) > 1) {
+            numMostCommon++;
+        }
+        double[] mostCommonFrequencies = new double[numMostCommon];
+        for (int i = 0; i < numMostCommon; i++) {
+            Object value = distinctValues.get(i);
+            mostCommonValues.add(value);
+            mostCommonFrequencies[i] = (1.0 - nullFraction) * valueCounts.get(value) / numSampled;
+        }
+
+        List<Object> remaining = new ArrayList<>();
+        for (int i = numMostCommon; i < distinctValues.size(); i++) {
+            Object value = distinctValues.get(i);
+            for (int c = valueCounts.get(value); c > 0; c--) {
+                remaining.add(value);
+            }
+        }
+        return new ColumnStats(
+            type,
+            nullFraction,
+            approxDistinct,
+            mostCommonValues,
+            mostCommonFrequencies,
+            histogramBounds(remaining, valueComparator)
+        );
+    }
+
+    @VisibleForTesting
+    static double approxDistinct(long numSampled, long numNonNullValues, int numDistinctInSample, int numSingletons) {
+        if (numSampled == 0) {
+            return 0.0;
+        }
+        if (numSampled >= numNonNullValues) {
+            // sample covers the whole table
+            return numDistinctInSample;
+        }
+        if (numSingletons == numSampled) {
+            // all sampled values are unique; assume the column is unique
+            return numNonNullValues;
+        }
+        double n = numSampled;
+        double estimate = n * numDistinctInSample / (n - numSingletons + numSingletons * n / numNonNullValues);
+        return Math.max(numDistinctInSample, Math.min(numNonNullValues, estimate));
+    }
+
+    private static List<Object> histogramBounds(List<Object> values, Comparator<Object> comparator) {
+        if (values.size() < 2) {
+            return Collections.emptyList();
+        }
+        values.sort(comparator);
+        int numBounds = Math.min(NUM_HISTOGRAM_BUCKETS + 1, values.size());
+        List<Object> bounds = new ArrayList<>(numBounds);
+        int lastIdx = values.size() - 1;
+        for (int i = 0; i < numBounds; i++) {
+            int idx = (int) ((long) i * lastIdx / (numBounds - 1));
+            bounds.add(values.get(idx));
+        }
+        return bounds;
+    }
+}
@@ -27,6 +27,7 @@ import io.crate.execution.ddl.DDLStatementDispatcher;
 import io.crate.execution.TransportActionProvider;
 import io.crate.execution.ddl.TransportDropTableAction;
 import io.crate.execution.engine.PhasesTaskFactory;
+import io.crate.execution.engine.collect.files.CopyInSources;
 import io.crate.metadata.Functions;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -53,6 +54,7 @@ public class DependencyCarrier {
     private final DCLStatementDispatcher dclStatementDispatcher;
     private final TransportDropTableAction transportDropTableAction;
     private final ProjectionBuilder projectionBuilder;
+    private final CopyInSources copyInSources;
 
     @Inject
     public DependencyCarrier(Settings settings,
@@ -63,7 +65,8 @@ public class DependencyCarrier {
                              DDLStatementDispatcher ddlAnalysisDispatcherProvider,
                              ClusterService clusterService,
                              DCLStatementDispatcher dclStatementDispatcher,
-                             TransportDropTableAction transportDropTableAction) {
+                             TransportDropTableAction transportDropTableAction,
+                             CopyInSources copyInSources) {
         this.settings = settings;
         this.transportActionProvider = transportActionProvider;
         this.phasesTaskFactory = phasesTaskFactory;
@@ -73,6 +76,7 @@ public class DependencyCarrier {
         this.clusterService = clusterService;
         this.dclStatementDispatcher = dclStatementDispatcher;
         this.transportDropTableAction = transportDropTableAction;
+        this.copyInSources = copyInSources;
         projectionBuilder = new ProjectionBuilder(functions);
     }
 
@@ -119,4 +123,8 @@ public class DependencyCarrier {
     public PhasesTaskFactory phasesTaskFactory() {
         return phasesTaskFactory;
     }
+
+    public CopyInSources copyInSources() {
+        return copyInSources;
+    }
 }
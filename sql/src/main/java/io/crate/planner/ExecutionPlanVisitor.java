@@ -24,6 +24,7 @@ package io.crate.planner;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.join.HashJoin;
 import io.crate.planner.node.dql.join.NestedLoop;
 import org.elasticsearch.common.Nullable;
 
@@ -53,6 +54,10 @@ public class ExecutionPlanVisitor<C, R> {
         return visitPlan(plan, context);
     }
 
+    public R visitHashJoin(HashJoin plan, C context) {
+        return visitPlan(plan, context);
+    }
+
     public R visitMerge(Merge merge, C context) {
         return visitPlan(merge, context);
     }
@@ -36,7 +36,9 @@ import io.crate.execution.dsl.phases.CountPhase;
 import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.planner.node.dql.QueryThenFetch;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.planner.node.dql.join.HashJoin;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.phases.FetchPhase;
 import io.crate.execution.dsl.projection.Projection;
@@ -160,6 +162,14 @@ public class PlanPrinter {
                 visitExecutionPhase(phase, context).put("joinType", phase.joinType()));
             return dqlPlanNode(phase, b);
         }
+
+        @Override
+        public ImmutableMap.Builder<String, Object> visitHashJoinPhase(HashJoinPhase phase, Void context) {
+            ImmutableMap.Builder<String, Object> b = upstreamPhase(
+                phase,
+                visitExecutionPhase(phase, context).put("joinType", phase.joinType()));
+            return dqlPlanNode(phase, b);
+        }
     }
 
     private static class ExecutionPlan2MapVisitor extends ExecutionPlanVisitor<Void, ImmutableMap.Builder<String, Object>> {
@@ -205,6 +215,15 @@ public class PlanPrinter {
                 .put("nestedLoopPhase", phaseMap(plan.nestedLoopPhase()));
         }
 
+        @Override
+        public ImmutableMap.Builder<String, Object> visitHashJoin(HashJoin plan, Void context) {
+            return newBuilder()
+                .put("planType", plan.getClass().getSimpleName())
+                .put("left", process(plan.left(), context).build())
+                .put("right", process(plan.right(), context).build())
+                .put("hashJoinPhase", phaseMap(plan.hashJoinPhase()));
+        }
+
         @Override
         public ImmutableMap.Builder<String, Object> visitQueryThenFetch(QueryThenFetch plan, Void context) {
             return visitPlan(plan, context)
@@ -24,7 +24,10 @@ package io.crate.planner;
 
 import com.google.common.base.Preconditions;
 import io.crate.analyze.AnalyzedBegin;
+import io.crate.analyze.AnalyzedCloseCursor;
+import io.crate.analyze.AnalyzedDeclareCursor;
 import io.crate.analyze.AnalyzedDeleteStatement;
+import io.crate.analyze.AnalyzedFetchFromCursor;
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.AnalyzedStatementVisitor;
 import io.crate.analyze.AnalyzedUpdateStatement;
@@ -62,8 +65,11 @@ import io.crate.planner.node.management.ExplainPlan;
 import io.crate.planner.node.management.KillPlan;
 import io.crate.planner.node.management.ShowCreateTablePlan;
 import io.crate.planner.operators.LogicalPlanner;
+import io.crate.planner.statement.CloseCursorPlan;
 import io.crate.planner.statement.CopyStatementPlanner;
+import io.crate.planner.statement.DeclareCursorPlan;
 import io.crate.planner.statement.DeletePlanner;
+import io.crate.planner.statement.FetchFromCursorPlan;
 import io.crate.planner.statement.SetSessionPlan;
 import io.crate.sql.tree.Expression;
 import org.apache.logging.log4j.Logger;
@@ -146,6 +152,22 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
         return logicalPlanner.plan(relation, context);
     }
 
+    @Override
+    public Plan visitDeclareCursor(AnalyzedDeclareCursor declareCursor, PlannerContext context) {
+        return new DeclareCursorPlan(
+            declareCursor.name(), declareCursor.query().fields(), process(declareCursor.query(), context));
+    }
+
+    @Override
+    public Plan visitFetchFromCursor(AnalyzedFetchFromCursor fetchFromCursor, PlannerContext context) {
+        return new FetchFromCursorPlan(fetchFromCursor.cursor(), fetchFromCursor.count());
+    }
+
+    @Override
+    public Plan visitCloseCursor(AnalyzedCloseCursor closeCursor, PlannerContext context) {
+        return new CloseCursorPlan(closeCursor.name());
+    }
+
     @Override
     protected Plan visitInsertFromValuesStatement(InsertFromValuesAnalyzedStatement statement, PlannerContext context) {
         Preconditions.checkState(!statement.sourceMaps().isEmpty(), "no values given");
@@ -281,7 +303,8 @@ public class Planner extends AnalyzedStatementVisitor<PlannerContext, Plan> {
 
     @Override
     public Plan visitExplainStatement(ExplainAnalyzedStatement explainAnalyzedStatement, PlannerContext context) {
-        return new ExplainPlan(process(explainAnalyzedStatement.statement(), context));
+        return new ExplainPlan(
+            process(explainAnalyzedStatement.statement(), context), explainAnalyzedStatement.analyze());
     }
 
     private LegacyUpsertById processInsertStatement(InsertFromValuesAnalyzedStatement analysis, PlannerContext context) {
@@ -33,6 +33,7 @@ import io.crate.metadata.TransactionContext;
 import io.crate.metadata.table.TableInfo;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.unit.TimeValue;
 
 import javax.annotation.Nullable;
 import java.util.UUID;
@@ -51,7 +52,8 @@ public class PlannerContext {
             context.functions,
             context.transactionContext,
             softLimit,
-            fetchSize
+            fetchSize,
+            context.startedNanos
         );
     }
 
@@ -66,6 +68,11 @@ public class PlannerContext {
     private int executionPhaseId = 0;
     private final String handlerNode;
 
+    /**
+     * The time the execution of the statement started, sub-plans share it with their parent plan
+     */
+    private final long startedNanos;
+
     public PlannerContext(ClusterState clusterState,
                           RoutingProvider routingProvider,
                           UUID jobId,
@@ -73,6 +80,18 @@ public class PlannerContext {
                           TransactionContext transactionContext,
                           int softLimit,
                           int fetchSize) {
+        this(clusterState, routingProvider, jobId, functions, transactionContext, softLimit, fetchSize, System.nanoTime());
+    }
+
+    private PlannerContext(ClusterState clusterState,
+                           RoutingProvider routingProvider,
+                           UUID jobId,
+                           Functions functions,
+                           TransactionContext transactionContext,
+                           int softLimit,
+                           int fetchSize,
+                           long startedNanos) {
+        this.startedNanos = startedNanos;
         this.routingProvider = routingProvider;
         this.functions = functions;
         this.routingBuilder = new RoutingBuilder(clusterState, routingProvider);
@@ -110,6 +129,20 @@ public class PlannerContext {
         return jobId;
     }
 
+    /**
+     * @return the time the jobs of the statement may still run before they're killed because the
+     *         {@code statement_timeout} of the session elapsed. It may be negative if it already elapsed.
+     *         Null if the session doesn't have a statement timeout.
+     */
+    @Nullable
+    public TimeValue remainingTimeout() {
+        long timeoutNanos = transactionContext.sessionContext().statementTimeout().nanos();
+        if (timeoutNanos <= 0) {
+            return null;
+        }
+        return TimeValue.timeValueNanos(timeoutNanos - (System.nanoTime() - startedNanos));
+    }
+
     public int nextExecutionPhaseId() {
         return executionPhaseId++;
     }
@@ -24,14 +24,38 @@ package io.crate.planner;
 
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
+import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.TableIdent;
 
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 public class TableStats {
 
     private volatile ObjectLongMap<TableIdent> tableStats = new ObjectLongHashMap<>(0);
+    private volatile Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats = Collections.emptyMap();
 
-    public void updateTableStats(ObjectLongMap<TableIdent> tableStats) {
+    public synchronized void updateTableStats(ObjectLongMap<TableIdent> tableStats) {
         this.tableStats = tableStats;
+        // drop the column statistics of tables which no longer exist
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> currentColumnStats = columnStats;
+        if (!currentColumnStats.isEmpty()) {
+            Map<TableIdent, Map<ColumnIdent, ColumnStats>> newColumnStats = new HashMap<>(currentColumnStats);
+            if (newColumnStats.keySet().removeIf(ident -> !tableStats.containsKey(ident))) {
+                columnStats = newColumnStats;
+            }
+        }
+    }
+
+    /**
+     * Replaces the column statistics of a table. Statistics are gathered by {@code ANALYZE}.
+     */
+    public synchronized void updateColumnStats(TableIdent tableIdent, Map<ColumnIdent, ColumnStats> stats) {
+        Map<TableIdent, Map<ColumnIdent, ColumnStats>> newColumnStats = new HashMap<>(columnStats);
+        newColumnStats.put(tableIdent, stats);
+        columnStats = newColumnStats;
     }
 
     /**
@@ -45,4 +69,20 @@ public class TableStats {
     public long numDocs(TableIdent tableIdent) {
         return tableStats.getOrDefault(tableIdent, -1);
     }
+
+    /**
+     * Returns the statistics of a column or null if the table hasn't been analyzed yet.
+     */
+    @Nullable
+    public ColumnStats columnStats(TableIdent tableIdent, ColumnIdent column) {
+        Map<ColumnIdent, ColumnStats> stats = columnStats.get(tableIdent);
+        return stats == null ? null : stats.get(column);
+    }
+
+    /**
+     * Returns the statistics of all analyzed columns, grouped by table.
+     */
+    public Map<TableIdent, Map<ColumnIdent, ColumnStats>> columnStats() {
+        return columnStats;
+    }
 }
@@ -25,12 +25,22 @@ package io.crate.planner;
 
 import com.carrotsearch.hppc.ObjectLongHashMap;
 import com.carrotsearch.hppc.ObjectLongMap;
+import com.carrotsearch.hppc.cursors.ObjectLongCursor;
 import com.google.common.annotations.VisibleForTesting;
+import io.crate.action.FutureActionListener;
 import io.crate.action.sql.BaseResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.Row;
+import io.crate.execution.ddl.ColumnStatsRequest;
+import io.crate.execution.ddl.TransportColumnStatsAction;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.table.TableInfo;
 import io.crate.settings.CrateSetting;
+import io.crate.sql.Identifiers;
 import io.crate.types.DataTypes;
 import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -45,8 +55,14 @@ import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.threadpool.ThreadPool;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Singleton
 public class TableStatsService extends AbstractComponent implements Runnable {
@@ -60,10 +76,28 @@ public class TableStatsService extends AbstractComponent implements Runnable {
     static final String STMT =
         "select cast(sum(num_docs) as long), schema_name, table_name from sys.shards group by 2, 3";
 
+    static final String ANALYZE = "analyze";
+
+    /**
+     * Number of rows which are sampled per table to build the column statistics
+     */
+    @VisibleForTesting
+    static final int SAMPLE_SIZE = 30_000;
+
+    /**
+     * A table is re-analyzed in the background if its number of docs changed by this fraction since the last analysis
+     */
+    @VisibleForTesting
+    static final double AUTO_ANALYZE_CHANGE_THRESHOLD = 0.1;
+
     private final ClusterService clusterService;
     private final ThreadPool threadPool;
     private final TableStatsResultReceiver resultReceiver;
+    private final SQLOperations sqlOperations;
     private final SQLOperations.SQLDirectExecutor sqlDirectExecutor;
+    private final Schemas schemas;
+    private final TransportColumnStatsAction columnStatsAction;
+    private final ObjectLongMap<TableIdent> numDocsOfLastAnalysis = new ObjectLongHashMap<>();
 
     @VisibleForTesting
     ThreadPool.Cancellable refreshScheduledTask = null;
@@ -75,11 +109,19 @@ public class TableStatsService extends AbstractComponent implements Runnable {
                              ThreadPool threadPool,
                              ClusterService clusterService,
                              TableStats tableStats,
-                             SQLOperations sqlOperations) {
+                             SQLOperations sqlOperations,
+                             Schemas schemas,
+                             TransportColumnStatsAction columnStatsAction) {
         super(settings);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
-        resultReceiver = new TableStatsResultReceiver(tableStats::updateTableStats);
+        this.sqlOperations = sqlOperations;
+        this.schemas = schemas;
+        this.columnStatsAction = columnStatsAction;
+        resultReceiver = new TableStatsResultReceiver(newStats -> {
+            tableStats.updateTableStats(newStats);
+            autoAnalyze(newStats);
+        });
         refreshInterval = STATS_SERVICE_REFRESH_INTERVAL_SETTING.setting().get(settings);
         refreshScheduledTask = scheduleRefresh(refreshInterval);
         sqlDirectExecutor = sqlOperations.createSystemExecutor("sys", TABLE_STATS, STMT, DEFAULT_SOFT_LIMIT);
@@ -110,6 +152,165 @@ public class TableStatsService extends AbstractComponent implements Runnable {
         }
     }
 
+    /**
+     * Gathers the column statistics of the given tables and publishes them to all nodes.
+     *
+     * @return a future containing the number of analyzed tables
+     */
+    public CompletableFuture<Long> analyze(List<DocTableInfo> tables) {
+        CompletableFuture<Long> result = CompletableFuture.completedFuture(0L);
+        for (DocTableInfo table : tables) {
+            result = result.thenCompose(numAnalyzed -> analyze(table).thenApply(ignored -> numAnalyzed + 1));
+        }
+        return result;
+    }
+
+    private CompletableFuture<Long> analyze(DocTableInfo table) {
+        List<Reference> columns = table.columns().stream()
+            .filter(ref -> DataTypes.isPrimitive(ref.valueType()))
+            .collect(Collectors.toList());
+        if (columns.isEmpty()) {
+            return CompletableFuture.completedFuture(0L);
+        }
+        String tableName = Identifiers.quote(table.ident().schema()) + '.' + Identifiers.quote(table.ident().name());
+        StringBuilder countStmt = new StringBuilder("select count(*)");
+        List<String> columnNames = new ArrayList<>(columns.size());
+        List<ColumnStatsCollector> collectors = new ArrayList<>(columns.size());
+        for (Reference column : columns) {
+            String columnName = Identifiers.quote(column.ident().columnIdent().name());
+            countStmt.append(", count(").append(columnName).append(')');
+            columnNames.add(columnName);
+            collectors.add(new ColumnStatsCollector(column.valueType()));
+        }
+        countStmt.append(" from ").append(tableName);
+
+        CountsResultReceiver countsReceiver = new CountsResultReceiver(columns.size() + 1);
+        SampleResultReceiver sampleReceiver = new SampleResultReceiver(collectors);
+        return execute(countStmt.toString(), countsReceiver)
+            .thenCompose(ignored -> execute(
+                sampleStatement(tableName, columnNames, countsReceiver.counts[0], SAMPLE_SIZE), sampleReceiver))
+            .thenCompose(ignored -> {
+                long[] counts = countsReceiver.counts;
+                Map<ColumnIdent, ColumnStats> stats = new HashMap<>(columns.size());
+                for (int i = 0; i < columns.size(); i++) {
+                    stats.put(
+                        columns.get(i).ident().columnIdent(),
+                        collectors.get(i).build(counts[0], counts[i + 1])
+                    );
+                }
+                FutureActionListener<Long, Long> listener = FutureActionListener.newInstance();
+                columnStatsAction.broadcast(new ColumnStatsRequest(table.ident(), stats), listener);
+                return listener;
+            });
+    }
+
+    /**
+     * Builds the statement which selects a sample of about {@code sampleSize} rows of the table.
+     * Every row is picked with the same probability, so each shard contributes to the sample
+     * in proportion to its number of docs instead of the sample consisting of the rows which
+     * happen to be collected first.
+     */
+    @VisibleForTesting
+    static String sampleStatement(String tableName, List<String> columnNames, long numDocs, int sampleSize) {
+        StringBuilder stmt = new StringBuilder("select ");
+        stmt.append(String.join(", ", columnNames));
+        stmt.append(" from ").append(tableName);
+        if (numDocs > sampleSize) {
+            double fraction = (double) sampleSize / numDocs;
+            stmt.append(" where random() < ").append(fraction);
+        }
+        stmt.append(" limit ").append(sampleSize);
+        return stmt.toString();
+    }
+
+    private CompletableFuture<?> execute(String stmt, BaseResultReceiver resultReceiver) {
+        try {
+            sqlOperations.createSystemExecutor(null, ANALYZE, stmt, SAMPLE_SIZE)
+                .execute(resultReceiver, Collections.emptyList());
+        } catch (Throwable t) {
+            resultReceiver.fail(t);
+        }
+        return resultReceiver.completionFuture();
+    }
+
+    /**
+     * Analyzes the tables in the background which haven't been analyzed yet or
+     * whose number of docs changed significantly since their last analysis.
+     * This only runs on the master node, as the statistics are published to all nodes.
+     */
+    private void autoAnalyze(ObjectLongMap<TableIdent> newStats) {
+        if (!clusterService.state().nodes().isLocalNodeElectedMaster()) {
+            return;
+        }
+        List<DocTableInfo> tablesToAnalyze = new ArrayList<>();
+        synchronized (numDocsOfLastAnalysis) {
+            numDocsOfLastAnalysis.removeAll(ident -> !newStats.containsKey(ident));
+            for (ObjectLongCursor<TableIdent> cursor : newStats) {
+                long lastNumDocs = numDocsOfLastAnalysis.getOrDefault(cursor.key, -1L);
+                if (!needsAnalysis(lastNumDocs, cursor.value)) {
+                    continue;
+                }
+                TableInfo tableInfo;
+                try {
+                    tableInfo = schemas.getTableInfo(cursor.key);
+                } catch (Exception e) {
+                    continue;
+                }
+                if (tableInfo instanceof DocTableInfo && !((DocTableInfo) tableInfo).isClosed()) {
+                    tablesToAnalyze.add((DocTableInfo) tableInfo);
+                    numDocsOfLastAnalysis.put(cursor.key, cursor.value);
+                }
+            }
+        }
+        if (!tablesToAnalyze.isEmpty()) {
+            analyze(tablesToAnalyze).whenComplete((numAnalyzed, t) -> {
+                if (t != null) {
+                    logger.error("error analyzing tables", t);
+                }
+            });
+        }
+    }
+
+    @VisibleForTesting
+    static boolean needsAnalysis(long numDocsOfLastAnalysis, long numDocs) {
+        if (numDocsOfLastAnalysis < 0) {
+            return numDocs > 0;
+        }
+        return Math.abs(numDocs - numDocsOfLastAnalysis) > AUTO_ANALYZE_CHANGE_THRESHOLD * numDocsOfLastAnalysis;
+    }
+
+    private static class CountsResultReceiver extends BaseResultReceiver {
+
+        private final long[] counts;
+
+        CountsResultReceiver(int numCounts) {
+            counts = new long[numCounts];
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = (long) row.get(i);
+            }
+        }
+    }
+
+    private static class SampleResultReceiver extends BaseResultReceiver {
+
+        private final List<ColumnStatsCollector> collectors;
+
+        SampleResultReceiver(List<ColumnStatsCollector> collectors) {
+            this.collectors = collectors;
+        }
+
+        @Override
+        public void setNextRow(Row row) {
+            for (int i = 0; i < collectors.size(); i++) {
+                collectors.get(i).add(row.get(i));
+            }
+        }
+    }
+
     static class TableStatsResultReceiver extends BaseResultReceiver {
 
         private static final Logger LOGGER = Loggers.getLogger(TableStatsResultReceiver.class);
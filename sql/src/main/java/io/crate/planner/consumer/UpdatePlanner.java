@@ -147,7 +147,7 @@ public final class UpdatePlanner {
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
 
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), singletonList(nodeOpTree))
+                .create(plannerContext, singletonList(nodeOpTree))
                 .execute(consumer);
         }
 
@@ -162,7 +162,7 @@ public final class UpdatePlanner {
                 nodeOpTreeList.add(NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId()));
             }
             return executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), nodeOpTreeList)
+                .create(plannerContext, nodeOpTreeList)
                 .executeBulk();
         }
     }
@@ -30,6 +30,7 @@ import io.crate.execution.dsl.phases.MergePhase;
 import io.crate.execution.dsl.phases.PKLookupPhase;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.execution.dsl.phases.TableFunctionCollectPhase;
+import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.types.DataTypes;
 
@@ -78,6 +79,11 @@ public class StreamerVisitor {
             return DataTypes.getStreamers(phase.outputTypes());
         }
 
+        @Override
+        public Streamer<?>[] visitHashJoinPhase(HashJoinPhase phase, Void context) {
+            return DataTypes.getStreamers(phase.outputTypes());
+        }
+
         @Override
         public Streamer<?>[] visitFileUriCollectPhase(FileUriCollectPhase phase, Void context) {
             return DataTypes.getStreamers(phase.outputTypes());
@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.node.dql.join;
+
+import io.crate.execution.dsl.phases.HashJoinPhase;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.planner.ExecutionPlan;
+import io.crate.planner.ExecutionPlanVisitor;
+import io.crate.planner.PositionalOrderBy;
+import io.crate.planner.ResultDescription;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.types.DataType;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plan that will be executed using a hash join: The rows of the right plan are loaded into a hash table
+ * which is then probed with the rows of the left plan.
+ * <p>
+ * Like in {@link NestedLoop} the outputs of the join are the outputs of the left plan followed by the outputs
+ * of the right plan (or only the outputs of the left plan in case of SEMI and ANTI joins).
+ */
+public class HashJoin implements ExecutionPlan, ResultDescription {
+
+    private final ExecutionPlan left;
+    private final ExecutionPlan right;
+    private final HashJoinPhase hashJoinPhase;
+
+    private int limit;
+    private int offset;
+    private int numOutputs;
+
+    private final int maxRowsPerNode;
+    @Nullable
+    private PositionalOrderBy orderBy;
+
+    public HashJoin(HashJoinPhase hashJoinPhase,
+                    ExecutionPlan left,
+                    ExecutionPlan right,
+                    int limit,
+                    int offset,
+                    int maxRowsPerNode,
+                    int numOutputs,
+                    @Nullable PositionalOrderBy orderBy) {
+        this.left = left;
+        this.right = right;
+        this.hashJoinPhase = hashJoinPhase;
+        this.limit = limit;
+        this.offset = offset;
+        this.maxRowsPerNode = maxRowsPerNode;
+        this.orderBy = orderBy;
+        this.numOutputs = numOutputs;
+    }
+
+    public ExecutionPlan left() {
+        return left;
+    }
+
+    public ExecutionPlan right() {
+        return right;
+    }
+
+    public HashJoinPhase hashJoinPhase() {
+        return hashJoinPhase;
+    }
+
+    @Override
+    public ResultDescription resultDescription() {
+        return this;
+    }
+
+    @Override
+    public void setDistributionInfo(DistributionInfo distributionInfo) {
+        hashJoinPhase.distributionInfo(distributionInfo);
+    }
+
+    @Override
+    public <C, R> R accept(ExecutionPlanVisitor<C, R> visitor, C context) {
+        return visitor.visitHashJoin(this, context);
+    }
+
+    @Override
+    public void addProjection(Projection projection) {
+        hashJoinPhase.addProjection(projection);
+        numOutputs = projection.outputs().size();
+    }
+
+    @Override
+    public void addProjection(Projection projection,
+                              int unfinishedLimit,
+                              int unfinishedOffset,
+                              @Nullable PositionalOrderBy unfinishedOrderBy) {
+        hashJoinPhase.addProjection(projection);
+        limit = unfinishedLimit;
+        offset = unfinishedOffset;
+        orderBy = unfinishedOrderBy;
+        numOutputs = projection.outputs().size();
+    }
+
+    @Override
+    public Collection<String> nodeIds() {
+        return hashJoinPhase.nodeIds();
+    }
+
+    @Nullable
+    @Override
+    public PositionalOrderBy orderBy() {
+        return orderBy;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public int maxRowsPerNode() {
+        return maxRowsPerNode;
+    }
+
+    @Override
+    public int offset() {
+        return offset;
+    }
+
+    @Override
+    public int numOutputs() {
+        return numOutputs;
+    }
+
+    @Override
+    public List<DataType> streamOutputs() {
+        return hashJoinPhase.outputTypes();
+    }
+}
@@ -23,41 +23,64 @@
 package io.crate.planner.node.management;
 
 import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.data.CollectingRowConsumer;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.Row1;
 import io.crate.data.RowConsumer;
 import io.crate.execution.engine.pipeline.TopN;
+import io.crate.execution.engine.profile.PhaseProfile;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Plan;
 import io.crate.planner.PlanPrinter;
 import io.crate.planner.PlannerContext;
 import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.LogicalPlanner;
 import io.crate.planner.statement.CopyStatementPlanner;
+import org.elasticsearch.action.ActionListener;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static io.crate.data.SentinelRow.SENTINEL;
 
 public class ExplainPlan implements Plan {
 
     private final Plan subPlan;
+    private final boolean analyze;
 
     public ExplainPlan(Plan subExecutionPlan) {
+        this(subExecutionPlan, false);
+    }
+
+    public ExplainPlan(Plan subExecutionPlan, boolean analyze) {
         this.subPlan = subExecutionPlan;
+        this.analyze = analyze;
     }
 
     public Plan subPlan() {
         return subPlan;
     }
 
+    public boolean analyze() {
+        return analyze;
+    }
+
     @Override
     public void execute(DependencyCarrier executor,
                         PlannerContext plannerContext,
                         RowConsumer consumer,
                         Row params,
                         Map<SelectSymbol, Object> valuesBySubQuery) {
+        if (analyze) {
+            executeAndProfile(executor, plannerContext, consumer, params, valuesBySubQuery);
+            return;
+        }
         Map<String, Object> map;
         try {
             if (subPlan instanceof LogicalPlan) {
@@ -88,4 +111,61 @@ public class ExplainPlan implements Plan {
         }
         consumer.accept(InMemoryBatchIterator.of(new Row1(map), SENTINEL), null);
     }
+
+    /**
+     * Executes the statement with profiling enabled, discards the result rows and
+     * returns the runtime statistics of all phases, aggregated across the nodes.
+     */
+    private void executeAndProfile(DependencyCarrier executor,
+                                   PlannerContext plannerContext,
+                                   RowConsumer consumer,
+                                   Row params,
+                                   Map<SelectSymbol, Object> valuesBySubQuery) {
+        if (!(subPlan instanceof LogicalPlan)) {
+            consumer.accept(null, new UnsupportedOperationException("EXPLAIN ANALYZE not supported for " + subPlan));
+            return;
+        }
+        long startNanos = System.nanoTime();
+        CollectingRowConsumer<?, Long> countingConsumer = new CollectingRowConsumer<>(Collectors.counting());
+        try {
+            LogicalPlanner.execute(
+                (LogicalPlan) subPlan, executor, plannerContext, countingConsumer, params, valuesBySubQuery, true);
+        } catch (Throwable t) {
+            consumer.accept(null, t);
+            return;
+        }
+        countingConsumer.resultFuture().whenComplete((numRows, failure) -> {
+            if (failure != null) {
+                consumer.accept(null, failure);
+                return;
+            }
+            long durationNanos = System.nanoTime() - startNanos;
+            executor.transportActionProvider().transportCollectProfileNodeAction().collectProfiles(
+                plannerContext.jobId(),
+                new ActionListener<List<PhaseProfile>>() {
+                    @Override
+                    public void onResponse(List<PhaseProfile> phaseProfiles) {
+                        Row1 row = new Row1(profileMap(numRows, durationNanos, phaseProfiles));
+                        consumer.accept(InMemoryBatchIterator.of(row, SENTINEL), null);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        consumer.accept(null, e);
+                    }
+                });
+        });
+    }
+
+    static Map<String, Object> profileMap(long numRows, long durationNanos, List<PhaseProfile> phaseProfiles) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("rows", numRows);
+        map.put("duration_ms", durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        List<Map<String, Object>> phases = new ArrayList<>(phaseProfiles.size());
+        for (PhaseProfile phaseProfile : phaseProfiles) {
+            phases.add(phaseProfile.toMap());
+        }
+        map.put("phases", phases);
+        return map;
+    }
 }
@@ -30,6 +30,7 @@ import io.crate.planner.UnionExecutionPlan;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
+import io.crate.planner.node.dql.join.HashJoin;
 import io.crate.planner.node.dql.join.NestedLoop;
 
 import java.util.function.Function;
@@ -78,6 +79,14 @@ public class ExecutionPlanSymbolMapper extends ExecutionPlanVisitor<Function<? s
         return null;
     }
 
+    @Override
+    public Void visitHashJoin(HashJoin plan, Function<? super Symbol, ? extends Symbol> mapper) {
+        process(plan.left(), mapper);
+        process(plan.right(), mapper);
+        plan.hashJoinPhase().replaceSymbols(mapper);
+        return null;
+    }
+
     @Override
     public Void visitCountPlan(CountPlan countPlan, Function<? super Symbol, ? extends Symbol> mapper) {
         countPlan.countPhase().replaceSymbols(mapper);
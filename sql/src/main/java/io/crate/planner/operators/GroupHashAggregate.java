@@ -90,13 +90,15 @@ public class GroupHashAggregate extends OneInputPlan {
             executionPlan = Merge.ensureOnHandler(executionPlan, plannerContext);
         }
         List<Symbol> sourceOutputs = source.outputs();
+        boolean spillToDisk = plannerContext.transactionContext().sessionContext().isSpillToDiskEnabled();
         if (shardsContainAllGroupKeyValues()) {
             GroupProjection groupProjection = projectionBuilder.groupProjection(
                 sourceOutputs,
                 groupKeys,
                 aggregates,
                 AggregateMode.ITER_FINAL,
-                source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.CLUSTER
+                source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.CLUSTER,
+                spillToDisk
             );
             executionPlan.addProjection(groupProjection);
             return executionPlan;
@@ -105,13 +107,13 @@ public class GroupHashAggregate extends OneInputPlan {
         if (ExecutionPhases.executesOnHandler(plannerContext.handlerNode(), executionPlan.resultDescription().nodeIds())) {
             if (source.preferShardProjections()) {
                 executionPlan.addProjection(projectionBuilder.groupProjection(
-                    sourceOutputs, groupKeys, aggregates, AggregateMode.ITER_PARTIAL, RowGranularity.SHARD));
+                    sourceOutputs, groupKeys, aggregates, AggregateMode.ITER_PARTIAL, RowGranularity.SHARD, spillToDisk));
                 executionPlan.addProjection(projectionBuilder.groupProjection(
-                    outputs, groupKeys, aggregates, AggregateMode.PARTIAL_FINAL, RowGranularity.NODE));
+                    outputs, groupKeys, aggregates, AggregateMode.PARTIAL_FINAL, RowGranularity.NODE, spillToDisk));
                 return executionPlan;
             } else {
                 executionPlan.addProjection(projectionBuilder.groupProjection(
-                    sourceOutputs, groupKeys, aggregates, AggregateMode.ITER_FINAL, RowGranularity.NODE));
+                    sourceOutputs, groupKeys, aggregates, AggregateMode.ITER_FINAL, RowGranularity.NODE, spillToDisk));
                 return executionPlan;
             }
         }
@@ -121,7 +123,8 @@ public class GroupHashAggregate extends OneInputPlan {
             groupKeys,
             aggregates,
             AggregateMode.ITER_PARTIAL,
-            source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.NODE
+            source.preferShardProjections() ? RowGranularity.SHARD : RowGranularity.NODE,
+            spillToDisk
         );
         executionPlan.addProjection(toPartial);
         executionPlan.setDistributionInfo(DistributionInfo.DEFAULT_MODULO);
@@ -131,7 +134,8 @@ public class GroupHashAggregate extends OneInputPlan {
             groupKeys,
             aggregates,
             AggregateMode.PARTIAL_FINAL,
-            RowGranularity.CLUSTER
+            RowGranularity.CLUSTER,
+            spillToDisk
         );
         return createMerge(
             plannerContext,
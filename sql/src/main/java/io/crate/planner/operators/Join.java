@@ -25,19 +25,25 @@ package io.crate.planner.operators;
 import com.google.common.collect.ImmutableSet;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.OrderBy;
+import io.crate.analyze.QueriedTableRelation;
 import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.relations.DocTableRelation;
 import io.crate.analyze.relations.JoinPair;
 import io.crate.analyze.relations.QueriedRelation;
 import io.crate.analyze.relations.QuerySplitter;
 import io.crate.analyze.symbol.FieldsVisitor;
+import io.crate.analyze.symbol.Function;
 import io.crate.analyze.symbol.InputColumn;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.SelectSymbol;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.analyze.symbol.SymbolVisitors;
+import io.crate.analyze.symbol.Symbols;
 import io.crate.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.execution.expression.operator.AndOperator;
+import io.crate.execution.expression.operator.EqOperator;
 import io.crate.execution.engine.pipeline.TopN;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.PlannerContext;
@@ -46,9 +52,12 @@ import io.crate.planner.SubqueryPlanner;
 import io.crate.planner.TableStats;
 import io.crate.planner.consumer.FetchMode;
 import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.execution.dsl.phases.MergePhase;
+import io.crate.planner.node.dql.join.HashJoin;
 import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
+import io.crate.execution.dsl.phases.HashJoinPhase;
 import io.crate.execution.dsl.phases.NestedLoopPhase;
 import io.crate.execution.dsl.projection.EvalProjection;
 import io.crate.execution.dsl.projection.Projection;
@@ -83,6 +92,15 @@ public class Join extends TwoInputPlan {
     private final Symbol joinCondition;
     private final boolean isFiltered;
 
+    /**
+     * The part of the query which references both relations of a CROSS JOIN.
+     * This is the case for joins using the implicit syntax (`FROM t1, t2 WHERE t1.x = t2.x`).
+     * The query itself is applied by a {@link Filter} on top of this join, but it allows to use a hash join instead
+     * of a nested loop.
+     */
+    @Nullable
+    private final Symbol implicitJoinCondition;
+
     static Builder createNodes(MultiSourceSelect mss, WhereClause where, SubqueryPlanner subqueryPlanner) {
         return (tableStats, usedColsByParent) -> {
 
@@ -104,7 +122,8 @@ public class Join extends TwoInputPlan {
                     mss.isRelationReOrderAllowed(),
                     mss.sources().keySet(),
                     joinPairs.keySet(),
-                    queryParts.keySet()
+                    queryParts.keySet(),
+                    name -> numDocs(tableStats, mss.sources().get(name))
                 );
             } else {
                 orderedRelationNames = mss.sources().keySet();
@@ -148,8 +167,17 @@ public class Join extends TwoInputPlan {
             // have more than 1 fetchProjection within a single execution
             LogicalPlan lhsPlan = LogicalPlanner.plan(lhs, FetchMode.NEVER_CLEAR, subqueryPlanner, false).build(tableStats, usedFromLeft);
             LogicalPlan rhsPlan = LogicalPlanner.plan(rhs, FetchMode.NEVER_CLEAR, subqueryPlanner, false).build(tableStats, usedFromRight);
+            Symbol implicitJoinCondition = joinType == JoinType.CROSS
+                ? queryParts.get(Sets.newHashSet(lhsName, rhsName))
+                : null;
             Symbol query = removeParts(queryParts, lhsName, rhsName);
-            LogicalPlan join = new Join(lhsPlan, rhsPlan, joinType, joinCondition, query != null && !(query instanceof Literal));
+            LogicalPlan join = new Join(
+                lhsPlan,
+                rhsPlan,
+                joinType,
+                joinCondition,
+                query != null && !(query instanceof Literal),
+                implicitJoinCondition);
 
             join = Filter.create(join, query);
             while (it.hasNext()) {
@@ -164,6 +192,16 @@ public class Join extends TwoInputPlan {
         };
     }
 
+    /**
+     * @return the number of docs of the table of a relation or -1 if it isn't known
+     */
+    private static long numDocs(TableStats tableStats, AnalyzedRelation relation) {
+        if (relation instanceof QueriedTableRelation) {
+            return tableStats.numDocs(((QueriedTableRelation<?>) relation).tableRelation().tableInfo().ident());
+        }
+        return -1L;
+    }
+
     private static JoinType maybeInvertPair(QualifiedName rhsName, JoinPair pair) {
         // A matching joinPair for two relations is retrieved using pairByQualifiedNames.remove(setOf(a, b))
         // This returns a pair for both cases: (a ⋈ b) and (b ⋈ a) -> invert joinType to execute correct join
@@ -208,14 +246,21 @@ public class Join extends TwoInputPlan {
 
         LogicalPlan nextPlan = LogicalPlanner.plan(nextRel, FetchMode.NEVER_CLEAR, subqueryPlanner, false).build(tableStats, usedFromNext);
 
+        Symbol queryPartOfBoth = removeMatch(queryParts, joinNames, nextName);
         Symbol query = AndOperator.join(
             Stream.of(
-                removeMatch(queryParts, joinNames, nextName),
+                queryPartOfBoth,
                 queryParts.remove(Collections.singleton(nextName)))
                 .filter(Objects::nonNull).iterator()
         );
         return Filter.create(
-            new Join(source, nextPlan, type, condition, query != null && !(query instanceof Literal)),
+            new Join(
+                source,
+                nextPlan,
+                type,
+                condition,
+                query != null && !(query instanceof Literal),
+                type == JoinType.CROSS ? queryPartOfBoth : null),
             query
         );
     }
@@ -273,11 +318,13 @@ public class Join extends TwoInputPlan {
                  LogicalPlan rhs,
                  JoinType joinType,
                  @Nullable Symbol joinCondition,
-                 boolean isFiltered) {
+                 boolean isFiltered,
+                 @Nullable Symbol implicitJoinCondition) {
         super(lhs, rhs, new ArrayList<>());
         this.joinType = joinType;
         this.joinCondition = joinCondition;
         this.isFiltered = isFiltered;
+        this.implicitJoinCondition = implicitJoinCondition;
         if (joinType == JoinType.SEMI) {
             this.outputs.addAll(lhs.outputs());
         } else {
@@ -295,6 +342,31 @@ public class Join extends TwoInputPlan {
                                @Nullable Integer pageSizeHint,
                                Row params,
                                Map<SelectSymbol, Object> subQueryValues) {
+        if (plannerContext.transactionContext().sessionContext().isHashJoinEnabled()) {
+            JoinType hashJoinType = joinType;
+            Symbol hashJoinCondition = joinCondition;
+            if (joinType == JoinType.CROSS) {
+                hashJoinType = JoinType.INNER;
+                hashJoinCondition = implicitJoinCondition;
+            }
+            List<Symbol> leftJoinConditionInputs = new ArrayList<>();
+            List<Symbol> rightJoinConditionInputs = new ArrayList<>();
+            if (hashJoinCondition != null
+                && supportsHashJoin(hashJoinType)
+                && extractHashJoinInputs(hashJoinCondition, leftJoinConditionInputs, rightJoinConditionInputs)) {
+                return buildHashJoin(
+                    plannerContext,
+                    projectionBuilder,
+                    params,
+                    subQueryValues,
+                    hashJoinType,
+                    hashJoinCondition,
+                    leftJoinConditionInputs,
+                    rightJoinConditionInputs
+                );
+            }
+        }
+
         /*
          * isDistributed/filterNeeded doesn't consider the joinCondition.
          * This means joins with implicit syntax result in a different plan than joins using explicit syntax.
@@ -345,7 +417,7 @@ public class Join extends TwoInputPlan {
         } else {
             left.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
             if (isMergePhaseNeeded(nlExecutionNodes, leftResultDesc, false)) {
-                leftMerge = buildMergePhase(plannerContext, leftResultDesc, nlExecutionNodes);
+                leftMerge = buildMergePhase(plannerContext, leftResultDesc, nlExecutionNodes, "nl-merge");
             }
         }
         if (nlExecutionNodes.size() == 1
@@ -357,7 +429,7 @@ public class Join extends TwoInputPlan {
             right.setDistributionInfo(DistributionInfo.DEFAULT_SAME_NODE);
         } else {
             if (isMergePhaseNeeded(nlExecutionNodes, rightResultDesc, isDistributed)) {
-                rightMerge = buildMergePhase(plannerContext, rightResultDesc, nlExecutionNodes);
+                rightMerge = buildMergePhase(plannerContext, rightResultDesc, nlExecutionNodes, "nl-merge");
             }
             right.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
         }
@@ -401,6 +473,157 @@ public class Join extends TwoInputPlan {
         );
     }
 
+    private static boolean supportsHashJoin(JoinType joinType) {
+        switch (joinType) {
+            case INNER:
+            case LEFT:
+            case SEMI:
+            case ANTI:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Extracts the operands of the equality operators of the joinCondition which can be used to compute the hash
+     * of the left and right rows.
+     * An equality qualifies if one operand only references outputs of the left plan and the other operand only
+     * references outputs of the right plan.
+     *
+     * @return true if at least one such equality was found.
+     */
+    private boolean extractHashJoinInputs(Symbol joinCondition,
+                                          List<Symbol> leftJoinConditionInputs,
+                                          List<Symbol> rightJoinConditionInputs) {
+        InputColumns.SourceSymbols lhsSources = new InputColumns.SourceSymbols(lhs.outputs());
+        InputColumns.SourceSymbols rhsSources = new InputColumns.SourceSymbols(rhs.outputs());
+        for (Symbol part : AndOperator.split(joinCondition)) {
+            if (!(part instanceof Function) || !((Function) part).info().ident().name().equals(EqOperator.NAME)) {
+                continue;
+            }
+            List<Symbol> args = ((Function) part).arguments();
+            Symbol leftInput = hashJoinInputOrNull(args.get(0), lhsSources);
+            Symbol rightInput = hashJoinInputOrNull(args.get(1), rhsSources);
+            if (leftInput == null || rightInput == null) {
+                leftInput = hashJoinInputOrNull(args.get(1), lhsSources);
+                rightInput = hashJoinInputOrNull(args.get(0), rhsSources);
+            }
+            if (leftInput != null && rightInput != null) {
+                leftJoinConditionInputs.add(leftInput);
+                rightJoinConditionInputs.add(rightInput);
+            }
+        }
+        return !leftJoinConditionInputs.isEmpty();
+    }
+
+    @Nullable
+    private static Symbol hashJoinInputOrNull(Symbol operand, InputColumns.SourceSymbols sourceSymbols) {
+        Symbol input = InputColumns.create(operand, sourceSymbols);
+        if (SymbolVisitors.any(s -> !(s instanceof InputColumn || s instanceof Function || s instanceof Literal), input)
+            || !SymbolVisitors.any(s -> s instanceof InputColumn, input)
+            || SymbolVisitors.any(s -> s instanceof Function && !((Function) s).info().isDeterministic(), input)) {
+            return null;
+        }
+        return input;
+    }
+
+    private ExecutionPlan buildHashJoin(PlannerContext plannerContext,
+                                        ProjectionBuilder projectionBuilder,
+                                        Row params,
+                                        Map<SelectSymbol, Object> subQueryValues,
+                                        JoinType joinType,
+                                        Symbol joinCondition,
+                                        List<Symbol> leftJoinConditionInputs,
+                                        List<Symbol> rightJoinConditionInputs) {
+        // The hash table is built from the rows of the right side, so it should be the side with less rows.
+        long lhsRows = lhs.numExpectedRows();
+        boolean switchSides = joinType == JoinType.INNER && lhsRows >= 0 && lhsRows < rhs.numExpectedRows();
+        LogicalPlan probeSide = lhs;
+        LogicalPlan buildSide = rhs;
+        if (switchSides) {
+            probeSide = rhs;
+            buildSide = lhs;
+            List<Symbol> tmpInputs = leftJoinConditionInputs;
+            leftJoinConditionInputs = rightJoinConditionInputs;
+            rightJoinConditionInputs = tmpInputs;
+        }
+        ExecutionPlan left = probeSide.build(
+            plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryValues);
+        ExecutionPlan right = buildSide.build(
+            plannerContext, projectionBuilder, NO_LIMIT, 0, null, null, params, subQueryValues);
+        ResultDescription leftResultDesc = left.resultDescription();
+        ResultDescription rightResultDesc = right.resultDescription();
+
+        // Rows with equal join keys must end up on the same node.
+        // Re-distributing by the first key is sufficient for that, but it's only possible if it's a plain column.
+        Symbol leftKey = leftJoinConditionInputs.get(0);
+        Symbol rightKey = rightJoinConditionInputs.get(0);
+        boolean hasDocTables = baseTables.stream().anyMatch(r -> r instanceof DocTableRelation);
+        boolean isDistributed = hasDocTables
+                                && leftKey instanceof InputColumn
+                                && rightKey instanceof InputColumn
+                                && leftKey.valueType().equals(rightKey.valueType())
+                                && !leftResultDesc.nodeIds().isEmpty()
+                                && !rightResultDesc.nodeIds().isEmpty()
+                                && !leftResultDesc.hasRemainingLimitOrOffset()
+                                && !rightResultDesc.hasRemainingLimitOrOffset();
+
+        Collection<String> joinExecutionNodes;
+        MergePhase leftMerge = null;
+        MergePhase rightMerge = null;
+        if (isDistributed) {
+            joinExecutionNodes = leftResultDesc.nodeIds();
+            left.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, ((InputColumn) leftKey).index()));
+            right.setDistributionInfo(new DistributionInfo(DistributionType.MODULO, ((InputColumn) rightKey).index()));
+            leftMerge = buildMergePhase(plannerContext, leftResultDesc, joinExecutionNodes, "hash-join-merge");
+            rightMerge = buildMergePhase(plannerContext, rightResultDesc, joinExecutionNodes, "hash-join-merge");
+        } else {
+            joinExecutionNodes = ImmutableSet.of(plannerContext.handlerNode());
+            left.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+            if (isMergePhaseNeeded(joinExecutionNodes, leftResultDesc, false)) {
+                leftMerge = buildMergePhase(plannerContext, leftResultDesc, joinExecutionNodes, "hash-join-merge");
+            }
+            right.setDistributionInfo(DistributionInfo.DEFAULT_BROADCAST);
+            if (isMergePhaseNeeded(joinExecutionNodes, rightResultDesc, false)) {
+                rightMerge = buildMergePhase(plannerContext, rightResultDesc, joinExecutionNodes, "hash-join-merge");
+            }
+        }
+
+        // The rows of the join are the probe side columns followed by the build side columns;
+        // the projection restores the order of the outputs if the sides were switched.
+        InputColumns.SourceSymbols joinedSymbols =
+            new InputColumns.SourceSymbols(Lists2.concat(probeSide.outputs(), buildSide.outputs()));
+        HashJoinPhase hashJoinPhase = new HashJoinPhase(
+            plannerContext.jobId(),
+            plannerContext.nextExecutionPhaseId(),
+            isDistributed ? "distributed-hash-join" : "hash-join",
+            // JoinPhase ctor want's at least one projection
+            Collections.singletonList(new EvalProjection(InputColumns.create(outputs, joinedSymbols))),
+            leftMerge,
+            rightMerge,
+            joinExecutionNodes,
+            joinType,
+            InputColumns.create(joinCondition, joinedSymbols),
+            leftJoinConditionInputs,
+            rightJoinConditionInputs,
+            new ArrayList<>(Symbols.typeView(probeSide.outputs())),
+            new ArrayList<>(Symbols.typeView(buildSide.outputs())),
+            plannerContext.transactionContext().sessionContext().isSpillToDiskEnabled()
+        );
+        return new HashJoin(
+            hashJoinPhase,
+            left,
+            right,
+            TopN.NO_LIMIT,
+            0,
+            TopN.NO_LIMIT,
+            outputs.size(),
+            null
+        );
+    }
+
     private static boolean isMergePhaseNeeded(Collection<String> executionNodes,
                                               ResultDescription resultDescription,
                                               boolean isDistributed) {
@@ -411,7 +634,8 @@ public class Join extends TwoInputPlan {
 
     private static MergePhase buildMergePhase(PlannerContext plannerContext,
                                               ResultDescription resultDescription,
-                                              Collection<String> nlExecutionNodes) {
+                                              Collection<String> joinExecutionNodes,
+                                              String name) {
         List<Projection> projections = Collections.emptyList();
         if (resultDescription.hasRemainingLimitOrOffset()) {
             projections = Collections.singletonList(ProjectionBuilder.topNOrEvalIfNeeded(
@@ -425,10 +649,10 @@ public class Join extends TwoInputPlan {
         return new MergePhase(
             plannerContext.jobId(),
             plannerContext.nextExecutionPhaseId(),
-            "nl-merge",
+            name,
             resultDescription.nodeIds().size(),
             1,
-            nlExecutionNodes,
+            joinExecutionNodes,
             resultDescription.streamOutputs(),
             projections,
             DistributionInfo.DEFAULT_SAME_NODE,
@@ -438,7 +662,7 @@ public class Join extends TwoInputPlan {
 
     @Override
     protected LogicalPlan updateSources(LogicalPlan newLeftSource, LogicalPlan newRightSource) {
-        return new Join(newLeftSource, newRightSource, joinType, joinCondition, isFiltered);
+        return new Join(newLeftSource, newRightSource, joinType, joinCondition, isFiltered, implicitJoinCondition);
     }
 
     @Override
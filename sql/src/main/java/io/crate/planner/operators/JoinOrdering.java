@@ -32,22 +32,85 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToLongFunction;
 
 public class JoinOrdering {
 
+    /**
+     * Up to this number of relations the cheapest order is searched exhaustively, above it greedily.
+     */
+    @VisibleForTesting
+    static final int MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH = 10;
+
     public static Collection<QualifiedName> getOrderedRelationNames(boolean reOrderIsAllowed,
                                                                     Collection<QualifiedName> sourceRelations,
                                                                     Set<? extends Set<QualifiedName>> explicitJoinConditions,
                                                                     Set<? extends Set<QualifiedName>> implicitJoinConditions) {
+        return getOrderedRelationNames(
+            reOrderIsAllowed, sourceRelations, explicitJoinConditions, implicitJoinConditions, name -> -1L);
+    }
+
+    /**
+     * Like {@link #getOrderedRelationNames(boolean, Collection, Set, Set)}, but if the number of rows of all
+     * relations is known the order is chosen by {@link #orderByCost(Collection, Collection, ToLongFunction)}.
+     *
+     * @param numRows returns the estimated number of rows of a relation or -1 if it isn't known.
+     */
+    public static Collection<QualifiedName> getOrderedRelationNames(boolean reOrderIsAllowed,
+                                                                    Collection<QualifiedName> sourceRelations,
+                                                                    Set<? extends Set<QualifiedName>> explicitJoinConditions,
+                                                                    Set<? extends Set<QualifiedName>> implicitJoinConditions,
+                                                                    ToLongFunction<QualifiedName> numRows) {
         if (!reOrderIsAllowed || (explicitJoinConditions.isEmpty() && implicitJoinConditions.isEmpty())) {
             return sourceRelations;
         }
+        if (sourceRelations.size() < Long.SIZE
+            && sourceRelations.stream().allMatch(name -> numRows.applyAsLong(name) >= 0)) {
+            List<Set<QualifiedName>> joinedRelations = new ArrayList<>(explicitJoinConditions);
+            joinedRelations.addAll(implicitJoinConditions);
+            return orderByCost(sourceRelations, joinedRelations, numRows);
+        }
         return orderByJoinConditions(
             sourceRelations,
             explicitJoinConditions,
             implicitJoinConditions);
     }
 
+    /**
+     * Returns the relations in the order which minimizes the sum of the estimated number of rows of all intermediate
+     * join results.
+     *
+     * (Assuming the relations are consumed from left to right to build a tree of two-relations join nodes)
+     *
+     * The number of rows of joining two relations with a join condition is estimated assuming that the join
+     * columns of the smaller relation are unique, so the selectivity of a condition is 1 / min(rows(t1), rows(t2)).
+     * Relations without a join condition between them result in a cross join.
+     *
+     * Up to {@link #MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH} relations all orders are considered (using dynamic
+     * programming over the subsets of the relations), otherwise the order is built greedily starting with the
+     * cheapest pair and adding the relation which results in the smallest intermediate result.
+     * Within the first pair the relation with more rows comes first, so that the smaller one is the right side
+     * which is used to build the hash table of a hash join.
+     *
+     * @param relations       all relations, e.g. [t1, t2, t3, t3]
+     * @param joinedRelations contains all relation pairs that have a join condition, e.g. {{t1, t2}, {t2, t3}}
+     * @param numRows         returns the estimated number of rows of a relation
+     */
+    static Collection<QualifiedName> orderByCost(Collection<QualifiedName> relations,
+                                                 Collection<? extends Set<QualifiedName>> joinedRelations,
+                                                 ToLongFunction<QualifiedName> numRows) {
+        CostModel costModel = new CostModel(relations, joinedRelations, numRows);
+        int[] order = relations.size() <= MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH
+            ? costModel.cheapestOrder()
+            : costModel.greedyOrder();
+
+        List<QualifiedName> orderedRelations = new ArrayList<>(order.length);
+        for (int idx : order) {
+            orderedRelations.add(costModel.relations.get(idx));
+        }
+        return orderedRelations;
+    }
+
     /**
      * Returns a the relation re-ordered to apply join conditions further down in the tree.
      *
@@ -124,4 +187,183 @@ public class JoinOrdering {
         // Add the rest of the relations to the end of the collection
         sets.forEach(bestOrder::addAll);
     }
+
+    /**
+     * Estimates the number of rows of joining a subset of the relations.
+     * Subsets are represented as bit masks of the relation indices.
+     */
+    private static class CostModel {
+
+        private final List<QualifiedName> relations;
+        private final double[] numRows;
+        private final long[] joinedMasks;
+
+        CostModel(Collection<QualifiedName> relations,
+                  Collection<? extends Set<QualifiedName>> joinedRelations,
+                  ToLongFunction<QualifiedName> numRows) {
+            this.relations = new ArrayList<>(relations);
+            this.numRows = new double[this.relations.size()];
+            for (int i = 0; i < this.numRows.length; i++) {
+                this.numRows[i] = Math.max(1L, numRows.applyAsLong(this.relations.get(i)));
+            }
+            List<Long> masks = new ArrayList<>(joinedRelations.size());
+            for (Set<QualifiedName> pair : joinedRelations) {
+                long mask = mask(pair);
+                // conditions which reference more than two relations are applied as filter and not considered
+                if (Long.bitCount(mask) == 2 && !masks.contains(mask)) {
+                    masks.add(mask);
+                }
+            }
+            this.joinedMasks = masks.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private long mask(Set<QualifiedName> names) {
+            long mask = 0L;
+            for (QualifiedName name : names) {
+                int idx = relations.indexOf(name);
+                if (idx < 0) {
+                    return 0;
+                }
+                mask |= 1L << idx;
+            }
+            return mask;
+        }
+
+        /**
+         * Estimated number of rows of the join of all relations in the mask; independent of their order.
+         */
+        double numRows(long mask) {
+            double rows = 1.0;
+            for (int i = 0; i < numRows.length; i++) {
+                if ((mask & (1L << i)) != 0) {
+                    rows *= numRows[i];
+                }
+            }
+            for (long joinedMask : joinedMasks) {
+                if ((mask & joinedMask) == joinedMask) {
+                    int first = Long.numberOfTrailingZeros(joinedMask);
+                    int second = Long.numberOfTrailingZeros(joinedMask & ~(1L << first));
+                    rows /= Math.min(numRows[first], numRows[second]);
+                }
+            }
+            return Math.max(1.0, rows);
+        }
+
+        /**
+         * @return true if there is a join condition between the relation and any relation of the mask
+         */
+        boolean isJoined(long mask, int relation) {
+            long bit = 1L << relation;
+            for (long joinedMask : joinedMasks) {
+                if ((joinedMask & bit) != 0 && (joinedMask & mask & ~bit) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Dynamic programming over all subsets: the cheapest left-deep order of a subset is the cheapest order of the
+         * subset without its last relation, followed by that relation.
+         * Cross joins are only considered for a subset if it cannot be joined using join conditions only.
+         */
+        int[] cheapestOrder() {
+            int n = numRows.length;
+            int numSubsets = 1 << n;
+            double[] cost = new double[numSubsets];
+            boolean[] withoutCrossJoin = new boolean[numSubsets];
+            int[] lastRelation = new int[numSubsets];
+            for (int mask = 1; mask < numSubsets; mask++) {
+                int size = Integer.bitCount(mask);
+                if (size == 1) {
+                    lastRelation[mask] = Integer.numberOfTrailingZeros(mask);
+                    withoutCrossJoin[mask] = true;
+                    continue;
+                }
+                double bestCost = Double.POSITIVE_INFINITY;
+                boolean bestWithoutCrossJoin = false;
+                int bestLast = -1;
+                for (int i = 0; i < n; i++) {
+                    int bit = 1 << i;
+                    if ((mask & bit) == 0) {
+                        continue;
+                    }
+                    int subMask = mask & ~bit;
+                    boolean candidateWithoutCrossJoin = withoutCrossJoin[subMask] && isJoined(mask, i);
+                    double subCost = cost[subMask];
+                    boolean isBetter;
+                    if (candidateWithoutCrossJoin != bestWithoutCrossJoin) {
+                        // an order without cross joins always wins, regardless of its cost
+                        isBetter = candidateWithoutCrossJoin;
+                    } else if (subCost != bestCost) {
+                        isBetter = subCost < bestCost;
+                    } else {
+                        // On ties the later relation is placed last, which keeps the original order.
+                        // Only within the first pair the smaller relation is placed last (it becomes the build side).
+                        isBetter = size > 2 || numRows[i] <= numRows[bestLast];
+                    }
+                    if (isBetter) {
+                        bestCost = subCost;
+                        bestWithoutCrossJoin = candidateWithoutCrossJoin;
+                        bestLast = i;
+                    }
+                }
+                cost[mask] = bestCost + numRows(mask);
+                withoutCrossJoin[mask] = bestWithoutCrossJoin;
+                lastRelation[mask] = bestLast;
+            }
+            int[] order = new int[n];
+            int mask = numSubsets - 1;
+            for (int pos = n - 1; pos >= 0; pos--) {
+                order[pos] = lastRelation[mask];
+                mask &= ~(1 << order[pos]);
+            }
+            return order;
+        }
+
+        /**
+         * Starts with the pair with the smallest join result and then adds the relation which results in the smallest
+         * intermediate result, preferring relations which can be joined using a join condition.
+         */
+        int[] greedyOrder() {
+            int n = numRows.length;
+            int[] order = new int[n];
+            double bestRows = Double.POSITIVE_INFINITY;
+            boolean bestIsJoined = false;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (i == j || numRows[i] < numRows[j]) {
+                        continue;
+                    }
+                    boolean joined = isJoined(1L << i, j);
+                    double rows = numRows((1L << i) | (1L << j));
+                    if ((joined && !bestIsJoined) || (joined == bestIsJoined && rows < bestRows)) {
+                        bestRows = rows;
+                        bestIsJoined = joined;
+                        order[0] = i;
+                        order[1] = j;
+                    }
+                }
+            }
+            long mask = (1L << order[0]) | (1L << order[1]);
+            for (int pos = 2; pos < n; pos++) {
+                bestRows = Double.POSITIVE_INFINITY;
+                bestIsJoined = false;
+                for (int i = 0; i < n; i++) {
+                    if ((mask & (1L << i)) != 0) {
+                        continue;
+                    }
+                    boolean joined = isJoined(mask, i);
+                    double rows = numRows(mask | (1L << i));
+                    if ((joined && !bestIsJoined) || (joined == bestIsJoined && rows < bestRows)) {
+                        bestRows = rows;
+                        bestIsJoined = joined;
+                        order[pos] = i;
+                    }
+                }
+                mask |= 1L << order[pos];
+            }
+            return order;
+        }
+    }
 }
@@ -263,14 +263,28 @@ public class LogicalPlanner {
                                RowConsumer consumer,
                                Row params,
                                Map<SelectSymbol, Object> subQueryValues) {
+        execute(logicalPlan, executor, plannerContext, consumer, params, subQueryValues, false);
+    }
+
+    /**
+     * @param profile if true, runtime statistics of the phases of the plan are collected.
+     *                Sub-queries (dependencies) are executed without profiling.
+     */
+    public static void execute(LogicalPlan logicalPlan,
+                               DependencyCarrier executor,
+                               PlannerContext plannerContext,
+                               RowConsumer consumer,
+                               Row params,
+                               Map<SelectSymbol, Object> subQueryValues,
+                               boolean profile) {
         if (logicalPlan.dependencies().isEmpty()) {
-            doExecute(logicalPlan, executor, plannerContext, consumer, params, subQueryValues);
+            doExecute(logicalPlan, executor, plannerContext, consumer, params, subQueryValues, profile);
         } else {
             MultiPhaseExecutor.execute(logicalPlan.dependencies(), executor, plannerContext, params)
                 .whenComplete((valueBySubQuery, failure) -> {
                     if (failure == null) {
                         try {
-                            doExecute(logicalPlan, executor, plannerContext, consumer, params, valueBySubQuery);
+                            doExecute(logicalPlan, executor, plannerContext, consumer, params, valueBySubQuery, profile);
                         } catch (Exception e) {
                             consumer.accept(null, e);
                         }
@@ -286,7 +300,8 @@ public class LogicalPlanner {
                                   PlannerContext plannerContext,
                                   RowConsumer consumer,
                                   Row params,
-                                  Map<SelectSymbol, Object> subQueryValues) {
+                                  Map<SelectSymbol, Object> subQueryValues,
+                                  boolean profile) {
         ExecutionPlan executionPlan = logicalPlan.build(
             plannerContext, executor.projectionBuilder(), -1, 0, null, null, params, subQueryValues);
 
@@ -295,7 +310,7 @@ public class LogicalPlanner {
 
         NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
         executor.phasesTaskFactory()
-            .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+            .create(plannerContext, Collections.singletonList(nodeOpTree), profile)
             .execute(consumer);
     }
 
@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.statement;
+
+import io.crate.action.sql.Cursors;
+import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.planner.DependencyCarrier;
+import io.crate.planner.Plan;
+import io.crate.planner.PlannerContext;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+
+public class CloseCursorPlan implements Plan {
+
+    @Nullable
+    private final String name;
+
+    /**
+     * @param name the cursor to close or null to close all cursors of the session
+     */
+    public CloseCursorPlan(@Nullable String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void execute(DependencyCarrier executor,
+                        PlannerContext plannerContext,
+                        RowConsumer consumer,
+                        Row params,
+                        Map<SelectSymbol, Object> valuesBySubQuery) {
+        Cursors cursors = plannerContext.transactionContext().sessionContext().cursors();
+        try {
+            if (name == null) {
+                cursors.closeAll();
+            } else {
+                cursors.close(name);
+            }
+        } catch (Throwable t) {
+            consumer.accept(null, t);
+            return;
+        }
+        consumer.accept(InMemoryBatchIterator.empty(SENTINEL), null);
+    }
+}
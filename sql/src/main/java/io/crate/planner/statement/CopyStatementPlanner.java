@@ -31,9 +31,13 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.SelectSymbol;
 import io.crate.analyze.symbol.Symbol;
 import io.crate.collections.Lists2;
+import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowConsumer;
 import io.crate.execution.engine.NodeOperationTreeGenerator;
+import io.crate.execution.engine.collect.files.CopyInSource;
+import io.crate.execution.engine.collect.files.CopyInSources;
+import io.crate.execution.engine.collect.files.DelimitedLineParser;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.PartitionName;
@@ -70,7 +74,9 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 public final class CopyStatementPlanner {
@@ -115,7 +121,7 @@ public final class CopyStatementPlanner {
                 copyTo, plannerContext, logicalPlanner, subqueryPlanner, executor.projectionBuilder(), params);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(plannerContext, Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
     }
@@ -136,10 +142,42 @@ public final class CopyStatementPlanner {
                             Map<SelectSymbol, Object> valuesBySubQuery) {
             ExecutionPlan plan = planCopyFromExecution(executor.clusterService().state().nodes(), copyFrom, plannerContext);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(plan, executor.localNodeId());
+            if (copyFrom.isStdin()) {
+                consumer = registerCopyInSource(executor.copyInSources(), plannerContext, consumer);
+            }
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(plannerContext, Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
+
+        private RowConsumer registerCopyInSource(CopyInSources copyInSources,
+                                                 PlannerContext plannerContext,
+                                                 RowConsumer consumer) {
+            CopyInSource source = plannerContext.transactionContext().sessionContext().takeCopyInSource();
+            if (source == null) {
+                throw new UnsupportedOperationException(
+                    "COPY FROM STDIN is only supported using the PostgreSQL wire protocol");
+            }
+            UnaryOperator<byte[]> lineParser = DelimitedLineParser.fromSettings(copyFrom.settings(), copyFrom.targetColumns());
+            UUID jobId = plannerContext.jobId();
+            copyInSources.register(jobId, source, lineParser);
+            return new RowConsumer() {
+                @Override
+                public void accept(BatchIterator<Row> iterator, @Nullable Throwable failure) {
+                    if (failure != null) {
+                        // the collect phase didn't pick up the source; stop receiving data from the client
+                        copyInSources.unregister(jobId);
+                        source.fail(failure);
+                    }
+                    consumer.accept(iterator, failure);
+                }
+
+                @Override
+                public boolean requiresScroll() {
+                    return consumer.requiresScroll();
+                }
+            };
+        }
     }
 
     public static ExecutionPlan planCopyFromExecution(DiscoveryNodes allNodes,
@@ -210,11 +248,15 @@ public final class CopyStatementPlanner {
         // the partitionedBy-inputColumns created for the projection are still valid because the positions are not changed
         rewriteToCollectToUsePartitionValues(table.partitionedByColumns(), partitionValues, toCollect);
 
+        // the data of COPY FROM STDIN is received by the handler, so it must also be the node that reads it
+        Collection<String> executionNodes = copyFrom.isStdin()
+            ? Collections.singletonList(context.handlerNode())
+            : getExecutionNodes(allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate());
         FileUriCollectPhase collectPhase = new FileUriCollectPhase(
             context.jobId(),
             context.nextExecutionPhaseId(),
             "copyFrom",
-            getExecutionNodes(allNodes, copyFrom.settings().getAsInt("num_readers", allNodes.getSize()), copyFrom.nodePredicate()),
+            executionNodes,
             copyFrom.uri(),
             toCollect,
             projections,
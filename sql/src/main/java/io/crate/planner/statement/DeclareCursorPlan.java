@@ -0,0 +1,85 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.planner.statement;
+
+import io.crate.action.sql.Cursor;
+import io.crate.action.sql.Cursors;
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.SelectSymbol;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowConsumer;
+import io.crate.planner.DependencyCarrier;
+import io.crate.planner.Plan;
+import io.crate.planner.PlannerContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+
+/**
+ * Starts the job of the query and registers the {@link Cursor} which consumes it in the session.
+ * The rows are only produced once they're fetched.
+ */
+public class DeclareCursorPlan implements Plan {
+
+    private final String name;
+    private final List<Field> fields;
+    private final Plan queryPlan;
+
+    public DeclareCursorPlan(String name, List<Field> fields, Plan queryPlan) {
+        this.name = name;
+        this.fields = fields;
+        this.queryPlan = queryPlan;
+    }
+
+    public Plan queryPlan() {
+        return queryPlan;
+    }
+
+    @Override
+    public void execute(DependencyCarrier executor,
+                        PlannerContext plannerContext,
+                        RowConsumer consumer,
+                        Row params,
+                        Map<SelectSymbol, Object> valuesBySubQuery) {
+        Cursors cursors = plannerContext.transactionContext().sessionContext().cursors();
+        Cursor cursor = new Cursor(name, plannerContext.jobId(), fields);
+        try {
+            cursors.add(cursor, Cursors.MAX_PER_SESSION_SETTING.get(executor.settings()));
+        } catch (Throwable t) {
+            consumer.accept(null, t);
+            return;
+        }
+        try {
+            queryPlan.execute(executor, plannerContext, cursor, params, valuesBySubQuery);
+        } catch (Throwable t) {
+            cursors.close(name);
+            consumer.accept(null, t);
+            return;
+        }
+        cursors.scheduleIdleCheck(executor.scheduler(), cursor, Cursors.IDLE_TIMEOUT_SETTING.get(executor.settings()));
+        consumer.accept(InMemoryBatchIterator.empty(SENTINEL), null);
+    }
+}
@@ -139,7 +139,7 @@ public final class DeletePlanner {
             ExecutionPlan executionPlan = deleteByQuery(table, plannerContext, where);
             NodeOperationTree nodeOpTree = NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId());
             executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), Collections.singletonList(nodeOpTree))
+                .create(plannerContext, Collections.singletonList(nodeOpTree))
                 .execute(consumer);
         }
 
@@ -157,7 +157,7 @@ public final class DeletePlanner {
                 nodeOperationTreeList.add(NodeOperationTreeGenerator.fromPlan(executionPlan, executor.localNodeId()));
             }
             return executor.phasesTaskFactory()
-                .create(plannerContext.jobId(), nodeOperationTreeList)
+                .create(plannerContext, nodeOperationTreeList)
                 .executeBulk();
         }
     }
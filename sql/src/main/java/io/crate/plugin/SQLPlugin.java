@@ -23,16 +23,24 @@ package io.crate.plugin;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import io.crate.action.sql.Cursors;
+import io.crate.action.sql.PlanCache;
+import io.crate.action.sql.ResultCache;
 import io.crate.action.sql.SQLOperations;
 import io.crate.analyze.repositories.RepositorySettingsModule;
 import io.crate.breaker.CircuitBreakerModule;
 import io.crate.cluster.gracefulstop.DecommissionAllocationDecider;
 import io.crate.cluster.gracefulstop.DecommissioningService;
 import io.crate.execution.TransportExecutorModule;
+import io.crate.execution.engine.collect.LuceneShardCollectorProvider;
+import io.crate.execution.engine.collect.sources.FileCollectSource;
+import io.crate.execution.engine.distribution.BucketFormat;
 import io.crate.ingestion.IngestionModules;
 import io.crate.ingestion.IngestionService;
+import io.crate.execution.jobs.AdmissionController;
 import io.crate.execution.jobs.JobContextService;
 import io.crate.execution.jobs.JobModule;
+import io.crate.execution.jobs.NodeJobsCounter;
 import io.crate.execution.jobs.transport.NodeDisconnectJobMonitorService;
 import io.crate.lucene.ArrayMapperService;
 import io.crate.metadata.MetaDataModule;
@@ -125,6 +133,9 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         if (SearchModule.INDICES_MAX_CLAUSE_COUNT_SETTING.exists(settings) == false) {
             settingsBuilder.put(SearchModule.INDICES_MAX_CLAUSE_COUNT_SETTING.getKey(), 8192);
         }
+
+        // Advertise the bucket format this node can read so that other nodes only send formats it understands
+        settingsBuilder.put("node.attr." + BucketFormat.NODE_ATTRIBUTE, BucketFormat.CURRENT_VERSION);
         return settingsBuilder.build();
     }
 
@@ -133,6 +144,18 @@ public class SQLPlugin extends Plugin implements ActionPlugin, MapperPlugin, Clu
         List<Setting<?>> settings = new ArrayList<>();
         settings.add(AnalyzerSettings.CUSTOM_ANALYSIS_SETTING_GROUP);
         settings.add(SQLOperations.NODE_READ_ONLY_SETTING);
+        settings.add(LuceneShardCollectorProvider.PARALLEL_AGGREGATION_MAX_SLICES_SETTING);
+        settings.add(FileCollectSource.COPY_FROM_MAX_SPLIT_READERS_SETTING);
+        settings.add(BucketFormat.COLUMNAR_SETTING);
+        settings.add(BucketFormat.COMPRESSION_SETTING);
+        settings.add(PlanCache.PLAN_CACHE_SIZE_SETTING);
+        settings.add(ResultCache.RESULT_CACHE_SIZE_SETTING);
+        settings.add(Cursors.IDLE_TIMEOUT_SETTING);
+        settings.add(Cursors.MAX_PER_SESSION_SETTING);
+        settings.add(NodeJobsCounter.ADAPTIVE_BULK_LIMITS_SETTING);
+        settings.add(NodeJobsCounter.ADAPTIVE_BULK_TARGET_LATENCY_SETTING);
+        settings.add(AdmissionController.RESOURCE_GROUPS_SETTING);
+        settings.add(AdmissionController.MAX_CONCURRENT_JOBS_SETTING);
 
         // Postgres settings are node settings
         settings.add(PostgresNetty.PSQL_ENABLED_SETTING.setting());
@@ -39,6 +39,7 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.metadata.RoutingProvider;
 import io.crate.metadata.TransactionContext;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.StatementType;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
 import io.crate.planner.PlannerContext;
@@ -146,14 +147,16 @@ class BatchPortal extends AbstractPortal {
             );
             Plan plan;
             String stmt = queries.get(i);
+            AnalyzedStatement analyzedStatement = analysis.get(i).analyzedStatement();
+            StatementType statementType = StatementType.of(analyzedStatement);
             try {
-                plan = planner.plan(analysis.get(i).analyzedStatement(), plannerContext);
+                plan = planner.plan(analyzedStatement, plannerContext);
             } catch (Throwable t) {
-                jobsLogs.logPreExecutionFailure(jobId, stmt, SQLExceptions.messageOf(t), sessionContext.user());
+                jobsLogs.logPreExecutionFailure(jobId, stmt, SQLExceptions.messageOf(t), sessionContext.user(), statementType);
                 throw t;
             }
             ResultReceiver resultReceiver = resultReceivers.get(i);
-            jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user());
+            jobsLogs.logExecutionStart(jobId, stmt, sessionContext.user(), statementType);
             JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
 
             resultReceiver.completionFuture()
@@ -35,6 +35,7 @@ import io.crate.exceptions.SQLExceptions;
 import io.crate.metadata.RoutingProvider;
 import io.crate.metadata.TransactionContext;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.StatementType;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
@@ -125,6 +126,7 @@ class BulkPortal extends AbstractPortal {
         Analysis analysis = portalContext.getAnalyzer().boundAnalyze(statement,
             transactionContext,
             new ParameterContext(Row.EMPTY, bulkParams));
+        StatementType statementType = StatementType.of(analysis.analyzedStatement());
         UUID jobId = UUID.randomUUID();
         RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
         PlannerContext plannerContext = new PlannerContext(
@@ -140,10 +142,10 @@ class BulkPortal extends AbstractPortal {
         try {
             plan = planner.plan(analysis.analyzedStatement(), plannerContext);
         } catch (Throwable t) {
-            jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user());
+            jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user(), statementType);
             throw t;
         }
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
+        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), statementType);
         synced = true;
         return executeBulk(portalContext.getExecutor(), plan, plannerContext, jobId, jobsLogs, bulkParams);
     }
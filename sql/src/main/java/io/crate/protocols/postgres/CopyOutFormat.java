@@ -0,0 +1,189 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.analyze.expressions.ExpressionToStringVisitor;
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.GenericProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Encodes rows for {@code COPY ... TO STDOUT}, either in the {@code text} format of PostgreSQL
+ * (tab separated, backslash escapes, {@code \N} as null) or as {@code csv}.
+ * Each row becomes one line, terminated by a newline.
+ */
+final class CopyOutFormat {
+
+    private final boolean csv;
+    private final char delimiter;
+    private final String nullString;
+    private final boolean header;
+
+    CopyOutFormat(boolean csv, char delimiter, String nullString, boolean header) {
+        this.csv = csv;
+        this.delimiter = delimiter;
+        this.nullString = nullString;
+        this.header = header;
+    }
+
+    /**
+     * Creates the format from the {@code format}, {@code delimiter}, {@code null_string} and {@code header}
+     * options of a {@code COPY ... TO STDOUT} statement.
+     */
+    static CopyOutFormat fromProperties(GenericProperties properties, Row parameters) {
+        String format = "text";
+        String delimiter = null;
+        String nullString = null;
+        boolean header = false;
+        for (Map.Entry<String, Expression> entry : properties.properties().entrySet()) {
+            String value = ExpressionToStringVisitor.convert(entry.getValue(), parameters);
+            switch (entry.getKey()) {
+                case "format":
+                    format = value.toLowerCase(Locale.ENGLISH);
+                    break;
+                case "delimiter":
+                    delimiter = value;
+                    break;
+                case "null_string":
+                    nullString = value;
+                    break;
+                case "header":
+                    header = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Setting '" + entry.getKey() + "' not supported for COPY TO STDOUT");
+            }
+        }
+        boolean csv;
+        if (format.equals("csv")) {
+            csv = true;
+        } else if (format.equals("text")) {
+            csv = false;
+        } else {
+            throw new IllegalArgumentException(
+                "Invalid COPY format '" + format + "', supported formats are: text, csv");
+        }
+        if (delimiter == null) {
+            delimiter = csv ? "," : "\t";
+        } else if (delimiter.length() != 1) {
+            throw new IllegalArgumentException("COPY delimiter must be a single character, got: '" + delimiter + "'");
+        }
+        if (nullString == null) {
+            nullString = csv ? "" : "\\N";
+        }
+        return new CopyOutFormat(csv, delimiter.charAt(0), nullString, header);
+    }
+
+    boolean header() {
+        return header;
+    }
+
+    byte[] encodeHeader(List<String> columnNames) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (i > 0) {
+                sb.append(delimiter);
+            }
+            appendValue(sb, columnNames.get(i));
+        }
+        sb.append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    byte[] encodeRow(Row row, PGType[] pgTypes) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < row.numColumns(); i++) {
+            if (i > 0) {
+                sb.append(delimiter);
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                sb.append(nullString);
+            } else {
+                appendValue(sb, pgTypes[i].encodeAsText(value));
+            }
+        }
+        sb.append('\n');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void appendValue(StringBuilder sb, String value) {
+        if (csv) {
+            appendCsvValue(sb, value);
+        } else {
+            appendTextValue(sb, value);
+        }
+    }
+
+    private void appendCsvValue(StringBuilder sb, String value) {
+        boolean quote = value.isEmpty() || value.equals(nullString);
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private void appendTextValue(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c == delimiter) {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+            }
+        }
+    }
+}
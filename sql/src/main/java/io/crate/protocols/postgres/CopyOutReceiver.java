@@ -0,0 +1,105 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.auth.user.ExceptionAuthorizedValidator;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the result of a {@code COPY (query) TO STDOUT} statement using the COPY sub-protocol:
+ * CopyOutResponse, a CopyData message per row, CopyDone and finally CommandComplete.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    private final String query;
+    private final Channel channel;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final DataRowEncoder encoder;
+
+    private long rowCount = 0;
+
+    CopyOutReceiver(String query,
+                    Channel channel,
+                    ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                    List<String> columnNames,
+                    List<? extends DataType> columnTypes,
+                    CopyOutFormat format) {
+        this.query = query;
+        this.channel = channel;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        PGType[] pgTypes = PGTypes.get(columnTypes);
+        this.encoder = new DataRowEncoder(
+            channel,
+            (buffer, row) -> Messages.writeCopyData(buffer, format.encodeRow(row, pgTypes)),
+            DataRowEncoder.FLUSH_THRESHOLD);
+
+        Messages.sendCopyOutResponse(channel, columnTypes.size());
+        if (format.header()) {
+            ByteBuf buffer = channel.alloc().buffer();
+            Messages.writeCopyData(buffer, format.encodeHeader(columnNames));
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        rowCount++;
+        encoder.encode(row);
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> readyForNextRow() {
+        return encoder.readyForNextRow();
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        encoder.writePending();
+        if (interrupted) {
+            super.allFinished(true);
+        } else {
+            Messages.sendCopyDone(channel);
+            Messages.sendCommandComplete(channel, query, rowCount).addListener(f -> super.allFinished(false));
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable throwable) {
+        encoder.writePending();
+        Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
+            .addListener(f -> super.fail(throwable));
+    }
+}
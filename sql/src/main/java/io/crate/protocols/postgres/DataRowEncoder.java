@@ -0,0 +1,149 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.crate.data.Row;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Encodes DataRow messages of a result set.
+ *
+ * <p>
+ * The PGTypes and format codes are resolved once and many rows are encoded into the same buffer.
+ * A different {@link RowWriter} can be used to encode other per-row messages the same way, e.g. CopyData.
+ * Once the buffer exceeds {@link #FLUSH_THRESHOLD} it is written and flushed to the channel.
+ * If the channel isn't writable afterwards, {@link #readyForNextRow()} returns a future which completes
+ * once the flushed data has been written to the socket, so that the producer can pause.
+ * </p>
+ */
+class DataRowEncoder {
+
+    static final int FLUSH_THRESHOLD = 32 * 1024;
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Writes the message(s) for a single row into the buffer.
+     */
+    @FunctionalInterface
+    interface RowWriter {
+        void write(ByteBuf buffer, Row row);
+    }
+
+    private final Channel channel;
+    private final RowWriter rowWriter;
+    private final int flushThreshold;
+
+    @Nullable
+    private ByteBuf buffer;
+
+    @Nullable
+    private CompletableFuture<Void> writable;
+
+    DataRowEncoder(Channel channel,
+                   List<? extends DataType> columnTypes,
+                   @Nullable FormatCodes.FormatCode[] formatCodes) {
+        this(channel, columnTypes, formatCodes, FLUSH_THRESHOLD);
+    }
+
+    @VisibleForTesting
+    DataRowEncoder(Channel channel,
+                   List<? extends DataType> columnTypes,
+                   @Nullable FormatCodes.FormatCode[] formatCodes,
+                   int flushThreshold) {
+        this(channel, dataRowWriter(columnTypes, formatCodes), flushThreshold);
+    }
+
+    DataRowEncoder(Channel channel, RowWriter rowWriter, int flushThreshold) {
+        this.channel = channel;
+        this.rowWriter = rowWriter;
+        this.flushThreshold = flushThreshold;
+    }
+
+    private static RowWriter dataRowWriter(List<? extends DataType> columnTypes,
+                                           @Nullable FormatCodes.FormatCode[] formatCodes) {
+        PGType[] pgTypes = PGTypes.get(columnTypes);
+        FormatCodes.FormatCode[] resolvedFormatCodes = FormatCodes.resolve(formatCodes, columnTypes.size());
+        return (buffer, row) -> {
+            assert pgTypes.length == row.numColumns()
+                : "Number of columns in the row must match number of columnTypes. Row: " + row;
+            Messages.writeDataRow(buffer, row, pgTypes, resolvedFormatCodes);
+        };
+    }
+
+    void encode(Row row) {
+        if (buffer == null) {
+            buffer = channel.alloc().buffer(Math.min(INITIAL_CAPACITY, flushThreshold));
+        }
+        rowWriter.write(buffer, row);
+        if (buffer.readableBytes() >= flushThreshold) {
+            ChannelFuture future = channel.writeAndFlush(buffer);
+            buffer = null;
+            if (!channel.isWritable()) {
+                CompletableFuture<Void> writable = new CompletableFuture<>();
+                future.addListener(f -> {
+                    if (f.isSuccess()) {
+                        writable.complete(null);
+                    } else {
+                        writable.completeExceptionally(f.cause());
+                    }
+                });
+                this.writable = writable;
+            }
+        }
+    }
+
+    /**
+     * @return null if more rows can be encoded right away,
+     *         otherwise a future which completes once the channel accepts more data.
+     */
+    @Nullable
+    CompletableFuture<Void> readyForNextRow() {
+        CompletableFuture<Void> writable = this.writable;
+        if (writable == null || writable.isDone() && !writable.isCompletedExceptionally()) {
+            this.writable = null;
+            return null;
+        }
+        return writable;
+    }
+
+    /**
+     * Writes the rows which are still buffered to the channel, without flushing it.
+     * Must be called before any other message is sent.
+     */
+    void writePending() {
+        if (buffer != null) {
+            channel.write(buffer);
+            buffer = null;
+        }
+    }
+}
@@ -73,4 +73,15 @@ public class FormatCodes {
         }
         return formatCodes.length == 1 ? formatCodes[0] : formatCodes[idx];
     }
+
+    /**
+     * Resolves the format code of each column, so that it doesn't have to be looked up for every row.
+     */
+    static FormatCode[] resolve(@Nullable FormatCode[] formatCodes, int numColumns) {
+        FormatCode[] resolved = new FormatCode[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            resolved[i] = getFormatCode(formatCodes, i);
+        }
+        return resolved;
+    }
 }
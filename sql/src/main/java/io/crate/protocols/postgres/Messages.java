@@ -94,6 +94,8 @@ public class Messages {
          */
         if ("BEGIN".equals(query)) {
             commandTag = "BEGIN";
+        } else if ("DECLARE".equals(query) || "CLOSE".equals(query)) {
+            commandTag = query + " CURSOR";
         } else if ("INSERT".equals(query)) {
             commandTag = "INSERT 0 " + rowCount;
         } else {
@@ -287,30 +289,41 @@ public class Messages {
      * The value of the column, in the format indicated by the associated format code. n is the above length.
      */
     static void sendDataRow(Channel channel, Row row, List<? extends DataType> columnTypes, @Nullable FormatCodes.FormatCode[] formatCodes) {
-        int length = 4 + 2;
         assert columnTypes.size() == row.numColumns()
             : "Number of columns in the row must match number of columnTypes. Row: " + row + " types: " + columnTypes;
 
         ByteBuf buffer = channel.alloc().buffer();
+        writeDataRow(buffer, row, PGTypes.get(columnTypes), FormatCodes.resolve(formatCodes, columnTypes.size()));
+        channel.write(buffer);
+    }
+
+    /**
+     * Writes a DataRow message into the buffer.
+     *
+     * @param pgTypes the PGType for each column
+     * @param formatCodes the resolved format code for each column, see {@link FormatCodes#resolve(FormatCodes.FormatCode[], int)}
+     */
+    static void writeDataRow(ByteBuf buffer, Row row, PGType[] pgTypes, FormatCodes.FormatCode[] formatCodes) {
+        int numColumns = row.numColumns();
+        int length = 4 + 2;
+        int startIdx = buffer.writerIndex();
         buffer.writeByte('D');
         buffer.writeInt(0); // will be set at the end
-        buffer.writeShort(row.numColumns());
+        buffer.writeShort(numColumns);
 
-        for (int i = 0; i < row.numColumns(); i++) {
-            DataType dataType = columnTypes.get(i);
-            PGType pgType = PGTypes.get(dataType);
+        for (int i = 0; i < numColumns; i++) {
             Object value = row.get(i);
             if (value == null) {
                 buffer.writeInt(-1);
                 length += 4;
             } else {
-                FormatCodes.FormatCode formatCode = FormatCodes.getFormatCode(formatCodes, i);
+                FormatCodes.FormatCode formatCode = formatCodes[i];
                 switch (formatCode) {
                     case TEXT:
-                        length += pgType.writeAsText(buffer, value);
+                        length += pgTypes[i].writeAsText(buffer, value);
                         break;
                     case BINARY:
-                        length += pgType.writeAsBinary(buffer, value);
+                        length += pgTypes[i].writeAsBinary(buffer, value);
                         break;
 
                     default:
@@ -319,8 +332,7 @@ public class Messages {
             }
         }
 
-        buffer.setInt(1, length);
-        channel.write(buffer);
+        buffer.setInt(startIdx + 1, length);
     }
 
     static void writeCString(ByteBuf buffer, byte[] valBytes) {
@@ -471,6 +483,60 @@ public class Messages {
         sendShortMsg(channel, '3', "sentCloseComplete");
     }
 
+    /**
+     * CopyInResponse (B)
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 format (per column)
+     *
+     * Tells the client to start sending CopyData messages. Only the text format (0) is used.
+     */
+    static void sendCopyInResponse(Channel channel, int numColumns) {
+        sendCopyResponse(channel, 'G', numColumns, "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse (B)
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16 format (per column)
+     *
+     * Announces the CopyData messages which follow. Only the text format (0) is used.
+     */
+    static void sendCopyOutResponse(Channel channel, int numColumns) {
+        sendCopyResponse(channel, 'H', numColumns, "sentCopyOutResponse");
+    }
+
+    private static void sendCopyResponse(Channel channel, char msgType, int numColumns, String traceLogMsg) {
+        int length = 4 + 1 + 2 + 2 * numColumns;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte(msgType);
+        buffer.writeInt(length);
+        buffer.writeByte(0);
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(0);
+        }
+        ChannelFuture channelFuture = channel.writeAndFlush(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener((ChannelFutureListener) future -> LOGGER.trace(traceLogMsg));
+        }
+    }
+
+    /**
+     * Writes a CopyData message into the buffer.
+     * | 'd' | int32 len | byteN data
+     */
+    static void writeCopyData(ByteBuf buffer, byte[] data) {
+        buffer.writeByte('d');
+        buffer.writeInt(4 + data.length);
+        buffer.writeBytes(data);
+    }
+
+    /**
+     * CopyDone (F &amp; B)
+     * | 'c' | int32 len |
+     */
+    static void sendCopyDone(Channel channel) {
+        sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     /**
      * AuthenticationCleartextPassword (B)
      *
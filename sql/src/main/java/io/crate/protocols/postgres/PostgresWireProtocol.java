@@ -27,8 +27,12 @@ import io.crate.Version;
 import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.SQLOperations;
 import io.crate.action.sql.Session;
+import io.crate.analyze.expressions.ExpressionToStringVisitor;
 import io.crate.analyze.symbol.Field;
 import io.crate.collections.Lists2;
+import io.crate.data.Row;
+import io.crate.execution.engine.collect.files.CopyInSource;
+import io.crate.execution.engine.collect.files.DelimitedLineParser;
 import io.crate.auth.Authentication;
 import io.crate.auth.AuthenticationMethod;
 import io.crate.auth.Protocol;
@@ -36,6 +40,10 @@ import io.crate.auth.user.User;
 import io.crate.protocols.http.CrateNettyHttpServerTransport;
 import io.crate.protocols.postgres.types.PGType;
 import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyToStdout;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.Statement;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -179,6 +187,11 @@ class PostgresWireProtocol {
     private static final Logger LOGGER = Loggers.getLogger(PostgresWireProtocol.class);
     private static final String PASSWORD_AUTH_NAME = "password";
 
+    /**
+     * Amount of COPY FROM STDIN data which may be buffered before reading from the client is paused
+     */
+    private static final long COPY_IN_MAX_BUFFERED_BYTES = 8 * 1024 * 1024;
+
     final MessageDecoder decoder;
     final MessageHandler handler;
     private final SQLOperations sqlOperations;
@@ -192,6 +205,9 @@ class PostgresWireProtocol {
     private AuthenticationContext authContext;
     private Properties properties;
 
+    @Nullable
+    private CopyInSource copyInSource;
+
     enum State {
         PRE_STARTUP,
         STARTUP_HEADER,
@@ -316,6 +332,10 @@ class PostgresWireProtocol {
         }
 
         private void dispatchMessage(ByteBuf buffer, Channel channel) {
+            if (copyInSource != null && (msgType == 'H' || msgType == 'S')) {
+                // like PostgreSQL, ignore Flush and Sync while receiving COPY FROM STDIN data
+                return;
+            }
             switch (msgType) {
                 case 'Q': // Query (simple)
                     handleSimpleQuery(buffer, channel);
@@ -344,6 +364,15 @@ class PostgresWireProtocol {
                 case 'C':
                     handleClose(buffer, channel);
                     return;
+                case 'd':
+                    handleCopyData(buffer);
+                    return;
+                case 'c':
+                    handleCopyDone();
+                    return;
+                case 'f':
+                    handleCopyFail(buffer);
+                    return;
                 case 'X': // Terminate (called when jdbc connection is closed)
                     closeSession();
                     channel.close();
@@ -355,6 +384,10 @@ class PostgresWireProtocol {
         }
 
         private void closeSession() {
+            if (copyInSource != null) {
+                copyInSource.fail(new IllegalStateException("Client disconnected during COPY FROM STDIN"));
+                copyInSource = null;
+            }
             if (session != null) {
                 session.close();
                 session = null;
@@ -636,6 +669,55 @@ class PostgresWireProtocol {
         Messages.sendCloseComplete(channel);
     }
 
+    /**
+     * CopyData (F)
+     * | 'd' | int32 len | byteN data
+     *
+     * Messages which arrive while no COPY FROM STDIN is in progress are ignored, like in PostgreSQL.
+     */
+    private void handleCopyData(ByteBuf buffer) {
+        if (copyInSource == null) {
+            return;
+        }
+        int length = buffer.readableBytes();
+        byte[] data = new byte[length];
+        buffer.readBytes(data);
+        copyInSource.write(data, 0, length);
+    }
+
+    /**
+     * CopyDone (F)
+     * | 'c' | int32 len |
+     */
+    private void handleCopyDone() {
+        if (copyInSource != null) {
+            copyInSource.finish();
+            copyInSource = null;
+        }
+    }
+
+    /**
+     * CopyFail (F)
+     * | 'f' | int32 len | string errorMessage
+     */
+    private void handleCopyFail(ByteBuf buffer) {
+        String message = readCString(buffer);
+        if (copyInSource != null) {
+            copyInSource.fail(new IllegalStateException("COPY FROM STDIN failed: " + message));
+            copyInSource = null;
+        }
+    }
+
+    private CopyInSource newCopyInSource(Channel channel, CopyFrom copyFrom) {
+        Expression format = copyFrom.genericProperties().properties().get("format");
+        boolean csv = format != null
+                      && DelimitedLineParser.FORMAT_CSV.equalsIgnoreCase(ExpressionToStringVisitor.convert(format, Row.EMPTY));
+        return new CopyInSource(
+            COPY_IN_MAX_BUFFERED_BYTES,
+            csv,
+            pause -> channel.eventLoop().execute(() -> channel.config().setAutoRead(!pause)));
+    }
+
     @VisibleForTesting
     void handleSimpleQuery(ByteBuf buffer, final Channel channel) {
         String query = readCString(buffer);
@@ -648,12 +730,29 @@ class PostgresWireProtocol {
         }
         try {
             session.parse("", query, Collections.<DataType>emptyList());
+            Statement statement = session.getStatement("");
             session.bind("", "", Collections.emptyList(), null);
             Session.DescribeResult describeResult = session.describe('P', "");
             List<Field> fields = describeResult.getFields();
             if (fields == null) {
+                if (statement instanceof CopyFrom && ((CopyFrom) statement).isStdin()) {
+                    copyInSource = newCopyInSource(channel, (CopyFrom) statement);
+                    session.sessionContext().copyInSource(copyInSource);
+                    Messages.sendCopyInResponse(channel, ((CopyFrom) statement).columns().size());
+                }
                 RowCountReceiver rowCountReceiver = new RowCountReceiver(query, channel, session.sessionContext());
                 session.execute("", 0, rowCountReceiver);
+            } else if (statement instanceof CopyToStdout) {
+                CopyOutFormat format = CopyOutFormat.fromProperties(((CopyToStdout) statement).genericProperties(), Row.EMPTY);
+                CopyOutReceiver copyOutReceiver = new CopyOutReceiver(
+                    query,
+                    channel,
+                    session.sessionContext(),
+                    Lists2.copyAndReplace(fields, Field::outputName),
+                    Lists2.copyAndReplace(fields, Field::valueType),
+                    format
+                );
+                session.execute("", 0, copyOutReceiver);
             } else {
                 Messages.sendRowDescription(channel, fields, null);
                 ResultSetReceiver resultSetReceiver = new ResultSetReceiver(
@@ -669,6 +768,11 @@ class PostgresWireProtocol {
             session.sync().whenComplete(readyForQueryCallback);
         } catch (Throwable t) {
             session.clearState();
+            if (copyInSource != null) {
+                copyInSource.fail(t);
+                copyInSource = null;
+                session.sessionContext().takeCopyInSource();
+            }
             Messages.sendErrorResponse(channel, t);
             Messages.sendReadyForQuery(channel);
         }
@@ -32,16 +32,14 @@ import io.netty.channel.Channel;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 class ResultSetReceiver extends BaseResultReceiver {
 
     private final String query;
     private final Channel channel;
     private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
-    private final List<? extends DataType> columnTypes;
-
-    @Nullable
-    private final FormatCodes.FormatCode[] formatCodes;
+    private final DataRowEncoder encoder;
 
     private long rowCount = 0;
 
@@ -53,24 +51,31 @@ class ResultSetReceiver extends BaseResultReceiver {
         this.query = query;
         this.channel = channel;
         this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
-        this.columnTypes = columnTypes;
-        this.formatCodes = formatCodes;
+        this.encoder = new DataRowEncoder(channel, columnTypes, formatCodes);
     }
 
     @Override
     public void setNextRow(Row row) {
         rowCount++;
-        Messages.sendDataRow(channel, row, columnTypes, formatCodes);
+        encoder.encode(row);
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> readyForNextRow() {
+        return encoder.readyForNextRow();
     }
 
     @Override
     public void batchFinished() {
+        encoder.writePending();
         Messages.sendPortalSuspended(channel);
         Messages.sendReadyForQuery(channel);
     }
 
     @Override
     public void allFinished(boolean interrupted) {
+        encoder.writePending();
         if (interrupted) {
             super.allFinished(true);
         } else {
@@ -80,6 +85,7 @@ class ResultSetReceiver extends BaseResultReceiver {
 
     @Override
     public void fail(@Nonnull Throwable throwable) {
+        encoder.writePending();
         Messages.sendErrorResponse(channel, SQLExceptions.createSQLActionException(throwable, exceptionAuthorizedValidator))
             .addListener(f -> super.fail(throwable));
     }
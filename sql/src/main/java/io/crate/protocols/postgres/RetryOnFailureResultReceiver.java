@@ -31,6 +31,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.transport.ConnectTransportException;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
@@ -55,6 +56,12 @@ class RetryOnFailureResultReceiver implements ResultReceiver {
         delegate.setNextRow(row);
     }
 
+    @Nullable
+    @Override
+    public CompletableFuture<?> readyForNextRow() {
+        return delegate.readyForNextRow();
+    }
+
     @Override
     public void batchFinished() {
         delegate.batchFinished();
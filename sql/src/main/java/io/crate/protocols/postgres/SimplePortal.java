@@ -22,22 +22,29 @@
 
 package io.crate.protocols.postgres;
 
+import io.crate.action.sql.PlanCache;
+import io.crate.action.sql.ResultCache;
 import io.crate.action.sql.ResultReceiver;
 import io.crate.action.sql.RowConsumerToResultReceiver;
 import io.crate.action.sql.SessionContext;
 import io.crate.analyze.Analysis;
 import io.crate.analyze.Analyzer;
+import io.crate.analyze.ParamTypeHints;
 import io.crate.analyze.ParameterContext;
 import io.crate.analyze.relations.AnalyzedRelation;
 import io.crate.analyze.symbol.Field;
 import io.crate.collections.Lists2;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.exceptions.JobKilledException;
 import io.crate.exceptions.ReadOnlyException;
 import io.crate.exceptions.SQLExceptions;
 import io.crate.metadata.RoutingProvider;
 import io.crate.metadata.TransactionContext;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.engine.collect.stats.StatementType;
+import io.crate.execution.jobs.AdmissionController;
+import io.crate.execution.jobs.ResourceGroup;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.Plan;
 import io.crate.planner.Planner;
@@ -58,11 +65,17 @@ public class SimplePortal extends AbstractPortal {
 
     private static final Logger LOGGER = Loggers.getLogger(SimplePortal.class);
 
+    private final PlanCache planCache;
+    private final ResultCache resultCache;
+    private final AdmissionController admissionController;
     private List<Object> params;
     private String query;
     private Statement statement;
     private Analysis analysis;
     @Nullable
+    private PlanCache.CachedPlan cachedPlan;
+    private long analysisMetaDataVersion;
+    @Nullable
     private FormatCodes.FormatCode[] resultFormatCodes;
     private List<? extends DataType> outputTypes;
     private ResultReceiver resultReceiver;
@@ -71,13 +84,23 @@ public class SimplePortal extends AbstractPortal {
     private int defaultLimit;
     private Row rowParams;
     private TransactionContext transactionContext;
+    @Nullable
+    private volatile ResourceGroup admittedGroup;
+    @Nullable
+    private volatile UUID queuedJobId;
 
     public SimplePortal(String name,
                         Analyzer analyzer,
+                        PlanCache planCache,
+                        ResultCache resultCache,
+                        AdmissionController admissionController,
                         DependencyCarrier executor,
                         boolean isReadOnly,
                         SessionContext sessionContext) {
         super(name, analyzer, executor, isReadOnly, sessionContext);
+        this.planCache = planCache;
+        this.resultCache = resultCache;
+        this.admissionController = admissionController;
         this.defaultLimit = sessionContext.defaultLimit();
     }
 
@@ -136,10 +159,16 @@ public class SimplePortal extends AbstractPortal {
             transactionContext = new TransactionContext(sessionContext);
         }
         if (analysis == null) {
-            analysis = portalContext.getAnalyzer().boundAnalyze(
-                statement,
-                transactionContext,
-                new ParameterContext(this.rowParams, Collections.emptyList()));
+            ParameterContext parameterContext = new ParameterContext(this.rowParams, Collections.emptyList());
+            cachedPlan = planCache.getPlan(statement, sessionContext, params);
+            if (cachedPlan == null) {
+                analysisMetaDataVersion = planCache.metaDataVersion();
+                analysis = portalContext.getAnalyzer().boundAnalyze(statement, transactionContext, parameterContext);
+            } else {
+                sessionContext.ensureStatementAuthorized(cachedPlan.analyzedStatement());
+                analysis = new Analysis(transactionContext, parameterContext, ParamTypeHints.EMPTY);
+                analysis.analyzedStatement(cachedPlan.analyzedStatement());
+            }
             AnalyzedRelation rootRelation = analysis.rootRelation();
             if (rootRelation != null) {
                 this.outputTypes = Lists2.copyAndReplace(rootRelation.fields(), Field::valueType);
@@ -163,7 +192,14 @@ public class SimplePortal extends AbstractPortal {
     @Override
     public CompletableFuture<?> sync(Planner planner, JobsLogs jobsLogs) {
         UUID jobId = UUID.randomUUID();
-        RoutingProvider routingProvider = new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes());
+        ResultCache.Key cacheKey = maxRows == 0
+            ? resultCache.key(statement, analysis.analyzedStatement(), params, sessionContext, outputTypes)
+            : null;
+        // cached results are validated against the generations of the primary shards, so they must be read from them.
+        // Replicas may not have been refreshed yet and their older state would be cached as the current one.
+        RoutingProvider routingProvider = cacheKey == null
+            ? new RoutingProvider(Randomness.get().nextInt(), planner.getAwarenessAttributes())
+            : RoutingProvider.primariesOnly(Randomness.get().nextInt(), planner.getAwarenessAttributes());
         PlannerContext plannerContext = new PlannerContext(
             planner.currentClusterState(),
             routingProvider,
@@ -173,11 +209,18 @@ public class SimplePortal extends AbstractPortal {
             defaultLimit,
             maxRows
         );
+        StatementType statementType = StatementType.of(analysis.analyzedStatement());
         Plan plan;
         try {
-            plan = planner.plan(analysis.analyzedStatement(), plannerContext);
+            if (cachedPlan == null) {
+                plan = planner.plan(analysis.analyzedStatement(), plannerContext);
+                planCache.putPlan(
+                    statement, sessionContext, params, analysisMetaDataVersion, analysis.analyzedStatement(), plan);
+            } else {
+                plan = cachedPlan.plan();
+            }
         } catch (Throwable t) {
-            jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user());
+            jobsLogs.logPreExecutionFailure(jobId, query, SQLExceptions.messageOf(t), sessionContext.user(), statementType);
             throw t;
         }
 
@@ -186,24 +229,88 @@ public class SimplePortal extends AbstractPortal {
                 resultReceiver, jobId, newJobId -> retryQuery(planner, newJobId));
         }
 
-        jobsLogs.logExecutionStart(jobId, query, sessionContext.user());
+        jobsLogs.logExecutionStart(jobId, query, sessionContext.user(), statementType);
         JobsLogsUpdateListener jobsLogsUpdateListener = new JobsLogsUpdateListener(jobId, jobsLogs);
-        CompletableFuture completableFuture = resultReceiver.completionFuture().whenComplete(jobsLogsUpdateListener);
+        CompletableFuture completableFuture = resultReceiver.completionFuture()
+            .whenComplete(jobsLogsUpdateListener)
+            .whenComplete((r, f) -> releaseAdmission());
 
         if (!resumeIfSuspended()) {
-            consumer = new RowConsumerToResultReceiver(resultReceiver, maxRows);
-            plan.execute(
-                portalContext.getExecutor(),
-                plannerContext,
-                consumer,
-                rowParams,
-                Collections.emptyMap()
-            );
+            if (cacheKey == null) {
+                execute(plan, plannerContext, resultReceiver, jobsLogs);
+            } else {
+                ResultReceiver receiver = resultReceiver;
+                resultCache.lookup(cacheKey).whenComplete((lookup, failure) -> {
+                    try {
+                        if (failure != null) {
+                            LOGGER.debug("Couldn't lookup cached result, executing statement", failure);
+                            execute(plan, plannerContext, receiver, jobsLogs);
+                        } else if (lookup.isHit()) {
+                            consumer = new RowConsumerToResultReceiver(receiver, maxRows);
+                            consumer.accept(lookup.cachedResult(), null);
+                        } else {
+                            execute(plan, plannerContext, lookup.cacheResult(receiver), jobsLogs);
+                        }
+                    } catch (Throwable t) {
+                        receiver.fail(t);
+                    }
+                });
+            }
         }
         synced = true;
         return completableFuture;
     }
 
+    private void execute(Plan plan, PlannerContext plannerContext, ResultReceiver resultReceiver, JobsLogs jobsLogs) {
+        consumer = new RowConsumerToResultReceiver(resultReceiver, maxRows);
+        if (!AdmissionController.requiresAdmission(analysis.analyzedStatement(), plan)) {
+            executePlan(plan, plannerContext);
+            return;
+        }
+        ResourceGroup group = admissionController.resourceGroup(sessionContext);
+        CompletableFuture<Void> admission = admissionController.admit(group, plannerContext.jobId());
+        if (!admission.isDone()) {
+            queuedJobId = plannerContext.jobId();
+            jobsLogs.jobQueued(plannerContext.jobId(), group.name());
+        }
+        admission.whenComplete((r, f) -> {
+            queuedJobId = null;
+            if (f == null) {
+                admittedGroup = group;
+                jobsLogs.jobAdmitted(plannerContext.jobId(), group.name());
+                try {
+                    executePlan(plan, plannerContext);
+                } catch (Throwable t) {
+                    resultReceiver.fail(t);
+                }
+            } else {
+                resultReceiver.fail(SQLExceptions.unwrap(f));
+            }
+        });
+    }
+
+    private void executePlan(Plan plan, PlannerContext plannerContext) {
+        plan.execute(
+            portalContext.getExecutor(),
+            plannerContext,
+            consumer,
+            rowParams,
+            Collections.emptyMap()
+        );
+    }
+
+    /**
+     * Releases the slot of the resource group once the job has finished.
+     * A suspended job keeps the slot until its last result receiver completes.
+     */
+    private void releaseAdmission() {
+        ResourceGroup group = admittedGroup;
+        if (group != null) {
+            admittedGroup = null;
+            admissionController.release(group);
+        }
+    }
+
     private void retryQuery(Planner planner, UUID jobId) {
         Analysis analysis = portalContext
             .getAnalyzer()
@@ -230,6 +337,11 @@ public class SimplePortal extends AbstractPortal {
 
     @Override
     public void close() {
+        UUID jobId = queuedJobId;
+        if (jobId != null) {
+            // nobody is going to consume the result anymore, the job must not occupy the queue of its group
+            admissionController.cancel(jobId, new JobKilledException());
+        }
         if (consumer != null) {
             consumer.closeAndFinishIfSuspended();
         }
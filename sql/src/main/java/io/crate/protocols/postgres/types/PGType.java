@@ -87,6 +87,13 @@ public abstract class PGType {
         return INT32_BYTE_SIZE + bytes.length;
     }
 
+    /**
+     * Return the text representation of the value, as it is sent using the text format.
+     */
+    public String encodeAsText(@Nonnull Object value) {
+        return new String(encodeAsUTF8Text(value), StandardCharsets.UTF_8);
+    }
+
     public Object readTextValue(ByteBuf buffer, int valueLength) {
         byte[] bytes = new byte[valueLength];
         buffer.readBytes(bytes);
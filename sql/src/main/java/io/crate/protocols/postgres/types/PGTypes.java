@@ -32,6 +32,7 @@ import io.crate.types.DataTypes;
 import io.crate.types.SetType;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -120,4 +121,12 @@ public class PGTypes {
         }
         return pgType;
     }
+
+    public static PGType[] get(List<? extends DataType> types) {
+        PGType[] pgTypes = new PGType[types.size()];
+        for (int i = 0; i < pgTypes.length; i++) {
+            pgTypes[i] = get(types.get(i));
+        }
+        return pgTypes;
+    }
 }
@@ -44,6 +44,7 @@ import io.crate.auth.user.ExceptionAuthorizedValidator;
 import io.crate.auth.user.User;
 import io.crate.auth.user.UserManager;
 import io.crate.rest.CrateRestMainAction;
+import io.netty.channel.Channel;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.breaker.CircuitBreaker;
@@ -52,6 +53,7 @@ import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.http.netty4.Netty4HttpRequest;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.BytesRestResponse;
 import org.elasticsearch.rest.RestChannel;
@@ -59,6 +61,7 @@ import org.elasticsearch.rest.RestController;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -77,10 +80,15 @@ public class RestSQLAction extends BaseRestHandler {
     private static final String REQUEST_HEADER_USER = "User";
     private static final String REQUEST_HEADER_SCHEMA = "Default-Schema";
     private static final int DEFAULT_SOFT_LIMIT = 10_000;
+    private static final String PARAM_STREAM = "stream";
+    private static final String PARAM_FORMAT = "format";
+    private static final String FORMAT_JSON = "json";
+    private static final String FORMAT_NDJSON = "ndjson";
 
     private final SQLOperations sqlOperations;
     private final UserManager userManager;
     private final CircuitBreaker circuitBreaker;
+    private final CircuitBreaker inFlightRequestsBreaker;
 
     @SuppressWarnings("WeakerAccess")
     @Inject
@@ -93,6 +101,7 @@ public class RestSQLAction extends BaseRestHandler {
         this.sqlOperations = sqlOperations;
         this.userManager = userManagerProvider.get();
         this.circuitBreaker = breakerService.getBreaker(CrateCircuitBreakerService.QUERY);
+        this.inFlightRequestsBreaker = breakerService.getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS);
 
         controller.registerHandler(RestRequest.Method.POST, "/_sql", this);
     }
@@ -138,7 +147,25 @@ public class RestSQLAction extends BaseRestHandler {
 
     @Override
     protected Set<String> responseParams() {
-        return ImmutableSet.of("types");
+        return ImmutableSet.of("types", PARAM_STREAM, PARAM_FORMAT);
+    }
+
+    /**
+     * @return the network channel to write a chunked response to if the request asks for streaming,
+     *         otherwise null.
+     */
+    @Nullable
+    private static Channel streamingChannel(RestRequest request) {
+        String format = request.param(PARAM_FORMAT, FORMAT_JSON);
+        if (!FORMAT_JSON.equals(format) && !FORMAT_NDJSON.equals(format)) {
+            throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                "Invalid format '%s', supported formats are: %s, %s", format, FORMAT_JSON, FORMAT_NDJSON));
+        }
+        boolean stream = request.paramAsBoolean(PARAM_STREAM, false) || FORMAT_NDJSON.equals(format);
+        if (stream && request instanceof Netty4HttpRequest) {
+            return ((Netty4HttpRequest) request).getChannel();
+        }
+        return null;
     }
 
     private static Set<Option> toOptions(RestRequest request) {
@@ -186,25 +213,41 @@ public class RestSQLAction extends BaseRestHandler {
                             channel, session.sessionContext(), startTime,
                             request.paramAsBoolean("types", false));
                         session.execute(UNNAMED, 0, resultReceiver);
-                        session.sync();
+                        closeOnCompletion(session);
                     } catch (Throwable t) {
                         errorResponse(channel, t, session.sessionContext());
                     }
                 };
             }
+            Channel nettyChannel = streamingChannel(request);
             return channel -> {
                 try {
-                    ResultReceiver resultReceiver = new RestResultSetReceiver(
-                        channel,
-                        session.sessionContext(),
-                        outputFields,
-                        startTime,
-                        new RowAccounting(
-                            Symbols.typeView(outputFields),
-                            new RamAccountingContext("http-result", circuitBreaker)),
-                        request.paramAsBoolean("types", false));
+                    ResultReceiver resultReceiver;
+                    if (nettyChannel == null) {
+                        resultReceiver = new RestResultSetReceiver(
+                            channel,
+                            session.sessionContext(),
+                            outputFields,
+                            startTime,
+                            new RowAccounting(
+                                Symbols.typeView(outputFields),
+                                new RamAccountingContext("http-result", circuitBreaker)),
+                            request.paramAsBoolean("types", false));
+                    } else {
+                        resultReceiver = new RestStreamingResultSetReceiver(
+                            channel,
+                            nettyChannel,
+                            session.sessionContext(),
+                            outputFields,
+                            startTime,
+                            request.paramAsBoolean("types", false),
+                            FORMAT_NDJSON.equals(request.param(PARAM_FORMAT)),
+                            RestStreamingResultSetReceiver.DEFAULT_CHUNK_SIZE,
+                            inFlightRequestsBreaker,
+                            request.content().length());
+                    }
                     session.execute(UNNAMED, 0, resultReceiver);
-                    session.sync();
+                    closeOnCompletion(session);
                 } catch (Throwable t) {
                     errorResponse(channel, t, session.sessionContext());
                 }
@@ -214,6 +257,13 @@ public class RestSQLAction extends BaseRestHandler {
         }
     }
 
+    /**
+     * Each request uses its own session; cursors declared within it can't be used by any later request.
+     */
+    private static void closeOnCompletion(Session session) {
+        session.sync().whenComplete((result, failure) -> session.close());
+    }
+
     private RestChannelConsumer executeBulkRequest(SQLXContentSourceContext context, final RestRequest request) {
         Session session = sqlOperations.createSession(
             request.header(REQUEST_HEADER_SCHEMA),
@@ -0,0 +1,355 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import io.crate.action.sql.BaseResultReceiver;
+import io.crate.action.sql.SQLActionException;
+import io.crate.analyze.symbol.Field;
+import io.crate.auth.user.ExceptionAuthorizedValidator;
+import io.crate.data.Row;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.BytesRestResponse;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestStatus;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.crate.exceptions.Exceptions.userFriendlyMessage;
+import static io.crate.exceptions.SQLExceptions.createSQLActionException;
+
+/**
+ * Writes the result set of a {@code _sql} request as chunked HTTP response while the rows are produced,
+ * instead of building the whole response in memory.
+ *
+ * <p>
+ * The rows are serialized into a buffer which is sent as a HTTP chunk once it exceeds the chunk size.
+ * If the complete result fits into a single chunk a regular response is sent.
+ * Once the first chunk has been sent the status can no longer change, so a failure is reported
+ * as {@code error} at the end of the body. The connection is closed after a chunked response.
+ * </p>
+ *
+ * <p>
+ * A chunked response bypasses the {@link RestChannel}, which would otherwise release the bytes of the request
+ * reserved on the in-flight requests circuit breaker when the response is sent. They're released here
+ * once the last chunk has been written instead.
+ * </p>
+ *
+ * <p>
+ * Two formats are supported:
+ * <ul>
+ *     <li>{@code json}: The same JSON object as the regular response:
+ *          {@code {"cols": [..], "rows": [[..], ..], "rowcount": n, "duration": d}}</li>
+ *     <li>{@code ndjson}: Newline delimited JSON: a {@code {"cols": [..]}} line,
+ *          a JSON array per row and a final {@code {"rowcount": n, "duration": d}} line.</li>
+ * </ul>
+ * </p>
+ */
+class RestStreamingResultSetReceiver extends BaseResultReceiver {
+
+    static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    private static final Logger LOGGER = Loggers.getLogger(RestStreamingResultSetReceiver.class);
+
+    private final RestChannel restChannel;
+    private final Channel channel;
+    private final ExceptionAuthorizedValidator exceptionAuthorizedValidator;
+    private final int numColumns;
+    private final long startTime;
+    private final boolean ndjson;
+    private final int chunkSize;
+    private final ChunkOutputStream out;
+    private final CircuitBreaker inFlightRequestsBreaker;
+    private final long inFlightRequestBytes;
+    private final AtomicBoolean inFlightRequestReleased = new AtomicBoolean(false);
+
+    /**
+     * JSON generator for the whole body in the json format; null in the ndjson format where each line is
+     * a separate JSON document.
+     */
+    @Nullable
+    private final XContentBuilder bodyBuilder;
+
+    private boolean headerSent = false;
+    private long rowCount = 0;
+
+    @Nullable
+    private CompletableFuture<Void> writable;
+
+    RestStreamingResultSetReceiver(RestChannel restChannel,
+                                   Channel channel,
+                                   ExceptionAuthorizedValidator exceptionAuthorizedValidator,
+                                   List<Field> outputFields,
+                                   long startTime,
+                                   boolean includeTypesOnResponse,
+                                   boolean ndjson,
+                                   int chunkSize,
+                                   CircuitBreaker inFlightRequestsBreaker,
+                                   long inFlightRequestBytes) throws IOException {
+        this.restChannel = restChannel;
+        this.channel = channel;
+        this.exceptionAuthorizedValidator = exceptionAuthorizedValidator;
+        this.numColumns = outputFields.size();
+        this.startTime = startTime;
+        this.ndjson = ndjson;
+        this.chunkSize = chunkSize;
+        this.out = new ChunkOutputStream();
+        this.inFlightRequestsBreaker = inFlightRequestsBreaker;
+        this.inFlightRequestBytes = inFlightRequestBytes;
+
+        XContentBuilder builder = XContentFactory.jsonBuilder(out);
+        builder.startObject();
+        ResultToXContentBuilder.cols(builder, outputFields);
+        if (includeTypesOnResponse) {
+            ResultToXContentBuilder.colTypes(builder, outputFields);
+        }
+        if (ndjson) {
+            builder.endObject();
+            endLine(builder);
+            bodyBuilder = null;
+        } else {
+            builder.startArray(ResultToXContentBuilder.FIELDS.ROWS);
+            bodyBuilder = builder;
+        }
+    }
+
+    private void endLine(XContentBuilder builder) throws IOException {
+        builder.flush();
+        out.write('\n');
+    }
+
+    @Override
+    public void setNextRow(Row row) {
+        try {
+            XContentBuilder builder = bodyBuilder == null ? XContentFactory.jsonBuilder(out) : bodyBuilder;
+            ResultToXContentBuilder.addRow(builder, row, numColumns);
+            if (bodyBuilder == null) {
+                endLine(builder);
+            } else {
+                // the generator buffers internally; flush to get an accurate size of the pending chunk
+                builder.flush();
+            }
+            rowCount++;
+            if (out.size() >= chunkSize) {
+                sendChunk();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> readyForNextRow() {
+        CompletableFuture<Void> writable = this.writable;
+        if (writable == null || writable.isDone() && !writable.isCompletedExceptionally()) {
+            this.writable = null;
+            return null;
+        }
+        return writable;
+    }
+
+    private void sendChunk() {
+        if (!headerSent) {
+            headerSent = true;
+            HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, contentType());
+            response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+            response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+            channel.write(response);
+        }
+        ChannelFuture future = channel.writeAndFlush(new DefaultHttpContent(out.take()));
+        if (!channel.isWritable()) {
+            CompletableFuture<Void> writable = new CompletableFuture<>();
+            future.addListener(f -> {
+                if (f.isSuccess()) {
+                    writable.complete(null);
+                } else {
+                    writable.completeExceptionally(f.cause());
+                }
+            });
+            this.writable = writable;
+        }
+    }
+
+    private String contentType() {
+        return ndjson ? NDJSON_CONTENT_TYPE : XContentType.JSON.mediaType();
+    }
+
+    @Override
+    public void allFinished(boolean interrupted) {
+        try {
+            XContentBuilder builder;
+            if (bodyBuilder == null) {
+                builder = XContentFactory.jsonBuilder(out).startObject();
+            } else {
+                builder = bodyBuilder.endArray();
+            }
+            builder.field(ResultToXContentBuilder.FIELDS.ROW_COUNT, rowCount);
+            builder.field(ResultToXContentBuilder.FIELDS.DURATION, (float) ((System.nanoTime() - startTime) / 1_000_000.0));
+            builder.endObject();
+            if (bodyBuilder == null) {
+                endLine(builder);
+            } else {
+                builder.flush();
+            }
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        try {
+            if (headerSent) {
+                sendLastChunk();
+            } else {
+                ByteBuf buffer = out.take();
+                byte[] bytes = new byte[buffer.readableBytes()];
+                buffer.readBytes(bytes);
+                buffer.release();
+                restChannel.sendResponse(new BytesRestResponse(RestStatus.OK, contentType(), new BytesArray(bytes)));
+            }
+            super.allFinished(interrupted);
+        } catch (Throwable e) {
+            LOGGER.error("Failed to send final response.", e);
+            super.fail(e);
+        }
+    }
+
+    private void sendLastChunk() {
+        channel.writeAndFlush(new DefaultLastHttpContent(out.take()))
+            .addListener(ChannelFutureListener.CLOSE)
+            .addListener(f -> releaseInFlightRequest());
+    }
+
+    private void releaseInFlightRequest() {
+        if (inFlightRequestReleased.compareAndSet(false, true)) {
+            inFlightRequestsBreaker.addWithoutBreaking(-inFlightRequestBytes);
+        }
+    }
+
+    @Override
+    public void fail(@Nonnull Throwable t) {
+        SQLActionException sqlActionException = createSQLActionException(t, exceptionAuthorizedValidator);
+        try {
+            if (headerSent) {
+                XContentBuilder builder;
+                if (bodyBuilder == null) {
+                    builder = XContentFactory.jsonBuilder(out).startObject();
+                } else {
+                    // discard the rows which haven't been sent yet, the result is incomplete anyway
+                    bodyBuilder.flush();
+                    out.discard();
+                    builder = bodyBuilder.endArray();
+                }
+                builder.startObject("error")
+                    .field("message", userFriendlyMessage(sqlActionException))
+                    .field("code", sqlActionException.errorCode())
+                    .endObject()
+                    .endObject();
+                if (bodyBuilder == null) {
+                    endLine(builder);
+                } else {
+                    builder.flush();
+                }
+                sendLastChunk();
+            } else {
+                out.discard();
+                restChannel.sendResponse(new CrateThrowableRestResponse(restChannel, sqlActionException));
+            }
+        } catch (Throwable e) {
+            LOGGER.error("Failed to send error response for failed request.", e, t);
+            channel.close();
+            if (headerSent) {
+                releaseInFlightRequest();
+            }
+        } finally {
+            super.fail(t);
+        }
+    }
+
+    /**
+     * OutputStream which writes into a pooled buffer that is taken once it is sent as a chunk.
+     */
+    private class ChunkOutputStream extends OutputStream {
+
+        @Nullable
+        private ByteBuf buffer;
+
+        private ByteBuf buffer() {
+            if (buffer == null) {
+                buffer = channel.alloc().buffer(chunkSize);
+            }
+            return buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer().writeByte(b);
+        }
+
+        @Override
+        public void write(@Nonnull byte[] b, int off, int len) {
+            buffer().writeBytes(b, off, len);
+        }
+
+        int size() {
+            return buffer == null ? 0 : buffer.readableBytes();
+        }
+
+        ByteBuf take() {
+            ByteBuf taken = buffer();
+            buffer = null;
+            return taken;
+        }
+
+        void discard() {
+            if (buffer != null) {
+                buffer.release();
+                buffer = null;
+            }
+        }
+    }
+}
@@ -57,24 +57,32 @@ class ResultToXContentBuilder {
     }
 
     ResultToXContentBuilder cols(List<Field> fields) throws IOException {
+        cols(builder, fields);
+        return this;
+    }
+
+    static void cols(XContentBuilder builder, List<Field> fields) throws IOException {
         builder.startArray(FIELDS.COLS);
         for (Field field : fields) {
             builder.value(field.path().outputName());
         }
         builder.endArray();
-        return this;
     }
 
     ResultToXContentBuilder colTypes(List<Field> fields) throws IOException {
+        colTypes(builder, fields);
+        return this;
+    }
+
+    static void colTypes(XContentBuilder builder, List<Field> fields) throws IOException {
         builder.startArray(FIELDS.COLUMN_TYPES);
         for (Field field : fields) {
             toXContentNestedDataType(builder, field.valueType());
         }
         builder.endArray();
-        return this;
     }
 
-    private void toXContentNestedDataType(XContentBuilder builder, DataType dataType) throws IOException {
+    private static void toXContentNestedDataType(XContentBuilder builder, DataType dataType) throws IOException {
         if (dataType instanceof CollectionType) {
             builder.startArray();
             builder.value(dataType.id());
@@ -113,12 +121,16 @@ class ResultToXContentBuilder {
      * @param numCols
      */
     ResultToXContentBuilder addRow(Row row, int numCols) throws IOException {
+        addRow(builder, row, numCols);
+        return this;
+    }
+
+    static void addRow(XContentBuilder builder, Row row, int numCols) throws IOException {
         builder.startArray();
         for (int j = 0; j < numCols; j++) {
             builder.value(row.get(j));
         }
         builder.endArray();
-        return this;
     }
 
     /**
@@ -0,0 +1,180 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.ListenableBatchIterator;
+import io.crate.data.Row;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.is;
+
+public class CursorTest extends CrateUnitTest {
+
+    private final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+    private Cursor newCursor(String name) {
+        return new Cursor(name, UUID.randomUUID(), Collections.emptyList());
+    }
+
+    private BatchIterator<Row> rows(int numRows) {
+        return new ListenableBatchIterator<>(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, numRows), 3, numRows / 3 + 1, null),
+            closed);
+    }
+
+    private static List<Object[]> fetch(Cursor cursor, int count) throws Exception {
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        cursor.fetch(count).whenComplete(consumer::accept);
+        return consumer.getResult();
+    }
+
+    @Test
+    public void testFetchContinuesAfterPreviouslyFetchedRows() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.accept(rows(10), null);
+
+        List<Object[]> rows = fetch(cursor, 4);
+        assertThat(rows.size(), is(4));
+        assertThat(rows.get(0)[0], is(0));
+
+        rows = fetch(cursor, 4);
+        assertThat(rows.size(), is(4));
+        assertThat(rows.get(0)[0], is(4));
+
+        rows = fetch(cursor, Integer.MAX_VALUE);
+        assertThat(rows.size(), is(2));
+        assertThat(rows.get(1)[0], is(9));
+
+        assertThat(fetch(cursor, 4).size(), is(0));
+        assertThat("fetching doesn't close the cursor", closed.isDone(), is(false));
+
+        cursor.close();
+        assertThat(closed.isDone(), is(true));
+    }
+
+    @Test
+    public void testFetchWaitsForTheJobToStart() throws Exception {
+        Cursor cursor = newCursor("c");
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        cursor.fetch(2).whenComplete(consumer::accept);
+
+        cursor.accept(rows(10), null);
+        assertThat(consumer.getResult().size(), is(2));
+    }
+
+    @Test
+    public void testFailureOfTheJobIsPassedToFetch() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.accept(null, new IllegalStateException("dummy"));
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("dummy");
+        fetch(cursor, 2);
+    }
+
+    @Test
+    public void testIteratorOfJobStartedAfterCloseIsClosed() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.close();
+        cursor.accept(rows(10), null);
+
+        assertThat(closed.isDone(), is(true));
+    }
+
+    @Test
+    public void testFetchFromClosedCursorFails() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.accept(rows(10), null);
+        cursor.close();
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("Cursor 'c' is closed");
+        cursor.fetch(2);
+    }
+
+    @Test
+    public void testOnlyOneFetchAtATime() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.fetch(2);
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("Cursor 'c' is already in use by another FETCH");
+        cursor.fetch(2);
+    }
+
+    @Test
+    public void testCloseIfIdle() throws Exception {
+        Cursor cursor = newCursor("c");
+        cursor.accept(rows(10), null);
+
+        long timeout = TimeUnit.HOURS.toNanos(1);
+        assertThat(cursor.closeIfIdle(timeout) > 0, is(true));
+        assertThat(closed.isDone(), is(false));
+
+        assertThat(cursor.closeIfIdle(0L), is(0L));
+        assertThat(closed.isDone(), is(true));
+    }
+
+    @Test
+    public void testCursorsAreClosedWithTheSession() throws Exception {
+        Cursors cursors = new Cursors();
+        Cursor cursor = newCursor("c");
+        cursor.accept(rows(10), null);
+        cursors.add(cursor, 10);
+
+        cursors.closeAll();
+        assertThat(cursors.size(), is(0));
+        assertThat(closed.isDone(), is(true));
+    }
+
+    @Test
+    public void testNumberOfCursorsPerSessionIsLimited() throws Exception {
+        Cursors cursors = new Cursors();
+        cursors.add(newCursor("c1"), 1);
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("the session already has the maximum number of 1 open cursors");
+        cursors.add(newCursor("c2"), 1);
+    }
+
+    @Test
+    public void testDeclareCursorWithExistingNameFails() throws Exception {
+        Cursors cursors = new Cursors();
+        cursors.add(newCursor("c"), 10);
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cursor 'c' already exists");
+        cursors.add(newCursor("c"), 10);
+    }
+}
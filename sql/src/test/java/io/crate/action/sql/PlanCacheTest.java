@@ -0,0 +1,187 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.planner.Plan;
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.Statement;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.MetaData;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class PlanCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+    }
+
+    @Test
+    public void testParsedStatementIsCached() {
+        PlanCache planCache = new PlanCache(10);
+        Statement statement = planCache.parse("select name from users where id = ?");
+
+        assertThat(planCache.parse("select name from users where id = ?"), sameInstance(statement));
+        PlanCache.Stats stats = planCache.stats().get(0);
+        assertThat(stats.cache(), is(PlanCache.STATEMENTS));
+        assertThat(stats.entries(), is(1L));
+        assertThat(stats.hits(), is(1L));
+        assertThat(stats.misses(), is(1L));
+    }
+
+    @Test
+    public void testLargeStatementIsNotCached() {
+        // 10 entries weigh 10240 chars; a single statement may use a tenth of it
+        PlanCache planCache = new PlanCache(10);
+        StringBuilder stmt = new StringBuilder("insert into users (id) values (0)");
+        for (int i = 1; stmt.length() <= 1024; i++) {
+            stmt.append(", (").append(i).append(")");
+        }
+        Statement statement = planCache.parse(stmt.toString());
+
+        assertThat(planCache.parse(stmt.toString()), not(sameInstance(statement)));
+        assertThat(planCache.stats().get(0).entries(), is(0L));
+    }
+
+    @Test
+    public void testParseErrorIsNotCached() {
+        PlanCache planCache = new PlanCache(10);
+        try {
+            planCache.parse("select from");
+            fail("Statement must not be parsed");
+        } catch (Exception ignored) {
+        }
+        assertThat(planCache.stats().get(0).entries(), is(0L));
+    }
+
+    @Test
+    public void testOnlyParameterIndependentStatementsAreCacheable() {
+        assertThat(isCacheable("update users set name = ? where id = ?"), is(true));
+        assertThat(isCacheable("delete from users where id = ?"), is(true));
+        assertThat(isCacheable("delete from users"), is(true));
+
+        assertThat(isCacheable("select name from users where id = ?"), is(false));
+        assertThat(isCacheable("insert into users (id, name) values (?, ?)"), is(false));
+        assertThat(isCacheable("update users set name = substr(?, 1) where id = ?"), is(false));
+        assertThat(isCacheable("update users set name = ? where id = current_schema"), is(false));
+        assertThat(isCacheable("delete from users where date = current_timestamp"), is(false));
+        assertThat(isCacheable("delete from users where id in (select id from users)"), is(false));
+    }
+
+    @Test
+    public void testPlanIsCachedPerDefaultSchema() {
+        PlanCache planCache = new PlanCache(10);
+        String stmt = "update users set name = ? where id = ?";
+        SessionContext docSession = SessionContext.create();
+        SessionContext otherSession = new SessionContext("other", null, s -> {}, t -> {});
+
+        List<Object> params = Arrays.asList("foo", 1L);
+
+        Statement statement = planCache.parse(stmt);
+        assertThat(planCache.getPlan(statement, docSession, params), nullValue());
+
+        AnalyzedStatement analyzedStatement = e.analyze(stmt);
+        Plan plan = e.plan(stmt);
+        planCache.putPlan(statement, docSession, params, planCache.metaDataVersion(), analyzedStatement, plan);
+
+        PlanCache.CachedPlan cachedPlan = planCache.getPlan(planCache.parse(stmt), docSession, params);
+        assertThat(cachedPlan, notNullValue());
+        assertThat(cachedPlan.analyzedStatement(), sameInstance(analyzedStatement));
+        assertThat(cachedPlan.plan(), sameInstance(plan));
+        assertThat(planCache.getPlan(statement, otherSession, params), nullValue());
+
+        List<PlanCache.Stats> stats = planCache.stats();
+        assertThat(stats.get(1).cache(), is(PlanCache.PLANS));
+        assertThat(stats.get(1).entries(), is(1L));
+        assertThat(stats.get(1).hits(), is(1L));
+        assertThat(stats.get(1).misses(), is(2L));
+    }
+
+    @Test
+    public void testPlanIsCachedPerParameterTypes() {
+        PlanCache planCache = new PlanCache(10);
+        String stmt = "update users set other_id = other_id + ? where id = ?";
+        SessionContext session = SessionContext.create();
+        Statement statement = planCache.parse(stmt);
+        planCache.putPlan(
+            statement, session, Arrays.asList(1, 1L), planCache.metaDataVersion(), e.analyze(stmt), e.plan(stmt));
+
+        assertThat(planCache.getPlan(statement, session, Arrays.asList(2, 3L)), notNullValue());
+        // re-executing with a double must not re-use the plan which casts the parameter to an integer
+        assertThat(planCache.getPlan(statement, session, Arrays.asList(1.5, 1L)), nullValue());
+        assertThat(planCache.getPlan(statement, session, Arrays.asList(null, 1L)), nullValue());
+    }
+
+    @Test
+    public void testPlanIsNotCachedIfMetaDataChangedDuringAnalysis() {
+        PlanCache planCache = new PlanCache(10);
+        String stmt = "delete from users where id = ?";
+        Statement statement = planCache.parse(stmt);
+        List<Object> params = Collections.singletonList(1L);
+        long metaDataVersion = planCache.metaDataVersion();
+        AnalyzedStatement analyzedStatement = e.analyze(stmt);
+
+        ClusterState prevState = clusterService.state();
+        ClusterState newState = ClusterState.builder(prevState)
+            .metaData(MetaData.builder(prevState.metaData()).version(prevState.metaData().version() + 1))
+            .build();
+        planCache.clusterChanged(new ClusterChangedEvent("test", newState, prevState));
+        planCache.putPlan(statement, SessionContext.create(), params, metaDataVersion, analyzedStatement, e.plan(stmt));
+
+        assertThat(planCache.getPlan(statement, SessionContext.create(), params), nullValue());
+        assertThat(planCache.metaDataVersion(), is(newState.metaData().version()));
+    }
+
+    @Test
+    public void testPlansAreNotCachedIfSizeIsZero() {
+        PlanCache planCache = new PlanCache(0);
+        String stmt = "delete from users where id = ?";
+        Statement statement = planCache.parse(stmt);
+        List<Object> params = Collections.singletonList(1L);
+        planCache.putPlan(
+            statement, SessionContext.create(), params, planCache.metaDataVersion(), e.analyze(stmt), e.plan(stmt));
+
+        assertThat(planCache.getPlan(statement, SessionContext.create(), params), nullValue());
+    }
+
+    private static boolean isCacheable(String stmt) {
+        return PlanCache.isCacheable(SqlParser.createStatement(stmt));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.action.sql;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.analyze.symbol.Field;
+import io.crate.collections.Lists2;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.TransportShardGenerationsAction;
+import io.crate.sql.parser.SqlParser;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.testing.TestingRowConsumer;
+import io.crate.types.DataType;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static io.crate.testing.TestingHelpers.printedTable;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResultCacheTest extends CrateDummyClusterServiceUnitTest {
+
+    private static final String STMT = "select name from t1 where id = ?";
+
+    private SQLExecutor e;
+    private ResultCache resultCache;
+    private long generation = 1L;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void prepare() throws Exception {
+        e = SQLExecutor.builder(clusterService)
+            .addTable("create table t1 (id int, name string) clustered into 2 shards")
+            .build();
+        TransportShardGenerationsAction shardGenerationsAction = mock(TransportShardGenerationsAction.class);
+        when(shardGenerationsAction.generations(any())).thenAnswer(invocation -> {
+            Map<String, List<ShardId>> shardIdsByNodeId = (Map<String, List<ShardId>>) invocation.getArguments()[0];
+            Map<ShardId, Long> generations = new HashMap<>();
+            for (List<ShardId> shardIds : shardIdsByNodeId.values()) {
+                for (ShardId shardId : shardIds) {
+                    generations.put(shardId, generation);
+                }
+            }
+            return CompletableFuture.completedFuture(generations);
+        });
+        resultCache = new ResultCache(1024 * 1024, clusterService, shardGenerationsAction);
+    }
+
+    private ResultCache.Key key(String stmt, Object... args) {
+        AnalyzedStatement analyzedStatement = e.analyze(stmt, args);
+        List<DataType> outputTypes = Collections.emptyList();
+        if (analyzedStatement instanceof AnalyzedRelation) {
+            outputTypes = Lists2.copyAndReplace(((AnalyzedRelation) analyzedStatement).fields(), Field::valueType);
+        }
+        return resultCache.key(
+            SqlParser.createStatement(stmt), analyzedStatement, Arrays.asList(args), e.sessionContext(), outputTypes);
+    }
+
+    private void cacheResult(ResultCache.Key key, Object[]... rows) throws Exception {
+        ResultCache.Lookup lookup = resultCache.lookup(key).get();
+        assertThat(lookup.isHit(), is(false));
+        ResultReceiver receiver = lookup.cacheResult(new BaseResultReceiver());
+        for (Object[] row : rows) {
+            receiver.setNextRow(new RowN(row));
+        }
+        receiver.allFinished(false);
+    }
+
+    @Test
+    public void testOnlyDeterministicSelectStatementsOnUserTablesAreCacheable() {
+        assertThat(key(STMT, 1), notNullValue());
+        assertThat(key("select count(*) from t1 where name = 'foo' group by id"), notNullValue());
+        assertThat(key("select name from t1 where id in (select id from t1 where name = 'foo')"), notNullValue());
+
+        assertThat(key("insert into t1 (id, name) values (?, ?)", 1, "foo"), nullValue());
+        assertThat(key("select name, random() from t1"), nullValue());
+        assertThat(key("select name, current_timestamp from t1"), nullValue());
+        assertThat(key("select name from sys.nodes"), nullValue());
+        assertThat(key("select name from t1 where name in (select name from sys.cluster)"), nullValue());
+    }
+
+    @Test
+    public void testCachedResultIsServedForSameStatementAndParameters() throws Exception {
+        cacheResult(key(STMT, 1), new Object[]{new BytesRef("Arthur")});
+
+        ResultCache.Lookup lookup = resultCache.lookup(key(STMT, 1)).get();
+        assertThat(lookup.isHit(), is(true));
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(lookup.cachedResult(), null);
+        assertThat(printedTable(consumer.getBucket()), is("Arthur\n"));
+
+        assertThat(resultCache.lookup(key(STMT, 2)).get().isHit(), is(false));
+
+        PlanCache.Stats stats = resultCache.stats();
+        assertThat(stats.cache(), is(ResultCache.RESULTS));
+        assertThat(stats.entries(), is(1L));
+        assertThat(stats.hits(), is(1L));
+        assertThat(stats.misses(), is(2L));
+    }
+
+    @Test
+    public void testChangedShardGenerationInvalidatesCachedResult() throws Exception {
+        cacheResult(key(STMT, 1), new Object[]{new BytesRef("Arthur")});
+        generation = 2L;
+
+        assertThat(resultCache.lookup(key(STMT, 1)).get().isHit(), is(false));
+
+        PlanCache.Stats stats = resultCache.stats();
+        assertThat(stats.entries(), is(0L));
+        assertThat(stats.hits(), is(0L));
+        assertThat(stats.misses(), is(2L));
+        assertThat(stats.invalidations(), is(1L));
+    }
+
+    @Test
+    public void testResultIsNotCachedIfStatementFails() throws Exception {
+        ResultCache.Lookup lookup = resultCache.lookup(key(STMT, 1)).get();
+        ResultReceiver receiver = lookup.cacheResult(new BaseResultReceiver());
+        receiver.setNextRow(new RowN(new Object[]{new BytesRef("Arthur")}));
+        receiver.fail(new IllegalStateException("dummy"));
+
+        assertThat(resultCache.stats().entries(), is(0L));
+    }
+
+    @Test
+    public void testResultExceedingMaxEntrySizeIsNotCached() throws Exception {
+        Object[][] rows = new Object[5000][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{new BytesRef("a name which is long enough to exceed the entry size limit " + i)};
+        }
+        cacheResult(key(STMT, 1), rows);
+
+        assertThat(resultCache.stats().entries(), is(0L));
+    }
+}
@@ -31,6 +31,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -78,4 +79,46 @@ public class RowConsumerToResultReceiverTest {
         consumer.accept(FailingBatchIterator.failOnAllLoaded(), null);
         assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
     }
+
+    @Test
+    public void testConsumptionPausesUntilReceiverIsReady() throws Exception {
+        final List<Object[]> collectedRows = new ArrayList<>();
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public void setNextRow(Row row) {
+                collectedRows.add(row.materialize());
+            }
+
+            @Override
+            public CompletableFuture<?> readyForNextRow() {
+                return collectedRows.size() == 3 && !ready.isDone() ? ready : null;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0);
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        assertThat(collectedRows.size(), is(3));
+        assertThat(resultReceiver.completionFuture().isDone(), is(false));
+
+        ready.complete(null);
+        resultReceiver.completionFuture().get(10, TimeUnit.SECONDS);
+        assertThat(collectedRows.size(), is(10));
+    }
+
+    @Test
+    public void testFailureWhileWaitingForReceiverIsForwarded() throws Exception {
+        final CompletableFuture<Void> ready = new CompletableFuture<>();
+        BaseResultReceiver resultReceiver = new BaseResultReceiver() {
+            @Override
+            public CompletableFuture<?> readyForNextRow() {
+                return ready;
+            }
+        };
+        RowConsumerToResultReceiver consumer = new RowConsumerToResultReceiver(resultReceiver, 0);
+
+        consumer.accept(TestingBatchIterators.range(0, 10), null);
+        ready.completeExceptionally(new IllegalStateException("channel closed"));
+        assertThat(resultReceiver.completionFuture().isCompletedExceptionally(), is(true));
+    }
 }
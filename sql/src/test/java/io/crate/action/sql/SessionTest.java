@@ -28,13 +28,18 @@ import io.crate.analyze.TableDefinitions;
 import io.crate.analyze.symbol.Literal;
 import io.crate.analyze.symbol.ParameterSymbol;
 import io.crate.analyze.symbol.Symbol;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.execution.engine.collect.TransportShardGenerationsAction;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.AdmissionController;
 import io.crate.planner.DependencyCarrier;
 import io.crate.sql.parser.SqlParser;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -107,6 +112,9 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         Session session = new Session(
             sqlExecutor.analyzer,
             sqlExecutor.planner,
+            new PlanCache(0),
+            new ResultCache(0, clusterService, Mockito.mock(TransportShardGenerationsAction.class)),
+            new AdmissionController(Settings.EMPTY, new NoopCircuitBreaker(CrateCircuitBreakerService.QUERY)),
             new JobsLogs(() -> false),
             false,
             executor,
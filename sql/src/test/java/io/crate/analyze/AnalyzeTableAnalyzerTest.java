@@ -0,0 +1,70 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.analyze;
+
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.metadata.TableIdent;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItems;
+
+public class AnalyzeTableAnalyzerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+    }
+
+    private static List<TableIdent> idents(AnalyzeTableAnalyzedStatement analysis) {
+        return analysis.tables().stream().map(DocTableInfo::ident).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testAnalyzeSingleTable() throws Exception {
+        AnalyzeTableAnalyzedStatement analysis = e.analyze("analyze users");
+        assertThat(idents(analysis), contains(new TableIdent("doc", "users")));
+    }
+
+    @Test
+    public void testAnalyzeWithoutTableAnalyzesAllUserTables() throws Exception {
+        AnalyzeTableAnalyzedStatement analysis = e.analyze("analyze");
+        assertThat(idents(analysis), hasItems(new TableIdent("doc", "users"), new TableIdent("doc", "parted")));
+    }
+
+    @Test
+    public void testAnalyzeSystemTableIsNotSupported() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("ANALYZE is only supported on user tables, not on sys.shards");
+        e.analyze("analyze sys.shards");
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.analyze;
+
+import io.crate.action.sql.Cursor;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static io.crate.testing.SymbolMatchers.isField;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class CursorAnalyzerTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+
+    @Before
+    public void prepare() {
+        e = SQLExecutor.builder(clusterService).enableDefaultTables().build();
+    }
+
+    private void declare(String name, String query) {
+        AnalyzedDeclareCursor declare = e.analyze("declare " + name + " cursor for " + query);
+        e.sessionContext().cursors().add(
+            new Cursor(declare.name(), UUID.randomUUID(), declare.query().fields()), 10);
+    }
+
+    @Test
+    public void testDeclareCursor() throws Exception {
+        AnalyzedDeclareCursor declare = e.analyze("declare c cursor for select id, name from users order by id");
+        assertThat(declare.name(), is("c"));
+        assertThat(declare.query().fields(), contains(isField("id"), isField("name")));
+        assertThat(declare.isWriteOperation(), is(false));
+    }
+
+    @Test
+    public void testFetchHasTheFieldsOfTheCursorQuery() throws Exception {
+        declare("c", "select id, name from users");
+        AnalyzedFetchFromCursor fetch = e.analyze("fetch 10 from c");
+        assertThat(fetch.count(), is(10));
+        assertThat(fetch.fields(), contains(isField("id"), isField("name")));
+    }
+
+    @Test
+    public void testFetchCountFromParameter() throws Exception {
+        declare("c", "select id from users");
+        AnalyzedFetchFromCursor fetch = e.analyze("fetch ? from c", new Object[]{20});
+        assertThat(fetch.count(), is(20));
+    }
+
+    @Test
+    public void testFetchAll() throws Exception {
+        declare("c", "select id from users");
+        AnalyzedFetchFromCursor fetch = e.analyze("fetch all from c");
+        assertThat(fetch.count(), is(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testFetchZeroRowsIsNotSupported() throws Exception {
+        declare("c", "select id from users");
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The number of rows to FETCH must be greater than 0");
+        e.analyze("fetch 0 from c");
+    }
+
+    @Test
+    public void testFetchFromUnknownCursor() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Cursor 'c' does not exist");
+        e.analyze("fetch 10 from c");
+    }
+
+    @Test
+    public void testCloseCursor() throws Exception {
+        declare("c", "select id from users");
+        AnalyzedCloseCursor close = e.analyze("close c");
+        assertThat(close.name(), is("c"));
+
+        close = e.analyze("close all");
+        assertThat(close.name(), nullValue());
+    }
+}
@@ -32,6 +32,7 @@ import org.junit.Test;
 
 import static io.crate.testing.SymbolMatchers.isField;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 
 public class ExplainAnalyzerTest extends CrateDummyClusterServiceUnitTest {
 
@@ -49,6 +50,20 @@ public class ExplainAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(stmt.statement(), instanceOf(QueriedRelation.class));
     }
 
+    @Test
+    public void testExplainAnalyze() throws Exception {
+        ExplainAnalyzedStatement stmt = e.analyze("explain analyze select id from sys.cluster");
+        assertThat(stmt.analyze(), is(true));
+        assertThat(stmt.statement(), instanceOf(QueriedRelation.class));
+    }
+
+    @Test
+    public void testExplainAnalyzeCopyFromUnsupported() throws Exception {
+        expectedException.expect(UnsupportedFeatureException.class);
+        expectedException.expectMessage("EXPLAIN ANALYZE is only supported for SELECT statements");
+        e.analyze("explain analyze copy users from '/tmp/*'");
+    }
+
     @Test
     public void testExplainArrayComparison() throws Exception {
         ExplainAnalyzedStatement stmt = e.analyze("explain SELECT id from sys.cluster where id = any([1,2,3])");
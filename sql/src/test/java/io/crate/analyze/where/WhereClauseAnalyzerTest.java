@@ -588,6 +588,25 @@ public class WhereClauseAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertFalse(whereClause.noMatch());
     }
 
+    @Test
+    public void testSelectFromPartitionedTableWithInAndSwappedOperands() throws Exception {
+        String partition1 = new PartitionName("parted", Arrays.asList(new BytesRef("1395874800000"))).asIndexName();
+        String partition2 = new PartitionName("parted", Arrays.asList(new BytesRef("1395961200000"))).asIndexName();
+
+        WhereClause whereClause = analyzeSelectWhere(
+            "select id, name from parted where date in (1395874800000, 1395961200000, 1)");
+        assertThat(whereClause.partitions(), containsInAnyOrder(partition1, partition2));
+        assertThat(whereClause.noMatch(), is(false));
+
+        whereClause = analyzeSelectWhere("select id, name from parted where 1395874800000 < date and id = 1");
+        assertThat(whereClause.partitions(), contains(partition2));
+        assertThat(whereClause.hasQuery(), is(true));
+
+        whereClause = analyzeSelectWhere("select id, name from parted where date in (1, 2)");
+        assertThat(whereClause.partitions(), empty());
+        assertThat(whereClause.noMatch(), is(true));
+    }
+
     @Test
     public void testSelectFromPartitionedTableUnsupported() throws Exception {
         // these queries won't work because we would have to execute 2 separate ESSearch tasks
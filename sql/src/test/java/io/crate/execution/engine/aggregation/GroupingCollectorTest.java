@@ -0,0 +1,166 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class GroupingCollectorTest extends CrateUnitTest {
+
+    private long originalBufferSize;
+    private RamAccountingContext ramAccountingContext;
+
+    @Before
+    public void setUpRamAccounting() throws Exception {
+        originalBufferSize = RamAccountingContext.FLUSH_BUFFER_SIZE;
+        RamAccountingContext.FLUSH_BUFFER_SIZE = 20;
+        ramAccountingContext = new RamAccountingContext(
+            "test",
+            new MemoryCircuitBreaker(
+                new ByteSizeValue(1000, ByteSizeUnit.BYTES), 1.0, Loggers.getLogger(GroupingCollectorTest.class))
+        );
+    }
+
+    @After
+    public void resetFlushBufferSize() throws Exception {
+        RamAccountingContext.FLUSH_BUFFER_SIZE = originalBufferSize;
+    }
+
+    private GroupingCollector<Object> groupBySumCollector(@Nullable Path spillDirectory) {
+        InputCollectExpression keyInput = new InputCollectExpression(0);
+        InputCollectExpression valueInput = new InputCollectExpression(1);
+        AggregationFunction sum = (AggregationFunction) getFunctions().getBuiltin(
+            SumAggregation.NAME, Collections.singletonList(DataTypes.INTEGER));
+        return GroupingCollector.singleKey(
+            new CollectExpression[]{keyInput, valueInput},
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[]{sum},
+            new Input[][]{new Input[]{valueInput}},
+            ramAccountingContext,
+            keyInput,
+            DataTypes.INTEGER,
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            spillDirectory
+        );
+    }
+
+    private static List<Row> rows(int numKeys, int rowsPerKey) {
+        List<Row> rows = new ArrayList<>(numKeys * rowsPerKey);
+        for (int i = 0; i < rowsPerKey; i++) {
+            for (int key = 0; key < numKeys; key++) {
+                rows.add(new RowN(new Object[]{key, 1}));
+            }
+        }
+        return rows;
+    }
+
+    private Map<Object, Object> collect(GroupingCollector<Object> collector, List<Row> rows) throws Exception {
+        Iterable<Row> result = BatchIterators.collect(
+            InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL), collector).get();
+        Map<Object, Object> sumByKey = new HashMap<>();
+        for (Row row : result) {
+            assertThat(sumByKey.put(row.get(0), row.get(1)), is((Object) null));
+        }
+        return sumByKey;
+    }
+
+    @Test
+    public void testGroupingWithoutSpillingTripsBreaker() throws Exception {
+        GroupingCollector<Object> collector = groupBySumCollector(null);
+
+        expectedException.expect(ExecutionException.class);
+        expectedException.expectCause(instanceOf(CircuitBreakingException.class));
+        collect(collector, rows(100, 3));
+    }
+
+    @Test
+    public void testGroupingWithSpillingReturnsCorrectResult() throws Exception {
+        Path spillDirectory = createTempDir();
+        GroupingCollector<Object> collector = groupBySumCollector(spillDirectory);
+
+        Map<Object, Object> sumByKey = collect(collector, rows(100, 3));
+
+        assertThat(sumByKey.size(), is(100));
+        for (int key = 0; key < 100; key++) {
+            assertThat(sumByKey.get(key), is(3L));
+        }
+        collector.removeSpilledGroups();
+        assertThat(ramAccountingContext.trippedBreaker(), is(false));
+    }
+
+    @Test
+    public void testGroupsOfMultipleCollectorsCanBeCombined() throws Exception {
+        List<BatchIterator<Row>> iterators = Arrays.asList(
+            InMemoryBatchIterator.of(rows(5, 1), SentinelRow.SENTINEL),
+            InMemoryBatchIterator.of(rows(10, 2), SentinelRow.SENTINEL)
+        );
+        List<GroupingCollector<Object>> collectors = Arrays.asList(groupBySumCollector(null), groupBySumCollector(null));
+
+        Iterable<Row> result = BatchIterators.collect(iterators, collectors, Runnable::run).get();
+        Map<Object, Object> sumByKey = new HashMap<>();
+        for (Row row : result) {
+            assertThat(sumByKey.put(row.get(0), row.get(1)), is((Object) null));
+        }
+        assertThat(sumByKey.size(), is(10));
+        for (int key = 0; key < 10; key++) {
+            assertThat(sumByKey.get(key), is(key < 5 ? 3L : 2L));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import io.crate.analyze.symbol.AggregateMode;
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.SentinelRow;
+import io.crate.execution.engine.aggregation.impl.AverageAggregation;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.InputCollectExpression;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.util.BigArrays;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collector;
+
+import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.is;
+
+public class PrimitiveGroupingCollectorTest extends CrateUnitTest {
+
+    private static final RamAccountingContext RAM_ACCOUNTING_CONTEXT =
+        new RamAccountingContext("test", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+
+    private static AggregationFunction[] aggregations() {
+        return new AggregationFunction[]{
+            aggregation(SumAggregation.NAME, DataTypes.INTEGER),
+            aggregation(CountAggregation.NAME),
+            aggregation(MinimumAggregation.NAME, DataTypes.LONG),
+            aggregation(MaximumAggregation.NAME, DataTypes.DOUBLE),
+            aggregation(AverageAggregation.NAME, DataTypes.INTEGER)
+        };
+    }
+
+    private static AggregationFunction aggregation(String name, DataType... argTypes) {
+        return (AggregationFunction) getFunctions().getBuiltin(name, Arrays.asList(argTypes));
+    }
+
+    /**
+     * rows with the columns: key1 (int), key2 (double), int value, long value, double value
+     */
+    private static List<Row> rows() {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Integer key1 = i % 11 == 0 ? null : i % 13;
+            Double key2 = i % 3 == 0 ? null : (i % 5) / 2.0;
+            Integer intValue = i % 7 == 0 ? null : i;
+            rows.add(new RowN(new Object[]{key1, key2, intValue, (long) -i, i * 0.5}));
+        }
+        return rows;
+    }
+
+    private static Input[][] aggregationInputs(CollectExpression<Row, ?>[] expressions, int firstValueColumn) {
+        Input intValue = expressions[firstValueColumn];
+        Input longValue = expressions[firstValueColumn + 1];
+        Input doubleValue = expressions[firstValueColumn + 2];
+        return new Input[][]{
+            new Input[]{intValue},
+            new Input[0],
+            new Input[]{longValue},
+            new Input[]{doubleValue},
+            new Input[]{intValue}
+        };
+    }
+
+    private static CollectExpression<Row, ?>[] expressions(int numColumns) {
+        CollectExpression<Row, ?>[] expressions = new CollectExpression[numColumns];
+        for (int i = 0; i < numColumns; i++) {
+            expressions[i] = new InputCollectExpression(i);
+        }
+        return expressions;
+    }
+
+    private static Map<List<Object>, List<Object>> collect(Collector<Row, ?, Iterable<Row>> collector,
+                                                           List<Row> rows,
+                                                           int numKeys) throws Exception {
+        Iterable<Row> result = BatchIterators.collect(
+            InMemoryBatchIterator.of(rows, SentinelRow.SENTINEL), collector).get();
+        Map<List<Object>, List<Object>> valuesByKeys = new HashMap<>();
+        for (Row row : result) {
+            Object[] cells = row.materialize();
+            List<Object> keys = Arrays.asList(cells).subList(0, numKeys);
+            List<Object> values = Arrays.asList(cells).subList(numKeys, cells.length);
+            assertThat(valuesByKeys.put(new ArrayList<>(keys), new ArrayList<>(values)), is((Object) null));
+        }
+        return valuesByKeys;
+    }
+
+    private static PrimitiveGroupingCollector primitiveCollector(AggregateMode mode,
+                                                                 CollectExpression<Row, ?>[] expressions,
+                                                                 Input[][] inputs,
+                                                                 List<? extends DataType> keyTypes) {
+        List<Input<?>> keyInputs = new ArrayList<>(Arrays.asList(expressions).subList(0, keyTypes.size()));
+        return new PrimitiveGroupingCollector(
+            expressions,
+            mode,
+            aggregations(),
+            inputs,
+            RAM_ACCOUNTING_CONTEXT,
+            keyInputs,
+            keyTypes,
+            BigArrays.NON_RECYCLING_INSTANCE
+        );
+    }
+
+    private static GroupingCollector<List<Object>> groupingCollector(AggregateMode mode,
+                                                                     CollectExpression<Row, ?>[] expressions,
+                                                                     Input[][] inputs,
+                                                                     List<? extends DataType> keyTypes) {
+        List<Input<?>> keyInputs = new ArrayList<>(Arrays.asList(expressions).subList(0, keyTypes.size()));
+        return GroupingCollector.manyKeys(
+            expressions,
+            mode,
+            aggregations(),
+            inputs,
+            RAM_ACCOUNTING_CONTEXT,
+            keyInputs,
+            keyTypes,
+            Version.CURRENT,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            null
+        );
+    }
+
+    private static void assertSameResultAsGroupingCollector(List<? extends DataType> keyTypes,
+                                                            List<Row> rows) throws Exception {
+        int numColumns = rows.get(0).numColumns();
+        int firstValueColumn = numColumns - 3;
+
+        CollectExpression<Row, ?>[] expressions = expressions(numColumns);
+        PrimitiveGroupingCollector collector = primitiveCollector(
+            AggregateMode.ITER_FINAL, expressions, aggregationInputs(expressions, firstValueColumn), keyTypes);
+        Map<List<Object>, List<Object>> result = collect(collector, rows, keyTypes.size());
+        collector.releaseGroups();
+
+        expressions = expressions(numColumns);
+        Map<List<Object>, List<Object>> expected = collect(
+            groupingCollector(AggregateMode.ITER_FINAL, expressions, aggregationInputs(expressions, firstValueColumn), keyTypes),
+            rows,
+            keyTypes.size()
+        );
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testSingleKeyHasSameResultAsGroupingCollector() throws Exception {
+        List<Row> rows = new ArrayList<>();
+        for (Row row : rows()) {
+            rows.add(new RowN(new Object[]{row.get(0), row.get(2), row.get(3), row.get(4)}));
+        }
+        assertSameResultAsGroupingCollector(Collections.singletonList(DataTypes.INTEGER), rows);
+    }
+
+    @Test
+    public void testCompositeKeysHaveSameResultAsGroupingCollector() throws Exception {
+        assertSameResultAsGroupingCollector(Arrays.asList(DataTypes.INTEGER, DataTypes.DOUBLE), rows());
+    }
+
+    @Test
+    public void testPartialResultsCanBeMergedIntoFinalResult() throws Exception {
+        List<DataType> keyTypes = Arrays.asList(DataTypes.INTEGER, DataTypes.DOUBLE);
+        List<Row> rows = rows();
+
+        // two "shards" which produce partial results
+        List<Row> partialRows = new ArrayList<>();
+        for (List<Row> shardRows : Arrays.asList(rows.subList(0, 200), rows.subList(200, rows.size()))) {
+            CollectExpression<Row, ?>[] expressions = expressions(5);
+            PrimitiveGroupingCollector partialCollector = primitiveCollector(
+                AggregateMode.ITER_PARTIAL, expressions, aggregationInputs(expressions, 2), keyTypes);
+            for (Row row : BatchIterators.collect(
+                InMemoryBatchIterator.of(shardRows, SentinelRow.SENTINEL), partialCollector).get()) {
+                partialRows.add(new RowN(row.materialize()));
+            }
+            partialCollector.releaseGroups();
+        }
+
+        CollectExpression<Row, ?>[] expressions = expressions(7);
+        Input[][] partialInputs = new Input[5][];
+        for (int i = 0; i < partialInputs.length; i++) {
+            partialInputs[i] = new Input[]{expressions[2 + i]};
+        }
+        PrimitiveGroupingCollector finalCollector =
+            primitiveCollector(AggregateMode.PARTIAL_FINAL, expressions, partialInputs, keyTypes);
+        Map<List<Object>, List<Object>> result = collect(finalCollector, partialRows, 2);
+        finalCollector.releaseGroups();
+
+        expressions = expressions(5);
+        Map<List<Object>, List<Object>> expected = collect(
+            groupingCollector(AggregateMode.ITER_FINAL, expressions, aggregationInputs(expressions, 2), keyTypes),
+            rows,
+            2
+        );
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testCombinedGroupsOfMultipleCollectorsHaveSameResultAsSingleCollector() throws Exception {
+        List<DataType> keyTypes = Arrays.asList(DataTypes.INTEGER, DataTypes.DOUBLE);
+        List<Row> rows = rows();
+
+        List<BatchIterator<Row>> iterators = new ArrayList<>();
+        List<PrimitiveGroupingCollector> collectors = new ArrayList<>();
+        for (List<Row> slice : Arrays.asList(rows.subList(0, 150), rows.subList(150, 320), rows.subList(320, 500))) {
+            CollectExpression<Row, ?>[] expressions = expressions(5);
+            iterators.add(InMemoryBatchIterator.of(slice, SentinelRow.SENTINEL));
+            collectors.add(primitiveCollector(
+                AggregateMode.ITER_FINAL, expressions, aggregationInputs(expressions, 2), keyTypes));
+        }
+        Iterable<Row> combined = BatchIterators.collect(iterators, collectors, Runnable::run).get();
+        Map<List<Object>, List<Object>> result = new HashMap<>();
+        for (Row row : combined) {
+            Object[] cells = row.materialize();
+            result.put(Arrays.asList(cells[0], cells[1]), Arrays.asList(cells).subList(2, cells.length));
+        }
+        collectors.forEach(PrimitiveGroupingCollector::releaseGroups);
+
+        CollectExpression<Row, ?>[] expressions = expressions(5);
+        Map<List<Object>, List<Object>> expected = collect(
+            groupingCollector(AggregateMode.ITER_FINAL, expressions, aggregationInputs(expressions, 2), keyTypes),
+            rows,
+            2
+        );
+        assertThat(result, is(expected));
+    }
+
+    @Test
+    public void testOnlyFixedWidthNumericKeysAndColumnarAggregationsAreSupported() throws Exception {
+        assertThat(PrimitiveGroupingCollector.supports(
+            Arrays.asList(DataTypes.LONG, DataTypes.TIMESTAMP, DataTypes.FLOAT), aggregations()), is(true));
+        assertThat(PrimitiveGroupingCollector.supports(
+            Collections.singletonList(DataTypes.STRING), aggregations()), is(false));
+        assertThat(PrimitiveGroupingCollector.supports(
+            Collections.singletonList(DataTypes.LONG),
+            new AggregationFunction[]{aggregation(MinimumAggregation.NAME, DataTypes.STRING)}), is(false));
+    }
+}
@@ -25,6 +25,7 @@ import io.crate.analyze.symbol.Literal;
 import io.crate.data.CollectionBucket;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Functions;
+import io.crate.execution.engine.collect.files.CopyInSources;
 import io.crate.execution.engine.collect.sources.CollectSourceResolver;
 import io.crate.execution.engine.collect.sources.FileCollectSource;
 import io.crate.execution.dsl.phases.FileUriCollectPhase;
@@ -32,6 +33,7 @@ import io.crate.execution.dsl.phases.RoutedCollectPhase;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Settings;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -63,7 +65,8 @@ public class MapSideDataCollectOperationTest extends CrateDummyClusterServiceUni
         Functions functions = getFunctions();
         CollectSourceResolver collectSourceResolver = mock(CollectSourceResolver.class);
         when(collectSourceResolver.getService(any(RoutedCollectPhase.class)))
-            .thenReturn(new FileCollectSource(functions, clusterService, Collections.emptyMap()));
+            .thenReturn(new FileCollectSource(Settings.EMPTY, functions, clusterService, THREAD_POOL, Collections.emptyMap(),
+                new CopyInSources()));
         MapSideDataCollectOperation collectOperation = new MapSideDataCollectOperation(
             collectSourceResolver,
             THREAD_POOL
@@ -0,0 +1,176 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.execution.engine.aggregation.AggregationProjector;
+import io.crate.execution.expression.reference.doc.lucene.CollectorContext;
+import io.crate.execution.expression.reference.doc.lucene.LongColumnReference;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingRowConsumer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class ParallelAggregationCollectorBuilderTest extends CrateUnitTest {
+
+    @Test
+    public void testSlicesAreBalancedBySize() throws Exception {
+        List<List<Integer>> slices = ParallelAggregationCollectorBuilder.slices(
+            Arrays.asList(5, 40, 10, 30, 15), i -> i, 2, 1);
+
+        assertThat(slices.size(), is(2));
+        assertThat(slices, containsInAnyOrder(Arrays.asList(40, 10), Arrays.asList(30, 15, 5)));
+    }
+
+    @Test
+    public void testNoSlicesSmallerThanMinSliceSize() throws Exception {
+        List<List<Integer>> slices = ParallelAggregationCollectorBuilder.slices(
+            Arrays.asList(10, 10, 10, 10), i -> i, 4, 25);
+
+        assertThat(slices.size(), is(1));
+        assertThat(slices.get(0), contains(10, 10, 10, 10));
+    }
+
+    @Test
+    public void testNumberOfSlicesIsLimitedByNumberOfItems() throws Exception {
+        List<List<Integer>> slices = ParallelAggregationCollectorBuilder.slices(
+            Arrays.asList(100, 100), i -> i, 8, 1);
+
+        assertThat(slices.size(), is(2));
+    }
+
+    @Test
+    public void testSegmentsAreAggregatedInParallelAndMerged() throws Exception {
+        // commit in between and never merge to get multiple segments
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (long i = 0; i < 100; i++) {
+            Document doc = new Document();
+            doc.add(new NumericDocValuesField("x", i));
+            iw.addDocument(doc);
+            if (i % 25 == 24) {
+                iw.commit();
+            }
+        }
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        List<List<LeafReaderContext>> slices = ParallelAggregationCollectorBuilder.slices(
+            indexSearcher.getTopReaderContext().leaves(), leaf -> leaf.reader().maxDoc(), 2, 1);
+        assertThat(slices.size(), is(2));
+
+        AtomicInteger releasedProjectors = new AtomicInteger(0);
+        List<BatchIterator<Row>> sources = new ArrayList<>();
+        List<AggregationProjector> projectors = new ArrayList<>();
+        for (List<LeafReaderContext> slice : slices) {
+            List<LongColumnReference> columnRefs = Collections.singletonList(new LongColumnReference("x"));
+            sources.add(new LuceneBatchIterator(
+                indexSearcher,
+                new MatchAllDocsQuery(),
+                null,
+                false,
+                new CollectorContext(mock(IndexFieldDataService.class), new CollectorFieldsVisitor(0)),
+                new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+                columnRefs,
+                columnRefs,
+                slice
+            ));
+            projectors.add(new SummingProjector(releasedProjectors));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            TestingRowConsumer consumer = new TestingRowConsumer();
+            new ParallelAggregationCollectorBuilder(sources, projectors, executor).build(consumer).doCollect();
+
+            List<Object[]> result = consumer.getResult();
+            assertThat(result.size(), is(1));
+            assertThat(result.get(0)[0], is(4950L));
+            // the iterator is closed after the result future has been completed
+            assertBusy(() -> assertThat(releasedProjectors.get(), is(2)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class SummingProjector implements AggregationProjector {
+
+        private final LongColumnReference input = new LongColumnReference("x");
+        private final AtomicInteger releasedProjectors;
+
+        SummingProjector(AtomicInteger releasedProjectors) {
+            this.releasedProjectors = releasedProjectors;
+        }
+
+        @Override
+        public Collector<Row, ?, Iterable<Row>> collector() {
+            return Collector.<Row, long[], Iterable<Row>>of(
+                () -> new long[1],
+                (state, row) -> state[0] += (long) row.get(0),
+                (state1, state2) -> {
+                    state1[0] += state2[0];
+                    return state1;
+                },
+                state -> Collections.singletonList(new Row1(state[0]))
+            );
+        }
+
+        @Override
+        public void release() {
+            releasedProjectors.incrementAndGet();
+        }
+
+        @Override
+        public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+            throw new UnsupportedOperationException("only the collector is used");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.collectors;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.data.BatchIterator;
+import io.crate.data.CollectingBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.aggregation.AggregationProjector;
+import io.crate.execution.expression.reference.doc.lucene.CollectorContext;
+import io.crate.execution.expression.reference.doc.lucene.IntegerColumnReference;
+import io.crate.lucene.LuceneQueryBuilderTest;
+import io.crate.testing.TestingRowConsumer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.RAMDirectory;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.index.fielddata.IndexFieldDataService;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collector;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class ParallelAggregationFilterTest extends LuceneQueryBuilderTest {
+
+    private static final int NUM_SLICES = 4;
+
+    private BatchIterator<Row> newSource(IndexSearcher indexSearcher, Query query, List<LeafReaderContext> leaves) {
+        List<IntegerColumnReference> columnRefs = Collections.singletonList(new IntegerColumnReference("x"));
+        return new LuceneBatchIterator(
+            indexSearcher,
+            query,
+            null,
+            false,
+            new CollectorContext(mock(IndexFieldDataService.class), new CollectorFieldsVisitor(0)),
+            new RamAccountingContext("dummy", new NoopCircuitBreaker("dummy")),
+            columnRefs,
+            columnRefs,
+            leaves
+        );
+    }
+
+    @Test
+    public void testGenericFunctionFilterOnParallelSlicesMatchesSingleThreadedResult() throws Exception {
+        // commit in between and never merge to get a segment per slice
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int i = 0; i < 40_000; i++) {
+            Document doc = new Document();
+            doc.add(new SortedNumericDocValuesField("x", (i % 20) - 10));
+            iw.addDocument(doc);
+            if (i % 10_000 == 9_999) {
+                iw.commit();
+            }
+        }
+        IndexSearcher indexSearcher = new IndexSearcher(DirectoryReader.open(iw));
+        List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
+        List<List<LeafReaderContext>> slices = ParallelAggregationCollectorBuilder.slices(
+            leaves, leaf -> leaf.reader().maxDoc(), NUM_SLICES, 1);
+        assertThat(slices.size(), is(NUM_SLICES));
+
+        // the predicate can't be expressed as lucene query and is evaluated per document
+        String filter = "abs(x) > 3";
+
+        TestingRowConsumer singleThreaded = new TestingRowConsumer();
+        BatchIterator<Row> source = newSource(indexSearcher, convert(filter), leaves);
+        singleThreaded.accept(CollectingBatchIterator.newInstance(source, new CountAndSumProjector().collector()), null);
+        Object[] expected = singleThreaded.getResult().get(0);
+
+        List<BatchIterator<Row>> sources = new ArrayList<>();
+        List<AggregationProjector> projectors = new ArrayList<>();
+        for (List<LeafReaderContext> slice : slices) {
+            sources.add(newSource(indexSearcher, convert(filter), slice));
+            projectors.add(new CountAndSumProjector());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(NUM_SLICES);
+        try {
+            TestingRowConsumer parallel = new TestingRowConsumer();
+            new ParallelAggregationCollectorBuilder(sources, projectors, executor).build(parallel).doCollect();
+
+            List<Object[]> result = parallel.getResult();
+            assertThat(result.size(), is(1));
+            assertThat(result.get(0), is(expected));
+            assertThat(result.get(0)[0], is(26_000L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static class CountAndSumProjector implements AggregationProjector {
+
+        @Override
+        public Collector<Row, ?, Iterable<Row>> collector() {
+            return Collector.<Row, long[], Iterable<Row>>of(
+                () -> new long[2],
+                (state, row) -> {
+                    state[0]++;
+                    state[1] += (int) row.get(0);
+                },
+                (state1, state2) -> {
+                    state1[0] += state2[0];
+                    state1[1] += state2[1];
+                    return state1;
+                },
+                state -> Collections.singletonList(new RowN(new Object[]{state[0], state[1]}))
+            );
+        }
+
+        @Override
+        public void release() {
+        }
+
+        @Override
+        public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+            throw new UnsupportedOperationException("only the collector is used");
+        }
+    }
+}
@@ -90,6 +90,7 @@ public class RemoteCollectorTest extends CrateDummyClusterServiceUnitTest {
         JobContextService jobContextService = new JobContextService(
             Settings.EMPTY,
             clusterService,
+            THREAD_POOL,
             new JobsLogs(() -> true));
         remoteCollector = new RemoteCollector(
             jobId,
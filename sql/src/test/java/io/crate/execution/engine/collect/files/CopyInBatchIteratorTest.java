@@ -0,0 +1,151 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.execution.expression.InputFactory;
+import io.crate.execution.expression.reference.file.FileLineReferenceResolver;
+import io.crate.metadata.Functions;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class CopyInBatchIteratorTest extends CrateUnitTest {
+
+    private InputFactory inputFactory;
+    private List<Boolean> pauseCalls;
+
+    @Before
+    public void prepare() throws Exception {
+        inputFactory = new InputFactory(new Functions(ImmutableMap.of(), ImmutableMap.of()));
+        pauseCalls = new ArrayList<>();
+    }
+
+    private BatchIterator<Row> createBatchIterator(CopyInSource source) {
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
+        List<Input<?>> inputs = Collections.singletonList(ctx.add(createReference("_raw", DataTypes.STRING)));
+        return CopyInBatchIterator.newInstance(source, UnaryOperator.identity(), inputs, ctx.expressions());
+    }
+
+    private static void write(CopyInSource source, String data) {
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        source.write(bytes, 0, bytes.length);
+    }
+
+    private static List<String> consumeAvailable(BatchIterator<Row> iterator) {
+        List<String> lines = new ArrayList<>();
+        while (iterator.moveNext()) {
+            lines.add(((BytesRef) iterator.currentElement().get(0)).utf8ToString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void testLinesAreSplitIndependentOfMessageBoundaries() throws Exception {
+        CopyInSource source = new CopyInSource(1024, false, pauseCalls::add);
+        BatchIterator<Row> iterator = createBatchIterator(source);
+
+        write(source, "{\"id\": 1}\n{\"id\"");
+        assertThat(consumeAvailable(iterator), contains("{\"id\": 1}"));
+        assertThat(iterator.allLoaded(), is(false));
+
+        CompletableFuture<?> nextBatch = iterator.loadNextBatch().toCompletableFuture();
+        assertThat(nextBatch.isDone(), is(false));
+        write(source, ": 2}\r\n{\"id\": 3}");
+        assertThat(nextBatch.isDone(), is(true));
+        assertThat(consumeAvailable(iterator), contains("{\"id\": 2}"));
+
+        source.finish();
+        assertThat(consumeAvailable(iterator), contains("{\"id\": 3}"));
+        assertThat(iterator.allLoaded(), is(true));
+        iterator.close();
+    }
+
+    @Test
+    public void testEndOfDataMarkerIsSkipped() throws Exception {
+        CopyInSource source = new CopyInSource(1024, false, pauseCalls::add);
+        BatchIterator<Row> iterator = createBatchIterator(source);
+
+        write(source, "{\"id\": 1}\n\\.\n");
+        source.finish();
+        assertThat(consumeAvailable(iterator), contains("{\"id\": 1}"));
+        assertThat(iterator.allLoaded(), is(true));
+    }
+
+    @Test
+    public void testReadsArePausedIfTooMuchDataIsBuffered() throws Exception {
+        CopyInSource source = new CopyInSource(10, false, pauseCalls::add);
+        BatchIterator<Row> iterator = createBatchIterator(source);
+
+        write(source, "{\"id\": 1}\n");
+        assertThat(pauseCalls.isEmpty(), is(true));
+        write(source, "{\"id\": 2}\n");
+        assertThat(pauseCalls, contains(true));
+
+        consumeAvailable(iterator);
+        assertThat(pauseCalls, contains(true, false));
+    }
+
+    @Test
+    public void testFailureIsPropagatedToTheConsumer() throws Exception {
+        CopyInSource source = new CopyInSource(1024, false, pauseCalls::add);
+        BatchIterator<Row> iterator = createBatchIterator(source);
+        CompletableFuture<?> nextBatch = iterator.loadNextBatch().toCompletableFuture();
+
+        source.fail(new IllegalStateException("client sent CopyFail"));
+        assertThat(nextBatch.isDone(), is(true));
+
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("client sent CopyFail");
+        iterator.moveNext();
+    }
+
+    @Test
+    public void testKillFailsTheSource() throws Exception {
+        CopyInSource source = new CopyInSource(10, false, pauseCalls::add);
+        BatchIterator<Row> iterator = createBatchIterator(source);
+        write(source, Arrays.toString(new int[20]) + "\n");
+
+        iterator.kill(new InterruptedException("job killed"));
+        // reading is resumed so that the client isn't blocked
+        assertThat(pauseCalls, contains(true, false));
+    }
+}
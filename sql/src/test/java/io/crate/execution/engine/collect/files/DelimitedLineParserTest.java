@@ -0,0 +1,115 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.ArrayType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class DelimitedLineParserTest extends CrateUnitTest {
+
+    private static final List<Reference> COLUMNS = Arrays.asList(
+        createReference("id", DataTypes.INTEGER),
+        createReference("name", DataTypes.STRING),
+        createReference(new ColumnIdent("details", "tags"), new ArrayType(DataTypes.STRING))
+    );
+
+    private static String parse(UnaryOperator<byte[]> parser, String line) {
+        byte[] json = parser.apply(line.getBytes(StandardCharsets.UTF_8));
+        return json == null ? null : new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testJsonIsTheDefaultFormatAndIsPassedThrough() throws Exception {
+        assertThat(DelimitedLineParser.fromSettings(Settings.EMPTY, COLUMNS), sameInstance(UnaryOperator.identity()));
+    }
+
+    @Test
+    public void testTextFormat() throws Exception {
+        UnaryOperator<byte[]> parser = DelimitedLineParser.fromSettings(
+            Settings.builder().put("format", "text").build(), COLUMNS);
+
+        assertThat(parse(parser, "1\tArthur\\tDent\t[\"a\", \"b\"]"),
+            is("{\"id\":1,\"name\":\"Arthur\\tDent\",\"details\":{\"tags\":[\"a\",\"b\"]}}"));
+        assertThat(parse(parser, "2\t\\N\t\\N"), is("{\"id\":2,\"name\":null,\"details\":{\"tags\":null}}"));
+    }
+
+    @Test
+    public void testTextFormatEscapes() throws Exception {
+        UnaryOperator<byte[]> parser = DelimitedLineParser.fromSettings(
+            Settings.builder().put("format", "text").put("delimiter", "|").build(), COLUMNS);
+
+        assertThat(parse(parser, "1|\\101\\x42\\x4\\7\\xz\\|\\\\N|\\N"),
+            is("{\"id\":1,\"name\":\"AB\\u0004\\u0007xz|\\\\N\",\"details\":{\"tags\":null}}"));
+    }
+
+    @Test
+    public void testCsvFormatWithHeader() throws Exception {
+        UnaryOperator<byte[]> parser = DelimitedLineParser.fromSettings(
+            Settings.builder().put("format", "csv").put("header", true).build(), COLUMNS);
+
+        assertThat(parse(parser, "id,name,details['tags']"), nullValue());
+        assertThat(parse(parser, "1,\"Dent, \"\"Arthur\"\"\",\"[\"\"a\"\"]\""),
+            is("{\"id\":1,\"name\":\"Dent, \\\"Arthur\\\"\",\"details\":{\"tags\":[\"a\"]}}"));
+        assertThat(parse(parser, "2,\"\","), is("{\"id\":2,\"name\":\"\",\"details\":{\"tags\":null}}"));
+    }
+
+    @Test
+    public void testCustomDelimiterAndNullString() throws Exception {
+        UnaryOperator<byte[]> parser = DelimitedLineParser.fromSettings(
+            Settings.builder().put("format", "csv").put("delimiter", "|").put("null_string", "NULL").build(), COLUMNS);
+
+        assertThat(parse(parser, "1|NULL|[]"), is("{\"id\":1,\"name\":null,\"details\":{\"tags\":[]}}"));
+    }
+
+    @Test
+    public void testWrongNumberOfValuesRaisesAnError() throws Exception {
+        UnaryOperator<byte[]> parser = DelimitedLineParser.fromSettings(
+            Settings.builder().put("format", "csv").build(), COLUMNS);
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Expected 3 values but got 2 in line: 1,Arthur");
+        parse(parser, "1,Arthur");
+    }
+
+    @Test
+    public void testInvalidFormatRaisesAnError() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Invalid COPY format 'xml', supported formats are: json, csv, text");
+        DelimitedLineParser.fromSettings(Settings.builder().put("format", "xml").build(), COLUMNS);
+    }
+}
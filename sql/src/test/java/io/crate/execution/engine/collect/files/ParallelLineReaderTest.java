@@ -0,0 +1,151 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.execution.engine.collect.files;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ParallelLineReaderTest extends CrateUnitTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUpExecutor() throws Exception {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDownExecutor() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private List<String> readLines(URI uri, long size, int numSplits) throws IOException {
+        return readLines(new LocalFsFileInput(), uri, size, numSplits);
+    }
+
+    private List<String> readLines(FileInput fileInput, URI uri, long size, int numSplits) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ParallelLineReader reader = new ParallelLineReader(fileInput, uri, size, numSplits, executor)) {
+            reader.start();
+            byte[] line;
+            while ((line = reader.nextLine()) != null) {
+                lines.add(new String(line, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+
+    private Path writeFile(String content) throws IOException {
+        Path file = createTempFile();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testEveryLineIsReadExactlyOnceRegardlessOfSplitBoundaries() throws Exception {
+        Path file = writeFile("a\nbb\n\nccc\r\nd\ne\n");
+        long size = Files.size(file);
+        for (int numSplits = 1; numSplits <= size + 1; numSplits++) {
+            assertThat(
+                "numSplits=" + numSplits,
+                readLines(file.toUri(), size, numSplits),
+                containsInAnyOrder("a", "bb", "ccc", "d", "e"));
+        }
+    }
+
+    @Test
+    public void testLastLineWithoutLineSeparatorIsRead() throws Exception {
+        Path file = writeFile("{\"x\": 1}\n{\"x\": 2}");
+        long size = Files.size(file);
+        assertThat(readLines(file.toUri(), size, 3), containsInAnyOrder("{\"x\": 1}", "{\"x\": 2}"));
+    }
+
+    @Test
+    public void testReadManyLinesWithMultipleBatchesPerSplit() throws Exception {
+        StringBuilder content = new StringBuilder();
+        List<String> expectedLines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String line = "{\"id\": " + i + ", \"name\": \"" + randomAsciiLettersOfLengthBetween(0, 200) + "\"}";
+            expectedLines.add(line);
+            content.append(line).append(randomBoolean() ? "\n" : "\r\n");
+        }
+        Path file = writeFile(content.toString());
+        long size = Files.size(file);
+
+        List<String> lines = readLines(file.toUri(), size, randomIntBetween(1, 8));
+        assertThat(lines.size(), is(expectedLines.size()));
+        assertThat(lines, containsInAnyOrder(expectedLines.toArray()));
+    }
+
+    @Test
+    public void testSplitsRequestTheirRangeWithBoundedOverrun() throws Exception {
+        List<long[]> ranges = Collections.synchronizedList(new ArrayList<>());
+        FileInput fileInput = new LocalFsFileInput() {
+            @Override
+            public InputStream getStream(URI uri, long start, long end) throws IOException {
+                ranges.add(new long[]{start, end});
+                return super.getStream(uri, start, end);
+            }
+        };
+        // the second line is longer than the overrun and crosses the boundary of the splits
+        String longLine = randomAsciiLettersOfLength((int) ParallelLineReader.LINE_OVERRUN * 3);
+        Path file = writeFile("a\n" + longLine + "\nb\n");
+        long size = Files.size(file);
+
+        assertThat(readLines(fileInput, file.toUri(), size, 2), containsInAnyOrder("a", longLine, "b"));
+        long maxRangeSize = size / 2 + 1 + ParallelLineReader.LINE_OVERRUN;
+        for (long[] range : ranges) {
+            assertThat(range[1] - range[0], lessThanOrEqualTo(maxRangeSize));
+        }
+        assertThat(ranges.size(), greaterThan(2));
+    }
+
+    @Test
+    public void testNumSplits() throws Exception {
+        assertThat(ParallelLineReader.numSplits(-1L, 4), is(1));
+        assertThat(ParallelLineReader.numSplits(ParallelLineReader.MIN_SPLIT_SIZE, 4), is(1));
+        assertThat(ParallelLineReader.numSplits(ParallelLineReader.MIN_SPLIT_SIZE * 3, 4), is(3));
+        assertThat(ParallelLineReader.numSplits(ParallelLineReader.MIN_SPLIT_SIZE * 100, 4), is(4));
+    }
+}
@@ -220,7 +220,7 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         User user = User.of("arthur");
 
         JobContext jobContext = new JobContext(UUID.randomUUID(), "select 1", 1L, user);
-        jobsLogs.logExecutionStart(jobContext.id, jobContext.stmt, user);
+        jobsLogs.logExecutionStart(jobContext.id, jobContext.stmt, user, StatementType.SELECT);
         List<JobContext> jobsEntries = ImmutableList.copyOf(jobsLogs.activeJobs().iterator());
 
         assertThat(jobsEntries.size(), is(1));
@@ -228,6 +228,23 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         assertThat(jobsEntries.get(0).stmt(), is("select 1"));
     }
 
+    @Test
+    public void testQueuedAndAdmittedJobsAreReflectedInActiveJobs() {
+        JobsLogs jobsLogs = new JobsLogs(() -> true);
+        UUID jobId = UUID.randomUUID();
+        jobsLogs.logExecutionStart(jobId, "select 1", null, StatementType.SELECT);
+
+        jobsLogs.jobQueued(jobId, "reporting");
+        JobContext jobContext = jobsLogs.activeJobs().iterator().next();
+        assertThat(jobContext.resourceGroup(), is("reporting"));
+        assertThat(jobContext.state(), is(JobContext.State.QUEUED));
+
+        jobsLogs.jobAdmitted(jobId, "reporting");
+        jobContext = jobsLogs.activeJobs().iterator().next();
+        assertThat(jobContext.state(), is(JobContext.State.RUNNING));
+        assertThat(jobContext.stmt(), is("select 1"));
+    }
+
     @Test
     public void testExecutionFailure() {
         JobsLogs jobsLogs = new JobsLogs(() -> true);
@@ -235,13 +252,31 @@ public class JobsLogsTest extends CrateDummyClusterServiceUnitTest {
         Queue<JobContextLog> q = new BlockingEvictingQueue<>(1);
 
         jobsLogs.updateJobsLog(new QueueSink<>(q, ramAccountingContext::close));
-        jobsLogs.logPreExecutionFailure(UUID.randomUUID(), "select foo", "stmt error", user);
+        jobsLogs.logPreExecutionFailure(UUID.randomUUID(), "select foo", "stmt error", user, StatementType.SELECT);
 
         List<JobContextLog> jobsLogEntries = ImmutableList.copyOf(jobsLogs.jobsLog().iterator());
         assertThat(jobsLogEntries.size(), is(1));
         assertThat(jobsLogEntries.get(0).username(), is(user.name()));
         assertThat(jobsLogEntries.get(0).statement(), is("select foo"));
         assertThat(jobsLogEntries.get(0).errorMessage(), is("stmt error"));
+        assertThat(jobsLogs.statementStats().get(StatementType.SELECT).failedCount(), is(1L));
+    }
+
+    @Test
+    public void testStatementStatsAreRecordedIfStatsAreDisabled() {
+        JobsLogs jobsLogs = new JobsLogs(() -> false);
+        UUID jobId = UUID.randomUUID();
+        jobsLogs.logExecutionStart(jobId, "insert into t1 (x) values (1)", null, StatementType.INSERT);
+        jobsLogs.logExecutionEnd(jobId, null);
+        UUID failedJobId = UUID.randomUUID();
+        jobsLogs.logExecutionStart(failedJobId, "insert into t1 (x) values (1)", null, StatementType.INSERT);
+        jobsLogs.logExecutionEnd(failedJobId, "duplicate key");
+
+        assertThat(jobsLogs.activeJobs().iterator().hasNext(), is(false));
+        StatementStats.Entry insertStats = jobsLogs.statementStats().get(StatementType.INSERT);
+        assertThat(insertStats.count(), is(2L));
+        assertThat(insertStats.failedCount(), is(1L));
+        assertThat(jobsLogs.statementStats().get(StatementType.SELECT).count(), is(0L));
     }
 
     @Test
@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.collect.stats;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LatencyHistogramTest extends CrateUnitTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index >= previous, is(true));
+            assertThat(value <= LatencyHistogram.bucketUpperBound(index), is(true));
+            if (index > 0) {
+                assertThat(value > LatencyHistogram.bucketUpperBound(index - 1), is(true));
+            }
+            previous = index;
+        }
+        assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_VALUE), is(LatencyHistogram.NUM_BUCKETS - 1));
+        assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.NUM_BUCKETS - 1), is(LatencyHistogram.MAX_VALUE));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(50L));
+        assertThat(snapshot.sum(), is(1275L));
+        assertThat(snapshot.max(), is(50L));
+        assertThat(snapshot.mean(), is(25.5));
+        assertThat(snapshot.valueAtPercentile(50), is(25L));
+        assertThat(snapshot.valueAtPercentile(99), is(50L));
+        assertThat(snapshot.valueAtPercentile(100), is(50L));
+    }
+
+    @Test
+    public void testPercentilesHaveBoundedRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 10L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(100_000L));
+        assertThat(snapshot.max(), is(1_000_000L));
+        for (double percentile : new double[] { 50.0, 95.0, 99.0, 99.9 }) {
+            long expected = (long) (percentile * 10_000);
+            long actual = snapshot.valueAtPercentile(percentile);
+            assertThat(actual >= expected, is(true));
+            assertThat((double) (actual - expected) / expected, lessThanOrEqualTo(1.0 / 32));
+        }
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertThat(snapshot.count(), is(0L));
+        assertThat(snapshot.mean(), is(0.0));
+        assertThat(snapshot.valueAtPercentile(99), is(0L));
+    }
+
+    @Test
+    public void testOutOfRangeValuesAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(2L));
+        assertThat(snapshot.valueAtPercentile(50), is(0L));
+        assertThat(snapshot.max(), is(LatencyHistogram.MAX_VALUE));
+    }
+
+    @Test
+    public void testMergeAndSince() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        histogram.record(10);
+        histogram.record(20);
+        LatencyHistogram.Snapshot first = histogram.snapshot();
+        histogram.record(1000);
+        LatencyHistogram.Snapshot second = histogram.snapshot();
+
+        LatencyHistogram.Snapshot delta = second.since(first);
+        assertThat(delta.count(), is(1L));
+        assertThat(delta.sum(), is(1000L));
+        assertThat(delta.max(), is(1000L));
+
+        LatencyHistogram.Snapshot merged = first.merge(delta);
+        assertThat(merged.count(), is(3L));
+        assertThat(merged.sum(), is(1030L));
+        assertThat(merged.max(), is(1000L));
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count(), is(80_000L));
+        assertThat(snapshot.sum(), is(8 * (9_999L * 10_000L / 2)));
+        assertThat(snapshot.max(), is(9_999L));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.crate.Streamer;
+import io.crate.data.Bucket;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.LocalTransportAddress;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ColumnarBucketsTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{
+        DataTypes.LONG.streamer(),
+        DataTypes.TIMESTAMP.streamer(),
+        DataTypes.INTEGER.streamer(),
+        DataTypes.STRING.streamer(),
+        DataTypes.STRING.streamer(),
+        DataTypes.DOUBLE.streamer()
+    };
+
+    private static List<Object[]> randomRows(int numRows) {
+        List<Object[]> rows = new ArrayList<>(numRows);
+        long timestamp = 1500000000000L;
+        for (int i = 0; i < numRows; i++) {
+            timestamp += randomIntBetween(0, 1000);
+            rows.add(new Object[]{
+                rarely() ? null : randomLong(),
+                timestamp,
+                rarely() ? null : randomIntBetween(-100, 100),
+                rarely() ? null : new BytesRef("country-" + randomIntBetween(0, 5)),
+                rarely() ? null : new BytesRef(randomAsciiLettersOfLengthBetween(0, 20)),
+                rarely() ? null : randomDouble()
+            });
+        }
+        return rows;
+    }
+
+    private static StreamBucket streamBucket(Streamer<?>[] streamers, List<Object[]> rows) throws IOException {
+        StreamBucket.Builder builder = new StreamBucket.Builder(streamers, null);
+        for (Object[] row : rows) {
+            builder.add(new RowN(row));
+        }
+        return builder.build();
+    }
+
+    private static StreamBucket writeAndRead(Streamer<?>[] streamers, Bucket bucket, BucketFormat format) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput();
+        StreamBucket.writeBucket(out, streamers, bucket, format);
+        StreamBucket streamed = new StreamBucket(streamers);
+        streamed.readFrom(out.bytes().streamInput());
+        return streamed;
+    }
+
+    private static void assertRows(Bucket bucket, List<Object[]> expected) {
+        assertThat(bucket.size(), is(expected.size()));
+        int idx = 0;
+        for (Row row : bucket) {
+            assertThat(row.materialize(), is(expected.get(idx)));
+            idx++;
+        }
+    }
+
+    @Test
+    public void testColumnarRoundTrip() throws Exception {
+        List<Object[]> rows = randomRows(randomIntBetween(1, 500));
+        for (BucketFormat format : BucketFormat.values()) {
+            assertRows(writeAndRead(STREAMERS, streamBucket(STREAMERS, rows), format), rows);
+        }
+    }
+
+    @Test
+    public void testColumnarRoundTripOfNullsAndExtremeValues() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.LONG.streamer(), DataTypes.STRING.streamer()};
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{Long.MAX_VALUE, null},
+            new Object[]{null, null},
+            new Object[]{Long.MIN_VALUE, null},
+            new Object[]{0L, null}
+        );
+        assertRows(writeAndRead(streamers, streamBucket(streamers, rows), BucketFormat.COLUMNAR_COMPRESSED), rows);
+    }
+
+    @Test
+    public void testColumnarBucketCanBeWrittenRowMajor() throws Exception {
+        List<Object[]> rows = randomRows(randomIntBetween(1, 100));
+        StreamBucket columnar = writeAndRead(STREAMERS, streamBucket(STREAMERS, rows), BucketFormat.COLUMNAR);
+        assertRows(writeAndRead(STREAMERS, columnar, BucketFormat.ROW_MAJOR), rows);
+    }
+
+    @Test
+    public void testColumnarFormatIsSmallerForLowCardinalityColumns() throws Exception {
+        Streamer<?>[] streamers = new Streamer[]{DataTypes.STRING.streamer(), DataTypes.TIMESTAMP.streamer()};
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[]{new BytesRef("eu-west-" + (i % 3)), 1500000000000L + i * 1000L});
+        }
+        StreamBucket bucket = streamBucket(streamers, rows);
+
+        BytesStreamOutput rowMajor = new BytesStreamOutput();
+        bucket.writeTo(rowMajor, BucketFormat.ROW_MAJOR);
+        BytesStreamOutput columnar = new BytesStreamOutput();
+        bucket.writeTo(columnar, BucketFormat.COLUMNAR);
+        BytesStreamOutput compressed = new BytesStreamOutput();
+        bucket.writeTo(compressed, BucketFormat.COLUMNAR_COMPRESSED);
+
+        assertThat(columnar.size(), lessThan(rowMajor.size() / 4));
+        assertThat(compressed.size(), lessThan(rowMajor.size() / 4));
+    }
+
+    @Test
+    public void testPackedValues() throws Exception {
+        int bitsPerValue = randomIntBetween(0, 64);
+        long[] values = new long[randomIntBetween(0, 100)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = bitsPerValue == 64 ? randomLong() : randomLong() & ((1L << bitsPerValue) - 1);
+        }
+        BytesStreamOutput out = new BytesStreamOutput();
+        ColumnarBuckets.writePacked(out, values, values.length, bitsPerValue);
+        assertThat(out.size(), is((values.length * bitsPerValue + 7) / 8));
+        assertThat(ColumnarBuckets.readPacked(out.bytes().streamInput(), values.length, bitsPerValue), is(values));
+    }
+
+    @Test
+    public void testFormatIsNegotiatedByNodeAttribute() throws Exception {
+        DiscoveryNode oldNode = new DiscoveryNode(
+            "n1", LocalTransportAddress.buildUnique(), Collections.emptyMap(), ImmutableSet.of(), null);
+        DiscoveryNode newNode = new DiscoveryNode(
+            "n2",
+            LocalTransportAddress.buildUnique(),
+            ImmutableMap.of(BucketFormat.NODE_ATTRIBUTE, String.valueOf(BucketFormat.CURRENT_VERSION)),
+            ImmutableSet.of(),
+            null);
+
+        BucketFormat preferred = BucketFormat.preferred(Settings.EMPTY);
+        assertThat(preferred, is(BucketFormat.COLUMNAR_COMPRESSED));
+        assertThat(preferred.supportedBy(newNode), is(BucketFormat.COLUMNAR_COMPRESSED));
+        assertThat(preferred.supportedBy(oldNode), is(BucketFormat.ROW_MAJOR));
+        assertThat(preferred.supportedBy(Arrays.asList(newNode, oldNode)), is(BucketFormat.ROW_MAJOR));
+
+        Settings settings = Settings.builder().put(BucketFormat.COLUMNAR_SETTING.getKey(), false).build();
+        assertThat(BucketFormat.preferred(settings).supportedBy(newNode), is(BucketFormat.ROW_MAJOR));
+    }
+}
@@ -44,7 +44,7 @@ public class NodeFetchOperationTest extends CrateDummyClusterServiceUnitTest {
         NodeFetchOperation fetchOperation = new NodeFetchOperation(
             MoreExecutors.directExecutor(),
             jobsLogs,
-            new JobContextService(Settings.EMPTY, clusterService, jobsLogs),
+            new JobContextService(Settings.EMPTY, clusterService, THREAD_POOL, jobsLogs),
             new NoopCircuitBreaker("dummy"));
 
         fetchOperation.fetch(UUID.randomUUID(), 1, null, true).get(5, TimeUnit.SECONDS);
@@ -31,6 +31,7 @@ import io.crate.Streamer;
 import io.crate.breaker.RamAccountingContext;
 import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.execution.engine.distribution.BucketFormat;
 import io.crate.execution.engine.distribution.StreamBucket;
 import io.crate.test.integration.CrateUnitTest;
 import io.crate.types.DataTypes;
@@ -92,6 +93,20 @@ public class NodeFetchResponseTest extends CrateUnitTest {
         assertThat((Row) Iterables.getOnlyElement(streamed.fetched().get(1)), isRow(true));
     }
 
+    @Test
+    public void testStreamingColumnarBuckets() throws Exception {
+        NodeFetchResponse orig = NodeFetchResponse.forSending(fetched, BucketFormat.COLUMNAR_COMPRESSED);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        orig.writeTo(out);
+
+        StreamInput in = out.bytes().streamInput();
+        NodeFetchResponse streamed = NodeFetchResponse.forReceiveing(streamers, ramAccountingContext);
+        streamed.readFrom(in);
+
+        assertThat((Row) Iterables.getOnlyElement(streamed.fetched().get(1)), isRow(true));
+    }
+
     @Test
     public void testResponseCircuitBreaker() throws Exception {
         NodeFetchResponse orig = NodeFetchResponse.forSending(fetched);
@@ -0,0 +1,156 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.breaker.RowAccounting;
+import io.crate.data.BatchIterator;
+import io.crate.data.BatchIterators;
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.data.SentinelRow;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.join.HashJoinBatchIterator;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import org.elasticsearch.common.breaker.MemoryCircuitBreaker;
+import org.elasticsearch.common.logging.Loggers;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.is;
+
+public class SpillingHashJoinTest extends CrateUnitTest {
+
+    private static final List<DataType> TYPES = Collections.singletonList(DataTypes.INTEGER);
+    private static final ToIntFunction<Row> HASH = row -> Objects.hashCode(row.get(0));
+
+    private long originalBufferSize;
+
+    @Before
+    public void reduceFlushBufferSize() throws Exception {
+        originalBufferSize = RamAccountingContext.FLUSH_BUFFER_SIZE;
+        RamAccountingContext.FLUSH_BUFFER_SIZE = 20;
+    }
+
+    @After
+    public void resetFlushBufferSize() throws Exception {
+        RamAccountingContext.FLUSH_BUFFER_SIZE = originalBufferSize;
+    }
+
+    private static List<Row> rows(int numRows) {
+        List<Row> rows = new ArrayList<>(numRows);
+        for (int i = 0; i < numRows; i++) {
+            rows.add(new Row1(i));
+        }
+        return rows;
+    }
+
+    private static SpillingHashJoin innerJoin(long breakerLimit, Path spillDirectory) {
+        RowAccounting rowAccounting = new RowAccounting(TYPES, new RamAccountingContext(
+            "test",
+            new MemoryCircuitBreaker(
+                new ByteSizeValue(breakerLimit, ByteSizeUnit.BYTES), 1.0, Loggers.getLogger(SpillingHashJoinTest.class))
+        ));
+        return new SpillingHashJoin(
+            TYPES,
+            TYPES,
+            HASH,
+            HASH,
+            rowAccounting,
+            spillDirectory,
+            (left, right) -> HashJoinBatchIterator.innerJoin(
+                left,
+                right,
+                new CombinedRow(1, 1),
+                row -> Objects.equals(row.get(0), row.get(1)),
+                HASH,
+                HASH,
+                row -> row)
+        );
+    }
+
+    private static List<Object[]> consume(BatchIterator<Row> joinIterator) throws Exception {
+        List<Object[]> result = BatchIterators.collect(
+            joinIterator, Collectors.mapping(Row::materialize, Collectors.toList())).get();
+        joinIterator.close();
+        return result;
+    }
+
+    private void assertJoinResult(List<Object[]> result, int numRows) {
+        assertThat(result.size(), is(numRows));
+        for (Object[] cells : result) {
+            assertThat(cells[0], is(cells[1]));
+        }
+    }
+
+    @Test
+    public void testJoinIsDoneInMemoryIfRowsFit() throws Exception {
+        Path spillDirectory = createTempDir();
+        SpillingHashJoin join = innerJoin(1024 * 1024, spillDirectory);
+
+        BatchIterator<Row> joinIterator = join.join(
+            InMemoryBatchIterator.of(rows(200), SentinelRow.SENTINEL),
+            InMemoryBatchIterator.of(rows(200), SentinelRow.SENTINEL)
+        ).get();
+
+        assertJoinResult(consume(joinIterator), 200);
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+
+    @Test
+    public void testJoinSpillsPartitionsToDiskIfBreakerLimitIsReached() throws Exception {
+        Path spillDirectory = createTempDir();
+        SpillingHashJoin join = innerJoin(1000, spillDirectory);
+
+        BatchIterator<Row> joinIterator = join.join(
+            InMemoryBatchIterator.of(rows(200), SentinelRow.SENTINEL),
+            InMemoryBatchIterator.of(rows(200), SentinelRow.SENTINEL)
+        ).get();
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files.count(), is(2L));
+        }
+
+        assertJoinResult(consume(joinIterator), 200);
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+}
@@ -37,6 +37,8 @@ import io.crate.exceptions.UnhandledServerException;
 import io.crate.execution.dsl.projection.FilterProjection;
 import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.profile.OperatorProfile;
+import io.crate.execution.engine.profile.PhaseProfile;
 import io.crate.execution.expression.InputFactory;
 import io.crate.execution.expression.operator.EqOperator;
 import io.crate.execution.jobs.NodeJobsCounter;
@@ -44,6 +46,7 @@ import io.crate.execution.TransportActionProvider;
 import io.crate.metadata.Functions;
 import io.crate.metadata.RowGranularity;
 import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.TestingBatchIterators;
 import io.crate.testing.TestingRowConsumer;
 import io.crate.types.DataTypes;
 import org.elasticsearch.Version;
@@ -66,9 +69,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static io.crate.data.SentinelRow.SENTINEL;
 import static io.crate.testing.TestingHelpers.getFunctions;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 
@@ -197,4 +202,30 @@ public class ProjectingRowConsumerTest extends CrateUnitTest {
         expectedException.expectMessage("Failed to open output");
         consumer.getResult();
     }
+
+    @Test
+    public void testPhaseProfileRecordsRowsOfSourceAndProjectors() throws Exception {
+        EqOperator op =
+            (EqOperator) functions.getBuiltin(EqOperator.NAME, ImmutableList.of(DataTypes.INTEGER, DataTypes.INTEGER));
+        Function function = new Function(op.info(), Arrays.asList(Literal.of(2), new InputColumn(0)));
+        FilterProjection filterProjection = new FilterProjection(function,
+            Collections.singletonList(new InputColumn(0)));
+
+        PhaseProfile phaseProfile = new PhaseProfile(1, "collect");
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        RowConsumer projectingConsumer = ProjectingRowConsumer.create(consumer,
+            Collections.singletonList(filterProjection),
+            UUID.randomUUID(),
+            RAM_ACCOUNTING_CONTEXT,
+            projectorFactory,
+            phaseProfile);
+
+        projectingConsumer.accept(TestingBatchIterators.range(0, 10), null);
+
+        assertThat(consumer.getResult().size(), is(1));
+        assertThat(phaseProfile.operators().stream().map(OperatorProfile::name).collect(Collectors.toList()),
+            contains("source", "filter"));
+        assertThat(phaseProfile.operators().get(0).rows(), is(10L));
+        assertThat(phaseProfile.operators().get(1).rows(), is(1L));
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.breaker.RamAccountingContext;
+import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+
+public class PhaseProfileTest extends CrateUnitTest {
+
+    private static PhaseProfile profile(long sourceRows, long projectorRows, long memoryBytes, long bytesSent) {
+        PhaseProfile profile = new PhaseProfile(2, "mergeOnHandler");
+        OperatorProfile source = profile.addOperator("source");
+        for (int i = 0; i < sourceRows; i++) {
+            source.addRow();
+        }
+        source.addNanos(100);
+        OperatorProfile topN = profile.addOperator("topn");
+        for (int i = 0; i < projectorRows; i++) {
+            topN.addRow();
+        }
+        topN.addBlockedNanos(50);
+        profile.addBytesSent(bytesSent);
+        RamAccountingContext ramAccountingContext =
+            new RamAccountingContext("dummy", new NoopCircuitBreaker(CircuitBreaker.FIELDDATA));
+        ramAccountingContext.addBytes(memoryBytes);
+        ramAccountingContext.release(memoryBytes);
+        profile.trackMemory(ramAccountingContext);
+        profile.started();
+        profile.finished();
+        return profile;
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        PhaseProfile p1 = profile(10, 5, 200, 1024);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        p1.writeTo(out);
+        PhaseProfile p2 = new PhaseProfile(out.bytes().streamInput());
+
+        assertThat(p2.phaseId(), is(2));
+        assertThat(p2.name(), is("mergeOnHandler"));
+        assertThat(p2.operators().size(), is(2));
+        assertThat(p2.operators().get(0).name(), is("source"));
+        assertThat(p2.operators().get(0).rows(), is(10L));
+        assertThat(p2.operators().get(0).nanos(), is(100L));
+        assertThat(p2.operators().get(1).rows(), is(5L));
+        assertThat(p2.operators().get(1).blockedNanos(), is(50L));
+        assertThat(p2.wallNanos(), is(p1.wallNanos()));
+        assertThat(p2.bytesSent(), is(1024L));
+        assertThat(p2.peakMemoryBytes(), is(200L));
+        assertThat(p2.numNodes(), is(1));
+    }
+
+    @Test
+    public void testMergeSumsUpRowsAndBytesAndTakesMaxOfPeakMemory() throws Exception {
+        PhaseProfile p1 = profile(10, 5, 200, 1024);
+        PhaseProfile p2 = profile(4, 2, 300, 512);
+
+        p1.merge(p2);
+
+        assertThat(p1.numNodes(), is(2));
+        assertThat(p1.operators().get(0).rows(), is(14L));
+        assertThat(p1.operators().get(0).nanos(), is(200L));
+        assertThat(p1.operators().get(1).rows(), is(7L));
+        assertThat(p1.operators().get(1).blockedNanos(), is(100L));
+        assertThat(p1.bytesSent(), is(1536L));
+        assertThat(p1.peakMemoryBytes(), is(300L));
+    }
+
+    @Test
+    public void testToMapContainsRowsInOfOperators() throws Exception {
+        Map<String, Object> map = profile(10, 5, 200, 1024).toMap();
+
+        assertThat(map.get("id"), is(2));
+        assertThat(map.get("name"), is("mergeOnHandler"));
+        assertThat(map.get("nodes"), is(1));
+        assertThat(map.get("bytes_sent"), is(1024L));
+        assertThat(map.get("peak_memory_bytes"), is(200L));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> operators = (List<Map<String, Object>>) map.get("operators");
+        assertThat(operators.get(0).get("name"), is("source"));
+        assertThat(operators.get(0).get("rows_in"), is(10L));
+        assertThat(operators.get(0).get("rows_out"), is(10L));
+        assertThat(operators.get(1).get("name"), is("topn"));
+        assertThat(operators.get(1).get("rows_in"), is(10L));
+        assertThat(operators.get(1).get("rows_out"), is(5L));
+    }
+}
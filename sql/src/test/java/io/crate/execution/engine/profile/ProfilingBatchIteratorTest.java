@@ -0,0 +1,69 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.profile;
+
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.BatchSimulatingIterator;
+import io.crate.testing.TestingBatchIterators;
+import io.crate.testing.TestingRowConsumer;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+public class ProfilingBatchIteratorTest extends CrateUnitTest {
+
+    @Test
+    public void testRowsTimesAndWallTimeAreRecorded() throws Exception {
+        PhaseProfile phaseProfile = new PhaseProfile(1, "collect");
+        OperatorProfile operatorProfile = phaseProfile.addOperator("source");
+        phaseProfile.started();
+        BatchIterator<Row> it = new ProfilingBatchIterator<>(
+            new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 3, 4, null),
+            phaseProfile,
+            operatorProfile
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(it, null);
+
+        assertThat(consumer.getResult().size(), is(10));
+        it.close();
+
+        assertThat(operatorProfile.rows(), is(10L));
+        assertThat(operatorProfile.nanos(), greaterThan(0L));
+        assertThat(operatorProfile.blockedNanos(), greaterThan(0L));
+        assertThat(phaseProfile.wallNanos(), greaterThan(0L));
+    }
+
+    @Test
+    public void testWallTimeIsNotRecordedIfPhaseWasNotStarted() throws Exception {
+        PhaseProfile phaseProfile = new PhaseProfile(1, "collect");
+        BatchIterator<Row> it = new ProfilingBatchIterator<>(
+            TestingBatchIterators.range(0, 3), phaseProfile, phaseProfile.addOperator("source"));
+        it.close();
+
+        assertThat(phaseProfile.wallNanos(), is(0L));
+    }
+}
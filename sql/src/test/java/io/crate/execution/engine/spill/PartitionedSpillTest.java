@@ -0,0 +1,99 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import io.crate.Streamer;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class PartitionedSpillTest extends CrateUnitTest {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer[]{DataTypes.INTEGER.streamer(), DataTypes.STRING.streamer()};
+
+    @Test
+    public void testRowsWithSameHashAreWrittenToTheSamePartition() throws Exception {
+        PartitionedSpill spill = new PartitionedSpill(createTempDir(), 4, STREAMERS);
+        for (int i = 0; i < 100; i++) {
+            spill.write(i % 8, new Object[]{i, new BytesRef("foo")});
+        }
+        spill.write(3, new Object[]{null, null});
+        spill.finishWriting();
+
+        long totalRows = 0;
+        for (int p = 0; p < spill.numPartitions(); p++) {
+            List<Object[]> rows = new ArrayList<>();
+            spill.partition(p).forEach(rows::add);
+            assertThat((long) rows.size(), is(spill.numRows(p)));
+            totalRows += rows.size();
+            for (Object[] row : rows) {
+                if (row[0] != null) {
+                    assertThat(PartitionedSpill.partition((Integer) row[0] % 8, 4), is(p));
+                }
+            }
+        }
+        assertThat(totalRows, is(101L));
+        spill.close();
+    }
+
+    @Test
+    public void testPartitionCanBeReadMultipleTimes() throws Exception {
+        PartitionedSpill spill = new PartitionedSpill(createTempDir(), 1, STREAMERS);
+        spill.write(1, new Object[]{1, new BytesRef("foo")});
+        spill.write(2, new Object[]{2, null});
+        spill.finishWriting();
+
+        for (int i = 0; i < 2; i++) {
+            List<Object[]> rows = new ArrayList<>();
+            spill.partition(0).forEach(rows::add);
+            assertThat(rows, contains(
+                arrayContaining((Object) 1, new BytesRef("foo")),
+                arrayContaining((Object) 2, null)
+            ));
+        }
+        spill.close();
+    }
+
+    @Test
+    public void testCloseRemovesFiles() throws Exception {
+        Path parentDirectory = createTempDir();
+        PartitionedSpill spill = new PartitionedSpill(parentDirectory, 2, STREAMERS);
+        spill.write(1, new Object[]{1, new BytesRef("foo")});
+        spill.close();
+
+        try (Stream<Path> files = Files.list(parentDirectory)) {
+            assertThat(files.count(), is(0L));
+        }
+    }
+}
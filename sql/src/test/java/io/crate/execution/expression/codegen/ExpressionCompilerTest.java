@@ -0,0 +1,140 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.execution.expression.codegen;
+
+import io.crate.analyze.symbol.Field;
+import io.crate.analyze.symbol.Function;
+import io.crate.analyze.symbol.Symbol;
+import io.crate.data.Input;
+import io.crate.execution.expression.BaseImplementationSymbolVisitor;
+import io.crate.execution.expression.scalar.AbstractScalarFunctionsTest;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ExpressionCompilerTest extends AbstractScalarFunctionsTest {
+
+    private final Map<String, Object> row = new HashMap<>();
+
+    /**
+     * Creates the regular (interpreted) inputs; fields are resolved from {@link #row}
+     */
+    private BaseImplementationSymbolVisitor<Void> inputVisitor;
+
+    @Before
+    public void prepareInputVisitor() throws Exception {
+        inputVisitor = new BaseImplementationSymbolVisitor<Void>(functions) {
+
+            @Override
+            public Input<?> visitField(Field field, Void context) {
+                String column = field.outputName();
+                return () -> row.get(column);
+            }
+        };
+    }
+
+    private Function function(String expression) {
+        Symbol symbol = sqlExpressions.normalize(sqlExpressions.asSymbol(expression));
+        assertThat(symbol, instanceOf(Function.class));
+        return (Function) symbol;
+    }
+
+    private Input<?> compile(Function function) {
+        return ExpressionCompiler.compile(function, s -> inputVisitor.process(s, null));
+    }
+
+    private void assertSameResultAsInterpreted(String expression, Object[]... columnValues) {
+        Function function = function(expression);
+        Input<?> interpreted = inputVisitor.process(function, null);
+        Input<?> compiled = compile(function);
+        assertThat(compiled, instanceOf(CompiledExpression.class));
+        for (int i = 0; i < 500; i++) {
+            for (Object[] column : columnValues) {
+                String name = (String) column[0];
+                row.put(name, column[1 + randomInt(column.length - 2)]);
+            }
+            assertThat(expression + " with " + row, compiled.value(), is(interpreted.value()));
+        }
+    }
+
+    @Test
+    public void testArithmeticAndComparisonsEvaluateLikeScalars() throws Exception {
+        Object[] x = {"x", null, 0L, -1L, 10L, Long.MAX_VALUE, Long.MIN_VALUE};
+        Object[] a = {"a", null, 0, 1, 3, 7, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        Object[] shortVal = {"short_val", null, (short) 0, (short) 4, Short.MAX_VALUE};
+        Object[] doubleVal = {"double_val", null, 0.0, -0.0, 1.5, 3.0, Double.NaN, Double.POSITIVE_INFINITY};
+
+        assertSameResultAsInterpreted("x + 1 > 10", x);
+        assertSameResultAsInterpreted("(x - 3) * 2", x);
+        assertSameResultAsInterpreted("a * a <= a + 7", a);
+        assertSameResultAsInterpreted("a % 3 = short_val", a, shortVal);
+        assertSameResultAsInterpreted("double_val / 2.0 >= double_val * double_val", doubleVal);
+        assertSameResultAsInterpreted("double_val = double_val - 0.0", doubleVal);
+    }
+
+    @Test
+    public void testLogicalOperatorsUseThreeValuedLogic() throws Exception {
+        Object[] x = {"x", null, 0L, 10L, 20L};
+        Object[] isAwesome = {"is_awesome", null, true, false};
+        Object[] name = {"name", null, new BytesRef("foo"), new BytesRef("bar")};
+
+        assertSameResultAsInterpreted("x > 5 and is_awesome", x, isAwesome);
+        assertSameResultAsInterpreted("x > 5 or is_awesome", x, isAwesome);
+        assertSameResultAsInterpreted("not (x < 15 and is_awesome) or x = 0", x, isAwesome);
+        // name = 'foo' can't be compiled and becomes a leaf of the compiled tree
+        assertSameResultAsInterpreted("name = 'foo' and x + 1 > 10", x, name);
+    }
+
+    @Test
+    public void testIntegerDivisionByZeroFailsLikeScalar() throws Exception {
+        row.put("a", 10);
+        Input<?> compiled = compile(function("a / (a - 10)"));
+        expectedException.expect(ArithmeticException.class);
+        compiled.value();
+    }
+
+    @Test
+    public void testExpressionsWithTheSameShapeShareTheClass() throws Exception {
+        Input<?> first = compile(function("x + 1 > 10"));
+        Input<?> second = compile(function("x + 5 > a"));
+        Input<?> third = compile(function("x * 5 > a"));
+        assertThat(first.getClass(), sameInstance(second.getClass()));
+        assertThat(first.getClass(), not(sameInstance(third.getClass())));
+    }
+
+    @Test
+    public void testUnsupportedFunctionIsNotCompiled() throws Exception {
+        assertThat(compile(function("substr(name, 1, 2)")), nullValue());
+        assertThat(compile(function("name = 'foo'")), nullValue());
+    }
+}
@@ -1,10 +1,16 @@
 package io.crate.execution.expression.operator;
 
+import io.crate.analyze.symbol.Symbol;
 import io.crate.execution.expression.scalar.AbstractScalarFunctionsTest;
 import org.junit.Test;
 
+import java.util.List;
+
 import static io.crate.testing.SymbolMatchers.isField;
+import static io.crate.testing.SymbolMatchers.isFunction;
 import static io.crate.testing.SymbolMatchers.isLiteral;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
 
 public class AndOperatorTest extends AbstractScalarFunctionsTest {
 
@@ -40,4 +46,22 @@ public class AndOperatorTest extends AbstractScalarFunctionsTest {
         assertEvaluate("null and false", false);
         assertEvaluate("null and null", null);
     }
+
+    @Test
+    public void testSplitReturnsAllNestedConjunctions() {
+        Symbol query = sqlExpressions.asSymbol("is_awesome and (id = 10 and name = 'foo')");
+        List<Symbol> parts = AndOperator.split(query);
+
+        assertThat(parts.size(), is(3));
+        assertThat(parts.get(0), isField("is_awesome"));
+        assertThat(parts.get(1), isFunction(EqOperator.NAME));
+        assertThat(parts.get(2), isFunction(EqOperator.NAME));
+    }
+
+    @Test
+    public void testSplitOfNonAndFunctionReturnsTheSymbolItself() {
+        Symbol query = sqlExpressions.asSymbol("id = 10 or name = 'foo'");
+
+        assertThat(AndOperator.split(query), contains(query));
+    }
 }
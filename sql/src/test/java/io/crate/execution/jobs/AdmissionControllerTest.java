@@ -0,0 +1,223 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import io.crate.action.sql.SessionContext;
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.auth.user.User;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.exceptions.JobKilledException;
+import io.crate.planner.Plan;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdmissionControllerTest extends CrateDummyClusterServiceUnitTest {
+
+    private static AdmissionController newController(Settings settings) {
+        return new AdmissionController(settings, new NoopCircuitBreaker(CrateCircuitBreakerService.QUERY));
+    }
+
+    @Test
+    public void testJobIsQueuedIfGroupLimitIsReachedAndAdmittedOnRelease() {
+        AdmissionController controller = newController(Settings.builder()
+            .put("node.sql.resource_groups.default.max_concurrent_jobs", 1)
+            .build());
+        ResourceGroup group = controller.resourceGroup(SessionContext.create());
+
+        CompletableFuture<Void> first = controller.admit(group, UUID.randomUUID());
+        CompletableFuture<Void> second = controller.admit(group, UUID.randomUUID());
+        assertThat(first.isDone(), is(true));
+        assertThat(second.isDone(), is(false));
+        assertThat(controller.queuedJobs(group), is(1));
+
+        controller.release(group);
+        assertThat(second.isDone(), is(true));
+        assertThat(controller.queuedJobs(group), is(0));
+        assertThat(controller.runningJobs(group), is(1));
+    }
+
+    @Test
+    public void testJobIsRejectedIfQueueIsFull() throws Exception {
+        AdmissionController controller = newController(Settings.builder()
+            .put("node.sql.resource_groups.default.max_concurrent_jobs", 1)
+            .put("node.sql.resource_groups.default.max_queued_jobs", 1)
+            .build());
+        ResourceGroup group = controller.resourceGroup(SessionContext.create());
+        controller.admit(group, UUID.randomUUID());
+        controller.admit(group, UUID.randomUUID());
+
+        CompletableFuture<Void> rejected = controller.admit(group, UUID.randomUUID());
+        try {
+            rejected.get();
+            fail("Job must be rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(EsRejectedExecutionException.class));
+            assertThat(e.getCause().getMessage(),
+                is("Resource group 'default' has reached its maximum of 1 queued jobs"));
+        }
+    }
+
+    @Test
+    public void testQueuedJobsOfGroupWithHigherPriorityAreAdmittedFirst() {
+        AdmissionController controller = newController(Settings.builder()
+            .put("node.sql.workload.max_concurrent_jobs", 1)
+            .put("node.sql.resource_groups.reporting.priority", 1)
+            .put("node.sql.resource_groups.dashboard.priority", 10)
+            .build());
+        SessionContext sessionContext = SessionContext.create();
+        sessionContext.setResourceGroup("reporting");
+        ResourceGroup reporting = controller.resourceGroup(sessionContext);
+        sessionContext.setResourceGroup("dashboard");
+        ResourceGroup dashboard = controller.resourceGroup(sessionContext);
+
+        controller.admit(reporting, UUID.randomUUID());
+        CompletableFuture<Void> queuedReporting = controller.admit(reporting, UUID.randomUUID());
+        CompletableFuture<Void> queuedDashboard = controller.admit(dashboard, UUID.randomUUID());
+
+        controller.release(reporting);
+        assertThat(queuedDashboard.isDone(), is(true));
+        assertThat(queuedReporting.isDone(), is(false));
+
+        controller.release(dashboard);
+        assertThat(queuedReporting.isDone(), is(true));
+    }
+
+    @Test
+    public void testCancelledJobIsRemovedFromTheQueue() throws Exception {
+        AdmissionController controller = newController(Settings.builder()
+            .put("node.sql.resource_groups.default.max_concurrent_jobs", 1)
+            .build());
+        ResourceGroup group = controller.resourceGroup(SessionContext.create());
+        UUID jobId = UUID.randomUUID();
+        controller.admit(group, UUID.randomUUID());
+        CompletableFuture<Void> queued = controller.admit(group, jobId);
+
+        assertThat(controller.cancel(jobId, new IllegalStateException("portal closed")), is(true));
+        assertThat(controller.queuedJobs(group), is(0));
+        assertThat(queued.isCompletedExceptionally(), is(true));
+        assertThat(controller.cancel(jobId, new IllegalStateException("portal closed")), is(false));
+
+        // the slot of the running job isn't given to the cancelled one
+        controller.release(group);
+        assertThat(controller.runningJobs(group), is(0));
+    }
+
+    @Test
+    public void testKilledJobsAreRemovedFromTheQueue() throws Exception {
+        AdmissionController controller = newController(Settings.builder()
+            .put("node.sql.resource_groups.default.max_concurrent_jobs", 1)
+            .build());
+        ResourceGroup group = controller.resourceGroup(SessionContext.create());
+        controller.admit(group, UUID.randomUUID());
+        UUID jobId = UUID.randomUUID();
+        CompletableFuture<Void> killed = controller.admit(group, jobId);
+        CompletableFuture<Void> other = controller.admit(group, UUID.randomUUID());
+
+        controller.killJob(jobId);
+        assertThat(controller.queuedJobs(group), is(1));
+        try {
+            killed.get();
+            fail("Job must be killed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(JobKilledException.class));
+        }
+
+        controller.killAllJobs();
+        assertThat(controller.queuedJobs(group), is(0));
+        assertThat(other.isCompletedExceptionally(), is(true));
+    }
+
+    @Test
+    public void testGroupIsNotAdmittedAboveBreakerUsageWhileItHasRunningJobs() {
+        CircuitBreaker breaker = mock(CircuitBreaker.class);
+        when(breaker.getLimit()).thenReturn(1000L);
+        when(breaker.getUsed()).thenReturn(600L);
+        AdmissionController controller = new AdmissionController(Settings.builder()
+            .put("node.sql.resource_groups.default.max_breaker_usage", "50%")
+            .build(), breaker);
+        ResourceGroup group = controller.resourceGroup(SessionContext.create());
+
+        assertThat(controller.admit(group, UUID.randomUUID()).isDone(), is(true));
+        CompletableFuture<Void> queued = controller.admit(group, UUID.randomUUID());
+        assertThat(queued.isDone(), is(false));
+
+        when(breaker.getUsed()).thenReturn(100L);
+        controller.release(group);
+        assertThat(queued.isDone(), is(true));
+    }
+
+    @Test
+    public void testUserMappingTakesPrecedenceOverSessionSetting() {
+        AdmissionController controller = newController(Settings.builder()
+            .putArray("node.sql.resource_groups.reporting.users", "alice")
+            .put("node.sql.resource_groups.dashboard.priority", 10)
+            .build());
+        SessionContext sessionContext = SessionContext.create(User.of("alice"));
+        sessionContext.setResourceGroup("dashboard");
+
+        assertThat(controller.resourceGroup(sessionContext).name(), is("reporting"));
+    }
+
+    @Test
+    public void testUnknownResourceGroupRaisesAnError() {
+        AdmissionController controller = newController(Settings.EMPTY);
+        SessionContext sessionContext = SessionContext.create();
+        sessionContext.setResourceGroup("unknown");
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Resource group 'unknown' does not exist");
+        controller.resourceGroup(sessionContext);
+    }
+
+    @Test
+    public void testPointLookupsBypassAdmission() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .addTable("create table t1 (id int primary key, name string)")
+            .build();
+
+        assertThat(requiresAdmission(e, "select name from t1 where id = 1"), is(false));
+        assertThat(requiresAdmission(e, "delete from t1 where id = 1"), is(false));
+        assertThat(requiresAdmission(e, "select name from t1 where name = 'foo'"), is(true));
+        assertThat(requiresAdmission(e, "delete from t1 where name = 'foo'"), is(true));
+    }
+
+    private static boolean requiresAdmission(SQLExecutor e, String stmt) {
+        AnalyzedStatement statement = e.analyze(stmt);
+        Plan plan = e.plan(stmt);
+        return AdmissionController.requiresAdmission(statement, plan);
+    }
+}
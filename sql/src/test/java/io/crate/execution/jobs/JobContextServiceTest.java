@@ -22,9 +22,11 @@
 package io.crate.execution.jobs;
 
 import com.google.common.collect.ImmutableList;
+import io.crate.exceptions.StatementTimeoutException;
 import io.crate.execution.engine.collect.stats.JobsLogs;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -34,12 +36,15 @@ import java.lang.reflect.Field;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 public class JobContextServiceTest extends CrateDummyClusterServiceUnitTest {
 
@@ -48,7 +53,7 @@ public class JobContextServiceTest extends CrateDummyClusterServiceUnitTest {
     @Before
     public void prepare() {
         JobsLogs jobsLogs = new JobsLogs(() -> true);
-        jobContextService = new JobContextService(Settings.EMPTY, clusterService, jobsLogs);
+        jobContextService = new JobContextService(Settings.EMPTY, clusterService, THREAD_POOL, jobsLogs);
     }
 
     @After
@@ -110,6 +115,23 @@ public class JobContextServiceTest extends CrateDummyClusterServiceUnitTest {
         jobContextService.createContext(builder);
     }
 
+    @Test
+    public void testContextIsKilledWithStatementTimeoutExceptionOnceTimeoutElapsed() throws Exception {
+        JobExecutionContext.Builder builder = jobContextService.newBuilder(UUID.randomUUID());
+        DummySubContext subContext = new DummySubContext();
+        builder.addSubContext(subContext);
+        builder.timeout(TimeValue.timeValueMillis(10));
+        JobExecutionContext ctx = jobContextService.createContext(builder);
+
+        try {
+            ctx.completionFuture().get(5, TimeUnit.SECONDS);
+            fail("context must be killed due to the timeout");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(StatementTimeoutException.class));
+        }
+        assertBusy(() -> assertThat(jobContextService.getContextOrNull(ctx.jobId()), nullValue()));
+    }
+
     @Test
     public void testKillAllCallsKillOnSubContext() throws Exception {
         final AtomicBoolean killCalled = new AtomicBoolean(false);
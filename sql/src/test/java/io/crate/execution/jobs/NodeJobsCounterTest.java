@@ -23,9 +23,21 @@
 package io.crate.execution.jobs;
 
 import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.transport.LocalTransportAddress;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 
 public class NodeJobsCounterTest extends CrateUnitTest {
@@ -74,4 +86,46 @@ public class NodeJobsCounterTest extends CrateUnitTest {
             fail("Did not expect unregistering a job for a null node to fail but got: " + e.getMessage());
         }
     }
+
+    @Test
+    public void testAdaptiveLimitsAreDisabledByDefault() {
+        assertThat(nodeJobsCounter.limitForNode("node1"), nullValue());
+        assertThat(nodeJobsCounter.maxConcurrentOperations("node1"), is(NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+    }
+
+    @Test
+    public void testAdaptiveLimitIsUsedForMaxConcurrentOperations() {
+        NodeJobsCounter adaptiveCounter = new NodeJobsCounter(Settings.builder()
+            .put(NodeJobsCounter.ADAPTIVE_BULK_LIMITS_SETTING.getKey(), true)
+            .build());
+        NodeLimit limit = adaptiveCounter.limitForNode("node1");
+        assertThat(limit, notNullValue());
+        assertThat(adaptiveCounter.limitForNode("node1"), sameInstance(limit));
+        assertThat(adaptiveCounter.limitForNode(null), nullValue());
+
+        limit.onRejection();
+        assertThat(adaptiveCounter.maxConcurrentOperations("node1"), is(2L));
+        assertThat(adaptiveCounter.nodeLimits(), contains(limit));
+    }
+
+    @Test
+    public void testLimitsOfRemovedNodesAreDropped() {
+        NodeJobsCounter adaptiveCounter = new NodeJobsCounter(Settings.builder()
+            .put(NodeJobsCounter.ADAPTIVE_BULK_LIMITS_SETTING.getKey(), true)
+            .build());
+        adaptiveCounter.limitForNode("node1");
+        NodeLimit limit = adaptiveCounter.limitForNode("node2");
+
+        DiscoveryNode node1 = new DiscoveryNode("node1", LocalTransportAddress.buildUnique(), Version.CURRENT);
+        DiscoveryNode node2 = new DiscoveryNode("node2", LocalTransportAddress.buildUnique(), Version.CURRENT);
+        ClusterState prevState = ClusterState.builder(ClusterName.DEFAULT)
+            .nodes(DiscoveryNodes.builder().localNodeId("node2").add(node1).add(node2).build())
+            .build();
+        ClusterState newState = ClusterState.builder(ClusterName.DEFAULT)
+            .nodes(DiscoveryNodes.builder().localNodeId("node2").add(node2).build())
+            .build();
+        adaptiveCounter.clusterChanged(new ClusterChangedEvent("node1 left", newState, prevState));
+
+        assertThat(adaptiveCounter.nodeLimits(), contains(limit));
+    }
 }
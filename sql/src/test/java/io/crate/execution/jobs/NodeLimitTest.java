@@ -0,0 +1,92 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.execution.jobs;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.Is.is;
+
+public class NodeLimitTest extends CrateUnitTest {
+
+    private static final long TARGET_LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private NodeLimit nodeLimit;
+
+    @Before
+    public void setupLimit() {
+        nodeLimit = new NodeLimit("n1", TARGET_LATENCY);
+    }
+
+    @Test
+    public void testFastResponsesIncreaseLimits() {
+        for (int i = 0; i < 10; i++) {
+            nodeLimit.onResponse(TARGET_LATENCY / 2, i);
+        }
+        assertThat(nodeLimit.bulkSize(), is(NodeLimit.INITIAL_BULK_SIZE + 10 * NodeLimit.BULK_SIZE_STEP));
+        assertThat(nodeLimit.maxConcurrentRequests(), is(6));
+        assertThat(nodeLimit.avgLatency(), is(50L));
+    }
+
+    @Test
+    public void testLimitsDoNotExceedMaximum() {
+        for (int i = 0; i < 100_000; i++) {
+            nodeLimit.onResponse(1, i);
+        }
+        assertThat(nodeLimit.bulkSize(), is(NodeLimit.MAX_BULK_SIZE));
+        assertThat(nodeLimit.maxConcurrentRequests(), is(NodeLimit.MAX_CONCURRENCY));
+    }
+
+    @Test
+    public void testSlowResponseHalvesBulkSizeOncePerTargetLatency() {
+        nodeLimit.onResponse(TARGET_LATENCY * 2, 0);
+        nodeLimit.onResponse(TARGET_LATENCY * 2, TARGET_LATENCY / 2);
+        assertThat(nodeLimit.bulkSize(), is(NodeLimit.INITIAL_BULK_SIZE / 2));
+
+        nodeLimit.onResponse(TARGET_LATENCY * 2, TARGET_LATENCY * 2);
+        assertThat(nodeLimit.bulkSize(), is(NodeLimit.INITIAL_BULK_SIZE / 4));
+        assertThat(nodeLimit.maxConcurrentRequests(), is((int) NodeJobsCounter.MAX_NODE_CONCURRENT_OPERATIONS));
+    }
+
+    @Test
+    public void testRejectionHalvesConcurrency() {
+        nodeLimit.onRejection(0);
+        nodeLimit.onRejection(1);
+        assertThat(nodeLimit.maxConcurrentRequests(), is(2));
+        assertThat(nodeLimit.numRejections(), is(2L));
+
+        for (int i = 0; i < 5; i++) {
+            nodeLimit.onRejection(TARGET_LATENCY * 2 * (i + 1));
+        }
+        assertThat(nodeLimit.maxConcurrentRequests(), is(NodeLimit.MIN_CONCURRENCY));
+        assertThat(nodeLimit.bulkSize(), is(NodeLimit.INITIAL_BULK_SIZE));
+    }
+
+    @Test
+    public void testAvgLatencyIsUnknownWithoutResponse() {
+        assertThat(nodeLimit.avgLatency(), is(-1L));
+    }
+}
@@ -25,12 +25,14 @@ package io.crate.execution.jobs.transport;
 import io.crate.execution.dsl.phases.NodeOperation;
 import io.crate.execution.jobs.transport.JobRequest;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
 import org.junit.Test;
 
 import java.util.Collections;
 import java.util.UUID;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class JobRequestTest {
@@ -48,5 +50,34 @@ public class JobRequestTest {
         assertThat(r1.coordinatorNodeId(), is(r2.coordinatorNodeId()));
         assertThat(r1.jobId(), is(r2.jobId()));
         assertThat(r1.nodeOperations().isEmpty(), is(true));
+        assertThat(r2.profile(), is(false));
+        assertThat(r2.timeout(), nullValue());
+    }
+
+    @Test
+    public void testJobRequestWithProfilingStreaming() throws Exception {
+        JobRequest r1 = new JobRequest(UUID.randomUUID(), "n1", Collections.<NodeOperation>emptyList(), true);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        r1.writeTo(out);
+
+        JobRequest r2 = new JobRequest();
+        r2.readFrom(out.bytes().streamInput());
+
+        assertThat(r2.profile(), is(true));
+    }
+
+    @Test
+    public void testJobRequestWithTimeoutStreaming() throws Exception {
+        JobRequest r1 = new JobRequest(
+            UUID.randomUUID(), "n1", Collections.<NodeOperation>emptyList(), false, TimeValue.timeValueSeconds(2));
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        r1.writeTo(out);
+
+        JobRequest r2 = new JobRequest();
+        r2.readFrom(out.bytes().streamInput());
+
+        assertThat(r2.timeout(), is(TimeValue.timeValueSeconds(2)));
     }
 }
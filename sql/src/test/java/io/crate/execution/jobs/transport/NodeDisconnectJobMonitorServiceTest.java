@@ -56,7 +56,7 @@ import static org.mockito.Mockito.when;
 public class NodeDisconnectJobMonitorServiceTest extends CrateDummyClusterServiceUnitTest {
 
     private JobContextService jobContextService() throws Exception {
-        return new JobContextService(Settings.EMPTY, clusterService, new JobsLogs(() -> true));
+        return new JobContextService(Settings.EMPTY, clusterService, THREAD_POOL, new JobsLogs(() -> true));
     }
 
     @Test
@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.integrationtests;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class AnalyzeIntegrationTest extends SQLTransportIntegrationTest {
+
+    @Test
+    public void testHistogramCoversValueRangeOfAllPartitions() throws Exception {
+        execute("create table t (p int, x int) partitioned by (p) with (number_of_replicas = 0)");
+        // the first partition alone holds more rows than the sample size,
+        // so the values of the second one are only part of a real sample
+        insertRange(1, 0, 30_000);
+        insertRange(2, 30_000, 40_000);
+        refresh();
+
+        execute("analyze t");
+        execute("select histogram_bounds from pg_catalog.pg_stats where tablename = 't' and attname = 'x'");
+        Object[] bounds = (Object[]) response.rows()[0][0];
+        assertThat(Integer.parseInt(bounds[0].toString()), lessThan(100));
+        assertThat(Integer.parseInt(bounds[bounds.length - 1].toString()), greaterThan(39_900));
+    }
+
+    private void insertRange(int partition, int from, int to) {
+        int batchSize = 5_000;
+        for (int start = from; start < to; start += batchSize) {
+            int end = Math.min(start + batchSize, to);
+            Object[][] bulkArgs = new Object[end - start][];
+            for (int i = start; i < end; i++) {
+                bulkArgs[i - start] = new Object[]{partition, i};
+            }
+            execute("insert into t (p, x) values (?, ?)", bulkArgs);
+        }
+    }
+}
@@ -92,6 +92,18 @@ public class CommonQueryBuilderTest extends LuceneQueryBuilderTest {
         assertThat(query, instanceOf(GenericFunctionQuery.class));
     }
 
+    @Test
+    public void testNumericConditionWithoutIndexBecomesVectorizedFunctionQuery() throws Exception {
+        assertThat(convert("x + 1 > 10"), instanceOf(VectorizedFunctionQuery.class));
+        assertThat(convert("x = x"), instanceOf(VectorizedFunctionQuery.class));
+        assertThat(convert("d * 2.0 < d"), instanceOf(VectorizedFunctionQuery.class));
+    }
+
+    @Test
+    public void testConditionWithoutVectorFormStaysGenericFunctionQuery() throws Exception {
+        assertThat(convert("abs(x) = 10"), instanceOf(GenericFunctionQuery.class));
+    }
+
     @Test
     public void testLteQuery() throws Exception {
         Query query = convert("x <= 10");
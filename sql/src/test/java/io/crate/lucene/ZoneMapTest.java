@@ -0,0 +1,119 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.lucene;
+
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class ZoneMapTest extends CrateUnitTest {
+
+    private DirectoryReader reader;
+    private List<LeafReaderContext> leaves;
+
+    @Before
+    public void prepareSegments() throws Exception {
+        IndexWriter iw = new IndexWriter(
+            new RAMDirectory(),
+            new IndexWriterConfig(new StandardAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        // one segment per commit: x in [0, 9], x in [10, 19] and a segment without x
+        for (long segment = 0; segment < 2; segment++) {
+            for (long i = segment * 10; i < segment * 10 + 10; i++) {
+                Document doc = new Document();
+                doc.add(new LongPoint("x", i));
+                iw.addDocument(doc);
+            }
+            iw.commit();
+        }
+        Document doc = new Document();
+        doc.add(new LongPoint("y", 1L));
+        iw.addDocument(doc);
+        iw.commit();
+        iw.close();
+
+        reader = DirectoryReader.open(iw.getDirectory());
+        leaves = reader.leaves();
+        assertThat(leaves.size(), is(3));
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    @Test
+    public void testSegmentsOutsideOfRangeAreSkipped() throws Exception {
+        ZoneMap zoneMap = ZoneMap.of(LongPoint.newRangeQuery("x", 12L, 15L));
+        assertThat(zoneMap.matchingLeaves(leaves), contains(leaves.get(1)));
+
+        zoneMap = ZoneMap.of(LongPoint.newRangeQuery("x", 5L, 10L));
+        assertThat(zoneMap.matchingLeaves(leaves), contains(leaves.get(0), leaves.get(1)));
+
+        zoneMap = ZoneMap.of(LongPoint.newExactQuery("x", 20L));
+        assertThat(zoneMap.matchingLeaves(leaves), empty());
+    }
+
+    @Test
+    public void testRequiredClausesOfBooleanQueryAreUsed() throws Exception {
+        Query query = new BooleanQuery.Builder()
+            .add(new ConstantScoreQuery(LongPoint.newRangeQuery("x", 0L, 3L)), BooleanClause.Occur.FILTER)
+            .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+            .build();
+        assertThat(ZoneMap.of(query).matchingLeaves(leaves), contains(leaves.get(0)));
+    }
+
+    @Test
+    public void testOptionalClausesAreIgnored() throws Exception {
+        Query query = new BooleanQuery.Builder()
+            .add(LongPoint.newRangeQuery("x", 0L, 3L), BooleanClause.Occur.SHOULD)
+            .add(LongPoint.newRangeQuery("y", 5L, 6L), BooleanClause.Occur.SHOULD)
+            .build();
+        assertThat(ZoneMap.of(query).matchingLeaves(leaves), is(leaves));
+    }
+
+    @Test
+    public void testQueryWithoutRangeMatchesAllSegments() throws Exception {
+        assertThat(ZoneMap.of(new MatchAllDocsQuery()).matchingLeaves(leaves), is(leaves));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+
+package io.crate.lucene.vector;
+
+import io.crate.execution.expression.operator.EqOperator;
+import io.crate.execution.expression.operator.GtOperator;
+import io.crate.execution.expression.operator.LtOperator;
+import io.crate.exceptions.UnsupportedFeatureException;
+import io.crate.execution.expression.scalar.arithmetic.ArithmeticFunctions;
+import io.crate.test.integration.CrateUnitTest;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+import static org.hamcrest.Matchers.is;
+
+public class VectorFilterTest extends CrateUnitTest {
+
+    private static final int NUM_DOCS = 3000;
+
+    private DirectoryReader reader;
+
+    @Before
+    public void prepareIndex() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        for (int i = 0; i < NUM_DOCS; i++) {
+            Document doc = new Document();
+            if (!isNull(i)) {
+                doc.add(new SortedNumericDocValuesField("x", i));
+            }
+            iw.addDocument(doc);
+        }
+        iw.forceMerge(1);
+        iw.close();
+        reader = DirectoryReader.open(iw.getDirectory());
+    }
+
+    @After
+    public void closeReader() throws Exception {
+        reader.close();
+    }
+
+    private static boolean isNull(int x) {
+        return x % 100 == 50;
+    }
+
+    private static NumericVectorExpression x() {
+        return new ColumnVectorExpression("x");
+    }
+
+    private static NumericVectorExpression literal(long value) {
+        return new LiteralVectorExpression(false, value);
+    }
+
+    private List<Integer> matches(VectorFilter filter) throws Exception {
+        LeafReaderContext context = reader.leaves().get(0);
+        VectorFilter.Evaluator evaluator = filter.newEvaluator(context);
+        DocBlock block = new DocBlock();
+        List<Integer> matches = new ArrayList<>();
+        int maxDoc = context.reader().maxDoc();
+        for (int firstDoc = 0; firstDoc < maxDoc; firstDoc += DocBlock.MAX_SIZE) {
+            block.reset(firstDoc, Math.min(DocBlock.MAX_SIZE, maxDoc - firstDoc));
+            evaluator.filter(block);
+            for (int i = 0; i < block.selectionSize(); i++) {
+                matches.add(firstDoc + block.selected(i));
+            }
+        }
+        return matches;
+    }
+
+    private static List<Integer> expected(IntPredicate condition) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < NUM_DOCS; i++) {
+            if (!isNull(i) && condition.test(i)) {
+                expected.add(i);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testAndOfComparisonsWithArithmetic() throws Exception {
+        // x + 1 > 10 and x < 60
+        VectorFilter filter = new AndVectorFilter(
+            CompareVectorFilter.of(GtOperator.NAME,
+                ArithmeticVectorExpression.of(ArithmeticFunctions.Names.ADD, x(), literal(1), false), literal(10)),
+            CompareVectorFilter.of(LtOperator.NAME, x(), literal(60))
+        );
+        assertThat(matches(filter), is(expected(x -> x + 1 > 10 && x < 60)));
+    }
+
+    @Test
+    public void testOrMergesSelectionsInDocOrder() throws Exception {
+        // x > 2990 or x < 5 or x = 1500
+        VectorFilter filter = new OrVectorFilter(
+            CompareVectorFilter.of(GtOperator.NAME, x(), literal(2990)),
+            new OrVectorFilter(
+                CompareVectorFilter.of(LtOperator.NAME, x(), literal(5)),
+                CompareVectorFilter.of(EqOperator.NAME, x(), literal(1500)))
+        );
+        assertThat(matches(filter), is(expected(x -> x > 2990 || x < 5 || x == 1500)));
+    }
+
+    @Test
+    public void testIntegerArithmeticOverflowsLikeRowEvaluation() throws Exception {
+        // x * 1000000 < 0 on an integer column wraps around like the scalar function does
+        VectorFilter filter = CompareVectorFilter.of(LtOperator.NAME,
+            ArithmeticVectorExpression.of(ArithmeticFunctions.Names.MULTIPLY, x(), literal(1000000), true),
+            literal(0));
+        assertThat(matches(filter), is(expected(x -> x * 1000000 < 0)));
+    }
+
+    @Test
+    public void testComparisonWithNullNeverMatches() throws Exception {
+        VectorFilter filter = CompareVectorFilter.of(EqOperator.NAME, x(), new LiteralVectorExpression(false, null));
+        assertThat(matches(filter).isEmpty(), is(true));
+    }
+
+    @Test
+    public void testColumnWithMultipleValuesInRowRaisesFilterError() throws Exception {
+        IndexWriter iw = new IndexWriter(new RAMDirectory(), new IndexWriterConfig(new StandardAnalyzer()));
+        Document doc = new Document();
+        doc.add(new SortedNumericDocValuesField("x", 1));
+        doc.add(new SortedNumericDocValuesField("x", 2));
+        iw.addDocument(doc);
+        iw.close();
+        try (DirectoryReader multiValuedReader = DirectoryReader.open(iw.getDirectory())) {
+            VectorFilter.Evaluator evaluator = CompareVectorFilter.of(GtOperator.NAME, x(), literal(0))
+                .newEvaluator(multiValuedReader.leaves().get(0));
+            DocBlock block = new DocBlock();
+            block.reset(0, 1);
+
+            expectedException.expect(UnsupportedFeatureException.class);
+            expectedException.expectMessage("Column \"x\" has multiple values in a row and cannot be compared to a single value");
+            evaluator.filter(block);
+        }
+    }
+}
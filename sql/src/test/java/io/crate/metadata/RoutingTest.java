@@ -24,16 +24,28 @@ package io.crate.metadata;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.crate.test.integration.CrateUnitTest;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.RecoverySource.PeerRecoverySource;
+import org.elasticsearch.cluster.routing.RoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.Randomness;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.transport.LocalTransportAddress;
+import org.elasticsearch.index.shard.ShardId;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -116,4 +128,39 @@ public class RoutingTest extends CrateUnitTest {
         Routing routing = routingProvider.forRandomMasterOrDataNode(new TableIdent("doc", "table"), nodes);
         assertThat(routing.locations().keySet(), contains("local_data"));
     }
+
+    @Test
+    public void testPrimariesOnlyRoutingSelectsPrimaryShards() throws Exception {
+        IndexMetaData indexMetaData = IndexMetaData.builder("t")
+            .settings(settings(Version.CURRENT))
+            .numberOfShards(1)
+            .numberOfReplicas(1)
+            .build();
+        ShardId shardId = new ShardId(indexMetaData.getIndex(), 0);
+        ClusterState state = ClusterState.builder(new ClusterName("crate"))
+            .metaData(MetaData.builder().put(indexMetaData, false))
+            .routingTable(RoutingTable.builder().add(
+                IndexRoutingTable.builder(indexMetaData.getIndex())
+                    .addShard(startedShardRouting(shardId, true, "n1"))
+                    .addShard(startedShardRouting(shardId, false, "n2"))
+                    .build()
+            ).build())
+            .build();
+
+        for (int seed = 0; seed < 10; seed++) {
+            RoutingProvider routingProvider = RoutingProvider.primariesOnly(seed, new String[0]);
+            Routing routing = routingProvider.forIndices(
+                state, new String[]{"t"}, Collections.emptyMap(), false, RoutingProvider.ShardSelection.ANY);
+            assertThat(routing.locations().keySet(), contains("n1"));
+        }
+    }
+
+    private static ShardRouting startedShardRouting(ShardId shardId, boolean primary, String nodeId) {
+        return ShardRouting.newUnassigned(shardId,
+            primary,
+            PeerRecoverySource.INSTANCE,
+            new UnassignedInfo(UnassignedInfo.Reason.INDEX_CREATED, null)
+        ).initialize(nodeId, null, 1L)
+            .moveToStarted();
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata.doc;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.PartitionName;
+import io.crate.metadata.Reference;
+import io.crate.metadata.ReferenceIdent;
+import io.crate.metadata.RowGranularity;
+import io.crate.metadata.TableIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PartitionValueIndexTest extends CrateUnitTest {
+
+    private static final TableIdent TABLE_IDENT = new TableIdent("doc", "parted");
+
+    private List<PartitionName> partitions;
+    private PartitionValueIndex index;
+
+    @Before
+    public void prepareIndex() throws Exception {
+        partitions = ImmutableList.of(
+            partition("30", "a"),
+            partition("10", "b"),
+            partition(null, "a"),
+            partition("20", "a"),
+            partition("10", "c")
+        );
+        index = new PartitionValueIndex(
+            ImmutableList.of(
+                new Reference(new ReferenceIdent(TABLE_IDENT, new ColumnIdent("p")), RowGranularity.PARTITION, DataTypes.LONG),
+                new Reference(new ReferenceIdent(TABLE_IDENT, new ColumnIdent("o")), RowGranularity.PARTITION, DataTypes.OBJECT)
+            ),
+            partitions
+        );
+    }
+
+    private static PartitionName partition(String p, String o) {
+        return new PartitionName(TABLE_IDENT, Arrays.asList(p == null ? null : new BytesRef(p), new BytesRef(o)));
+    }
+
+    private List<PartitionName> partitions(int... positions) {
+        BitSet bitSet = new BitSet();
+        for (int position : positions) {
+            bitSet.set(position);
+        }
+        return index.partitions(bitSet);
+    }
+
+    @Test
+    public void testOnlyPrimitiveColumnsAreIndexed() throws Exception {
+        assertThat(index.indexedType(0), is(DataTypes.LONG));
+        assertThat(index.indexedType(1), nullValue());
+    }
+
+    @Test
+    public void testMatchAny() throws Exception {
+        assertThat(index.partitions(index.matchAny(0, Collections.singletonList(10L))), is(partitions(1, 4)));
+        assertThat(index.partitions(index.matchAny(0, Arrays.asList(30L, 20L, 40L))), is(partitions(0, 3)));
+        assertThat(index.partitions(index.matchAny(0, Collections.singletonList(null))), empty());
+    }
+
+    @Test
+    public void testMatchRange() throws Exception {
+        assertThat(index.partitions(index.matchRange(0, 10L, false, null, false)), is(partitions(0, 3)));
+        assertThat(index.partitions(index.matchRange(0, 10L, true, null, false)), is(partitions(0, 1, 3, 4)));
+        assertThat(index.partitions(index.matchRange(0, null, false, 20L, false)), is(partitions(1, 4)));
+        assertThat(index.partitions(index.matchRange(0, null, false, 20L, true)), is(partitions(1, 3, 4)));
+        assertThat(index.partitions(index.matchRange(0, 15L, true, 25L, true)), is(partitions(3)));
+        assertThat(index.partitions(index.matchRange(0, 30L, false, null, false)), empty());
+    }
+
+    @Test
+    public void testPartitionsAreReturnedInTableOrder() throws Exception {
+        assertThat(index.partitions(index.matchRange(0, null, false, null, false)),
+            contains(partitions.get(0), partitions.get(1), partitions.get(3), partitions.get(4)));
+    }
+
+    @Test
+    public void testLookupOnColumnWhichIsNotIndexedFails() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Partitioned by column at position 1 is not indexed");
+        index.matchAny(1, Collections.singletonList("a"));
+    }
+}
@@ -25,14 +25,18 @@ package io.crate.metadata.settings.session;
 import io.crate.action.sql.SessionContext;
 import io.crate.data.Row;
 import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.Literal;
 import io.crate.sql.tree.StringLiteral;
+import org.elasticsearch.common.unit.TimeValue;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.fail;
 
 public class SessionSettingRegistryTest {
@@ -63,6 +67,69 @@ public class SessionSettingRegistryTest {
         }
     }
 
+    @Test
+    public void testHashJoinSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.HASH_JOIN_KEY);
+
+        assertThat(sessionContext.isHashJoinEnabled(), is(false));
+        applier.apply(Row.EMPTY, generateInput("true"), sessionContext);
+        assertThat(sessionContext.isHashJoinEnabled(), is(true));
+        applier.apply(Row.EMPTY, generateInput("false"), sessionContext);
+        assertThat(sessionContext.isHashJoinEnabled(), is(false));
+        try {
+            applier.apply(Row.EMPTY, generateInput("invalid", "input"), sessionContext);
+            fail("Should have failed to apply setting.");
+        } catch (IllegalArgumentException e) {
+            assertThat(sessionContext.isHashJoinEnabled(), is(false));
+        }
+    }
+
+    @Test
+    public void testSpillToDiskSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.SPILL_TO_DISK_KEY);
+
+        assertThat(sessionContext.isSpillToDiskEnabled(), is(false));
+        applier.apply(Row.EMPTY, generateInput("true"), sessionContext);
+        assertThat(sessionContext.isSpillToDiskEnabled(), is(true));
+        applier.apply(Row.EMPTY, generateInput("false"), sessionContext);
+        assertThat(sessionContext.isSpillToDiskEnabled(), is(false));
+    }
+
+    @Test
+    public void testResourceGroupSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.RESOURCE_GROUP_KEY);
+
+        assertThat(sessionContext.resourceGroup(), nullValue());
+        applier.apply(Row.EMPTY, generateInput("reporting"), sessionContext);
+        assertThat(sessionContext.resourceGroup(), is("reporting"));
+        applier.apply(Row.EMPTY, generateInput(), sessionContext);
+        assertThat(sessionContext.resourceGroup(), nullValue());
+    }
+
+    @Test
+    public void testStatementTimeoutSessionSetting() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.STATEMENT_TIMEOUT_KEY);
+
+        assertThat(sessionContext.statementTimeout(), is(SessionContext.NO_STATEMENT_TIMEOUT));
+        applier.apply(Row.EMPTY, generateInput("10s"), sessionContext);
+        assertThat(sessionContext.statementTimeout(), is(TimeValue.timeValueSeconds(10)));
+        applier.apply(Row.EMPTY, Collections.singletonList(Literal.fromObject(5000)), sessionContext);
+        assertThat(sessionContext.statementTimeout(), is(TimeValue.timeValueMillis(5000)));
+        applier.apply(Row.EMPTY, generateInput(), sessionContext);
+        assertThat(sessionContext.statementTimeout(), is(SessionContext.NO_STATEMENT_TIMEOUT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStatementTimeoutSessionSettingRejectsNegativeValue() {
+        SessionContext sessionContext = new SessionContext(null, null, x -> {}, x -> {});
+        SessionSettingApplier applier = SessionSettingRegistry.getApplier(SessionSettingRegistry.STATEMENT_TIMEOUT_KEY);
+        applier.apply(Row.EMPTY, generateInput("-1"), sessionContext);
+    }
+
     private static List<Expression> generateInput(String... inputs) {
         ArrayList<Expression> expressions = new ArrayList<>(inputs.length);
         for (String input : inputs) {
@@ -0,0 +1,114 @@
+/*
+ * Licensed to CRATE Technology GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+
+package io.crate.planner;
+
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class ColumnStatsCollectorTest extends CrateUnitTest {
+
+    @Test
+    public void testStatsOfFullySampledColumn() {
+        ColumnStatsCollector collector = new ColumnStatsCollector(DataTypes.INTEGER);
+        for (int i = 0; i < 10; i++) {
+            collector.add(i % 3);
+        }
+        for (int i = 100; i < 105; i++) {
+            collector.add(i);
+        }
+        collector.add(null);
+
+        ColumnStats stats = collector.build(20, 15);
+        assertThat(stats.nullFraction(), is(0.25));
+        assertThat(stats.approxDistinct(), is(8.0));
+        assertThat(stats.mostCommonValues(), contains(0, 1, 2));
+        assertThat(stats.mostCommonFrequencies()[0], closeTo(0.2, 0.0001));
+        assertThat(stats.histogramBounds(), contains(100, 101, 102, 103, 104));
+
+        assertThat(stats.eqSelectivity(0), closeTo(0.2, 0.0001));
+        assertThat(stats.eqSelectivity(null), is(0.25));
+        // 5 values share the remaining 25% of rows which aren't null or one of the most common values
+        assertThat(stats.eqSelectivity(102), closeTo(0.05, 0.0001));
+        assertThat(stats.ltSelectivity(102, false), closeTo(0.625, 0.0001));
+    }
+
+    @Test
+    public void testHistogramIsLimitedToNumBuckets() {
+        ColumnStatsCollector collector = new ColumnStatsCollector(DataTypes.LONG);
+        for (long i = 0; i < 1000; i++) {
+            collector.add(i);
+        }
+        ColumnStats stats = collector.build(1000, 1000);
+        assertThat(stats.mostCommonValues().size(), is(0));
+        assertThat(stats.histogramBounds().size(), is(ColumnStatsCollector.NUM_HISTOGRAM_BUCKETS + 1));
+        assertThat(stats.histogramBounds().get(0), is(0L));
+        assertThat(stats.histogramBounds().get(ColumnStatsCollector.NUM_HISTOGRAM_BUCKETS), is(999L));
+        assertThat(stats.ltSelectivity(500L, false), closeTo(0.5, 0.01));
+    }
+
+    @Test
+    public void testApproxDistinctOfSample() {
+        // all values of the sample are unique, the column is assumed to be unique
+        assertThat(ColumnStatsCollector.approxDistinct(1000, 100_000, 1000, 1000), is(100_000.0));
+        // no singletons, the sample likely contains all distinct values
+        assertThat(ColumnStatsCollector.approxDistinct(1000, 100_000, 10, 0), is(10.0));
+        assertThat(ColumnStatsCollector.approxDistinct(1000, 100_000, 600, 300), closeTo(853.48, 0.01));
+        assertThat(ColumnStatsCollector.approxDistinct(0, 100_000, 0, 0), is(0.0));
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ColumnStatsCollector collector = new ColumnStatsCollector(DataTypes.STRING);
+        for (String value : new String[] {"a", "a", "b", "c", "d", null}) {
+            collector.add(value);
+        }
+        ColumnStats stats = collector.build(6, 5);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        stats.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        ColumnStats streamed = new ColumnStats(in);
+
+        assertThat(streamed, is(stats));
+        assertThat(streamed.mostCommonValues(), contains(new BytesRef("a")));
+    }
+
+    @Test
+    public void testJoinSelectivity() {
+        ColumnStats lhs = new ColumnStats(DataTypes.INTEGER, 0.0, 100, Collections.emptyList(),
+            new double[0], Collections.emptyList());
+        ColumnStats rhs = new ColumnStats(DataTypes.INTEGER, 0.5, 10, Collections.emptyList(),
+            new double[0], Collections.emptyList());
+        assertThat(ColumnStats.joinSelectivity(lhs, rhs), is(0.005));
+    }
+}
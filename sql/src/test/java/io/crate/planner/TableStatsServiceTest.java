@@ -26,6 +26,8 @@ import com.carrotsearch.hppc.ObjectLongMap;
 import io.crate.action.sql.Session;
 import io.crate.action.sql.SQLOperations;
 import io.crate.data.RowN;
+import io.crate.execution.ddl.TransportColumnStatsAction;
+import io.crate.metadata.Schemas;
 import io.crate.metadata.TableIdent;
 import io.crate.plugin.SQLPlugin;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -38,8 +40,10 @@ import org.junit.Test;
 import org.mockito.Answers;
 import org.mockito.Mockito;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -73,7 +77,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
+            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()),
+            mock(Schemas.class),
+            mock(TransportColumnStatsAction.class));
 
         assertThat(statsService.refreshInterval,
             is(TimeValue.timeValueMinutes(0)));
@@ -85,7 +91,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()));
+            mock(SQLOperations.class, Answers.RETURNS_MOCKS.get()),
+            mock(Schemas.class),
+            mock(TransportColumnStatsAction.class));
 
         assertThat(statsService.refreshInterval,
             is(TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING.getDefault()));
@@ -149,7 +157,9 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            sqlOperations
+            sqlOperations,
+            mock(Schemas.class),
+            mock(TransportColumnStatsAction.class)
         );
         statsService.run();
 
@@ -172,10 +182,30 @@ public class TableStatsServiceTest extends CrateDummyClusterServiceUnitTest {
             THREAD_POOL,
             clusterService,
             new TableStats(),
-            sqlOperations
+            sqlOperations,
+            mock(Schemas.class),
+            mock(TransportColumnStatsAction.class)
         );
 
         statsService.run();
         Mockito.verify(session, times(0)).sync();
     }
+
+    @Test
+    public void testTablesAreReAnalyzedIfNumDocsChangedSignificantly() {
+        assertThat(TableStatsService.needsAnalysis(-1L, 0L), is(false));
+        assertThat(TableStatsService.needsAnalysis(-1L, 10L), is(true));
+        assertThat(TableStatsService.needsAnalysis(100L, 105L), is(false));
+        assertThat(TableStatsService.needsAnalysis(100L, 111L), is(true));
+        assertThat(TableStatsService.needsAnalysis(100L, 80L), is(true));
+    }
+
+    @Test
+    public void testSampleStatementPicksRowsOfAllShardsIfTableExceedsSampleSize() {
+        List<String> columns = Arrays.asList("\"x\"", "\"y\"");
+        assertThat(TableStatsService.sampleStatement("\"doc\".\"t\"", columns, 100L, 1000),
+            is("select \"x\", \"y\" from \"doc\".\"t\" limit 1000"));
+        assertThat(TableStatsService.sampleStatement("\"doc\".\"t\"", columns, 4000L, 1000),
+            is("select \"x\", \"y\" from \"doc\".\"t\" where random() < 0.25 limit 1000"));
+    }
 }
@@ -23,14 +23,19 @@
 package io.crate.planner.operators;
 
 import com.carrotsearch.hppc.ObjectIntHashMap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import io.crate.sql.tree.QualifiedName;
 import io.crate.testing.T3;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.contains;
@@ -80,4 +85,85 @@ public class JoinOrderingTest {
         );
         assertThat(qualifiedNames, contains(T3.T1, T3.T2, T3.T3));
     }
+
+    @Test
+    public void testOrderByCostJoinsSmallRelationsFirst() {
+        // SELECT * FROM t1, t2, t3, t4 WHERE t1.id = t2.id AND t2.id = t3.id AND t3.id = t4.id
+        Map<QualifiedName, Long> numRows = ImmutableMap.of(
+            T3.T1, 1_000_000L,
+            T3.T2, 100L,
+            T3.T3, 10_000L,
+            T3.T4, 10L
+        );
+        Collection<QualifiedName> qualifiedNames = JoinOrdering.orderByCost(
+            Arrays.asList(T3.T1, T3.T2, T3.T3, T3.T4),
+            Arrays.asList(ImmutableSet.of(T3.T1, T3.T2), ImmutableSet.of(T3.T2, T3.T3), ImmutableSet.of(T3.T3, T3.T4)),
+            numRows::get
+        );
+        assertThat(qualifiedNames, contains(T3.T3, T3.T2, T3.T4, T3.T1));
+    }
+
+    @Test
+    public void testOrderByCostAvoidsCrossJoins() {
+        // SELECT * FROM t1, t2, t3 WHERE t1.id = t3.id AND t2.id = t3.id
+        Map<QualifiedName, Long> numRows = ImmutableMap.of(
+            T3.T1, 10L,
+            T3.T2, 10L,
+            T3.T3, 1_000_000L
+        );
+        Collection<QualifiedName> qualifiedNames = JoinOrdering.orderByCost(
+            Arrays.asList(T3.T1, T3.T2, T3.T3),
+            Arrays.asList(ImmutableSet.of(T3.T1, T3.T3), ImmutableSet.of(T3.T2, T3.T3)),
+            numRows::get
+        );
+        assertThat(qualifiedNames, contains(T3.T3, T3.T1, T3.T2));
+    }
+
+    @Test
+    public void testOrderByCostKeepsOriginalOrderOnTies() {
+        // SELECT * FROM t3, t1, t2 WHERE t3.id = t1.id AND t1.id = t2.id
+        Map<QualifiedName, Long> numRows = ImmutableMap.of(
+            T3.T1, 100L,
+            T3.T2, 100L,
+            T3.T3, 100L
+        );
+        Collection<QualifiedName> qualifiedNames = JoinOrdering.orderByCost(
+            Arrays.asList(T3.T3, T3.T1, T3.T2),
+            Arrays.asList(ImmutableSet.of(T3.T3, T3.T1), ImmutableSet.of(T3.T1, T3.T2)),
+            numRows::get
+        );
+        assertThat(qualifiedNames, contains(T3.T3, T3.T1, T3.T2));
+    }
+
+    @Test
+    public void testOrderByCostUsesGreedySearchForManyRelations() {
+        List<QualifiedName> relations = new ArrayList<>();
+        List<Set<QualifiedName>> joinedRelations = new ArrayList<>();
+        Map<QualifiedName, Long> numRows = new HashMap<>();
+        for (int i = 0; i <= JoinOrdering.MAX_RELATIONS_FOR_EXHAUSTIVE_SEARCH; i++) {
+            QualifiedName relation = new QualifiedName("t" + i);
+            if (!relations.isEmpty()) {
+                joinedRelations.add(ImmutableSet.of(relations.get(relations.size() - 1), relation));
+            }
+            relations.add(relation);
+            numRows.put(relation, i == 5 || i == 6 ? 10L : 1_000_000L);
+        }
+        List<QualifiedName> qualifiedNames = new ArrayList<>(
+            JoinOrdering.orderByCost(relations, joinedRelations, numRows::get));
+
+        assertThat(qualifiedNames.size(), is(relations.size()));
+        assertThat(qualifiedNames.subList(0, 2), contains(relations.get(5), relations.get(6)));
+    }
+
+    @Test
+    public void testRelationsAreOrderedByJoinConditionsIfNumRowsAreUnknown() {
+        Collection<QualifiedName> qualifiedNames = JoinOrdering.getOrderedRelationNames(
+            true,
+            Arrays.asList(T3.T1, T3.T2, T3.T3),
+            ImmutableSet.of(ImmutableSet.of(T3.T2, T3.T3)),
+            ImmutableSet.of(),
+            name -> name.equals(T3.T1) ? 10L : -1L
+        );
+        assertThat(qualifiedNames, contains(T3.T2, T3.T3, T3.T1));
+    }
 }
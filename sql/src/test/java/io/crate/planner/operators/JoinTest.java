@@ -26,6 +26,9 @@ import com.carrotsearch.hppc.ObjectLongHashMap;
 import io.crate.analyze.MultiSourceSelect;
 import io.crate.analyze.TableDefinitions;
 import io.crate.data.Row;
+import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.EvalProjection;
+import io.crate.metadata.Reference;
 import io.crate.metadata.Functions;
 import io.crate.metadata.TableIdent;
 import io.crate.planner.PlannerContext;
@@ -33,6 +36,8 @@ import io.crate.planner.SubqueryPlanner;
 import io.crate.planner.TableStats;
 import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
+import io.crate.planner.node.dql.join.HashJoin;
+import io.crate.planner.node.dql.join.JoinType;
 import io.crate.planner.node.dql.join.NestedLoop;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
@@ -42,8 +47,11 @@ import org.junit.Test;
 
 import java.util.Collections;
 
+import static io.crate.testing.SymbolMatchers.isInputColumn;
 import static io.crate.testing.TestingHelpers.getFunctions;
 import static java.util.Collections.emptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 
 public class JoinTest extends CrateDummyClusterServiceUnitTest {
@@ -92,4 +100,69 @@ public class JoinTest extends CrateDummyClusterServiceUnitTest {
             is(DistributionType.SAME_NODE)
         );
     }
+
+    @Test
+    public void testHashJoinIsUsedForEquiJoinIfEnabled() throws Exception {
+        MultiSourceSelect mss = e.analyze("select * from users, locations where users.id = locations.id");
+
+        TableStats tableStats = new TableStats();
+        PlannerContext context = e.getPlannerContext(clusterService.state());
+        context.transactionContext().sessionContext().setHashJoinEnabled(true);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(functions, tableStats);
+        SubqueryPlanner subqueryPlanner = new SubqueryPlanner((s) -> logicalPlanner.planSubSelect(s, context));
+        LogicalPlan operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        Object plan = operator.build(context, projectionBuilder, -1, 0, null, null, Row.EMPTY, emptyMap());
+
+        assertThat(plan, instanceOf(HashJoin.class));
+        HashJoin hashJoin = (HashJoin) plan;
+        assertThat(hashJoin.hashJoinPhase().joinType(), is(JoinType.INNER));
+        assertThat(hashJoin.hashJoinPhase().leftJoinConditionInputs().size(), is(1));
+        assertThat(hashJoin.hashJoinPhase().rightJoinConditionInputs().size(), is(1));
+    }
+
+    @Test
+    public void testNestedLoopIsUsedForNonEquiJoinIfHashJoinIsEnabled() throws Exception {
+        MultiSourceSelect mss = e.analyze("select * from users, locations where users.id > locations.id");
+
+        TableStats tableStats = new TableStats();
+        PlannerContext context = e.getPlannerContext(clusterService.state());
+        context.transactionContext().sessionContext().setHashJoinEnabled(true);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(functions, tableStats);
+        SubqueryPlanner subqueryPlanner = new SubqueryPlanner((s) -> logicalPlanner.planSubSelect(s, context));
+        LogicalPlan operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        Object plan = operator.build(context, projectionBuilder, -1, 0, null, null, Row.EMPTY, emptyMap());
+
+        assertThat(plan, instanceOf(NestedLoop.class));
+    }
+
+    @Test
+    public void testHashJoinBuildsHashTableFromSmallerSide() throws Exception {
+        MultiSourceSelect mss = e.analyze("select users.id, locations.id from users, locations " +
+                                          "where users.id = locations.id");
+
+        TableStats tableStats = new TableStats();
+        ObjectLongHashMap<TableIdent> rowCountByTable = new ObjectLongHashMap<>();
+        rowCountByTable.put(TableDefinitions.USER_TABLE_IDENT, 10);
+        rowCountByTable.put(TableDefinitions.TEST_DOC_LOCATIONS_TABLE_IDENT, 10_000);
+        tableStats.updateTableStats(rowCountByTable);
+
+        PlannerContext context = e.getPlannerContext(clusterService.state());
+        context.transactionContext().sessionContext().setHashJoinEnabled(true);
+        LogicalPlanner logicalPlanner = new LogicalPlanner(functions, tableStats);
+        SubqueryPlanner subqueryPlanner = new SubqueryPlanner((s) -> logicalPlanner.planSubSelect(s, context));
+        LogicalPlan operator = Join.createNodes(mss, mss.where(), subqueryPlanner).build(tableStats, Collections.emptySet());
+        HashJoin hashJoin = (HashJoin) operator.build(
+            context, projectionBuilder, -1, 0, null, null, Row.EMPTY, emptyMap());
+
+        assertThat(tableOf((Collect) hashJoin.left()), is(TableDefinitions.TEST_DOC_LOCATIONS_TABLE_IDENT));
+        assertThat(tableOf((Collect) hashJoin.right()), is(TableDefinitions.USER_TABLE_IDENT));
+        // the joined rows are (locations.id, users.id), the outputs are still (users.id, locations.id)
+        EvalProjection projection = (EvalProjection) hashJoin.hashJoinPhase().projections().get(0);
+        assertThat(projection.outputs(), contains(isInputColumn(1), isInputColumn(0)));
+    }
+
+    private static TableIdent tableOf(Collect collect) {
+        Reference reference = (Reference) ((RoutedCollectPhase) collect.collectPhase()).toCollect().get(0);
+        return reference.ident().tableIdent();
+    }
 }
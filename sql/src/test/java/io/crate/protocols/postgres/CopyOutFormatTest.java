@@ -0,0 +1,155 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import com.google.common.collect.ImmutableMap;
+import io.crate.data.BatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.execution.engine.collect.files.CopyInBatchIterator;
+import io.crate.execution.engine.collect.files.CopyInSource;
+import io.crate.execution.engine.collect.files.DelimitedLineParser;
+import io.crate.execution.engine.collect.files.LineCollectorExpression;
+import io.crate.execution.expression.InputFactory;
+import io.crate.execution.expression.reference.file.FileLineReferenceResolver;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.GenericProperty;
+import io.crate.sql.tree.StringLiteral;
+import io.crate.types.DataTypes;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Settings;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.crate.testing.TestingHelpers.createReference;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+public class CopyOutFormatTest {
+
+    private static final PGType[] PG_TYPES = PGTypes.get(Arrays.asList(DataTypes.INTEGER, DataTypes.STRING));
+    private static final List<Reference> COLUMNS = Arrays.asList(
+        createReference("id", DataTypes.INTEGER),
+        createReference("name", DataTypes.STRING)
+    );
+
+    private static String encode(CopyOutFormat format, Object... values) {
+        Row row = new RowN(values);
+        return new String(format.encodeRow(row, PG_TYPES), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the data like {@code COPY ... FROM STDIN} does and returns the resulting JSON objects.
+     */
+    private static List<String> copyIn(String data, Settings settings) throws Exception {
+        CopyInSource source = new CopyInSource(1024, settings.get("format").equals("csv"), pause -> {});
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        // small chunks, as if the data was received in many CopyData messages
+        for (int i = 0; i < bytes.length; i += 3) {
+            source.write(bytes, i, Math.min(3, bytes.length - i));
+        }
+        source.finish();
+
+        InputFactory inputFactory = new InputFactory(new Functions(ImmutableMap.of(), ImmutableMap.of()));
+        InputFactory.Context<LineCollectorExpression<?>> ctx =
+            inputFactory.ctxForRefs(FileLineReferenceResolver::getImplementation);
+        List<Input<?>> inputs = Collections.singletonList(ctx.add(createReference("_raw", DataTypes.STRING)));
+        BatchIterator<Row> iterator = CopyInBatchIterator.newInstance(
+            source, DelimitedLineParser.fromSettings(settings, COLUMNS), inputs, ctx.expressions());
+        List<String> rows = new ArrayList<>();
+        while (iterator.moveNext()) {
+            rows.add(((BytesRef) iterator.currentElement().get(0)).utf8ToString());
+        }
+        iterator.close();
+        return rows;
+    }
+
+    private static CopyOutFormat format(String... keyValues) {
+        GenericProperties properties = new GenericProperties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.add(new GenericProperty(keyValues[i], new StringLiteral(keyValues[i + 1])));
+        }
+        return CopyOutFormat.fromProperties(properties, Row.EMPTY);
+    }
+
+    @Test
+    public void testTextFormatEscapesSpecialCharacters() throws Exception {
+        CopyOutFormat format = format();
+        assertThat(encode(format, 1, new BytesRef("a\tb\\c\nd")), is("1\ta\\tb\\\\c\\nd\n"));
+        assertThat(encode(format, null, new BytesRef("")), is("\\N\t\n"));
+    }
+
+    @Test
+    public void testCsvFormatQuotesValuesIfNecessary() throws Exception {
+        CopyOutFormat format = format("format", "csv");
+        assertThat(encode(format, 1, new BytesRef("plain")), is("1,plain\n"));
+        assertThat(encode(format, 2, new BytesRef("Dent, \"Arthur\"")), is("2,\"Dent, \"\"Arthur\"\"\"\n"));
+        assertThat(encode(format, null, new BytesRef("")), is(",\"\"\n"));
+    }
+
+    @Test
+    public void testCsvHeaderAndCustomDelimiter() throws Exception {
+        CopyOutFormat format = format("format", "csv", "delimiter", ";", "header", "true");
+        assertThat(format.header(), is(true));
+        assertThat(new String(format.encodeHeader(Arrays.asList("id", "name")), StandardCharsets.UTF_8), is("id;name\n"));
+        assertThat(encode(format, 1, new BytesRef("a;b")), is("1;\"a;b\"\n"));
+    }
+
+    @Test
+    public void testCsvRoundTripWithNewlinesInValues() throws Exception {
+        CopyOutFormat format = format("format", "csv");
+        String data = encode(format, 1, new BytesRef("first\nsecond")) + encode(format, 2, new BytesRef("\"x\"\r\n, y"));
+
+        assertThat(copyIn(data, Settings.builder().put("format", "csv").build()), contains(
+            "{\"id\":1,\"name\":\"first\\nsecond\"}",
+            "{\"id\":2,\"name\":\"\\\"x\\\"\\r\\n, y\"}"
+        ));
+    }
+
+    @Test
+    public void testTextRoundTripWithCustomDelimiter() throws Exception {
+        CopyOutFormat format = format("delimiter", "|");
+        String data = encode(format, 1, new BytesRef("a|b\\c\td\ne")) + encode(format, null, new BytesRef("\\N"));
+
+        assertThat(copyIn(data, Settings.builder().put("format", "text").put("delimiter", "|").build()), contains(
+            "{\"id\":1,\"name\":\"a|b\\\\c\\td\\ne\"}",
+            "{\"id\":null,\"name\":\"\\\\N\"}"
+        ));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedOptionRaisesAnError() throws Exception {
+        format("compression", "gzip");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import io.crate.data.Row1;
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class DataRowEncoderTest {
+
+    @Test
+    public void testRowsAreBufferedUntilThresholdIsReached() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        // each DataRow of a single integer in text format has 1 + 4 + 2 + 4 + 1 = 12 bytes
+        DataRowEncoder encoder = new DataRowEncoder(
+            channel, Collections.singletonList(DataTypes.INTEGER), null, 30);
+
+        encoder.encode(new Row1(1));
+        assertThat(channel.outboundMessages().size(), is(0));
+        encoder.encode(new Row1(2));
+        assertThat(channel.outboundMessages().size(), is(0));
+        encoder.encode(new Row1(3));
+        assertThat(channel.outboundMessages().size(), is(1));
+        assertThat(encoder.readyForNextRow(), nullValue());
+
+        ByteBuf buffer = channel.readOutbound();
+        for (int i = 1; i <= 3; i++) {
+            assertThat((char) buffer.readByte(), is('D'));
+            assertThat(buffer.readInt(), is(11));
+            assertThat(buffer.readShort(), is((short) 1));
+            assertThat(buffer.readInt(), is(1));
+            assertThat((char) buffer.readByte(), is(Character.forDigit(i, 10)));
+        }
+        assertThat(buffer.readableBytes(), is(0));
+        buffer.release();
+    }
+
+    @Test
+    public void testWritePendingWritesRemainingRows() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        DataRowEncoder encoder = new DataRowEncoder(
+            channel,
+            Arrays.asList(DataTypes.INTEGER, DataTypes.STRING),
+            new FormatCodes.FormatCode[] { FormatCodes.FormatCode.BINARY, FormatCodes.FormatCode.TEXT });
+
+        encoder.encode(new RowN(new Object[] { 10, null }));
+        encoder.writePending();
+        encoder.writePending();
+        channel.flush();
+
+        assertThat(channel.outboundMessages().size(), is(1));
+        ByteBuf buffer = channel.readOutbound();
+        assertThat((char) buffer.readByte(), is('D'));
+        assertThat(buffer.readInt(), is(18));
+        assertThat(buffer.readShort(), is((short) 2));
+        assertThat(buffer.readInt(), is(4));
+        assertThat(buffer.readInt(), is(10));
+        assertThat(buffer.readInt(), is(-1));
+        buffer.release();
+    }
+}
@@ -71,12 +71,24 @@ public class MessagesTest {
         verifyResponse(channel, response);
     }
 
+    @Test
+    public void testCommandCompleteOfCursorStatements() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+
+        Messages.sendCommandComplete(channel, "declare c cursor for select * from t", 0);
+        verifyResponse(channel, "DECLARE CURSOR");
+        Messages.sendCommandComplete(channel, "fetch 10 from c", 10);
+        verifyResponse(channel, "FETCH 10");
+        Messages.sendCommandComplete(channel, "close c", 0);
+        verifyResponse(channel, "CLOSE CURSOR");
+    }
+
     private static void verifyResponse(EmbeddedChannel channel, String response) {
         byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
         ByteBuf buffer = (ByteBuf) channel.outboundMessages().poll();
         assertThat(buffer.readByte(), is((byte) 'C'));
         assertThat(buffer.readInt(), is(responseBytes.length + 4 + 1));
-        byte[] string = new byte[9];
+        byte[] string = new byte[responseBytes.length];
         buffer.readBytes(string);
         assertThat(string, is(responseBytes));
     }
@@ -23,12 +23,17 @@
 package io.crate.protocols.postgres;
 
 import io.crate.Version;
+import io.crate.action.sql.PlanCache;
+import io.crate.action.sql.ResultCache;
 import io.crate.action.sql.SQLOperations;
 import io.crate.action.sql.Session;
 import io.crate.auth.AlwaysOKNullAuthentication;
 import io.crate.auth.Authentication;
 import io.crate.auth.AuthenticationMethod;
+import io.crate.breaker.CrateCircuitBreakerService;
+import io.crate.execution.engine.collect.TransportShardGenerationsAction;
 import io.crate.execution.engine.collect.stats.JobsLogs;
+import io.crate.execution.jobs.AdmissionController;
 import io.crate.auth.user.User;
 import io.crate.auth.user.UserManager;
 import io.crate.planner.DependencyCarrier;
@@ -41,6 +46,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.embedded.EmbeddedChannel;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
 import org.elasticsearch.common.inject.Provider;
 import org.elasticsearch.common.settings.SecureString;
 import org.elasticsearch.common.settings.Settings;
@@ -78,6 +84,9 @@ public class PostgresWireProtocolTest extends CrateDummyClusterServiceUnitTest {
         sqlOperations = new SQLOperations(
             e.analyzer,
             e.planner,
+            new PlanCache(Settings.EMPTY, clusterService),
+            new ResultCache(Settings.EMPTY, clusterService, mock(TransportShardGenerationsAction.class)),
+            new AdmissionController(Settings.EMPTY, new NoopCircuitBreaker(CrateCircuitBreakerService.QUERY)),
             () -> mock(DependencyCarrier.class),
             new JobsLogs(() -> true),
             Settings.EMPTY,
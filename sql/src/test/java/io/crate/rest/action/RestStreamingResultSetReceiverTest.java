@@ -0,0 +1,172 @@
+/*
+ * Licensed to Crate under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.  Crate licenses this file
+ * to you under the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial
+ * agreement.
+ */
+
+package io.crate.rest.action;
+
+import com.google.common.collect.ImmutableList;
+import io.crate.analyze.symbol.Field;
+import io.crate.data.Row1;
+import io.crate.metadata.ColumnIdent;
+import io.crate.test.integration.CrateUnitTest;
+import io.crate.testing.DummyRelation;
+import io.crate.types.DataTypes;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService;
+import org.elasticsearch.rest.RestChannel;
+import org.elasticsearch.rest.RestResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class RestStreamingResultSetReceiverTest extends CrateUnitTest {
+
+    private final List<Field> fields = ImmutableList.of(
+        new Field(new DummyRelation(), new ColumnIdent("x"), DataTypes.INTEGER));
+
+    private final CircuitBreaker inFlightRequestsBreaker = new HierarchyCircuitBreakerService(
+        Settings.EMPTY, new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS))
+        .getBreaker(CircuitBreaker.IN_FLIGHT_REQUESTS);
+
+    private static String stripDuration(String s) {
+        return s.replaceAll(",\"duration\":[^,}]+", "");
+    }
+
+    private RestStreamingResultSetReceiver newReceiver(RestChannel restChannel,
+                                                       EmbeddedChannel channel,
+                                                       boolean ndjson,
+                                                       int chunkSize) throws Exception {
+        // like the RestController does for every request
+        inFlightRequestsBreaker.addEstimateBytesAndMaybeBreak(100, "<http_request>");
+        return new RestStreamingResultSetReceiver(
+            restChannel,
+            channel,
+            t -> {},
+            fields,
+            System.nanoTime(),
+            false,
+            ndjson,
+            chunkSize,
+            inFlightRequestsBreaker,
+            100);
+    }
+
+    private static String readChunkedBody(EmbeddedChannel channel) {
+        HttpResponse response = channel.readOutbound();
+        assertThat(response.headers().get(HttpHeaderNames.TRANSFER_ENCODING), is(HttpHeaderValues.CHUNKED.toString()));
+        StringBuilder body = new StringBuilder();
+        Object msg;
+        while ((msg = channel.readOutbound()) != null) {
+            HttpContent content = (HttpContent) msg;
+            body.append(content.content().toString(StandardCharsets.UTF_8));
+            content.release();
+            if (msg instanceof LastHttpContent) {
+                break;
+            }
+        }
+        return body.toString();
+    }
+
+    @Test
+    public void testSmallResultIsSentAsRegularResponse() throws Exception {
+        RestChannel restChannel = mock(RestChannel.class);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = newReceiver(restChannel, channel, false, 1024);
+        receiver.setNextRow(new Row1(1));
+        receiver.setNextRow(new Row1(2));
+        receiver.allFinished(false);
+
+        ArgumentCaptor<RestResponse> response = ArgumentCaptor.forClass(RestResponse.class);
+        verify(restChannel).sendResponse(response.capture());
+        assertThat(response.getValue().status(), is(RestStatus.OK));
+        assertThat(stripDuration(response.getValue().content().utf8ToString()),
+            is("{\"cols\":[\"x\"],\"rows\":[[1],[2]],\"rowcount\":2}"));
+        assertThat(channel.outboundMessages().isEmpty(), is(true));
+        assertThat(receiver.completionFuture().isDone(), is(true));
+    }
+
+    @Test
+    public void testLargeResultIsSentInChunks() throws Exception {
+        RestChannel restChannel = mock(RestChannel.class);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = newReceiver(restChannel, channel, false, 16);
+        for (int i = 0; i < 10; i++) {
+            receiver.setNextRow(new Row1(i));
+        }
+        assertThat(channel.outboundMessages().peek(), instanceOf(HttpResponse.class));
+        receiver.allFinished(false);
+
+        verifyZeroInteractions(restChannel);
+        assertThat(stripDuration(readChunkedBody(channel)),
+            is("{\"cols\":[\"x\"],\"rows\":[[0],[1],[2],[3],[4],[5],[6],[7],[8],[9]],\"rowcount\":10}"));
+        assertThat(channel.isOpen(), is(false));
+        // the response bypassed the RestChannel which would release the request otherwise
+        assertThat(inFlightRequestsBreaker.getUsed(), is(0L));
+    }
+
+    @Test
+    public void testNewlineDelimitedJson() throws Exception {
+        RestChannel restChannel = mock(RestChannel.class);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = newReceiver(restChannel, channel, true, 8);
+        receiver.setNextRow(new Row1(1));
+        receiver.setNextRow(new Row1(2));
+        receiver.allFinished(false);
+
+        assertThat(stripDuration(readChunkedBody(channel)),
+            is("{\"cols\":[\"x\"]}\n[1]\n[2]\n{\"rowcount\":2}\n"));
+    }
+
+    @Test
+    public void testFailureAfterFirstChunkIsAppendedToTheBody() throws Exception {
+        RestChannel restChannel = mock(RestChannel.class);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RestStreamingResultSetReceiver receiver = newReceiver(restChannel, channel, false, 16);
+        for (int i = 0; i < 3; i++) {
+            receiver.setNextRow(new Row1(i));
+        }
+        receiver.fail(new IllegalStateException("boom"));
+
+        verifyZeroInteractions(restChannel);
+        assertThat(inFlightRequestsBreaker.getUsed(), is(0L));
+        assertThat(readChunkedBody(channel),
+            is("{\"cols\":[\"x\"],\"rows\":[[0]]," +
+               "\"error\":{\"message\":\"SQLActionException[IllegalStateException: boom]\",\"code\":5000}}"));
+        assertThat(receiver.completionFuture().isCompletedExceptionally(), is(true));
+    }
+}
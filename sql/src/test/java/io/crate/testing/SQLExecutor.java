@@ -429,6 +429,10 @@ public class SQLExecutor {
         return functions;
     }
 
+    public SessionContext sessionContext() {
+        return sessionContext;
+    }
+
     private <T extends AnalyzedStatement> T analyze(String stmt, ParameterContext parameterContext) {
         Analysis analysis = analyzer.boundAnalyze(
             SqlParser.createStatement(stmt), transactionContext, parameterContext);